@@ -56,6 +56,19 @@ public interface ExtendedTracer extends Tracer {
 	 */
 	void setTimer(Timer timer) throws IllegalArgumentException;
 
+	/**
+	 * Sets the {@link Sampler} that decides if the new traces are sampled.
+	 * <p>
+	 * By default inspectIT tracer samples all traces. The sampling decision is propagated to the
+	 * downstream services, so that they sample the same traces.
+	 *
+	 * @param sampler
+	 *            {@link Sampler} to set. Must not be <code>null</code>.
+	 * @throws IllegalArgumentException
+	 *             If sampler provided is <code>null</code>.
+	 */
+	void setSampler(Sampler sampler) throws IllegalArgumentException;
+
 	/**
 	 * Builds span with no operation name. The thread context reference will added if the one exists
 	 * as the CHILD_OF reference.
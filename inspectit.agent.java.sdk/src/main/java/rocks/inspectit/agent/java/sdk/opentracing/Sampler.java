@@ -0,0 +1,21 @@
+package rocks.inspectit.agent.java.sdk.opentracing;
+
+/**
+ * Sampler decides if a new trace should be sampled. The decision is only made once when the root
+ * span of the trace is created and is then propagated in the span context to all spans of the
+ * trace, including the ones in the downstream services.
+ *
+ * @author Ivan Senic
+ *
+ */
+public interface Sampler {
+
+	/**
+	 * Decides if the trace with the given id should be sampled.
+	 *
+	 * @param traceId
+	 *            Id of the new trace.
+	 * @return <code>true</code> if the trace should be sampled, <code>false</code> otherwise.
+	 */
+	boolean isSampled(long traceId);
+}
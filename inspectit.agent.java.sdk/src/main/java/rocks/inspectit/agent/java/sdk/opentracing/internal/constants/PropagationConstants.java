@@ -23,6 +23,22 @@ public interface PropagationConstants {
 	 */
 	String TRACE_ID = INSPECTIT_PREFIX + "traceid";
 
+	/**
+	 * Header name for the sampling flag. Value is {@value #SAMPLED_TRUE} if the trace is sampled,
+	 * {@value #SAMPLED_FALSE} otherwise. Missing header denotes the sampled trace.
+	 */
+	String SAMPLED = INSPECTIT_PREFIX + "sampled";
+
+	/**
+	 * Value of the {@link #SAMPLED} header for the sampled trace.
+	 */
+	String SAMPLED_TRUE = "1";
+
+	/**
+	 * Value of the {@link #SAMPLED} header for the not sampled trace.
+	 */
+	String SAMPLED_FALSE = "0";
+
 	/**
 	 * Prefix for the propagation baggage.
 	 */
@@ -8,6 +8,7 @@ import io.opentracing.References;
 import io.opentracing.Span;
 import io.opentracing.SpanContext;
 import io.opentracing.Tracer.SpanBuilder;
+import rocks.inspectit.agent.java.sdk.opentracing.Sampler;
 import rocks.inspectit.agent.java.sdk.opentracing.Timer;
 
 /**
@@ -33,6 +34,11 @@ public class SpanBuilderImpl implements SpanBuilder {
 	 */
 	private final Timer timer;
 
+	/**
+	 * Sampler to decide on sampling if the span starts a new trace.
+	 */
+	private final Sampler sampler;
+
 	/**
 	 * Collected baggage from all parents.
 	 */
@@ -63,6 +69,7 @@ public class SpanBuilderImpl implements SpanBuilder {
 	 */
 	public SpanBuilderImpl(TracerImpl tracer, String operationName) {
 		this.timer = tracer.getTimer();
+		this.sampler = tracer.getSampler();
 		this.span = new SpanImpl(tracer);
 		this.span.setOperationName(operationName);
 	}
@@ -215,7 +222,7 @@ public class SpanBuilderImpl implements SpanBuilder {
 	 */
 	public SpanImpl build() {
 		// resolve context
-		SpanContextImpl context = SpanContextImpl.build(parent, referenceType, baggage);
+		SpanContextImpl context = SpanContextImpl.build(parent, referenceType, baggage, sampler);
 		span.setSpanContext(context);
 
 		return span;
@@ -6,12 +6,13 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import io.opentracing.SpanContext;
+import rocks.inspectit.agent.java.sdk.opentracing.Sampler;
 import rocks.inspectit.agent.java.sdk.opentracing.internal.util.RandomUtils;
 
 /**
  * Implementation of the {@link io.opentracing.SpanContext}. Keeps information about span id, trace
- * id and span parent id. Sampling flag is not included in the moment as it's not explicitly defined
- * by the opentracing API.
+ * id, span parent id and the sampling flag. The sampling flag is decided by the {@link Sampler}
+ * when the new trace is started and it's inherited by all child contexts.
  *
  * @author Ivan Senic
  *
@@ -44,7 +45,12 @@ public class SpanContextImpl implements SpanContext {
 	private final Map<String, String> baggage;
 
 	/**
-	 * Constructor. Use build methods.
+	 * If the trace this context belongs to is sampled.
+	 */
+	private final boolean sampled;
+
+	/**
+	 * Constructor for the sampled context. Use build methods.
 	 *
 	 * @param id
 	 *            Unique ID of the span.
@@ -58,11 +64,32 @@ public class SpanContextImpl implements SpanContext {
 	 *            Additional baggage
 	 */
 	public SpanContextImpl(long id, long traceId, long parentId, String referenceType, Map<String, String> baggage) {
+		this(id, traceId, parentId, referenceType, baggage, true);
+	}
+
+	/**
+	 * Constructor. Use build methods.
+	 *
+	 * @param id
+	 *            Unique ID of the span.
+	 * @param traceId
+	 *            ID of the trace that span belongs to.
+	 * @param parentId
+	 *            ID of the span's parent.
+	 * @param referenceType
+	 *            Reference to the parent.
+	 * @param baggage
+	 *            Additional baggage
+	 * @param sampled
+	 *            If the trace is sampled.
+	 */
+	public SpanContextImpl(long id, long traceId, long parentId, String referenceType, Map<String, String> baggage, boolean sampled) {
 		// ids
 		this.id = id;
 		this.traceId = traceId;
 		this.parentId = parentId;
 		this.referenceType = referenceType;
+		this.sampled = sampled;
 		// baggage handling
 		if ((null != baggage) && !baggage.isEmpty()) {
 			this.baggage = new HashMap<String, String>(baggage);
@@ -88,35 +115,73 @@ public class SpanContextImpl implements SpanContext {
 	 * @return {@link SpanContextImpl}. Never <code>null</code>.
 	 */
 	public static SpanContextImpl build(SpanContextImpl parent, String referenceType, Map<String, String> baggage) {
+		return build(parent, referenceType, baggage, null);
+	}
+
+	/**
+	 * Builds new {@link SpanContextImpl} as a child of given parent context. If parent context is
+	 * <code>null</code> then {@link #build(Map, Sampler)} will be used and new trace context will
+	 * be created. Otherwise the sampling flag is inherited from the parent.
+	 * <p>
+	 * Passed baggage will be the baggage of this span context.
+	 *
+	 * @param parent
+	 *            Context that will be use to determine to which trace/parent new context belongs.
+	 *            Can be <code>null</code> to denote that the new trace context should be created.
+	 * @param referenceType
+	 *            Reference type to the parent context.
+	 * @param baggage
+	 *            Context baggage.
+	 * @param sampler
+	 *            Sampler to decide on sampling of the new trace. Can be <code>null</code> to
+	 *            sample all new traces.
+	 * @return {@link SpanContextImpl}. Never <code>null</code>.
+	 */
+	public static SpanContextImpl build(SpanContextImpl parent, String referenceType, Map<String, String> baggage, Sampler sampler) {
 		if (null == parent) {
-			return build(baggage);
+			return build(baggage, sampler);
 		} else {
 			long id = RandomUtils.randomLong();
-			SpanContextImpl spanContextImpl = new SpanContextImpl(id, parent.getTraceId(), parent.getId(), referenceType, baggage);
+			SpanContextImpl spanContextImpl = new SpanContextImpl(id, parent.getTraceId(), parent.getId(), referenceType, baggage, parent.isSampled());
 			return spanContextImpl;
 		}
 	}
 
 	/**
-	 * Builds new {@link SpanContextImpl} with new trace context and given baggage.
+	 * Builds new {@link SpanContextImpl} with new sampled trace context and given baggage.
 	 *
 	 * @param baggage
 	 *            Context baggage.
 	 * @return {@link SpanContextImpl}. Never <code>null</code>.
 	 */
 	public static SpanContextImpl build(Map<String, String> baggage) {
+		return build(baggage, null);
+	}
+
+	/**
+	 * Builds new {@link SpanContextImpl} with new trace context and given baggage. Sampling of the
+	 * new trace is decided by the given sampler.
+	 *
+	 * @param baggage
+	 *            Context baggage.
+	 * @param sampler
+	 *            Sampler to decide on sampling of the new trace. Can be <code>null</code> to
+	 *            sample the trace.
+	 * @return {@link SpanContextImpl}. Never <code>null</code>.
+	 */
+	public static SpanContextImpl build(Map<String, String> baggage, Sampler sampler) {
 		long id = RandomUtils.randomLong();
-		return new SpanContextImpl(id, id, id, null, baggage);
+		boolean sampled = (null == sampler) || sampler.isSampled(id);
+		return new SpanContextImpl(id, id, id, null, baggage, sampled);
 	}
 
 	/**
-	 * Builds new {@link SpanContextImpl} with new trace context and no baggage.
+	 * Builds new {@link SpanContextImpl} with new sampled trace context and no baggage.
 	 *
 	 * @return {@link SpanContextImpl}. Never <code>null</code>.
 	 */
 	public static SpanContextImpl build() {
-		long id = RandomUtils.randomLong();
-		return new SpanContextImpl(id, id, id, null, null);
+		return build(null, null);
 	}
 
 	/**
@@ -133,7 +198,25 @@ public class SpanContextImpl implements SpanContext {
 	 * @return Context representing the context of the calling span.
 	 */
 	public static SpanContextImpl buildExtractedContext(long passedId, long passedTraceId, Map<String, String> passedBaggage) {
-		return new SpanContextImpl(passedId, passedTraceId, passedId, null, passedBaggage);
+		return buildExtractedContext(passedId, passedTraceId, passedBaggage, true);
+	}
+
+	/**
+	 * This method is used when building context that is extracted from the propagation (like HTTP
+	 * headers) together with the sampling decision of the calling service.
+	 *
+	 * @param passedId
+	 *            calling span id
+	 * @param passedTraceId
+	 *            calling span trace id
+	 * @param passedBaggage
+	 *            passage traveling along
+	 * @param sampled
+	 *            if the calling trace is sampled
+	 * @return Context representing the context of the calling span.
+	 */
+	public static SpanContextImpl buildExtractedContext(long passedId, long passedTraceId, Map<String, String> passedBaggage, boolean sampled) {
+		return new SpanContextImpl(passedId, passedTraceId, passedId, null, passedBaggage, sampled);
 	}
 
 	/**
@@ -203,6 +286,15 @@ public class SpanContextImpl implements SpanContext {
 		return this.parentId;
 	}
 
+	/**
+	 * Gets {@link #sampled}.
+	 *
+	 * @return {@link #sampled}
+	 */
+	public boolean isSampled() {
+		return this.sampled;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -214,6 +306,7 @@ public class SpanContextImpl implements SpanContext {
 		result = (prime * result) + (int) (this.id ^ (this.id >>> 32));
 		result = (prime * result) + (int) (this.parentId ^ (this.parentId >>> 32));
 		result = (prime * result) + ((this.referenceType == null) ? 0 : this.referenceType.hashCode());
+		result = (prime * result) + (this.sampled ? 1231 : 1237);
 		result = (prime * result) + (int) (this.traceId ^ (this.traceId >>> 32));
 		return result;
 	}
@@ -253,6 +346,9 @@ public class SpanContextImpl implements SpanContext {
 		} else if (!this.referenceType.equals(other.referenceType)) {
 			return false;
 		}
+		if (this.sampled != other.sampled) {
+			return false;
+		}
 		if (this.traceId != other.traceId) {
 			return false;
 		}
@@ -264,7 +360,7 @@ public class SpanContextImpl implements SpanContext {
 	 */
 	@Override
 	public String toString() {
-		return "SpanContextImpl [id=" + this.id + ", traceId=" + this.traceId + ", parentId=" + this.parentId + ", referenceType=" + this.referenceType + ", baggage=" + this.baggage + "]";
+		return "SpanContextImpl [id=" + this.id + ", traceId=" + this.traceId + ", parentId=" + this.parentId + ", referenceType=" + this.referenceType + ", baggage=" + this.baggage + ", sampled=" + this.sampled + "]";
 	}
 
 }
\ No newline at end of file
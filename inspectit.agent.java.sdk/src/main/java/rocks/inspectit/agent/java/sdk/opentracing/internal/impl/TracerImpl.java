@@ -9,6 +9,7 @@ import io.opentracing.SpanContext;
 import io.opentracing.propagation.Format;
 import rocks.inspectit.agent.java.sdk.opentracing.ExtendedTracer;
 import rocks.inspectit.agent.java.sdk.opentracing.Reporter;
+import rocks.inspectit.agent.java.sdk.opentracing.Sampler;
 import rocks.inspectit.agent.java.sdk.opentracing.Timer;
 import rocks.inspectit.agent.java.sdk.opentracing.TracerProvider;
 import rocks.inspectit.agent.java.sdk.opentracing.internal.TracerLogger;
@@ -16,6 +17,7 @@ import rocks.inspectit.agent.java.sdk.opentracing.internal.propagation.TextMapPr
 import rocks.inspectit.agent.java.sdk.opentracing.internal.propagation.UrlEncodingPropagator;
 import rocks.inspectit.agent.java.sdk.opentracing.noop.NoopReporter;
 import rocks.inspectit.agent.java.sdk.opentracing.propagation.Propagator;
+import rocks.inspectit.agent.java.sdk.opentracing.util.ConstantSampler;
 import rocks.inspectit.agent.java.sdk.opentracing.util.SystemTimer;
 
 /**
@@ -30,6 +32,10 @@ import rocks.inspectit.agent.java.sdk.opentracing.util.SystemTimer;
  * option to explicitly state that span should not be reported, as inspectIT itself adds other
  * information to the span it creates and reports them itself. User created spans will always be
  * reported if not explicitly stated otherwise.
+ * <p>
+ * The tracer uses {@link Sampler} to decide if new traces are sampled. Spans of the not sampled
+ * traces are not reported, unless explicitly requested with {@link #setReportNotSampled(boolean)}
+ * for reporters that perform their own (tail) sampling.
  *
  * @author Ivan Senic
  *
@@ -65,6 +71,16 @@ public class TracerImpl implements ExtendedTracer {
 	 */
 	private final Reporter reporter;
 
+	/**
+	 * Sampler for the new traces.
+	 */
+	private Sampler sampler = new ConstantSampler(true);
+
+	/**
+	 * If spans of the not sampled traces should be reported as well.
+	 */
+	private boolean reportNotSampled;
+
 	/**
 	 * Usable propagators.
 	 */
@@ -312,11 +328,24 @@ public class TracerImpl implements ExtendedTracer {
 		}
 
 		// check if we need to report the span
-		if (span.isReport()) {
+		if (span.isReport() && (reportNotSampled || isSampled(span))) {
 			reporter.report(span);
 		}
 	}
 
+	/**
+	 * Returns if the span belongs to the sampled trace. Spans without context are considered as
+	 * sampled.
+	 *
+	 * @param span
+	 *            Span.
+	 * @return If the span belongs to the sampled trace.
+	 */
+	private boolean isSampled(SpanImpl span) {
+		SpanContextImpl context = span.context();
+		return (null == context) || context.isSampled();
+	}
+
 	/**
 	 * Gets {@link #timer}.
 	 *
@@ -337,4 +366,34 @@ public class TracerImpl implements ExtendedTracer {
 		this.timer = timer;
 	}
 
+	/**
+	 * Gets {@link #sampler}.
+	 *
+	 * @return {@link #sampler}
+	 */
+	Sampler getSampler() {
+		return this.sampler;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setSampler(Sampler sampler) {
+		if (null == sampler) {
+			throw new IllegalArgumentException("Sampler must not be null.");
+		}
+		this.sampler = sampler;
+	}
+
+	/**
+	 * Sets {@link #reportNotSampled}.
+	 *
+	 * @param reportNotSampled
+	 *            New value for {@link #reportNotSampled}
+	 */
+	public void setReportNotSampled(boolean reportNotSampled) {
+		this.reportNotSampled = reportNotSampled;
+	}
+
 }
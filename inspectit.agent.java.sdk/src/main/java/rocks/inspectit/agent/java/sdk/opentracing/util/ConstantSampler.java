@@ -0,0 +1,44 @@
+package rocks.inspectit.agent.java.sdk.opentracing.util;
+
+import rocks.inspectit.agent.java.sdk.opentracing.Sampler;
+
+/**
+ * {@link Sampler} that always returns the same decision.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class ConstantSampler implements Sampler {
+
+	/**
+	 * Decision.
+	 */
+	private final boolean decision;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param decision
+	 *            Decision to return for every trace.
+	 */
+	public ConstantSampler(boolean decision) {
+		this.decision = decision;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isSampled(long traceId) {
+		return decision;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "ConstantSampler [decision=" + this.decision + "]";
+	}
+
+}
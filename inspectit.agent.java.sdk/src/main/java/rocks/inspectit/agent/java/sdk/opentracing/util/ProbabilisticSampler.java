@@ -0,0 +1,58 @@
+package rocks.inspectit.agent.java.sdk.opentracing.util;
+
+import rocks.inspectit.agent.java.sdk.opentracing.Sampler;
+
+/**
+ * {@link Sampler} that samples the given percentage of the traces. The decision is derived from the
+ * trace id, thus every service using the same probability makes the same decision for the same
+ * trace.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class ProbabilisticSampler implements Sampler {
+
+	/**
+	 * Sampling probability.
+	 */
+	private final double probability;
+
+	/**
+	 * Trace ids (without sign bit) smaller than the boundary are sampled.
+	 */
+	private final long boundary;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param probability
+	 *            Sampling probability, must be in range [0, 1].
+	 */
+	public ProbabilisticSampler(double probability) {
+		if ((probability < 0d) || (probability > 1d)) {
+			throw new IllegalArgumentException("Sampling probability must be between 0 and 1, but was " + probability + ".");
+		}
+		this.probability = probability;
+		this.boundary = (long) (Long.MAX_VALUE * probability);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isSampled(long traceId) {
+		if (boundary == Long.MAX_VALUE) {
+			return true;
+		}
+		return (traceId >>> 1) < boundary;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "ProbabilisticSampler [probability=" + this.probability + "]";
+	}
+
+}
@@ -0,0 +1,95 @@
+package rocks.inspectit.agent.java.sdk.opentracing.util;
+
+import rocks.inspectit.agent.java.sdk.opentracing.Sampler;
+
+/**
+ * {@link Sampler} that samples at most the given amount of traces per second. Implemented as a
+ * token bucket with the capacity of one second worth of traces, so that short bursts are still
+ * sampled.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class RateLimitingSampler implements Sampler {
+
+	/**
+	 * Nanoseconds in one second.
+	 */
+	private static final double NANOS_IN_SECOND = 1000000000d;
+
+	/**
+	 * Max traces per second.
+	 */
+	private final double tracesPerSecond;
+
+	/**
+	 * Capacity of the bucket.
+	 */
+	private final double maxBalance;
+
+	/**
+	 * Current amount of tokens in the bucket.
+	 */
+	private double balance;
+
+	/**
+	 * Nano time of the last decision.
+	 */
+	private long lastTick;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param tracesPerSecond
+	 *            Max amount of traces sampled per second, must be positive.
+	 */
+	public RateLimitingSampler(double tracesPerSecond) {
+		if (tracesPerSecond <= 0d) {
+			throw new IllegalArgumentException("Traces per second must be positive, but was " + tracesPerSecond + ".");
+		}
+		this.tracesPerSecond = tracesPerSecond;
+		this.maxBalance = Math.max(tracesPerSecond, 1d);
+		this.balance = maxBalance;
+		this.lastTick = System.nanoTime();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isSampled(long traceId) {
+		return isSampled(traceId, System.nanoTime());
+	}
+
+	/**
+	 * Makes the decision for the given nano time. Exposed for testing.
+	 *
+	 * @param traceId
+	 *            Id of the new trace.
+	 * @param nanoTime
+	 *            Current nano time.
+	 * @return <code>true</code> if the trace should be sampled, <code>false</code> otherwise.
+	 */
+	synchronized boolean isSampled(long traceId, long nanoTime) {
+		long elapsed = nanoTime - lastTick;
+		if (elapsed > 0) {
+			balance = Math.min(maxBalance, balance + ((elapsed / NANOS_IN_SECOND) * tracesPerSecond));
+			lastTick = nanoTime;
+		}
+
+		if (balance >= 1d) {
+			balance -= 1d;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "RateLimitingSampler [tracesPerSecond=" + this.tracesPerSecond + "]";
+	}
+
+}
@@ -74,6 +74,7 @@ public class SpanBuilderImplTest extends TestBase {
 			verify(tracer).spanStarted(span);
 			verify(tracer).spanEnded(span);
 			verify(tracer, atLeastOnce()).getTimer();
+			verify(tracer).getSampler();
 			verify(timer).getCurrentTimeMicroseconds();
 			verify(timer, times(2)).getCurrentNanoTime();
 			verifyNoMoreInteractions(tracer, timer);
@@ -289,6 +290,7 @@ public class SpanBuilderImplTest extends TestBase {
 			assertThat(span.context().getReferenceType(), is(nullValue()));
 			// verify tracer passed
 			verify(tracer, atLeastOnce()).getTimer();
+			verify(tracer).getSampler();
 			verifyNoMoreInteractions(tracer);
 		}
 
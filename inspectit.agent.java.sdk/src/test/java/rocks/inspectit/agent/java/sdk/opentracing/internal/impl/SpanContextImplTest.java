@@ -11,6 +11,7 @@ import java.util.Map.Entry;
 import org.testng.annotations.Test;
 
 import io.opentracing.References;
+import rocks.inspectit.agent.java.sdk.opentracing.util.ConstantSampler;
 
 /**
  * @author Ivan Senic
@@ -28,6 +29,32 @@ public class SpanContextImplTest {
 			assertThat(context.getTraceId(), is(context.getId()));
 			assertThat(context.getParentId(), is(context.getId()));
 			assertThat(context.baggageItems().iterator().hasNext(), is(false));
+			assertThat(context.isSampled(), is(true));
+		}
+
+		@Test
+		public void rootContextNotSampled() {
+			SpanContextImpl context = SpanContextImpl.build(null, new ConstantSampler(false));
+
+			assertThat(context.getTraceId(), is(context.getId()));
+			assertThat(context.isSampled(), is(false));
+		}
+
+		@Test
+		public void rootContextSampled() {
+			SpanContextImpl context = SpanContextImpl.build(null, new ConstantSampler(true));
+
+			assertThat(context.isSampled(), is(true));
+		}
+
+		@Test
+		public void childContextInheritsSampling() {
+			SpanContextImpl parent = SpanContextImpl.build(null, new ConstantSampler(false));
+
+			SpanContextImpl context = SpanContextImpl.build(parent, References.CHILD_OF, null, new ConstantSampler(true));
+
+			assertThat(context.getTraceId(), is(parent.getTraceId()));
+			assertThat(context.isSampled(), is(false));
 		}
 
 		@Test
@@ -117,6 +144,16 @@ public class SpanContextImplTest {
 			Entry<String, String> entry = context.baggageItems().iterator().next();
 			assertThat(entry.getKey(), is("k"));
 			assertThat(entry.getValue(), is("v"));
+			assertThat(context.isSampled(), is(true));
+		}
+
+		@Test
+		public void extractedContextNotSampled() {
+			SpanContextImpl context = SpanContextImpl.buildExtractedContext(1L, 2L, null, false);
+
+			assertThat(context.getTraceId(), is(2L));
+			assertThat(context.getId(), is(1L));
+			assertThat(context.isSampled(), is(false));
 		}
 	}
 
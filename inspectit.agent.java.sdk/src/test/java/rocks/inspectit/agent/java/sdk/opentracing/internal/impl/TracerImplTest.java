@@ -20,6 +20,7 @@ import io.opentracing.propagation.Format;
 import io.opentracing.propagation.TextMap;
 import rocks.inspectit.agent.java.sdk.opentracing.ExtendedTracer;
 import rocks.inspectit.agent.java.sdk.opentracing.Reporter;
+import rocks.inspectit.agent.java.sdk.opentracing.Sampler;
 import rocks.inspectit.agent.java.sdk.opentracing.Timer;
 import rocks.inspectit.agent.java.sdk.opentracing.TracerProvider;
 import rocks.inspectit.agent.java.sdk.opentracing.propagation.Propagator;
@@ -327,6 +328,31 @@ public class TracerImplTest extends TestBase {
 			verifyZeroInteractions(reporter);
 		}
 
+		@Test
+		public void notSampled() {
+			SpanImpl span = new SpanImpl(tracer);
+			span.setSpanContext(new SpanContextImpl(1L, 1L, 1L, null, null, false));
+			tracer.spanStarted(span);
+
+			tracer.spanEnded(span);
+
+			assertThat(tracer.isCurrentContextExisting(), is(false));
+			verifyZeroInteractions(reporter);
+		}
+
+		@Test
+		public void notSampledReported() {
+			SpanImpl span = new SpanImpl(tracer);
+			span.setSpanContext(new SpanContextImpl(1L, 1L, 1L, null, null, false));
+			tracer.setReportNotSampled(true);
+			tracer.spanStarted(span);
+
+			tracer.spanEnded(span);
+
+			verify(reporter).report(span);
+			verifyNoMoreInteractions(reporter);
+		}
+
 		@Test
 		public void twoSpans() {
 			SpanImpl span1 = new SpanImpl(tracer);
@@ -396,4 +422,33 @@ public class TracerImplTest extends TestBase {
 
 	}
 
+	public static class SetSampler extends TracerImplTest {
+
+		@Test(expectedExceptions = IllegalArgumentException.class)
+		public void samplerNull() {
+			tracer.setSampler(null);
+		}
+
+		@Test
+		public void set() {
+			Sampler s = mock(Sampler.class);
+
+			tracer.setSampler(s);
+
+			assertThat(tracer.getSampler(), is(s));
+		}
+
+		@Test
+		public void usedForNewTrace() {
+			Sampler s = mock(Sampler.class);
+			tracer.setSampler(s);
+
+			SpanImpl span = tracer.buildSpan("op", References.CHILD_OF, false).build();
+
+			verify(s).isSampled(span.context().getTraceId());
+			assertThat(span.context().isSampled(), is(false));
+		}
+
+	}
+
 }
@@ -45,6 +45,7 @@ public class TextMapPropagatorTest extends TestBase {
 
 			verify(carrier).put(PropagationConstants.SPAN_ID, ConversionUtils.toHexString(context.getId()));
 			verify(carrier).put(PropagationConstants.TRACE_ID, ConversionUtils.toHexString(context.getTraceId()));
+			verify(carrier).put(PropagationConstants.SAMPLED, PropagationConstants.SAMPLED_TRUE);
 			verifyNoMoreInteractions(carrier);
 		}
 
@@ -58,6 +59,15 @@ public class TextMapPropagatorTest extends TestBase {
 			verify(carrier).put(PropagationConstants.INSPECTIT_BAGGAGE_PREFIX + "key", "value");
 		}
 
+		@Test
+		public void notSampled() {
+			SpanContextImpl context = new SpanContextImpl(1L, 2L, 1L, null, null, false);
+
+			propagator.inject(context, carrier);
+
+			verify(carrier).put(PropagationConstants.SAMPLED, PropagationConstants.SAMPLED_FALSE);
+		}
+
 		@Test
 		public void nullContext() {
 			propagator.inject(null, carrier);
@@ -80,6 +90,37 @@ public class TextMapPropagatorTest extends TestBase {
 			assertThat(context.getId(), is(1L));
 			assertThat(context.getTraceId(), is(2L));
 			assertThat(context.baggageItems().iterator().hasNext(), is(false));
+			assertThat(context.isSampled(), is(true));
+		}
+
+		@Test
+		public void sampled() {
+			Map<String, String> map = new HashMap<String, String>();
+			map.put(PropagationConstants.SPAN_ID, ConversionUtils.toHexString(1L));
+			map.put(PropagationConstants.TRACE_ID, ConversionUtils.toHexString(2L));
+			map.put(PropagationConstants.SAMPLED, PropagationConstants.SAMPLED_TRUE);
+			when(carrier.iterator()).thenReturn(map.entrySet().iterator());
+
+			SpanContextImpl context = propagator.extract(carrier);
+
+			assertThat(context.isSampled(), is(true));
+			assertThat(context.baggageItems().iterator().hasNext(), is(false));
+		}
+
+		@Test
+		public void notSampled() {
+			Map<String, String> map = new HashMap<String, String>();
+			map.put(PropagationConstants.SPAN_ID, ConversionUtils.toHexString(1L));
+			map.put(PropagationConstants.TRACE_ID, ConversionUtils.toHexString(2L));
+			map.put(PropagationConstants.SAMPLED, PropagationConstants.SAMPLED_FALSE);
+			when(carrier.iterator()).thenReturn(map.entrySet().iterator());
+
+			SpanContextImpl context = propagator.extract(carrier);
+
+			assertThat(context.getId(), is(1L));
+			assertThat(context.getTraceId(), is(2L));
+			assertThat(context.isSampled(), is(false));
+			assertThat(context.baggageItems().iterator().hasNext(), is(false));
 		}
 
 		@Test
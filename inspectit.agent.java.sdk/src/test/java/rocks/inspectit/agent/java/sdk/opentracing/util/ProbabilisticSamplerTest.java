@@ -0,0 +1,82 @@
+package rocks.inspectit.agent.java.sdk.opentracing.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+/**
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class ProbabilisticSamplerTest {
+
+	public static class Constructor extends ProbabilisticSamplerTest {
+
+		@Test(expectedExceptions = IllegalArgumentException.class)
+		public void negative() {
+			new ProbabilisticSampler(-0.1d);
+		}
+
+		@Test(expectedExceptions = IllegalArgumentException.class)
+		public void greaterThanOne() {
+			new ProbabilisticSampler(1.1d);
+		}
+	}
+
+	public static class IsSampled extends ProbabilisticSamplerTest {
+
+		@Test
+		public void always() {
+			ProbabilisticSampler sampler = new ProbabilisticSampler(1d);
+
+			assertThat(sampler.isSampled(Long.MAX_VALUE), is(true));
+			assertThat(sampler.isSampled(Long.MIN_VALUE), is(true));
+			assertThat(sampler.isSampled(-1L), is(true));
+			assertThat(sampler.isSampled(0L), is(true));
+		}
+
+		@Test
+		public void never() {
+			ProbabilisticSampler sampler = new ProbabilisticSampler(0d);
+
+			assertThat(sampler.isSampled(Long.MAX_VALUE), is(false));
+			assertThat(sampler.isSampled(Long.MIN_VALUE), is(false));
+			assertThat(sampler.isSampled(-1L), is(false));
+			assertThat(sampler.isSampled(0L), is(false));
+		}
+
+		@Test
+		public void sameDecisionForSameTrace() {
+			ProbabilisticSampler sampler = new ProbabilisticSampler(0.5d);
+			ProbabilisticSampler other = new ProbabilisticSampler(0.5d);
+			Random random = new Random(7L);
+
+			for (int i = 0; i < 100; i++) {
+				long traceId = random.nextLong();
+				assertThat(sampler.isSampled(traceId), is(other.isSampled(traceId)));
+			}
+		}
+
+		@Test
+		public void probability() {
+			ProbabilisticSampler sampler = new ProbabilisticSampler(0.1d);
+			Random random = new Random(7L);
+
+			int sampled = 0;
+			for (int i = 0; i < 10000; i++) {
+				if (sampler.isSampled(random.nextLong())) {
+					sampled++;
+				}
+			}
+
+			assertThat(sampled, is(greaterThan(800)));
+			assertThat(sampled, is(lessThan(1200)));
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package rocks.inspectit.agent.java.sdk.opentracing.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+/**
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class RateLimitingSamplerTest {
+
+	public static class Constructor extends RateLimitingSamplerTest {
+
+		@Test(expectedExceptions = IllegalArgumentException.class)
+		public void zero() {
+			new RateLimitingSampler(0d);
+		}
+	}
+
+	public static class IsSampled extends RateLimitingSamplerTest {
+
+		@Test
+		public void limit() {
+			RateLimitingSampler sampler = new RateLimitingSampler(2d);
+			long time = System.nanoTime();
+
+			assertThat(sampler.isSampled(1L, time), is(true));
+			assertThat(sampler.isSampled(2L, time), is(true));
+			assertThat(sampler.isSampled(3L, time), is(false));
+		}
+
+		@Test
+		public void refill() {
+			RateLimitingSampler sampler = new RateLimitingSampler(2d);
+			long time = System.nanoTime();
+			sampler.isSampled(1L, time);
+			sampler.isSampled(2L, time);
+
+			time += TimeUnit.MILLISECONDS.toNanos(500);
+
+			assertThat(sampler.isSampled(3L, time), is(true));
+			assertThat(sampler.isSampled(4L, time), is(false));
+		}
+
+		@Test
+		public void refillNotAboveCapacity() {
+			RateLimitingSampler sampler = new RateLimitingSampler(1d);
+			long time = System.nanoTime();
+
+			time += TimeUnit.SECONDS.toNanos(10);
+
+			assertThat(sampler.isSampled(1L, time), is(true));
+			assertThat(sampler.isSampled(2L, time), is(false));
+		}
+
+		@Test
+		public void lessThanOnePerSecond() {
+			RateLimitingSampler sampler = new RateLimitingSampler(0.5d);
+			long time = System.nanoTime();
+			assertThat(sampler.isSampled(1L, time), is(true));
+
+			time += TimeUnit.SECONDS.toNanos(1);
+			assertThat(sampler.isSampled(2L, time), is(false));
+
+			time += TimeUnit.SECONDS.toNanos(1);
+			assertThat(sampler.isSampled(3L, time), is(true));
+		}
+	}
+}
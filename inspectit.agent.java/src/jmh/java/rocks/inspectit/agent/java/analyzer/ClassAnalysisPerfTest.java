@@ -0,0 +1,247 @@
+package rocks.inspectit.agent.java.analyzer;
+
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import rocks.inspectit.agent.java.analyzer.impl.AnalyzeBatcher;
+import rocks.inspectit.agent.java.analyzer.impl.ByteCodeAnalyzer;
+import rocks.inspectit.agent.java.analyzer.impl.ClassHashHelper;
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.connection.IConnection;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.hooking.IHookDispatcherMapper;
+import rocks.inspectit.agent.java.instrumentation.InstrumenterFactory;
+import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
+import rocks.inspectit.agent.java.stats.AgentStatisticsLogger;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
+import rocks.inspectit.shared.all.instrumentation.classcache.Type;
+import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+
+/**
+ * Simulates the application startup by passing the JDK classes through the
+ * {@link ByteCodeAnalyzer} from several class loading threads, against a CMR connection with the
+ * given round-trip latency. Compares the per-class analysis with the batched one. Each invocation
+ * starts with an empty class cache, as on the first start of the agent.
+ *
+ * @author Ivan Senic
+ *
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class ClassAnalysisPerfTest {
+
+	/**
+	 * Packages of the JDK classes to load.
+	 */
+	private static final List<String> PACKAGES = Arrays.asList("java/util/", "java/io/", "java/net/", "javax/swing/");
+
+	/**
+	 * If batched analysis is active.
+	 */
+	@Param({ "false", "true" })
+	private boolean batched;
+
+	/**
+	 * Round-trip latency of one call to the CMR in microseconds.
+	 */
+	@Param({ "200", "1000" })
+	private int latencyMicros;
+
+	/**
+	 * Amount of class loading threads.
+	 */
+	@Param({ "1", "4" })
+	private int loadingThreads;
+
+	/**
+	 * Amount of the classes to load.
+	 */
+	@Param({ "2000" })
+	private int classes;
+
+	private List<String> classNames;
+
+	private List<byte[]> byteCodes;
+
+	private ExecutorService coreServiceExecutor;
+
+	private ExecutorService loadingExecutor;
+
+	private ByteCodeAnalyzer byteCodeAnalyzer;
+
+	@Setup(Level.Trial)
+	public void loadClasses() throws Exception {
+		classNames = new ArrayList<String>(classes);
+		byteCodes = new ArrayList<byte[]>(classes);
+
+		URL url = ClassLoader.getSystemResource("java/lang/Object.class");
+		JarFile jarFile = ((JarURLConnection) url.openConnection()).getJarFile();
+		try {
+			Enumeration<JarEntry> entries = jarFile.entries();
+			while (entries.hasMoreElements() && (classNames.size() < classes)) {
+				String name = entries.nextElement().getName();
+				if (name.endsWith(".class") && isIncluded(name)) {
+					InputStream is = jarFile.getInputStream(jarFile.getJarEntry(name));
+					try {
+						byteCodes.add(ByteStreams.toByteArray(is));
+					} finally {
+						is.close();
+					}
+					classNames.add(name.substring(0, name.length() - 6).replace('/', '.'));
+				}
+			}
+		} finally {
+			jarFile.close();
+		}
+
+		ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("core-service-%d").setDaemon(true).build();
+		coreServiceExecutor = Executors.newFixedThreadPool(3, threadFactory);
+		ThreadFactory loadingThreadFactory = new ThreadFactoryBuilder().setNameFormat("class-loading-%d").setDaemon(true).build();
+		loadingExecutor = Executors.newFixedThreadPool(loadingThreads, loadingThreadFactory);
+	}
+
+	@Setup(Level.Invocation)
+	public void init() throws Exception {
+		IConnection connection = Mockito.mock(IConnection.class);
+		Mockito.when(connection.isConnected()).thenReturn(true);
+		Mockito.when(connection.analyze(Matchers.anyLong(), Matchers.<ClassHash> any(), Matchers.<Type> any())).thenAnswer(new Answer<InstrumentationDefinition>() {
+			@Override
+			public InstrumentationDefinition answer(InvocationOnMock invocation) throws Throwable {
+				roundTrip(1);
+				return null;
+			}
+		});
+		Mockito.when(connection.analyzeBatch(Matchers.anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any())).thenAnswer(new Answer<List<InstrumentationDefinition>>() {
+			@Override
+			public List<InstrumentationDefinition> answer(InvocationOnMock invocation) throws Throwable {
+				int size = ((List<?>) invocation.getArguments()[1]).size();
+				roundTrip(size);
+				return Collections.nCopies(size, null);
+			}
+		});
+		IPlatformManager platformManager = Mockito.mock(IPlatformManager.class);
+		Mockito.when(platformManager.getPlatformId()).thenReturn(1L);
+
+		ClassHashHelper classHashHelper = new ClassHashHelper();
+
+		AnalyzeBatcher analyzeBatcher = new AnalyzeBatcher();
+		analyzeBatcher.setActive(batched);
+		set(analyzeBatcher, "log", Mockito.mock(Logger.class));
+		set(analyzeBatcher, "connection", connection);
+		set(analyzeBatcher, "platformManager", platformManager);
+		set(analyzeBatcher, "classHashHelper", classHashHelper);
+		set(analyzeBatcher, "executorService", coreServiceExecutor);
+
+		byteCodeAnalyzer = new ByteCodeAnalyzer();
+		set(byteCodeAnalyzer, "log", Mockito.mock(Logger.class));
+		set(byteCodeAnalyzer, "platformManager", platformManager);
+		set(byteCodeAnalyzer, "configurationStorage", Mockito.mock(IConfigurationStorage.class));
+		set(byteCodeAnalyzer, "connection", connection);
+		set(byteCodeAnalyzer, "hookDispatcherMapper", Mockito.mock(IHookDispatcherMapper.class));
+		set(byteCodeAnalyzer, "classHashHelper", classHashHelper);
+		set(byteCodeAnalyzer, "analyzeBatcher", analyzeBatcher);
+		set(byteCodeAnalyzer, "executorService", coreServiceExecutor);
+		set(byteCodeAnalyzer, "instrumenterFactory", Mockito.mock(InstrumenterFactory.class));
+		set(byteCodeAnalyzer, "methodSensors", Collections.<IMethodSensor> emptyList());
+		set(byteCodeAnalyzer, "agentStatisticsLogger", Mockito.mock(AgentStatisticsLogger.class));
+		byteCodeAnalyzer.afterPropertiesSet();
+	}
+
+	@TearDown(Level.Trial)
+	public void shutdown() {
+		coreServiceExecutor.shutdownNow();
+		loadingExecutor.shutdownNow();
+	}
+
+	/**
+	 * Loads all classes with the given amount of threads.
+	 */
+	@Benchmark
+	public void startup() throws Exception {
+		List<Future<?>> futures = new ArrayList<Future<?>>(loadingThreads);
+		for (int t = 0; t < loadingThreads; t++) {
+			final int thread = t;
+			futures.add(loadingExecutor.submit(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = thread; i < classNames.size(); i += loadingThreads) {
+						byteCodeAnalyzer.analyzeAndInstrument(byteCodes.get(i), classNames.get(i), null);
+					}
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+	}
+
+	/**
+	 * Simulates one call to the CMR, the latency plus few microseconds for analyzing each type.
+	 *
+	 * @param types
+	 *            Amount of types in the call.
+	 */
+	private void roundTrip(int types) throws InterruptedException {
+		long nanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros + (types * 5L));
+		long end = System.nanoTime() + nanos;
+		while (System.nanoTime() < end) {
+			Thread.sleep(0L, 100000);
+		}
+	}
+
+	private boolean isIncluded(String name) {
+		for (String pkg : PACKAGES) {
+			if (name.startsWith(pkg)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void set(Object target, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
+		Field field = target.getClass().getDeclaredField(fieldName);
+		field.setAccessible(true);
+		field.set(target, value);
+		field.setAccessible(false);
+	}
+}
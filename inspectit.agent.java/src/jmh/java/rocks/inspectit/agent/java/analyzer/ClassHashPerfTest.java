@@ -0,0 +1,75 @@
+package rocks.inspectit.agent.java.analyzer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.io.ByteStreams;
+
+import rocks.inspectit.agent.java.analyzer.impl.ClassHashAlgorithm;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
+
+/**
+ * Performance test for the {@link ClassHashAlgorithm}s that are used in the byte code analyzer to
+ * identify the class. Classes are selected so that they cover the typical class sizes, from the
+ * small interface to the big class. The hexadecimal SHA-256 hash the classes were identified with
+ * before is measured as the baseline.
+ *
+ * @author Ivan Senic
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class ClassHashPerfTest {
+
+	/**
+	 * Classes to hash, ~0.2KB, ~1.5KB, ~10KB, ~25KB and ~70KB of byte code.
+	 */
+	@Param({ "java.lang.Comparable", "java.lang.Object", "java.util.ArrayList", "java.lang.String", "javax.swing.JTable" })
+	private String clazz;
+
+	private byte[] byteCode;
+
+	@Setup
+	public void loadByteCode() throws IOException {
+		InputStream is = ClassLoader.getSystemResourceAsStream(clazz.replace('.', '/') + ".class");
+		try {
+			byteCode = ByteStreams.toByteArray(is);
+		} finally {
+			is.close();
+		}
+	}
+
+	@Benchmark
+	public String sha256Hex() {
+		return DigestUtils.sha256Hex(byteCode);
+	}
+
+	@Benchmark
+	public ClassHash sha256() {
+		return ClassHashAlgorithm.SHA256.hash(byteCode);
+	}
+
+	@Benchmark
+	public ClassHash murmur3() {
+		return ClassHashAlgorithm.MURMUR3_128.hash(byteCode);
+	}
+
+}
@@ -0,0 +1,273 @@
+package rocks.inspectit.agent.java.connection;
+
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.springframework.core.io.ClassPathResource;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Output;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.kryonet.WireCodec;
+import rocks.inspectit.shared.all.serializer.impl.SerializationManager;
+import rocks.inspectit.shared.all.serializer.schema.ClassSchemaManager;
+import rocks.inspectit.shared.all.util.KryoNetNetwork;
+
+/**
+ * Compares the bytes on the wire and the CPU time per object of the plain KryoNet frames with the
+ * compressed wire mode ({@link WireCodec}) for different data mixes. Each benchmark invocation
+ * writes one batch of {@value #BATCH_SIZE} objects, the way the agent sends the data to the CMR.
+ * <p>
+ * Average time is reported per object. The written wire bytes and objects are reported as the
+ * {@link WireCounters} auxiliary counters, their ratio gives the wire bytes per object.
+ *
+ * @author Ivan Senic
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class WireFormatPerfTest {
+
+	/**
+	 * Amount of objects in one batch.
+	 */
+	private static final int BATCH_SIZE = 256;
+
+	/**
+	 * Amount of different batches that are sent in round-robin.
+	 */
+	private static final int BATCHES = 16;
+
+	/**
+	 * Wire mode flags, 0 being the plain mode.
+	 */
+	@Param({ "0", "1", "2", "3" })
+	private int wireMode;
+
+	/**
+	 * Data mix to send.
+	 */
+	@Param({ "TIMER", "SQL", "INVOCATION", "MIXED" })
+	private String mix;
+
+	private Kryo kryo;
+
+	private Kryo interningKryo;
+
+	private WireCodec codec;
+
+	private CountingOutputStream outputStream;
+
+	private List<List<DefaultData>> batches;
+
+	private int nextBatch;
+
+	@Setup(Level.Trial)
+	public void init() throws Exception {
+		ClassSchemaManager schemaManager = new ClassSchemaManager();
+		schemaManager.setLog(Mockito.mock(Logger.class));
+		schemaManager.setSchemaListFile(new ClassPathResource(ClassSchemaManager.SCHEMA_DIR + "/" + ClassSchemaManager.SCHEMA_LIST_FILE, schemaManager.getClass().getClassLoader()));
+		schemaManager.loadSchemasFromLocations();
+		SerializationManager serializationManager = new SerializationManager();
+		serializationManager.setSchemaManager(schemaManager);
+		serializationManager.setKryoNetNetwork(new KryoNetNetwork());
+		serializationManager.initKryo();
+		// codec lives as long as the connection
+		codec = new WireCodec(wireMode);
+		kryo = serializationManager.getKryo();
+		interningKryo = codec.isStringInterning() ? serializationManager.getInterningKryo() : kryo;
+		outputStream = new CountingOutputStream();
+
+		Random random = new Random(11L);
+		batches = new ArrayList<List<DefaultData>>(BATCHES);
+		for (int i = 0; i < BATCHES; i++) {
+			List<DefaultData> batch = new ArrayList<DefaultData>(BATCH_SIZE);
+			for (int j = 0; j < BATCH_SIZE; j++) {
+				batch.add(createData(random, j));
+			}
+			batches.add(batch);
+		}
+	}
+
+	/**
+	 * Writes one batch with the {@link WireCodec}.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void write(WireCounters counters) {
+		outputStream.bytes = 0;
+		codec.write(interningKryo, outputStream, nextBatch());
+		counters.count(outputStream.bytes);
+	}
+
+	/**
+	 * Writes one batch as the plain KryoNet serialization does it, as the reference for the
+	 * {@link WireCodec} in the plain mode.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void writeLegacy(WireCounters counters) {
+		outputStream.bytes = 0;
+		Output output = new Output(outputStream);
+		kryo.writeClassAndObject(output, nextBatch());
+		output.flush();
+		counters.count(outputStream.bytes);
+	}
+
+	private List<DefaultData> nextBatch() {
+		List<DefaultData> batch = batches.get(nextBatch);
+		nextBatch = (nextBatch + 1) % BATCHES;
+		return batch;
+	}
+
+	private DefaultData createData(Random random, int index) {
+		if ("TIMER".equals(mix)) {
+			return createTimer(random);
+		} else if ("SQL".equals(mix)) {
+			return createSql(random);
+		} else if ("INVOCATION".equals(mix)) {
+			return createInvocation(random);
+		} else {
+			// realistic ratio: many timers, some sqls, rare invocations and exceptions
+			int bucket = index % 20;
+			if (bucket < 12) {
+				return createTimer(random);
+			} else if (bucket < 18) {
+				return createSql(random);
+			} else if (bucket < 19) {
+				return createException(random);
+			} else {
+				return createInvocation(random);
+			}
+		}
+	}
+
+	private TimerData createTimer(Random random) {
+		TimerData timerData = new TimerData(new Timestamp(System.currentTimeMillis()), 1L, 2L, random.nextInt(200));
+		timerData.setCount(1 + random.nextInt(10));
+		timerData.setDuration(random.nextDouble() * 100);
+		timerData.calculateMin(random.nextDouble());
+		timerData.calculateMax(random.nextDouble() * 1000);
+		timerData.setCpuDuration(random.nextDouble() * 10);
+		return timerData;
+	}
+
+	private SqlStatementData createSql(Random random) {
+		int statement = random.nextInt(20);
+		SqlStatementData sqlStatementData = new SqlStatementData(new Timestamp(System.currentTimeMillis()), 1L, 3L, 1000 + statement);
+		sqlStatementData.setSql("SELECT o.ID, o.CUSTOMER_ID, o.CREATED, o.STATE, l.PRODUCT_ID, l.QUANTITY FROM ORDERS_" + statement
+				+ " o JOIN ORDER_LINES l ON l.ORDER_ID = o.ID WHERE o.CUSTOMER_ID = ? AND o.STATE IN (?, ?) ORDER BY o.CREATED DESC");
+		sqlStatementData.setPreparedStatement(true);
+		sqlStatementData.setDatabaseProductName("PostgreSQL");
+		sqlStatementData.setDatabaseProductVersion("9.6.3");
+		sqlStatementData.setDatabaseUrl("jdbc:postgresql://db.internal:5432/shop");
+		sqlStatementData.setParameterValues(Arrays.asList(String.valueOf(random.nextInt(100000)), "OPEN", "SHIPPED"));
+		sqlStatementData.setCount(1);
+		sqlStatementData.setDuration(random.nextDouble() * 20);
+		return sqlStatementData;
+	}
+
+	private ExceptionSensorData createException(Random random) {
+		ExceptionSensorData exceptionSensorData = new ExceptionSensorData(new Timestamp(System.currentTimeMillis()), 1L, 4L, random.nextInt(200));
+		exceptionSensorData.setThrowableType("java.lang.IllegalStateException");
+		exceptionSensorData.setErrorMessage("Order " + random.nextInt(100) + " is already closed.");
+		StringBuilder stackTrace = new StringBuilder("java.lang.IllegalStateException: Order is already closed.\n");
+		for (int i = 0; i < 25; i++) {
+			stackTrace.append("\tat com.example.shop.service.OrderService").append(i % 5).append(".process(OrderService.java:").append(100 + i).append(")\n");
+		}
+		exceptionSensorData.setStackTrace(stackTrace.toString());
+		return exceptionSensorData;
+	}
+
+	private InvocationSequenceData createInvocation(Random random) {
+		InvocationSequenceData root = new InvocationSequenceData(new Timestamp(System.currentTimeMillis()), 1L, 5L, random.nextInt(200));
+		List<InvocationSequenceData> children = new ArrayList<InvocationSequenceData>();
+		for (int i = 0; i < 10; i++) {
+			InvocationSequenceData child = new InvocationSequenceData(root.getTimeStamp(), 1L, 5L, random.nextInt(200));
+			child.setParentSequence(root);
+			child.setDuration(random.nextDouble());
+			if (0 == (i % 3)) {
+				child.setSqlStatementData(createSql(random));
+			} else {
+				child.setTimerData(createTimer(random));
+			}
+			children.add(child);
+		}
+		root.setNestedSequences(children);
+		root.setChildCount(children.size());
+		root.setDuration(random.nextDouble() * 100);
+		return root;
+	}
+
+	/**
+	 * Auxiliary counters reporting the written wire bytes and objects per iteration.
+	 */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class WireCounters {
+
+		public long wireBytes;
+
+		public long objects;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			wireBytes = 0;
+			objects = 0;
+		}
+
+		void count(long bytes) {
+			wireBytes += bytes;
+			objects += BATCH_SIZE;
+		}
+	}
+
+	/**
+	 * Output stream that only counts the written bytes.
+	 */
+	private static class CountingOutputStream extends OutputStream {
+
+		private long bytes;
+
+		@Override
+		public void write(int b) {
+			bytes++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			bytes += len;
+		}
+	}
+
+}
@@ -0,0 +1,129 @@
+package rocks.inspectit.agent.java.eum.data;
+
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.eum.Beacon;
+import rocks.inspectit.shared.all.communication.data.eum.EUMBeaconElement;
+
+/**
+ * Compares the beacon throughput of the streaming {@link DataHandler} with the previous
+ * implementation that read the complete beacon into a {@link Beacon} object and passed the elements
+ * one by one to the core service.
+ *
+ * @author Ivan Senic
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class DataHandlerPerfTest {
+
+	/**
+	 * Amount of resource load spans in the beacon.
+	 */
+	@Param({ "1", "10", "100" })
+	private int elements;
+
+	private String beaconJson;
+
+	private DataHandler dataHandler;
+
+	private ObjectMapper jsonMapper;
+
+	private BlackholeCoreService coreService;
+
+	@Setup(Level.Trial)
+	public void init(Blackhole blackhole) throws Exception {
+		StringBuilder json = new StringBuilder("{\"sessionID\":\"1a2b3c\",\"tabID\":\"4d5e6f\",\"activeAgentModules\":\"12\",\"data\":[");
+		json.append("{\"type\":\"metaInfo\",\"browser\":\"Firefox\",\"device\":\"Linux\",\"language\":\"en\"}");
+		for (int i = 0; i < elements; i++) {
+			json.append(",{\"type\":\"resourceLoadRequest\",\"id\":\"").append(Integer.toHexString(i + 1)).append("\",\"parentId\":\"ff\",\"enterTimestamp\":1500000000000,\"duration\":12.5,")
+			.append("\"url\":\"/static/resource").append(i).append(".js\",\"initiatorType\":\"script\",\"transferSize\":1234,\"baseUrl\":\"http://localhost:8080/app/\"}");
+		}
+		json.append("]}");
+		beaconJson = json.toString();
+
+		jsonMapper = new ObjectMapper();
+		coreService = new BlackholeCoreService(blackhole);
+
+		dataHandler = new DataHandler();
+		set(dataHandler, "log", Mockito.mock(Logger.class));
+		set(dataHandler, "coreService", coreService);
+		set(dataHandler, "platformManager", Mockito.mock(IPlatformManager.class));
+		// no session limit in the benchmark
+		set(dataHandler, "sessionRateLimiter", new SessionRateLimiter(0));
+	}
+
+	@Benchmark
+	public String previous() throws Exception {
+		Beacon beacon = jsonMapper.readValue(beaconJson, Beacon.class);
+		beacon.deserializationComplete(beacon.getSessionID(), beacon.getTabID());
+		for (EUMBeaconElement elem : beacon.getData()) {
+			DefaultData ddata = elem.asDefaultData();
+			ddata.setPlatformIdent(1L);
+			coreService.addDefaultData(ddata);
+		}
+		return jsonMapper.writeValueAsString(jsonMapper.getNodeFactory().objectNode());
+	}
+
+	@Benchmark
+	public String streaming() {
+		return dataHandler.insertBeacon(new StringReader(beaconJson));
+	}
+
+	/**
+	 * Core service consuming the data into the black hole.
+	 */
+	private static class BlackholeCoreService implements ICoreService {
+
+		private final Blackhole blackhole;
+
+		BlackholeCoreService(Blackhole blackhole) {
+			this.blackhole = blackhole;
+		}
+
+		@Override
+		public void addDefaultData(DefaultData defaultData) {
+			blackhole.consume(defaultData);
+		}
+
+		@Override
+		public void addAllDefaultData(List<? extends DefaultData> defaultDataList) {
+			blackhole.consume(defaultDataList);
+		}
+	}
+
+	private static void set(Object target, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
+		Field field = target.getClass().getDeclaredField(fieldName);
+		field.setAccessible(true);
+		field.set(target, value);
+		field.setAccessible(false);
+	}
+}
@@ -0,0 +1,117 @@
+package rocks.inspectit.agent.java.eum.html;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the overhead the script injection adds to writing one complete html response to the
+ * servlet output stream. The response is written in chunks like a servlet container buffer would
+ * do. The {@link #baseline()} writes the response without injection.
+ *
+ * @author Ivan Senic
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class HtmlScriptInjectorPerfTest {
+
+	/**
+	 * Tag to inject.
+	 */
+	private static final String TAG = "<script type=\"text/javascript\">window.inspectIT_settings = {eumManagementServer : \"/inspectIT_beacon_handler\"};</script>"
+			+ "<script type=\"text/javascript\" src=\"/inspectit_jsagent_1.0.js\"></script>";
+
+	/**
+	 * Size of the written chunks.
+	 */
+	private static final int CHUNK_SIZE = 8192;
+
+	/**
+	 * Size of the page in characters.
+	 */
+	@Param({ "4096", "65536", "524288" })
+	private int pageSize;
+
+	/**
+	 * Charset of the page.
+	 */
+	@Param({ "UTF-8", "ISO-8859-1" })
+	private String charset;
+
+	private byte[] page;
+
+	private OutputStream out;
+
+	@Setup(Level.Trial)
+	public void init(final Blackhole blackhole) throws Exception {
+		StringBuilder html = new StringBuilder("<!DOCTYPE html>\n<html lang=\"de\">\n<!-- generated page -->\n<head>\n<meta charset=\"").append(charset).append("\">\n");
+		html.append("<title>Übersicht der Bestellungen</title>\n</head>\n<body>\n<table>\n");
+		int row = 0;
+		while (html.length() < pageSize) {
+			html.append("<tr><td class=\"id\">").append(row).append("</td><td>Größe: ").append(row % 50).append(" – Straße ").append(row).append("</td></tr>\n");
+			row++;
+		}
+		html.setLength(pageSize - "</table>\n</body>\n</html>\n".length());
+		html.append("</table>\n</body>\n</html>\n");
+		page = html.toString().getBytes(charset);
+
+		out = new OutputStream() {
+			@Override
+			public void write(int b) {
+				blackhole.consume(b);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+				blackhole.consume(b);
+			}
+		};
+	}
+
+	@Benchmark
+	public void baseline() throws Exception {
+		for (int pos = 0; pos < page.length; pos += CHUNK_SIZE) {
+			out.write(page, pos, Math.min(CHUNK_SIZE, page.length - pos));
+		}
+	}
+
+	@Benchmark
+	public void decoding() throws Exception {
+		write(new DecodingHtmlScriptInjector(TAG, charset, false));
+	}
+
+	@Benchmark
+	public void binary() throws Exception {
+		write(new DecodingHtmlScriptInjector(TAG, charset, true));
+	}
+
+	private void write(DecodingHtmlScriptInjector injector) throws Exception {
+		for (int pos = 0; pos < page.length; pos += CHUNK_SIZE) {
+			int len = Math.min(CHUNK_SIZE, page.length - pos);
+			byte[] result = injector.performInjection(page, pos, len);
+			if (null == result) {
+				out.write(page, pos, len);
+			} else {
+				out.write(result, 0, result.length);
+			}
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package rocks.inspectit.agent.java.hooking.impl;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang.math.RandomUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.agent.java.hooking.IHook;
+import rocks.inspectit.agent.java.hooking.IMethodHook;
+import rocks.inspectit.agent.java.sensor.method.AbstractMethodSensor;
+import rocks.inspectit.shared.all.instrumentation.config.impl.MethodSensorTypeConfig;
+
+/**
+ * Performance test for the method dispatching of the {@link HookDispatcher}, compares the
+ * dispatching by method id with the dispatching by the dispatch index.
+ *
+ * @author Ivan Senic
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class HookDispatcherPerfTest {
+
+	private static final Object TARGET = "target";
+
+	/**
+	 * If dispatching is done by index.
+	 */
+	@Param({ "false", "true" })
+	private boolean indexed;
+
+	/**
+	 * Amount of mapped methods.
+	 */
+	@Param({ "10000" })
+	private int methods;
+
+	/**
+	 * Amount of sensors on each method.
+	 */
+	@Param({ "1", "3" })
+	private int sensors;
+
+	private HookDispatcher hookDispatcher;
+
+	private long[] ids;
+
+	private int[] indexes;
+
+	private int current;
+
+	@Setup(Level.Trial)
+	public void init() throws Exception {
+		hookDispatcher = new HookDispatcher();
+
+		ids = new long[methods];
+		indexes = new int[methods];
+		for (int i = 0; i < methods; i++) {
+			// method ids are not dense as they are assigned by the CMR for all agents
+			long id = RandomUtils.nextInt(Integer.MAX_VALUE);
+			indexes[i] = hookDispatcher.getDispatchIndex(id);
+			ids[i] = id;
+
+			RegisteredSensorConfig rsc = new RegisteredSensorConfig();
+			rsc.setId(id);
+			for (int j = 0; j < sensors; j++) {
+				rsc.addMethodSensor(new NoopSensor(j));
+			}
+			hookDispatcher.addMapping(id, rsc);
+		}
+	}
+
+	@Benchmark
+	public void dispatch() {
+		int i = current++;
+		if (current == methods) {
+			current = 0;
+		}
+
+		if (indexed) {
+			hookDispatcher.dispatchIndexedMethodBeforeBody(indexes[i], TARGET, null);
+			hookDispatcher.dispatchIndexedMethodAfterBody(indexes[i], TARGET, null, null, false);
+		} else {
+			hookDispatcher.dispatchMethodBeforeBody(ids[i], TARGET, null);
+			hookDispatcher.dispatchMethodAfterBody(ids[i], TARGET, null, null, false);
+		}
+	}
+
+	/**
+	 * Sensor with the hook that does nothing.
+	 */
+	private static class NoopSensor extends AbstractMethodSensor {
+
+		private final IMethodHook hook = new IMethodHook() {
+
+			@Override
+			public void beforeBody(long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
+			}
+
+			@Override
+			public void firstAfterBody(long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, boolean exception, RegisteredSensorConfig rsc) {
+			}
+
+			@Override
+			public void secondAfterBody(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, boolean exception, // NOCHK:8-params
+					RegisteredSensorConfig rsc) {
+			}
+		};
+
+		NoopSensor(long id) {
+			MethodSensorTypeConfig sensorTypeConfig = new MethodSensorTypeConfig();
+			sensorTypeConfig.setId(id);
+			init(sensorTypeConfig);
+		}
+
+		@Override
+		public IHook getHook() {
+			return hook;
+		}
+
+		@Override
+		protected void initHook(Map<String, Object> parameters) {
+		}
+	}
+}
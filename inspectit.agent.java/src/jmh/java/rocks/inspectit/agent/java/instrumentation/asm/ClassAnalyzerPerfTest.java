@@ -16,6 +16,8 @@ import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
+
 /**
  * Performance test for the {@link ClassAnalyzer} class using JMH framework.
  *
@@ -39,6 +41,6 @@ public class ClassAnalyzerPerfTest {
 	@Benchmark
 	public void parse() throws InterruptedException, IOException {
 		ClassReader classReader = new ClassReader(clazz);
-		classReader.accept(new ClassAnalyzer("MyHash"), ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+		classReader.accept(new ClassAnalyzer(new ClassHash(0L, 1L)), ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
 	}
 }
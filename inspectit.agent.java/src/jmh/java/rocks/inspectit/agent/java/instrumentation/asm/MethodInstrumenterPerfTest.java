@@ -0,0 +1,229 @@
+package rocks.inspectit.agent.java.instrumentation.asm;
+
+import info.novatec.inspectit.org.objectweb.asm.ClassReader;
+import info.novatec.inspectit.org.objectweb.asm.ClassVisitor;
+import info.novatec.inspectit.org.objectweb.asm.ClassWriter;
+import info.novatec.inspectit.org.objectweb.asm.MethodVisitor;
+import info.novatec.inspectit.org.objectweb.asm.Opcodes;
+import info.novatec.inspectit.org.objectweb.asm.Type;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rocks.inspectit.agent.java.hooking.IHookDispatcher;
+
+/**
+ * Performance test for the code added by the {@link MethodInstrumenter}. Compares the not
+ * instrumented method with the method instrumented so that the parameters and the return value are
+ * passed to the dispatcher (full) and with the method where they are not passed (lean).
+ *
+ * @author Ivan Senic
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class MethodInstrumenterPerfTest {
+
+	/**
+	 * Dispatcher the instrumented code is calling.
+	 */
+	public static final RecordingHookDispatcher DISPATCHER = new RecordingHookDispatcher();
+
+	/**
+	 * Mode of the instrumentation, <code>none</code> for not instrumented method, <code>full</code>
+	 * for passing parameters and return value and <code>lean</code> for not passing them.
+	 */
+	@Param({ "none", "full", "lean" })
+	private String mode;
+
+	private Calculator calculator;
+
+	private int a;
+
+	private int b;
+
+	@Setup(Level.Trial)
+	public void init() throws Exception {
+		ClassReader classReader = new ClassReader(Target.class.getName());
+		final ClassWriter classWriter = new ClassWriter(classReader, ClassWriter.COMPUTE_FRAMES);
+
+		ClassVisitor classVisitor = classWriter;
+		if (!"none".equals(mode)) {
+			final boolean needed = "full".equals(mode);
+			classVisitor = new ClassVisitor(Opcodes.ASM5, classWriter) {
+				@Override
+				public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+					MethodVisitor methodVisitor = super.visitMethod(access, name, desc, signature, exceptions);
+					if ("add".equals(name)) {
+						return new MethodInstrumenter(methodVisitor, access, name, desc, 1L, false, needed, needed) {
+							@Override
+							protected void loadHookDispatcher() {
+								mv.visitFieldInsn(Opcodes.GETSTATIC, Type.getInternalName(MethodInstrumenterPerfTest.class), "DISPATCHER", Type.getDescriptor(RecordingHookDispatcher.class));
+							}
+						};
+					}
+					return methodVisitor;
+				}
+			};
+		}
+		classReader.accept(classVisitor, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+
+		byte[] bytes = classWriter.toByteArray();
+		Class<?> clazz = new DefiningClassLoader(MethodInstrumenterPerfTest.class.getClassLoader()).define(Target.class.getName(), bytes);
+		calculator = (Calculator) clazz.newInstance();
+		a = 17;
+		b = 25;
+	}
+
+	/**
+	 * Calls the method.
+	 */
+	@Benchmark
+	public int call() {
+		return calculator.add(a, b);
+	}
+
+	/**
+	 * Interface the instrumented class is called with.
+	 */
+	public interface Calculator {
+
+		/**
+		 * Adds two numbers.
+		 *
+		 * @param a
+		 *            first
+		 * @param b
+		 *            second
+		 * @return sum
+		 */
+		int add(int a, int b);
+	}
+
+	/**
+	 * Class that is instrumented.
+	 */
+	public static class Target implements Calculator {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int add(int a, int b) {
+			return a + b;
+		}
+	}
+
+	/**
+	 * Class loader that defines the instrumented class.
+	 */
+	private static class DefiningClassLoader extends ClassLoader {
+
+		DefiningClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		Class<?> define(String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+
+	/**
+	 * Dispatcher that only keeps the last passed values, so that the passed objects escape.
+	 */
+	public static class RecordingHookDispatcher implements IHookDispatcher {
+
+		public Object object;
+
+		public Object[] parameters;
+
+		public Object returnValue;
+
+		@Override
+		public void dispatchMethodBeforeBody(long id, Object object, Object[] parameters) {
+			this.object = object;
+			this.parameters = parameters;
+		}
+
+		@Override
+		public void dispatchFirstMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue, boolean exception) {
+			this.returnValue = returnValue;
+		}
+
+		@Override
+		public void dispatchSecondMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue, boolean exception) {
+			this.returnValue = returnValue;
+		}
+
+		@Override
+		public void dispatchMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue, boolean exception) {
+			this.object = object;
+			this.parameters = parameters;
+			this.returnValue = returnValue;
+		}
+
+		@Override
+		public void dispatchIndexedMethodBeforeBody(int index, Object object, Object[] parameters) {
+			this.object = object;
+			this.parameters = parameters;
+		}
+
+		@Override
+		public void dispatchIndexedMethodAfterBody(int index, Object object, Object[] parameters, Object returnValue, boolean exception) {
+			this.object = object;
+			this.parameters = parameters;
+			this.returnValue = returnValue;
+		}
+
+		@Override
+		public void dispatchOnThrowInBody(long id, Object object, Object[] parameters, Object exceptionObject) {
+		}
+
+		@Override
+		public void dispatchBeforeCatch(long id, Object exceptionObject) {
+		}
+
+		@Override
+		public void dispatchConstructorOnThrowInBody(long id, Object object, Object[] parameters, Object exceptionObject) {
+		}
+
+		@Override
+		public void dispatchConstructorBeforeCatch(long id, Object exceptionObject) {
+		}
+
+		@Override
+		public void dispatchConstructorBeforeBody(long id, Object[] parameters) {
+		}
+
+		@Override
+		public void dispatchConstructorAfterBody(long id, Object object, Object[] parameters) {
+		}
+
+		@Override
+		public Object dispatchSpecialMethodBeforeBody(long id, Object object, Object[] parameters) {
+			return null;
+		}
+
+		@Override
+		public Object dispatchSpecialMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,112 @@
+package rocks.inspectit.agent.java.proxy.impl;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+
+import rocks.inspectit.agent.java.proxy.AccessorFor;
+
+/**
+ * Performance test for the accessors created by the {@link RuntimeLinker}. Compares the call
+ * through the cached reflection {@link Method} with the call through the accessor, both including
+ * the lookup in the cache.
+ *
+ * @author Ivan Senic
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class AccessorPerfTest {
+
+	private RuntimeLinker runtimeLinker;
+
+	private ReflectionLookup reflectionLookup;
+
+	private Object target;
+
+	private int index;
+
+	@Setup(Level.Trial)
+	public void init() throws Exception {
+		runtimeLinker = new RuntimeLinker();
+		set(runtimeLinker, "log", Mockito.mock(Logger.class));
+		set(runtimeLinker, "proxyBuilder", new ASMProxyBuilder());
+
+		reflectionLookup = new ReflectionLookup();
+		target = new StringBuilder("inspectIT");
+		index = 3;
+	}
+
+	@Benchmark
+	public char reflection() throws Exception {
+		Method method = reflectionLookup.getMethod(target.getClass());
+		return ((Character) method.invoke(target, new Object[] { Integer.valueOf(index) })).charValue();
+	}
+
+	@Benchmark
+	public char accessor() {
+		CharSequenceAccessor accessor = runtimeLinker.createAccessor(CharSequenceAccessor.class, target.getClass());
+		return accessor.charAt(target, index);
+	}
+
+	/**
+	 * Accessor used in the test.
+	 */
+	@AccessorFor(targetType = "java.lang.CharSequence")
+	public interface CharSequenceAccessor {
+
+		/**
+		 * @param target
+		 *            char sequence
+		 * @param index
+		 *            index
+		 * @return char at the index
+		 */
+		char charAt(Object target, int index);
+	}
+
+	/**
+	 * Lookup of the reflection method as done by the sensors before the accessors.
+	 */
+	private static class ReflectionLookup {
+
+		private final ConcurrentHashMap<String, Method> methodCache = new ConcurrentHashMap<String, Method>();
+
+		Method getMethod(Class<?> clazz) throws NoSuchMethodException {
+			String key = clazz.getName() + '#' + "charAt";
+			Method method = methodCache.get(key);
+			if (null == method) {
+				method = clazz.getMethod("charAt", int.class);
+				method.setAccessible(true);
+				methodCache.put(key, method);
+			}
+			return method;
+		}
+	}
+
+	private static void set(Object target, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
+		Field field = target.getClass().getDeclaredField(fieldName);
+		field.setAccessible(true);
+		field.set(target, value);
+		field.setAccessible(false);
+	}
+}
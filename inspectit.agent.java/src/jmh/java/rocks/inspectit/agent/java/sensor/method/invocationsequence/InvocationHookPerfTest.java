@@ -25,6 +25,7 @@ import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
 import rocks.inspectit.agent.java.sdk.opentracing.internal.impl.TracerImpl;
 import rocks.inspectit.agent.java.sensor.method.AbstractHookPerfTest;
 import rocks.inspectit.agent.java.util.Timer;
+import rocks.inspectit.shared.all.communication.data.TimerData;
 
 @State(Scope.Benchmark)
 @Warmup(iterations = 10, batchSize = 100000)
@@ -37,15 +38,30 @@ public class InvocationHookPerfTest extends AbstractHookPerfTest {
 	@Param({ "0" })
 	public int tokens;
 
-	private InvocationSequenceHook invocationSequenceHook;
+	/**
+	 * If the arena recording is used.
+	 */
+	@Param({ "false", "true" })
+	public boolean arena;
+
+	/**
+	 * Amount of nested methods in the deep invocation.
+	 */
+	@Param({ "1000" })
+	public int depth;
+
+	private AbstractInvocationSequenceHook invocationSequenceHook;
 
 	private long nestedMethodId;
 	private RegisteredSensorConfig registeredSensorConfig;
+	private RegisteredSensorConfig discardingSensorConfig;
 
 	@Setup(Level.Trial)
 	public void createRegisteredSensorConfig() {
 		registeredSensorConfig = new RegisteredSensorConfig();
 		registeredSensorConfig.setSettings(Collections.<String, Object> emptyMap());
+		discardingSensorConfig = new RegisteredSensorConfig();
+		discardingSensorConfig.setSettings(Collections.<String, Object> singletonMap("minduration", Long.MAX_VALUE));
 	}
 
 	@Override
@@ -55,7 +71,11 @@ public class InvocationHookPerfTest extends AbstractHookPerfTest {
 
 		nestedMethodId = methodId + 10;
 
-		invocationSequenceHook = new InvocationSequenceHook(new Timer(), platformManager, coreService, new TracerImpl(), new PropertyAccessor(), new HashMap<String, Object>(), false);
+		if (arena) {
+			invocationSequenceHook = new ArenaInvocationSequenceHook(new Timer(), platformManager, coreService, new TracerImpl(), new PropertyAccessor(), new HashMap<String, Object>(), false);
+		} else {
+			invocationSequenceHook = new InvocationSequenceHook(new Timer(), platformManager, coreService, new TracerImpl(), new PropertyAccessor(), new HashMap<String, Object>(), false);
+		}
 	}
 
 	public void baselineConsumeCPU() {
@@ -88,6 +108,35 @@ public class InvocationHookPerfTest extends AbstractHookPerfTest {
 		invocationSequenceHook.secondAfterBody(coreService, methodId, SENSOR_ID, TARGET, PARAMS, RETURN_VALUE, false, registeredSensorConfig);
 	}
 
+	@Benchmark
+	public void deepInvocation() {
+		deepInvocation(registeredSensorConfig);
+	}
+
+	@Benchmark
+	public void deepInvocationDiscarded() {
+		deepInvocation(discardingSensorConfig);
+	}
+
+	private void deepInvocation(RegisteredSensorConfig rsc) {
+		// invocation sequence
+		invocationSequenceHook.beforeBody(methodId, SENSOR_ID, TARGET, PARAMS, rsc);
+
+		// nested methods, each with a timer
+		for (int i = 1; i <= depth; i++) {
+			invocationSequenceHook.beforeBody(nestedMethodId + i, SENSOR_ID, TARGET, PARAMS, rsc);
+			invocationSequenceHook.addDefaultData(new TimerData());
+		}
+		for (int i = depth; i >= 1; i--) {
+			invocationSequenceHook.firstAfterBody(nestedMethodId + i, SENSOR_ID, TARGET, PARAMS, RETURN_VALUE, false, rsc);
+			invocationSequenceHook.secondAfterBody(coreService, nestedMethodId + i, SENSOR_ID, TARGET, PARAMS, RETURN_VALUE, false, rsc);
+		}
+
+		// stop the invocation sequence
+		invocationSequenceHook.firstAfterBody(methodId, SENSOR_ID, TARGET, PARAMS, RETURN_VALUE, false, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId, SENSOR_ID, TARGET, PARAMS, RETURN_VALUE, false, rsc);
+	}
+
 	@Override
 	@TearDown(Level.Iteration)
 	public void cleanUp() throws Exception {
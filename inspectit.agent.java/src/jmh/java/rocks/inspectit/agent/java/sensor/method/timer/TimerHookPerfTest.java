@@ -5,6 +5,7 @@ import java.lang.management.ThreadMXBean;
 import java.lang.reflect.Field;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.openjdk.jmh.annotations.Benchmark;
@@ -33,6 +34,10 @@ import rocks.inspectit.shared.all.instrumentation.config.impl.PropertyPathStart;
 
 /**
  * JMH Test for {@link TimerHook} in combination with {@link CoreService}.
+ * <p>
+ * The {@link #primitiveTimingStack} parameter compares the default boxed time stacks with the
+ * primitive timing stack. Run with the GC profiler (<code>-prof gc</code>) to get the allocation
+ * rate per operation next to the average time.
  *
  * @author Matthias Huber
  *
@@ -51,9 +56,14 @@ public class TimerHookPerfTest extends AbstractHookPerfTest {
 	@Param({ "false" })
 	public boolean charting;
 
+	@Param({ "false", "true" })
+	public boolean primitiveTimingStack;
+
 	private TimerHook timerHook;
 	private TimerHook timerHookNoThreadCPU;
 
+	private long nestedMethodId;
+
 	private RegisteredSensorConfig registeredSensorConfig;
 	private RegisteredSensorConfig captureReturnRegisteredSensorConfig;
 	private RegisteredSensorConfig captureParameterRegisteredSensorConfig;
@@ -105,8 +115,12 @@ public class TimerHookPerfTest extends AbstractHookPerfTest {
 	public void init(ThreadParams threadParams) throws NoSuchFieldException, IllegalArgumentException, IllegalAccessException {
 		super.init(threadParams);
 
-		timerHook = new TimerHook(new Timer(), platformManager, new PropertyAccessor(), new HashMap<String, Object>(), ManagementFactory.getThreadMXBean());
-		timerHookNoThreadCPU = new TimerHook(new Timer(), platformManager, new PropertyAccessor(), new HashMap<String, Object>(), ManagementFactory.getThreadMXBean());
+		nestedMethodId = methodId + 10;
+
+		Map<String, Object> parameters = new HashMap<String, Object>();
+		parameters.put("primitivetimingstack", String.valueOf(primitiveTimingStack));
+		timerHook = new TimerHook(new Timer(), platformManager, new PropertyAccessor(), parameters, ManagementFactory.getThreadMXBean(), null);
+		timerHookNoThreadCPU = new TimerHook(new Timer(), platformManager, new PropertyAccessor(), parameters, ManagementFactory.getThreadMXBean(), null);
 
 		// disable CPU Threading
 		Field cpuThreadEnabledField = timerHookNoThreadCPU.getClass().getDeclaredField("enabled");
@@ -142,6 +156,23 @@ public class TimerHookPerfTest extends AbstractHookPerfTest {
 		timerHook.secondAfterBody(coreService, methodId, SENSOR_ID, TARGET, PARAMS, RETURN_VALUE, false, registeredSensorConfig);
 	}
 
+	/**
+	 * Benchmarks the overhead of measuring a method invocation that has one nested measured
+	 * method invocation, thus the time stacks hold more than one entry.
+	 */
+	@Benchmark
+	public void measureNestedMethods() {
+		timerHook.beforeBody(methodId, SENSOR_ID, TARGET, PARAMS, registeredSensorConfig);
+
+		// nested method
+		timerHook.beforeBody(nestedMethodId, SENSOR_ID, TARGET, PARAMS, registeredSensorConfig);
+		timerHook.firstAfterBody(nestedMethodId, SENSOR_ID, TARGET, PARAMS, RETURN_VALUE, false, registeredSensorConfig);
+		timerHook.secondAfterBody(coreService, nestedMethodId, SENSOR_ID, TARGET, PARAMS, RETURN_VALUE, false, registeredSensorConfig);
+
+		timerHook.firstAfterBody(methodId, SENSOR_ID, TARGET, PARAMS, RETURN_VALUE, false, registeredSensorConfig);
+		timerHook.secondAfterBody(coreService, methodId, SENSOR_ID, TARGET, PARAMS, RETURN_VALUE, false, registeredSensorConfig);
+	}
+
 	@Benchmark
 	public void measureMethodWithReturnValueCapturing() {
 		timerHook.beforeBody(methodId, SENSOR_ID, TARGET, PARAMS, captureReturnRegisteredSensorConfig);
@@ -87,8 +87,8 @@ public class TimerHookWithInvocationPerfTest extends AbstractHookPerfTest {
 
 		invocationSequenceHook = new InvocationSequenceHook(new Timer(), platformManager, coreService, new TracerImpl(), new PropertyAccessor(), new HashMap<String, Object>(), false);
 
-		timerHook = new TimerHook(new Timer(), platformManager, new PropertyAccessor(), new HashMap<String, Object>(), ManagementFactory.getThreadMXBean());
-		timerHookNoThreadCPU = new TimerHook(new Timer(), platformManager, new PropertyAccessor(), new HashMap<String, Object>(), ManagementFactory.getThreadMXBean());
+		timerHook = new TimerHook(new Timer(), platformManager, new PropertyAccessor(), new HashMap<String, Object>(), ManagementFactory.getThreadMXBean(), null);
+		timerHookNoThreadCPU = new TimerHook(new Timer(), platformManager, new PropertyAccessor(), new HashMap<String, Object>(), ManagementFactory.getThreadMXBean(), null);
 
 		// disable CPU Threading
 		Field cpuThreadEnabledField = timerHookNoThreadCPU.getClass().getDeclaredField("enabled");
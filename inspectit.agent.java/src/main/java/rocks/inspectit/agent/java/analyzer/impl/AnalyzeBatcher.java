@@ -0,0 +1,519 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.google.common.util.concurrent.SettableFuture;
+
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.connection.IConnection;
+import rocks.inspectit.agent.java.connection.ServerUnavailableException;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
+import rocks.inspectit.shared.all.instrumentation.classcache.Type;
+import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+import rocks.inspectit.shared.all.spring.logger.Log;
+
+/**
+ * Collects the types to be analyzed by the CMR and sends them in batches with
+ * {@link IConnection#analyzeBatch(long, List, List)}. While one batch is being analyzed, all types
+ * coming from the class loading threads are queued and sent together with the next batch. Only one
+ * batch is in flight at a time, as the CMR must analyze the depending types before the types
+ * depending on them.
+ * <p>
+ * Sending is bound by the {@link #LATENCY_TARGET_MILLIS}. A type some thread waits for is sent
+ * right away together with everything queued before it. Types nobody waits for are sent at the
+ * latest after the latency target. The batch size is derived from the observed analysis time per
+ * type, so that one batch is analyzed within the latency target, thus a waiting thread never waits
+ * longer than {@link #getWaitTimeoutMillis()} unless the CMR slows down.
+ * <p>
+ * Results are registered with the {@link ClassHashHelper} as soon as they arrive, thus the callers
+ * that do not need the result (depending types, non-class types) don't have to wait for it. A caller
+ * that stops waiting for the result must {@link #abandon(String)} the request, as the class is then
+ * defined without the instrumentation and must not be registered as sent. The same holds for the
+ * classes that are no instrumentation candidates and are defined without waiting. If the CMR
+ * instruments such a class after all, the {@link InstrumentationCandidates} are invalidated.
+ * <p>
+ * Batches are sent with an own single threaded executor, so that the blocking calls to the CMR
+ * never delay the core services.
+ *
+ * @author Ivan Senic
+ *
+ */
+@Component
+public class AnalyzeBatcher implements InitializingBean {
+
+	/**
+	 * Target latency of the analysis in milliseconds. Types nobody waits for are queued at most
+	 * this long and the batches are sized to be analyzed within this time.
+	 */
+	static final long LATENCY_TARGET_MILLIS = 500L;
+
+	/**
+	 * Assumed analysis time per type in nanoseconds before the first batch is analyzed.
+	 */
+	static final long INITIAL_NANOS_PER_TYPE = TimeUnit.MILLISECONDS.toNanos(1L);
+
+	/**
+	 * Log for the class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * {@link IConnection}.
+	 */
+	@Autowired
+	private IConnection connection;
+
+	/**
+	 * Platform manager.
+	 */
+	@Autowired
+	private IPlatformManager platformManager;
+
+	/**
+	 * {@link ClassHashHelper} to register the results with.
+	 */
+	@Autowired
+	private ClassHashHelper classHashHelper;
+
+	/**
+	 * {@link IConfigurationStorage} to read if the batched analysis is active.
+	 */
+	@Autowired
+	private IConfigurationStorage configurationStorage;
+
+	/**
+	 * {@link InstrumentationCandidates} to invalidate when a class defined without waiting is
+	 * instrumented by the CMR.
+	 */
+	@Autowired
+	private InstrumentationCandidates instrumentationCandidates;
+
+	/**
+	 * Executor service for sending the batches.
+	 */
+	@Autowired
+	@Qualifier("analyzeExecutorService")
+	private ScheduledExecutorService executorService;
+
+	/**
+	 * If batched analysis is active. Can be deactivated in the environment, then each type is
+	 * analyzed with a separate call to the CMR.
+	 */
+	private boolean active = true;
+
+	/**
+	 * Requests waiting to be sent.
+	 */
+	private final BlockingQueue<AnalyzeRequest> queue = new LinkedBlockingQueue<AnalyzeRequest>();
+
+	/**
+	 * Requests that are queued or in flight by the class hash, so that same type is never sent
+	 * twice in parallel.
+	 */
+	private final ConcurrentHashMap<ClassHash, AnalyzeRequest> pendingRequests = new ConcurrentHashMap<ClassHash, AnalyzeRequest>(256);
+
+	/**
+	 * If the sending task is submitted to the executor.
+	 */
+	private final AtomicBoolean sending = new AtomicBoolean();
+
+	/**
+	 * If the delayed sending task is scheduled with the executor.
+	 */
+	private final AtomicBoolean lingering = new AtomicBoolean();
+
+	/**
+	 * Moving average of the analysis time per type in nanoseconds. Only updated by the sending
+	 * thread.
+	 */
+	private volatile long nanosPerType = INITIAL_NANOS_PER_TYPE;
+
+	/**
+	 * Runnable that sends batches until the queue is empty.
+	 */
+	private final Runnable sendRunnable = new Runnable() {
+		@Override
+		public void run() {
+			sendBatches();
+		}
+	};
+
+	/**
+	 * Runnable that starts the sending of the types nobody waits for.
+	 */
+	private final Runnable lingerRunnable = new Runnable() {
+		@Override
+		public void run() {
+			lingering.set(false);
+			scheduleSending();
+		}
+	};
+
+	/**
+	 * Queues the type to be analyzed by the CMR and starts sending right away, as the caller waits
+	 * for the result. When the result arrives the class is registered as sent with the
+	 * {@link ClassHashHelper} and the returned future is completed.
+	 *
+	 * @param className
+	 *            Class name.
+	 * @param hash
+	 *            Class hash.
+	 * @param type
+	 *            Parsed type.
+	 * @return Future to wait for the instrumentation definition.
+	 */
+	public Future<InstrumentationDefinition> analyze(String className, ClassHash hash, Type type) {
+		AnalyzeRequest request = new AnalyzeRequest(className, hash, type, AnalyzeRequest.PENDING);
+		AnalyzeRequest existing = queue(request);
+		if (null != existing) {
+			// the result is needed again, thus it must be registered when it arrives
+			if (!existing.state.compareAndSet(AnalyzeRequest.ABANDONED, AnalyzeRequest.PENDING)) {
+				existing.state.compareAndSet(AnalyzeRequest.LOCAL, AnalyzeRequest.PENDING);
+			}
+			request = existing;
+		}
+
+		scheduleSending();
+		return request.future;
+	}
+
+	/**
+	 * Queues the type to be analyzed by the CMR without waiting for the result. The type is sent
+	 * with the next batch, at latest after the {@link #LATENCY_TARGET_MILLIS}. When the result
+	 * arrives the class is registered as sent with the {@link ClassHashHelper}.
+	 *
+	 * @param className
+	 *            Class name.
+	 * @param hash
+	 *            Class hash.
+	 * @param type
+	 *            Parsed type.
+	 */
+	public void analyzeInBackground(String className, ClassHash hash, Type type) {
+		AnalyzeRequest existing = queue(new AnalyzeRequest(className, hash, type, AnalyzeRequest.PENDING));
+		if (null != existing) {
+			existing.state.compareAndSet(AnalyzeRequest.ABANDONED, AnalyzeRequest.PENDING);
+			return;
+		}
+		scheduleLingering();
+	}
+
+	/**
+	 * Queues the class that was defined without the instrumentation to be analyzed by the CMR
+	 * without waiting for the result. The CMR still needs the class in its class cache for the
+	 * instrumentation of the depending types and the configuration updates. The class is
+	 * registered as sent with the {@link ClassHashHelper} only if the CMR does not instrument it.
+	 *
+	 * @param className
+	 *            Class name.
+	 * @param hash
+	 *            Class hash.
+	 * @param type
+	 *            Parsed type.
+	 */
+	public void analyzeDefined(String className, ClassHash hash, Type type) {
+		if (null == queue(new AnalyzeRequest(className, hash, type, AnalyzeRequest.LOCAL))) {
+			scheduleLingering();
+		}
+	}
+
+	/**
+	 * Queues the new request if there is no request for the same hash.
+	 *
+	 * @param request
+	 *            New request.
+	 * @return Existing request for the hash or <code>null</code> if the new request was queued.
+	 */
+	private AnalyzeRequest queue(AnalyzeRequest request) {
+		AnalyzeRequest existing = pendingRequests.putIfAbsent(request.hash, request);
+		if (null != existing) {
+			return existing;
+		}
+
+		queue.add(request);
+		return null;
+	}
+
+	/**
+	 * Abandons the request for the given hash if the result did not arrive yet. Must be called by
+	 * the thread that stopped waiting for the result, as then the class is defined without the
+	 * instrumentation. The result of an abandoned request is not registered with the
+	 * {@link ClassHashHelper}, so that the type is sent again when loaded the next time.
+	 *
+	 * @param hash
+	 *            Class hash.
+	 * @return <code>true</code> if the request was abandoned, <code>false</code> if the result
+	 *         was already registered and the future is or will be completed without waiting.
+	 */
+	public boolean abandon(ClassHash hash) {
+		AnalyzeRequest request = pendingRequests.get(hash);
+		if (null == request) {
+			// result already delivered or failed
+			return false;
+		}
+		return request.state.compareAndSet(AnalyzeRequest.PENDING, AnalyzeRequest.ABANDONED);
+	}
+
+	/**
+	 * Schedules the sending task with the {@link #LATENCY_TARGET_MILLIS} delay if it's not already
+	 * scheduled.
+	 */
+	private void scheduleLingering() {
+		if (lingering.compareAndSet(false, true)) {
+			try {
+				executorService.schedule(lingerRunnable, LATENCY_TARGET_MILLIS, TimeUnit.MILLISECONDS);
+			} catch (RejectedExecutionException e) {
+				lingering.set(false);
+				scheduleSending();
+			}
+		}
+	}
+
+	/**
+	 * Submits the sending task if it's not already running.
+	 */
+	private void scheduleSending() {
+		if (sending.compareAndSet(false, true)) {
+			try {
+				executorService.submit(sendRunnable);
+			} catch (RejectedExecutionException e) {
+				sending.set(false);
+				List<AnalyzeRequest> batch = new ArrayList<AnalyzeRequest>();
+				queue.drainTo(batch);
+				fail(batch, e);
+			}
+		}
+	}
+
+	/**
+	 * Sends the batches until there are no more queued requests.
+	 */
+	void sendBatches() {
+		try {
+			List<AnalyzeRequest> batch = new ArrayList<AnalyzeRequest>();
+			while (queue.drainTo(batch, getBatchSize()) > 0) {
+				send(batch);
+				batch.clear();
+			}
+		} finally {
+			sending.set(false);
+		}
+
+		// requests might be queued after the last drain but before the flag was reset
+		if (!queue.isEmpty()) {
+			scheduleSending();
+		}
+	}
+
+	/**
+	 * Sends one batch and completes the requests.
+	 *
+	 * @param batch
+	 *            Requests to send.
+	 */
+	private void send(List<AnalyzeRequest> batch) {
+		List<ClassHash> hashes = new ArrayList<ClassHash>(batch.size());
+		List<Type> types = new ArrayList<Type>(batch.size());
+		for (AnalyzeRequest request : batch) {
+			hashes.add(request.hash);
+			types.add(request.type);
+		}
+
+		List<InstrumentationDefinition> results;
+		try {
+			long start = System.nanoTime();
+			results = connection.analyzeBatch(platformManager.getPlatformId(), hashes, types);
+			long perType = (System.nanoTime() - start) / batch.size();
+			nanosPerType = ((nanosPerType * 3) + perType) / 4;
+		} catch (ServerUnavailableException e) {
+			if (log.isDebugEnabled()) {
+				log.debug("Types could not be sent to the CMR. " + (e.isServerTimeout() ? "Server timeout." : "Server not available."), e);
+			} else {
+				log.warn("Types could not be sent to the CMR due to the ServerUnavailableException." + (e.isServerTimeout() ? " (timeout)" : "(error)"));
+			}
+			fail(batch, e);
+			return;
+		} catch (Exception e) { // NOPMD
+			fail(batch, e);
+			return;
+		}
+
+		for (int i = 0; i < batch.size(); i++) {
+			AnalyzeRequest request = batch.get(i);
+			InstrumentationDefinition instrumentationDefinition = null;
+			if ((null != results) && (i < results.size())) {
+				instrumentationDefinition = results.get(i);
+			}
+
+			// register before completing so that waiting thread sees the class as sent, but only
+			// if the class is not already defined without the instrumentation
+			boolean empty = (null == instrumentationDefinition) || instrumentationDefinition.isEmpty();
+			if (request.state.compareAndSet(AnalyzeRequest.PENDING, AnalyzeRequest.DELIVERED) || (empty && request.state.compareAndSet(AnalyzeRequest.LOCAL, AnalyzeRequest.DELIVERED))) {
+				classHashHelper.registerSent(request.className, request.hash);
+				classHashHelper.registerInstrumentationDefinition(request.className, instrumentationDefinition);
+			} else if (!empty && (AnalyzeRequest.LOCAL == request.state.get())) {
+				instrumentationCandidates.invalidate(request.className);
+			}
+			pendingRequests.remove(request.hash);
+			request.future.set(instrumentationDefinition);
+		}
+	}
+
+	/**
+	 * Completes all requests with the given exception.
+	 *
+	 * @param batch
+	 *            Requests.
+	 * @param throwable
+	 *            Exception.
+	 */
+	private void fail(List<AnalyzeRequest> batch, Throwable throwable) {
+		for (AnalyzeRequest request : batch) {
+			pendingRequests.remove(request.hash);
+			request.future.setException(throwable);
+		}
+	}
+
+	/**
+	 * Returns the amount of types to send in one batch, so that the batch is analyzed within the
+	 * {@link #LATENCY_TARGET_MILLIS}.
+	 *
+	 * @return Batch size.
+	 */
+	int getBatchSize() {
+		long batchSize = TimeUnit.MILLISECONDS.toNanos(LATENCY_TARGET_MILLIS) / Math.max(1L, nanosPerType);
+		return (int) Math.max(1L, Math.min(batchSize, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Returns how long a thread should wait for the result of the {@link #analyze(String, String, Type)}.
+	 * Covers the batch in flight and the batch with the awaited type.
+	 *
+	 * @return Wait timeout in milliseconds.
+	 */
+	public long getWaitTimeoutMillis() {
+		return 2 * LATENCY_TARGET_MILLIS;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		active = configurationStorage.isBatchedClassAnalysis();
+	}
+
+	/**
+	 * Returns if batched analysis is active.
+	 *
+	 * @return Returns if batched analysis is active.
+	 */
+	public boolean isActive() {
+		return this.active;
+	}
+
+	/**
+	 * Sets {@link #active}.
+	 *
+	 * @param active
+	 *            New value for {@link #active}
+	 */
+	public void setActive(boolean active) {
+		this.active = active;
+	}
+
+	/**
+	 * One type to be analyzed.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static class AnalyzeRequest {
+
+		/**
+		 * State of the request waiting for the result.
+		 */
+		static final int PENDING = 0;
+
+		/**
+		 * State of the request whose result was registered with the class hash helper.
+		 */
+		static final int DELIVERED = 1;
+
+		/**
+		 * State of the request the waiting thread gave up on.
+		 */
+		static final int ABANDONED = 2;
+
+		/**
+		 * State of the request whose class was defined without waiting, as it's no
+		 * instrumentation candidate.
+		 */
+		static final int LOCAL = 3;
+
+		/**
+		 * Class name.
+		 */
+		private final String className;
+
+		/**
+		 * Class hash.
+		 */
+		private final ClassHash hash;
+
+		/**
+		 * Parsed type.
+		 */
+		private final Type type;
+
+		/**
+		 * Future completed with the result.
+		 */
+		private final SettableFuture<InstrumentationDefinition> future = SettableFuture.create();
+
+		/**
+		 * One of the {@link #PENDING}, {@link #DELIVERED}, {@link #ABANDONED} or {@link #LOCAL}
+		 * states.
+		 */
+		private final AtomicInteger state;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param className
+		 *            Class name.
+		 * @param hash
+		 *            Class hash.
+		 * @param type
+		 *            Parsed type.
+		 * @param state
+		 *            Initial state.
+		 */
+		AnalyzeRequest(String className, ClassHash hash, Type type, int state) {
+			this.className = className;
+			this.hash = hash;
+			this.type = type;
+			this.state = new AtomicInteger(state);
+		}
+
+	}
+
+}
@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 
 import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.connection.ServerUnavailableException;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 
@@ -38,7 +39,7 @@ public class AnalyzeCallable implements Callable<InstrumentationDefinition> {
 	/**
 	 * Hash to pass.
 	 */
-	private final String hash;
+	private final ClassHash hash;
 
 	/**
 	 * {@link Type} to pass.
@@ -59,7 +60,7 @@ public class AnalyzeCallable implements Callable<InstrumentationDefinition> {
 	 * @see IConnection#analyze(long, String,
 	 *      rocks.inspectit.shared.all.instrumentation.classcache.Type)
 	 */
-	public AnalyzeCallable(IConnection connection, long platformId, String hash, Type type) {
+	public AnalyzeCallable(IConnection connection, long platformId, ClassHash hash, Type type) {
 		this.connection = connection;
 		this.platformId = platformId;
 		this.hash = hash;
@@ -11,10 +11,10 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
-import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.slf4j.Logger;
@@ -24,6 +24,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 import info.novatec.inspectit.org.objectweb.asm.ClassReader;
 import info.novatec.inspectit.org.objectweb.asm.ClassWriter;
@@ -44,6 +45,7 @@ import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
 import rocks.inspectit.agent.java.stats.AgentStatisticsLogger;
 import rocks.inspectit.shared.all.exception.BusinessException;
 import rocks.inspectit.shared.all.exception.enumeration.AgentManagementErrorCodeEnum;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.instrumentation.config.impl.MethodInstrumentationConfig;
@@ -55,6 +57,15 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 /**
  * {@link IByteCodeAnalyzer} that uses {@link IConnection} to connect to the CMR and send the
  * analyzed type. If needed performs instrumentation based on the result of the CMR answer.
+ * <p>
+ * Types are sent in batches with the {@link AnalyzeBatcher} if the batched analysis is active.
+ * Then only the thread loading a class that is an {@link InstrumentationCandidates instrumentation
+ * candidate} waits for the answer. Depending types, types that are not classes and classes that
+ * can not match any sensor assignment are analyzed in the background.
+ * <p>
+ * Classes known from the instrumentation snapshot of the {@link ClassHashHelper} are instrumented
+ * right away with the definition from the snapshot, and are sent to the CMR in the background to
+ * reconcile the class cache on the CMR.
  *
  * @author Ivan Senic
  *
@@ -63,7 +74,8 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 
 	/**
-	 * Amount of milliseconds to wait for the result of the {@link AnalyzeCallable}.
+	 * Amount of milliseconds to wait for the result of the {@link AnalyzeCallable} if the batched
+	 * analysis is not active.
 	 */
 	private static final int ANALYZE_TIMEOUT_MILLIS = 2000;
 
@@ -103,6 +115,18 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 	@Autowired
 	private ClassHashHelper classHashHelper;
 
+	/**
+	 * {@link AnalyzeBatcher} for sending the types in batches.
+	 */
+	@Autowired
+	private AnalyzeBatcher analyzeBatcher;
+
+	/**
+	 * {@link InstrumentationCandidates} for deciding which classes can be defined without waiting.
+	 */
+	@Autowired
+	private InstrumentationCandidates instrumentationCandidates;
+
 	/**
 	 * Core-service executor service.
 	 */
@@ -122,6 +146,11 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 	@Autowired
 	private List<IMethodSensor> methodSensors;
 
+	/**
+	 * Algorithm for calculating the class hashes, defined by the agent configuration.
+	 */
+	private ClassHashAlgorithm classHashAlgorithm = ClassHashAlgorithm.MURMUR3_128;
+
 	/**
 	 * Map of {@link IMethodSensor}s to their IDs for faster lookups.
 	 */
@@ -175,11 +204,16 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 			classHashHelper.registerAnalyzed(className);
 
 			// create the hash
-			String hash = DigestUtils.sha256Hex(byteCode);
+			ClassHash hash = classHashAlgorithm.hash(byteCode);
 			InstrumentationDefinition instrumentationResult = null;
 			if (classHashHelper.isSent(className, hash)) {
 				// if sent load instrumentation result from the class hash helper
 				instrumentationResult = classHashHelper.getInstrumentationDefinition(className);
+
+				// if known only from the snapshot, let the CMR know about the type without waiting
+				if (classHashHelper.needsReconciliation(className) && connection.isConnected() && classHashHelper.startReconciliation(className)) {
+					reconcile(byteCode, className, hash, classLoader);
+				}
 			} else {
 				// if not sent we go for the sending
 				if (!connection.isConnected()) {
@@ -199,26 +233,60 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 				// analyze all necessary depending classes before
 				analyzeDependingTypes(type, classLoader);
 
-				// try connecting to server
-				Callable<InstrumentationDefinition> analyzeCallable = new AnalyzeCallable(connection, platformManager.getPlatformId(), hash, type);
+				Future<InstrumentationDefinition> analyzeFuture;
+				long timeoutMillis;
+				boolean batched = analyzeBatcher.isActive();
+				if (batched) {
+					// batcher registers the result with the class hash helper when it arrives
+					boolean candidate = instrumentationCandidates.isCandidate(type);
+					if (!performInstrumentation || !type.isClass()) {
+						// no need to wait, CMR never instruments types that are not classes
+						analyzeBatcher.analyzeInBackground(className, hash, type);
+						return null;
+					} else if (!candidate) {
+						// no need to wait, CMR can not instrument the class
+						analyzeBatcher.analyzeDefined(className, hash, type);
+						return null;
+					}
+					analyzeFuture = analyzeBatcher.analyze(className, hash, type);
+					timeoutMillis = analyzeBatcher.getWaitTimeoutMillis();
+				} else {
+					// try connecting to server
+					Callable<InstrumentationDefinition> analyzeCallable = new AnalyzeCallable(connection, platformManager.getPlatformId(), hash, type);
+					analyzeFuture = executorService.submit(analyzeCallable);
+					timeoutMillis = ANALYZE_TIMEOUT_MILLIS;
+				}
+
 				try {
-					instrumentationResult = executorService.submit(analyzeCallable).get(ANALYZE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+					instrumentationResult = analyzeFuture.get(timeoutMillis, TimeUnit.MILLISECONDS);
 				} catch (InterruptedException e) {
 					isInterrupted = true;
-					if (log.isWarnEnabled()) {
-						log.warn("Error occurred instrumenting the byte code of class " + className + ". Thread loading the class was interrupted during communication with the server.", e);
+					if (batched && !analyzeBatcher.abandon(hash)) {
+						// result already registered as sent, thus it must be used
+						instrumentationResult = Uninterruptibles.getUninterruptibly(analyzeFuture);
+					} else {
+						if (log.isWarnEnabled()) {
+							log.warn("Error occurred instrumenting the byte code of class " + className + ". Thread loading the class was interrupted during communication with the server.", e);
+						}
+						return null;
 					}
-					return null;
 				} catch (TimeoutException e) {
-					if (log.isWarnEnabled()) {
-						log.warn("Error occurred instrumenting the byte code of class " + className + ". Sending the class structure to the CMR resulted in a time-out.", e);
+					if (batched && !analyzeBatcher.abandon(hash)) {
+						// result already registered as sent, thus it must be used
+						instrumentationResult = Uninterruptibles.getUninterruptibly(analyzeFuture);
+					} else {
+						if (log.isWarnEnabled()) {
+							log.warn("Error occurred instrumenting the byte code of class " + className + ". Sending the class structure to the CMR resulted in a time-out.", e);
+						}
+						return null;
 					}
-					return null;
 				}
 
-				// register type as sent
-				classHashHelper.registerSent(className, hash);
-				classHashHelper.registerInstrumentationDefinition(className, instrumentationResult);
+				if (!batched) {
+					// register type as sent
+					classHashHelper.registerSent(className, hash);
+					classHashHelper.registerInstrumentationDefinition(className, instrumentationResult);
+				}
 			}
 
 			// execute instrumentation if needed
@@ -247,6 +315,31 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 		}
 	}
 
+	/**
+	 * Sends the type known from the instrumentation snapshot to the CMR with the
+	 * {@link AnalyzeBatcher} without waiting for the result. The batcher registers the result
+	 * with the {@link ClassHashHelper} when it arrives.
+	 *
+	 * @param byteCode
+	 *            The byte-code of the class.
+	 * @param className
+	 *            The class name.
+	 * @param hash
+	 *            Class hash.
+	 * @param classLoader
+	 *            {@link ClassLoader} used for loading the given type.
+	 */
+	private void reconcile(byte[] byteCode, String className, ClassHash hash, ClassLoader classLoader) {
+		ClassReader classReader = new ClassReader(byteCode);
+		ClassAnalyzer classAnalyzer = new ClassAnalyzer(hash);
+		classReader.accept(classAnalyzer, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+		Type type = (Type) classAnalyzer.getType();
+
+		analyzeDependingTypes(type, classLoader);
+		instrumentationCandidates.isCandidate(type);
+		analyzeBatcher.analyzeInBackground(className, hash, type);
+	}
+
 	/**
 	 * Analyze the depending types of the given type and sends the results to the server if needed.
 	 *
@@ -479,6 +572,26 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 		for (IMethodSensor methodSensor : methodSensors) {
 			methodSensorMap.put(methodSensor.getSensorTypeConfig().getId(), methodSensor);
 		}
+		classHashAlgorithm = ClassHashAlgorithm.get(configurationStorage.isSha256ClassHashes());
+	}
+
+	/**
+	 * Gets {@link #classHashAlgorithm}.
+	 *
+	 * @return {@link #classHashAlgorithm}
+	 */
+	public ClassHashAlgorithm getClassHashAlgorithm() {
+		return this.classHashAlgorithm;
+	}
+
+	/**
+	 * Sets {@link #classHashAlgorithm}.
+	 *
+	 * @param classHashAlgorithm
+	 *            New value for {@link #classHashAlgorithm}
+	 */
+	public void setClassHashAlgorithm(ClassHashAlgorithm classHashAlgorithm) {
+		this.classHashAlgorithm = classHashAlgorithm;
 	}
 
 }
@@ -0,0 +1,73 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import com.google.common.hash.Hashing;
+
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
+
+/**
+ * Algorithms for calculating the class hash that identifies the byte code of the class on the
+ * agent and on the CMR. The algorithm is defined in the environment of the agent.
+ * <p>
+ * Both algorithms result in a 128-bit {@link ClassHash}. The SHA-256 digest is truncated to the
+ * first 128 bits, which are the same bits the hexadecimal SHA-256 hashes of the older agents are
+ * truncated to when read from the sending classes cache.
+ *
+ * @author Ivan Senic
+ *
+ */
+public enum ClassHashAlgorithm {
+
+	/**
+	 * 128-bit MurmurHash3. Default one, much faster than the {@link #SHA256}.
+	 */
+	MURMUR3_128 {
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public ClassHash hash(byte[] byteCode) {
+			return ClassHash.fromBytes(Hashing.murmur3_128().hashBytes(byteCode).asBytes());
+		}
+	},
+
+	/**
+	 * SHA-256 truncated to 128 bits. Compatibility mode for keeping the class hashes known from the
+	 * agents running with SHA-256 before.
+	 */
+	SHA256 {
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public ClassHash hash(byte[] byteCode) {
+			return ClassHash.fromBytes(DigestUtils.sha256(byteCode));
+		}
+	};
+
+	/**
+	 * Calculates the hash of the given byte code.
+	 *
+	 * @param byteCode
+	 *            Class byte code.
+	 * @return Class hash.
+	 */
+	public abstract ClassHash hash(byte[] byteCode);
+
+	/**
+	 * Returns the algorithm for the configuration of the agent.
+	 *
+	 * @param sha256ClassHashes
+	 *            If the SHA-256 class hashes are configured.
+	 * @return {@link #SHA256} if the SHA-256 class hashes are configured, otherwise
+	 *         {@link #MURMUR3_128}.
+	 */
+	public static ClassHashAlgorithm get(boolean sha256ClassHashes) {
+		if (sha256ClassHashes) {
+			return SHA256;
+		}
+		return MURMUR3_128;
+	}
+
+}
@@ -13,6 +13,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.collections.MapUtils;
 import org.slf4j.Logger;
@@ -27,8 +28,10 @@ import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.io.FileResolver;
 import rocks.inspectit.agent.java.spring.PrototypesProvider;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.serializer.impl.SerializationManager;
 import rocks.inspectit.shared.all.serializer.provider.SerializationManagerProvider;
@@ -39,6 +42,13 @@ import rocks.inspectit.shared.all.util.UnderlyingSystemInfo;
  * Implementation of the {@link IClassHashHelper} that holds all data in one concurrent map. Keys in
  * this map are class FQNs, while entries are {@link ClassEntry}s and they define answers to all the
  * provided questions.
+ * <p>
+ * Next to the sending classes cache, the helper persists a snapshot of the known
+ * {@link InstrumentationDefinition}s. The snapshot is bound to the platform id and the
+ * configuration revision received from the CMR. If the CMR reports that it lost the class cache of
+ * this agent, but the configuration did not change, the definitions from the snapshot are used
+ * right away and each class is marked for the reconciliation, meaning that the class is still sent
+ * to the CMR in the background when loaded.
  *
  * @author Ivan Senic
  *
@@ -49,6 +59,11 @@ import rocks.inspectit.shared.all.util.UnderlyingSystemInfo;
 @DependsOn("platformManager")
 public class ClassHashHelper implements InitializingBean, DisposableBean {
 
+	/**
+	 * Version of the snapshot file format. Snapshots with different version are ignored.
+	 */
+	private static final int SNAPSHOT_VERSION = 1;
+
 	/**
 	 * Logger for the class.
 	 */
@@ -61,6 +76,12 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	@Autowired
 	private IConfigurationStorage configurationStorage;
 
+	/**
+	 * Platform manager for the id the snapshot is bound to.
+	 */
+	@Autowired
+	private IPlatformManager platformManager;
+
 	/**
 	 * Core-service executor service.
 	 */
@@ -124,7 +145,7 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	 * @param hash
 	 *            Class hash
 	 */
-	public void registerSent(String fqn, String hash) {
+	public void registerSent(String fqn, ClassHash hash) {
 		ClassEntry entry = getOrCreateEntry(fqn);
 		entry.addHash(hash);
 	}
@@ -141,7 +162,7 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	 *
 	 * @return Returns if the class with given hash has been sent to the CMR.
 	 */
-	public boolean isSent(String fqn, String hash) {
+	public boolean isSent(String fqn, ClassHash hash) {
 		ClassEntry entry = fqnToClassEntryMap.get(fqn);
 		return entry != null ? entry.containsHash(hash) : false;
 	}
@@ -178,6 +199,33 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 		return entry != null ? entry.getInstrumentationResult() : null;
 	}
 
+	/**
+	 * Returns if the class with the given FQN was loaded from the instrumentation snapshot and was
+	 * not yet sent to the CMR since.
+	 *
+	 * @param fqn
+	 *            Class fully qualified name.
+	 * @return Returns if the class needs to be reconciled with the CMR.
+	 */
+	public boolean needsReconciliation(String fqn) {
+		ClassEntry entry = fqnToClassEntryMap.get(fqn);
+		return entry != null ? entry.needsReconciliation() : false;
+	}
+
+	/**
+	 * Marks the start of the reconciliation for the class with the given FQN. Only one caller will
+	 * get <code>true</code> as result, thus only one caller should send the class to the CMR.
+	 *
+	 * @param fqn
+	 *            Class fully qualified name.
+	 * @return <code>true</code> if the class needed the reconciliation and caller should send it to
+	 *         the CMR, <code>false</code> otherwise.
+	 */
+	public boolean startReconciliation(String fqn) {
+		ClassEntry entry = fqnToClassEntryMap.get(fqn);
+		return entry != null ? entry.startReconciliation() : false;
+	}
+
 	/**
 	 * Creates new entry in the map in the atomic fashion.
 	 *
@@ -221,16 +269,19 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 			loadCacheFromDisk();
 		} else {
 			deleteCacheFromDisk();
+
+			// definitions are still valid if the configuration did not change
+			loadSnapshotFromDisk();
 		}
 
 		// check if there are any initial instrumentation points in configuration
-		Map<Collection<String>, InstrumentationDefinition> initInstrumentations = configurationStorage.getInitialInstrumentationResults();
+		Map<Collection<ClassHash>, InstrumentationDefinition> initInstrumentations = configurationStorage.getInitialInstrumentationResults();
 		if (MapUtils.isNotEmpty(initInstrumentations)) {
-			for (Entry<Collection<String>, InstrumentationDefinition> entry : initInstrumentations.entrySet()) {
+			for (Entry<Collection<ClassHash>, InstrumentationDefinition> entry : initInstrumentations.entrySet()) {
 				InstrumentationDefinition instrumentationResult = entry.getValue();
 				String fqn = instrumentationResult.getClassName();
 				registerInstrumentationDefinition(fqn, instrumentationResult);
-				for (String hash : entry.getKey()) {
+				for (ClassHash hash : entry.getKey()) {
 					registerSent(fqn, hash);
 				}
 			}
@@ -240,6 +291,7 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 			@Override
 			public void run() {
 				saveCacheToDisk();
+				saveSnapshotToDisk();
 			}
 		};
 		executorService.scheduleAtFixedRate(saveCacheToDiskRunnable, 30, 300, TimeUnit.SECONDS);
@@ -252,6 +304,7 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	public void destroy() throws Exception {
 		// save when bean is destroyed, ensure save is always done on finishing
 		saveCacheToDisk();
+		saveSnapshotToDisk();
 
 		fqnToClassEntryMap.clear();
 	}
@@ -273,8 +326,8 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 				String javaRuntimeVersion = (String) serializationManager.deserialize(input);
 				boolean cacheJavaClasses = UnderlyingSystemInfo.JAVA_RUNTIME_VERSION.equals(javaRuntimeVersion);
 
-				Map<String, Collection<String>> fqnWithHashes = (Map<String, Collection<String>>) serializationManager.deserialize(input);
-				for (Entry<String, Collection<String>> entry : fqnWithHashes.entrySet()) {
+				Map<String, Collection<?>> fqnWithHashes = (Map<String, Collection<?>>) serializationManager.deserialize(input);
+				for (Entry<String, Collection<?>> entry : fqnWithHashes.entrySet()) {
 					String fqn = entry.getKey();
 
 					// don't add java classes if we should ignore them
@@ -283,8 +336,8 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 					}
 
 					ClassEntry classEntry = getOrCreateEntry(fqn);
-					for (String hash : entry.getValue()) {
-						classEntry.addHash(hash);
+					for (Object hash : entry.getValue()) {
+						classEntry.addHash(toClassHash(hash));
 					}
 				}
 			} catch (Throwable t) { // NOPMD
@@ -340,7 +393,7 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 			Output output = new Output(fileOutputStream);
 
 			// save only the ones being set to the CMR
-			Map<String, Collection<String>> fqnWithHashes = new HashMap<String, Collection<String>>();
+			Map<String, Collection<ClassHash>> fqnWithHashes = new HashMap<String, Collection<ClassHash>>();
 			for (Entry<String, ClassEntry> entry : fqnToClassEntryMap.entrySet()) {
 				fqnWithHashes.put(entry.getKey(), entry.getValue().getHashes());
 			}
@@ -360,6 +413,143 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 		}
 	}
 
+	/**
+	 * Loads the instrumentation snapshot from disk. Snapshot is only used if it was created for the
+	 * same platform id and configuration revision. All loaded classes are marked for the
+	 * reconciliation.
+	 */
+	@SuppressWarnings("unchecked")
+	private void loadSnapshotFromDisk() {
+		File file = fileResolver.getInstrumentationSnapshotFile().getAbsoluteFile();
+
+		if (file.exists()) {
+			FileInputStream fileInputStream = null;
+			try {
+				String configurationRevision = configurationStorage.getConfigurationRevision();
+				if (null == configurationRevision) {
+					return;
+				}
+
+				fileInputStream = new FileInputStream(file);
+				Input input = new Input(fileInputStream);
+
+				Object version = serializationManager.deserialize(input);
+				if (!Integer.valueOf(SNAPSHOT_VERSION).equals(version)) {
+					return;
+				}
+
+				Object platformId = serializationManager.deserialize(input);
+				Object snapshotRevision = serializationManager.deserialize(input);
+				if (!Long.valueOf(platformManager.getPlatformId()).equals(platformId) || !configurationRevision.equals(snapshotRevision)) {
+					log.info("Instrumentation snapshot ignored as the configuration changed since it was created.");
+					return;
+				}
+
+				Map<String, Collection<?>> fqnWithHashes = (Map<String, Collection<?>>) serializationManager.deserialize(input);
+				Map<String, InstrumentationDefinition> fqnWithDefinitions = (Map<String, InstrumentationDefinition>) serializationManager.deserialize(input);
+				for (Entry<String, Collection<?>> entry : fqnWithHashes.entrySet()) {
+					String fqn = entry.getKey();
+					ClassEntry classEntry = getOrCreateEntry(fqn);
+					for (Object hash : entry.getValue()) {
+						classEntry.addHash(toClassHash(hash));
+					}
+					classEntry.setInstrumentationResult(fqnWithDefinitions.get(fqn));
+					classEntry.markForReconciliation();
+				}
+
+				log.info("Instrumentation snapshot loaded with " + fqnWithHashes.size() + " classes, " + fqnWithDefinitions.size() + " of them instrumented.");
+			} catch (Throwable t) { // NOPMD
+				log.warn("Unable to load instrumentation snapshot from disk.", t);
+				fqnToClassEntryMap.clear();
+			} finally {
+				if (null != fileInputStream) {
+					try {
+						fileInputStream.close();
+					} catch (IOException e) { // NOPMD //NOCHK
+						// ignore
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Saves the instrumentation snapshot to disk.
+	 */
+	private void saveSnapshotToDisk() {
+		File file = fileResolver.getInstrumentationSnapshotFile().getAbsoluteFile();
+
+		FileOutputStream fileOutputStream = null;
+		try {
+			String configurationRevision = configurationStorage.getConfigurationRevision();
+			if (null == configurationRevision) {
+				// snapshot can not be validated without the revision
+				return;
+			}
+
+			File parentDir = file.getParentFile();
+			if (!parentDir.exists()) {
+				if (!parentDir.mkdirs()) {
+					log.warn("Unable to create needed directory for the snapshot file: " + parentDir.getAbsolutePath());
+				}
+			}
+
+			// save only the ones being sent to the CMR
+			Map<String, Collection<ClassHash>> fqnWithHashes = new HashMap<String, Collection<ClassHash>>();
+			Map<String, InstrumentationDefinition> fqnWithDefinitions = new HashMap<String, InstrumentationDefinition>();
+			for (Entry<String, ClassEntry> entry : fqnToClassEntryMap.entrySet()) {
+				ClassEntry classEntry = entry.getValue();
+				Collection<ClassHash> hashes = classEntry.getHashes();
+				if (hashes.isEmpty()) {
+					continue;
+				}
+
+				fqnWithHashes.put(entry.getKey(), hashes);
+				InstrumentationDefinition instrumentationResult = classEntry.getInstrumentationResult();
+				if (null != instrumentationResult) {
+					fqnWithDefinitions.put(entry.getKey(), instrumentationResult);
+				}
+			}
+
+			fileOutputStream = new FileOutputStream(file);
+			Output output = new Output(fileOutputStream);
+
+			serializationManager.serialize(Integer.valueOf(SNAPSHOT_VERSION), output);
+			serializationManager.serialize(Long.valueOf(platformManager.getPlatformId()), output);
+			serializationManager.serialize(configurationRevision, output);
+			serializationManager.serialize(fqnWithHashes, output);
+			serializationManager.serialize(fqnWithDefinitions, output);
+		} catch (Throwable t) { // NOPMD
+			log.warn("Unable to save instrumentation snapshot to disk.", t);
+		} finally {
+			if (null != fileOutputStream) {
+				try {
+					fileOutputStream.close();
+				} catch (IOException e) { // NOPMD //NOCHK
+					// ignore
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the class hash read from the disk. The hashes were saved as hexadecimal strings
+	 * before, such hashes are converted to the {@link ClassHash} so that the existing files stay
+	 * valid.
+	 *
+	 * @param hash
+	 *            {@link ClassHash} or hexadecimal string read from the disk.
+	 * @return {@link ClassHash} or <code>null</code> if the given object can not be converted.
+	 */
+	private ClassHash toClassHash(Object hash) {
+		if (hash instanceof ClassHash) {
+			return (ClassHash) hash;
+		} else if ((hash instanceof String) && (((String) hash).length() >= ClassHash.HEX_LENGTH)) {
+			return ClassHash.fromHex((String) hash);
+		}
+		return null;
+	}
+
 	/**
 	 * Simple entry class that should hold the {@link InstrumentationDefinition} and collection of
 	 * class loaders for one class hash.
@@ -377,7 +567,12 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 		/**
 		 * Known hashes for this class.
 		 */
-		private final CopyOnWriteArrayList<String> hashes = new CopyOnWriteArrayList<String>();
+		private final CopyOnWriteArrayList<ClassHash> hashes = new CopyOnWriteArrayList<ClassHash>();
+
+		/**
+		 * If the entry was loaded from the snapshot and must still be sent to the CMR.
+		 */
+		private final AtomicBoolean reconcile = new AtomicBoolean();
 
 		/**
 		 * Gets {@link #instrumentationResult}.
@@ -404,7 +599,7 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 		 * @param hash
 		 *            of the class
 		 */
-		public void addHash(String hash) {
+		public void addHash(ClassHash hash) {
 			if (null != hash) {
 				hashes.addIfAbsent(hash);
 			}
@@ -417,19 +612,44 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 		 *            of the class
 		 * @return Returns if the hash is contained in the {@link #hashes}.
 		 */
-		public boolean containsHash(String hash) {
+		public boolean containsHash(ClassHash hash) {
 			if (null != hash) {
 				return hashes.contains(hash);
 			}
 			return false;
 		}
 
+		/**
+		 * Marks this entry for the reconciliation.
+		 */
+		public void markForReconciliation() {
+			reconcile.set(true);
+		}
+
+		/**
+		 * Returns if this entry needs the reconciliation.
+		 *
+		 * @return Returns if this entry needs the reconciliation.
+		 */
+		public boolean needsReconciliation() {
+			return reconcile.get();
+		}
+
+		/**
+		 * Atomically clears the reconciliation flag.
+		 *
+		 * @return <code>true</code> if the entry needed the reconciliation.
+		 */
+		public boolean startReconciliation() {
+			return reconcile.compareAndSet(true, false);
+		}
+
 		/**
 		 * Gets {@link #hashes}.
 		 *
 		 * @return {@link #hashes}
 		 */
-		public Collection<String> getHashes() {
+		public Collection<ClassHash> getHashes() {
 			return Collections.unmodifiableList(hashes);
 		}
 
@@ -0,0 +1,129 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.shared.all.instrumentation.classcache.Type;
+import rocks.inspectit.shared.all.pattern.IMatchPattern;
+import rocks.inspectit.shared.all.spring.logger.Log;
+
+/**
+ * Decides locally if a type can be instrumented by the CMR at all. The CMR binds the
+ * instrumentation to the classes by the class name patterns of the sensor assignments, either to
+ * the class itself or to its super-classes and interfaces. Thus a type can only be instrumented if
+ * its name matches one of the patterns or if any of its super-types is a candidate.
+ * <p>
+ * The decision of every analyzed type is kept, as the super-types are always analyzed before the
+ * type itself. A super-type that was never analyzed is treated as candidate. If the patterns are
+ * not known, or the CMR instruments a type that was decided locally, every type is a candidate.
+ *
+ * @author Ivan Senic
+ *
+ */
+@Component
+public class InstrumentationCandidates implements InitializingBean {
+
+	/**
+	 * Log for the class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * {@link IConfigurationStorage} to read the patterns from.
+	 */
+	@Autowired
+	private IConfigurationStorage configurationStorage;
+
+	/**
+	 * Class name patterns the instrumentation can be bound to. <code>null</code> if every type is
+	 * a candidate.
+	 */
+	private volatile Collection<IMatchPattern> patterns;
+
+	/**
+	 * Decisions by the FQN of the analyzed types.
+	 */
+	private final ConcurrentHashMap<String, Boolean> decisions = new ConcurrentHashMap<String, Boolean>(1024);
+
+	/**
+	 * Returns if the given type can be instrumented and keeps the decision for the types extending
+	 * or realizing it. The super-types of the type must be passed to this method before.
+	 *
+	 * @param type
+	 *            Parsed type.
+	 * @return <code>true</code> if the CMR can instrument the type, <code>false</code> if it's
+	 *         known that it can not.
+	 */
+	public boolean isCandidate(Type type) {
+		Collection<IMatchPattern> currentPatterns = patterns;
+		boolean candidate = (null == currentPatterns) || isCandidate(type, currentPatterns);
+
+		if (candidate) {
+			// same name can be loaded by different class loaders, candidate wins
+			decisions.put(type.getFQN(), Boolean.TRUE);
+		} else {
+			decisions.putIfAbsent(type.getFQN(), Boolean.FALSE);
+		}
+		return candidate;
+	}
+
+	/**
+	 * Checks the type name against the patterns and the decisions of the super-types.
+	 *
+	 * @param type
+	 *            Parsed type.
+	 * @param currentPatterns
+	 *            Class name patterns.
+	 * @return If type is a candidate.
+	 */
+	private boolean isCandidate(Type type, Collection<IMatchPattern> currentPatterns) {
+		for (IMatchPattern pattern : currentPatterns) {
+			if (pattern.match(type.getFQN())) {
+				return true;
+			}
+		}
+
+		Collection<Type> superTypes = type.getDependingTypes();
+		if (CollectionUtils.isNotEmpty(superTypes)) {
+			for (Type superType : superTypes) {
+				if (!Boolean.FALSE.equals(decisions.get(superType.getFQN()))) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Stops deciding locally, all types are candidates from now on. Must be called when the CMR
+	 * instruments a type that was not a candidate, as then the patterns are not up to date.
+	 *
+	 * @param className
+	 *            Name of the class the CMR instrumented.
+	 */
+	public void invalidate(String className) {
+		if (null != patterns) {
+			patterns = null; // NOPMD
+			if (log.isWarnEnabled()) {
+				log.warn("Class " + className + " was defined without instrumentation as it did not match any sensor assignment, but the CMR instrumented it. All types will be analyzed by the CMR from now on.");
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		patterns = configurationStorage.getInstrumentationCandidatePatterns();
+	}
+
+}
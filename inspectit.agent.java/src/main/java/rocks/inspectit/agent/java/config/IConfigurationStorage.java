@@ -6,8 +6,10 @@ import java.util.Map;
 
 import rocks.inspectit.agent.java.config.impl.RepositoryConfig;
 import rocks.inspectit.agent.java.sensor.exception.IExceptionSensor;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentEndUserMonitoringConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.AgentTracingConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.ExceptionSensorTypeConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.instrumentation.config.impl.JmxSensorTypeConfig;
@@ -160,6 +162,17 @@ public interface IConfigurationStorage {
 	 */
 	boolean isClassCacheExistsOnCmr() throws StorageException;
 
+	/**
+	 * Returns the revision of the configuration received from the CMR. The revision changes with
+	 * every change of the environment or profiles that can influence the instrumentation.
+	 *
+	 * @return Returns the revision of the configuration or <code>null</code> if CMR did not provide
+	 *         one.
+	 * @throws StorageException
+	 *             If agent configuration is not set.
+	 */
+	String getConfigurationRevision() throws StorageException;
+
 	/**
 	 * Set of known {@link InstrumentationDefinition} for the agent that can be used by the Agent
 	 * right away. Each {@link InstrumentationDefinition} is mapped to the collection of the class
@@ -171,7 +184,7 @@ public interface IConfigurationStorage {
 	 * @throws StorageException
 	 *             If agent configuration is not set.
 	 */
-	Map<Collection<String>, InstrumentationDefinition> getInitialInstrumentationResults() throws StorageException;
+	Map<Collection<ClassHash>, InstrumentationDefinition> getInitialInstrumentationResults() throws StorageException;
 
 	/**
 	 * Returns the {@link RetransformationStrategy} specified by the current environment.
@@ -190,4 +203,70 @@ public interface IConfigurationStorage {
 	 *             If agent configuration is not set.
 	 */
 	AgentEndUserMonitoringConfig getEndUserMonitoringConfig() throws StorageException;
+
+	/**
+	 * Returns the configuration for the sampling of the traces.
+	 *
+	 * @return the {@link AgentTracingConfig} or <code>null</code> if not defined.
+	 * @throws StorageException
+	 *             If agent configuration is not set.
+	 */
+	AgentTracingConfig getTracingConfig() throws StorageException;
+
+	/**
+	 * Returns if the types should be sent to the CMR for the analysis in batches.
+	 *
+	 * @return If the batched class analysis is active.
+	 * @throws StorageException
+	 *             If agent configuration is not set.
+	 */
+	boolean isBatchedClassAnalysis() throws StorageException;
+
+	/**
+	 * Returns if the classes should be identified with the SHA-256 hashes instead of the 128-bit
+	 * MurmurHash3.
+	 *
+	 * @return If the SHA-256 class hashes are used.
+	 * @throws StorageException
+	 *             If agent configuration is not set.
+	 */
+	boolean isSha256ClassHashes() throws StorageException;
+
+	/**
+	 * Returns the patterns of the class names the instrumentation can be bound to.
+	 *
+	 * @return Unmodifiable collection of patterns or <code>null</code> if the patterns are not
+	 *         known and thus any type can be instrumented.
+	 * @throws StorageException
+	 *             If agent configuration is not set.
+	 */
+	Collection<IMatchPattern> getInstrumentationCandidatePatterns() throws StorageException;
+
+	/**
+	 * Returns if the instrumented methods should be dispatched by the index instead of the method
+	 * id.
+	 *
+	 * @return If the indexed dispatch is active.
+	 * @throws StorageException
+	 *             If agent configuration is not set.
+	 */
+	boolean isIndexedDispatch() throws StorageException;
+
+	/**
+	 * Returns the sampling interval of the platform sensors in milliseconds.
+	 *
+	 * @return Sampling interval or zero if not defined.
+	 * @throws StorageException
+	 *             If agent configuration is not set.
+	 */
+	long getPlatformSamplingInterval() throws StorageException;
+
+	/**
+	 * Returns the sending interval of the platform sensors data in milliseconds.
+	 *
+	 * @return Sending interval or zero if not defined.
+	 * @throws StorageException
+	 *             If agent configuration is not set.
+	 */
+	long getPlatformSendingInterval() throws StorageException;
 }
\ No newline at end of file
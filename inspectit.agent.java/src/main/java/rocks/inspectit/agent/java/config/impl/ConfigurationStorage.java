@@ -20,8 +20,10 @@ import rocks.inspectit.agent.java.config.IConfigurationStorage;
 import rocks.inspectit.agent.java.config.StorageException;
 import rocks.inspectit.agent.java.logback.LogInitializer;
 import rocks.inspectit.agent.java.spring.SpringConfiguration;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentEndUserMonitoringConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.AgentTracingConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.ExceptionSensorTypeConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.instrumentation.config.impl.JmxSensorTypeConfig;
@@ -332,7 +334,17 @@ public class ConfigurationStorage implements IConfigurationStorage, Initializing
 	 * {@inheritDoc}
 	 */
 	@Override
-	public Map<Collection<String>, InstrumentationDefinition> getInitialInstrumentationResults() throws StorageException {
+	public String getConfigurationRevision() throws StorageException {
+		ensureConfigurationExists();
+
+		return agentConfiguration.getConfigurationRevision();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<Collection<ClassHash>, InstrumentationDefinition> getInitialInstrumentationResults() throws StorageException {
 		ensureConfigurationExists();
 
 		return agentConfiguration.getInitialInstrumentationResults();
@@ -347,6 +359,74 @@ public class ConfigurationStorage implements IConfigurationStorage, Initializing
 		return agentConfiguration.getEumConfig();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public AgentTracingConfig getTracingConfig() throws StorageException {
+		ensureConfigurationExists();
+		return agentConfiguration.getTracingConfig();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isBatchedClassAnalysis() throws StorageException {
+		ensureConfigurationExists();
+		return agentConfiguration.isBatchedClassAnalysis();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isSha256ClassHashes() throws StorageException {
+		ensureConfigurationExists();
+		return agentConfiguration.isSha256ClassHashes();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Collection<IMatchPattern> getInstrumentationCandidatePatterns() throws StorageException {
+		ensureConfigurationExists();
+
+		if (null != agentConfiguration.getInstrumentationCandidatePatterns()) {
+			return Collections.unmodifiableCollection(agentConfiguration.getInstrumentationCandidatePatterns());
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isIndexedDispatch() throws StorageException {
+		ensureConfigurationExists();
+		return agentConfiguration.isIndexedDispatch();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getPlatformSamplingInterval() throws StorageException {
+		ensureConfigurationExists();
+		return agentConfiguration.getPlatformSamplingInterval();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getPlatformSendingInterval() throws StorageException {
+		ensureConfigurationExists();
+		return agentConfiguration.getPlatformSendingInterval();
+	}
+
 	/**
 	 * Checks if the JVM parameters have the repository and agent information.
 	 */
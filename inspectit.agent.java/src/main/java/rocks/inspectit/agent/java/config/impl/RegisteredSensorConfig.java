@@ -6,7 +6,9 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.ArrayUtils;
 
+import rocks.inspectit.agent.java.hooking.IHook;
 import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
 import rocks.inspectit.shared.all.instrumentation.config.impl.PropertyPathStart;
 
@@ -44,6 +46,17 @@ public class RegisteredSensorConfig extends AbstractSensorConfig {
 	 */
 	private final List<IMethodSensor> methodSensorsReverse = new ArrayList<IMethodSensor>(1);
 
+	/**
+	 * Hooks of the method sensors in the same order as {@link #methodSensors}. Resolved when
+	 * sensors are added so that the dispatching does not need to iterate the sensor list.
+	 */
+	private IHook[] methodHooks = new IHook[0];
+
+	/**
+	 * Sensor type ids of the method sensors in the same order as {@link #methodSensors}.
+	 */
+	private long[] methodSensorTypeIds = ArrayUtils.EMPTY_LONG_ARRAY;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -156,6 +169,26 @@ public class RegisteredSensorConfig extends AbstractSensorConfig {
 	public void addMethodSensor(IMethodSensor methodSensor) {
 		methodSensors.add(methodSensor);
 		methodSensorsReverse.add(0, methodSensor);
+		methodHooks = (IHook[]) ArrayUtils.add(methodHooks, methodSensor.getHook());
+		methodSensorTypeIds = ArrayUtils.add(methodSensorTypeIds, methodSensor.getSensorTypeConfig().getId());
+	}
+
+	/**
+	 * Gets {@link #methodHooks}.
+	 *
+	 * @return {@link #methodHooks}
+	 */
+	public IHook[] getMethodHooks() {
+		return methodHooks;
+	}
+
+	/**
+	 * Gets {@link #methodSensorTypeIds}.
+	 *
+	 * @return {@link #methodSensorTypeIds}
+	 */
+	public long[] getMethodSensorTypeIds() {
+		return methodSensorTypeIds;
 	}
 
 	/**
@@ -8,6 +8,7 @@ import java.util.Map;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.message.IAgentMessage;
 import rocks.inspectit.shared.all.exception.BusinessException;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
@@ -124,7 +125,26 @@ public interface IConnection {
 	 * @throws BusinessException
 	 *             If {@link BusinessException} is thrown on the server.
 	 */
-	InstrumentationDefinition analyze(long platformIdent, String hash, Type type) throws ServerUnavailableException, BusinessException;
+	InstrumentationDefinition analyze(long platformIdent, ClassHash hash, Type type) throws ServerUnavailableException, BusinessException;
+
+	/**
+	 * Analyzes the batch of types with one call to the server. Depending types should be placed
+	 * before the types depending on them.
+	 *
+	 * @param platformIdent
+	 *            Id of the agent.
+	 * @param hashes
+	 *            Class hash codes.
+	 * @param types
+	 *            Types that have been parsed from the byte-code, one for each hash.
+	 * @return Instrumentation definitions in the same order as the types, elements are
+	 *         <code>null</code> for types that should not be instrumented.
+	 * @throws ServerUnavailableException
+	 *             If server to send the request to is unavailable.
+	 * @throws BusinessException
+	 *             If {@link BusinessException} is thrown on the server.
+	 */
+	List<InstrumentationDefinition> analyzeBatch(long platformIdent, List<ClassHash> hashes, List<Type> types) throws ServerUnavailableException, BusinessException;
 
 	/**
 	 * Informs the CMR that the methods have been instrumented on the agent.
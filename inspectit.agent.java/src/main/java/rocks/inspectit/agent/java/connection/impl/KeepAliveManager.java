@@ -15,6 +15,7 @@ import org.springframework.stereotype.Component;
 import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.connection.ServerUnavailableException;
 import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.core.impl.DefaultDataHandler;
 import rocks.inspectit.shared.all.cmr.service.IKeepAliveService;
 import rocks.inspectit.shared.all.spring.logger.Log;
 
@@ -62,6 +63,12 @@ public class KeepAliveManager implements InitializingBean, DisposableBean {
 	@Autowired
 	private IPlatformManager platformManager;
 
+	/**
+	 * Data handler to notify when the connection is restored.
+	 */
+	@Autowired
+	private DefaultDataHandler defaultDataHandler;
+
 	/**
 	 * Core-service executor service.
 	 */
@@ -87,7 +94,8 @@ public class KeepAliveManager implements InitializingBean, DisposableBean {
 
 	/**
 	 * Sends keep alive signal if connection to the server exists. Otherwise does try to reconnect
-	 * in the exponential waiting manner.
+	 * in the exponential waiting manner. After the successful reconnect the
+	 * {@link DefaultDataHandler} is notified, so that the data kept in the meantime is sent.
 	 */
 	public void sendKeepAlive() {
 		try {
@@ -99,6 +107,8 @@ public class KeepAliveManager implements InitializingBean, DisposableBean {
 					try {
 						connection.reconnect();
 						nextReconnectAt = 2;
+						// replay the data kept while the connection was not available
+						defaultDataHandler.connectionRestored();
 					} catch (ConnectException e) {
 						if (log.isDebugEnabled()) {
 							log.debug("Reconnection failed, next attempt in " + TimeUnit.MILLISECONDS.toSeconds(IKeepAliveService.KA_PERIOD * (nextReconnectAt - noConnectionCount)) + " seconds.");
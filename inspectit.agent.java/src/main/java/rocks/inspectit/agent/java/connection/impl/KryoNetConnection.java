@@ -31,11 +31,13 @@ import rocks.inspectit.shared.all.cmr.service.ServiceInterface;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.message.IAgentMessage;
 import rocks.inspectit.shared.all.exception.BusinessException;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.instrumentation.config.impl.JmxAttributeDescriptor;
 import rocks.inspectit.shared.all.kryonet.Client;
+import rocks.inspectit.shared.all.kryonet.WireCodec;
 import rocks.inspectit.shared.all.kryonet.rmi.ObjectSpace;
 import rocks.inspectit.shared.all.spring.logger.Log;
 
@@ -55,6 +57,11 @@ public class KryoNetConnection implements IConnection {
 	@Log
 	Logger log;
 
+	/**
+	 * Time in milliseconds to wait for the server to confirm the wire mode.
+	 */
+	private static final int WIRE_MODE_TIMEOUT = 5000;
+
 	/**
 	 * The kryonet client to connect to the CMR.
 	 */
@@ -293,7 +300,9 @@ public class KryoNetConnection implements IConnection {
 		};
 
 		try {
-			return call.makeCall();
+			AgentConfig agentConfig = call.makeCall();
+			switchWireMode(agentConfig);
+			return agentConfig;
 		} catch (ExecutionException executionException) {
 			if (log.isTraceEnabled()) {
 				log.trace("register(String, String)", executionException);
@@ -312,6 +321,36 @@ public class KryoNetConnection implements IConnection {
 		}
 	}
 
+	/**
+	 * Switches the connection to the wire mode defined in the agent configuration. The client is
+	 * created and connected before the configuration is known, thus the mode is negotiated on the
+	 * established connection right after the registration. The client keeps the mode for the
+	 * later reconnections. If the negotiation fails the client is switched back to the plain mode
+	 * and disconnected, so that the next reconnection starts in a consistent state.
+	 *
+	 * @param agentConfig
+	 *            Agent configuration received with the registration.
+	 */
+	private void switchWireMode(AgentConfig agentConfig) {
+		if (null == agentConfig) {
+			return;
+		}
+
+		int wireMode = agentConfig.isCompressedWireMode() ? WireCodec.ALL : 0;
+		if (client.getWireMode() == wireMode) {
+			return;
+		}
+
+		try {
+			client.switchWireMode(wireMode, WIRE_MODE_TIMEOUT);
+			log.info("KryoNet: Switched to the " + (0 == wireMode ? "plain" : "compressed") + " wire mode.");
+		} catch (IOException e) {
+			log.warn("KryoNet: Switching the wire mode failed, the connection will be re-established in the plain mode.", e);
+			client.setWireMode(0);
+			disconnectClient();
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -379,7 +418,7 @@ public class KryoNetConnection implements IConnection {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public InstrumentationDefinition analyze(final long platformIdent, final String hash, final Type type) throws ServerUnavailableException, BusinessException {
+	public InstrumentationDefinition analyze(final long platformIdent, final ClassHash hash, final Type type) throws ServerUnavailableException, BusinessException {
 		if (!isConnected()) {
 			throw new ServerUnavailableException();
 		}
@@ -415,6 +454,46 @@ public class KryoNetConnection implements IConnection {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<InstrumentationDefinition> analyzeBatch(final long platformIdent, final List<ClassHash> hashes, final List<Type> types) throws ServerUnavailableException, BusinessException {
+		if (!isConnected()) {
+			throw new ServerUnavailableException();
+		}
+
+		// make call
+		FailFastRemoteMethodCall<IAgentService, List<InstrumentationDefinition>> call = new FailFastRemoteMethodCall<IAgentService, List<InstrumentationDefinition>>(agentService) {
+			@Override
+			protected List<InstrumentationDefinition> performRemoteCall(IAgentService service) throws Exception {
+				return agentService.analyzeBatch(platformIdent, hashes, types);
+			}
+		};
+
+		try {
+			return call.makeCall();
+		} catch (ExecutionException executionException) {
+			if (log.isTraceEnabled()) {
+				log.trace("analyzeBatch(long,List,List)", executionException);
+			}
+
+			// check for business exception
+			if (executionException.getCause() instanceof BusinessException) {
+				throw ((BusinessException) executionException.getCause()); // NOPMD
+			}
+
+			// otherwise we log and return null as it's unexpected exception for us
+			log.error("Could not get instrumentation results", executionException);
+			return null;
+		} catch (ServerUnavailableException e) {
+			if (!e.isServerTimeout()) {
+				disconnectClient();
+			}
+			throw e;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -1,5 +1,7 @@
 package rocks.inspectit.agent.java.core;
 
+import java.util.List;
+
 import rocks.inspectit.shared.all.communication.DefaultData;
 
 /**
@@ -22,4 +24,14 @@ public interface ICoreService {
 	 */
 	void addDefaultData(DefaultData defaultData);
 
+	/**
+	 * Adds all default data in the list to the core service as one batch. Prefer to adding data
+	 * one by one when a producer creates several data objects at once.
+	 *
+	 * @param defaultDataList
+	 *            Default data to add. Must not be <code>null</code> nor contain <code>null</code>
+	 *            elements.
+	 */
+	void addAllDefaultData(List<? extends DefaultData> defaultDataList);
+
 }
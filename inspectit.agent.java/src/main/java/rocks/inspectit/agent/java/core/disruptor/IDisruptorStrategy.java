@@ -6,6 +6,11 @@ package rocks.inspectit.agent.java.core.disruptor;
  *
  * <ul>
  * <li>the size of the disruptor buffer
+ * <li>the wait strategy of the consumer
+ * <li>if sending of the data is pipelined
+ * <li>the batching limits for sending
+ * <li>the size of the overflow buffer used when the CMR is not reachable
+ * <li>the size of the spill file used when the overflow buffer is full
  * </ul>
  *
  * @author Ivan Senic
@@ -19,4 +24,59 @@ public interface IDisruptorStrategy {
 	 * @return Returns the size of the buffer for storing monitoring data before sending.
 	 */
 	int getDataBufferSize();
+
+	/**
+	 * Returns the type of the wait strategy the disruptor consumer should use.
+	 *
+	 * @return Returns the type of the wait strategy the disruptor consumer should use.
+	 */
+	WaitStrategyType getWaitStrategyType();
+
+	/**
+	 * Defines if the sending of the data should be executed in a separate thread, thus the
+	 * disruptor consumer only batches the data and is not blocked by the network.
+	 *
+	 * @return If the sending of the data should be pipelined.
+	 */
+	boolean isPipelinedSending();
+
+	/**
+	 * Returns the maximum amount of objects sent in one batch. Non-positive value means no limit.
+	 *
+	 * @return Returns the maximum amount of objects sent in one batch.
+	 */
+	int getMaxBatchSize();
+
+	/**
+	 * Returns the maximum estimated size in bytes of one batch. Non-positive value means no limit.
+	 *
+	 * @return Returns the maximum estimated size in bytes of one batch.
+	 */
+	long getMaxBatchBytes();
+
+	/**
+	 * Returns the maximum time in milliseconds the data can wait for the batch to be filled before
+	 * sending. Non-positive value means that data is sent as soon as the disruptor has no more
+	 * data available.
+	 *
+	 * @return Returns the maximum linger time in milliseconds.
+	 */
+	long getMaxLingerTime();
+
+	/**
+	 * Returns the amount of objects that can be kept in the overflow buffer when the CMR is not
+	 * reachable. Non-positive value means that data is dropped immediately.
+	 *
+	 * @return Returns the amount of objects that can be kept in the overflow buffer.
+	 */
+	int getOverflowBufferSize();
+
+	/**
+	 * Returns the size in bytes of the file where the data is spilled when the CMR is not
+	 * reachable and the overflow buffer is full. Non-positive value means that spilling is
+	 * disabled.
+	 *
+	 * @return Returns the size of the spill file in bytes.
+	 */
+	long getSpillFileSize();
 }
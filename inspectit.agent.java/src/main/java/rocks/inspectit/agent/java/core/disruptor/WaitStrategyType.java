@@ -0,0 +1,72 @@
+package rocks.inspectit.agent.java.core.disruptor;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+
+/**
+ * Wait strategies that can be used by the disruptor consumer when waiting for the new data. They
+ * differ in the latency and the CPU consumption:
+ *
+ * <ul>
+ * <li>{@link #BLOCKING} - uses lock and condition, lowest CPU usage, highest latency
+ * <li>{@link #SLEEPING} - spins, then yields, then parks for short time, low CPU usage when idle
+ * <li>{@link #YIELDING} - spins and then yields, low latency but uses CPU when idle
+ * <li>{@link #BUSY_SPIN} - busy spins, lowest latency but occupies one core completely
+ * </ul>
+ *
+ * @author Ivan Senic
+ *
+ */
+public enum WaitStrategyType {
+
+	/**
+	 * {@link BlockingWaitStrategy}.
+	 */
+	BLOCKING {
+		@Override
+		public WaitStrategy createWaitStrategy() {
+			return new BlockingWaitStrategy();
+		}
+	},
+
+	/**
+	 * {@link SleepingWaitStrategy}.
+	 */
+	SLEEPING {
+		@Override
+		public WaitStrategy createWaitStrategy() {
+			return new SleepingWaitStrategy();
+		}
+	},
+
+	/**
+	 * {@link YieldingWaitStrategy}.
+	 */
+	YIELDING {
+		@Override
+		public WaitStrategy createWaitStrategy() {
+			return new YieldingWaitStrategy();
+		}
+	},
+
+	/**
+	 * {@link BusySpinWaitStrategy}.
+	 */
+	BUSY_SPIN {
+		@Override
+		public WaitStrategy createWaitStrategy() {
+			return new BusySpinWaitStrategy();
+		}
+	};
+
+	/**
+	 * Creates new instance of the wait strategy.
+	 *
+	 * @return Creates new instance of the wait strategy.
+	 */
+	public abstract WaitStrategy createWaitStrategy();
+
+}
@@ -9,9 +9,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
 import rocks.inspectit.agent.java.core.disruptor.IDisruptorStrategy;
+import rocks.inspectit.agent.java.core.disruptor.WaitStrategyType;
 
 /**
- * Default strategy for configuring the disruptor. Holds the buffer size of disruptor.
+ * Default strategy for configuring the disruptor. Holds the buffer size of disruptor, the wait
+ * strategy type, the pipelined sending option and the batching options. All options except the
+ * buffer size are optional.
  *
  * @author Ivan Senic
  *
@@ -29,6 +32,41 @@ public class DefaultDisruptorStrategy implements IDisruptorStrategy {
 	 */
 	private int dataBufferSize;
 
+	/**
+	 * Wait strategy type, defaults to {@link WaitStrategyType#BLOCKING}.
+	 */
+	private WaitStrategyType waitStrategyType = WaitStrategyType.BLOCKING;
+
+	/**
+	 * If sending is pipelined.
+	 */
+	private boolean pipelinedSending;
+
+	/**
+	 * Max objects in batch.
+	 */
+	private int maxBatchSize;
+
+	/**
+	 * Max estimated bytes in batch.
+	 */
+	private long maxBatchBytes;
+
+	/**
+	 * Max linger time in milliseconds.
+	 */
+	private long maxLingerTime;
+
+	/**
+	 * Size of the overflow buffer.
+	 */
+	private int overflowBufferSize;
+
+	/**
+	 * Size of the spill file in bytes.
+	 */
+	private long spillFileSize;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -37,13 +75,70 @@ public class DefaultDisruptorStrategy implements IDisruptorStrategy {
 		return dataBufferSize;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public WaitStrategyType getWaitStrategyType() {
+		return waitStrategyType;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isPipelinedSending() {
+		return pipelinedSending;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getMaxBatchBytes() {
+		return maxBatchBytes;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getMaxLingerTime() {
+		return maxLingerTime;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getOverflowBufferSize() {
+		return overflowBufferSize;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSpillFileSize() {
+		return spillFileSize;
+	}
+
 	/**
 	 * Reads settings from the {@link #configurationStorage}. Should be called only after
 	 * initialized as bean.
 	 *
 	 * @throws Exception
 	 *             If disruptor config can not be read from the {@link #configurationStorage} or
-	 *             settings don't contain the <i>bufferSize</i> property.
+	 *             settings don't contain the <i>bufferSize</i> property or the <i>waitStrategy</i>
+	 *             property is not valid.
 	 */
 	@PostConstruct
 	protected void postConstruct() throws Exception {
@@ -53,6 +148,38 @@ public class DefaultDisruptorStrategy implements IDisruptorStrategy {
 		} else {
 			throw new BeanInitializationException("Disruptor strategy can not be initialized without the buffer size property.");
 		}
+
+		if (settings.containsKey("waitStrategy")) {
+			try {
+				this.waitStrategyType = WaitStrategyType.valueOf(settings.get("waitStrategy"));
+			} catch (IllegalArgumentException e) {
+				throw new BeanInitializationException("Disruptor strategy can not be initialized with the unknown wait strategy " + settings.get("waitStrategy") + ".", e);
+			}
+		}
+
+		this.pipelinedSending = Boolean.parseBoolean(settings.get("pipelinedSending"));
+		this.maxBatchSize = (int) getLongSetting(settings, "maxBatchSize");
+		this.maxBatchBytes = getLongSetting(settings, "maxBatchBytes");
+		this.maxLingerTime = getLongSetting(settings, "maxLingerTime");
+		this.overflowBufferSize = (int) getLongSetting(settings, "overflowBufferSize");
+		this.spillFileSize = getLongSetting(settings, "spillFileSize");
+	}
+
+	/**
+	 * Returns the long value of the optional setting.
+	 *
+	 * @param settings
+	 *            Settings.
+	 * @param key
+	 *            Setting key.
+	 * @return Value of the setting or <code>0</code> if setting is not defined.
+	 */
+	private long getLongSetting(Map<String, String> settings, String key) {
+		String value = settings.get(key);
+		if (null == value) {
+			return 0L;
+		}
+		return Long.parseLong(value);
 	}
 
 }
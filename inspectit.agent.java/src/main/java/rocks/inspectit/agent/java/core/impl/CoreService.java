@@ -18,15 +18,16 @@ import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Component;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
-import com.lmax.disruptor.BlockingWaitStrategy;
 import com.lmax.disruptor.InsufficientCapacityException;
 import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.dsl.ProducerType;
 
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
 import rocks.inspectit.agent.java.config.StorageException;
 import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.disruptor.IDisruptorStrategy;
+import rocks.inspectit.agent.java.core.disruptor.WaitStrategyType;
 import rocks.inspectit.agent.java.sensor.jmx.IJmxSensor;
 import rocks.inspectit.agent.java.sensor.platform.IPlatformSensor;
 import rocks.inspectit.agent.java.stats.AgentStatisticsLogger;
@@ -55,6 +56,16 @@ public class CoreService implements ICoreService {
 	 */
 	private static final long DEFAULT_REFRESH_TIME = 1000L;
 
+	/**
+	 * The interval in ms in which the jmx sensors are updated.
+	 */
+	private static final long JMX_UPDATE_INTERVAL = 1000L;
+
+	/**
+	 * The default sending interval of the platform sensors data.
+	 */
+	private static final long DEFAULT_SENDING_INTERVAL = 5000L;
+
 	/**
 	 * The logger of the class.
 	 */
@@ -86,6 +97,12 @@ public class CoreService implements ICoreService {
 	@Qualifier("coreServiceExecutorService")
 	private ScheduledExecutorService executorService;
 
+	/**
+	 * {@link IConfigurationStorage} holding the platform sensors intervals.
+	 */
+	@Autowired
+	private IConfigurationStorage configurationStorage;
+
 	/**
 	 * Default data handler for the disruptor.
 	 */
@@ -109,10 +126,17 @@ public class CoreService implements ICoreService {
 	private RingBuffer<DefaultDataWrapper> ringBuffer;
 
 	/**
-	 * The refresh time for the platformSensorRefresher thread in ms.
+	 * The refresh time for the platformSensorRefresher thread in ms. This is the sampling interval
+	 * of the platform sensors, defined in the environment.
 	 */
 	private long sensorRefreshTime = DEFAULT_REFRESH_TIME;
 
+	/**
+	 * The interval in ms in which the data of the platform sensors is sent, defined in the
+	 * environment.
+	 */
+	private long platformSendingInterval = DEFAULT_SENDING_INTERVAL;
+
 	/**
 	 * If core service is in the phase of shutdown.
 	 */
@@ -144,6 +168,43 @@ public class CoreService implements ICoreService {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The data is published to the disruptor in batches, each batch claiming the sequences at
+	 * once. If the ring buffer has no capacity for a batch, all remaining data is dropped.
+	 */
+	@Override
+	public void addAllDefaultData(List<? extends DefaultData> defaultDataList) {
+		// ignore any data adding if we are in the shutdown phase
+		if (shutdown) {
+			return;
+		}
+
+		int size = defaultDataList.size();
+		int index = 0;
+		while (index < size) {
+			// claiming more than the buffer size is not possible
+			int batchSize = Math.min(size - index, ringBuffer.getBufferSize());
+			try {
+				long hi = ringBuffer.tryNext(batchSize);
+				long lo = (hi - batchSize) + 1;
+				try {
+					for (long sequence = lo; sequence <= hi; sequence++) {
+						ringBuffer.get(sequence).setDefaultData(defaultDataList.get(index));
+						index++;
+					}
+				} finally {
+					ringBuffer.publish(lo, hi);
+				}
+			} catch (InsufficientCapacityException e) {
+				// pass the dropped count
+				statsLogger.dataDropped(size - index);
+				return;
+			}
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -156,8 +217,40 @@ public class CoreService implements ICoreService {
 			throw new BeanInitializationException("Can not initialize disruptor.", e);
 		}
 
+		// apply the platform sensors intervals from the configuration
+		try {
+			long samplingInterval = configurationStorage.getPlatformSamplingInterval();
+			if (samplingInterval > 0) {
+				sensorRefreshTime = samplingInterval;
+			}
+			long sendingInterval = configurationStorage.getPlatformSendingInterval();
+			if (sendingInterval > 0) {
+				platformSendingInterval = sendingInterval;
+			}
+		} catch (StorageException e) {
+			log.warn("Platform sensors intervals could not be read from the configuration, using the default ones.", e);
+		}
+
+		// the platform sensors data is retrieved every n-th sampling, so the sending interval is
+		// rounded to the closest multiple of the sampling interval
+		long roundedSendingInterval = getDataCollectIteration() * sensorRefreshTime;
+		if (roundedSendingInterval != platformSendingInterval) {
+			log.warn("Platform sending interval of " + platformSendingInterval + " ms is not a multiple of the sampling interval of " + sensorRefreshTime + " ms, the data will be sent every "
+					+ roundedSendingInterval + " ms.");
+			platformSendingInterval = roundedSendingInterval;
+		}
+
 		// schedule the sensor refresher runnable
 		executorService.scheduleWithFixedDelay(new SensorRefresher(), sensorRefreshTime, sensorRefreshTime, TimeUnit.MILLISECONDS);
+
+		// jmx sensors are updated independently of the platform sensors sampling interval
+		executorService.scheduleAtFixedRate(new JmxSensorRefresher(), JMX_UPDATE_INTERVAL, JMX_UPDATE_INTERVAL, TimeUnit.MILLISECONDS);
+
+		// schedule the linger flush signals if handler is allowed to wait for more data
+		long maxLingerTime = disruptorStrategy.getMaxLingerTime();
+		if (maxLingerTime > 0) {
+			executorService.scheduleWithFixedDelay(new LingerFlusher(), maxLingerTime, maxLingerTime, TimeUnit.MILLISECONDS);
+		}
 	}
 
 	/**
@@ -179,6 +272,36 @@ public class CoreService implements ICoreService {
 		ExecutorServiceUtils.shutdownExecutor(executorService, 5L, TimeUnit.SECONDS);
 	}
 
+	/**
+	 * Sets {@link #sensorRefreshTime}. Must be set before the service is started.
+	 *
+	 * @param sensorRefreshTime
+	 *            New value for {@link #sensorRefreshTime}
+	 */
+	public void setSensorRefreshTime(long sensorRefreshTime) {
+		this.sensorRefreshTime = sensorRefreshTime;
+	}
+
+	/**
+	 * Sets {@link #platformSendingInterval}. Must be set before the service is started.
+	 *
+	 * @param platformSendingInterval
+	 *            New value for {@link #platformSendingInterval}
+	 */
+	public void setPlatformSendingInterval(long platformSendingInterval) {
+		this.platformSendingInterval = platformSendingInterval;
+	}
+
+	/**
+	 * Returns after how many samplings the data of the platform sensors is retrieved, so that the
+	 * data is sent in the interval closest to the {@link #platformSendingInterval}.
+	 *
+	 * @return Number of samplings per sending, at least one.
+	 */
+	private long getDataCollectIteration() {
+		return Math.max(Math.round((double) platformSendingInterval / sensorRefreshTime), 1L);
+	}
+
 	/**
 	 * Starts the disruptor.
 	 *
@@ -190,9 +313,17 @@ public class CoreService implements ICoreService {
 		// Specify the size of the ring buffer, must be power of 2.
 		int bufferSize = disruptorStrategy.getDataBufferSize();
 
+		WaitStrategyType waitStrategyType = disruptorStrategy.getWaitStrategyType();
+		if (null == waitStrategyType) {
+			waitStrategyType = WaitStrategyType.BLOCKING;
+		}
+
 		// define thread factory and initialize disruptor
 		ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("inspectit-disruptor-thread-%d").setDaemon(true).build();
-		disruptor = new Disruptor<DefaultDataWrapper>(new DefaultDataFactory(), bufferSize, threadFactory, ProducerType.MULTI, new BlockingWaitStrategy());
+		disruptor = new Disruptor<DefaultDataWrapper>(new DefaultDataFactory(), bufferSize, threadFactory, ProducerType.MULTI, waitStrategyType.createWaitStrategy());
+
+		// pass batching and sending options to the handler
+		defaultDataHandler.configure(disruptorStrategy, new LingerFlusher());
 
 		// Connect the handler
 		disruptor.handleEventsWith(defaultDataHandler);
@@ -211,9 +342,44 @@ public class CoreService implements ICoreService {
 		disruptor.shutdown();
 	}
 
+	/**
+	 * Publishes an event without data to the disruptor, so that the {@link DefaultDataHandler}
+	 * gets the chance to send the batch that waits for more data longer than the maximum linger
+	 * time or the batch that was rejected by the data sender.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	class LingerFlusher implements Runnable {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void run() {
+			if (shutdown) {
+				return;
+			}
+
+			try {
+				long sequence = ringBuffer.tryNext();
+				try {
+					ringBuffer.get(sequence).setDefaultData(null);
+				} finally {
+					ringBuffer.publish(sequence);
+				}
+			} catch (InsufficientCapacityException e) { // NOPMD
+				// buffer is full, thus handler is anyway busy sending
+			}
+		}
+	}
+
 	/**
 	 * The SensorRefresher is a {@link Runnable} running in sensorRefreshTime intervals and updates
-	 * the information of the platform and jmx sensor.
+	 * the information of the platform sensors. The platform sensors aggregate the samples in their
+	 * pre-allocated data objects and the data is retrieved from the sensors every n-th sampling,
+	 * where n is the sending interval divided by the sampling interval, rounded to the closest
+	 * integer.
 	 *
 	 * @author Eduard Tudenhoefner
 	 * @author Alfred Krauss
@@ -232,7 +398,7 @@ public class CoreService implements ICoreService {
 		 * Defines how many iterations are gathered (and aggregated within the specific sensors)
 		 * before the data is retrieved from the sensors.
 		 */
-		private static final int DATA_COLLECT_ITERATION = 5;
+		private final long dataCollectIteration = getDataCollectIteration();
 
 		/**
 		 * {@inheritDoc}
@@ -265,7 +431,7 @@ public class CoreService implements ICoreService {
 						}
 					}
 
-					if (count == DATA_COLLECT_ITERATION) {
+					if (count >= dataCollectIteration) {
 						for (IPlatformSensor platformSensor : platformSensors) {
 							SystemSensorData systemSensorData = platformSensor.get();
 
@@ -277,7 +443,28 @@ public class CoreService implements ICoreService {
 						count = 0;
 					}
 				}
+			} catch (Throwable t) { // NOPMD NOCHK
+				// catch any exception in order not to cancel the task in the executor
+				log.error("Error occurred during refreshing of the system sensors.", t);
+			}
+		}
+	}
 
+	/**
+	 * The JmxSensorRefresher is a {@link Runnable} updating the jmx sensors each second,
+	 * independently of the platform sensors sampling interval.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	class JmxSensorRefresher implements Runnable {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void run() {
+			try {
 				// iterate the jmxSensors and update the information
 				if (CollectionUtils.isNotEmpty(jmxSensors)) {
 					for (IJmxSensor jmxSensor : jmxSensors) {
@@ -286,9 +473,9 @@ public class CoreService implements ICoreService {
 				}
 			} catch (Throwable t) { // NOPMD NOCHK
 				// catch any exception in order not to cancel the task in the executor
-				log.error("Error occurred during refreshing of the system sensors.", t);
+				log.error("Error occurred during refreshing of the jmx sensors.", t);
 			}
 		}
 	}
 
-}
\ No newline at end of file
+}
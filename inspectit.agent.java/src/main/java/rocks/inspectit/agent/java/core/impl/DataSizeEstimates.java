@@ -0,0 +1,98 @@
+package rocks.inspectit.agent.java.core.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.communication.DefaultData;
+
+/**
+ * Per type estimates of the data size used for limiting the batch size in bytes. Calculating the
+ * exact size of every object is too expensive for the sending path, thus only the first
+ * {@value #INITIAL_SAMPLES} objects of a type and then every {@value #SAMPLE_INTERVAL}th object
+ * are measured and the average of the measured sizes is returned for all others.
+ * <p>
+ * Not thread safe, must be used only by the disruptor consumer.
+ *
+ * @author Ivan Senic
+ *
+ */
+class DataSizeEstimates {
+
+	/**
+	 * Amount of objects of each type that are always measured.
+	 */
+	static final int INITIAL_SAMPLES = 16;
+
+	/**
+	 * After the initial samples every object with this index is measured.
+	 */
+	static final int SAMPLE_INTERVAL = 64;
+
+	/**
+	 * Object sizes to measure the samples with.
+	 */
+	private final IObjectSizes objectSizes;
+
+	/**
+	 * Estimates by the data class.
+	 */
+	private final Map<Class<?>, Estimate> estimates = new HashMap<Class<?>, Estimate>();
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param objectSizes
+	 *            Object sizes to measure the samples with.
+	 */
+	DataSizeEstimates(IObjectSizes objectSizes) {
+		this.objectSizes = objectSizes;
+	}
+
+	/**
+	 * Returns the estimated size of the given data in bytes.
+	 *
+	 * @param defaultData
+	 *            Data.
+	 * @return Estimated size in bytes.
+	 */
+	long getSizeOf(DefaultData defaultData) {
+		Class<?> type = defaultData.getClass();
+		Estimate estimate = estimates.get(type);
+		if (null == estimate) {
+			estimate = new Estimate();
+			estimates.put(type, estimate);
+		}
+
+		long count = estimate.count++;
+		if ((count < INITIAL_SAMPLES) || ((count % SAMPLE_INTERVAL) == 0)) {
+			estimate.sampledBytes += objectSizes.getSizeOf(defaultData);
+			estimate.samples++;
+		}
+		return estimate.sampledBytes / estimate.samples;
+	}
+
+	/**
+	 * Measured sizes of one type.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static class Estimate {
+
+		/**
+		 * Amount of objects estimated.
+		 */
+		private long count;
+
+		/**
+		 * Amount of measured objects.
+		 */
+		private long samples;
+
+		/**
+		 * Sum of the measured sizes.
+		 */
+		private long sampledBytes;
+	}
+}
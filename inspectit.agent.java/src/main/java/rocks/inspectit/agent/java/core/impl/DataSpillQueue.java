@@ -0,0 +1,524 @@
+package rocks.inspectit.agent.java.core.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.io.FileResolver;
+import rocks.inspectit.agent.java.spring.PrototypesProvider;
+import rocks.inspectit.agent.java.stats.AgentStatisticsLogger;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.serializer.impl.SerializationManager;
+import rocks.inspectit.shared.all.spring.logger.Log;
+
+/**
+ * Append only queue that keeps the data that could not be sent to the CMR in the memory mapped
+ * file. The file has the fixed size and is used as a ring, when there is no more space the oldest
+ * data is evicted. Each appended list of data is one record in the file, records are read in the
+ * order they were appended. The positions are kept in the file header, so the data survives the
+ * restart of the agent.
+ * <p>
+ * File layout: <i>[magic][capacity][read position][write position][record count]</i> header,
+ * followed by the records in form of <i>[length][object count][serialized list]</i>.
+ * <p>
+ * The file is created only when the data is spilled for the first time, or opened on
+ * configuration if it already exists. If the existing file has a different capacity than the
+ * configured one, the file is used with its own capacity until the spilled data is replayed and is
+ * then recreated with the configured capacity.
+ * <p>
+ * The spilled data holds the platform ident the agent had when the data was created. When the
+ * agent is registered with a different platform ident after the restart (for example because the
+ * CMR database was reset), the idents of the spilled data are not valid any more and such data is
+ * dropped when replayed. The sensor type and method idents are not checked, as the CMR keeps them
+ * for the platform ident.
+ *
+ * @author Ivan Senic
+ *
+ */
+@Component
+public class DataSpillQueue implements DisposableBean {
+
+	/**
+	 * Marker of the spill file.
+	 */
+	private static final int MAGIC = 0x5B177E01;
+
+	/**
+	 * Size of the file header.
+	 */
+	static final int HEADER_SIZE = 32;
+
+	/**
+	 * Size of the record header.
+	 */
+	static final int RECORD_HEADER_SIZE = 8;
+
+	/**
+	 * The logger of the class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * {@link FileResolver} for the location of the file.
+	 */
+	@Autowired
+	private FileResolver fileResolver;
+
+	/**
+	 * {@link PrototypesProvider} for the serializer.
+	 */
+	@Autowired
+	private PrototypesProvider prototypesProvider;
+
+	/**
+	 * Platform manager for checking the platform ident of the spilled data.
+	 */
+	@Autowired
+	private IPlatformManager platformManager;
+
+	/**
+	 * Stats logger for reporting spilling statistics.
+	 */
+	@Autowired
+	private AgentStatisticsLogger statsLogger;
+
+	/**
+	 * Capacity of the data part of the file in bytes. Non-positive means spilling is disabled.
+	 */
+	private int capacity;
+
+	/**
+	 * Configured capacity in bytes. Differs from the {@link #capacity} only while the file with the
+	 * other capacity from the previous run is used.
+	 */
+	private int configuredCapacity;
+
+	/**
+	 * If the warning about the data with the stale platform ident was already logged.
+	 */
+	private boolean staleDataLogged;
+
+	/**
+	 * Serialization manager, created when file is opened.
+	 */
+	private SerializationManager serializationManager;
+
+	/**
+	 * Reusable output for serialization.
+	 */
+	private Output output;
+
+	/**
+	 * Opened file.
+	 */
+	private RandomAccessFile randomAccessFile;
+
+	/**
+	 * Buffer mapped to the file.
+	 */
+	private MappedByteBuffer buffer;
+
+	/**
+	 * Logical position of the first record.
+	 */
+	private long readPosition;
+
+	/**
+	 * Logical position where next record will be written.
+	 */
+	private long writePosition;
+
+	/**
+	 * Amount of records in the file.
+	 */
+	private int recordCount;
+
+	/**
+	 * Bytes replayed since the queue was not empty.
+	 */
+	private long replayedBytes;
+
+	/**
+	 * Time when replaying started.
+	 */
+	private long replayStartTime;
+
+	/**
+	 * Sets the capacity of the spill file in bytes. Non-positive value disables spilling. If the
+	 * spill file from the previous run exists it will be opened immediately, so that the data can
+	 * be replayed.
+	 *
+	 * @param capacity
+	 *            Capacity in bytes.
+	 */
+	public synchronized void setCapacity(long capacity) {
+		configuredCapacity = (int) Math.min(capacity, Integer.MAX_VALUE - HEADER_SIZE);
+		if (null == buffer) {
+			this.capacity = configuredCapacity;
+			if ((this.capacity > 0) && fileResolver.getDataSpillFile().exists()) {
+				open();
+			}
+		}
+	}
+
+	/**
+	 * Returns if the spilling is enabled.
+	 *
+	 * @return Returns if the spilling is enabled.
+	 */
+	public synchronized boolean isEnabled() {
+		return capacity > 0;
+	}
+
+	/**
+	 * Returns if there is no spilled data.
+	 *
+	 * @return Returns if there is no spilled data.
+	 */
+	public synchronized boolean isEmpty() {
+		return 0 == recordCount;
+	}
+
+	/**
+	 * Returns the amount of bytes currently occupied in the file.
+	 *
+	 * @return Returns the amount of bytes currently occupied in the file.
+	 */
+	public synchronized long getSize() {
+		return writePosition - readPosition;
+	}
+
+	/**
+	 * Appends the data to the end of the queue. If there is not enough space the oldest records are
+	 * evicted. The data is dropped if the spilling is not enabled or the file can not be written.
+	 *
+	 * @param data
+	 *            Data to spill.
+	 */
+	public synchronized void append(List<DefaultData> data) {
+		if (data.isEmpty()) {
+			return;
+		}
+
+		if (!isEnabled() || !open()) {
+			statsLogger.dataDropped(data.size());
+			return;
+		}
+
+		byte[] bytes;
+		try {
+			output.clear();
+			serializationManager.serialize(data, output);
+			bytes = output.toBytes();
+		} catch (Throwable t) { // NOPMD
+			log.warn("Unable to serialize the data for spilling.", t);
+			statsLogger.dataDropped(data.size());
+			return;
+		}
+
+		int recordSize = RECORD_HEADER_SIZE + bytes.length;
+		if (recordSize > capacity) {
+			statsLogger.spillEvicted(data.size(), recordSize);
+			return;
+		}
+
+		while ((getSize() + recordSize) > capacity) {
+			evictOldest();
+		}
+
+		ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+		recordHeader.putInt(bytes.length);
+		recordHeader.putInt(data.size());
+		write(writePosition, recordHeader.array());
+		write(writePosition + RECORD_HEADER_SIZE, bytes);
+		writePosition += recordSize;
+		recordCount++;
+		writeHeader();
+
+		statsLogger.dataSpilled(recordSize, getSize());
+	}
+
+	/**
+	 * Returns the data of the oldest record without removing it. The data with the platform ident
+	 * different than the current one is dropped.
+	 *
+	 * @return Data of the oldest record, empty list if record can not be deserialized or
+	 *         <code>null</code> if queue is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized List<DefaultData> peek() {
+		if (isEmpty()) {
+			return null; // NOPMD
+		}
+
+		if (0 == replayStartTime) {
+			replayStartTime = System.currentTimeMillis();
+		}
+
+		int length = ByteBuffer.wrap(read(readPosition, RECORD_HEADER_SIZE)).getInt();
+		List<DefaultData> data;
+		try {
+			data = (List<DefaultData>) serializationManager.deserialize(new Input(read(readPosition + RECORD_HEADER_SIZE, length)));
+		} catch (Throwable t) { // NOPMD
+			log.warn("Unable to deserialize the spilled data, data will be skipped.", t);
+			return Collections.emptyList();
+		}
+		return removeStaleData(data);
+	}
+
+	/**
+	 * Removes the data with the platform ident different than the current platform ident of the
+	 * agent.
+	 *
+	 * @param data
+	 *            Spilled data.
+	 * @return Data with the current platform ident.
+	 */
+	private List<DefaultData> removeStaleData(List<DefaultData> data) {
+		if (!platformManager.isPlatformRegistered()) {
+			return data;
+		}
+
+		long platformId = platformManager.getPlatformId();
+		List<DefaultData> current = new ArrayList<DefaultData>(data.size());
+		for (DefaultData defaultData : data) {
+			if (defaultData.getPlatformIdent() == platformId) {
+				current.add(defaultData);
+			}
+		}
+
+		int stale = data.size() - current.size();
+		if (stale > 0) {
+			statsLogger.dataDropped(stale);
+			if (!staleDataLogged) {
+				staleDataLogged = true;
+				log.warn("Spilled data was created with a platform ident different than the current one (" + platformId + "), such data will be dropped.");
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Removes the oldest record.
+	 */
+	public synchronized void remove() {
+		if (isEmpty()) {
+			return;
+		}
+
+		int recordSize = RECORD_HEADER_SIZE + ByteBuffer.wrap(read(readPosition, RECORD_HEADER_SIZE)).getInt();
+		readPosition += recordSize;
+		recordCount--;
+		replayedBytes += recordSize;
+		statsLogger.dataReplayed(recordSize, getSize());
+
+		if (isEmpty()) {
+			statsLogger.spillDrained(replayedBytes, System.currentTimeMillis() - replayStartTime);
+			readPosition = 0;
+			writePosition = 0;
+			replayedBytes = 0;
+			replayStartTime = 0;
+		}
+		writeHeader();
+
+		if (isEmpty() && (capacity != configuredCapacity)) {
+			// the file from the previous run is drained, recreate it with the configured capacity
+			close();
+			deleteFile();
+			capacity = configuredCapacity;
+		}
+	}
+
+	/**
+	 * Evicts the oldest record.
+	 */
+	private void evictOldest() {
+		ByteBuffer recordHeader = ByteBuffer.wrap(read(readPosition, RECORD_HEADER_SIZE));
+		int recordSize = RECORD_HEADER_SIZE + recordHeader.getInt();
+		int objectCount = recordHeader.getInt();
+		readPosition += recordSize;
+		recordCount--;
+		statsLogger.spillEvicted(objectCount, recordSize);
+	}
+
+	/**
+	 * Opens the file if it's not opened.
+	 *
+	 * @return If file is opened.
+	 */
+	private boolean open() {
+		if (null != buffer) {
+			return true;
+		}
+
+		File file = fileResolver.getDataSpillFile().getAbsoluteFile();
+		try {
+			File parentDir = file.getParentFile();
+			if (!parentDir.exists() && !parentDir.mkdirs()) {
+				log.warn("Unable to create needed directory for the spill file: " + parentDir.getAbsolutePath());
+			}
+
+			randomAccessFile = new RandomAccessFile(file, "rw");
+			boolean reuse = false;
+			if (randomAccessFile.length() >= HEADER_SIZE) {
+				randomAccessFile.seek(0);
+				if (randomAccessFile.readInt() == MAGIC) {
+					int fileCapacity = randomAccessFile.readInt();
+					randomAccessFile.seek(24);
+					int fileRecordCount = randomAccessFile.readInt();
+					if (fileCapacity == capacity) {
+						reuse = true;
+					} else if ((fileCapacity > 0) && (fileRecordCount > 0) && (randomAccessFile.length() >= (HEADER_SIZE + (long) fileCapacity))) {
+						log.info("Spill file " + file.getAbsolutePath() + " has the capacity of " + fileCapacity + " bytes while " + capacity
+								+ " bytes are configured. The file keeps its capacity until the spilled data is replayed.");
+						capacity = fileCapacity;
+						reuse = true;
+					} else {
+						log.info("Spill file " + file.getAbsolutePath() + " has the capacity of " + fileCapacity + " bytes while " + capacity
+								+ " bytes are configured. The file holds no data and is recreated with the configured capacity.");
+					}
+				}
+			}
+			if (!reuse) {
+				randomAccessFile.setLength(0);
+			}
+
+			buffer = randomAccessFile.getChannel().map(MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity);
+			serializationManager = prototypesProvider.createSerializer();
+			output = new Output(4096, -1);
+
+			if (reuse) {
+				readPosition = buffer.getLong(8);
+				writePosition = buffer.getLong(16);
+				recordCount = buffer.getInt(24);
+				if (recordCount > 0) {
+					log.info("Found " + recordCount + " records of spilled data in " + file.getAbsolutePath() + ", data will be sent when connection to the CMR is available.");
+				}
+			} else {
+				readPosition = 0;
+				writePosition = 0;
+				recordCount = 0;
+				buffer.putInt(0, MAGIC);
+				buffer.putInt(4, capacity);
+				writeHeader();
+			}
+			return true;
+		} catch (IOException e) {
+			log.warn("Unable to open the spill file " + file.getAbsolutePath() + ", spilling is disabled.", e);
+			capacity = 0;
+			close();
+			return false;
+		}
+	}
+
+	/**
+	 * Writes current positions to the header.
+	 */
+	private void writeHeader() {
+		buffer.putLong(8, readPosition);
+		buffer.putLong(16, writePosition);
+		buffer.putInt(24, recordCount);
+	}
+
+	/**
+	 * Writes bytes to the logical position, wrapping around the end of the file.
+	 *
+	 * @param position
+	 *            Logical position.
+	 * @param bytes
+	 *            Bytes to write.
+	 */
+	private void write(long position, byte[] bytes) {
+		int offset = (int) (position % capacity);
+		int first = Math.min(bytes.length, capacity - offset);
+		ByteBuffer duplicate = buffer.duplicate();
+		duplicate.position(HEADER_SIZE + offset);
+		duplicate.put(bytes, 0, first);
+		if (first < bytes.length) {
+			duplicate.position(HEADER_SIZE);
+			duplicate.put(bytes, first, bytes.length - first);
+		}
+	}
+
+	/**
+	 * Reads bytes from the logical position, wrapping around the end of the file.
+	 *
+	 * @param position
+	 *            Logical position.
+	 * @param length
+	 *            Amount of bytes to read.
+	 * @return Read bytes.
+	 */
+	private byte[] read(long position, int length) {
+		byte[] bytes = new byte[length];
+		int offset = (int) (position % capacity);
+		int first = Math.min(length, capacity - offset);
+		ByteBuffer duplicate = buffer.duplicate();
+		duplicate.position(HEADER_SIZE + offset);
+		duplicate.get(bytes, 0, first);
+		if (first < length) {
+			duplicate.position(HEADER_SIZE);
+			duplicate.get(bytes, first, length - first);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Closes the file.
+	 */
+	private void close() {
+		if (null != buffer) {
+			buffer.force();
+			buffer = null; // NOPMD
+		}
+		if (null != randomAccessFile) {
+			try {
+				randomAccessFile.close();
+			} catch (IOException e) { // NOPMD //NOCHK
+				// ignore
+			}
+			randomAccessFile = null; // NOPMD
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Flushes and closes the file. File is deleted if there is no spilled data.
+	 */
+	@Override
+	public synchronized void destroy() throws Exception {
+		boolean opened = null != buffer;
+		close();
+		if (opened && isEmpty()) {
+			deleteFile();
+		}
+	}
+
+	/**
+	 * Deletes the spill file.
+	 */
+	private void deleteFile() {
+		File file = fileResolver.getDataSpillFile().getAbsoluteFile();
+		if (file.exists() && !file.delete()) {
+			log.warn("Unable to delete the empty spill file: " + file.getAbsolutePath());
+		}
+	}
+
+}
@@ -1,22 +1,58 @@
 package rocks.inspectit.agent.java.core.impl;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 import com.lmax.disruptor.EventHandler;
 
 import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.connection.ServerUnavailableException;
+import rocks.inspectit.agent.java.core.disruptor.IDisruptorStrategy;
 import rocks.inspectit.agent.java.stats.AgentStatisticsLogger;
+import rocks.inspectit.shared.all.cmr.cache.AbstractObjectSizes;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.spring.logger.Log;
 
 /**
  * {@link EventHandler} that sends the data wrapped in the {@link DefaultDataWrapper} to the CMR.
+ * <p>
+ * Data is collected in batches. A batch is sent when it reaches the maximum amount of objects or
+ * the maximum estimated size in bytes, or when the disruptor has no more data available and the
+ * first object in the batch waited at least the maximum linger time. Events without data are used
+ * as flush signals, so that lingering batches are sent even if no new data arrives.
+ * <p>
+ * If the pipelined sending is enabled the handler only collects the batch and passes it to the
+ * data sender executor, thus the serialization and the network transfer are not executed in the
+ * disruptor thread. When the sender can not keep up, the batches are coalesced in the disruptor
+ * thread until the maximum amount of pending objects is reached, after that the data is dropped.
+ * The coalesced data is passed to the sender again as soon as the sender finishes a batch, as the
+ * sender then publishes a flush signal to the disruptor, and the signal passes the rejected data
+ * even if the linger time is not yet over.
+ * <p>
+ * When the CMR is not reachable the data is kept in the bounded overflow buffer and sent before
+ * the next batch once the connection is available again. When the overflow buffer is full, the
+ * oldest data is moved to the {@link DataSpillQueue} if spilling is enabled, otherwise dropped.
+ * Spilled data is replayed first, limited to {@value #MAX_REPLAY_RECORDS} records per sent batch,
+ * and until the spill is empty new batches are queued after it so that the order is kept. When the
+ * connection is restored, {@link #connectionRestored()} publishes a flush signal so that the kept
+ * data is replayed even if no new data arrives, the replay continues with further flush signals
+ * until the spill is empty.
+ * <p>
+ * The stack traces of the exception data are marked in the {@link SentStackTraces} only after the
+ * data was sent, and all marks are cleared when the CMR is not reachable.
  *
  * @author Matthias Huber
  * @author Ivan Senic
@@ -25,6 +61,11 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 @Component
 public class DefaultDataHandler implements EventHandler<DefaultDataWrapper> {
 
+	/**
+	 * Maximum amount of spilled records replayed in one sending.
+	 */
+	static final int MAX_REPLAY_RECORDS = 8;
+
 	/**
 	 * The logger of the class.
 	 */
@@ -43,45 +84,459 @@ public class DefaultDataHandler implements EventHandler<DefaultDataWrapper> {
 	@Autowired
 	private AgentStatisticsLogger statsLogger;
 
+	/**
+	 * Executor service used for sending when pipelined sending is active.
+	 */
+	@Autowired
+	@Qualifier("dataSenderExecutorService")
+	private ExecutorService dataSenderExecutorService;
+
+	/**
+	 * Queue for data spilled to disk.
+	 */
+	@Autowired
+	private DataSpillQueue dataSpillQueue;
+
+	/**
+	 * Stack traces that reached the CMR.
+	 */
+	@Autowired
+	private SentStackTraces sentStackTraces;
+
+	/**
+	 * Per type size estimates for limiting the batch size in bytes.
+	 */
+	private final DataSizeEstimates sizeEstimates = new DataSizeEstimates(AbstractObjectSizes.forUnderlyingSystem());
+
 	/**
 	 * List where data is collected and then passed to the connection.
 	 */
 	private List<DefaultData> defaultDatas = new ArrayList<DefaultData>(128);
 
+	/**
+	 * Estimated size in bytes of the data in {@link #defaultDatas}. Only calculated when
+	 * {@link #maxBatchBytes} is set.
+	 */
+	private long batchBytes;
+
+	/**
+	 * Time in milliseconds when the first object was added to the {@link #defaultDatas}.
+	 */
+	private long batchStartTime;
+
+	/**
+	 * Lists already sent by the data sender executor that can be reused for collecting.
+	 */
+	private final Queue<List<DefaultData>> listPool = new ConcurrentLinkedQueue<List<DefaultData>>();
+
+	/**
+	 * Overflow buffer holding the data that could not be sent because the CMR was not reachable.
+	 * Only accessed by the thread that sends the data.
+	 */
+	private final Deque<DefaultData> overflowBuffer = new ArrayDeque<DefaultData>();
+
+	/**
+	 * Publishes an event without data to the disruptor.
+	 */
+	private Runnable flushSignal;
+
+	/**
+	 * If the data sender should publish the flush signal after sending a batch, because the data
+	 * is waiting in the disruptor thread.
+	 */
+	private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+	/**
+	 * If the data kept in the overflow buffer and the spill queue should be replayed on the next
+	 * flush signal even if there is no new data.
+	 */
+	private final AtomicBoolean replayRequested = new AtomicBoolean();
+
+	/**
+	 * If the data sender rejected the last batch. The batch is then passed again on the next flush
+	 * signal regardless of the linger time, as it was already due when it was rejected.
+	 */
+	private boolean handoffRejected;
+
+	/**
+	 * If pipelined sending is active.
+	 */
+	private volatile boolean pipelinedSending;
+
+	/**
+	 * Maximum amount of objects that can be coalesced in the disruptor thread when the data sender
+	 * can not keep up.
+	 */
+	private int maxPendingObjects;
+
+	/**
+	 * Maximum amount of objects in one batch, non-positive means no limit.
+	 */
+	private int maxBatchSize;
+
+	/**
+	 * Maximum estimated size of one batch in bytes, non-positive means no limit.
+	 */
+	private long maxBatchBytes;
+
+	/**
+	 * Maximum linger time in milliseconds, non-positive means no lingering.
+	 */
+	private long maxLingerTime;
+
+	/**
+	 * Maximum amount of objects in the overflow buffer, non-positive means no buffering.
+	 */
+	private int overflowBufferSize;
+
 	/**
 	 * Defines if there was an exception before while trying to send the data. Used to throttle the
 	 * printing of log statements.
 	 */
-	private boolean sendingExceptionNotice = false;
+	private volatile boolean sendingExceptionNotice = false;
+
+	/**
+	 * Configures the handler with the options from the disruptor strategy. Must be called before
+	 * the disruptor is started.
+	 *
+	 * @param disruptorStrategy
+	 *            Disruptor strategy holding the batching and sending options.
+	 * @param flushSignal
+	 *            Runnable that publishes an event without data to the disruptor. Used to pass the
+	 *            data rejected by the data sender again.
+	 */
+	public void configure(IDisruptorStrategy disruptorStrategy, Runnable flushSignal) {
+		this.flushSignal = flushSignal;
+		this.maxBatchSize = disruptorStrategy.getMaxBatchSize();
+		this.maxBatchBytes = disruptorStrategy.getMaxBatchBytes();
+		this.maxLingerTime = disruptorStrategy.getMaxLingerTime();
+		this.overflowBufferSize = disruptorStrategy.getOverflowBufferSize();
+		dataSpillQueue.setCapacity(disruptorStrategy.getSpillFileSize());
+		if (disruptorStrategy.isPipelinedSending()) {
+			this.maxPendingObjects = Math.max(disruptorStrategy.getDataBufferSize(), maxBatchSize);
+			this.pipelinedSending = true;
+		}
+	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public void onEvent(DefaultDataWrapper defaultDataWrapper, long sequence, boolean endOfBatch) {
-		defaultDatas.add(defaultDataWrapper.getDefaultData());
+		DefaultData defaultData = defaultDataWrapper.getDefaultData();
+		if (null != defaultData) {
+			if (defaultDatas.isEmpty()) {
+				batchStartTime = System.currentTimeMillis();
+			}
+			defaultDatas.add(defaultData);
+			if (maxBatchBytes > 0) {
+				batchBytes += sizeEstimates.getSizeOf(defaultData);
+			}
+		}
+
+		if (defaultDatas.isEmpty()) {
+			if ((null == defaultData) && replayRequested.compareAndSet(true, false)) {
+				// nothing new to send, pass the empty batch so that the kept data is replayed
+				batchStartTime = System.currentTimeMillis();
+				flush();
+			}
+			return;
+		}
+
+		if (isBatchFull() || ((null == defaultData) && handoffRejected) || (endOfBatch && isLingerExpired())) {
+			flush();
+		}
+	}
+
+	/**
+	 * Signals that the connection to the CMR was restored. Publishes the flush signal, so that the
+	 * data kept in the overflow buffer and in the spill queue is replayed without waiting for the
+	 * next batch.
+	 */
+	public void connectionRestored() {
+		requestReplay();
+	}
+
+	/**
+	 * Requests the replay of the kept data with the next flush signal and publishes the signal.
+	 */
+	private void requestReplay() {
+		Runnable signal = flushSignal;
+		if (null != signal) {
+			replayRequested.set(true);
+			signal.run();
+		}
+	}
+
+	/**
+	 * Checks if the batch reached the maximum amount of objects or bytes.
+	 *
+	 * @return <code>true</code> if batch should be sent regardless of the linger time
+	 */
+	private boolean isBatchFull() {
+		return ((maxBatchSize > 0) && (defaultDatas.size() >= maxBatchSize)) || ((maxBatchBytes > 0) && (batchBytes >= maxBatchBytes));
+	}
 
-		if (endOfBatch) {
+	/**
+	 * Checks if the first object in the batch has waited long enough.
+	 *
+	 * @return <code>true</code> if batch can be sent
+	 */
+	private boolean isLingerExpired() {
+		return (maxLingerTime <= 0) || ((System.currentTimeMillis() - batchStartTime) >= maxLingerTime);
+	}
+
+	/**
+	 * Sends the current batch directly or passes it to the sender when the pipelined sending is
+	 * active.
+	 */
+	private void flush() {
+		if (pipelinedSending) {
+			passToSender();
+		} else {
 			try {
-				if (connection.isConnected()) {
-					connection.sendDataObjects(defaultDatas);
-					sendingExceptionNotice = false;
-				} else {
-					statsLogger.dataDropped(defaultDatas.size());
+				send(defaultDatas, batchStartTime);
+			} finally {
+				defaultDatas.clear();
+				batchBytes = 0;
+			}
+		}
+	}
+
+	/**
+	 * Passes the currently collected data to the data sender executor. If the executor rejects the
+	 * task, the data stays in the list and is passed again when the sender finishes the next batch,
+	 * unless the amount of pending objects exceeded the maximum.
+	 */
+	private void passToSender() {
+		// request the flush before the execution, so that the sender can not finish in between
+		flushRequested.set(true);
+		try {
+			dataSenderExecutorService.execute(new SendTask(defaultDatas, batchStartTime));
+		} catch (RejectedExecutionException e) {
+			if (defaultDatas.size() >= maxPendingObjects) {
+				flushRequested.set(false);
+				handoffRejected = false;
+				statsLogger.dataDropped(defaultDatas.size());
+				defaultDatas.clear();
+				batchBytes = 0;
+			} else {
+				// the sender might have consumed the request while rejecting, so re-arm it
+				flushRequested.set(true);
+				handoffRejected = true;
+				if (defaultDatas.isEmpty()) {
+					// rejected replay, the empty batch is not kept so request the replay again
+					replayRequested.set(true);
 				}
-			} catch (ServerUnavailableException serverUnavailableException) {
-				if (serverUnavailableException.isServerTimeout()) {
-					log.warn("Timeout on server when sending actual data. Data might be lost!", serverUnavailableException);
+			}
+			return;
+		}
+		flushRequested.set(false);
+		handoffRejected = false;
+
+		List<DefaultData> pooled = listPool.poll();
+		if (null != pooled) {
+			defaultDatas = pooled;
+		} else {
+			defaultDatas = new ArrayList<DefaultData>(128);
+		}
+		batchBytes = 0;
+	}
+
+	/**
+	 * Sends the given data to the CMR if connection is available. Any data from the overflow
+	 * buffer is sent first.
+	 *
+	 * @param dataToSend
+	 *            Data to send.
+	 * @param startTime
+	 *            Time in milliseconds when the first object was added to the batch.
+	 */
+	private void send(List<DefaultData> dataToSend, long startTime) {
+		try {
+			if (connection.isConnected()) {
+				if (replaySpilled()) {
+					sendOverflow();
+					if (!dataToSend.isEmpty()) {
+						sendDataObjects(dataToSend);
+						statsLogger.batchSent(dataToSend.size(), System.currentTimeMillis() - startTime);
+					}
 				} else {
-					if (!sendingExceptionNotice) {
-						sendingExceptionNotice = true;
-						log.error("Connection problem appeared, stopping sending actual data!", serverUnavailableException);
+					// spilled data is still waiting, queue after it to keep the order
+					overflow(dataToSend, true);
+					if (dataToSend.isEmpty()) {
+						// replay without new data, continue with the next flush signal
+						requestReplay();
 					}
 				}
+				sendingExceptionNotice = false;
+			} else {
+				// CMR might be restarted when we connect again
+				sentStackTraces.clear();
+				overflow(dataToSend, true);
+			}
+		} catch (ServerUnavailableException serverUnavailableException) {
+			sentStackTraces.clear();
+			if (serverUnavailableException.isServerTimeout()) {
+				log.warn("Timeout on server when sending actual data. Data might be lost!", serverUnavailableException);
+			} else {
+				if (!sendingExceptionNotice) {
+					sendingExceptionNotice = true;
+					log.error("Connection problem appeared, stopping sending actual data!", serverUnavailableException);
+				}
+				overflow(dataToSend, false);
+			}
+		}
+	}
+
+	/**
+	 * Replays at most {@value #MAX_REPLAY_RECORDS} records from the spill queue. Records are
+	 * removed only after being successfully sent.
+	 *
+	 * @return <code>true</code> if there is no more spilled data
+	 * @throws ServerUnavailableException
+	 *             If sending fails.
+	 */
+	private boolean replaySpilled() throws ServerUnavailableException {
+		for (int i = 0; (i < MAX_REPLAY_RECORDS) && !dataSpillQueue.isEmpty(); i++) {
+			List<DefaultData> spilled = dataSpillQueue.peek();
+			if ((null != spilled) && !spilled.isEmpty()) {
+				sendDataObjects(spilled);
+			}
+			dataSpillQueue.remove();
+		}
+		return dataSpillQueue.isEmpty();
+	}
+
+	/**
+	 * Sends the data from the overflow buffer in chunks of the maximum batch size. Data is removed
+	 * from the buffer only after being successfully sent.
+	 *
+	 * @throws ServerUnavailableException
+	 *             If sending fails.
+	 */
+	private void sendOverflow() throws ServerUnavailableException {
+		while (!overflowBuffer.isEmpty()) {
+			int chunkSize = overflowBuffer.size();
+			if ((maxBatchSize > 0) && (maxBatchSize < chunkSize)) {
+				chunkSize = maxBatchSize;
+			}
+
+			List<DefaultData> chunk = new ArrayList<DefaultData>(chunkSize);
+			Iterator<DefaultData> iterator = overflowBuffer.iterator();
+			for (int i = 0; i < chunkSize; i++) {
+				chunk.add(iterator.next());
+			}
+
+			sendDataObjects(chunk);
+			for (int i = 0; i < chunkSize; i++) {
+				overflowBuffer.removeFirst();
+			}
+		}
+	}
+
+	/**
+	 * Sends the data objects with the connection and marks the stack traces in the data as sent.
+	 *
+	 * @param dataObjects
+	 *            Data to send.
+	 * @throws ServerUnavailableException
+	 *             If sending fails.
+	 */
+	private void sendDataObjects(List<DefaultData> dataObjects) throws ServerUnavailableException {
+		connection.sendDataObjects(dataObjects);
+		sentStackTraces.sent(dataObjects);
+	}
+
+	/**
+	 * Keeps the data that could not be sent in the overflow buffer. Data that does not fit into
+	 * the overflow buffer is spilled to disk or dropped if spilling is not enabled.
+	 *
+	 * @param dataToKeep
+	 *            Data that could not be sent.
+	 * @param reportDropped
+	 *            If the data dropped due to disabled overflow buffer should be reported.
+	 */
+	private void overflow(List<DefaultData> dataToKeep, boolean reportDropped) {
+		if (dataToKeep.isEmpty()) {
+			return;
+		}
+
+		boolean spilling = dataSpillQueue.isEnabled();
+		if ((overflowBufferSize <= 0) && !spilling) {
+			if (reportDropped) {
+				statsLogger.dataDropped(dataToKeep.size());
+			}
+			return;
+		}
+
+		overflowBuffer.addAll(dataToKeep);
+		int excess = overflowBuffer.size() - Math.max(overflowBufferSize, 0);
+		if (excess <= 0) {
+			return;
+		}
+
+		if (spilling) {
+			List<DefaultData> toSpill = new ArrayList<DefaultData>(excess);
+			for (int i = 0; i < excess; i++) {
+				toSpill.add(overflowBuffer.removeFirst());
+			}
+			dataSpillQueue.append(toSpill);
+		} else {
+			for (int i = 0; i < excess; i++) {
+				overflowBuffer.removeFirst();
+			}
+			statsLogger.dataDropped(excess);
+		}
+	}
+
+	/**
+	 * Task that sends one batch of data in the data sender thread and returns the list to the pool
+	 * afterwards.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private class SendTask implements Runnable {
+
+		/**
+		 * Batch to send.
+		 */
+		private final List<DefaultData> batch;
+
+		/**
+		 * Time in milliseconds when the first object was added to the batch.
+		 */
+		private final long startTime;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param batch
+		 *            Batch to send.
+		 * @param startTime
+		 *            Time in milliseconds when the first object was added to the batch.
+		 */
+		SendTask(List<DefaultData> batch, long startTime) {
+			this.batch = batch;
+			this.startTime = startTime;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void run() {
+			try {
+				send(batch, startTime);
 			} finally {
-				defaultDatas.clear();
+				batch.clear();
+				listPool.offer(batch);
+				if (flushRequested.compareAndSet(true, false)) {
+					flushSignal.run();
+				}
 			}
 		}
 	}
 
-}
\ No newline at end of file
+}
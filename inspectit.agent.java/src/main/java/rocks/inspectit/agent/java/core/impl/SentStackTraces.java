@@ -0,0 +1,133 @@
+package rocks.inspectit.agent.java.core.impl;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+
+/**
+ * Keeps track of the exception stack traces that reached the CMR. A stack trace is marked as sent
+ * for its fingerprint only after the data carrying it was successfully sent, thus data that is
+ * dropped on the agent or discarded with its invocation never marks the stack trace as sent. As
+ * the CMR remembers the stack traces only in memory, all marks are cleared when the connection to
+ * the CMR is lost.
+ *
+ * @author Ivan Senic
+ *
+ */
+@Component
+public class SentStackTraces {
+
+	/**
+	 * Max amount of the fingerprints tracked, when exceeded all tracked fingerprints are cleared.
+	 */
+	static final int MAX_TRACKED_FINGERPRINTS = 4096;
+
+	/**
+	 * Time in milliseconds the stack trace was last sent by the fingerprint.
+	 */
+	private final ConcurrentHashMap<Long, Long> sentTimes = new ConcurrentHashMap<Long, Long>();
+
+	/**
+	 * If any exception sensor deduplicates the stack traces, only then the sent data has to be
+	 * checked.
+	 */
+	private volatile boolean active;
+
+	/**
+	 * Activates the tracking of the sent stack traces.
+	 */
+	public void activate() {
+		active = true;
+	}
+
+	/**
+	 * Returns if the stack trace with the given fingerprint was sent at or after the given time.
+	 *
+	 * @param fingerprint
+	 *            Fingerprint.
+	 * @param time
+	 *            Time in milliseconds.
+	 * @return If the stack trace was sent at or after the given time.
+	 */
+	public boolean isSentSince(long fingerprint, long time) {
+		Long sentTime = sentTimes.get(Long.valueOf(fingerprint));
+		return (null != sentTime) && (sentTime.longValue() >= time);
+	}
+
+	/**
+	 * Marks the stack traces of the exception data in the given list as sent. Must be called only
+	 * after the data was successfully sent to the CMR.
+	 *
+	 * @param sentData
+	 *            Sent data.
+	 */
+	public void sent(List<? extends DefaultData> sentData) {
+		if (!active) {
+			return;
+		}
+
+		Long now = Long.valueOf(System.currentTimeMillis());
+		for (DefaultData defaultData : sentData) {
+			if (defaultData instanceof ExceptionSensorData) {
+				sent((ExceptionSensorData) defaultData, now);
+			} else if (defaultData instanceof InvocationSequenceData) {
+				sent((InvocationSequenceData) defaultData, now);
+			}
+		}
+	}
+
+	/**
+	 * Clears all marks, must be called when the CMR could have lost the known stack traces.
+	 */
+	public void clear() {
+		sentTimes.clear();
+	}
+
+	/**
+	 * Marks the stack traces of all exception data in the invocation as sent.
+	 *
+	 * @param invocation
+	 *            Invocation.
+	 * @param now
+	 *            Current time.
+	 */
+	private void sent(InvocationSequenceData invocation, Long now) {
+		List<ExceptionSensorData> exceptionSensorDataObjects = invocation.getExceptionSensorDataObjects();
+		if (null != exceptionSensorDataObjects) {
+			for (ExceptionSensorData exceptionSensorData : exceptionSensorDataObjects) {
+				sent(exceptionSensorData, now);
+			}
+		}
+		List<InvocationSequenceData> nestedSequences = invocation.getNestedSequences();
+		if (null != nestedSequences) {
+			for (InvocationSequenceData child : nestedSequences) {
+				sent(child, now);
+			}
+		}
+	}
+
+	/**
+	 * Marks the stack trace of the exception data as sent if the data carries the stack trace for
+	 * a fingerprint.
+	 *
+	 * @param exceptionSensorData
+	 *            Exception data.
+	 * @param now
+	 *            Current time.
+	 */
+	private void sent(ExceptionSensorData exceptionSensorData, Long now) {
+		if ((0 == exceptionSensorData.getFingerprint()) || (null == exceptionSensorData.getStackTrace())) {
+			return;
+		}
+
+		if (sentTimes.size() >= MAX_TRACKED_FINGERPRINTS) {
+			sentTimes.clear();
+		}
+		sentTimes.put(Long.valueOf(exceptionSensorData.getFingerprint()), now);
+	}
+}
@@ -1,12 +1,26 @@
 package rocks.inspectit.agent.java.eum.data;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.slf4j.Logger;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.config.StorageException;
 import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.sdk.opentracing.internal.util.ConversionUtils;
@@ -14,16 +28,39 @@ import rocks.inspectit.agent.java.sdk.opentracing.internal.util.RandomUtils;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.data.eum.Beacon;
 import rocks.inspectit.shared.all.communication.data.eum.EUMBeaconElement;
+import rocks.inspectit.shared.all.instrumentation.config.impl.AgentEndUserMonitoringConfig;
 import rocks.inspectit.shared.all.spring.logger.Log;
 
 /**
  * Class for processing beacons which the javascript agent sends back to the agent.
+ * <p>
+ * The beacon is parsed token by token directly from the request reader, only the elements in the
+ * data array are bound to objects. The elements are rate limited per client with the limit defined
+ * in the end user monitoring configuration and passed to the core service as one batch once the
+ * complete beacon has been parsed, so that a invalid beacon does not deliver any data.
+ * <p>
+ * Beacons of known sessions are limited by the session id, requests for a new session by the
+ * remote address of the client, each of them taking one permit. The limit of the remote address
+ * is checked before the body is parsed and elements over the limit of the session are skipped
+ * without being bound.
  *
  * @author David Monschein, Jonas kunz
  */
 
 @Component
-public class DataHandler implements IDataHandler {
+@DependsOn("platformManager")
+public class DataHandler implements IDataHandler, InitializingBean {
+
+	/**
+	 * Default max amount of beacon elements accepted per session and second, used when no end
+	 * user monitoring configuration is available.
+	 */
+	private static final int DEFAULT_SESSION_RATE_LIMIT = 500;
+
+	/**
+	 * Response sent when no IDs have been assigned.
+	 */
+	private static final String EMPTY_RESPONSE = "{}";
 
 	/**
 	 * Logger.
@@ -43,16 +80,49 @@ public class DataHandler implements IDataHandler {
 	@Autowired
 	private IPlatformManager platformManager;
 
+	/**
+	 * Configuration storage to read the session beacon limit from.
+	 */
+	@Autowired
+	private IConfigurationStorage configurationStorage;
+
 	/**
 	 * The mapper used for decoding JSON beacons.
 	 */
 	private ObjectMapper jsonMapper;
 
+	/**
+	 * Reader for the beacon elements, prepared once as it is thread safe.
+	 */
+	private ObjectReader elementReader;
+
+	/**
+	 * Rate limiter for the elements of one session.
+	 */
+	private SessionRateLimiter sessionRateLimiter;
+
 	/**
 	 * Constructor.
 	 */
 	public DataHandler() {
 		jsonMapper = new ObjectMapper();
+		elementReader = jsonMapper.readerFor(EUMBeaconElement.class);
+		sessionRateLimiter = new SessionRateLimiter(DEFAULT_SESSION_RATE_LIMIT);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		try {
+			AgentEndUserMonitoringConfig eumConfig = configurationStorage.getEndUserMonitoringConfig();
+			if (null != eumConfig) {
+				sessionRateLimiter = new SessionRateLimiter(eumConfig.getSessionBeaconLimit());
+			}
+		} catch (StorageException e) {
+			log.warn("Session beacon limit could not be read from the configuration, using the default limit of " + DEFAULT_SESSION_RATE_LIMIT + " elements per second.", e);
+		}
 	}
 
 	/**
@@ -61,44 +131,191 @@ public class DataHandler implements IDataHandler {
 	@Override
 	public String insertBeacon(String data) {
 		if (data == null) {
-			return "{}";
+			return EMPTY_RESPONSE;
 		}
 
+		return insertBeacon(new StringReader(data));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String insertBeacon(Reader reader) {
+		return insertBeacon(reader, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String insertBeacon(Reader reader, String remoteAddress) {
+		if (reader == null) {
+			return EMPTY_RESPONSE;
+		}
+
+		long currentTime = System.currentTimeMillis();
+		if (sessionRateLimiter.available(remoteAddress, currentTime) <= 0) {
+			if (log.isDebugEnabled()) {
+				log.debug("Dropping the beacon of the client " + remoteAddress + " due to the rate limit.");
+			}
+			return EMPTY_RESPONSE;
+		}
+
+		JsonParser parser = null;
 		try {
-			Beacon beacon = jsonMapper.readValue(data, Beacon.class);
-			ObjectNode response = jsonMapper.getNodeFactory().objectNode();
+			parser = jsonMapper.getFactory().createParser(reader);
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new JsonParseException(parser, "Beacon must be a JSON object.");
+			}
 
-			long sessionID = beacon.getSessionID();
-			long tabID = beacon.getTabID();
+			long sessionID = Beacon.REQUEST_NEW_SESSION_ID_MARKER;
+			long tabID = Beacon.REQUEST_NEW_TAB_ID_MARKER;
+			String activeAgentModules = null;
+			List<EUMBeaconElement> elements = new ArrayList<EUMBeaconElement>();
+			int skipped = 0;
+
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken valueToken = parser.nextToken();
+				if ("sessionID".equals(field)) {
+					sessionID = readHexId(parser);
+				} else if ("tabID".equals(field)) {
+					tabID = readHexId(parser);
+				} else if ("activeAgentModules".equals(field)) {
+					activeAgentModules = parser.getValueAsString();
+				} else if ("data".equals(field) && (valueToken == JsonToken.START_ARRAY)) {
+					// the session id is sent before the data, elements over its limit are not bound
+					int available = sessionRateLimiter.available(getClientKey(sessionID, remoteAddress), currentTime);
+					while (parser.nextToken() != JsonToken.END_ARRAY) {
+						if (elements.size() < available) {
+							EUMBeaconElement element = elementReader.readValue(parser);
+							elements.add(element);
+						} else {
+							parser.skipChildren();
+							skipped++;
+						}
+					}
+				} else {
+					parser.skipChildren();
+				}
+			}
+
+			ObjectNode response = null;
+
+			Object clientKey = getClientKey(sessionID, remoteAddress);
 
 			// assign new IDs if requested
 			if (sessionID == Beacon.REQUEST_NEW_SESSION_ID_MARKER) {
+				if (sessionRateLimiter.acquire(clientKey, 1, currentTime) <= 0) {
+					if (log.isDebugEnabled()) {
+						log.debug("Dropping the new session request of the client " + remoteAddress + " due to the rate limit.");
+					}
+					return EMPTY_RESPONSE;
+				}
 				sessionID = RandomUtils.randomLong();
+				response = jsonMapper.getNodeFactory().objectNode();
 				response.put("sessionID", ConversionUtils.toHexString(sessionID));
 			}
-			if (beacon.getTabID() == Beacon.REQUEST_NEW_TAB_ID_MARKER) {
+			if (tabID == Beacon.REQUEST_NEW_TAB_ID_MARKER) {
 				tabID = RandomUtils.randomLong();
+				if (null == response) {
+					response = jsonMapper.getNodeFactory().objectNode();
+				}
 				response.put("tabID", ConversionUtils.toHexString(tabID));
 			}
 
 			// even needed if the IDs were all known, as this also assigns the ids to all stored
 			// AbstractEUMElements.
+			Beacon beacon = new Beacon(sessionID, tabID, activeAgentModules, elements);
 			beacon.deserializationComplete(sessionID, tabID);
 
-			// send the received elements to the CMR
-			for (EUMBeaconElement elem : beacon.getData()) {
-				DefaultData ddata = elem.asDefaultData();
-				ddata.setPlatformIdent(platformManager.getPlatformId());
-				coreService.addDefaultData(ddata);
-			}
+			sendElements(clientKey, sessionID, elements, skipped, currentTime);
 
+			if (null == response) {
+				return EMPTY_RESPONSE;
+			}
 			return jsonMapper.writeValueAsString(response);
-
 		} catch (Exception e) {
 			log.error("Error decoding beacon!", e);
-			return "{}";
+			return EMPTY_RESPONSE;
+		} finally {
+			if (null != parser) {
+				try {
+					parser.close();
+				} catch (IOException e) { // NOPMD
+					// ignore
+				}
+			}
 		}
 	}
 
+	/**
+	 * Sends the elements allowed by the rate limit of the client to the core service.
+	 *
+	 * @param clientKey
+	 *            Key of the client in the rate limiter.
+	 * @param sessionID
+	 *            Session of the beacon.
+	 * @param elements
+	 *            Received elements.
+	 * @param skipped
+	 *            Amount of elements already skipped while parsing.
+	 * @param currentTime
+	 *            Time the beacon was received in milliseconds.
+	 */
+	private void sendElements(Object clientKey, long sessionID, List<EUMBeaconElement> elements, int skipped, long currentTime) {
+		int permitted = sessionRateLimiter.acquire(clientKey, elements.size(), currentTime);
+		int dropped = (elements.size() - permitted) + skipped;
+		if ((dropped > 0) && log.isDebugEnabled()) {
+			log.debug("Dropping " + dropped + " beacon elements of the session " + ConversionUtils.toHexString(sessionID) + " due to the rate limit.");
+		}
+		if (permitted <= 0) {
+			return;
+		}
 
+		long platformId = platformManager.getPlatformId();
+		List<DefaultData> dataList = new ArrayList<DefaultData>(permitted);
+		for (int i = 0; i < permitted; i++) {
+			DefaultData data = elements.get(i).asDefaultData();
+			data.setPlatformIdent(platformId);
+			dataList.add(data);
+		}
+		coreService.addAllDefaultData(dataList);
+	}
+
+	/**
+	 * Returns the key of the client in the rate limiter. Known sessions are limited by the session
+	 * id, requests for a new session by the remote address.
+	 *
+	 * @param sessionID
+	 *            Session id sent in the beacon.
+	 * @param remoteAddress
+	 *            Remote address of the client, can be <code>null</code>.
+	 * @return Key of the client, <code>null</code> if the client can not be identified.
+	 */
+	private Object getClientKey(long sessionID, String remoteAddress) {
+		if (sessionID == Beacon.REQUEST_NEW_SESSION_ID_MARKER) {
+			return remoteAddress;
+		}
+		return Long.valueOf(sessionID);
+	}
+
+	/**
+	 * Reads the hex encoded id at the current token of the parser.
+	 *
+	 * @param parser
+	 *            Parser positioned at the id value.
+	 * @return Id.
+	 * @throws IOException
+	 *             If the value is not a hex encoded long.
+	 */
+	private long readHexId(JsonParser parser) throws IOException {
+		String value = parser.getValueAsString();
+		try {
+			return Long.parseLong(value, 16);
+		} catch (NumberFormatException e) {
+			throw new JsonParseException(parser, e.getMessage(), e); // NOPMD
+		}
+	}
 }
@@ -1,5 +1,7 @@
 package rocks.inspectit.agent.java.eum.data;
 
+import java.io.Reader;
+
 /**
  * @author Jonas Kunz
  *
@@ -15,4 +17,28 @@ public interface IDataHandler {
 	 *
 	 */
 	String insertBeacon(String data);
+
+	/**
+	 * Parses the incoming beacon directly from the given reader without reading the complete
+	 * beacon into a string first. If the beacon requests for a new session and or tab ID, these IDs
+	 * are assigned and packed into the response.
+	 *
+	 * @param reader
+	 *            the reader providing the beacon which should get parsed and processed
+	 * @return the response string to send back to the client.
+	 */
+	String insertBeacon(Reader reader);
+
+	/**
+	 * Parses the incoming beacon directly from the given reader. The remote address identifies the
+	 * client for the rate limit of requests asking for a new session and is checked before the
+	 * beacon is parsed.
+	 *
+	 * @param reader
+	 *            the reader providing the beacon which should get parsed and processed
+	 * @param remoteAddress
+	 *            the remote address of the client, can be <code>null</code> if not known
+	 * @return the response string to send back to the client.
+	 */
+	String insertBeacon(Reader reader, String remoteAddress);
 }
@@ -0,0 +1,189 @@
+package rocks.inspectit.agent.java.eum.data;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Limits the amount of beacon elements accepted per client in one second window. Protects the
+ * monitored application against clients flooding the beacon endpoint.
+ * <p>
+ * A client is identified by any key, usually the session id for known sessions and the remote
+ * address for requests asking for a new session. The windows are kept in the access order, so
+ * that windows which are over are evicted first and once {@link #MAX_TRACKED_CLIENTS} is reached
+ * the least recently used window is evicted. Evicting a window which is over does not lose any
+ * information as its permits would be reset on the next access anyway.
+ *
+ * @author Ivan Senic
+ *
+ */
+class SessionRateLimiter {
+
+	/**
+	 * Length of the window in milliseconds.
+	 */
+	static final long WINDOW_LENGTH = 1000L;
+
+	/**
+	 * Max amount of clients tracked, when exceeded the least recently used window is evicted.
+	 */
+	static final int MAX_TRACKED_CLIENTS = 10000;
+
+	/**
+	 * Max amount of elements per client and window, zero or negative for no limit.
+	 */
+	private final int maxElementsPerWindow;
+
+	/**
+	 * Current windows by the client key in the access order. Guarded by itself.
+	 */
+	private final LinkedHashMap<Object, Window> windows = new LinkedHashMap<Object, Window>(16, 0.75f, true) {
+
+		/**
+		 * Generated UID.
+		 */
+		private static final long serialVersionUID = 2925378713546394620L;
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Object, Window> eldest) {
+			return size() > MAX_TRACKED_CLIENTS;
+		}
+	};
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param maxElementsPerWindow
+	 *            Max amount of elements per client and window, zero or negative for no limit.
+	 */
+	SessionRateLimiter(int maxElementsPerWindow) {
+		this.maxElementsPerWindow = maxElementsPerWindow;
+	}
+
+	/**
+	 * Returns if the limiter is active.
+	 *
+	 * @return If the limiter is active.
+	 */
+	boolean isActive() {
+		return maxElementsPerWindow > 0;
+	}
+
+	/**
+	 * Returns the amount of elements the client can still deliver in the current window without
+	 * acquiring them. Does not start tracking the client.
+	 *
+	 * @param key
+	 *            Key of the client. <code>null</code> for no limit.
+	 * @param currentTime
+	 *            Current time in milliseconds.
+	 * @return Amount of elements that can be accepted, {@link Integer#MAX_VALUE} if there is no
+	 *         limit.
+	 */
+	int available(Object key, long currentTime) {
+		if (!isActive() || (null == key)) {
+			return Integer.MAX_VALUE;
+		}
+
+		synchronized (windows) {
+			Window window = windows.get(key);
+			if ((null == window) || window.isOver(currentTime)) {
+				return maxElementsPerWindow;
+			}
+			return maxElementsPerWindow - window.accepted;
+		}
+	}
+
+	/**
+	 * Acquires the permits for the given amount of elements of the client.
+	 *
+	 * @param key
+	 *            Key of the client. <code>null</code> for no limit.
+	 * @param elements
+	 *            Amount of elements to acquire permits for.
+	 * @param currentTime
+	 *            Current time in milliseconds.
+	 * @return Amount of elements that can be accepted, can be less than requested.
+	 */
+	int acquire(Object key, int elements, long currentTime) {
+		if (!isActive() || (null == key) || (elements <= 0)) {
+			return elements;
+		}
+
+		synchronized (windows) {
+			Window window = windows.get(key);
+			if (null == window) {
+				evictOver(currentTime);
+				window = new Window();
+				window.start = currentTime;
+				windows.put(key, window);
+			} else if (window.isOver(currentTime)) {
+				window.start = currentTime;
+				window.accepted = 0;
+			}
+			int permitted = Math.min(elements, maxElementsPerWindow - window.accepted);
+			window.accepted += permitted;
+			return permitted;
+		}
+	}
+
+	/**
+	 * Returns the amount of tracked clients.
+	 *
+	 * @return Amount of tracked clients.
+	 */
+	int getTrackedClients() {
+		synchronized (windows) {
+			return windows.size();
+		}
+	}
+
+	/**
+	 * Evicts the least recently used windows as long as they are over. Must be called holding the
+	 * lock on the windows.
+	 *
+	 * @param currentTime
+	 *            Current time in milliseconds.
+	 */
+	private void evictOver(long currentTime) {
+		for (Iterator<Window> it = windows.values().iterator(); it.hasNext();) {
+			if (!it.next().isOver(currentTime)) {
+				break;
+			}
+			it.remove();
+		}
+	}
+
+	/**
+	 * Elements accepted in the current window of one client. Guarded by the windows map.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static class Window {
+
+		/**
+		 * Start of the window.
+		 */
+		private long start;
+
+		/**
+		 * Accepted elements in the window.
+		 */
+		private int accepted;
+
+		/**
+		 * Returns if the window is over.
+		 *
+		 * @param currentTime
+		 *            Current time in milliseconds.
+		 * @return If the window is over.
+		 */
+		boolean isOver(long currentTime) {
+			return (currentTime - start) >= WINDOW_LENGTH;
+		}
+	}
+}
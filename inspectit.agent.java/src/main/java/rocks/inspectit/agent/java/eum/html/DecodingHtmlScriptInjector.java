@@ -7,6 +7,9 @@ import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,6 +18,12 @@ import org.slf4j.LoggerFactory;
  * Decorates the {@link StreamedHtmlScriptInjector} with the functionality to also perform injection
  * on binary data as long as the character encoding is known. Simultaneously, this injector also
  * accepts already decoded Character data just as the {@link StreamedHtmlScriptInjector}.
+ * <p>
+ * If the binary injection is active and the encoding is ASCII compatible (every byte below 0x80
+ * represents the ASCII character and no other byte does), the binary data is not decoded at all.
+ * The parser then works on a view of the bytes as ISO-8859-1 characters, which preserves all the
+ * ASCII characters of the html markup, and the encoded tag is inserted directly at the found byte
+ * position.
  *
  * @author Jonas Kunz
  *
@@ -31,6 +40,17 @@ public class DecodingHtmlScriptInjector extends StreamedHtmlScriptInjector {
 	 */
 	private static final byte[] NO_LEFTOVER_CHARACTER_BYTES = {};
 
+	/**
+	 * Canonical names of the ASCII compatible charsets for which the binary injection can be
+	 * performed without decoding.
+	 */
+	private static final Set<String> ASCII_COMPATIBLE_CHARSETS = new HashSet<String>(Arrays.asList("UTF-8", "US-ASCII", "ISO-8859-1", "ISO-8859-15", "windows-1252"));
+
+	/**
+	 * Charset used for viewing the tag bytes as characters.
+	 */
+	private static final Charset BYTE_VIEW_CHARSET = Charset.forName("ISO-8859-1");
+
 	/**
 	 * The charset name of the encoding of the binary data.
 	 */
@@ -65,7 +85,29 @@ public class DecodingHtmlScriptInjector extends StreamedHtmlScriptInjector {
 	private byte[] leftOver = NO_LEFTOVER_CHARACTER_BYTES;
 
 	/**
-	 * Creates and initializes a new injector.
+	 * If the injection on the binary data without decoding should be performed for ASCII
+	 * compatible charsets.
+	 */
+	private boolean binaryInjection;
+
+	/**
+	 * The encoded tag to inject, only set if the binary injection is performed.
+	 */
+	private byte[] encodedTag;
+
+	/**
+	 * The encoded tag viewed as ISO-8859-1 characters, only set if the binary injection is
+	 * performed.
+	 */
+	private String encodedTagView;
+
+	/**
+	 * Reusable view of the binary data as characters.
+	 */
+	private ByteCharSequence byteView;
+
+	/**
+	 * Creates and initializes a new injector which always decodes the binary data.
 	 *
 	 * @param tagToInject
 	 *            the tag which this injector should try to inject.
@@ -73,8 +115,24 @@ public class DecodingHtmlScriptInjector extends StreamedHtmlScriptInjector {
 	 *            the default encoding to assume if no other is specified
 	 */
 	public DecodingHtmlScriptInjector(String tagToInject, String defaultCharset) {
+		this(tagToInject, defaultCharset, false);
+	}
+
+	/**
+	 * Creates and initializes a new injector.
+	 *
+	 * @param tagToInject
+	 *            the tag which this injector should try to inject.
+	 * @param defaultCharset
+	 *            the default encoding to assume if no other is specified
+	 * @param binaryInjection
+	 *            if the binary data of ASCII compatible charsets should be processed without
+	 *            decoding
+	 */
+	public DecodingHtmlScriptInjector(String tagToInject, String defaultCharset, boolean binaryInjection) {
 		super(tagToInject);
 		charSet = defaultCharset;
+		this.binaryInjection = binaryInjection;
 	}
 
 	/**
@@ -122,6 +180,12 @@ public class DecodingHtmlScriptInjector extends StreamedHtmlScriptInjector {
 			return null;
 		}
 
+		// Fetch den- and encoder for the configured character set
+		fetchCoders();
+		if (null != encodedTag) {
+			return performBinaryInjection(encodedHtmlData, offset, len);
+		}
+
 		// remember the previous left-over so we can remove it again if we perform an injection
 		int previousLeftoverSize = leftOver.length;
 		CharSequence decodedStr = decodeWithLeftOver(encodedHtmlData, offset, len);
@@ -181,6 +245,41 @@ public class DecodingHtmlScriptInjector extends StreamedHtmlScriptInjector {
 		leftOver = NO_LEFTOVER_CHARACTER_BYTES;
 		encodeBuffer = null; // NOPMD
 		decodeBuffer = null; // NOPMD
+		byteView = null; // NOPMD
+	}
+
+	/**
+	 * Performs the injection directly on the binary data of an ASCII compatible charset.
+	 *
+	 * @param encodedHtmlData
+	 *            the character encoded with the previously specified encoding
+	 * @param offset
+	 *            the offset of the data within encodedHtmlData in bytes
+	 * @param len
+	 *            the length of the data within encodedHtmlData in bytes
+	 * @return null, if no injection was performed. Otherwise, a copy of the input encoded data
+	 *         (starting at the given offset with the given length) with the encoded script tag
+	 *         inserted.
+	 */
+	private byte[] performBinaryInjection(byte[] encodedHtmlData, int offset, int len) {
+		if (null == byteView) {
+			byteView = new ByteCharSequence();
+		}
+		byteView.wrap(encodedHtmlData, offset, len);
+		int injectionPos = findInjectionPoint(byteView, encodedTagView);
+		if (null != byteView) {
+			// do not keep a reference to the data of the application
+			byteView.wrap(NO_LEFTOVER_CHARACTER_BYTES, 0, 0);
+		}
+		if (injectionPos == NO_INJECTION) {
+			return null;
+		}
+
+		byte[] modifiedData = new byte[len + encodedTag.length];
+		System.arraycopy(encodedHtmlData, offset, modifiedData, 0, injectionPos);
+		System.arraycopy(encodedTag, 0, modifiedData, injectionPos, encodedTag.length);
+		System.arraycopy(encodedHtmlData, offset + injectionPos, modifiedData, injectionPos + encodedTag.length, len - injectionPos);
+		return modifiedData;
 	}
 
 	/**
@@ -192,6 +291,10 @@ public class DecodingHtmlScriptInjector extends StreamedHtmlScriptInjector {
 				Charset chars = Charset.forName(charSet);
 				charEncoder = chars.newEncoder();
 				charDecoder = chars.newDecoder();
+				if (binaryInjection && ASCII_COMPATIBLE_CHARSETS.contains(chars.name()) && charEncoder.canEncode(getTagToInject())) {
+					encodedTag = getTagToInject().getBytes(chars);
+					encodedTagView = new String(encodedTag, BYTE_VIEW_CHARSET);
+				}
 			} catch (Exception e) {
 				LOG.error("Error fetching decoder for charset " + charSet, e);
 			}
@@ -213,8 +316,6 @@ public class DecodingHtmlScriptInjector extends StreamedHtmlScriptInjector {
 	 * @return the decoded characters, if successful, null otherwise.
 	 */
 	private CharSequence decodeWithLeftOver(byte[] data, int offset, int length) {
-		// Fetch den- and encoder for the configured character set
-		fetchCoders();
 		if (!codersInitialized()) {
 			return null; // error, cannot decode as the charset was not supported.
 		}
@@ -273,4 +374,77 @@ public class DecodingHtmlScriptInjector extends StreamedHtmlScriptInjector {
 		return (charEncoder != null) && (charDecoder != null);
 	}
 
+	/**
+	 * View of a part of a byte array as ISO-8859-1 characters. Used by the binary injection, the
+	 * view is reused for every call so that no data is copied or allocated.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static class ByteCharSequence implements CharSequence {
+
+		/**
+		 * Viewed data.
+		 */
+		private byte[] data;
+
+		/**
+		 * Offset of the view in the data.
+		 */
+		private int offset;
+
+		/**
+		 * Length of the view.
+		 */
+		private int length;
+
+		/**
+		 * Sets the viewed part of the data.
+		 *
+		 * @param data
+		 *            Viewed data.
+		 * @param offset
+		 *            Offset of the view in the data.
+		 * @param length
+		 *            Length of the view.
+		 */
+		void wrap(byte[] data, int offset, int length) {
+			this.data = data;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int length() {
+			return length;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public char charAt(int index) {
+			return (char) (data[offset + index] & 0xFF);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return toString().substring(start, end);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public String toString() {
+			return new String(data, offset, length, BYTE_VIEW_CHARSET);
+		}
+	}
+
 }
@@ -21,6 +21,12 @@ import rocks.inspectit.agent.java.util.CharacterRingBuffer;
  */
 public class StreamedHtmlScriptInjector {
 
+	/**
+	 * Returned by {@link #findInjectionPoint(CharSequence, String)} if no injection should be
+	 * performed.
+	 */
+	protected static final int NO_INJECTION = -1;
+
 	/**
 	 * The ringbuffer used for storing the html source. Data gets erased from the beginning as soon
 	 * as it has been identified as a valid HTML token to keep the memory footprint low.
@@ -117,9 +123,34 @@ public class StreamedHtmlScriptInjector {
 	 *         injected tag is returned.
 	 */
 	public String performInjection(CharSequence htmlData) {
-		if (hasTerminated()) {
+		int injectionPos = findInjectionPoint(htmlData, tagToInject);
+		if (injectionPos == NO_INJECTION) {
 			return null;
 		}
+		StringBuilder newHtmlData = new StringBuilder(htmlData.length() + tagToInject.length());
+		newHtmlData.append(htmlData, 0, injectionPos);
+		newHtmlData.append(tagToInject);
+		newHtmlData.append(htmlData, injectionPos, htmlData.length());
+		return newHtmlData.toString();
+	}
+
+	/**
+	 * Appends the given source code to the internal buffer and searches for the injection point.
+	 * The search is terminated as soon as the injection point has been found, thus every
+	 * successive call returns immediately.
+	 *
+	 * @param htmlData
+	 *            the new data to append to the internal buffer of html source
+	 * @param tagToMatch
+	 *            the tag as it would appear in the html data, used to detect if the tag is already
+	 *            present at the injection point
+	 * @return the position within the given htmlData where the tag has to be inserted or
+	 *         {@link #NO_INJECTION} if no injection should be performed.
+	 */
+	protected int findInjectionPoint(CharSequence htmlData, String tagToMatch) {
+		if (hasTerminated()) {
+			return NO_INJECTION;
+		}
 		Caret caret = tokenParser.getCaret();
 		int sourceAppendPos = htmlSource.length();
 		htmlSource.append(htmlData);
@@ -130,26 +161,21 @@ public class StreamedHtmlScriptInjector {
 			switch (tokenParsingResult) {
 			case FAILURE:
 				abortInjectionPointSearch();
-				return null;
+				return NO_INJECTION;
 			case INCOMPLETE:
-				return null;
+				return NO_INJECTION;
 			case SUCCESS:
 				processToken();
 				if (status == Status.INJECTION_POINT_FOUND) {
-					String returnValue;
+					int injectionPos;
 					// attempt to prevent double injection
-					if (!caret.startsWithCheckCase(tagToInject)) {
-						StringBuilder newHtmlData = new StringBuilder();
-						int normalizedCaretPos = caret.getOffset() - sourceAppendPos;
-						newHtmlData.append(htmlData.subSequence(0, normalizedCaretPos));
-						newHtmlData.append(tagToInject);
-						newHtmlData.append(htmlData.subSequence(normalizedCaretPos, htmlData.length()));
-						returnValue = newHtmlData.toString();
+					if (!caret.startsWithCheckCase(tagToMatch)) {
+						injectionPos = caret.getOffset() - sourceAppendPos;
 					} else {
-						returnValue = null; // NOPMD
+						injectionPos = NO_INJECTION;
 					}
 					abortInjectionPointSearch();
-					return returnValue;
+					return injectionPos;
 				} else if (status != Status.TERMINATED) {
 					// free processed token
 					htmlSource.erase(caret.getOffset());
@@ -163,7 +189,14 @@ public class StreamedHtmlScriptInjector {
 				throw new RuntimeException("Unhandled token parsing result: " + tokenParsingResult);
 			}
 		}
-		return null;
+		return NO_INJECTION;
+	}
+
+	/**
+	 * @return the tag which this injector tries to inject.
+	 */
+	protected String getTagToInject() {
+		return tagToInject;
 	}
 
 	/**
@@ -13,7 +13,9 @@ import rocks.inspectit.agent.java.proxy.ProxyMethod;
 
 /**
  * A ServletOutputStream which injects the given tag on the fly into the head (or another appropriate) section of the document.
- * Automatically detects non-html and then falls back to just piping the data through.
+ * Automatically detects non-html and then falls back to just piping the data through. For ASCII
+ * compatible encodings the binary data is inspected without decoding and as soon as the injection
+ * point has been found the remaining data is passed through without inspection.
  *
  * @author Jonas Kunz
  */
@@ -51,7 +53,7 @@ public class TagInjectionOutputStream extends OutputStream implements IProxySubj
 	 */
 	public TagInjectionOutputStream(Object originalStream, String tagToInject) {
 		this.originalStream = WServletOutputStream.wrap((OutputStream) originalStream);
-		injector = new DecodingHtmlScriptInjector(tagToInject, DEFAULT_ENCODING);
+		injector = new DecodingHtmlScriptInjector(tagToInject, DEFAULT_ENCODING, true);
 	}
 
 	@Override
@@ -228,6 +230,10 @@ public class TagInjectionOutputStream extends OutputStream implements IProxySubj
 	 */
 	@ProxyMethod
 	public void println(boolean b) throws IOException {
+		if (injector.hasTerminated()) {
+			originalStream.println(b);
+			return;
+		}
 		String newValue = injector.performInjection(b + NL);
 		if (newValue == null) {
 			originalStream.println(b);
@@ -246,6 +252,10 @@ public class TagInjectionOutputStream extends OutputStream implements IProxySubj
 	 */
 	@ProxyMethod
 	public void println(char c) throws IOException {
+		if (injector.hasTerminated()) {
+			originalStream.println(c);
+			return;
+		}
 		String newValue = injector.performInjection(c + NL);
 		if (newValue == null) {
 			originalStream.println(c);
@@ -264,6 +274,10 @@ public class TagInjectionOutputStream extends OutputStream implements IProxySubj
 	 */
 	@ProxyMethod
 	public void println(double d) throws IOException {
+		if (injector.hasTerminated()) {
+			originalStream.println(d);
+			return;
+		}
 		String newValue = injector.performInjection(d + NL);
 		if (newValue == null) {
 			originalStream.println(d);
@@ -282,6 +296,10 @@ public class TagInjectionOutputStream extends OutputStream implements IProxySubj
 	 */
 	@ProxyMethod
 	public void println(float f) throws IOException {
+		if (injector.hasTerminated()) {
+			originalStream.println(f);
+			return;
+		}
 		String newValue = injector.performInjection(f + NL);
 		if (newValue == null) {
 			originalStream.println(f);
@@ -300,6 +318,10 @@ public class TagInjectionOutputStream extends OutputStream implements IProxySubj
 	 */
 	@ProxyMethod
 	public void println(int i) throws IOException {
+		if (injector.hasTerminated()) {
+			originalStream.println(i);
+			return;
+		}
 		String newValue = injector.performInjection(i + NL);
 		if (newValue == null) {
 			originalStream.println(i);
@@ -318,6 +340,10 @@ public class TagInjectionOutputStream extends OutputStream implements IProxySubj
 	 */
 	@ProxyMethod
 	public void println(long l) throws IOException {
+		if (injector.hasTerminated()) {
+			originalStream.println(l);
+			return;
+		}
 		String newValue = injector.performInjection(l + NL);
 		if (newValue == null) {
 			originalStream.println(l);
@@ -336,6 +362,10 @@ public class TagInjectionOutputStream extends OutputStream implements IProxySubj
 	 */
 	@ProxyMethod
 	public void println(String s) throws IOException {
+		if (injector.hasTerminated()) {
+			originalStream.println(s);
+			return;
+		}
 		String newValue = injector.performInjection(s + NL);
 		if (newValue == null) {
 			originalStream.println(s);
@@ -348,6 +378,10 @@ public class TagInjectionOutputStream extends OutputStream implements IProxySubj
 	@Override
 	@ProxyMethod
 	public void write(int b) throws IOException {
+		if (injector.hasTerminated()) {
+			originalStream.write(b);
+			return;
+		}
 		byte[] newValue = injector.performInjection(new byte[] { (byte) b });
 		if (newValue == null) {
 			originalStream.write(b);
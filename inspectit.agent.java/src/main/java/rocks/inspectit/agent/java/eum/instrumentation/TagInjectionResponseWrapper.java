@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 import rocks.inspectit.agent.java.eum.reflection.WCookie;
 import rocks.inspectit.agent.java.eum.reflection.WHttpServletRequest;
@@ -33,6 +34,16 @@ public class TagInjectionResponseWrapper implements IProxySubject {
 	 */
 	private static final String CONTENT_LENGTH_HEADER_NAME = "Content-Length";
 
+	/**
+	 * The name of the HTML header specifying the content encoding (compression).
+	 */
+	private static final String CONTENT_ENCODING_HEADER_NAME = "Content-Encoding";
+
+	/**
+	 * The content encoding value representing no compression.
+	 */
+	private static final String IDENTITY_CONTENT_ENCODING = "identity";
+
 	/**
 	 * if getOutputStream() was called on this class, this variable will hold the generated stream.
 	 */
@@ -79,6 +90,12 @@ public class TagInjectionResponseWrapper implements IProxySubject {
 	 */
 	private boolean headerCommitted = false;
 
+	/**
+	 * Flag whether a content encoding header was set, meaning that the content is compressed and
+	 * can not be inspected.
+	 */
+	private boolean contentEncoded = false;
+
 	/**
 	 * Constructor. After the Construction, a proxy has to be generated using a
 	 * {@link IRuntimeLinker}.
@@ -128,7 +145,7 @@ public class TagInjectionResponseWrapper implements IProxySubject {
 		if (wrappedWriter == null) {
 			PrintWriter originalWriter = wrappedResponse.getWriter();
 			// avoid rewrapping or unnecessary wrapping
-			if (isNonHtmlContentTypeSet() || (originalWriter instanceof TagInjectionPrintWriter)) {
+			if (isInjectionSkipped() || (originalWriter instanceof TagInjectionPrintWriter)) {
 				wrappedWriter = originalWriter;
 			} else {
 				wrappedWriter = new TagInjectionPrintWriter(originalWriter, tagToInject.printTags());
@@ -151,7 +168,7 @@ public class TagInjectionResponseWrapper implements IProxySubject {
 		if (wrappedStream == null) {
 			OutputStream originalStream = wrappedResponse.getOutputStream();
 			// avoid rewrapping or unnecessary wrapping
-			if (isNonHtmlContentTypeSet() || linker.isProxyInstance(originalStream, TagInjectionOutputStream.class)) {
+			if (isInjectionSkipped() || linker.isProxyInstance(originalStream, TagInjectionOutputStream.class)) {
 				wrappedStream = originalStream;
 			} else {
 				TagInjectionOutputStream resultStr = new TagInjectionOutputStream(originalStream, tagToInject.printTags());
@@ -212,6 +229,7 @@ public class TagInjectionResponseWrapper implements IProxySubject {
 	 */
 	@ProxyMethod
 	public void addHeader(final String name, final String value) {
+		checkContentEncoding(name, value);
 		if (CONTENT_LENGTH_HEADER_NAME.equalsIgnoreCase(name)) {
 			contentLengthHeaderModifications.add(new Runnable() {
 				@Override
@@ -256,6 +274,7 @@ public class TagInjectionResponseWrapper implements IProxySubject {
 	 */
 	@ProxyMethod
 	public void setHeader(final String name, final String value) {
+		checkContentEncoding(name, value);
 		if (CONTENT_LENGTH_HEADER_NAME.equalsIgnoreCase(name)) {
 			contentLengthHeaderModifications.add(new Runnable() {
 				@Override
@@ -299,7 +318,7 @@ public class TagInjectionResponseWrapper implements IProxySubject {
 			return;
 		}
 		headerCommitted = true;
-		if (isNonHtmlContentTypeSet()) {
+		if (isInjectionSkipped()) {
 			// replicate the commands setting the content-length
 			for (Runnable cmd : contentLengthHeaderModifications) {
 				cmd.run();
@@ -364,13 +383,41 @@ public class TagInjectionResponseWrapper implements IProxySubject {
 		}
 	}
 
+	/**
+	 * Remembers if the header sets a content encoding other than identity.
+	 *
+	 * @param name
+	 *            the name of the header
+	 * @param value
+	 *            the value of the header
+	 */
+	private void checkContentEncoding(String name, String value) {
+		if (CONTENT_ENCODING_HEADER_NAME.equalsIgnoreCase(name) && (null != value) && !IDENTITY_CONTENT_ENCODING.equalsIgnoreCase(value.trim())) {
+			contentEncoded = true;
+		}
+	}
+
+	/**
+	 * Decides up front if the response content is not inspected at all. This is the case if a non
+	 * html content type or a content encoding (compression) has been set.
+	 *
+	 * @return true, if no injection should be attempted
+	 */
+	private boolean isInjectionSkipped() {
+		return contentEncoded || isNonHtmlContentTypeSet();
+	}
+
 	/**
 	 * @return true, if the content header was set to a type which is not html.
 	 */
 	private boolean isNonHtmlContentTypeSet() {
 		String contentMime = wrappedResponse.getContentType();
+		if (contentMime == null) {
+			return false;
+		}
+		contentMime = contentMime.trim().toLowerCase(Locale.ENGLISH);
 
-		return !((contentMime == null) || contentMime.startsWith("text/html") || contentMime.startsWith("application/xhtml+xml"));
+		return !(contentMime.startsWith("text/html") || contentMime.startsWith("application/xhtml+xml"));
 
 	}
 
@@ -32,6 +32,10 @@ public final class WHttpServletRequest {
 	 * See {@link javax.servlet.http.HttpServletRequest#getCookies()}.
 	 */
 	private static final CachedMethod<Object[]> GET_COOKIES = new CachedMethod<Object[]>(CLAZZ, "getCookies");
+	/**
+	 * See {@link javax.servlet.ServletRequest#getRemoteAddr()}.
+	 */
+	private static final CachedMethod<String> GET_REMOTE_ADDR = new CachedMethod<String>(CLAZZ, "getRemoteAddr");
 
 	/**
 	 * the wrapped {@link javax.servlet.http.HttpServletRequest} instance.
@@ -102,4 +106,13 @@ public final class WHttpServletRequest {
 	public Object[] getCookies() {
 		return GET_COOKIES.callSafe(instance);
 	}
+
+	/**
+	 * See {@link javax.servlet.ServletRequest#getRemoteAddr()}.
+	 *
+	 * @return the IP address of the client
+	 */
+	public String getRemoteAddr() {
+		return GET_REMOTE_ADDR.callSafe(instance);
+	}
 }
@@ -58,6 +58,62 @@ public interface IHookDispatcher {
 	 */
 	void dispatchSecondMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue, boolean exception);
 
+	/**
+	 * Dispatches both 'after' method statements, first one and then the second one, with a single
+	 * call. Used by the instrumented methods as there is nothing to execute between the two
+	 * statements.
+	 *
+	 * @param id
+	 *            The id of the method.
+	 * @param object
+	 *            The instance of the class or the class itself.
+	 * @param parameters
+	 *            The parameters of the method or <code>null</code> if no sensor on the method
+	 *            needs them.
+	 * @param returnValue
+	 *            The return value of the method or exception thrown by method. Can be
+	 *            <code>null</code> if no sensor on the method needs the return value.
+	 * @param exception
+	 *            If method exited as result of exception. If <code>true</code> then the returnValue
+	 *            parameter will be the exception and not the return value of the method execution
+	 *            as such does not exist.
+	 */
+	void dispatchMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue, boolean exception);
+
+	/**
+	 * Dispatches the 'before' method statement for the method that was given the dispatch index
+	 * with {@link IHookDispatcherMapper#getDispatchIndex(long)}.
+	 *
+	 * @param index
+	 *            The dispatch index of the method.
+	 * @param object
+	 *            The instance of the class or the class itself.
+	 * @param parameters
+	 *            The parameters of the method or <code>null</code> if no sensor on the method
+	 *            needs them.
+	 */
+	void dispatchIndexedMethodBeforeBody(int index, Object object, Object[] parameters);
+
+	/**
+	 * Dispatches both 'after' method statements for the method that was given the dispatch index
+	 * with {@link IHookDispatcherMapper#getDispatchIndex(long)}.
+	 *
+	 * @param index
+	 *            The dispatch index of the method.
+	 * @param object
+	 *            The instance of the class or the class itself.
+	 * @param parameters
+	 *            The parameters of the method or <code>null</code> if no sensor on the method
+	 *            needs them.
+	 * @param returnValue
+	 *            The return value of the method or exception thrown by method. Can be
+	 *            <code>null</code> if no sensor on the method needs the return value.
+	 * @param exception
+	 *            If method exited as result of exception.
+	 * @see #dispatchMethodAfterBody(long, Object, Object[], Object, boolean)
+	 */
+	void dispatchIndexedMethodAfterBody(int index, Object object, Object[] parameters, Object returnValue, boolean exception);
+
 	/**
 	 * Dispatches the 'addCatch' statement of a method.
 	 *
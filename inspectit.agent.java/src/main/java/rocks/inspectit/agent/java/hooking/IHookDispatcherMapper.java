@@ -31,4 +31,19 @@ public interface IHookDispatcherMapper {
 	 *            The {@link SpecialSensorConfig} object of this mapping.
 	 */
 	void addMapping(long id, SpecialSensorConfig ssc);
+
+	/**
+	 * Returns the dense dispatch index for the method or constructor with the given id. The index
+	 * is assigned on the first call and stays the same for the id afterwards. The
+	 * {@link RegisteredSensorConfig} later added with {@link #addMapping(long, RegisteredSensorConfig)}
+	 * for the same id is then also available to the
+	 * {@link IHookDispatcher#dispatchIndexedMethodBeforeBody(int, Object, Object[])} and
+	 * {@link IHookDispatcher#dispatchIndexedMethodAfterBody(int, Object, Object[], Object, boolean)}
+	 * calls.
+	 *
+	 * @param id
+	 *            The id of the mapping.
+	 * @return Dispatch index.
+	 */
+	int getDispatchIndex(long id);
 }
@@ -1,5 +1,9 @@
 package rocks.inspectit.agent.java.hooking.impl;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.cliffc.high_scale_lib.NonBlockingHashMapLong;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,6 +36,11 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 @Component
 public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 
+	/**
+	 * Initial size of the {@link #indexedMappings} array.
+	 */
+	private static final int INITIAL_INDEXED_MAPPINGS_SIZE = 1024;
+
 	/**
 	 * The logger of this class.
 	 */
@@ -75,20 +84,27 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	private final NonBlockingHashMapLong<SpecialSensorConfig> specialMappings = new NonBlockingHashMapLong<SpecialSensorConfig>();
 
 	/**
-	 * Stores the current Status of the invocation sequence tracer in a {@link ThreadLocal} object.
+	 * Mappings indexed by the dispatch index assigned in {@link #getDispatchIndex(long)}. The array
+	 * is copied when it needs to grow, thus reading threads never need to lock.
 	 */
-	private final InvocationSequenceCount invocationSequenceCount = new InvocationSequenceCount();
+	private volatile RegisteredSensorConfig[] indexedMappings = new RegisteredSensorConfig[INITIAL_INDEXED_MAPPINGS_SIZE];
 
 	/**
-	 * A thread local holder object to save the current started invocation sequence.
+	 * Assigned dispatch indexes for method ids. Also used as the lock for changing
+	 * {@link #indexedMappings}.
 	 */
-	private final ThreadLocal<IHook> invocationSequenceHolder = new ThreadLocal<IHook>();
+	private final Map<Long, Integer> dispatchIndexes = new HashMap<Long, Integer>();
 
 	/**
-	 * If an execution of the dispatching is already in progress, we don't dispatch anything else
-	 * for this thread.
+	 * Holds the {@link DispatchContext} of each thread, so that the dispatching needs only one
+	 * thread local look-up per call.
 	 */
-	private final ExecutionMarker executionMarker = new ExecutionMarker();
+	private final ThreadLocal<DispatchContext> dispatchContext = new ThreadLocal<DispatchContext>() {
+		@Override
+		protected DispatchContext initialValue() {
+			return new DispatchContext();
+		}
+	};
 
 	/**
 	 * {@inheritDoc}
@@ -96,6 +112,13 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	@Override
 	public void addMapping(long id, RegisteredSensorConfig rsc) {
 		mappings.put(id, rsc);
+
+		synchronized (dispatchIndexes) {
+			Integer index = dispatchIndexes.get(Long.valueOf(id));
+			if (null != index) {
+				setIndexedMapping(index.intValue(), rsc);
+			}
+		}
 	}
 
 	/**
@@ -106,39 +129,60 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 		specialMappings.put(id, ssc);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getDispatchIndex(long id) {
+		synchronized (dispatchIndexes) {
+			Integer index = dispatchIndexes.get(Long.valueOf(id));
+			if (null == index) {
+				index = Integer.valueOf(dispatchIndexes.size());
+				dispatchIndexes.put(Long.valueOf(id), index);
+
+				// mapping could already exist if method is instrumented again
+				RegisteredSensorConfig rsc = mappings.get(id);
+				if (null != rsc) {
+					setIndexedMapping(index.intValue(), rsc);
+				}
+			}
+			return index.intValue();
+		}
+	}
+
+	/**
+	 * Sets the {@link RegisteredSensorConfig} to the given index in the {@link #indexedMappings},
+	 * growing the array if needed. Caller must hold the {@link #dispatchIndexes} lock.
+	 *
+	 * @param index
+	 *            Dispatch index.
+	 * @param rsc
+	 *            {@link RegisteredSensorConfig}
+	 */
+	private void setIndexedMapping(int index, RegisteredSensorConfig rsc) {
+		RegisteredSensorConfig[] current = indexedMappings;
+		if (index >= current.length) {
+			current = Arrays.copyOf(current, Math.max(current.length * 2, index + 1));
+		}
+		current[index] = rsc;
+		// volatile write publishes the change to the dispatching threads
+		indexedMappings = current;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public void dispatchMethodBeforeBody(long id, Object object, Object[] parameters) {
-		if (!executionMarker.isActive()) {
+		DispatchContext context = dispatchContext.get();
+		if (!context.active) {
 			try {
-				executionMarker.active();
+				context.active = true;
 
 				try {
 					RegisteredSensorConfig rsc = mappings.get(id);
 
-					if (rsc.isStartsInvocation()) {
-						// The sensor configuration contains an invocation sequence
-						// sensor. We have to set it on the thread local map for later
-						// access. Additionally, we need to save the count of the called
-						// invocation sensors, as another nested one could be started,
-						// too.
-						invocationSequenceCount.increment();
-
-						if (null == invocationSequenceHolder.get()) {
-							invocationSequenceHolder.set(invocationSequenceSensor.getHook());
-						}
-					} else if (null != invocationSequenceHolder.get()) {
-						// We are executing the following sensor types in an invocation
-						// sequence context, thus we have to execute the before body
-						// method of the invocation sequence hook manually.
-						IMethodHook invocationHook = (IMethodHook) invocationSequenceHolder.get();
-
-						// The sensor type ID is not important here, thus we are passing
-						// a -1. It is already stored in the data object
-						invocationHook.beforeBody(id, -1, object, parameters, rsc);
-					}
+					invocationBeforeBody(context, id, object, parameters, rsc);
 
 					// Now iterate over all registered sensor types and execute them
 					// reverse execution (sensor with lowest priority first)
@@ -150,7 +194,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					log.error("An error happened in the Hook Dispatcher! (before body)", throwable);
 				}
 			} finally {
-				executionMarker.deactive();
+				context.active = false;
 			}
 		}
 	}
@@ -160,24 +204,85 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchFirstMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue, boolean exception) {
-		if (!executionMarker.isActive()) {
+		DispatchContext context = dispatchContext.get();
+		if (!context.active) {
+			try {
+				context.active = true;
+
+				firstMethodAfterBody(id, mappings.get(id), object, parameters, returnValue, exception);
+			} finally {
+				context.active = false;
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void dispatchSecondMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue, boolean exception) {
+		DispatchContext context = dispatchContext.get();
+		if (!context.active) {
+			try {
+				context.active = true;
+
+				secondMethodAfterBody(context, id, mappings.get(id), object, parameters, returnValue, exception);
+			} finally {
+				context.active = false;
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void dispatchMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue, boolean exception) {
+		DispatchContext context = dispatchContext.get();
+		if (!context.active) {
 			try {
-				executionMarker.active();
+				context.active = true;
+
+				RegisteredSensorConfig rsc = mappings.get(id);
+				firstMethodAfterBody(id, rsc, object, parameters, returnValue, exception);
+				secondMethodAfterBody(context, id, rsc, object, parameters, returnValue, exception);
+			} finally {
+				context.active = false;
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void dispatchIndexedMethodBeforeBody(int index, Object object, Object[] parameters) {
+		DispatchContext context = dispatchContext.get();
+		if (!context.active) {
+			try {
+				context.active = true;
+
+				RegisteredSensorConfig rsc = getIndexedMapping(index);
+				if (null == rsc) {
+					return;
+				}
 
 				try {
-					RegisteredSensorConfig rsc = mappings.get(id);
+					long id = rsc.getId();
 
-					// Now iterate over all registered sensor types and execute them
-					// normal execution (sensor with highest priority first)
-					for (IMethodSensor methodSensor : rsc.getMethodSensors()) {
-						IMethodHook methodHook = (IMethodHook) methodSensor.getHook();
-						methodHook.firstAfterBody(id, methodSensor.getSensorTypeConfig().getId(), object, parameters, returnValue, exception, rsc);
+					invocationBeforeBody(context, id, object, parameters, rsc);
+
+					// reverse execution (sensor with lowest priority first)
+					IHook[] hooks = rsc.getMethodHooks();
+					long[] sensorTypeIds = rsc.getMethodSensorTypeIds();
+					for (int i = hooks.length - 1; i >= 0; i--) {
+						((IMethodHook) hooks[i]).beforeBody(id, sensorTypeIds[i], object, parameters, rsc);
 					}
 				} catch (Throwable throwable) { // NOPMD
-					log.error("An error happened in the Hook Dispatcher! (after body)", throwable);
+					log.error("An error happened in the Hook Dispatcher! (before body)", throwable);
 				}
 			} finally {
-				executionMarker.deactive();
+				context.active = false;
 			}
 		}
 	}
@@ -186,60 +291,225 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void dispatchSecondMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue, boolean exception) {
-		if (!executionMarker.isActive()) {
+	public void dispatchIndexedMethodAfterBody(int index, Object object, Object[] parameters, Object returnValue, boolean exception) {
+		DispatchContext context = dispatchContext.get();
+		if (!context.active) {
 			try {
-				executionMarker.active();
+				context.active = true;
 
-				try {
-					RegisteredSensorConfig rsc = mappings.get(id);
+				RegisteredSensorConfig rsc = getIndexedMapping(index);
+				if (null == rsc) {
+					return;
+				}
 
-					if (null != invocationSequenceHolder.get()) {
-						// Need to replace the core service with the one from the invocation
-						// sequence so that all data objects can be associated to that invocation
-						// record.
-						ICoreService invocCoreService = (ICoreService) invocationSequenceHolder.get();
+				long id = rsc.getId();
+				IHook[] hooks = rsc.getMethodHooks();
+				long[] sensorTypeIds = rsc.getMethodSensorTypeIds();
 
-						// Now iterate over all registered sensor types and execute them
-						// normal execution (sensor with highest priority first)
-						for (IMethodSensor methodSensor : rsc.getMethodSensors()) {
-							IMethodHook methodHook = (IMethodHook) methodSensor.getHook();
-							// the invocation sequence sensor needs the original core service!
-							long sensorId = methodSensor.getSensorTypeConfig().getId();
-							if (invocCoreService == methodHook) { // NOPMD
-								methodHook.secondAfterBody(coreService, id, sensorId, object, parameters, returnValue, exception, rsc);
-							} else {
-								methodHook.secondAfterBody(invocCoreService, id, sensorId, object, parameters, returnValue, exception, rsc);
-							}
-						}
-					} else {
-						for (IMethodSensor methodSensor : rsc.getMethodSensors()) {
-							IMethodHook methodHook = (IMethodHook) methodSensor.getHook();
-							methodHook.secondAfterBody(coreService, id, methodSensor.getSensorTypeConfig().getId(), object, parameters, returnValue, exception, rsc);
-						}
+				try {
+					// normal execution (sensor with highest priority first)
+					for (int i = 0; i < hooks.length; i++) {
+						((IMethodHook) hooks[i]).firstAfterBody(id, sensorTypeIds[i], object, parameters, returnValue, exception, rsc);
 					}
+				} catch (Throwable throwable) { // NOPMD
+					log.error("An error happened in the Hook Dispatcher! (after body)", throwable);
+				}
 
-					if (rsc.isStartsInvocation()) {
-						invocationSequenceCount.decrement();
-
-						if (0 == invocationSequenceCount.getCount()) {
-							invocationSequenceHolder.set(null);
+				try {
+					// data goes to the invocation if one is active, except for the invocation hook
+					// itself that needs the original core service
+					ICoreService invocCoreService = (ICoreService) context.invocationSequenceHook;
+					for (int i = 0; i < hooks.length; i++) {
+						IMethodHook methodHook = (IMethodHook) hooks[i];
+						if ((null == invocCoreService) || (invocCoreService == methodHook)) { // NOPMD
+							methodHook.secondAfterBody(coreService, id, sensorTypeIds[i], object, parameters, returnValue, exception, rsc);
+						} else {
+							methodHook.secondAfterBody(invocCoreService, id, sensorTypeIds[i], object, parameters, returnValue, exception, rsc);
 						}
-					} else if (null != invocationSequenceHolder.get()) {
-						// We have to execute the after body method of the invocation sequence hook
-						// manually.
-						IMethodHook invocationHook = (IMethodHook) invocationSequenceHolder.get();
-
-						// The sensor type ID is not important here, thus we are passing a -1. It is
-						// already stored in the data object
-						invocationHook.secondAfterBody(coreService, id, -1, object, parameters, returnValue, exception, rsc);
 					}
+
+					invocationAfterBody(context, id, object, parameters, returnValue, exception, rsc);
 				} catch (Throwable throwable) { // NOPMD
 					log.error("An error happened in the Hook Dispatcher! (second after body)", throwable);
 				}
 			} finally {
-				executionMarker.deactive();
+				context.active = false;
+			}
+		}
+	}
+
+	/**
+	 * Returns the {@link RegisteredSensorConfig} with the given dispatch index.
+	 *
+	 * @param index
+	 *            Dispatch index.
+	 * @return {@link RegisteredSensorConfig} or <code>null</code> if mapping for the index has not
+	 *         been added yet.
+	 */
+	private RegisteredSensorConfig getIndexedMapping(int index) {
+		RegisteredSensorConfig[] current = indexedMappings;
+		if (index < current.length) {
+			return current[index];
+		}
+		return null;
+	}
+
+	/**
+	 * Starts the invocation sequence if the method starts it, or executes the before body of the
+	 * invocation sequence hook if the invocation is already active.
+	 *
+	 * @param context
+	 *            {@link DispatchContext} of the current thread.
+	 * @param id
+	 *            The id of the method.
+	 * @param object
+	 *            The instance of the class or the class itself.
+	 * @param parameters
+	 *            The parameters of the method.
+	 * @param rsc
+	 *            {@link RegisteredSensorConfig} of the method.
+	 */
+	private void invocationBeforeBody(DispatchContext context, long id, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
+		if (rsc.isStartsInvocation()) {
+			// The sensor configuration contains an invocation sequence
+			// sensor. We have to set it on the thread context for later
+			// access. Additionally, we need to save the count of the called
+			// invocation sensors, as another nested one could be started,
+			// too.
+			context.invocationSequenceCount++;
+
+			if (null == context.invocationSequenceHook) {
+				context.invocationSequenceHook = invocationSequenceSensor.getHook();
+			}
+		} else if (null != context.invocationSequenceHook) {
+			// We are executing the following sensor types in an invocation
+			// sequence context, thus we have to execute the before body
+			// method of the invocation sequence hook manually.
+			IMethodHook invocationHook = (IMethodHook) context.invocationSequenceHook;
+
+			// The sensor type ID is not important here, thus we are passing
+			// a -1. It is already stored in the data object
+			invocationHook.beforeBody(id, -1, object, parameters, rsc);
+		}
+	}
+
+	/**
+	 * Ends the invocation sequence if the method started it, or executes the second after body of
+	 * the invocation sequence hook if the invocation is active.
+	 *
+	 * @param context
+	 *            {@link DispatchContext} of the current thread.
+	 * @param id
+	 *            The id of the method.
+	 * @param object
+	 *            The instance of the class or the class itself.
+	 * @param parameters
+	 *            The parameters of the method.
+	 * @param returnValue
+	 *            The return value of the method or exception thrown by method.
+	 * @param exception
+	 *            If method exited as result of exception.
+	 * @param rsc
+	 *            {@link RegisteredSensorConfig} of the method.
+	 */
+	private void invocationAfterBody(DispatchContext context, long id, Object object, Object[] parameters, Object returnValue, boolean exception, RegisteredSensorConfig rsc) {
+		if (rsc.isStartsInvocation()) {
+			context.invocationSequenceCount--;
+
+			if (0 == context.invocationSequenceCount) {
+				context.invocationSequenceHook = null;
+			}
+		} else if (null != context.invocationSequenceHook) {
+			// We have to execute the after body method of the invocation sequence hook
+			// manually.
+			IMethodHook invocationHook = (IMethodHook) context.invocationSequenceHook;
+
+			// The sensor type ID is not important here, thus we are passing a -1. It is
+			// already stored in the data object
+			invocationHook.secondAfterBody(coreService, id, -1, object, parameters, returnValue, exception, rsc);
+		}
+	}
+
+	/**
+	 * Executes the first after body method of all hooks of the given {@link RegisteredSensorConfig}.
+	 * Execution marker must be active when calling this method.
+	 *
+	 * @param id
+	 *            The id of the method.
+	 * @param rsc
+	 *            {@link RegisteredSensorConfig} of the method.
+	 * @param object
+	 *            The instance of the class or the class itself.
+	 * @param parameters
+	 *            The parameters of the method.
+	 * @param returnValue
+	 *            The return value of the method or exception thrown by method.
+	 * @param exception
+	 *            If method exited as result of exception.
+	 */
+	private void firstMethodAfterBody(long id, RegisteredSensorConfig rsc, Object object, Object[] parameters, Object returnValue, boolean exception) {
+		try {
+			// Now iterate over all registered sensor types and execute them
+			// normal execution (sensor with highest priority first)
+			for (IMethodSensor methodSensor : rsc.getMethodSensors()) {
+				IMethodHook methodHook = (IMethodHook) methodSensor.getHook();
+				methodHook.firstAfterBody(id, methodSensor.getSensorTypeConfig().getId(), object, parameters, returnValue, exception, rsc);
+			}
+		} catch (Throwable throwable) { // NOPMD
+			log.error("An error happened in the Hook Dispatcher! (after body)", throwable);
+		}
+	}
+
+	/**
+	 * Executes the second after body method of all hooks of the given
+	 * {@link RegisteredSensorConfig}, including the invocation sequence hook if the invocation is
+	 * active. Execution marker must be active when calling this method.
+	 *
+	 * @param context
+	 *            {@link DispatchContext} of the current thread.
+	 * @param id
+	 *            The id of the method.
+	 * @param rsc
+	 *            {@link RegisteredSensorConfig} of the method.
+	 * @param object
+	 *            The instance of the class or the class itself.
+	 * @param parameters
+	 *            The parameters of the method.
+	 * @param returnValue
+	 *            The return value of the method or exception thrown by method.
+	 * @param exception
+	 *            If method exited as result of exception.
+	 */
+	private void secondMethodAfterBody(DispatchContext context, long id, RegisteredSensorConfig rsc, Object object, Object[] parameters, Object returnValue, boolean exception) {
+		try {
+			if (null != context.invocationSequenceHook) {
+				// Need to replace the core service with the one from the invocation
+				// sequence so that all data objects can be associated to that invocation
+				// record.
+				ICoreService invocCoreService = (ICoreService) context.invocationSequenceHook;
+
+				// Now iterate over all registered sensor types and execute them
+				// normal execution (sensor with highest priority first)
+				for (IMethodSensor methodSensor : rsc.getMethodSensors()) {
+					IMethodHook methodHook = (IMethodHook) methodSensor.getHook();
+					// the invocation sequence sensor needs the original core service!
+					long sensorId = methodSensor.getSensorTypeConfig().getId();
+					if (invocCoreService == methodHook) { // NOPMD
+						methodHook.secondAfterBody(coreService, id, sensorId, object, parameters, returnValue, exception, rsc);
+					} else {
+						methodHook.secondAfterBody(invocCoreService, id, sensorId, object, parameters, returnValue, exception, rsc);
+					}
+				}
+			} else {
+				for (IMethodSensor methodSensor : rsc.getMethodSensors()) {
+					IMethodHook methodHook = (IMethodHook) methodSensor.getHook();
+					methodHook.secondAfterBody(coreService, id, methodSensor.getSensorTypeConfig().getId(), object, parameters, returnValue, exception, rsc);
+				}
 			}
+
+			invocationAfterBody(context, id, object, parameters, returnValue, exception, rsc);
+		} catch (Throwable throwable) { // NOPMD
+			log.error("An error happened in the Hook Dispatcher! (second after body)", throwable);
 		}
 	}
 
@@ -248,9 +518,10 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchOnThrowInBody(long id, Object object, Object[] parameters, Object exceptionObject) {
-		if (!executionMarker.isActive()) {
+		DispatchContext context = dispatchContext.get();
+		if (!context.active) {
 			try {
-				executionMarker.active();
+				context.active = true;
 
 				// rsc contains the settings for the actual method where the exception was thrown.
 				RegisteredSensorConfig rsc = mappings.get(id);
@@ -258,10 +529,10 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 				long sensorTypeId = sensorTypeConfig.getId();
 
 				ICoreService invocCoreService = null;
-				if (null != invocationSequenceHolder.get()) {
+				if (null != context.invocationSequenceHook) {
 					// Need to replace the core service with the one from the invocation sequence so
 					// that all data objects can be associated to that invocation record.
-					invocCoreService = (ICoreService) invocationSequenceHolder.get();
+					invocCoreService = (ICoreService) context.invocationSequenceHook;
 				}
 
 				IExceptionSensorHook exceptionHook = (IExceptionSensorHook) exceptionSensor.getHook();
@@ -271,7 +542,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					exceptionHook.dispatchOnThrowInBody(coreService, id, sensorTypeId, object, exceptionObject, parameters, rsc);
 				}
 			} finally {
-				executionMarker.deactive();
+				context.active = false;
 			}
 		}
 	}
@@ -281,19 +552,20 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchBeforeCatch(long id, Object exceptionObject) {
-		if (!executionMarker.isActive()) {
+		DispatchContext context = dispatchContext.get();
+		if (!context.active) {
 			try {
-				executionMarker.active();
+				context.active = true;
 
 				// rsc contains the settings of the actual method where the exception is catched.
 				RegisteredSensorConfig rsc = mappings.get(id);
 				long sensorTypeId = exceptionSensor.getSensorTypeConfig().getId();
 
 				ICoreService invocCoreService = null;
-				if (null != invocationSequenceHolder.get()) {
+				if (null != context.invocationSequenceHook) {
 					// Need to replace the core service with the one from the invocation sequence so
 					// that all data objects can be associated to that invocation record.
-					invocCoreService = (ICoreService) invocationSequenceHolder.get();
+					invocCoreService = (ICoreService) context.invocationSequenceHook;
 				}
 
 				IExceptionSensorHook exceptionHook = (IExceptionSensorHook) exceptionSensor.getHook();
@@ -303,7 +575,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					exceptionHook.dispatchBeforeCatchBody(coreService, id, sensorTypeId, exceptionObject, rsc);
 				}
 			} finally {
-				executionMarker.deactive();
+				context.active = false;
 			}
 		}
 	}
@@ -313,9 +585,10 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchConstructorOnThrowInBody(long id, Object object, Object[] parameters, Object exceptionObject) {
-		if (!executionMarker.isActive()) {
+		DispatchContext context = dispatchContext.get();
+		if (!context.active) {
 			try {
-				executionMarker.active();
+				context.active = true;
 
 				// rsc contains the settings for the actual constructor where the exception was
 				// thrown.
@@ -323,10 +596,10 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 				long sensorTypeId = exceptionSensor.getSensorTypeConfig().getId();
 
 				ICoreService invocCoreService = null;
-				if (null != invocationSequenceHolder.get()) {
+				if (null != context.invocationSequenceHook) {
 					// Need to replace the core service with the one from the invocation sequence so
 					// that all data objects can be associated to that invocation record.
-					invocCoreService = (ICoreService) invocationSequenceHolder.get();
+					invocCoreService = (ICoreService) context.invocationSequenceHook;
 				}
 
 				IExceptionSensorHook exceptionHook = (IExceptionSensorHook) exceptionSensor.getHook();
@@ -336,7 +609,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					exceptionHook.dispatchOnThrowInBody(coreService, id, sensorTypeId, object, exceptionObject, parameters, rsc);
 				}
 			} finally {
-				executionMarker.deactive();
+				context.active = false;
 			}
 		}
 	}
@@ -346,9 +619,10 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchConstructorBeforeCatch(long id, Object exceptionObject) {
-		if (!executionMarker.isActive()) {
+		DispatchContext context = dispatchContext.get();
+		if (!context.active) {
 			try {
-				executionMarker.active();
+				context.active = true;
 
 				// rsc contains the settings of the actual constructor where the exception is
 				// catched.
@@ -356,10 +630,10 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 				long sensorTypeId = exceptionSensor.getSensorTypeConfig().getId();
 
 				ICoreService invocCoreService = null;
-				if (null != invocationSequenceHolder.get()) {
+				if (null != context.invocationSequenceHook) {
 					// Need to replace the core service with the one from the invocation sequence so
 					// that all data objects can be associated to that invocation record.
-					invocCoreService = (ICoreService) invocationSequenceHolder.get();
+					invocCoreService = (ICoreService) context.invocationSequenceHook;
 				}
 
 				IExceptionSensorHook exceptionHook = (IExceptionSensorHook) exceptionSensor.getHook();
@@ -369,7 +643,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					exceptionHook.dispatchBeforeCatchBody(coreService, id, sensorTypeId, exceptionObject, rsc);
 				}
 			} finally {
-				executionMarker.deactive();
+				context.active = false;
 			}
 		}
 	}
@@ -379,9 +653,10 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchConstructorBeforeBody(long id, Object[] parameters) {
-		if (!executionMarker.isActive()) {
+		DispatchContext context = dispatchContext.get();
+		if (!context.active) {
 			try {
-				executionMarker.active();
+				context.active = true;
 
 				try {
 					RegisteredSensorConfig rsc = mappings.get(id);
@@ -391,15 +666,15 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 						// to set it on the thread local map for later access. Additionally, we need
 						// to save the count of the called invocation sensors, as another nested one
 						// could be started, too.
-						invocationSequenceCount.increment();
-						if (null == invocationSequenceHolder.get()) {
-							invocationSequenceHolder.set(invocationSequenceSensor.getHook());
+						context.invocationSequenceCount++;
+						if (null == context.invocationSequenceHook) {
+							context.invocationSequenceHook = invocationSequenceSensor.getHook();
 						}
-					} else if (null != invocationSequenceHolder.get()) {
+					} else if (null != context.invocationSequenceHook) {
 						// We are executing the following sensor types in an invocation sequence
 						// context, thus we have to execute the before body method of the invocation
 						// sequence hook manually.
-						IConstructorHook invocationHook = (IConstructorHook) invocationSequenceHolder.get();
+						IConstructorHook invocationHook = (IConstructorHook) context.invocationSequenceHook;
 
 						// The sensor type ID is not important here, thus we are passing a -1. It is
 						// already stored in the data object
@@ -416,7 +691,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					log.error("An error happened in the Hook Dispatcher! (before constructor)", throwable);
 				}
 			} finally {
-				executionMarker.deactive();
+				context.active = false;
 			}
 		}
 	}
@@ -426,18 +701,19 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchConstructorAfterBody(long id, Object object, Object[] parameters) {
-		if (!executionMarker.isActive()) {
+		DispatchContext context = dispatchContext.get();
+		if (!context.active) {
 			try {
-				executionMarker.active();
+				context.active = true;
 
 				try {
 					RegisteredSensorConfig rsc = mappings.get(id);
 
-					if (null != invocationSequenceHolder.get()) {
+					if (null != context.invocationSequenceHook) {
 						// Need to replace the core service with the one from the invocation
 						// sequence so that all data objects can be associated to that invocation
 						// record.
-						ICoreService invocCoreService = (ICoreService) invocationSequenceHolder.get();
+						ICoreService invocCoreService = (ICoreService) context.invocationSequenceHook;
 
 						for (IMethodSensor methodSensor : rsc.getMethodSensors()) {
 							IConstructorHook constructorHook = (IConstructorHook) methodSensor.getHook();
@@ -458,15 +734,15 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					}
 
 					if (rsc.isStartsInvocation()) {
-						invocationSequenceCount.decrement();
+						context.invocationSequenceCount--;
 
-						if (0 == invocationSequenceCount.getCount()) {
-							invocationSequenceHolder.set(null);
+						if (0 == context.invocationSequenceCount) {
+							context.invocationSequenceHook = null;
 						}
-					} else if (null != invocationSequenceHolder.get()) {
+					} else if (null != context.invocationSequenceHook) {
 						// We have to execute the after body method of the invocation
 						// sequence hook manually.
-						IConstructorHook invocationHook = (IConstructorHook) invocationSequenceHolder.get();
+						IConstructorHook invocationHook = (IConstructorHook) context.invocationSequenceHook;
 
 						// The sensor type ID is not important here, thus we are passing
 						// a -1. It is already stored in the data object
@@ -476,7 +752,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					log.error("An error happened in the Hook Dispatcher! (after constructor)", throwable);
 				}
 			} finally {
-				executionMarker.deactive();
+				context.active = false;
 			}
 		}
 	}
@@ -524,87 +800,29 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	}
 
 	/**
-	 * Private inner class used to track the count of the started invocation sequences in one
-	 * thread. Thus it extends {@link ThreadLocal} to provide a unique number for every Thread.
+	 * Per thread state of the dispatching.
 	 *
-	 * @author Patrice Bouillet
+	 * @author Ivan Senic
 	 *
 	 */
-	private static class InvocationSequenceCount extends ThreadLocal<Long> {
+	private static class DispatchContext {
 
 		/**
-		 * {@inheritDoc}
+		 * If an execution of the dispatching is already in progress, we don't dispatch anything
+		 * else for this thread (because it could happen, that we'll never end then).
 		 */
-		@Override
-		protected Long initialValue() {
-			return Long.valueOf(0);
-		}
+		private boolean active;
 
 		/**
-		 * Increments the stored value.
+		 * Count of the started invocation sequences in the thread.
 		 */
-		public void increment() {
-			super.set(Long.valueOf(super.get().longValue() + 1));
-		}
+		private long invocationSequenceCount;
 
 		/**
-		 * Decrements the stored value.
+		 * Hook of the current started invocation sequence or <code>null</code> if invocation is not
+		 * started.
 		 */
-		public void decrement() {
-			super.set(Long.valueOf(super.get().longValue() - 1));
-		}
-
-		/**
-		 * Returns the current count.
-		 *
-		 * @return The count.
-		 */
-		public long getCount() {
-			return super.get().longValue();
-		}
-
-	}
-
-	/**
-	 * ThreadLocal execution marker which is used to mark executions as already in progress to not
-	 * dispatch over and over again.
-	 *
-	 * @author Patrice Bouillet
-	 *
-	 */
-	private static class ExecutionMarker extends ThreadLocal<Boolean> {
-
-		/**
-		 * {@inheritDoc}
-		 */
-		@Override
-		protected Boolean initialValue() {
-			return Boolean.FALSE;
-		}
-
-		/**
-		 * Execution is active.
-		 */
-		public void active() {
-			super.set(Boolean.TRUE);
-		}
-
-		/**
-		 * Execution is deactive.
-		 */
-		public void deactive() {
-			super.set(Boolean.FALSE);
-		}
-
-		/**
-		 * Defines if our own execution is active, and thus we have to skip the whole processing
-		 * (because it could happen, that we'll never end then).
-		 *
-		 * @return if own execution is active.
-		 */
-		public boolean isActive() {
-			return super.get().booleanValue();
-		}
+		private IHook invocationSequenceHook;
 
 	}
 
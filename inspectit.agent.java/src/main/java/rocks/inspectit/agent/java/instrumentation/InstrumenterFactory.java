@@ -2,11 +2,21 @@ package rocks.inspectit.agent.java.instrumentation;
 
 import info.novatec.inspectit.org.objectweb.asm.MethodVisitor;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Component;
 
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.hooking.IHookDispatcherMapper;
 import rocks.inspectit.agent.java.instrumentation.asm.ConstructorInstrumenter;
 import rocks.inspectit.agent.java.instrumentation.asm.MethodInstrumenter;
 import rocks.inspectit.agent.java.instrumentation.asm.SpecialMethodInstrumenter;
+import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
 import rocks.inspectit.shared.all.instrumentation.config.IMethodInstrumentationPoint;
 import rocks.inspectit.shared.all.instrumentation.config.impl.SensorInstrumentationPoint;
 import rocks.inspectit.shared.all.instrumentation.config.impl.SpecialInstrumentationPoint;
@@ -16,12 +26,50 @@ import rocks.inspectit.shared.all.instrumentation.config.impl.SpecialInstrumenta
  * {@link #getMethodVisitor(IMethodInstrumentationPoint, MethodVisitor, int, String, String, boolean)}
  * method to return the correct {@link MethodVisitor} based on the
  * {@link IMethodInstrumentationPoint}.
+ * <p>
+ * Method instrumenters are created so that the parameters and the return value are passed to the
+ * dispatcher only if any of the sensors on the method needs them or property accessors are
+ * defined.
+ * <p>
+ * If the indexed dispatch is activated in the environment, method instrumenters get the dispatch
+ * index from the {@link IHookDispatcherMapper} and the instrumented methods are dispatched by index
+ * instead of method id.
  *
  * @author Ivan Senic
  *
  */
+// we must depend on PlatformManager to make sure that the configuration is available
 @Component
-public class InstrumenterFactory {
+@DependsOn("platformManager")
+public class InstrumenterFactory implements InitializingBean {
+
+	/**
+	 * All initialized {@link IMethodSensor}s.
+	 */
+	@Autowired
+	private List<IMethodSensor> methodSensors;
+
+	/**
+	 * Map of sensor ids to the method sensors, created in {@link #afterPropertiesSet()}.
+	 */
+	private Map<Long, IMethodSensor> methodSensorMap;
+
+	/**
+	 * Hook dispatcher mapper to get dispatch indexes from.
+	 */
+	@Autowired
+	private IHookDispatcherMapper hookDispatcherMapper;
+
+	/**
+	 * {@link IConfigurationStorage} to read if the index based dispatching is active.
+	 */
+	@Autowired
+	private IConfigurationStorage configurationStorage;
+
+	/**
+	 * If index based dispatching is active.
+	 */
+	private boolean indexedDispatch;
 
 	/**
 	 * Returns correct {@link MethodVisitor} based on the given instrumentation point.
@@ -54,7 +102,23 @@ public class InstrumenterFactory {
 			if (sensorInstrumentationPoint.isConstructor()) {
 				return new ConstructorInstrumenter(superMethodVisitor, access, name, desc, sensorInstrumentationPoint.getId(), enhancedExceptionSensor);
 			} else {
-				return new MethodInstrumenter(superMethodVisitor, access, name, desc, sensorInstrumentationPoint.getId(), enhancedExceptionSensor);
+				boolean propertyAccess = sensorInstrumentationPoint.isPropertyAccess();
+				boolean parametersNeeded = propertyAccess;
+				boolean resultNeeded = propertyAccess;
+				long[] sensorIds = sensorInstrumentationPoint.getSensorIds();
+				if (null != sensorIds) {
+					for (long sensorId : sensorIds) {
+						IMethodSensor methodSensor = getMethodSensor(sensorId);
+						// be safe if sensor is not known
+						parametersNeeded |= (null == methodSensor) || methodSensor.isParametersNeeded();
+						resultNeeded |= (null == methodSensor) || methodSensor.isResultNeeded();
+					}
+				}
+				int dispatchIndex = -1;
+				if (indexedDispatch && (null != hookDispatcherMapper)) {
+					dispatchIndex = hookDispatcherMapper.getDispatchIndex(sensorInstrumentationPoint.getId());
+				}
+				return new MethodInstrumenter(superMethodVisitor, access, name, desc, sensorInstrumentationPoint.getId(), enhancedExceptionSensor, parametersNeeded, resultNeeded, dispatchIndex);
 			}
 		} else if (instrumentationPoint instanceof SpecialInstrumentationPoint) {
 			SpecialInstrumentationPoint specialInstrumentationPoint = (SpecialInstrumentationPoint) instrumentationPoint;
@@ -63,4 +127,42 @@ public class InstrumenterFactory {
 		throw new IllegalArgumentException("The instrumentation point " + instrumentationPoint + " is not known to the InstrumenterFactory.");
 	}
 
+	/**
+	 * Returns the method sensor with the given id.
+	 *
+	 * @param sensorId
+	 *            Id of the sensor.
+	 * @return Method sensor or <code>null</code> if the sensor with given id is not known.
+	 */
+	private IMethodSensor getMethodSensor(long sensorId) {
+		if (null == methodSensorMap) {
+			return null;
+		}
+		return methodSensorMap.get(sensorId);
+	}
+
+	/**
+	 * Sets {@link #indexedDispatch}.
+	 *
+	 * @param indexedDispatch
+	 *            New value for {@link #indexedDispatch}
+	 */
+	public void setIndexedDispatch(boolean indexedDispatch) {
+		this.indexedDispatch = indexedDispatch;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		indexedDispatch = configurationStorage.isIndexedDispatch();
+		methodSensorMap = new HashMap<Long, IMethodSensor>();
+		if (null != methodSensors) {
+			for (IMethodSensor methodSensor : methodSensors) {
+				methodSensorMap.put(methodSensor.getSensorTypeConfig().getId(), methodSensor);
+			}
+		}
+	}
+
 }
@@ -14,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import rocks.inspectit.shared.all.instrumentation.classcache.AnnotationType;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableType;
 import rocks.inspectit.shared.all.instrumentation.classcache.InterfaceType;
@@ -43,7 +44,7 @@ public class ClassAnalyzer extends ClassVisitor {
 	/**
 	 * Hash of the class that s being parsed.
 	 */
-	private final String hash;
+	private final ClassHash hash;
 
 	/**
 	 * Default constructor. ClassVisitor will be set to <code>null</code>.
@@ -51,7 +52,7 @@ public class ClassAnalyzer extends ClassVisitor {
 	 * @param hash
 	 *            Hash for the class to be analyzed.
 	 */
-	public ClassAnalyzer(String hash) {
+	public ClassAnalyzer(ClassHash hash) {
 		this(hash, null);
 	}
 
@@ -63,7 +64,7 @@ public class ClassAnalyzer extends ClassVisitor {
 	 * @param classVisitor
 	 *            Parent class visitor.
 	 */
-	public ClassAnalyzer(String hash, ClassVisitor classVisitor) {
+	public ClassAnalyzer(ClassHash hash, ClassVisitor classVisitor) {
 		super(Opcodes.ASM5, classVisitor);
 		this.hash = hash;
 	}
@@ -59,13 +59,26 @@ public interface IInstrumenterConstant {
 	String DISPATCH_METHOD_BEFORE_BODY_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.LONG_TYPE, Type.getType(Object.class), Type.getType(Object[].class));
 
 	/**
-	 * {@link IHookDispatcher#dispatchFirstMethodAfterBody(long, Object, Object[], Object, boolean)} and
+	 * {@link IHookDispatcher#dispatchFirstMethodAfterBody(long, Object, Object[], Object, boolean)},
 	 * {@link IHookDispatcher#dispatchSecondMethodAfterBody(long, Object, Object[], Object, boolean)}
+	 * and {@link IHookDispatcher#dispatchMethodAfterBody(long, Object, Object[], Object, boolean)}
 	 * descriptor.
 	 */
 	String DISPATCH_METHOD_AFTER_BODY_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.LONG_TYPE, Type.getType(Object.class), Type.getType(Object[].class), Type.getType(Object.class),
 			Type.BOOLEAN_TYPE);
 
+	/**
+	 * {@link IHookDispatcher#dispatchIndexedMethodBeforeBody(int, Object, Object[])} descriptor.
+	 */
+	String DISPATCH_INDEXED_METHOD_BEFORE_BODY_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.INT_TYPE, Type.getType(Object.class), Type.getType(Object[].class));
+
+	/**
+	 * {@link IHookDispatcher#dispatchIndexedMethodAfterBody(int, Object, Object[], Object, boolean)}
+	 * descriptor.
+	 */
+	String DISPATCH_INDEXED_METHOD_AFTER_BODY_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.INT_TYPE, Type.getType(Object.class), Type.getType(Object[].class), Type.getType(Object.class),
+			Type.BOOLEAN_TYPE);
+
 	/**
 	 * {@link IHookDispatcher#dispatchBeforeCatch(long, Object)} descriptor.
 	 */
@@ -9,15 +9,42 @@ import rocks.inspectit.agent.java.hooking.IHookDispatcher;
 
 /**
  * Used to instrument methods that are not constructors.
+ * <p>
+ * If none of the sensors on the method needs the parameters or the return value, the instrumenter
+ * passes <code>null</code> instead of them to the dispatcher, so that no parameter array is
+ * created and no primitive return value is boxed on each method call. Both after body dispatches
+ * are always done with the single
+ * {@link IHookDispatcher#dispatchMethodAfterBody(long, Object, Object[], Object, boolean)} call.
+ * <p>
+ * If the dispatch index is given, the before and after body dispatching is done with the
+ * index-based {@link IHookDispatcher#dispatchIndexedMethodBeforeBody(int, Object, Object[])} and
+ * {@link IHookDispatcher#dispatchIndexedMethodAfterBody(int, Object, Object[], Object, boolean)}
+ * calls. Exception related dispatching always uses the method id.
  *
  * @author Ivan Senic
  *
  */
 public class MethodInstrumenter extends AbstractMethodInstrumenter {
 
+	/**
+	 * If parameters of the method should be passed to the dispatcher.
+	 */
+	private final boolean parametersNeeded;
+
+	/**
+	 * If return value of the method should be passed to the dispatcher.
+	 */
+	private final boolean resultNeeded;
+
+	/**
+	 * Dispatch index of the method or <code>-1</code> to dispatch with the method id.
+	 */
+	private final int dispatchIndex;
+
 	/**
 	 * Default constructor. Defines method id that will be used during instrumentation and if
-	 * enhanced exception sensor is active or not.
+	 * enhanced exception sensor is active or not. Parameters and return value are passed to the
+	 * dispatcher.
 	 *
 	 * @param mv
 	 *            Super method visitor.
@@ -35,7 +62,67 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 	 *      String, long, boolean)
 	 */
 	public MethodInstrumenter(MethodVisitor mv, int access, String name, String desc, long methodId, boolean enhancedExceptionSensor) {
+		this(mv, access, name, desc, methodId, enhancedExceptionSensor, true, true);
+	}
+
+	/**
+	 * Constructor that additionally defines if the parameters and the return value of the method
+	 * are passed to the dispatcher.
+	 *
+	 * @param mv
+	 *            Super method visitor.
+	 * @param access
+	 *            Method access code.
+	 * @param name
+	 *            Method name.
+	 * @param desc
+	 *            Method description.
+	 * @param methodId
+	 *            Method id that will be passed to {@link IHookDispatcher}.
+	 * @param enhancedExceptionSensor
+	 *            Marker declaring if enhanced exception sensor is active.
+	 * @param parametersNeeded
+	 *            If parameters of the method should be passed to the dispatcher. If
+	 *            <code>false</code> the <code>null</code> is passed.
+	 * @param resultNeeded
+	 *            If return value of the method should be passed to the dispatcher. If
+	 *            <code>false</code> the <code>null</code> is passed. Exception thrown by the
+	 *            method is always passed.
+	 */
+	public MethodInstrumenter(MethodVisitor mv, int access, String name, String desc, long methodId, boolean enhancedExceptionSensor, boolean parametersNeeded, boolean resultNeeded) { // NOCHK:8-params
+		this(mv, access, name, desc, methodId, enhancedExceptionSensor, parametersNeeded, resultNeeded, -1);
+	}
+
+	/**
+	 * Constructor that additionally defines the dispatch index of the method.
+	 *
+	 * @param mv
+	 *            Super method visitor.
+	 * @param access
+	 *            Method access code.
+	 * @param name
+	 *            Method name.
+	 * @param desc
+	 *            Method description.
+	 * @param methodId
+	 *            Method id that will be passed to {@link IHookDispatcher}.
+	 * @param enhancedExceptionSensor
+	 *            Marker declaring if enhanced exception sensor is active.
+	 * @param parametersNeeded
+	 *            If parameters of the method should be passed to the dispatcher.
+	 * @param resultNeeded
+	 *            If return value of the method should be passed to the dispatcher.
+	 * @param dispatchIndex
+	 *            Dispatch index of the method assigned by the
+	 *            {@link rocks.inspectit.agent.java.hooking.IHookDispatcherMapper} or
+	 *            <code>-1</code> to dispatch with the method id.
+	 */
+	public MethodInstrumenter(MethodVisitor mv, int access, String name, String desc, long methodId, boolean enhancedExceptionSensor, boolean parametersNeeded, boolean resultNeeded, // NOCHK:9-params
+			int dispatchIndex) {
 		super(mv, access, name, desc, methodId, enhancedExceptionSensor);
+		this.parametersNeeded = parametersNeeded;
+		this.resultNeeded = resultNeeded;
+		this.dispatchIndex = dispatchIndex;
 	}
 
 	/**
@@ -62,16 +149,13 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		}
 
 		// just ensure that result is duplicated on the stack
-		// since we are calling two methods, make 2 copies of result on stack
-		// in case of void return or push null since we don't have result
-		if (opcode == RETURN) {
+		// in case of void return or not needed result push null
+		if ((opcode == RETURN) || !resultNeeded) {
 			// standard return with no object (void)
 			pushNull();
-			pushNull();
 		} else if (opcode == ARETURN) {
 			// duplicate the original object
 			dup();
-			dup();
 		} else {
 			if ((opcode == LRETURN) || (opcode == DRETURN)) {
 				// if we have either long or double return, we need to duplicate the last two stacks
@@ -79,15 +163,12 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 			} else {
 				dup();
 			}
-			// box and then duplicate the object then
+			// box the object then
 			box(Type.getReturnType(this.methodDesc));
-			dup();
 		}
 
-		// add two false booleans to denote no exception in the call
-		// generate code for calling first and second
-		generateAfterBodyCall("dispatchFirstMethodAfterBody", false);
-		generateAfterBodyCall("dispatchSecondMethodAfterBody", false);
+		// generate code for calling first and second with false to denote no exception
+		generateAfterBodyCall(false);
 	}
 
 	/**
@@ -114,10 +195,8 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		// generate code for calling first and second
 		// push exception as we don't have a result
 		dup();
-		dup();
-		// add true booleans to denote exception in the call
-		generateAfterBodyCall("dispatchFirstMethodAfterBody", true);
-		generateAfterBodyCall("dispatchSecondMethodAfterBody", true);
+		// add true to denote exception in the call
+		generateAfterBodyCall(true);
 
 		mv.visitInsn(ATHROW);
 
@@ -132,8 +211,12 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		// load hook dispatcher
 		loadHookDispatcher();
 
-		// first push method id
-		push(methodId);
+		// first push method id or index
+		if (isIndexed()) {
+			push(dispatchIndex);
+		} else {
+			push(methodId);
+		}
 
 		// then this object or null if's static
 		if (isStatic) {
@@ -143,33 +226,40 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		}
 
 		// then parameters
-		loadArgArray();
+		loadParameters(parametersNeeded);
 
-		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, "dispatchMethodBeforeBody", IInstrumenterConstant.DISPATCH_METHOD_BEFORE_BODY_DESCRIPTOR,
-				true);
+		if (isIndexed()) {
+			mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, "dispatchIndexedMethodBeforeBody",
+					IInstrumenterConstant.DISPATCH_INDEXED_METHOD_BEFORE_BODY_DESCRIPTOR, true);
+		} else {
+			mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, "dispatchMethodBeforeBody", IInstrumenterConstant.DISPATCH_METHOD_BEFORE_BODY_DESCRIPTOR,
+					true);
+		}
 	}
 
 	/**
-	 * Generates code for the after body call. This method expects the result of the method call on
-	 * the stack that can be consumed.
+	 * Generates code for the
+	 * {@link IHookDispatcher#dispatchMethodAfterBody(long, Object, Object[], Object, boolean)}
+	 * call. This method expects the result of the method call on the stack that can be consumed.
 	 *
-	 * @param method
-	 *            method to be called can be only
-	 *            {@link IHookDispatcher#dispatchFirstMethodAfterBody(long, Object, Object[], Object, boolean)}
-	 *            or
-	 *            {@link IHookDispatcher#dispatchSecondMethodAfterBody(long, Object, Object[], Object, boolean)}
 	 * @param exception
 	 *            Value of the exception argument pass to the dispatcher.
 	 */
-	private void generateAfterBodyCall(String method, boolean exception) {
+	private void generateAfterBodyCall(boolean exception) {
 		// prepare first everything up to exception boolean
-		prepareAfterBodyCall();
+		prepareAfterBodyCall(parametersNeeded, isIndexed());
 
 		// then push on stack info about exception
 		push(exception);
 
 		// execute after body
-		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, method, IInstrumenterConstant.DISPATCH_METHOD_AFTER_BODY_DESCRIPTOR, true);
+		if (isIndexed()) {
+			mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, "dispatchIndexedMethodAfterBody",
+					IInstrumenterConstant.DISPATCH_INDEXED_METHOD_AFTER_BODY_DESCRIPTOR, true);
+		} else {
+			mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, "dispatchMethodAfterBody", IInstrumenterConstant.DISPATCH_METHOD_AFTER_BODY_DESCRIPTOR,
+					true);
+		}
 	}
 
 	/**
@@ -179,8 +269,8 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 	 */
 	private void generateThrowInBodyCall() {
 		// we can use same code for the after body call since method signature is same (without
-		// exception)
-		prepareAfterBodyCall();
+		// exception), parameters are always passed as this is not the hot path
+		prepareAfterBodyCall(true, false);
 
 		// execute dispatchOnThrowInBody
 		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, "dispatchOnThrowInBody", IInstrumenterConstant.DISPATCH_ON_THROW_BODY_DESCRIPTOR, true);
@@ -190,8 +280,13 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 	 * Prepares the afterBody or throwInBody calls by loading dispatcher, methodId, object and
 	 * parameters to the stack. This method excepts result on stack (result will remain first on
 	 * stack).
+	 *
+	 * @param loadParameters
+	 *            If parameters array should be loaded, otherwise <code>null</code> is pushed.
+	 * @param index
+	 *            If dispatch index should be loaded instead of the method id.
 	 */
-	private void prepareAfterBodyCall() {
+	private void prepareAfterBodyCall(boolean loadParameters, boolean index) {
 		// prepare for calls
 		// we expect following stack: result (short r)
 		loadHookDispatcher();
@@ -199,14 +294,20 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		swap();
 		// d-r
 
-		// push method id
-		push(methodId);
-		// can not just swap because method id is long, thus a bit of gymnastic
-		// d-r-l-l
-		dup2X1();
-		// d-l-l-r-l-l2
-		pop2();
-		// d-l-l-r :)
+		if (index) {
+			// index is int, so simple swap is enough
+			push(dispatchIndex);
+			swap();
+		} else {
+			// push method id
+			push(methodId);
+			// can not just swap because method id is long, thus a bit of gymnastic
+			// d-r-l-l
+			dup2X1();
+			// d-l-l-r-l-l2
+			pop2();
+			// d-l-l-r :)
+		}
 
 		// then this object or null if's static
 		if (isStatic) {
@@ -217,10 +318,24 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		swap();
 
 		// then parameters
-		loadArgArray();
+		loadParameters(loadParameters);
 		swap();
 	}
 
+	/**
+	 * Loads the parameters array to the stack or pushes <code>null</code>.
+	 *
+	 * @param loadParameters
+	 *            If parameters array should be loaded, otherwise <code>null</code> is pushed.
+	 */
+	private void loadParameters(boolean loadParameters) {
+		if (loadParameters) {
+			loadArgArray();
+		} else {
+			pushNull();
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -247,4 +362,40 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, "dispatchBeforeCatch", IInstrumenterConstant.DISPATCH_BEFORE_CATCH_DESCRIPTOR, true);
 	}
 
+	/**
+	 * Returns if the dispatching is done with the dispatch index.
+	 *
+	 * @return Returns if the dispatching is done with the dispatch index.
+	 */
+	private boolean isIndexed() {
+		return dispatchIndex >= 0;
+	}
+
+	/**
+	 * Gets {@link #dispatchIndex}.
+	 *
+	 * @return {@link #dispatchIndex}
+	 */
+	public int getDispatchIndex() {
+		return this.dispatchIndex;
+	}
+
+	/**
+	 * Gets {@link #parametersNeeded}.
+	 *
+	 * @return {@link #parametersNeeded}
+	 */
+	public boolean isParametersNeeded() {
+		return this.parametersNeeded;
+	}
+
+	/**
+	 * Gets {@link #resultNeeded}.
+	 *
+	 * @return {@link #resultNeeded}
+	 */
+	public boolean isResultNeeded() {
+		return this.resultNeeded;
+	}
+
 }
@@ -40,6 +40,29 @@ public class FileResolver implements InitializingBean {
 		return new File(agentJar.getParent() + File.separator + "cache" + File.separator + configurationStorage.getAgentName() + File.separator + "sendingClasses.cache");
 	}
 
+	/**
+	 * Returns file where the snapshot of the instrumentation definitions for this agent should be.
+	 * <p>
+	 * Expected path: <i>[PATH_TO_AGENT]/cache/agentName/instrumentationSnapshot.cache</i>
+	 *
+	 * @return Returns file where the snapshot of the instrumentation definitions for this agent
+	 *         should be.
+	 */
+	public File getInstrumentationSnapshotFile() {
+		return new File(agentJar.getParent() + File.separator + "cache" + File.separator + configurationStorage.getAgentName() + File.separator + "instrumentationSnapshot.cache");
+	}
+
+	/**
+	 * Returns file where data that could not be sent to the CMR is spilled.
+	 * <p>
+	 * Expected path: <i>[PATH_TO_AGENT]/cache/agentName/spilledData.queue</i>
+	 *
+	 * @return Returns file where data that could not be sent to the CMR is spilled.
+	 */
+	public File getDataSpillFile() {
+		return new File(agentJar.getParent() + File.separator + "cache" + File.separator + configurationStorage.getAgentName() + File.separator + "spilledData.queue");
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -33,7 +33,11 @@ import java.util.regex.Pattern;
 import rocks.inspectit.agent.java.Agent;
 import rocks.inspectit.agent.java.IAgent;
 import rocks.inspectit.agent.java.hooking.IHookDispatcher;
+import rocks.inspectit.agent.java.proxy.AccessorFor;
 import rocks.inspectit.agent.java.sensor.jmx.IMBeanServerListener;
+import rocks.inspectit.agent.java.sensor.method.http.IHttpServletRequestAccessor;
+import rocks.inspectit.agent.java.sensor.method.http.IHttpServletResponseAccessor;
+import rocks.inspectit.agent.java.sensor.method.http.IHttpSessionAccessor;
 import rocks.inspectit.agent.java.util.ClassLoadingUtil;
 
 /**
@@ -360,6 +364,13 @@ public class JavaAgent implements ClassFileTransformer {
 			// available in the standard classloader.
 			ignoreClasses.add(IHookDispatcher.class.getName());
 
+			// ignore accessor interfaces because the generated accessor classes are defined in the
+			// class loaders of the application and thus must see the same interfaces
+			ignoreClasses.add(AccessorFor.class.getName());
+			ignoreClasses.add(IHttpServletRequestAccessor.class.getName());
+			ignoreClasses.add(IHttpServletResponseAccessor.class.getName());
+			ignoreClasses.add(IHttpSessionAccessor.class.getName());
+
 			// ignore the following classes because they are used in the JavaAgent class
 			ignoreClasses.add(JavaAgent.class.getName());
 			ignoreClasses.add(InspectItClassLoader.class.getName());
@@ -0,0 +1,33 @@
+package rocks.inspectit.agent.java.proxy;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation has to be placed on the accessor interfaces, to define the type the generated
+ * accessor is calling. Every method of the accessor interface must take the target instance as the
+ * first parameter of type {@link Object}, followed by the parameters of the method with the same
+ * name defined in the target type. The generated accessor casts the target instance to the target
+ * type and calls the method directly, thus no reflection is involved.
+ * <p>
+ * As the accessor class is defined in the class loader of the target type, the accessor interface
+ * must be visible to that class loader and can only use the types known to the bootstrap class
+ * loader in the method signatures.
+ *
+ * @see IRuntimeLinker#createAccessor(Class, Class)
+ * @author Ivan Senic
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface AccessorFor {
+
+	// NOCHKALL
+	/**
+	 * @return the full qualified name of the type the accessor is calling. The concrete class the
+	 *         accessor is created for must implement or extend this type.
+	 */
+	String targetType();
+
+}
@@ -19,4 +19,24 @@ public interface IProxyBuilder {
 	 *         information
 	 */
 	IProxyClassInfo createProxyClass(IProxyBuildPlan plan);
+
+	/**
+	 * Creates and loads a new accessor class implementing the given accessor interface. The methods
+	 * of the accessor class cast the first argument to the target type and directly call the method
+	 * with the same name and remaining parameters on it. <br>
+	 * This method does not check whether the class is already existent, it is only responsible for
+	 * creation.
+	 *
+	 * @param accessorType
+	 *            the accessor interface, annotated with the {@link AccessorFor}
+	 * @param targetType
+	 *            the type the accessor is calling
+	 * @param accessorClassName
+	 *            the full qualified name of the accessor class to create
+	 * @return the newly created accessor class, defined in the class loader of the target type
+	 * @throws Exception
+	 *             if the accessor interface does not fit the target type or the class can not be
+	 *             defined
+	 */
+	Class<?> createAccessorClass(Class<?> accessorType, Class<?> targetType, String accessorClassName) throws Exception;
 }
@@ -42,4 +42,22 @@ public interface IRuntimeLinker {
 	 */
 	<T extends IProxySubject> boolean isProxyInstance(Object inst, Class<T> proxySubjectType);
 
+	/**
+	 * Returns the accessor for the given concrete class. The accessor is an instance of the runtime
+	 * generated class implementing the accessor interface, which is calling the methods of the
+	 * target type defined in the {@link AccessorFor} annotation directly without reflection. The
+	 * accessors are cached per concrete class and all concrete classes implementing the same target
+	 * type share the same accessor instance.
+	 *
+	 * @param <T>
+	 *            the accessor interface
+	 * @param accessorType
+	 *            the class of {@code <T>}
+	 * @param concreteClass
+	 *            the class of the objects the accessor will be called with
+	 * @return the accessor or {@code null} if the concrete class does not implement the target type
+	 *         or the accessor can not be created
+	 */
+	<T> T createAccessor(Class<T> accessorType, Class<?> concreteClass);
+
 }
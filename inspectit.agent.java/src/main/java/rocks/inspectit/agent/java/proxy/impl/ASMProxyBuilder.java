@@ -1,6 +1,7 @@
 package rocks.inspectit.agent.java.proxy.impl;
 
 import static info.novatec.inspectit.org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static info.novatec.inspectit.org.objectweb.asm.Opcodes.ACONST_NULL;
 import static info.novatec.inspectit.org.objectweb.asm.Opcodes.ACC_STATIC;
 import static info.novatec.inspectit.org.objectweb.asm.Opcodes.V1_5;
 
@@ -18,7 +19,9 @@ import java.io.StringWriter;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -91,6 +94,11 @@ public class ASMProxyBuilder implements IProxyBuilder {
 	 */
 	private static final String METHOD_FIELD_PREFIX = "method_";
 
+	/**
+	 * The no-args constructor used by the accessor classes.
+	 */
+	private static final Method DEFAULT_CONSTRUCTOR = new Method(IInstrumenterConstant.CONSTRUCTOR_INTERNAL_NAME, Type.VOID_TYPE, new Type[0]);
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -130,6 +138,189 @@ public class ASMProxyBuilder implements IProxyBuilder {
 		return new ASMProxyClassInfo(cl);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The accessor classes are generated using the following pattern:<br>
+	 *
+	 * <pre>
+	 * {@code
+	 * public class AccessorClassNameHere implements AccessorInterface {
+	 *
+	 * 		//every accessor method calls the target method directly
+	 * 		returnType myAccessorMethod(Object target, arg1, arg2, ...) {
+	 * 			return ((TargetType) target).myAccessorMethod(arg1, arg2, ...);
+	 * 		}
+	 *
+	 * 		//accessor methods not existing in the target type return the default value
+	 * 		returnType myMissingMethod(Object target, arg1, arg2, ...) {
+	 * 			return null;
+	 * 		}
+	 * }
+	 * </pre>
+	 */
+	@Override
+	public Class<?> createAccessorClass(Class<?> accessorType, Class<?> targetType, String accessorClassName) throws InvalidProxyDescriptionException {
+		if (!accessorType.isInterface() || !Modifier.isPublic(accessorType.getModifiers())) {
+			InvalidProxyDescriptionException.throwException("The accessor %s must be a public interface!", accessorType);
+		}
+		if (!Modifier.isPublic(targetType.getModifiers())) {
+			InvalidProxyDescriptionException.throwException("The target type %s of the accessor must be public!", targetType);
+		}
+
+		// the accessor class is placed next to the target type, thus the accessor interface must be
+		// the same class there
+		ClassLoader targetClassLoader = targetType.getClassLoader();
+		if (null == targetClassLoader) {
+			targetClassLoader = ClassLoader.getSystemClassLoader();
+		}
+		try {
+			if (!accessorType.equals(Class.forName(accessorType.getName(), false, targetClassLoader))) {
+				InvalidProxyDescriptionException.throwException("The accessor %s is not the same in the class loader of the target type %s!", accessorType, targetType);
+			}
+		} catch (ClassNotFoundException e) {
+			InvalidProxyDescriptionException.throwException("The accessor %s is not visible to the class loader of the target type %s!", accessorType, targetType);
+		}
+
+		String internalName = AsmUtil.getAsmInternalName(accessorClassName);
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_5, ACC_PUBLIC, internalName, null, IInstrumenterConstant.OBJECT_TYPE.getInternalName(), new String[] { Type.getInternalName(accessorType) });
+
+		// the no-args constructor only calls the super constructor
+		GeneratorAdapter mg = new GeneratorAdapter(ACC_PUBLIC, DEFAULT_CONSTRUCTOR, null, null, cw);
+		mg.loadThis();
+		mg.invokeConstructor(IInstrumenterConstant.OBJECT_TYPE, DEFAULT_CONSTRUCTOR);
+		mg.returnValue();
+		mg.visitMaxs(0, 0);
+		mg.endMethod();
+
+		for (java.lang.reflect.Method accessorMethod : accessorType.getMethods()) {
+			if (Modifier.isAbstract(accessorMethod.getModifiers())) {
+				createAccessorMethod(accessorMethod, targetType, cw);
+			}
+		}
+
+		cw.visitEnd();
+
+		return loadClass(cw.toByteArray(), accessorClassName, targetClassLoader);
+	}
+
+	/**
+	 * Adds the accessor method to the class. The method casts the first argument to the target type
+	 * and calls the target method with the remaining arguments.
+	 *
+	 * @param accessorMethod
+	 *            the method of the accessor interface to implement
+	 * @param targetType
+	 *            the type the accessor is calling
+	 * @param cv
+	 *            the class writer used for creating the class
+	 * @throws InvalidProxyDescriptionException
+	 *             if the accessor method does not fit the target method
+	 */
+	private void createAccessorMethod(java.lang.reflect.Method accessorMethod, Class<?> targetType, ClassVisitor cv) throws InvalidProxyDescriptionException {
+		Class<?>[] accessorParameterTypes = accessorMethod.getParameterTypes();
+		if ((accessorParameterTypes.length == 0) || !Object.class.equals(accessorParameterTypes[0])) {
+			InvalidProxyDescriptionException.throwException("The first parameter of the accessor method %s must be the target of type Object!", accessorMethod.getName());
+		}
+		Class<?>[] parameterTypes = Arrays.copyOfRange(accessorParameterTypes, 1, accessorParameterTypes.length);
+		Class<?> returnType = accessorMethod.getReturnType();
+
+		java.lang.reflect.Method targetMethod;
+		try {
+			targetMethod = targetType.getMethod(accessorMethod.getName(), parameterTypes);
+		} catch (NoSuchMethodException e) {
+			// older versions of the API might miss the method
+			targetMethod = null;
+		}
+
+		if ((null != targetMethod) && !isReturnTypeAssignable(returnType, targetMethod.getReturnType())) {
+			InvalidProxyDescriptionException.throwException("The return type %s of the accessor method %s can not be assigned from %s!", returnType, accessorMethod.getName(),
+					targetMethod.getReturnType());
+		}
+
+		GeneratorAdapter mg = new GeneratorAdapter(ACC_PUBLIC, Method.getMethod(accessorMethod), null, null, cv);
+		if (null != targetMethod) {
+			Type type = Type.getType(targetType);
+			mg.loadArg(0);
+			mg.checkCast(type);
+			mg.loadArgs(1, parameterTypes.length);
+			if (targetType.isInterface()) {
+				mg.invokeInterface(type, Method.getMethod(targetMethod));
+			} else {
+				mg.invokeVirtual(type, Method.getMethod(targetMethod));
+			}
+			if ((void.class == returnType) && (void.class != targetMethod.getReturnType())) {
+				if (Type.getType(targetMethod.getReturnType()).getSize() == 2) {
+					mg.pop2();
+				} else {
+					mg.pop();
+				}
+			}
+		} else {
+			pushDefaultValue(mg, Type.getType(returnType));
+		}
+		mg.returnValue();
+
+		// MAXS is computed as we set COMPUTE_MAXS flag for the ClassWriter
+		mg.visitMaxs(0, 0);
+		mg.endMethod();
+	}
+
+	/**
+	 * Checks if the value returned by the target method can be returned by the accessor method
+	 * without any conversion.
+	 *
+	 * @param accessorReturnType
+	 *            return type of the accessor method
+	 * @param targetReturnType
+	 *            return type of the target method
+	 * @return if the return types fit
+	 */
+	private boolean isReturnTypeAssignable(Class<?> accessorReturnType, Class<?> targetReturnType) {
+		if (void.class == accessorReturnType) {
+			return true;
+		} else if (accessorReturnType.isPrimitive() || targetReturnType.isPrimitive()) {
+			return accessorReturnType == targetReturnType;
+		} else {
+			return accessorReturnType.isAssignableFrom(targetReturnType);
+		}
+	}
+
+	/**
+	 * Pushes the default value of the given type to the stack, nothing is pushed for the void type.
+	 *
+	 * @param mg
+	 *            the generator adapter of the method
+	 * @param type
+	 *            type
+	 */
+	private void pushDefaultValue(GeneratorAdapter mg, Type type) {
+		switch (type.getSort()) {
+		case Type.VOID:
+			break;
+		case Type.BOOLEAN:
+		case Type.CHAR:
+		case Type.BYTE:
+		case Type.SHORT:
+		case Type.INT:
+			mg.push(0);
+			break;
+		case Type.LONG:
+			mg.push(0L);
+			break;
+		case Type.FLOAT:
+			mg.push(0f);
+			break;
+		case Type.DOUBLE:
+			mg.push(0d);
+			break;
+		default:
+			mg.visitInsn(ACONST_NULL);
+			break;
+		}
+	}
+
 	/**
 	 * Generates the static fields of type java.lang.reflection.Method which store the delegation
 	 * targets.
@@ -1,6 +1,9 @@
 package rocks.inspectit.agent.java.proxy.impl;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,11 +14,13 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 
+import rocks.inspectit.agent.java.proxy.AccessorFor;
 import rocks.inspectit.agent.java.proxy.IProxyBuildPlan;
 import rocks.inspectit.agent.java.proxy.IProxyBuilder;
 import rocks.inspectit.agent.java.proxy.IProxyClassInfo;
 import rocks.inspectit.agent.java.proxy.IProxySubject;
 import rocks.inspectit.agent.java.proxy.IRuntimeLinker;
+import rocks.inspectit.agent.java.util.ClassUtil;
 import rocks.inspectit.shared.all.spring.logger.Log;
 
 /**
@@ -56,6 +61,17 @@ public final class RuntimeLinker implements IRuntimeLinker {
 		// CHECKSTYLE:ON
 	};
 
+	/**
+	 * Placed in the cache when the accessor can not be created for the class.
+	 */
+	private static final Object UNLINKEABLE_ACCESSOR_MARKER = new Object();
+
+	/**
+	 * Counter for making the names of the accessor classes unique, as the accessor for the same
+	 * interface can be created for different target types in the same class loader hierarchy.
+	 */
+	private static final AtomicInteger ACCESSOR_COUNTER = new AtomicInteger();
+
 	/**
 	 * logger.
 	 */
@@ -78,6 +94,16 @@ public final class RuntimeLinker implements IRuntimeLinker {
 	 */
 	private LoadingCache<Class<?>, Cache<ClassLoader, IProxyClassInfo>> linkedClassCache;
 
+	/**
+	 * Caches the created accessors.
+	 * <ul>
+	 * <li>1st key (Class<?>): the accessor interface (e.g. IHttpServletRequestAccessor)</li>
+	 * <li>2nd key (Class<?>): the concrete class the accessor was requested for or the target type
+	 * the accessor is calling</li>
+	 * </ul>
+	 */
+	private final ConcurrentMap<Class<?>, Cache<Class<?>, Object>> accessorCache = new ConcurrentHashMap<Class<?>, Cache<Class<?>, Object>>();
+
 	/**
 	 * Creates an Runtime Linker. Only one RuntimeLinker should exist in the entire VM.
 	 */
@@ -142,6 +168,104 @@ public final class RuntimeLinker implements IRuntimeLinker {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T> T createAccessor(Class<T> accessorType, Class<?> concreteClass) {
+		if (null == concreteClass) {
+			return null;
+		}
+
+		// accessor interfaces are few and never unloaded, thus plain map is used for the hot path
+		Cache<Class<?>, Object> accessors = accessorCache.get(accessorType);
+		if (null == accessors) {
+			Cache<Class<?>, Object> created = CacheBuilder.newBuilder().weakKeys().build();
+			accessors = accessorCache.putIfAbsent(accessorType, created);
+			if (null == accessors) {
+				accessors = created;
+			}
+		}
+
+		Object accessor = accessors.getIfPresent(concreteClass);
+		if (null == accessor) {
+			synchronized (accessors) {
+				// check again (double check is used to avoid synchronization every call)
+				accessor = accessors.getIfPresent(concreteClass);
+				if (null == accessor) {
+					accessor = loadAccessor(accessorType, concreteClass, accessors);
+					accessors.put(concreteClass, accessor);
+				}
+			}
+		}
+
+		if (UNLINKEABLE_ACCESSOR_MARKER.equals(accessor)) {
+			return null;
+		} else {
+			return accessorType.cast(accessor);
+		}
+	}
+
+	/**
+	 * Resolves the target type of the accessor for the given concrete class and returns the
+	 * accessor for it. The accessor class is only created if no accessor for the target type
+	 * exists. Must be called while holding the lock on the accessors cache.
+	 *
+	 * @param accessorType
+	 *            the accessor interface
+	 * @param concreteClass
+	 *            the class of the objects the accessor will be called with
+	 * @param accessors
+	 *            the accessors cache of the accessor interface
+	 * @return the accessor instance or {@link #UNLINKEABLE_ACCESSOR_MARKER}
+	 */
+	private Object loadAccessor(Class<?> accessorType, Class<?> concreteClass, Cache<Class<?>, Object> accessors) {
+		AccessorFor accessorInfo = accessorType.getAnnotation(AccessorFor.class);
+		if (null == accessorInfo) {
+			log.error(accessorType.getName() + " does not have the AccessorFor - annotation!");
+			return UNLINKEABLE_ACCESSOR_MARKER;
+		}
+
+		Class<?> targetType = searchTargetType(concreteClass, accessorInfo.targetType());
+		if (null == targetType) {
+			return UNLINKEABLE_ACCESSOR_MARKER;
+		}
+
+		// all concrete classes of the same target type share the accessor
+		Object accessor = accessors.getIfPresent(targetType);
+		if (null == accessor) {
+			try {
+				String name = getProxyClassName(accessorType.getName() + '_' + ACCESSOR_COUNTER.incrementAndGet());
+				Class<?> accessorClass = proxyBuilder.createAccessorClass(accessorType, targetType, name);
+				accessor = accessorClass.newInstance();
+			} catch (Exception e) {
+				log.error("Could not create accessor " + accessorType.getName() + " for " + targetType.getName() + " in classloader " + targetType.getClassLoader(), e);
+				accessor = UNLINKEABLE_ACCESSOR_MARKER;
+			}
+			accessors.put(targetType, accessor);
+		}
+		return accessor;
+	}
+
+	/**
+	 * Searches for the type with the given name in the super classes and interfaces of the given
+	 * class, including the class itself.
+	 *
+	 * @param clazz
+	 *            the class to search
+	 * @param targetTypeName
+	 *            the full qualified name of the type
+	 * @return the found type or <code>null</code> if the class is not extending or implementing it
+	 */
+	private Class<?> searchTargetType(Class<?> clazz, String targetTypeName) {
+		for (Class<?> superClass = clazz; null != superClass; superClass = superClass.getSuperclass()) {
+			if (superClass.getName().equals(targetTypeName)) {
+				return superClass;
+			}
+		}
+		return ClassUtil.searchInterface(clazz, targetTypeName);
+	}
+
 	/**
 	 * Checks the cache for a proxy class. If it does not exist, it is created.
 	 *
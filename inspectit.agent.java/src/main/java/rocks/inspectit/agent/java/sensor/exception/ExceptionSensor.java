@@ -5,6 +5,7 @@ import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.core.impl.SentStackTraces;
 import rocks.inspectit.agent.java.hooking.IHook;
 import rocks.inspectit.agent.java.sensor.method.AbstractMethodSensor;
 
@@ -22,6 +23,12 @@ public class ExceptionSensor extends AbstractMethodSensor implements IExceptionS
 	@Autowired
 	private IPlatformManager platformManager;
 
+	/**
+	 * Stack traces that reached the CMR.
+	 */
+	@Autowired
+	private SentStackTraces sentStackTraces;
+
 	/**
 	 * The used exception sensor hook.
 	 */
@@ -56,7 +63,7 @@ public class ExceptionSensor extends AbstractMethodSensor implements IExceptionS
 	 */
 	@Override
 	protected void initHook(Map<String, Object> parameters) {
-		exceptionSensorHook = new ExceptionSensorHook(platformManager, parameters);
+		exceptionSensorHook = new ExceptionSensorHook(platformManager, parameters, sentStackTraces);
 	}
 
 }
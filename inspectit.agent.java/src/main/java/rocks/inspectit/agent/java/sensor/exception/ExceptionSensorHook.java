@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
 import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.core.impl.SentStackTraces;
 import rocks.inspectit.agent.java.util.StringConstraint;
 import rocks.inspectit.shared.all.communication.ExceptionEvent;
 import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
@@ -51,6 +52,11 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 	 */
 	private final StringConstraint strConstraint;
 
+	/**
+	 * Deduplicator deciding if the stack trace is sent.
+	 */
+	private final StackTraceDeduplicator stackTraceDeduplicator;
+
 	/**
 	 * The default constructor which needs one parameter for initialization.
 	 *
@@ -58,10 +64,13 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 	 *            The Platform manager.
 	 * @param parameter
 	 *            Additional parameters.
+	 * @param sentStackTraces
+	 *            Stack traces that reached the CMR.
 	 */
-	public ExceptionSensorHook(IPlatformManager platformManager, Map<String, Object> parameter) {
+	public ExceptionSensorHook(IPlatformManager platformManager, Map<String, Object> parameter, SentStackTraces sentStackTraces) {
 		this.platformManager = platformManager;
 		this.strConstraint = new StringConstraint(parameter);
+		this.stackTraceDeduplicator = new StackTraceDeduplicator(parameter, sentStackTraces);
 	}
 
 	/**
@@ -214,7 +223,8 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 
 	/**
 	 * Gets static information (class name, stackTrace, cause) from the {@link Throwable} object and
-	 * sets them on the passed data object.
+	 * sets them on the passed data object. The stack trace is only set if it did not already reach
+	 * the CMR for the fingerprint of the throwable in the current deduplication interval.
 	 *
 	 * @param exceptionSensorData
 	 *            The {@link ExceptionSensorData} object where to set the information.
@@ -249,7 +259,17 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 		}
 
 		try {
-			exceptionSensorData.setStackTrace(strConstraint.crop(stackTraceToString(throwable)));
+			if (stackTraceDeduplicator.isActive()) {
+				// the fingerprint is cheaper than the stack trace string, so we create the string
+				// only until the stack trace of the fingerprint reached the CMR
+				long fingerprint = stackTraceDeduplicator.fingerprint(exceptionSensorData.getThrowableType(), exceptionSensorData.getCause(), throwable.getStackTrace());
+				exceptionSensorData.setFingerprint(fingerprint);
+				if (stackTraceDeduplicator.isStackTraceNeeded(fingerprint, exceptionSensorData.getTimeStamp().getTime())) {
+					exceptionSensorData.setStackTrace(strConstraint.crop(stackTraceToString(throwable)));
+				}
+			} else {
+				exceptionSensorData.setStackTrace(strConstraint.crop(stackTraceToString(throwable)));
+			}
 		} catch (Exception e) {
 			if (LOG.isDebugEnabled()) {
 				LOG.debug("It was not possible to retrieve the stack trace from " + throwable.getClass().getName(), e);
@@ -0,0 +1,167 @@
+package rocks.inspectit.agent.java.sensor.exception;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rocks.inspectit.agent.java.core.impl.SentStackTraces;
+
+/**
+ * Computes the fingerprints of the {@link Throwable} objects and decides if the complete stack
+ * trace must be sent for a fingerprint. The fingerprint is a hash of the throwable class, the cause
+ * class and the top stack trace frames. The stack trace is not needed only if it already reached the
+ * CMR with the same fingerprint in the deduplication interval, such data only carries the
+ * fingerprint and the CMR restores the stack trace. As the stack trace is marked as sent by
+ * {@link SentStackTraces} only after the data carrying it was sent, data that is lost on the agent
+ * side does not suppress the stack trace of the following occurrences.
+ *
+ * @author Ivan Senic
+ *
+ */
+class StackTraceDeduplicator {
+
+	/**
+	 * Parameter defining the deduplication interval in milliseconds. Zero deactivates the
+	 * deduplication.
+	 */
+	static final String DEDUPLICATION_INTERVAL_PARAMETER = "stackTraceDeduplicationInterval";
+
+	/**
+	 * Parameter defining the amount of top stack trace frames included in the fingerprint.
+	 */
+	static final String FINGERPRINT_FRAMES_PARAMETER = "fingerprintFrames";
+
+	/**
+	 * Default deduplication interval in milliseconds.
+	 */
+	static final long DEFAULT_DEDUPLICATION_INTERVAL = 60000L;
+
+	/**
+	 * Default amount of frames included in the fingerprint.
+	 */
+	static final int DEFAULT_FINGERPRINT_FRAMES = 10;
+
+	/**
+	 * The logger of this class. Initialized manually.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(StackTraceDeduplicator.class);
+
+	/**
+	 * Deduplication interval in milliseconds.
+	 */
+	private final long deduplicationInterval;
+
+	/**
+	 * Amount of frames included in the fingerprint.
+	 */
+	private final int fingerprintFrames;
+
+	/**
+	 * Stack traces that reached the CMR.
+	 */
+	private final SentStackTraces sentStackTraces;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param parameter
+	 *            Sensor parameters.
+	 * @param sentStackTraces
+	 *            Stack traces that reached the CMR.
+	 */
+	StackTraceDeduplicator(Map<String, Object> parameter, SentStackTraces sentStackTraces) {
+		this.deduplicationInterval = getLongParameter(parameter, DEDUPLICATION_INTERVAL_PARAMETER, DEFAULT_DEDUPLICATION_INTERVAL);
+		this.fingerprintFrames = (int) getLongParameter(parameter, FINGERPRINT_FRAMES_PARAMETER, DEFAULT_FINGERPRINT_FRAMES);
+		this.sentStackTraces = sentStackTraces;
+		if (isActive()) {
+			sentStackTraces.activate();
+		}
+	}
+
+	/**
+	 * Returns if the deduplication is active.
+	 *
+	 * @return If the deduplication is active.
+	 */
+	boolean isActive() {
+		return deduplicationInterval > 0;
+	}
+
+	/**
+	 * Computes the fingerprint of the throwable.
+	 *
+	 * @param throwableType
+	 *            Class name of the throwable.
+	 * @param cause
+	 *            Class name of the cause, can be <code>null</code>.
+	 * @param stackTrace
+	 *            Stack trace elements of the throwable.
+	 * @return Fingerprint.
+	 */
+	long fingerprint(String throwableType, String cause, StackTraceElement[] stackTrace) {
+		final long prime = 1099511628211L;
+		long result = throwableType.hashCode();
+		result = (prime * result) + ((cause == null) ? 0 : cause.hashCode());
+		if (null != stackTrace) {
+			int frames = Math.min(stackTrace.length, fingerprintFrames);
+			for (int i = 0; i < frames; i++) {
+				StackTraceElement element = stackTrace[i];
+				result = (prime * result) + element.getClassName().hashCode();
+				result = (prime * result) + element.getMethodName().hashCode();
+				result = (prime * result) + element.getLineNumber();
+			}
+			result = (prime * result) + frames;
+		}
+		return result;
+	}
+
+	/**
+	 * Checks if the stack trace for the given fingerprint must be sent. This is the case until the
+	 * stack trace with the fingerprint was sent to the CMR in the last deduplication interval.
+	 *
+	 * @param fingerprint
+	 *            Fingerprint.
+	 * @param currentTime
+	 *            Current time in milliseconds.
+	 * @return <code>true</code> if the complete stack trace must be sent.
+	 */
+	boolean isStackTraceNeeded(long fingerprint, long currentTime) {
+		if (!isActive()) {
+			return true;
+		}
+
+		return !sentStackTraces.isSentSince(fingerprint, (currentTime - deduplicationInterval) + 1);
+	}
+
+	/**
+	 * Reads the long parameter.
+	 *
+	 * @param parameter
+	 *            Sensor parameters.
+	 * @param key
+	 *            Parameter key.
+	 * @param defaultValue
+	 *            Value to use if parameter is not set or is not a number.
+	 * @return Parameter value.
+	 */
+	private static long getLongParameter(Map<String, Object> parameter, String key, long defaultValue) {
+		if (null == parameter) {
+			return defaultValue;
+		}
+
+		Object value = parameter.get(key);
+		if (value instanceof Number) {
+			return ((Number) value).longValue();
+		} else if (value instanceof String) {
+			try {
+				return Long.parseLong((String) value);
+			} catch (NumberFormatException e) {
+				if (LOG.isWarnEnabled()) {
+					LOG.warn("Exception sensor parameter " + key + " must be a number, but was " + value + ".");
+				}
+			}
+		}
+		return defaultValue;
+	}
+}
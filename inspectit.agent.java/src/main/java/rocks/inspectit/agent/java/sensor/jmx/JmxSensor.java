@@ -4,14 +4,18 @@ import java.lang.management.ManagementFactory;
 import java.lang.reflect.Array;
 import java.sql.Timestamp;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.management.Attribute;
+import javax.management.AttributeList;
 import javax.management.InstanceNotFoundException;
 import javax.management.IntrospectionException;
 import javax.management.MBeanAttributeInfo;
@@ -20,6 +24,7 @@ import javax.management.MBeanServerNotification;
 import javax.management.Notification;
 import javax.management.NotificationFilter;
 import javax.management.NotificationListener;
+import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
 import javax.management.ReflectionException;
 
@@ -46,6 +51,15 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 
 /**
  * The implementation of the JmxSensor.
+ * <p>
+ * The monitored attributes are grouped per MBean and all attributes of one MBean that are due
+ * for sampling are read with a single {@link MBeanServer#getAttributes(ObjectName, String[])}
+ * call. Every attribute is sampled with the interval defined by the
+ * {@value #SAMPLING_INTERVAL_PARAMETER} sensor parameter, that can be overwritten per attribute
+ * name with the parameter key {@value #SAMPLING_INTERVAL_PARAMETER}<code>.attributeName</code>.
+ * Values that did not change since the last sent value are not sent, unless the
+ * {@value #HEARTBEAT_INTERVAL_PARAMETER} passed. Boolean and numeric values are compared in the
+ * primitive form and converted to string only when sent.
  *
  * @author Alfred Krauss
  * @author Marius Oehler
@@ -60,10 +74,25 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean {
 	private static final String MBEAN_SERVER_DELEGATE_NAME = "JMImplementation:type=MBeanServerDelegate";
 
 	/**
-	 * Defines the interval of the maximum call rate of the
-	 * {@link JmxSensor#collectData(ICoreService, long)} method.
+	 * Default sampling interval of an attribute in milliseconds.
 	 */
-	private static final int DATA_COLLECT_INTERVAL = 5000;
+	private static final long DEFAULT_SAMPLING_INTERVAL = 5000L;
+
+	/**
+	 * Default interval in milliseconds after which not changed value is sent again.
+	 */
+	private static final long DEFAULT_HEARTBEAT_INTERVAL = 60000L;
+
+	/**
+	 * Sensor parameter for the sampling interval in milliseconds.
+	 */
+	private static final String SAMPLING_INTERVAL_PARAMETER = "samplingInterval";
+
+	/**
+	 * Sensor parameter for the heartbeat interval in milliseconds. Value of <code>0</code> sends
+	 * every sampled value.
+	 */
+	private static final String HEARTBEAT_INTERVAL_PARAMETER = "heartbeatInterval";
 
 	/**
 	 * Notification filter that listeners only to the MBeanServerNotification events.
@@ -117,9 +146,14 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean {
 	private final Map<MBeanServer, MBeanServerHolder> activeServerMap = new ConcurrentHashMap<MBeanServer, MBeanServerHolder>();
 
 	/**
-	 * The timestamp of the last {@link #collectData(ICoreService, long)} method invocation.
+	 * Default sampling interval of the attributes.
+	 */
+	private long samplingInterval = DEFAULT_SAMPLING_INTERVAL;
+
+	/**
+	 * Interval after which not changed value is sent again.
 	 */
-	long lastDataCollectionTimestamp = 0;
+	private long heartbeatInterval = DEFAULT_HEARTBEAT_INTERVAL;
 
 	/**
 	 * Logs once, if the class cache is not available.
@@ -136,6 +170,9 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean {
 		// check for forcing server creation
 		Map<String, Object> parameters = sensorTypeConfig.getParameters();
 		if (MapUtils.isNotEmpty(parameters)) {
+			samplingInterval = getLongParameter(SAMPLING_INTERVAL_PARAMETER, DEFAULT_SAMPLING_INTERVAL);
+			heartbeatInterval = getLongParameter(HEARTBEAT_INTERVAL_PARAMETER, DEFAULT_HEARTBEAT_INTERVAL);
+
 			if (Boolean.TRUE.equals(parameters.get("forceMBeanServer"))) {
 				// create only, get it via hook
 				MBeanServer server = ManagementFactory.getPlatformMBeanServer();
@@ -220,22 +257,20 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean {
 	 */
 	@Override
 	public void update(ICoreService coreService) {
+		if (MapUtils.isEmpty(activeServerMap)) {
+			return;
+		}
+
 		long sensorTypeIdent = sensorTypeConfig.getId();
 		long currentTime = System.currentTimeMillis();
-
-		// Check if the collectData method should be invoked
-		if (MapUtils.isNotEmpty(activeServerMap) && ((currentTime - lastDataCollectionTimestamp) > DATA_COLLECT_INTERVAL)) {
-			// store the invocation timestamp
-			lastDataCollectionTimestamp = System.currentTimeMillis();
-
-			for (MBeanServerHolder holder : activeServerMap.values()) {
-				collectData(holder, coreService, sensorTypeIdent);
-			}
+		for (MBeanServerHolder holder : activeServerMap.values()) {
+			collectData(holder, coreService, sensorTypeIdent, currentTime);
 		}
 	}
 
 	/**
-	 * Collects the data from the MBean server in the holder and sends it to the CMR.
+	 * Collects the data of all attributes due for sampling from the MBean server in the holder and
+	 * sends the changed values to the CMR.
 	 *
 	 * @param holder
 	 *            {@link MBeanServerHolder} to collect data from
@@ -243,42 +278,146 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean {
 	 *            The core service which is needed to store the measurements to.
 	 * @param sensorTypeIdent
 	 *            The ID of the sensor type so that old data can be found. (for aggregating etc.)
+	 * @param currentTime
+	 *            Current time in milliseconds.
 	 */
-	private void collectData(MBeanServerHolder holder, ICoreService coreService, long sensorTypeIdent) {
+	private void collectData(MBeanServerHolder holder, ICoreService coreService, long sensorTypeIdent, long currentTime) {
 		MBeanServer mBeanServer = holder.mBeanServer;
-		Map<JmxAttributeDescriptor, Boolean> activeAttributes = holder.activeAttributes;
-		Map<String, ObjectName> nameStringToObjectName = holder.nameStringToObjectName;
 
-		Timestamp timestamp = new Timestamp(Calendar.getInstance().getTime().getTime());
-		for (Iterator<JmxAttributeDescriptor> iterator = activeAttributes.keySet().iterator(); iterator.hasNext();) {
-			JmxAttributeDescriptor descriptor = iterator.next();
+		Timestamp timestamp = null;
+		long platformId = 0;
+		int sampled = 0;
+		int suppressed = 0;
+		for (MonitoredMBean monitoredMBean : holder.monitoredMBeans.values()) {
+			if (currentTime < monitoredMBean.nextSamplingTimestamp) {
+				continue;
+			}
+
+			List<MonitoredAttribute> dueAttributes = monitoredMBean.getDueAttributes(currentTime);
+			if (dueAttributes.isEmpty()) {
+				continue;
+			}
+
+			ObjectName objectName = monitoredMBean.objectName;
+			String[] attributeNames = new String[dueAttributes.size()];
+			for (int i = 0; i < attributeNames.length; i++) {
+				attributeNames[i] = dueAttributes.get(i).descriptor.getAttributeName();
+			}
 
+			AttributeList attributeList;
 			try {
-				// Retrieving the value of the, in the JmxAttributeDescriptor specified,
-				// MBeanAttribute
-				ObjectName objectName = nameStringToObjectName.get(descriptor.getmBeanObjectName());
-				Object collectedValue = mBeanServer.getAttribute(objectName, descriptor.getAttributeName());
+				attributeList = mBeanServer.getAttributes(objectName, attributeNames);
+			} catch (Exception e) {
+				holder.monitoredMBeans.remove(objectName);
+				log.warn("JMX::Exception. An exception has been thrown during attempt to fetch the attributes from the MBean " + objectName + ". MBean removed from the actively read list.", e);
+				continue;
+			}
 
-				String value;
-				if (null == collectedValue) {
-					value = "null";
-				} else if (collectedValue.getClass().isArray()) {
-					value = getArrayValue(collectedValue);
+			Map<String, Object> values = toValueMap(attributeList);
+			for (MonitoredAttribute attribute : dueAttributes) {
+				JmxAttributeDescriptor descriptor = attribute.descriptor;
+				Object collectedValue;
+				if (values.containsKey(descriptor.getAttributeName())) {
+					collectedValue = values.get(descriptor.getAttributeName());
 				} else {
-					value = collectedValue.toString();
+					// attributes failing in the bulk read are just missing, read single to get the
+					// reason
+					try {
+						collectedValue = mBeanServer.getAttribute(objectName, descriptor.getAttributeName());
+					} catch (Exception e) {
+						monitoredMBean.attributes.remove(descriptor.getAttributeName());
+						log.warn("JMX::Exception. An exception has been thrown during attempt to fetch the attribute " + descriptor.getAttributeName() + " from the MBean "
+								+ descriptor.getmBeanObjectName() + ". Attribute removed from the actively read list.", e);
+						continue;
+					}
 				}
 
-				// Create a new JmxSensorValueData to be saved into the database
-				long platformid = platformManager.getPlatformId();
-				JmxSensorValueData jsvd = new JmxSensorValueData(descriptor.getId(), value, timestamp, platformid, sensorTypeIdent);
+				sampled++;
+				if (!attribute.sample(collectedValue, currentTime, heartbeatInterval)) {
+					suppressed++;
+					continue;
+				}
 
+				if (null == timestamp) {
+					timestamp = new Timestamp(currentTime);
+					platformId = platformManager.getPlatformId();
+				}
+
+				// Create a new JmxSensorValueData to be saved into the database
+				JmxSensorValueData jsvd;
+				if (attribute.numeric) {
+					jsvd = new JmxSensorValueData(descriptor.getId(), collectedValue.toString(), attribute.numericValue, timestamp, platformId, sensorTypeIdent);
+				} else {
+					jsvd = new JmxSensorValueData(descriptor.getId(), attribute.getStringValue(), timestamp, platformId, sensorTypeIdent);
+				}
 				coreService.addDefaultData(jsvd);
-			} catch (Exception e) {
-				iterator.remove();
-				log.warn("JMX::Exception. An exception has been thrown during attempt to fetch the attribute " + descriptor.getAttributeName() + " from the MBean " + descriptor.getmBeanObjectName()
-				+ ". Attribute removed from the actively read list.", e);
 			}
 		}
+
+		if (sampled > 0) {
+			agentStatisticsLogger.jmxValuesSampled(sampled, suppressed);
+		}
+	}
+
+	/**
+	 * Converts the attribute list to the map of attribute names to values.
+	 *
+	 * @param attributeList
+	 *            {@link AttributeList}, can be <code>null</code>
+	 * @return Map of attribute names to values.
+	 */
+	private Map<String, Object> toValueMap(AttributeList attributeList) {
+		if ((null == attributeList) || attributeList.isEmpty()) {
+			return Collections.<String, Object> emptyMap();
+		}
+
+		Map<String, Object> values = new HashMap<String, Object>(attributeList.size() * 2);
+		for (Object object : attributeList) {
+			if (object instanceof Attribute) {
+				Attribute attribute = (Attribute) object;
+				values.put(attribute.getName(), attribute.getValue());
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Returns the long value of the sensor parameter.
+	 *
+	 * @param key
+	 *            parameter key
+	 * @param defaultValue
+	 *            value to return if parameter is not set or not a number
+	 * @return Long value of the sensor parameter.
+	 */
+	private long getLongParameter(String key, long defaultValue) {
+		Map<String, Object> parameters = sensorTypeConfig.getParameters();
+		if (null == parameters) {
+			return defaultValue;
+		}
+
+		Object value = parameters.get(key);
+		if (value instanceof Number) {
+			return ((Number) value).longValue();
+		} else if (value instanceof String) {
+			try {
+				return Long.parseLong((String) value);
+			} catch (NumberFormatException e) {
+				log.warn("JMX sensor parameter " + key + " must be a number, but was " + value + ".");
+			}
+		}
+		return defaultValue;
+	}
+
+	/**
+	 * Returns the sampling interval for the attribute.
+	 *
+	 * @param attributeName
+	 *            attribute name
+	 * @return Sampling interval defined for the attribute name or the default one.
+	 */
+	private long getSamplingInterval(String attributeName) {
+		return getLongParameter(SAMPLING_INTERVAL_PARAMETER + '.' + attributeName, samplingInterval);
 	}
 
 	/**
@@ -292,8 +431,6 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean {
 	 */
 	private void registerMBeans(MBeanServerHolder holder, ObjectName mBeanName) {
 		MBeanServer mBeanServer = holder.mBeanServer;
-		Map<JmxAttributeDescriptor, Boolean> activeAttributes = holder.activeAttributes;
-		Map<String, ObjectName> nameStringToObjectName = holder.nameStringToObjectName;
 
 		// do nothing if connection is not there
 		if (!connection.isConnected()) {
@@ -331,14 +468,29 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean {
 		try {
 			Collection<JmxAttributeDescriptor> toMonitor = connection.analyzeJmxAttributes(platformManager.getPlatformId(), descriptors);
 
-			// add to active attributes
-			for (JmxAttributeDescriptor descriptor : toMonitor) {
-				activeAttributes.put(descriptor, Boolean.FALSE);
-			}
-			// if call is working add object names to the map
+			Map<String, ObjectName> nameStringToObjectName = new HashMap<String, ObjectName>(allNames.size() * 2);
 			for (ObjectName name : allNames) {
 				nameStringToObjectName.put(name.toString(), name);
 			}
+
+			// add to monitored attributes grouped by the MBean
+			for (JmxAttributeDescriptor descriptor : toMonitor) {
+				ObjectName objectName = nameStringToObjectName.get(descriptor.getmBeanObjectName());
+				if (null == objectName) {
+					try {
+						objectName = new ObjectName(descriptor.getmBeanObjectName());
+					} catch (MalformedObjectNameException e) {
+						continue;
+					}
+				}
+
+				MonitoredMBean monitoredMBean = holder.monitoredMBeans.get(objectName);
+				if (null == monitoredMBean) {
+					monitoredMBean = new MonitoredMBean(objectName);
+					holder.monitoredMBeans.put(objectName, monitoredMBean);
+				}
+				monitoredMBean.add(new MonitoredAttribute(descriptor, getSamplingInterval(descriptor.getAttributeName())));
+			}
 		} catch (ServerUnavailableException e) {
 			if (log.isWarnEnabled()) {
 				log.warn("Error registering JMX attributes on the server.", e);
@@ -386,7 +538,7 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean {
 	 * @return Value for the array or empty string if given object is <code>null</code> or not an
 	 *         array.
 	 */
-	private String getArrayValue(Object collectedArray) {
+	static String getArrayValue(Object collectedArray) {
 		if ((null != collectedArray) && collectedArray.getClass().isArray()) {
 			StringBuilder sb = new StringBuilder("[");
 			int length = Array.getLength(collectedArray);
@@ -416,15 +568,9 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean {
 		final MBeanServer mBeanServer;
 
 		/**
-		 * Map used to connect the ObjectName of a MBean with the string-representation of the same
-		 * MBean. Recreation of the ObjectName is no longer necessary for the update-method.
-		 */
-		final Map<String, ObjectName> nameStringToObjectName = new ConcurrentHashMap<String, ObjectName>();
-
-		/**
-		 * Set of active attributes (represented as Map).
+		 * Monitored MBeans with their active attributes.
 		 */
-		final Map<JmxAttributeDescriptor, Boolean> activeAttributes = new ConcurrentHashMap<JmxAttributeDescriptor, Boolean>();
+		final Map<ObjectName, MonitoredMBean> monitoredMBeans = new ConcurrentHashMap<ObjectName, MonitoredMBean>();
 
 		/**
 		 * Default constructor.
@@ -452,20 +598,237 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean {
 					// if we have registration pick up the attributes
 					registerMBeans(MBeanServerHolder.this, mBeanName);
 				} else if (MBeanServerNotification.UNREGISTRATION_NOTIFICATION.equals(serverNotification.getType())) {
-					// get maps from holder
-					// if we have un-registration remove from maps
-					String mBeanNameString = mBeanName.toString();
-					for (Iterator<JmxAttributeDescriptor> it = activeAttributes.keySet().iterator(); it.hasNext();) {
-						JmxAttributeDescriptor descriptor = it.next();
-						if (Objects.equal(descriptor.getmBeanObjectName(), mBeanNameString)) {
-							it.remove();
-						}
-					}
-					nameStringToObjectName.remove(mBeanNameString);
+					// if we have un-registration remove all attributes of the bean
+					monitoredMBeans.remove(mBeanName);
 				}
 			}
 		}
 
 	}
 
-}
\ No newline at end of file
+	/**
+	 * MBean with the attributes being monitored.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	static final class MonitoredMBean {
+
+		/**
+		 * Object name of the MBean.
+		 */
+		final ObjectName objectName;
+
+		/**
+		 * Monitored attributes by attribute name.
+		 */
+		final Map<String, MonitoredAttribute> attributes = new ConcurrentHashMap<String, MonitoredAttribute>();
+
+		/**
+		 * Time in milliseconds when the first of the attributes is due for sampling.
+		 */
+		long nextSamplingTimestamp;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param objectName
+		 *            Object name of the MBean.
+		 */
+		MonitoredMBean(ObjectName objectName) {
+			this.objectName = objectName;
+		}
+
+		/**
+		 * Adds the attribute to be monitored, attribute is due for sampling immediately.
+		 *
+		 * @param attribute
+		 *            Attribute to add.
+		 */
+		void add(MonitoredAttribute attribute) {
+			attributes.put(attribute.descriptor.getAttributeName(), attribute);
+			nextSamplingTimestamp = 0;
+		}
+
+		/**
+		 * Returns the attributes due for sampling and schedules their next sampling.
+		 *
+		 * @param currentTime
+		 *            Current time in milliseconds.
+		 * @return Attributes due for sampling.
+		 */
+		List<MonitoredAttribute> getDueAttributes(long currentTime) {
+			List<MonitoredAttribute> due = new ArrayList<MonitoredAttribute>(attributes.size());
+			long next = Long.MAX_VALUE;
+			for (MonitoredAttribute attribute : attributes.values()) {
+				if (attribute.nextSamplingTimestamp <= currentTime) {
+					due.add(attribute);
+					attribute.nextSamplingTimestamp = currentTime + attribute.samplingInterval;
+				}
+				next = Math.min(next, attribute.nextSamplingTimestamp);
+			}
+			nextSamplingTimestamp = next;
+			return due;
+		}
+	}
+
+	/**
+	 * One monitored attribute together with the last sent value.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	static final class MonitoredAttribute {
+
+		/**
+		 * Descriptor of the attribute.
+		 */
+		final JmxAttributeDescriptor descriptor;
+
+		/**
+		 * Sampling interval in milliseconds.
+		 */
+		final long samplingInterval;
+
+		/**
+		 * Time in milliseconds when the attribute is due for sampling.
+		 */
+		long nextSamplingTimestamp;
+
+		/**
+		 * Time in milliseconds when the value was last sent, negative if never.
+		 */
+		long lastSentTimestamp = -1;
+
+		/**
+		 * If the last sampled value is a boolean or numeric value.
+		 */
+		boolean numeric;
+
+		/**
+		 * If the last sampled value is {@link #numeric} and integral, then it's compared by the
+		 * {@link #longValue}, as the double can not hold all long values exactly.
+		 */
+		boolean integral;
+
+		/**
+		 * Last sampled value as long if {@link #integral}.
+		 */
+		long longValue;
+
+		/**
+		 * Last sampled value as double if {@link #numeric}.
+		 */
+		double numericValue;
+
+		/**
+		 * Last sampled value if not {@link #numeric}. For arrays holds the string value.
+		 */
+		Object objectValue;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param descriptor
+		 *            Descriptor of the attribute.
+		 * @param samplingInterval
+		 *            Sampling interval in milliseconds.
+		 */
+		MonitoredAttribute(JmxAttributeDescriptor descriptor, long samplingInterval) {
+			this.descriptor = descriptor;
+			this.samplingInterval = samplingInterval;
+		}
+
+		/**
+		 * Stores the sampled value and returns if it should be sent.
+		 *
+		 * @param value
+		 *            Sampled value.
+		 * @param currentTime
+		 *            Current time in milliseconds.
+		 * @param heartbeatInterval
+		 *            Interval after which the not changed value is sent again.
+		 * @return <code>true</code> if the value changed since the last sent value or the
+		 *         heartbeat interval passed.
+		 */
+		boolean sample(Object value, long currentTime, long heartbeatInterval) {
+			boolean changed;
+			if ((value instanceof Double) && isPrimitive(value)) {
+				double newValue = ((Double) value).doubleValue();
+				changed = !numeric || integral || (Double.doubleToLongBits(numericValue) != Double.doubleToLongBits(newValue));
+				numeric = true;
+				integral = false;
+				numericValue = newValue;
+				objectValue = null;
+			} else if (isPrimitive(value)) {
+				long newValue = toLong(value);
+				changed = !numeric || !integral || (longValue != newValue);
+				numeric = true;
+				integral = true;
+				longValue = newValue;
+				numericValue = newValue;
+				objectValue = null;
+			} else {
+				Object newValue = (null != value) && value.getClass().isArray() ? getArrayValue(value) : value;
+				changed = numeric || (lastSentTimestamp < 0) || !Objects.equal(objectValue, newValue);
+				numeric = false;
+				integral = false;
+				objectValue = newValue;
+			}
+
+			if (changed || (lastSentTimestamp < 0) || ((currentTime - lastSentTimestamp) >= heartbeatInterval)) {
+				lastSentTimestamp = currentTime;
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Returns the string value of the last sampled value if it's not {@link #numeric}.
+		 *
+		 * @return String value.
+		 */
+		String getStringValue() {
+			if (null == objectValue) {
+				return "null";
+			}
+			return objectValue.toString();
+		}
+
+		/**
+		 * If the value is a boolean or number that can be kept in the primitive form. Only the
+		 * types which string representation is parsed to the same double value are included.
+		 *
+		 * @param value
+		 *            value
+		 * @return If the value is a boolean or number that can be kept in the primitive form.
+		 */
+		private static boolean isPrimitive(Object value) {
+			if ((value instanceof Long) || (value instanceof Integer) || (value instanceof Short) || (value instanceof Byte) || (value instanceof Boolean) || (value instanceof AtomicLong)
+					|| (value instanceof AtomicInteger)) {
+				return true;
+			}
+			if (value instanceof Double) {
+				double d = ((Double) value).doubleValue();
+				return !Double.isNaN(d) && !Double.isInfinite(d);
+			}
+			return false;
+		}
+
+		/**
+		 * Converts the integral value to long. Value must be primitive and not a double.
+		 *
+		 * @param value
+		 *            value
+		 * @return Long value, <code>1</code> or <code>0</code> for booleans.
+		 * @see #isPrimitive(Object)
+		 */
+		private static long toLong(Object value) {
+			if (value instanceof Boolean) {
+				return ((Boolean) value).booleanValue() ? 1L : 0L;
+			}
+			return ((Number) value).longValue();
+		}
+	}
+
+}
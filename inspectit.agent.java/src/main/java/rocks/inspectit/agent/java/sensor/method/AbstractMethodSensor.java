@@ -54,6 +54,26 @@ public abstract class AbstractMethodSensor implements IMethodSensor, Initializin
 		return sensorTypeConfig;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Returns <code>true</code> by default, sensors not using parameters should override.
+	 */
+	@Override
+	public boolean isParametersNeeded() {
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Returns <code>true</code> by default, sensors not using the return value should override.
+	 */
+	@Override
+	public boolean isResultNeeded() {
+		return true;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
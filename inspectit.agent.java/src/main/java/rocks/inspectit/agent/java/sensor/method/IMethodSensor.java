@@ -29,4 +29,23 @@ public interface IMethodSensor extends ISensor {
 	@Override
 	MethodSensorTypeConfig getSensorTypeConfig();
 
+	/**
+	 * Returns if the hook of this sensor reads the parameters of the instrumented method. If no
+	 * sensor on the method needs the parameters and no property accessors are defined, the
+	 * instrumentation passes <code>null</code> instead of the parameters array.
+	 *
+	 * @return Returns if the hook of this sensor reads the parameters of the instrumented method.
+	 */
+	boolean isParametersNeeded();
+
+	/**
+	 * Returns if the hook of this sensor reads the return value of the instrumented method. If no
+	 * sensor on the method needs the return value and no property accessors are defined, the
+	 * instrumentation passes <code>null</code> instead of the (boxed) return value.
+	 *
+	 * @return Returns if the hook of this sensor reads the return value of the instrumented
+	 *         method.
+	 */
+	boolean isResultNeeded();
+
 }
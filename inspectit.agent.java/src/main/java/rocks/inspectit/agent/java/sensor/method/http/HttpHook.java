@@ -12,6 +12,7 @@ import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
 import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.hooking.IMethodHook;
+import rocks.inspectit.agent.java.proxy.IRuntimeLinker;
 import rocks.inspectit.agent.java.sensor.method.timer.TimerHook;
 import rocks.inspectit.agent.java.util.ClassUtil;
 import rocks.inspectit.agent.java.util.StringConstraint;
@@ -142,16 +143,18 @@ public class HttpHook implements IMethodHook {
 	 *            The timer
 	 * @param platformManager
 	 *            The Platform manager
+	 * @param runtimeLinker
+	 *            The runtime linker for creating the accessors
 	 * @param threadMXBean
 	 *            the threadMx Bean for cpu timing
 	 * @param parameters
 	 *            the map containing the configuration parameters
 	 */
-	public HttpHook(Timer timer, IPlatformManager platformManager, Map<String, Object> parameters, ThreadMXBean threadMXBean) {
+	public HttpHook(Timer timer, IPlatformManager platformManager, IRuntimeLinker runtimeLinker, Map<String, Object> parameters, ThreadMXBean threadMXBean) {
 		this.timer = timer;
 		this.platformManager = platformManager;
 		this.threadMXBean = threadMXBean;
-		this.extractor = new HttpInformationExtractor(new StringConstraint(parameters));
+		this.extractor = new HttpInformationExtractor(new StringConstraint(parameters), runtimeLinker);
 
 		if ("true".equals(parameters.get("sessioncapture"))) {
 			if (LOG.isDebugEnabled()) {
@@ -5,11 +5,14 @@ import java.lang.reflect.Method;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import rocks.inspectit.agent.java.proxy.IRuntimeLinker;
 import rocks.inspectit.agent.java.util.StringConstraint;
 import rocks.inspectit.shared.all.communication.data.HttpInfo;
 
@@ -27,95 +30,40 @@ class HttpInformationExtractor {
 	private static final Logger LOG = LoggerFactory.getLogger(HttpInformationExtractor.class);
 
 	/**
-	 * Constraint for String length.
+	 * Marker placed in the {@link #statusMethodCache} for the classes not providing the
+	 * <code>getStatus</code> method. Since we can not put <code>null</code> to the cache we need to
+	 * put some object to serve as a marker.
 	 */
-	private StringConstraint strConstraint;
+	private static final Object NO_STATUS_METHOD = new Object();
 
 	/**
-	 * Marker method. This method severs for marking the cache key in {@link #methodCache} as
-	 * unavailable. Since we can not put <code>null</code> to a {@link ConcurrentHashMap} we need to
-	 * put some method to serve as a marker.
+	 * Constraint for String length.
 	 */
-	private Method markerMethod;
+	private StringConstraint strConstraint;
 
 	/**
-	 * Keeps track of already looked up <code>Method</code> objects for faster access. Get and Put
-	 * operations are synchronized by the concurrent hash map.
+	 * Runtime linker for creating the accessors.
 	 */
-	private ConcurrentHashMap<String, Method> methodCache = new ConcurrentHashMap<String, Method>();
+	private IRuntimeLinker runtimeLinker;
 
 	/**
-	 * Structure to store all necessary methods that we can invoke to get http information. These
-	 * objects are also used to cache the <code>Method</code> object in a cache.
-	 *
-	 * @author Stefan Siegl
+	 * Keeps track of the <code>getStatus</code> methods looked up on the concrete response classes.
+	 * The <code>HttpServletResponse</code> interface defines the method only since the Servlet API
+	 * 3.0, but the containers implementing older versions usually provide it in the concrete class.
 	 */
-	private enum HttpMethods {
-		/** Request URI in Servlet. */
-		SERVLET_REQUEST_URI("getRequestURI", (Class<?>[]) null),
-		/** Parameter map. */
-		SERVLET_GET_PARAMETER_MAP("getParameterMap", (Class<?>[]) null),
-		/** Gets all attributes names. */
-		SERVLET_GET_ATTRIBUTE_NAMES("getAttributeNames", (Class<?>[]) null),
-		/** Gets a given attributes name value. */
-		SERVLET_GET_ATTRIBUTE("getAttribute", new Class[] { String.class }),
-		/** Gets all header names. */
-		SERVLET_GET_HEADER_NAMES("getHeaderNames", (Class<?>[]) null),
-		/** Gets the value of one given header. */
-		SERVLET_GET_HEADER("getHeader", new Class[] { String.class }),
-		/** Gets the session. */
-		SERVLET_GET_SESSION("getSession", new Class[] { boolean.class }),
-		/** Reads the request method. */
-		SERVLET_GET_METHOD("getMethod", (Class<?>[]) null),
-		/** Gets all attribute names in the session. */
-		SESSION_GET_ATTRIBUTE_NAMES("getAttributeNames", (Class<?>[]) null),
-		/** Gets the value of a session attribute. */
-		SESSION_GET_ATTRIBUTE("getAttribute", new Class[] { String.class }),
-		/** Gets the response status. */
-		RESPONSE_GET_STATUS("getStatus", (Class<?>[]) null),
-		/** Gets the scheme. */
-		RESPONSE_GET_SCHEME("getScheme", (Class<?>[]) null),
-		/** Gets the server name. */
-		RESPONSE_GET_SERVER_NAME("getServerName", (Class<?>[]) null),
-		/** Gets the server port. */
-		RESPONSE_GET_SERVER_PORT("getServerPort", (Class<?>[]) null),
-		/** Gets the query string. */
-		RESPONSE_GET_QUERY_STRING("getQueryString", (Class<?>[]) null);
-
-		/**
-		 * Constructor.
-		 *
-		 * @param methodName
-		 *            method
-		 * @param parameters
-		 *            parameters
-		 */
-		private HttpMethods(String methodName, Class<?>[] parameters) { // NOPMD
-			this.methodName = methodName;
-			this.parameters = parameters;
-		}
-
-		/** name of the method. */
-		private String methodName;
-		/** parameters of the methods. */
-		private Class<?>[] parameters;
-	}
+	private final Cache<Class<?>, Object> statusMethodCache = CacheBuilder.newBuilder().weakKeys().build();
 
 	/**
 	 * Constructor.
 	 *
 	 * @param strConstraint
 	 *            the string constraints.
+	 * @param runtimeLinker
+	 *            the runtime linker for creating the accessors.
 	 */
-	public HttpInformationExtractor(StringConstraint strConstraint) {
+	public HttpInformationExtractor(StringConstraint strConstraint, IRuntimeLinker runtimeLinker) {
 		this.strConstraint = strConstraint;
-		try {
-			// setting marker method to point to Object.toString()
-			// this will represent non existing cache method
-			markerMethod = Object.class.getMethod("toString", new Class[0]);
-		} catch (Exception e) {
-			throw new IllegalStateException("Method toString() can not be found", e);
-		}
+		this.runtimeLinker = runtimeLinker;
 	}
 
 	/**
@@ -130,13 +78,13 @@ class HttpInformationExtractor {
 	 * @return the request uri
 	 */
 	public String getRequestUri(Class<?> httpServletRequestClass, Object httpServletRequest) {
-		Method m = retrieveMethod(HttpMethods.SERVLET_REQUEST_URI, httpServletRequestClass);
-		if (null == m) {
+		IHttpServletRequestAccessor accessor = getRequestAccessor(httpServletRequestClass);
+		if (null == accessor) {
 			return HttpInfo.UNDEFINED;
 		}
 
 		try {
-			String uri = (String) m.invoke(httpServletRequest, (Object[]) null);
+			String uri = accessor.getRequestURI(httpServletRequest);
 			if (null != uri) {
 				return uri;
 			} else {
@@ -160,13 +108,13 @@ class HttpInformationExtractor {
 	 * @return the request method
 	 */
 	public String getRequestMethod(Class<?> httpServletRequestClass, Object httpServletRequest) {
-		Method m = retrieveMethod(HttpMethods.SERVLET_GET_METHOD, httpServletRequestClass);
-		if (null == m) {
+		IHttpServletRequestAccessor accessor = getRequestAccessor(httpServletRequestClass);
+		if (null == accessor) {
 			return HttpInfo.UNDEFINED;
 		}
 
 		try {
-			String requestMethod = (String) m.invoke(httpServletRequest, (Object[]) null);
+			String requestMethod = accessor.getMethod(httpServletRequest);
 			if (null != requestMethod) {
 				return requestMethod;
 			} else {
@@ -190,14 +138,13 @@ class HttpInformationExtractor {
 	 * @return the parameters
 	 */
 	public Map<String, String[]> getParameterMap(Class<?> httpServletRequestClass, Object httpServletRequest) {
-		Method m = retrieveMethod(HttpMethods.SERVLET_GET_PARAMETER_MAP, httpServletRequestClass);
-		if (null == m) {
+		IHttpServletRequestAccessor accessor = getRequestAccessor(httpServletRequestClass);
+		if (null == accessor) {
 			return null;
 		}
 
 		try {
-			@SuppressWarnings("unchecked")
-			Map<String, String[]> parameterMap = (Map<String, String[]>) m.invoke(httpServletRequest, (Object[]) null);
+			Map<String, String[]> parameterMap = accessor.getParameterMap(httpServletRequest);
 
 			if ((null == parameterMap) || parameterMap.isEmpty()) {
 				return null;
@@ -222,19 +169,13 @@ class HttpInformationExtractor {
 	 * @return the attributes
 	 */
 	public Map<String, String> getAttributes(Class<?> httpServletRequestClass, Object httpServletRequest) {
-		Method attributesMethod = retrieveMethod(HttpMethods.SERVLET_GET_ATTRIBUTE_NAMES, httpServletRequestClass);
-		if (null == attributesMethod) {
-			return null;
-		}
-
-		Method attributeValue = retrieveMethod(HttpMethods.SERVLET_GET_ATTRIBUTE, httpServletRequestClass);
-		if (null == attributeValue) {
+		IHttpServletRequestAccessor accessor = getRequestAccessor(httpServletRequestClass);
+		if (null == accessor) {
 			return null;
 		}
 
 		try {
-			@SuppressWarnings("unchecked")
-			Enumeration<String> params = (Enumeration<String>) attributesMethod.invoke(httpServletRequest, (Object[]) null);
+			Enumeration<String> params = accessor.getAttributeNames(httpServletRequest);
 			Map<String, String> attributes = new HashMap<String, String>();
 			if (null == params) {
 				if (LOG.isDebugEnabled()) {
@@ -244,12 +185,12 @@ class HttpInformationExtractor {
 			}
 			while (params.hasMoreElements()) {
 				String attrName = params.nextElement();
-				Object value = attributeValue.invoke(httpServletRequest, new Object[] { attrName });
+				Object value = accessor.getAttribute(httpServletRequest, attrName);
 				attributes.put(attrName, strConstraint.crop(getAttributeValue(value)));
 			}
 			return attributes;
 		} catch (Exception e) {
-			LOG.error("Invocation of " + attributesMethod.getName() + " to get attributes on given object failed.", e);
+			LOG.error("Invocation of getAttributeNames to get attributes on given object failed.", e);
 			return null;
 		}
 	}
@@ -266,24 +207,18 @@ class HttpInformationExtractor {
 	 * @return the headers
 	 */
 	public Map<String, String> getHeaders(Class<?> httpServletRequestClass, Object httpServletRequest) {
-		Method headerNamesMethod = retrieveMethod(HttpMethods.SERVLET_GET_HEADER_NAMES, httpServletRequestClass);
-		if (null == headerNamesMethod) {
-			return null;
-		}
-
-		Method headerValueMethod = retrieveMethod(HttpMethods.SERVLET_GET_HEADER, httpServletRequestClass);
-		if (null == headerValueMethod) {
+		IHttpServletRequestAccessor accessor = getRequestAccessor(httpServletRequestClass);
+		if (null == accessor) {
 			return null;
 		}
 
 		try {
-			@SuppressWarnings("unchecked")
-			Enumeration<String> headers = (Enumeration<String>) headerNamesMethod.invoke(httpServletRequest, (Object[]) null);
+			Enumeration<String> headers = accessor.getHeaderNames(httpServletRequest);
 			Map<String, String> headersResult = new HashMap<String, String>();
 			if (headers != null) {
 				while (headers.hasMoreElements()) {
 					String headerName = headers.nextElement();
-					String headerValue = (String) headerValueMethod.invoke(httpServletRequest, new Object[] { headerName });
+					String headerValue = accessor.getHeader(httpServletRequest, headerName);
 					headersResult.put(headerName, strConstraint.crop(headerValue));
 				}
 				return headersResult;
@@ -307,16 +242,15 @@ class HttpInformationExtractor {
 	 * @return session attributes
 	 */
 	public Map<String, String> getSessionAttributes(Class<?> httpServletRequestClass, Object httpServletRequest) {
-		Method getSessionMethod = retrieveMethod(HttpMethods.SERVLET_GET_SESSION, httpServletRequestClass);
-
-		if (null == getSessionMethod) { // Could not retrieve method
+		IHttpServletRequestAccessor accessor = getRequestAccessor(httpServletRequestClass);
+		if (null == accessor) {
 			return null;
 		}
 
 		Object httpSession;
 		Class<?> httpSessionClass;
 		try {
-			httpSession = getSessionMethod.invoke(httpServletRequest, new Object[] { Boolean.FALSE });
+			httpSession = accessor.getSession(httpServletRequest, false);
 			if (httpSession == null) {
 				// Currently we do not have a session and thus cannot get any session attributes
 				if (LOG.isDebugEnabled()) {
@@ -332,25 +266,19 @@ class HttpInformationExtractor {
 			return null;
 		}
 
-		Method getAttributeNamesSession = retrieveMethod(HttpMethods.SESSION_GET_ATTRIBUTE_NAMES, httpSessionClass);
-		if (null == getAttributeNamesSession) {
-			return null;
-		}
-
-		Method getAttributeValueSession = retrieveMethod(HttpMethods.SESSION_GET_ATTRIBUTE, httpSessionClass);
-		if (null == getAttributeValueSession) {
+		IHttpSessionAccessor sessionAccessor = runtimeLinker.createAccessor(IHttpSessionAccessor.class, httpSessionClass);
+		if (null == sessionAccessor) {
 			return null;
 		}
 
 		try {
-			@SuppressWarnings("unchecked")
-			Enumeration<String> sessionAttr = (Enumeration<String>) getAttributeNamesSession.invoke(httpSession, (Object[]) null);
+			Enumeration<String> sessionAttr = sessionAccessor.getAttributeNames(httpSession);
 			Map<String, String> sessionAttributes = new HashMap<String, String>();
 
 			if (null != sessionAttr) {
 				while (sessionAttr.hasMoreElements()) {
 					String sessionAtt = sessionAttr.nextElement();
-					Object sessionValue = getAttributeValueSession.invoke(httpSession, sessionAtt);
+					Object sessionValue = sessionAccessor.getAttribute(httpSession, sessionAtt);
 					sessionAttributes.put(sessionAtt, strConstraint.crop(getAttributeValue(sessionValue)));
 				}
 				return sessionAttributes;
@@ -373,16 +301,63 @@ class HttpInformationExtractor {
 	 *         method returns 0.
 	 */
 	public int getResponseStatus(Class<?> httpServletResponseClass, Object httpServletResponse) {
-		Method getStatusMethod = retrieveMethod(HttpMethods.RESPONSE_GET_STATUS, httpServletResponseClass);
-		if (null == getStatusMethod) {
+		IHttpServletResponseAccessor accessor = runtimeLinker.createAccessor(IHttpServletResponseAccessor.class, httpServletResponseClass);
+		if (null != accessor) {
+			try {
+				int status = accessor.getStatus(httpServletResponse);
+				if (0 != status) {
+					return status;
+				}
+			} catch (Exception e) {
+				LOG.error("Invocation of to get response status on given object failed.", e);
+				return 0;
+			}
+		}
+
+		// the accessor returns 0 if the Servlet API is older than 3.0, so try the concrete class
+		return getResponseStatusFromClass(httpServletResponseClass, httpServletResponse);
+	}
+
+	/**
+	 * Reads the response status by invoking the <code>getStatus</code> method of the concrete
+	 * response class. The looked up method is cached per class.
+	 *
+	 * @param httpServletResponseClass
+	 *            the <code>Class</code> object representing the class of the given
+	 *            <code>HttpServletResponse</code>
+	 * @param httpServletResponse
+	 *            the response object
+	 * @return response status code if available, otherwise 0.
+	 */
+	private int getResponseStatusFromClass(Class<?> httpServletResponseClass, Object httpServletResponse) {
+		Object method = statusMethodCache.getIfPresent(httpServletResponseClass);
+		if (null == method) {
+			try {
+				Method getStatusMethod = httpServletResponseClass.getMethod("getStatus");
+				getStatusMethod.setAccessible(true);
+				method = getStatusMethod;
+			} catch (Exception e) {
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("The provided class " + httpServletResponseClass.getName() + " did not provide the getStatus method.", e);
+				}
+				// do not try to look up every time
+				method = NO_STATUS_METHOD;
+			}
+			statusMethodCache.put(httpServletResponseClass, method);
+		}
+
+		if (NO_STATUS_METHOD == method) {
 			return 0;
 		}
+
 		try {
-			return (Integer) getStatusMethod.invoke(httpServletResponse);
+			Object status = ((Method) method).invoke(httpServletResponse);
+			if (status instanceof Integer) {
+				return ((Integer) status).intValue();
+			}
 		} catch (Exception e) {
 			LOG.error("Invocation of to get response status on given object failed.", e);
 		}
-
 		return 0;
 	}
 
@@ -397,13 +372,13 @@ class HttpInformationExtractor {
 	 * @return scheme if available. If scheme cannot be retrieved, this method returns null.
 	 */
 	public String getScheme(Class<?> httpServletRequestClass, Object httpServletRequest) {
-		Method m = retrieveMethod(HttpMethods.RESPONSE_GET_SCHEME, httpServletRequestClass);
-		if (null == m) {
+		IHttpServletRequestAccessor accessor = getRequestAccessor(httpServletRequestClass);
+		if (null == accessor) {
 			return null;
 		}
 
 		try {
-			return (String) m.invoke(httpServletRequest, (Object[]) null);
+			return accessor.getScheme(httpServletRequest);
 		} catch (Exception e) {
 			LOG.error("Invocation on given object failed.", e);
 			return null;
@@ -422,13 +397,13 @@ class HttpInformationExtractor {
 	 *         null.
 	 */
 	public String getServerName(Class<?> httpServletRequestClass, Object httpServletRequest) {
-		Method m = retrieveMethod(HttpMethods.RESPONSE_GET_SERVER_NAME, httpServletRequestClass);
-		if (null == m) {
+		IHttpServletRequestAccessor accessor = getRequestAccessor(httpServletRequestClass);
+		if (null == accessor) {
 			return null;
 		}
 
 		try {
-			return (String) m.invoke(httpServletRequest, (Object[]) null);
+			return accessor.getServerName(httpServletRequest);
 		} catch (Exception e) {
 			LOG.error("Invocation on given object failed.", e);
 			return null;
@@ -446,13 +421,13 @@ class HttpInformationExtractor {
 	 * @return server port if available. If the port cannot be retrieved, this method returns 0.
 	 */
 	public int getServerPort(Class<?> httpServletRequestClass, Object httpServletRequest) {
-		Method m = retrieveMethod(HttpMethods.RESPONSE_GET_SERVER_PORT, httpServletRequestClass);
-		if (null == m) {
+		IHttpServletRequestAccessor accessor = getRequestAccessor(httpServletRequestClass);
+		if (null == accessor) {
 			return 0;
 		}
 
 		try {
-			return (Integer) m.invoke(httpServletRequest, (Object[]) null);
+			return accessor.getServerPort(httpServletRequest);
 		} catch (Exception e) {
 			LOG.error("Invocation on given object failed.", e);
 			return 0;
@@ -471,13 +446,13 @@ class HttpInformationExtractor {
 	 *         null.
 	 */
 	public String getQueryString(Class<?> httpServletRequestClass, Object httpServletRequest) {
-		Method m = retrieveMethod(HttpMethods.RESPONSE_GET_QUERY_STRING, httpServletRequestClass);
-		if (null == m) {
+		IHttpServletRequestAccessor accessor = getRequestAccessor(httpServletRequestClass);
+		if (null == accessor) {
 			return null;
 		}
 
 		try {
-			return (String) m.invoke(httpServletRequest, (Object[]) null);
+			return accessor.getQueryString(httpServletRequest);
 		} catch (Exception e) {
 			LOG.error("Invocation on given object failed.", e);
 			return null;
@@ -485,54 +460,17 @@ class HttpInformationExtractor {
 	}
 
 	/**
-	 * Tries a lookup in the cache first, then tries to get the <code>Method</code> object via
-	 * reflection.
-	 *
-	 * @param httpMethod
-	 *            the Method to lookup
-	 * @param clazzUsedToLookup
-	 *            the class to use if reflection lookup is necessary (if it is not already in the
-	 *            cache)
-	 * @return the <code>Method</code> object or <code>null</code> if the method cannot be found.
-	 */
-	private Method retrieveMethod(HttpMethods httpMethod, Class<?> clazzUsedToLookup) {
-		String cacheLookupName = getCacheLookupName(httpMethod, clazzUsedToLookup);
-		Method m = methodCache.get(cacheLookupName);
-
-		if (null == m) {
-			// We do not yet have the method in the Cache
-			try {
-				m = clazzUsedToLookup.getMethod(httpMethod.methodName, httpMethod.parameters);
-				m.setAccessible(true);
-				Method existing = methodCache.putIfAbsent(cacheLookupName, m);
-				if (null != existing) {
-					m = existing;
-				}
-			} catch (Exception e) {
-				LOG.error("The provided class " + clazzUsedToLookup.getName() + " did not provide the desired method.", e);
-
-				// Do not try to look up every time.
-				// Can not place null as value anyway
-				methodCache.putIfAbsent(cacheLookupName, markerMethod);
-			}
-		} else if (markerMethod.equals(m)) {
-			return null;
-		}
-
-		return m;
-	}
-
-	/**
-	 * Generates and return a lookup name for the cache.
+	 * Returns the accessor for the given <code>HttpServletRequest</code> class. The accessor is
+	 * cached per class in the runtime linker.
 	 *
-	 * @param httpMethod
-	 *            the Method to lookup
-	 * @param clazz
-	 *            the concrete class to lookup the method upon.
-	 * @return the generated lookup name.
+	 * @param httpServletRequestClass
+	 *            the <code>Class</code> object representing the class of the given
+	 *            <code>HttpServletRequest</code>
+	 * @return the accessor or <code>null</code> if the class does not implement the
+	 *         <code>HttpServletRequest</code>
 	 */
-	private String getCacheLookupName(HttpMethods httpMethod, Class<?> clazz) {
-		return clazz.getName() + '#' + httpMethod.methodName;
+	private IHttpServletRequestAccessor getRequestAccessor(Class<?> httpServletRequestClass) {
+		return runtimeLinker.createAccessor(IHttpServletRequestAccessor.class, httpServletRequestClass);
 	}
 
 	/**
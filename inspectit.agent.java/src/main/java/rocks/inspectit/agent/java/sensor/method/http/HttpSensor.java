@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.hooking.IHook;
+import rocks.inspectit.agent.java.proxy.IRuntimeLinker;
 import rocks.inspectit.agent.java.sensor.method.AbstractMethodSensor;
 import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
 import rocks.inspectit.agent.java.util.Timer;
@@ -35,6 +36,12 @@ public class HttpSensor extends AbstractMethodSensor implements IMethodSensor {
 	@Autowired
 	private IPlatformManager platformManager;
 
+	/**
+	 * The runtime linker for creating the accessors.
+	 */
+	@Autowired
+	private IRuntimeLinker runtimeLinker;
+
 	/**
 	 * No-arg constructor needed for Spring.
 	 */
@@ -48,10 +55,13 @@ public class HttpSensor extends AbstractMethodSensor implements IMethodSensor {
 	 *            the timer.
 	 * @param platformManager
 	 *            the platform manager.
+	 * @param runtimeLinker
+	 *            the runtime linker.
 	 */
-	public HttpSensor(Timer timer, IPlatformManager platformManager) {
+	public HttpSensor(Timer timer, IPlatformManager platformManager, IRuntimeLinker runtimeLinker) {
 		this.timer = timer;
 		this.platformManager = platformManager;
+		this.runtimeLinker = runtimeLinker;
 	}
 
 	/**
@@ -59,7 +69,7 @@ public class HttpSensor extends AbstractMethodSensor implements IMethodSensor {
 	 */
 	@Override
 	protected void initHook(Map<String, Object> parameters) {
-		hook = new HttpHook(timer, platformManager, parameters, ManagementFactory.getThreadMXBean());
+		hook = new HttpHook(timer, platformManager, runtimeLinker, parameters, ManagementFactory.getThreadMXBean());
 	}
 
 	/**
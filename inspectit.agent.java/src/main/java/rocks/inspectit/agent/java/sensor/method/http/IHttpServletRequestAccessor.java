@@ -0,0 +1,108 @@
+package rocks.inspectit.agent.java.sensor.method.http;
+
+import java.util.Enumeration;
+import java.util.Map;
+
+import rocks.inspectit.agent.java.proxy.AccessorFor;
+
+/**
+ * Accessor for the <code>javax.servlet.http.HttpServletRequest</code>. The implementation is
+ * generated at runtime for every servlet API version the requests are coming from. Methods not
+ * existing in the servlet API version return the default value.
+ *
+ * @author Ivan Senic
+ *
+ */
+@AccessorFor(targetType = "javax.servlet.http.HttpServletRequest")
+public interface IHttpServletRequestAccessor {
+
+	/**
+	 * @param request
+	 *            the request
+	 * @return the request URI
+	 */
+	String getRequestURI(Object request);
+
+	/**
+	 * @param request
+	 *            the request
+	 * @return the request method
+	 */
+	String getMethod(Object request);
+
+	/**
+	 * @param request
+	 *            the request
+	 * @return the parameter map
+	 */
+	Map<String, String[]> getParameterMap(Object request);
+
+	/**
+	 * @param request
+	 *            the request
+	 * @return names of all attributes
+	 */
+	Enumeration<String> getAttributeNames(Object request);
+
+	/**
+	 * @param request
+	 *            the request
+	 * @param name
+	 *            name of the attribute
+	 * @return value of the attribute
+	 */
+	Object getAttribute(Object request, String name);
+
+	/**
+	 * @param request
+	 *            the request
+	 * @return names of all headers
+	 */
+	Enumeration<String> getHeaderNames(Object request);
+
+	/**
+	 * @param request
+	 *            the request
+	 * @param name
+	 *            name of the header
+	 * @return value of the header
+	 */
+	String getHeader(Object request, String name);
+
+	/**
+	 * @param request
+	 *            the request
+	 * @param create
+	 *            if the session should be created if it does not exist
+	 * @return the <code>javax.servlet.http.HttpSession</code> or <code>null</code>
+	 */
+	Object getSession(Object request, boolean create);
+
+	/**
+	 * @param request
+	 *            the request
+	 * @return the scheme
+	 */
+	String getScheme(Object request);
+
+	/**
+	 * @param request
+	 *            the request
+	 * @return the server name
+	 */
+	String getServerName(Object request);
+
+	/**
+	 * @param request
+	 *            the request
+	 * @return the server port
+	 */
+	int getServerPort(Object request);
+
+	/**
+	 * @param request
+	 *            the request
+	 * @return the query string
+	 */
+	String getQueryString(Object request);
+}
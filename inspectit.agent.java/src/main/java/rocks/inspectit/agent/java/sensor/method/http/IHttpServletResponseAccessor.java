@@ -0,0 +1,22 @@
+package rocks.inspectit.agent.java.sensor.method.http;
+
+import rocks.inspectit.agent.java.proxy.AccessorFor;
+
+/**
+ * Accessor for the <code>javax.servlet.http.HttpServletResponse</code>.
+ *
+ * @author Ivan Senic
+ *
+ */
+@AccessorFor(targetType = "javax.servlet.http.HttpServletResponse")
+public interface IHttpServletResponseAccessor {
+
+	/**
+	 * Available since the Servlet API 3.0, for older versions always returns <code>0</code>.
+	 *
+	 * @param response
+	 *            the response
+	 * @return the response status
+	 */
+	int getStatus(Object response);
+}
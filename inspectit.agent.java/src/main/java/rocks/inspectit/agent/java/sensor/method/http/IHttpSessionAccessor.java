@@ -0,0 +1,31 @@
+package rocks.inspectit.agent.java.sensor.method.http;
+
+import java.util.Enumeration;
+
+import rocks.inspectit.agent.java.proxy.AccessorFor;
+
+/**
+ * Accessor for the <code>javax.servlet.http.HttpSession</code>.
+ *
+ * @author Ivan Senic
+ *
+ */
+@AccessorFor(targetType = "javax.servlet.http.HttpSession")
+public interface IHttpSessionAccessor {
+
+	/**
+	 * @param session
+	 *            the session
+	 * @return names of all attributes
+	 */
+	Enumeration<String> getAttributeNames(Object session);
+
+	/**
+	 * @param session
+	 *            the session
+	 * @param name
+	 *            name of the attribute
+	 * @return value of the attribute
+	 */
+	Object getAttribute(Object session, String name);
+}
@@ -0,0 +1,334 @@
+package rocks.inspectit.agent.java.sensor.method.invocationsequence;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rocks.inspectit.agent.java.config.IPropertyAccessor;
+import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.hooking.IConstructorHook;
+import rocks.inspectit.agent.java.hooking.IMethodHook;
+import rocks.inspectit.agent.java.sdk.opentracing.internal.impl.TracerImpl;
+import rocks.inspectit.agent.java.sensor.exception.ExceptionSensor;
+import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
+import rocks.inspectit.agent.java.sensor.method.jdbc.ConnectionSensor;
+import rocks.inspectit.agent.java.sensor.method.jdbc.PreparedStatementParameterSensor;
+import rocks.inspectit.agent.java.tracing.core.listener.IAsyncSpanContextListener;
+import rocks.inspectit.agent.java.util.StringConstraint;
+import rocks.inspectit.agent.java.util.Timer;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.HttpTimerData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.data.LoggingData;
+import rocks.inspectit.shared.all.communication.data.ParameterContentData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.instrumentation.config.impl.MethodSensorTypeConfig;
+import rocks.inspectit.shared.all.tracing.data.AbstractSpan;
+
+/**
+ * Base class for the invocation sequence hooks. Holds the rules that are same no matter how the
+ * invocation is recorded: which invocations are skipped, which nested invocations are removed,
+ * how the data objects of other sensors are saved into an invocation and when the complete
+ * invocation is sent.
+ *
+ * @author Ivan Senic
+ *
+ */
+public abstract class AbstractInvocationSequenceHook implements IMethodHook, IConstructorHook, ICoreService, IAsyncSpanContextListener {
+
+	/**
+	 * The logger of this class. Initialized manually.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(AbstractInvocationSequenceHook.class);
+
+	/**
+	 * The Platform manager.
+	 */
+	protected final IPlatformManager platformManager;
+
+	/**
+	 * The real core service needed to delegate spans to.
+	 */
+	protected final ICoreService realCoreService;
+
+	/**
+	 * Current tracer for the spans.
+	 */
+	protected final TracerImpl tracer;
+
+	/**
+	 * The timer used for accurate measuring.
+	 */
+	protected final Timer timer;
+
+	/**
+	 * The property accessor.
+	 */
+	private final IPropertyAccessor propertyAccessor;
+
+	/**
+	 * Saves the min duration for faster access of the values.
+	 */
+	private final Map<Long, Double> minDurationMap = new HashMap<Long, Double>();
+
+	/**
+	 * The StringConstraint to ensure a maximum length of strings.
+	 */
+	private final StringConstraint strConstraint;
+
+	/**
+	 * If enhanced exception sensor is ON.
+	 */
+	private final boolean enhancedExceptionSensor;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param timer
+	 *            The timer.
+	 * @param platformManager
+	 *            The Platform manager.
+	 * @param coreService
+	 *            The real core service needed to delegate spans to.
+	 * @param tracer
+	 *            Current tracer for the spans.
+	 * @param propertyAccessor
+	 *            The property accessor.
+	 * @param param
+	 *            Additional parameters.
+	 * @param enhancedExceptionSensor
+	 *            If enhanced exception sensor is ON.
+	 */
+	protected AbstractInvocationSequenceHook(Timer timer, IPlatformManager platformManager, ICoreService coreService, TracerImpl tracer, IPropertyAccessor propertyAccessor,
+			Map<String, Object> param, boolean enhancedExceptionSensor) {
+		this.timer = timer;
+		this.platformManager = platformManager;
+		this.realCoreService = coreService;
+		this.tracer = tracer;
+		this.propertyAccessor = propertyAccessor;
+		this.strConstraint = new StringConstraint(param);
+		this.enhancedExceptionSensor = enhancedExceptionSensor;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void beforeConstructor(long methodId, long sensorTypeId, Object[] parameters, RegisteredSensorConfig rsc) {
+		beforeBody(methodId, sensorTypeId, null, parameters, rsc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void afterConstructor(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
+		firstAfterBody(methodId, sensorTypeId, object, parameters, null, false, rsc);
+		secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, null, false, rsc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The data is saved one by one to the current invocation.
+	 */
+	@Override
+	public void addAllDefaultData(List<? extends DefaultData> defaultDataList) {
+		for (DefaultData defaultData : defaultDataList) {
+			addDefaultData(defaultData);
+		}
+	}
+
+	/**
+	 * Accesses and crops the properties if the property access is defined in the
+	 * {@link RegisteredSensorConfig}.
+	 *
+	 * @param rsc
+	 *            {@link RegisteredSensorConfig}.
+	 * @param object
+	 *            The class itself which contains the hook.
+	 * @param parameters
+	 *            The parameters of the method call.
+	 * @param result
+	 *            The return value of the method or exception thrown.
+	 * @param exception
+	 *            If method exited with exception.
+	 */
+	protected void accessProperties(RegisteredSensorConfig rsc, Object object, Object[] parameters, Object result, boolean exception) {
+		if (rsc.isPropertyAccess()) {
+			List<ParameterContentData> parameterContentData = propertyAccessor.getParameterContentData(rsc.getPropertyAccessorList(), object, parameters, result, exception);
+
+			// crop the content strings of all ParameterContentData
+			for (ParameterContentData contentData : parameterContentData) {
+				contentData.setContent(strConstraint.crop(contentData.getContent()));
+			}
+		}
+	}
+
+	/**
+	 * Returns if the invocation should be removed due to the exception constructor delegation.
+	 *
+	 * @param rsc
+	 *            {@link RegisteredSensorConfig}
+	 * @param hasExceptionData
+	 *            If the invocation holds any exception sensor data.
+	 * @return True if the invocation should be removed.
+	 */
+	protected boolean removeDueToExceptionDelegation(RegisteredSensorConfig rsc, boolean hasExceptionData) {
+		List<IMethodSensor> sensors = rsc.getMethodSensors();
+		if (1 == sensors.size()) {
+			MethodSensorTypeConfig methodSensorTypeConfig = sensors.get(0).getSensorTypeConfig();
+
+			if (ExceptionSensor.class.getName().equals(methodSensorTypeConfig.getClassName())) {
+				return !hasExceptionData;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Defines if the invocation container should skip the creation and processing of the invocation
+	 * for the given object and {@link RegisteredSensorConfig}. We will skip if any of following
+	 * conditions are met:
+	 * <ul>
+	 * <li>{@link RegisteredSensorConfig} has only exception sensor and object class does not match
+	 * the target class name.
+	 * <li>{@link RegisteredSensorConfig} has only prepared statement parameter sensor.
+	 * <li>{@link RegisteredSensorConfig} has only connection sensor.
+	 * <li>{@link RegisteredSensorConfig} has only connection meta data sensor.
+	 * </ul>
+	 *
+	 * @param rsc
+	 *            {@link RegisteredSensorConfig}.
+	 *
+	 * @return Return <code>true</code> if hook should skip creation and processing, false
+	 *         otherwise.
+	 */
+	protected boolean skip(RegisteredSensorConfig rsc) {
+		List<IMethodSensor> sensors = rsc.getMethodSensors();
+		if ((1 == sensors.size()) || ((2 == sensors.size()) && enhancedExceptionSensor)) {
+			for (IMethodSensor methodSensor : sensors) {
+				MethodSensorTypeConfig methodSensorTypeConfig = methodSensor.getSensorTypeConfig();
+				if (PreparedStatementParameterSensor.class.getName().equals(methodSensorTypeConfig.getClassName())) {
+					return true;
+				}
+
+				if (ConnectionSensor.class.getName().equals(methodSensorTypeConfig.getClassName())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * This checks if the invocation has to be saved or not (like the min duration is set and the
+	 * invocation is faster than the specified time).
+	 *
+	 * @param rsc
+	 *            The {@link RegisteredSensorConfig} object which holds all the information of the
+	 *            executed method.
+	 * @param startMethodId
+	 *            Method id of the method that started the invocation.
+	 * @param duration
+	 *            The actual duration.
+	 * @return <code>true</code> if the invocation should be saved.
+	 */
+	protected boolean isSavingNeeded(RegisteredSensorConfig rsc, long startMethodId, double duration) {
+		Double minduration = minDurationMap.get(Long.valueOf(startMethodId));
+		if (null == minduration) {
+			// maybe not saved yet in the map
+			if (rsc.getSettings().containsKey("minduration")) {
+				Long minDurationSetting = (Long) rsc.getSettings().get("minduration");
+				minduration = Double.valueOf(minDurationSetting.doubleValue());
+				minDurationMap.put(Long.valueOf(startMethodId), minduration);
+			} else {
+				return true;
+			}
+		}
+
+		if (duration >= minduration.doubleValue()) {
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Saving invocation. " + duration + " > " + minduration + " ID(local): " + rsc.getId());
+			}
+			return true;
+		} else {
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Not saving invocation. " + duration + " < " + minduration + " ID(local): " + rsc.getId());
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Returns if the given data object can be saved in the invocation with the
+	 * {@link #saveDataObject(InvocationSequenceData, DefaultData)}.
+	 *
+	 * @param dataObject
+	 *            The data object.
+	 * @return <code>true</code> if the data object is one of the types that is saved in the
+	 *         invocation.
+	 */
+	static boolean isSavedInInvocation(DefaultData dataObject) {
+		Class<?> dataClass = dataObject.getClass();
+		return SqlStatementData.class.equals(dataClass) || HttpTimerData.class.equals(dataClass) || TimerData.class.equals(dataClass) || ExceptionSensorData.class.equals(dataClass)
+				|| LoggingData.class.equals(dataClass) || AbstractSpan.class.isAssignableFrom(dataClass);
+	}
+
+	/**
+	 * Save the data objects which are coming from all the different sensor types in the given
+	 * invocation.
+	 *
+	 * @param invocationSequenceData
+	 *            The invocation to save data object to.
+	 * @param dataObject
+	 *            The data object to save.
+	 */
+	static void saveDataObject(InvocationSequenceData invocationSequenceData, DefaultData dataObject) {
+		if (dataObject.getClass().equals(SqlStatementData.class)) {
+			// don't overwrite an already existing sql statement data object.
+			if (null == invocationSequenceData.getSqlStatementData()) {
+				invocationSequenceData.setSqlStatementData((SqlStatementData) dataObject);
+			}
+		}
+
+		if (dataObject.getClass().equals(HttpTimerData.class)) {
+			// don't overwrite ourself but overwrite timers
+			if ((null == invocationSequenceData.getTimerData()) || invocationSequenceData.getTimerData().getClass().equals(TimerData.class)) {
+				invocationSequenceData.setTimerData((HttpTimerData) dataObject);
+			}
+		}
+
+		if (dataObject.getClass().equals(TimerData.class)) {
+			// don't overwrite an already existing timerdata or httptimerdata
+			// object.
+			if (null == invocationSequenceData.getTimerData()) {
+				invocationSequenceData.setTimerData((TimerData) dataObject);
+			}
+		}
+
+		if (dataObject.getClass().equals(ExceptionSensorData.class)) {
+			ExceptionSensorData exceptionSensorData = (ExceptionSensorData) dataObject;
+			invocationSequenceData.addExceptionSensorData(exceptionSensorData);
+		}
+
+		if (dataObject.getClass().equals(LoggingData.class)) {
+			LoggingData loggingData = (LoggingData) dataObject;
+			invocationSequenceData.setLoggingData(loggingData);
+		}
+
+		if (AbstractSpan.class.isAssignableFrom(dataObject.getClass())) {
+			AbstractSpan span = (AbstractSpan) dataObject;
+			invocationSequenceData.setSpanIdent(span.getSpanIdent());
+		}
+	}
+
+}
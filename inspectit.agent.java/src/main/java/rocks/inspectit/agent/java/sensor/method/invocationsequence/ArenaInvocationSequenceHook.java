@@ -0,0 +1,205 @@
+package rocks.inspectit.agent.java.sensor.method.invocationsequence;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rocks.inspectit.agent.java.config.IPropertyAccessor;
+import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.sdk.opentracing.internal.impl.SpanContextImpl;
+import rocks.inspectit.agent.java.sdk.opentracing.internal.impl.TracerImpl;
+import rocks.inspectit.agent.java.tracing.core.transformer.SpanContextTransformer;
+import rocks.inspectit.agent.java.util.Timer;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.tracing.data.AbstractSpan;
+
+/**
+ * Invocation sequence hook that records the invocations in the per thread
+ * {@link InvocationSequenceArena} instead of creating the {@link InvocationSequenceData} object
+ * for each invocation. The {@link InvocationSequenceData} tree is created only when the sequence
+ * is finished and it passes the min duration check, thus the sequences that are not sent cost
+ * almost nothing.
+ * <p>
+ * The resulting invocation sequences are same as the ones created by the
+ * {@link InvocationSequenceHook}. The hook is activated with the <code>arenaRecording</code>
+ * attribute of the invocation sequence sensor configuration.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class ArenaInvocationSequenceHook extends AbstractInvocationSequenceHook {
+
+	/**
+	 * The logger of this class. Initialized manually.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(ArenaInvocationSequenceHook.class);
+
+	/**
+	 * Arena of each thread, reused for all sequences of the thread.
+	 */
+	private final ThreadLocal<InvocationSequenceArena> threadLocalArena = new ThreadLocal<InvocationSequenceArena>() {
+		@Override
+		protected InvocationSequenceArena initialValue() {
+			return new InvocationSequenceArena();
+		}
+	};
+
+	/**
+	 * The default constructor is initialized with a reference to the original {@link ICoreService}
+	 * implementation to delegate all calls to if the data needs to be sent.
+	 *
+	 * @param timer
+	 *            The timer.
+	 * @param platformManager
+	 *            The Platform manager.
+	 * @param coreService
+	 *            The real core service needed to delegate spans to.
+	 * @param tracer
+	 *            Current tracer for the spans.
+	 * @param propertyAccessor
+	 *            The property accessor.
+	 * @param param
+	 *            Additional parameters.
+	 * @param enhancedExceptionSensor
+	 *            If enhanced exception sensor is ON.
+	 */
+	public ArenaInvocationSequenceHook(Timer timer, IPlatformManager platformManager, ICoreService coreService, TracerImpl tracer, IPropertyAccessor propertyAccessor, Map<String, Object> param,
+			boolean enhancedExceptionSensor) {
+		super(timer, platformManager, coreService, tracer, propertyAccessor, param, enhancedExceptionSensor);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void beforeBody(long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
+		if (skip(rsc)) {
+			return;
+		}
+
+		long platformId = platformManager.getPlatformId();
+		long timestamp = System.currentTimeMillis();
+		InvocationSequenceArena arena = threadLocalArena.get();
+
+		if (!arena.isStarted()) {
+			arena.start(platformId, sensorTypeId, methodId, timestamp, timer.getCurrentTime());
+		} else {
+			arena.enter(methodId, timestamp, timer.getCurrentTime());
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void firstAfterBody(long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, boolean exception, RegisteredSensorConfig rsc) {
+		if (skip(rsc)) {
+			return;
+		}
+
+		InvocationSequenceArena arena = threadLocalArena.get();
+		if (arena.isStarted() && (methodId == arena.getStartMethodId()) && arena.exitStartMethod()) {
+			arena.setEndTime(timer.getCurrentTime());
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void secondAfterBody(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, boolean exception, RegisteredSensorConfig rsc) { // NOCHK:8-params
+		if (skip(rsc)) {
+			return;
+		}
+
+		InvocationSequenceArena arena = threadLocalArena.get();
+		if (!arena.isStarted()) {
+			return;
+		}
+
+		// check if some properties need to be accessed and saved
+		accessProperties(rsc, object, parameters, result, exception);
+
+		if ((methodId == arena.getStartMethodId()) && (0 == arena.getStartMethodIdCount())) {
+			double startTime = arena.getStartTime();
+			double endTime = arena.getEndTime();
+			double duration = endTime - startTime;
+
+			// only now we create the objects, if the invocation is to be saved
+			if (isSavingNeeded(rsc, arena.getStartMethodId(), duration)) {
+				InvocationSequenceData invocationSequenceData = arena.materialize();
+
+				// check if we belong to a span
+				if (tracer.isCurrentContextExisting()) {
+					invocationSequenceData.setSpanIdent(SpanContextTransformer.transformSpanContext(tracer.getCurrentContext()));
+				}
+
+				invocationSequenceData.setDuration(duration);
+				invocationSequenceData.setStart(startTime);
+				invocationSequenceData.setEnd(endTime);
+				coreService.addDefaultData(invocationSequenceData);
+			}
+
+			arena.reset();
+		} else {
+			// check for the correct id we must be sure that
+			// we are closing the right sequence
+			if (arena.isCurrentRoot() || (methodId != arena.getCurrentMethodId())) {
+				return;
+			}
+
+			// check if we should not include this invocation because of exception delegation,
+			// SQL wrapping or empty logging
+			if (removeDueToExceptionDelegation(rsc, arena.isCurrentHavingExceptionData()) || !arena.isCurrentHavingData()) {
+				arena.removeCurrent();
+			} else {
+				arena.closeCurrent(timer.getCurrentTime());
+			}
+		}
+	}
+
+	// //////////////////////////////////////////////
+	// All methods from the ICoreService are below //
+	// //////////////////////////////////////////////
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addDefaultData(DefaultData defaultData) {
+		InvocationSequenceArena arena = threadLocalArena.get();
+		if (!arena.isStarted()) {
+			LOG.error("thread data NULL!!!!");
+			return;
+		}
+
+		// other data is never saved to the invocation, thus no need to keep it
+		if (isSavedInInvocation(defaultData)) {
+			arena.addData(defaultData, ExceptionSensorData.class.equals(defaultData.getClass()));
+		}
+
+		// delegate to real core service in case of the span
+		if (AbstractSpan.class.isAssignableFrom(defaultData.getClass())) {
+			realCoreService.addDefaultData(defaultData);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void asyncSpanContextCreated(SpanContextImpl spanContextImpl) {
+		if (null != spanContextImpl) {
+			InvocationSequenceArena arena = threadLocalArena.get();
+			if (arena.isStarted()) {
+				arena.addData(SpanContextTransformer.transformSpanContext(spanContextImpl), false);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,513 @@
+package rocks.inspectit.agent.java.sensor.method.invocationsequence;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.tracing.data.SpanIdent;
+
+/**
+ * Per thread recording of one invocation sequence in reusable primitive arrays. Every invocation
+ * in the sequence is one entry (node) in the arrays, appended in the order the invocations were
+ * started, where the node <code>0</code> is the root of the sequence. The data objects of the
+ * other sensors are appended to a separate array, together with the index of the node they belong
+ * to.
+ * <p>
+ * Removing an invocation only marks the node as removed. The {@link InvocationSequenceData} tree
+ * is created with {@link #materialize()} only when the complete sequence is to be sent, thus
+ * recording a sequence that is discarded does not create any objects once the arrays are big
+ * enough.
+ * <p>
+ * This class is not thread safe, each thread must use own instance.
+ *
+ * @author Ivan Senic
+ *
+ */
+class InvocationSequenceArena {
+
+	/**
+	 * Initial amount of nodes and data objects the arena can hold.
+	 */
+	static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * Maximum capacity of the arena kept after the sequence is finished. Arenas that grew bigger
+	 * are replaced with the initial capacity ones, so that one huge sequence does not keep the
+	 * memory for the rest of the thread life.
+	 */
+	static final int MAX_RETAINED_CAPACITY = 16384;
+
+	/**
+	 * Node is started and not yet closed.
+	 */
+	private static final byte OPEN = 0;
+
+	/**
+	 * Node is closed.
+	 */
+	private static final byte CLOSED = 1;
+
+	/**
+	 * Node is removed from the sequence.
+	 */
+	private static final byte REMOVED = 2;
+
+	/**
+	 * Platform id of the sequence.
+	 */
+	private long platformId;
+
+	/**
+	 * Sensor type id of the sequence.
+	 */
+	private long sensorTypeId;
+
+	/**
+	 * Method id of the method that started the sequence.
+	 */
+	private long startMethodId;
+
+	/**
+	 * Count of the of the starting method being called in the sequence so that closing is done on
+	 * the right end.
+	 */
+	private long startMethodIdCount;
+
+	/**
+	 * Start time of the sequence.
+	 */
+	private double startTime;
+
+	/**
+	 * End time of the sequence.
+	 */
+	private double endTime;
+
+	/**
+	 * Amount of the nodes, <code>0</code> if no sequence is recorded.
+	 */
+	private int size;
+
+	/**
+	 * Index of the current node.
+	 */
+	private int current;
+
+	/**
+	 * Method ids of the nodes.
+	 */
+	private long[] methodIds;
+
+	/**
+	 * Time stamps of the nodes in milliseconds.
+	 */
+	private long[] timestamps;
+
+	/**
+	 * Start times of the nodes.
+	 */
+	private double[] starts;
+
+	/**
+	 * End times of the nodes.
+	 */
+	private double[] ends;
+
+	/**
+	 * Child counts of the nodes.
+	 */
+	private long[] childCounts;
+
+	/**
+	 * Indexes of the parent nodes.
+	 */
+	private int[] parents;
+
+	/**
+	 * States of the nodes.
+	 */
+	private byte[] states;
+
+	/**
+	 * If the nodes have any data that prevents removal of the node.
+	 */
+	private boolean[] hasData;
+
+	/**
+	 * If the nodes have exception sensor data.
+	 */
+	private boolean[] hasExceptionData;
+
+	/**
+	 * Amount of data objects.
+	 */
+	private int dataSize;
+
+	/**
+	 * Data objects, either {@link DefaultData} or {@link SpanIdent}.
+	 */
+	private Object[] data;
+
+	/**
+	 * Index of node each data object belongs to.
+	 */
+	private int[] dataNodes;
+
+	/**
+	 * Default constructor.
+	 */
+	InvocationSequenceArena() {
+		allocateNodes(INITIAL_CAPACITY);
+		allocateData(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Starts the sequence with the root node.
+	 *
+	 * @param platformId
+	 *            Platform id.
+	 * @param sensorTypeId
+	 *            Sensor type id.
+	 * @param methodId
+	 *            Method id of the starting method.
+	 * @param timestamp
+	 *            Time stamp in milliseconds.
+	 * @param start
+	 *            Start time.
+	 */
+	void start(long platformId, long sensorTypeId, long methodId, long timestamp, double start) {
+		this.platformId = platformId;
+		this.sensorTypeId = sensorTypeId;
+		this.startMethodId = methodId;
+		this.startMethodIdCount = 1;
+		this.startTime = start;
+		this.endTime = 0;
+		this.size = 0;
+		this.dataSize = 0;
+		this.current = addNode(methodId, timestamp, start, -1);
+	}
+
+	/**
+	 * Starts the nested invocation as the child of the current node and makes it current.
+	 *
+	 * @param methodId
+	 *            Method id.
+	 * @param timestamp
+	 *            Time stamp in milliseconds.
+	 * @param start
+	 *            Start time.
+	 */
+	void enter(long methodId, long timestamp, double start) {
+		if (methodId == startMethodId) {
+			startMethodIdCount++;
+		}
+		childCounts[current]++;
+		current = addNode(methodId, timestamp, start, current);
+	}
+
+	/**
+	 * Closes the current nested node with the given end time and makes the parent current.
+	 *
+	 * @param end
+	 *            End time.
+	 */
+	void closeCurrent(double end) {
+		int node = current;
+		int parent = parents[node];
+		ends[node] = end;
+		states[node] = CLOSED;
+		childCounts[parent] += childCounts[node];
+		current = parent;
+	}
+
+	/**
+	 * Removes the current nested node and makes the parent current. The children of the removed
+	 * node become children of the parent.
+	 */
+	void removeCurrent() {
+		int node = current;
+		int parent = parents[node];
+		states[node] = REMOVED;
+		childCounts[parent] += childCounts[node] - 1;
+		current = parent;
+	}
+
+	/**
+	 * Signals that the starting method exited. Returns <code>true</code> if this was the exit that
+	 * closes the sequence.
+	 *
+	 * @return <code>true</code> if the sequence is to be closed.
+	 */
+	boolean exitStartMethod() {
+		startMethodIdCount--;
+		return 0 == startMethodIdCount;
+	}
+
+	/**
+	 * Adds the data object to the current node.
+	 *
+	 * @param dataObject
+	 *            Data object, must be one that is saved in the invocation.
+	 * @param exceptionData
+	 *            If data object is the exception sensor data.
+	 */
+	void addData(Object dataObject, boolean exceptionData) {
+		if (dataSize == data.length) {
+			data = Arrays.copyOf(data, dataSize << 1);
+			dataNodes = Arrays.copyOf(dataNodes, dataSize << 1);
+		}
+		data[dataSize] = dataObject;
+		dataNodes[dataSize] = current;
+		dataSize++;
+		hasData[current] = true;
+		if (exceptionData) {
+			hasExceptionData[current] = true;
+		}
+	}
+
+	/**
+	 * Creates the {@link InvocationSequenceData} tree of the recorded sequence. Removed nodes are
+	 * not included, their children are added to the first not removed parent. Time values of the
+	 * root are not set.
+	 *
+	 * @return Root of the tree.
+	 */
+	InvocationSequenceData materialize() {
+		InvocationSequenceData[] sequences = new InvocationSequenceData[size];
+		for (int i = 0; i < size; i++) {
+			int parent = parents[i];
+			if (i > 0) {
+				// parent could be removed, then we go to its parent, as that one already points to
+				// the first not removed one
+				if (REMOVED == states[parent]) {
+					parent = parents[parent];
+					parents[i] = parent;
+				}
+				if (REMOVED == states[i]) {
+					continue;
+				}
+			}
+
+			InvocationSequenceData invocationSequenceData = new InvocationSequenceData(new Timestamp(timestamps[i]), platformId, sensorTypeId, methodIds[i]);
+			invocationSequenceData.setChildCount(childCounts[i]);
+			if (i > 0) {
+				invocationSequenceData.setStart(starts[i]);
+				if (CLOSED == states[i]) {
+					invocationSequenceData.setEnd(ends[i]);
+					invocationSequenceData.setDuration(ends[i] - starts[i]);
+				}
+				invocationSequenceData.setParentSequence(sequences[parent]);
+				sequences[parent].getNestedSequences().add(invocationSequenceData);
+			}
+			sequences[i] = invocationSequenceData;
+		}
+
+		for (int i = 0; i < dataSize; i++) {
+			InvocationSequenceData invocationSequenceData = sequences[dataNodes[i]];
+			if (null == invocationSequenceData) {
+				continue;
+			}
+			if (data[i] instanceof SpanIdent) {
+				invocationSequenceData.setSpanIdent((SpanIdent) data[i]);
+			} else {
+				AbstractInvocationSequenceHook.saveDataObject(invocationSequenceData, (DefaultData) data[i]);
+			}
+		}
+		return sequences[0];
+	}
+
+	/**
+	 * Clears the recorded sequence. Data objects references are released and the arrays are
+	 * shrunk if they grew over the {@link #MAX_RETAINED_CAPACITY}.
+	 */
+	void reset() {
+		if (methodIds.length > MAX_RETAINED_CAPACITY) {
+			allocateNodes(INITIAL_CAPACITY);
+		}
+		if (data.length > MAX_RETAINED_CAPACITY) {
+			allocateData(INITIAL_CAPACITY);
+		} else {
+			Arrays.fill(data, 0, dataSize, null);
+		}
+		size = 0;
+		dataSize = 0;
+		current = 0;
+	}
+
+	/**
+	 * @return If sequence is being recorded.
+	 */
+	boolean isStarted() {
+		return size > 0;
+	}
+
+	/**
+	 * @return If current node is root of the sequence.
+	 */
+	boolean isCurrentRoot() {
+		return 0 == current;
+	}
+
+	/**
+	 * @return Method id of the current node.
+	 */
+	long getCurrentMethodId() {
+		return methodIds[current];
+	}
+
+	/**
+	 * @return If current node holds data that prevents its removal.
+	 */
+	boolean isCurrentHavingData() {
+		return hasData[current];
+	}
+
+	/**
+	 * @return If current node holds exception sensor data.
+	 */
+	boolean isCurrentHavingExceptionData() {
+		return hasExceptionData[current];
+	}
+
+	/**
+	 * Gets {@link #startMethodId}.
+	 *
+	 * @return {@link #startMethodId}
+	 */
+	long getStartMethodId() {
+		return startMethodId;
+	}
+
+	/**
+	 * Gets {@link #startMethodIdCount}.
+	 *
+	 * @return {@link #startMethodIdCount}
+	 */
+	long getStartMethodIdCount() {
+		return startMethodIdCount;
+	}
+
+	/**
+	 * Gets {@link #startTime}.
+	 *
+	 * @return {@link #startTime}
+	 */
+	double getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * Gets {@link #endTime}.
+	 *
+	 * @return {@link #endTime}
+	 */
+	double getEndTime() {
+		return endTime;
+	}
+
+	/**
+	 * Sets {@link #endTime}.
+	 *
+	 * @param endTime
+	 *            New value for {@link #endTime}
+	 */
+	void setEndTime(double endTime) {
+		this.endTime = endTime;
+	}
+
+	/**
+	 * Gets {@link #size}.
+	 *
+	 * @return {@link #size}
+	 */
+	int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the current node capacity of the arena.
+	 *
+	 * @return Current node capacity of the arena.
+	 */
+	int getCapacity() {
+		return methodIds.length;
+	}
+
+	/**
+	 * Adds the node to the end of the arrays.
+	 *
+	 * @param methodId
+	 *            Method id.
+	 * @param timestamp
+	 *            Time stamp in milliseconds.
+	 * @param start
+	 *            Start time.
+	 * @param parent
+	 *            Index of the parent node.
+	 * @return Index of the added node.
+	 */
+	private int addNode(long methodId, long timestamp, double start, int parent) {
+		if (size == methodIds.length) {
+			growNodes();
+		}
+		int node = size;
+		methodIds[node] = methodId;
+		timestamps[node] = timestamp;
+		starts[node] = start;
+		ends[node] = 0;
+		childCounts[node] = 0;
+		parents[node] = parent;
+		states[node] = OPEN;
+		hasData[node] = false;
+		hasExceptionData[node] = false;
+		size++;
+		return node;
+	}
+
+	/**
+	 * Doubles the capacity of the node arrays.
+	 */
+	private void growNodes() {
+		int capacity = methodIds.length << 1;
+		methodIds = Arrays.copyOf(methodIds, capacity);
+		timestamps = Arrays.copyOf(timestamps, capacity);
+		starts = Arrays.copyOf(starts, capacity);
+		ends = Arrays.copyOf(ends, capacity);
+		childCounts = Arrays.copyOf(childCounts, capacity);
+		parents = Arrays.copyOf(parents, capacity);
+		states = Arrays.copyOf(states, capacity);
+		hasData = Arrays.copyOf(hasData, capacity);
+		hasExceptionData = Arrays.copyOf(hasExceptionData, capacity);
+	}
+
+	/**
+	 * Allocates the node arrays with given capacity.
+	 *
+	 * @param capacity
+	 *            Capacity.
+	 */
+	private void allocateNodes(int capacity) {
+		methodIds = new long[capacity];
+		timestamps = new long[capacity];
+		starts = new double[capacity];
+		ends = new double[capacity];
+		childCounts = new long[capacity];
+		parents = new int[capacity];
+		states = new byte[capacity];
+		hasData = new boolean[capacity];
+		hasExceptionData = new boolean[capacity];
+	}
+
+	/**
+	 * Allocates the data arrays with given capacity.
+	 *
+	 * @param capacity
+	 *            Capacity.
+	 */
+	private void allocateData(int capacity) {
+		data = new Object[capacity];
+		dataNodes = new int[capacity];
+	}
+
+}
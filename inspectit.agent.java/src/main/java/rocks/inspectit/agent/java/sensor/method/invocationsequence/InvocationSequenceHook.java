@@ -1,8 +1,6 @@
 package rocks.inspectit.agent.java.sensor.method.invocationsequence;
 
 import java.sql.Timestamp;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -13,28 +11,13 @@ import rocks.inspectit.agent.java.config.IPropertyAccessor;
 import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
 import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
-import rocks.inspectit.agent.java.hooking.IConstructorHook;
-import rocks.inspectit.agent.java.hooking.IMethodHook;
 import rocks.inspectit.agent.java.sdk.opentracing.internal.impl.SpanContextImpl;
 import rocks.inspectit.agent.java.sdk.opentracing.internal.impl.TracerImpl;
-import rocks.inspectit.agent.java.sensor.exception.ExceptionSensor;
-import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
-import rocks.inspectit.agent.java.sensor.method.jdbc.ConnectionSensor;
-import rocks.inspectit.agent.java.sensor.method.jdbc.PreparedStatementParameterSensor;
-import rocks.inspectit.agent.java.tracing.core.listener.IAsyncSpanContextListener;
 import rocks.inspectit.agent.java.tracing.core.transformer.SpanContextTransformer;
-import rocks.inspectit.agent.java.util.StringConstraint;
 import rocks.inspectit.agent.java.util.ThreadLocalStack;
 import rocks.inspectit.agent.java.util.Timer;
 import rocks.inspectit.shared.all.communication.DefaultData;
-import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
-import rocks.inspectit.shared.all.communication.data.HttpTimerData;
 import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
-import rocks.inspectit.shared.all.communication.data.LoggingData;
-import rocks.inspectit.shared.all.communication.data.ParameterContentData;
-import rocks.inspectit.shared.all.communication.data.SqlStatementData;
-import rocks.inspectit.shared.all.communication.data.TimerData;
-import rocks.inspectit.shared.all.instrumentation.config.impl.MethodSensorTypeConfig;
 import rocks.inspectit.shared.all.tracing.data.AbstractSpan;
 import rocks.inspectit.shared.all.tracing.data.SpanIdent;
 
@@ -50,33 +33,13 @@ import rocks.inspectit.shared.all.tracing.data.SpanIdent;
  * @author Patrice Bouillet
  *
  */
-public class InvocationSequenceHook implements IMethodHook, IConstructorHook, ICoreService, IAsyncSpanContextListener {
+public class InvocationSequenceHook extends AbstractInvocationSequenceHook {
 
 	/**
 	 * The logger of this class. Initialized manually.
 	 */
 	private static final Logger LOG = LoggerFactory.getLogger(InvocationSequenceHook.class);
 
-	/**
-	 * The Platform manager.
-	 */
-	private final IPlatformManager platformManager;
-
-	/**
-	 * The real core service needed to delegate spans to.
-	 */
-	private final ICoreService realCoreService;
-
-	/**
-	 * Current tracer for the spans.
-	 */
-	private final TracerImpl tracer;
-
-	/**
-	 * The property accessor.
-	 */
-	private final IPropertyAccessor propertyAccessor;
-
 	/**
 	 * The {@link ThreadLocal} object which holds an {@link InvocationSequenceData} object if an
 	 * invocation record is started.
@@ -95,31 +58,11 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 */
 	private final ThreadLocal<Long> invocationStartIdCount = new ThreadLocal<Long>();
 
-	/**
-	 * The timer used for accurate measuring.
-	 */
-	private final Timer timer;
-
 	/**
 	 * The stack containing the start time values.
 	 */
 	private final ThreadLocalStack<Double> timeStack = new ThreadLocalStack<Double>();
 
-	/**
-	 * Saves the min duration for faster access of the values.
-	 */
-	private final Map<Long, Double> minDurationMap = new HashMap<Long, Double>();
-
-	/**
-	 * The StringConstraint to ensure a maximum length of strings.
-	 */
-	private final StringConstraint strConstraint;
-
-	/**
-	 * If enhanced exception sensor is ON.
-	 */
-	private final boolean enhancedExceptionSensor;
-
 	/**
 	 * The default constructor is initialized with a reference to the original {@link ICoreService}
 	 * implementation to delegate all calls to if the data needs to be sent.
@@ -141,13 +84,7 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 */
 	public InvocationSequenceHook(Timer timer, IPlatformManager platformManager, ICoreService coreService, TracerImpl tracer, IPropertyAccessor propertyAccessor, Map<String, Object> param,
 			boolean enhancedExceptionSensor) {
-		this.timer = timer;
-		this.platformManager = platformManager;
-		this.realCoreService = coreService;
-		this.tracer = tracer;
-		this.propertyAccessor = propertyAccessor;
-		this.strConstraint = new StringConstraint(param);
-		this.enhancedExceptionSensor = enhancedExceptionSensor;
+		super(timer, platformManager, coreService, tracer, propertyAccessor, param, enhancedExceptionSensor);
 	}
 
 	/**
@@ -231,14 +168,7 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 
 		if (null != invocationSequenceData) {
 			// check if some properties need to be accessed and saved
-			if (rsc.isPropertyAccess()) {
-				List<ParameterContentData> parameterContentData = propertyAccessor.getParameterContentData(rsc.getPropertyAccessorList(), object, parameters, result, exception);
-
-				// crop the content strings of all ParameterContentData
-				for (ParameterContentData contentData : parameterContentData) {
-					contentData.setContent(strConstraint.crop(contentData.getContent()));
-				}
-			}
+			accessProperties(rsc, object, parameters, result, exception);
 
 			if ((methodId == invocationStartId.get().longValue()) && (0 == invocationStartIdCount.get().longValue())) {
 				double endTime = timeStack.pop().doubleValue();
@@ -254,20 +184,11 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 				// core service so that it can be transmitted to the server. we
 				// just need an arbitrary prefix so that this sequence will
 				// never be overwritten in the core service!
-				if (minDurationMap.containsKey(invocationStartId.get())) {
-					checkForSavingOrNot(coreService, rsc, invocationSequenceData, startTime, endTime, duration);
-				} else {
-					// maybe not saved yet in the map
-					if (rsc.getSettings().containsKey("minduration")) {
-						Long minDuration = (Long) rsc.getSettings().get("minduration");
-						minDurationMap.put(invocationStartId.get(), minDuration.doubleValue());
-						checkForSavingOrNot(coreService, rsc, invocationSequenceData, startTime, endTime, duration);
-					} else {
-						invocationSequenceData.setDuration(duration);
-						invocationSequenceData.setStart(startTime);
-						invocationSequenceData.setEnd(endTime);
-						coreService.addDefaultData(invocationSequenceData);
-					}
+				if (isSavingNeeded(rsc, invocationStartId.get().longValue(), duration)) {
+					invocationSequenceData.setDuration(duration);
+					invocationSequenceData.setStart(startTime);
+					invocationSequenceData.setEnd(endTime);
+					coreService.addDefaultData(invocationSequenceData);
 				}
 
 				threadLocalInvocationData.set(null);
@@ -282,7 +203,7 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 				InvocationSequenceData parentSequence = invocationSequenceData.getParentSequence();
 				// check if we should not include this invocation because of exception delegation,
 				// SQL wrapping or empty logging
-				if (removeDueToExceptionDelegation(rsc, invocationSequenceData) || removeDueToNoData(invocationSequenceData)) {
+				if (removeDueToExceptionDelegation(rsc, CollectionUtils.isNotEmpty(invocationSequenceData.getExceptionSensorDataObjects())) || removeDueToNoData(invocationSequenceData)) {
 					parentSequence.getNestedSequences().remove(invocationSequenceData);
 					parentSequence.setChildCount(parentSequence.getChildCount() - 1);
 					// but connect all possible children to the parent then we are eliminating one
@@ -304,29 +225,6 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 		}
 	}
 
-	/**
-	 * Returns if the given {@link InvocationSequenceData} should be removed due to the exception
-	 * constructor delegation.
-	 *
-	 * @param rsc
-	 *            {@link RegisteredSensorConfig}
-	 * @param invocationSequenceData
-	 *            {@link InvocationSequenceData} to check.
-	 * @return True if the invocation should be removed.
-	 */
-	private boolean removeDueToExceptionDelegation(RegisteredSensorConfig rsc, InvocationSequenceData invocationSequenceData) {
-		List<IMethodSensor> sensors = rsc.getMethodSensors();
-		if (1 == sensors.size()) {
-			MethodSensorTypeConfig methodSensorTypeConfig = sensors.get(0).getSensorTypeConfig();
-
-			if (ExceptionSensor.class.getName().equals(methodSensorTypeConfig.getClassName())) {
-				return CollectionUtils.isEmpty(invocationSequenceData.getExceptionSensorDataObjects());
-			}
-		}
-
-		return false;
-	}
-
 	/**
 	 * Returns if the given {@link InvocationSequenceData} should be removed due to no data. Can be
 	 * in case of
@@ -348,141 +246,6 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 				&& (null == invocationSequenceData.getSpanIdent()) && CollectionUtils.isEmpty(invocationSequenceData.getExceptionSensorDataObjects());
 	}
 
-	/**
-	 * Defines if the invocation container should skip the creation and processing of the invocation
-	 * for the given object and {@link RegisteredSensorConfig}. We will skip if any of following
-	 * conditions are met:
-	 * <ul>
-	 * <li>{@link RegisteredSensorConfig} has only exception sensor and object class does not match
-	 * the target class name.
-	 * <li>{@link RegisteredSensorConfig} has only prepared statement parameter sensor.
-	 * <li>{@link RegisteredSensorConfig} has only connection sensor.
-	 * <li>{@link RegisteredSensorConfig} has only connection meta data sensor.
-	 * </ul>
-	 *
-	 * @param rsc
-	 *            {@link RegisteredSensorConfig}.
-	 *
-	 * @return Return <code>true</code> if hook should skip creation and processing, false
-	 *         otherwise.
-	 */
-	private boolean skip(RegisteredSensorConfig rsc) {
-		List<IMethodSensor> sensors = rsc.getMethodSensors();
-		if ((1 == sensors.size()) || ((2 == sensors.size()) && enhancedExceptionSensor)) {
-			for (IMethodSensor methodSensor : sensors) {
-				MethodSensorTypeConfig methodSensorTypeConfig = methodSensor.getSensorTypeConfig();
-				if (PreparedStatementParameterSensor.class.getName().equals(methodSensorTypeConfig.getClassName())) {
-					return true;
-				}
-
-				if (ConnectionSensor.class.getName().equals(methodSensorTypeConfig.getClassName())) {
-					return true;
-				}
-			}
-		}
-		return false;
-	}
-
-	/**
-	 * This checks if the invocation has to be saved or not (like the min duration is set and the
-	 * invocation is faster than the specified time).
-	 *
-	 * @param coreService
-	 *            The reference to the core service which holds the data objects etc.
-	 * @param rsc
-	 *            The {@link RegisteredSensorConfig} object which holds all the information of the
-	 *            executed method.
-	 * @param invocationSequenceData
-	 *            The invocation sequence data object.
-	 * @param startTime
-	 *            The start time.
-	 * @param endTime
-	 *            The end time.
-	 * @param duration
-	 *            The actual duration.
-	 */
-	private void checkForSavingOrNot(ICoreService coreService, RegisteredSensorConfig rsc, InvocationSequenceData invocationSequenceData, double startTime, double endTime, double duration) {
-		double minduration = minDurationMap.get(invocationStartId.get()).doubleValue();
-		if (duration >= minduration) {
-			if (LOG.isDebugEnabled()) {
-				LOG.debug("Saving invocation. " + duration + " > " + minduration + " ID(local): " + rsc.getId());
-			}
-			invocationSequenceData.setDuration(duration);
-			invocationSequenceData.setStart(startTime);
-			invocationSequenceData.setEnd(endTime);
-			coreService.addDefaultData(invocationSequenceData);
-		} else {
-			if (LOG.isDebugEnabled()) {
-				LOG.debug("Not saving invocation. " + duration + " < " + minduration + " ID(local): " + rsc.getId());
-			}
-		}
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	public void beforeConstructor(long methodId, long sensorTypeId, Object[] parameters, RegisteredSensorConfig rsc) {
-		beforeBody(methodId, sensorTypeId, null, parameters, rsc);
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	public void afterConstructor(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
-		firstAfterBody(methodId, sensorTypeId, object, parameters, null, false, rsc);
-		secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, null, false, rsc);
-	}
-
-	/**
-	 * Save the data objects which are coming from all the different sensor types in the current
-	 * invocation tracer context.
-	 *
-	 * @param dataObject
-	 *            The data object to save.
-	 */
-	private void saveDataObject(DefaultData dataObject) {
-		InvocationSequenceData invocationSequenceData = threadLocalInvocationData.get();
-
-		if (dataObject.getClass().equals(SqlStatementData.class)) {
-			// don't overwrite an already existing sql statement data object.
-			if (null == invocationSequenceData.getSqlStatementData()) {
-				invocationSequenceData.setSqlStatementData((SqlStatementData) dataObject);
-			}
-		}
-
-		if (dataObject.getClass().equals(HttpTimerData.class)) {
-			// don't overwrite ourself but overwrite timers
-			if ((null == invocationSequenceData.getTimerData()) || invocationSequenceData.getTimerData().getClass().equals(TimerData.class)) {
-				invocationSequenceData.setTimerData((HttpTimerData) dataObject);
-			}
-		}
-
-		if (dataObject.getClass().equals(TimerData.class)) {
-			// don't overwrite an already existing timerdata or httptimerdata
-			// object.
-			if (null == invocationSequenceData.getTimerData()) {
-				invocationSequenceData.setTimerData((TimerData) dataObject);
-			}
-		}
-
-		if (dataObject.getClass().equals(ExceptionSensorData.class)) {
-			ExceptionSensorData exceptionSensorData = (ExceptionSensorData) dataObject;
-			invocationSequenceData.addExceptionSensorData(exceptionSensorData);
-		}
-
-		if (dataObject.getClass().equals(LoggingData.class)) {
-			LoggingData loggingData = (LoggingData) dataObject;
-			invocationSequenceData.setLoggingData(loggingData);
-		}
-
-		if (AbstractSpan.class.isAssignableFrom(dataObject.getClass())) {
-			AbstractSpan span = (AbstractSpan) dataObject;
-			invocationSequenceData.setSpanIdent(span.getSpanIdent());
-		}
-	}
-
 	// //////////////////////////////////////////////
 	// All methods from the ICoreService are below //
 	// //////////////////////////////////////////////
@@ -496,7 +259,7 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 			LOG.error("thread data NULL!!!!");
 			return;
 		}
-		saveDataObject(defaultData);
+		saveDataObject(threadLocalInvocationData.get(), defaultData);
 
 		// delegate to real core service in case of the span
 		if (AbstractSpan.class.isAssignableFrom(defaultData.getClass())) {
@@ -19,7 +19,8 @@ import rocks.inspectit.agent.java.util.Timer;
 
 /**
  * The invocation sequence sensor which initializes and returns the {@link InvocationSequenceHook}
- * class.
+ * class or the {@link ArenaInvocationSequenceHook} if the <code>arenarecording</code> parameter of
+ * the sensor configuration is set to <code>true</code>.
  *
  * @author Patrice Bouillet
  *
@@ -65,7 +66,7 @@ public class InvocationSequenceSensor extends AbstractMethodSensor implements IM
 	/**
 	 * The invocation sequence hook.
 	 */
-	private InvocationSequenceHook invocationSequenceHook = null;
+	private AbstractInvocationSequenceHook invocationSequenceHook = null;
 
 	/**
 	 * {@inheritDoc}
@@ -87,7 +88,11 @@ public class InvocationSequenceSensor extends AbstractMethodSensor implements IM
 			enhancedExceptionSensor = false;
 		}
 
-		invocationSequenceHook = new InvocationSequenceHook(timer, platformManager, coreService, tracer, propertyAccessor, parameters, enhancedExceptionSensor);
+		if ("true".equals(parameters.get("arenarecording"))) {
+			invocationSequenceHook = new ArenaInvocationSequenceHook(timer, platformManager, coreService, tracer, propertyAccessor, parameters, enhancedExceptionSensor);
+		} else {
+			invocationSequenceHook = new InvocationSequenceHook(timer, platformManager, coreService, tracer, propertyAccessor, parameters, enhancedExceptionSensor);
+		}
 	}
 
 	/**
@@ -98,4 +103,24 @@ public class InvocationSequenceSensor extends AbstractMethodSensor implements IM
 		invocationSequenceHook.asyncSpanContextCreated(spanContextImpl);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Invocation sequence hook reads the parameters only with the property accessors.
+	 */
+	@Override
+	public boolean isParametersNeeded() {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Invocation sequence hook reads the return value only with the property accessors.
+	 */
+	@Override
+	public boolean isResultNeeded() {
+		return false;
+	}
+
 }
@@ -1,19 +1,30 @@
 package rocks.inspectit.agent.java.sensor.method.jdbc;
 
 import java.sql.Connection;
+import java.sql.Statement;
 
+import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 
 import rocks.inspectit.agent.java.util.ReflectionCache;
+import rocks.inspectit.shared.all.spring.logger.Log;
 
 /**
- * Provides the connection for a given statement.
+ * Provides the connection for a given statement. As the <code>java.sql</code> types are always
+ * visible to the agent, the statements implementing the {@link Statement} interface are called
+ * directly. Reflection is only used for the statements not implementing the interface.
  *
  * @author Stefan Siegl
  */
 @Component
 public class StatementReflectionCache extends ReflectionCache {
 
+	/**
+	 * The logger of this class.
+	 */
+	@Log
+	Logger log;
+
 	/** FWN of the java.sql.Statement. */
 	private static final String JAVA_SQL_STATEMENT_FQN = "java.sql.Statement";
 	/** Caches the method name. */
@@ -29,6 +40,14 @@ public class StatementReflectionCache extends ReflectionCache {
 	 * @return the associated connection.
 	 */
 	public Connection getConnection(Class<?> statementClass, Object statementInstance) {
+		if (statementInstance instanceof Statement) {
+			try {
+				return ((Statement) statementInstance).getConnection();
+			} catch (Throwable t) { // NOPMD
+				log.warn("Could not invoke method " + GET_CONNECTION_METHOD_NAME + " on instance " + statementInstance, t);
+				return null;
+			}
+		}
 		return (Connection) invokeMethod(statementClass, GET_CONNECTION_METHOD_NAME, null, statementInstance, null, null, JAVA_SQL_STATEMENT_FQN);
 	}
 }
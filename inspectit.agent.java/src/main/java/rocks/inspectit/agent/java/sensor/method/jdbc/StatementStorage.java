@@ -5,14 +5,13 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.MapMaker;
 
 import rocks.inspectit.agent.java.util.ThreadLocalStack;
 
@@ -34,17 +33,35 @@ public class StatementStorage {
 	private static final String NULL_VALUE = "null";
 
 	/**
-	 * This cache keeps track of the prepared statement objects and associates these with the
+	 * Maximum length of the bound parameter value string, longer values are cropped when bound.
+	 */
+	private static final int MAX_PARAMETER_LENGTH = 1000;
+
+	/**
+	 * Suffix of the cropped parameter values.
+	 */
+	private static final String CROPPED_SUFFIX = "...";
+
+	/**
+	 * Concurrency level of the prepared statements map, defines the amount of segments that can
+	 * be updated without contention.
+	 */
+	private static final int CONCURRENCY_LEVEL = 32;
+
+	/**
+	 * This map keeps track of the prepared statement objects and associates these with the
 	 * concrete query string and its the bound parameters. Weak keys ensure that elements will be
 	 * cleared regularly. As the key is the PreparedStatement object, as soon as the application
 	 * looses the reference to this object (which is usually very quickly after the invocation), the
-	 * garbage collector can remove this object and thus the entry in the cache. In order to
-	 * safe-guard our cache, elements will also be removed if they are not used for 20 minutes.
-	 *
-	 * <b> Note that this data structure provides atomic access like a <code>ConcurrentMap</code>.
-	 * </b>.
+	 * garbage collector can remove this object and thus the entry in the map. Weak keys are
+	 * compared by identity, so the statement implementation of equals and hash code is never
+	 * called.
+	 * <p>
+	 * Opposed to a cache with expiration the map does not record any access, thus the reads on
+	 * every parameter set and statement execution are lock-free and only the registration of new
+	 * statements locks one of the segments.
 	 */
-	private Cache<Object, QueryInformation> preparedStatements = CacheBuilder.newBuilder().expireAfterAccess(20 * 60, TimeUnit.SECONDS).weakKeys().build();
+	private ConcurrentMap<Object, QueryInformation> preparedStatements = new MapMaker().weakKeys().concurrencyLevel(CONCURRENCY_LEVEL).makeMap();
 
 	/**
 	 * Returns the sql thread local stack.
@@ -75,7 +92,7 @@ public class StatementStorage {
 	 *         storage.
 	 */
 	protected String getPreparedStatement(Object object) {
-		QueryInformation queryAndParameters = preparedStatements.getIfPresent(object);
+		QueryInformation queryAndParameters = preparedStatements.get(object);
 
 		String query = null;
 		if (null != queryAndParameters) {
@@ -98,7 +115,7 @@ public class StatementStorage {
 	 *         SQL statement or there are no parameters captured within this SQL statement.
 	 */
 	protected List<String> getParameters(Object object) {
-		QueryInformation queryAndParameters = preparedStatements.getIfPresent(object);
+		QueryInformation queryAndParameters = preparedStatements.get(object);
 		if (null == queryAndParameters) {
 			return null;
 		} else {
@@ -117,7 +134,7 @@ public class StatementStorage {
 	 *            The value to be inserted.
 	 */
 	protected void addParameter(Object preparedStatement, int index, Object value) {
-		QueryInformation queryAndParameters = preparedStatements.getIfPresent(preparedStatement);
+		QueryInformation queryAndParameters = preparedStatements.get(preparedStatement);
 
 		if (null == queryAndParameters) {
 			if (LOG.isDebugEnabled()) {
@@ -135,19 +152,12 @@ public class StatementStorage {
 			return;
 		}
 
-		if (null != value) {
-			if ((value instanceof String) || (value instanceof Date) || (value instanceof Time) || (value instanceof Timestamp)) {
-				parameters[index] = "'" + value.toString() + "'";
-			} else {
-				parameters[index] = value.toString();
-			}
-		} else {
-			value = NULL_VALUE;
-			parameters[index] = (String) value;
-		}
+		// the value is converted to the bounded string when bound, so that no references to the
+		// application objects are kept by the storage
+		parameters[index] = toParameterString(value);
 
 		if (LOG.isDebugEnabled()) {
-			LOG.debug("Prepared Statement :: Added value:" + value.toString() + " with index:" + index + " to prepared statement:" + preparedStatement);
+			LOG.debug("Prepared Statement :: Added value:" + value + " with index:" + index + " to prepared statement:" + preparedStatement);
 		}
 	}
 
@@ -158,7 +168,7 @@ public class StatementStorage {
 	 *            The prepared statement for which all parameters are going to be cleared.
 	 */
 	protected void clearParameters(Object preparedStatement) {
-		QueryInformation queryAndParameters = preparedStatements.getIfPresent(preparedStatement);
+		QueryInformation queryAndParameters = preparedStatements.get(preparedStatement);
 
 		if (null == queryAndParameters) {
 			if (LOG.isDebugEnabled()) {
@@ -193,6 +203,31 @@ public class StatementStorage {
 		sqlThreadLocalStack.pop();
 	}
 
+	/**
+	 * Converts the bound value to the string representation. Strings and dates are quoted. Values
+	 * longer than {@value #MAX_PARAMETER_LENGTH} characters are cropped.
+	 *
+	 * @param value
+	 *            Bound value.
+	 * @return String representation.
+	 */
+	private static String toParameterString(Object value) {
+		if (null == value) {
+			return NULL_VALUE;
+		}
+
+		String string = value.toString();
+		if (string.length() > MAX_PARAMETER_LENGTH) {
+			string = string.substring(0, MAX_PARAMETER_LENGTH) + CROPPED_SUFFIX;
+		}
+
+		if ((value instanceof String) || (value instanceof Date) || (value instanceof Time) || (value instanceof Timestamp)) {
+			return "'" + string + "'";
+		} else {
+			return string;
+		}
+	}
+
 	/**
 	 * Value container to store the SQL query and its parameters within the cache of prepared
 	 * statements. The JDBC sensor in inspectIT allows for two modes. The SQL query can be enhanced
@@ -288,10 +323,12 @@ public class StatementStorage {
 		 *         parameters are captured.
 		 */
 		public List<String> getParametersAsList() {
-			if (null == parameters) {
+			String[] values = parameters;
+			if (null == values) {
 				return null;
 			} else {
-				return Arrays.asList(parameters);
+				// copy, as the reported list must not change with the later bound values
+				return Arrays.asList(values.clone());
 			}
 		}
 	}
@@ -1,7 +1,6 @@
 package rocks.inspectit.agent.java.sensor.method.special;
 
 import java.io.BufferedReader;
-import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -9,8 +8,6 @@ import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.io.CharStreams;
-
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
 import rocks.inspectit.agent.java.config.StorageException;
 import rocks.inspectit.agent.java.config.impl.SpecialSensorConfig;
@@ -209,14 +206,9 @@ public class EUMInstrumentationHook implements ISpecialHook {
 		res.setContentType("application/json");
 		PrintWriter writer = res.getWriter();
 
-		String contentData;
-		try {
-			contentData = CharStreams.toString(reader);
-			String response = dataHandler.insertBeacon(contentData);
-			writer.write(response);
-		} catch (IOException e) {
-			LOG.error("Error receiving beacon!", e);
-		}
+		// the beacon is parsed directly from the reader
+		String response = dataHandler.insertBeacon(reader, req.getRemoteAddr());
+		writer.write(response);
 		writer.flush();
 	}
 
@@ -0,0 +1,620 @@
+package rocks.inspectit.agent.java.sensor.method.timer;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.cliffc.high_scale_lib.NonBlockingHashMapLong;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.shared.all.communication.data.ParameterContentData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.spring.logger.Log;
+
+/**
+ * Aggregates timer measurements on the agent before they are passed to the core service. The
+ * measurements are folded per method ident, sensor type ident and captured parameter contents into
+ * lock-free accumulators and one aggregated {@link TimerData} per key is passed to the
+ * {@link ICoreService} per aggregation interval. The flushing is executed by the
+ * <code>coreServiceExecutorService</code>, one task per distinct aggregation interval.
+ * <p>
+ * Each accumulator is striped by the thread id, so that concurrent threads measuring the same
+ * method do not compete for the same atomic values. The amount of keys per interval is limited,
+ * when the limit is reached the aggregations are flushed right away and the measurements are
+ * passed as is until the flush is done.
+ *
+ * @author Ivan Senic
+ *
+ */
+// we must depend on the core service so that it's stopped only after the final flush
+@Component
+@DependsOn("coreService")
+public class TimerDataAggregator implements DisposableBean {
+
+	/**
+	 * Max amount of aggregations kept per interval.
+	 */
+	static final int MAX_AGGREGATIONS_PER_INTERVAL = 4096;
+
+	/**
+	 * Maximum amount of stripes per accumulator.
+	 */
+	private static final int MAX_STRIPES = 16;
+
+	/**
+	 * Amount of stripes per accumulator, power of two.
+	 */
+	private static final int STRIPES;
+
+	static {
+		int stripes = 1;
+		int processors = Runtime.getRuntime().availableProcessors();
+		while ((stripes < processors) && (stripes < MAX_STRIPES)) {
+			stripes <<= 1;
+		}
+		STRIPES = stripes;
+	}
+
+	/**
+	 * The logger of the class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * Core service to pass the aggregated data to.
+	 */
+	@Autowired
+	private ICoreService coreService;
+
+	/**
+	 * Platform manager.
+	 */
+	@Autowired
+	private IPlatformManager platformManager;
+
+	/**
+	 * Core-service executor service.
+	 */
+	@Autowired
+	@Qualifier("coreServiceExecutorService")
+	private ScheduledExecutorService executorService;
+
+	/**
+	 * Aggregations per interval in milliseconds.
+	 */
+	private final NonBlockingHashMapLong<IntervalAggregations> intervalAggregations = new NonBlockingHashMapLong<IntervalAggregations>();
+
+	/**
+	 * Aggregates the given measurement if the target core service is the one this aggregator
+	 * reports to. Measurements that should go to any other core service (for example the one of
+	 * the invocation sequence) are not aggregated, as the single measurements are needed there.
+	 *
+	 * @param targetCoreService
+	 *            Core service the measurement would be passed to.
+	 * @param interval
+	 *            Aggregation interval in milliseconds.
+	 * @param methodIdent
+	 *            Method ident.
+	 * @param sensorTypeIdent
+	 *            Sensor type ident.
+	 * @param parameterContentData
+	 *            Captured parameter contents, can be <code>null</code>.
+	 * @param charting
+	 *            If the data is charting.
+	 * @param duration
+	 *            Measured duration in milliseconds.
+	 * @param cpuDuration
+	 *            Measured CPU duration in milliseconds or negative number if not available.
+	 * @return <code>true</code> if measurement was aggregated, <code>false</code> if it should be
+	 *         passed to the target core service as is.
+	 */
+	public boolean aggregate(ICoreService targetCoreService, long interval, long methodIdent, long sensorTypeIdent, List<ParameterContentData> parameterContentData, boolean charting, // NOCHK:8-params
+			double duration, double cpuDuration) {
+		if ((targetCoreService != coreService) || (interval <= 0)) { // NOPMD
+			return false;
+		}
+
+		IntervalAggregations aggregations = intervalAggregations.get(interval);
+		if (null == aggregations) {
+			IntervalAggregations newAggregations = new IntervalAggregations();
+			aggregations = intervalAggregations.putIfAbsent(interval, newAggregations);
+			if (null == aggregations) {
+				aggregations = newAggregations;
+				newAggregations.future = executorService.scheduleAtFixedRate(newAggregations, interval, interval, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		AggregationKey key = new AggregationKey(methodIdent, sensorTypeIdent, parameterContentData);
+		while (true) {
+			TimerAggregation aggregation = aggregations.aggregationMap.get(key);
+			if (null == aggregation) {
+				if (aggregations.aggregationMap.size() >= MAX_AGGREGATIONS_PER_INTERVAL) {
+					// too many distinct keys, don't wait for the interval to end
+					aggregations.flushEarly();
+					return false;
+				}
+				TimerAggregation newAggregation = new TimerAggregation(key, charting);
+				aggregation = aggregations.aggregationMap.putIfAbsent(key, newAggregation);
+				if (null == aggregation) {
+					aggregation = newAggregation;
+				}
+			}
+
+			// aggregation can only fail if it's being flushed at the moment, then repeat
+			if (aggregation.add(duration, cpuDuration)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Stops the periodic flushing and flushes all aggregations that are still not passed to the
+	 * core service. The core service is destroyed after this bean, thus it still accepts the data.
+	 */
+	@Override
+	public void destroy() throws Exception {
+		for (IntervalAggregations aggregations : intervalAggregations.values()) {
+			ScheduledFuture<?> future = aggregations.future;
+			if (null != future) {
+				future.cancel(false);
+			}
+			aggregations.flush();
+		}
+	}
+
+	/**
+	 * Aggregations belonging to one interval. Running this object flushes all aggregations to the
+	 * core service.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private class IntervalAggregations implements Runnable {
+
+		/**
+		 * Currently active aggregations.
+		 */
+		private final ConcurrentMap<AggregationKey, TimerAggregation> aggregationMap = new ConcurrentHashMap<AggregationKey, TimerAggregation>();
+
+		/**
+		 * If an early flush is already submitted to the executor.
+		 */
+		private final AtomicBoolean earlyFlushSubmitted = new AtomicBoolean();
+
+		/**
+		 * Future of the periodic flushing.
+		 */
+		private volatile ScheduledFuture<?> future;
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void run() {
+			try {
+				flush();
+			} catch (Throwable t) { // NOPMD NOCHK
+				// catch any exception in order not to cancel the task in the executor
+				log.error("Error occurred during flushing of the aggregated timer data.", t);
+			} finally {
+				earlyFlushSubmitted.set(false);
+			}
+		}
+
+		/**
+		 * Submits the flush to the executor if it's not already submitted.
+		 */
+		void flushEarly() {
+			if (earlyFlushSubmitted.compareAndSet(false, true)) {
+				try {
+					executorService.execute(this);
+				} catch (RejectedExecutionException e) {
+					// executor is shutting down, final flush is done on destroy
+					earlyFlushSubmitted.set(false);
+				}
+			}
+		}
+
+		/**
+		 * Removes all aggregations from the map and passes the created {@link TimerData} objects
+		 * to the core service.
+		 */
+		void flush() {
+			long platformId = platformManager.getPlatformId();
+			for (Entry<AggregationKey, TimerAggregation> entry : aggregationMap.entrySet()) {
+				TimerAggregation aggregation = entry.getValue();
+				if (aggregationMap.remove(entry.getKey(), aggregation)) {
+					aggregation.close();
+					TimerData timerData = aggregation.toTimerData(platformId);
+					if (null != timerData) {
+						coreService.addDefaultData(timerData);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Key of the aggregation.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static final class AggregationKey {
+
+		/**
+		 * Method ident.
+		 */
+		private final long methodIdent;
+
+		/**
+		 * Sensor type ident.
+		 */
+		private final long sensorTypeIdent;
+
+		/**
+		 * Captured parameters, can be <code>null</code>.
+		 */
+		private final List<ParameterContentData> parameterContentData;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param methodIdent
+		 *            Method ident.
+		 * @param sensorTypeIdent
+		 *            Sensor type ident.
+		 * @param parameterContentData
+		 *            Captured parameters, can be <code>null</code>.
+		 */
+		AggregationKey(long methodIdent, long sensorTypeIdent, List<ParameterContentData> parameterContentData) {
+			this.methodIdent = methodIdent;
+			this.sensorTypeIdent = sensorTypeIdent;
+			this.parameterContentData = parameterContentData;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = (prime * result) + (int) (methodIdent ^ (methodIdent >>> 32));
+			result = (prime * result) + (int) (sensorTypeIdent ^ (sensorTypeIdent >>> 32));
+			result = (prime * result) + ((parameterContentData == null) ? 0 : parameterContentData.hashCode());
+			return result;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null) {
+				return false;
+			}
+			if (getClass() != obj.getClass()) {
+				return false;
+			}
+			AggregationKey other = (AggregationKey) obj;
+			if (methodIdent != other.methodIdent) {
+				return false;
+			}
+			if (sensorTypeIdent != other.sensorTypeIdent) {
+				return false;
+			}
+			if (parameterContentData == null) {
+				if (other.parameterContentData != null) {
+					return false;
+				}
+			} else if (!parameterContentData.equals(other.parameterContentData)) {
+				return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Accumulates measurements of one key. Measurements are added to one of the stripes based on
+	 * the current thread id. Once closed, no more measurements are accepted, and closing waits
+	 * until all in-flight additions are done, thus the results can be safely read afterwards.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static final class TimerAggregation {
+
+		/**
+		 * Key.
+		 */
+		private final AggregationKey key;
+
+		/**
+		 * If data is charting.
+		 */
+		private final boolean charting;
+
+		/**
+		 * Time of the creation, used as the time stamp of the aggregated data.
+		 */
+		private final long timestamp = System.currentTimeMillis();
+
+		/**
+		 * Stripes.
+		 */
+		private final Stripe[] stripes = new Stripe[STRIPES];
+
+		/**
+		 * If this aggregation is closed.
+		 */
+		private volatile boolean closed;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param key
+		 *            Key.
+		 * @param charting
+		 *            If data is charting.
+		 */
+		TimerAggregation(AggregationKey key, boolean charting) {
+			this.key = key;
+			this.charting = charting;
+			for (int i = 0; i < STRIPES; i++) {
+				stripes[i] = new Stripe();
+			}
+		}
+
+		/**
+		 * Adds the measurement.
+		 *
+		 * @param duration
+		 *            Duration.
+		 * @param cpuDuration
+		 *            CPU duration or negative number if not available.
+		 * @return <code>true</code> if added, <code>false</code> if aggregation is already closed.
+		 */
+		boolean add(double duration, double cpuDuration) {
+			Stripe stripe = stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+			stripe.inFlight.incrementAndGet();
+			try {
+				if (closed) {
+					return false;
+				}
+				stripe.add(duration, cpuDuration);
+				return true;
+			} finally {
+				stripe.inFlight.decrementAndGet();
+			}
+		}
+
+		/**
+		 * Closes the aggregation and waits for all in-flight additions to finish.
+		 */
+		void close() {
+			closed = true;
+			for (Stripe stripe : stripes) {
+				while (stripe.inFlight.get() > 0) {
+					Thread.yield();
+				}
+			}
+		}
+
+		/**
+		 * Creates the {@link TimerData} with the aggregated values. Should be called only after
+		 * {@link #close()}.
+		 *
+		 * @param platformId
+		 *            Platform ident.
+		 * @return {@link TimerData} or <code>null</code> if nothing was aggregated.
+		 */
+		TimerData toTimerData(long platformId) {
+			long count = 0;
+			long cpuCount = 0;
+			double duration = 0;
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			double cpuDuration = 0;
+			double cpuMin = Double.POSITIVE_INFINITY;
+			double cpuMax = Double.NEGATIVE_INFINITY;
+			for (Stripe stripe : stripes) {
+				long stripeCount = stripe.count.get();
+				if (stripeCount > 0) {
+					count += stripeCount;
+					duration += get(stripe.duration);
+					min = Math.min(min, get(stripe.min));
+					max = Math.max(max, get(stripe.max));
+				}
+				long stripeCpuCount = stripe.cpuCount.get();
+				if (stripeCpuCount > 0) {
+					cpuCount += stripeCpuCount;
+					cpuDuration += get(stripe.cpuDuration);
+					cpuMin = Math.min(cpuMin, get(stripe.cpuMin));
+					cpuMax = Math.max(cpuMax, get(stripe.cpuMax));
+				}
+			}
+
+			if (0 == count) {
+				return null;
+			}
+
+			TimerData timerData = new TimerData(new Timestamp(timestamp), platformId, key.sensorTypeIdent, key.methodIdent, key.parameterContentData);
+			timerData.setCount(count);
+			timerData.setDuration(duration);
+			timerData.calculateMin(min);
+			timerData.calculateMax(max);
+			if (cpuCount > 0) {
+				timerData.setCpuDuration(cpuDuration);
+				timerData.calculateCpuMin(cpuMin);
+				timerData.calculateCpuMax(cpuMax);
+			}
+			timerData.setCharting(charting);
+			return timerData;
+		}
+
+	}
+
+	/**
+	 * One stripe of the {@link TimerAggregation}. Double values are kept as raw long bits in the
+	 * atomic longs.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static final class Stripe {
+
+		/**
+		 * Additions currently executing on this stripe.
+		 */
+		private final AtomicInteger inFlight = new AtomicInteger();
+
+		/**
+		 * Count.
+		 */
+		private final AtomicLong count = new AtomicLong();
+
+		/**
+		 * Duration sum.
+		 */
+		private final AtomicLong duration = new AtomicLong(Double.doubleToRawLongBits(0d));
+
+		/**
+		 * Minimum duration.
+		 */
+		private final AtomicLong min = new AtomicLong(Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+
+		/**
+		 * Maximum duration.
+		 */
+		private final AtomicLong max = new AtomicLong(Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY));
+
+		/**
+		 * CPU count.
+		 */
+		private final AtomicLong cpuCount = new AtomicLong();
+
+		/**
+		 * CPU duration sum.
+		 */
+		private final AtomicLong cpuDuration = new AtomicLong(Double.doubleToRawLongBits(0d));
+
+		/**
+		 * Minimum CPU duration.
+		 */
+		private final AtomicLong cpuMin = new AtomicLong(Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+
+		/**
+		 * Maximum CPU duration.
+		 */
+		private final AtomicLong cpuMax = new AtomicLong(Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY));
+
+		/**
+		 * Adds measurement to the stripe.
+		 *
+		 * @param value
+		 *            Duration.
+		 * @param cpuValue
+		 *            CPU duration or negative number if not available.
+		 */
+		void add(double value, double cpuValue) {
+			count.incrementAndGet();
+			sum(duration, value);
+			minimum(min, value);
+			maximum(max, value);
+			// only add the cpu time if its greater than zero
+			if (cpuValue >= 0) {
+				cpuCount.incrementAndGet();
+				sum(cpuDuration, cpuValue);
+				minimum(cpuMin, cpuValue);
+				maximum(cpuMax, cpuValue);
+			}
+		}
+	}
+
+	/**
+	 * Reads the double value stored in the atomic long.
+	 *
+	 * @param atomicLong
+	 *            Atomic long holding the double bits.
+	 * @return Double value.
+	 */
+	private static double get(AtomicLong atomicLong) {
+		return Double.longBitsToDouble(atomicLong.get());
+	}
+
+	/**
+	 * Atomically adds the value to the double stored in the atomic long.
+	 *
+	 * @param atomicLong
+	 *            Atomic long holding the double bits.
+	 * @param value
+	 *            Value to add.
+	 */
+	private static void sum(AtomicLong atomicLong, double value) {
+		while (true) {
+			long current = atomicLong.get();
+			long next = Double.doubleToRawLongBits(Double.longBitsToDouble(current) + value);
+			if (atomicLong.compareAndSet(current, next)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Atomically sets the value to the double stored in the atomic long if the value is smaller.
+	 *
+	 * @param atomicLong
+	 *            Atomic long holding the double bits.
+	 * @param value
+	 *            Value to compare.
+	 */
+	private static void minimum(AtomicLong atomicLong, double value) {
+		while (true) {
+			long current = atomicLong.get();
+			if ((Double.longBitsToDouble(current) <= value) || atomicLong.compareAndSet(current, Double.doubleToRawLongBits(value))) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Atomically sets the value to the double stored in the atomic long if the value is bigger.
+	 *
+	 * @param atomicLong
+	 *            Atomic long holding the double bits.
+	 * @param value
+	 *            Value to compare.
+	 */
+	private static void maximum(AtomicLong atomicLong, double value) {
+		while (true) {
+			long current = atomicLong.get();
+			if ((Double.longBitsToDouble(current) >= value) || atomicLong.compareAndSet(current, Double.doubleToRawLongBits(value))) {
+				return;
+			}
+		}
+	}
+
+}
@@ -16,6 +16,8 @@ import rocks.inspectit.agent.java.hooking.IConstructorHook;
 import rocks.inspectit.agent.java.hooking.IMethodHook;
 import rocks.inspectit.agent.java.util.StringConstraint;
 import rocks.inspectit.agent.java.util.ThreadLocalStack;
+import rocks.inspectit.agent.java.util.ThreadLocalTimingStack;
+import rocks.inspectit.agent.java.util.ThreadLocalTimingStack.TimingStack;
 import rocks.inspectit.agent.java.util.Timer;
 import rocks.inspectit.shared.all.communication.data.ParameterContentData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
@@ -27,6 +29,14 @@ import rocks.inspectit.shared.all.communication.data.TimerData;
  * The difference to the {@link AverageTimerHook} is that it's using {@link ITimerStorage} objects
  * to save the values. The {@link ITimerStorage} is responsible for the actual data saving, so
  * different strategies can be chosen from (set through the configuration file).
+ * <p>
+ * If the <code>primitivetimingstack</code> parameter is set to <code>true</code>, the hook keeps
+ * the start and end times in a {@link ThreadLocalTimingStack} instead. This way no wrapper objects
+ * are created per invocation and only one thread local lookup is performed per hook call.
+ * <p>
+ * If the sensor assignment defines the <code>aggregationinterval</code> setting, the measurements
+ * are passed to the {@link TimerDataAggregator} instead of creating one {@link TimerData} per
+ * invocation.
  *
  * @author Patrice Bouillet
  *
@@ -83,6 +93,22 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 */
 	private final ThreadLocalStack<Long> threadCpuTimeStack = new ThreadLocalStack<Long>();
 
+	/**
+	 * Defines if the primitive {@link #timingStack} is used instead of the {@link #timeStack} and
+	 * {@link #threadCpuTimeStack}.
+	 */
+	private final boolean primitiveTimingStack;
+
+	/**
+	 * The stack containing the start and end wall-clock and CPU time values as primitives.
+	 */
+	private final ThreadLocalTimingStack timingStack = new ThreadLocalTimingStack();
+
+	/**
+	 * Aggregator for the assignments that define the aggregation interval.
+	 */
+	private final TimerDataAggregator timerDataAggregator;
+
 	/**
 	 * The only constructor which needs the used {@link ICoreService} implementation and the used
 	 * {@link Timer}.
@@ -98,9 +124,12 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 *            initialization.
 	 * @param threadMXBean
 	 *            The bean used to access the cpu time.
+	 * @param timerDataAggregator
+	 *            Aggregator for the assignments that define the aggregation interval.
 	 */
-	public TimerHook(Timer timer, IPlatformManager platformManager, IPropertyAccessor propertyAccessor, Map<String, Object> param, ThreadMXBean threadMXBean) {
+	public TimerHook(Timer timer, IPlatformManager platformManager, IPropertyAccessor propertyAccessor, Map<String, Object> param, ThreadMXBean threadMXBean, TimerDataAggregator timerDataAggregator) {
 		this.timer = timer;
+		this.timerDataAggregator = timerDataAggregator;
 		this.platformManager = platformManager;
 		this.propertyAccessor = propertyAccessor;
 		this.threadMXBean = threadMXBean;
@@ -125,6 +154,7 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 		}
 
 		this.strConstraint = new StringConstraint(param);
+		this.primitiveTimingStack = "true".equals(param.get("primitivetimingstack"));
 	}
 
 	/**
@@ -132,10 +162,7 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void beforeBody(long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
-		if (enabled) {
-			threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
-		}
+		pushTimes();
 	}
 
 	/**
@@ -143,10 +170,7 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void firstAfterBody(long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, boolean exception, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
-		if (enabled) {
-			threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
-		}
+		pushTimes();
 	}
 
 	/**
@@ -154,17 +178,31 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void secondAfterBody(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, boolean exception, RegisteredSensorConfig rsc) { // NOCHK:8-params
-		double endTime = timeStack.pop().doubleValue();
-		double startTime = timeStack.pop().doubleValue();
-		double duration = endTime - startTime;
-
+		double endTime;
+		double startTime;
 		// default setting to a negative number
 		double cpuDuration = -1.0d;
-		if (enabled) {
-			long cpuEndTime = threadCpuTimeStack.pop().longValue();
-			long cpuStartTime = threadCpuTimeStack.pop().longValue();
-			cpuDuration = (cpuEndTime - cpuStartTime) / 1000000.0d;
+		if (primitiveTimingStack) {
+			TimingStack stack = timingStack.get();
+			endTime = stack.getTime();
+			long cpuEndTime = stack.getCpuTime();
+			stack.pop();
+			startTime = stack.getTime();
+			long cpuStartTime = stack.getCpuTime();
+			stack.pop();
+			if (enabled) {
+				cpuDuration = (cpuEndTime - cpuStartTime) / 1000000.0d;
+			}
+		} else {
+			endTime = timeStack.pop().doubleValue();
+			startTime = timeStack.pop().doubleValue();
+			if (enabled) {
+				long cpuEndTime = threadCpuTimeStack.pop().longValue();
+				long cpuStartTime = threadCpuTimeStack.pop().longValue();
+				cpuDuration = (cpuEndTime - cpuStartTime) / 1000000.0d;
+			}
 		}
+		double duration = endTime - startTime;
 
 		List<ParameterContentData> parameterContentData = null;
 		// check if some properties need to be accessed and saved
@@ -177,6 +215,15 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 			}
 		}
 
+		Map<String, Object> settings = rsc.getSettings();
+		boolean charting = Boolean.TRUE.equals(settings.get("charting"));
+
+		Long aggregationInterval = (Long) settings.get("aggregationinterval");
+		if ((null != aggregationInterval)
+				&& timerDataAggregator.aggregate(coreService, aggregationInterval.longValue(), methodId, sensorTypeId, parameterContentData, charting, duration, cpuDuration)) {
+			return;
+		}
+
 		long platformId = platformManager.getPlatformId();
 		Timestamp timestamp = new Timestamp(System.currentTimeMillis() - Math.round(duration));
 
@@ -191,7 +238,6 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 			timerData.calculateCpuMax(cpuDuration);
 			timerData.calculateCpuMin(cpuDuration);
 		}
-		boolean charting = Boolean.TRUE.equals(rsc.getSettings().get("charting"));
 		timerData.setCharting(charting);
 
 		coreService.addDefaultData(timerData);
@@ -202,10 +248,7 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void beforeConstructor(long methodId, long sensorTypeId, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
-		if (enabled) {
-			threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
-		}
+		pushTimes();
 	}
 
 	/**
@@ -213,12 +256,25 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void afterConstructor(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
-		if (enabled) {
-			threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
-		}
+		pushTimes();
 		// just call the second after body method directly
 		secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, null, false, rsc);
 	}
 
+	/**
+	 * Pushes the current wall-clock time and the current thread CPU time (if enabled) to the
+	 * stacks.
+	 */
+	private void pushTimes() {
+		if (primitiveTimingStack) {
+			long cpuTime = enabled ? threadMXBean.getCurrentThreadCpuTime() : 0L;
+			timingStack.get().push(timer.getCurrentTime(), cpuTime);
+		} else {
+			timeStack.push(new Double(timer.getCurrentTime()));
+			if (enabled) {
+				threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
+			}
+		}
+	}
+
 }
@@ -38,6 +38,12 @@ public class TimerSensor extends AbstractMethodSensor implements IMethodSensor {
 	@Autowired
 	private IPropertyAccessor propertyAccessor;
 
+	/**
+	 * The timer data aggregator.
+	 */
+	@Autowired
+	private TimerDataAggregator timerDataAggregator;
+
 	/**
 	 * The used timer hook.
 	 */
@@ -50,7 +56,7 @@ public class TimerSensor extends AbstractMethodSensor implements IMethodSensor {
 	}
 
 	/**
-	 * The default constructor which needs 3 parameter for initialization.
+	 * The default constructor which needs 4 parameter for initialization.
 	 *
 	 * @param timer
 	 *            The timer used for accurate measuring.
@@ -58,11 +64,14 @@ public class TimerSensor extends AbstractMethodSensor implements IMethodSensor {
 	 *            The Platform manager.
 	 * @param propertyAccessor
 	 *            The property accessor.
+	 * @param timerDataAggregator
+	 *            The timer data aggregator.
 	 */
-	public TimerSensor(Timer timer, IPlatformManager platformManager, IPropertyAccessor propertyAccessor) {
+	public TimerSensor(Timer timer, IPlatformManager platformManager, IPropertyAccessor propertyAccessor, TimerDataAggregator timerDataAggregator) {
 		this.timer = timer;
 		this.platformManager = platformManager;
 		this.propertyAccessor = propertyAccessor;
+		this.timerDataAggregator = timerDataAggregator;
 	}
 
 	/**
@@ -78,7 +87,27 @@ public class TimerSensor extends AbstractMethodSensor implements IMethodSensor {
 	 */
 	@Override
 	public void initHook(Map<String, Object> parameter) {
-		timerHook = new TimerHook(timer, platformManager, propertyAccessor, parameter, ManagementFactory.getThreadMXBean());
+		timerHook = new TimerHook(timer, platformManager, propertyAccessor, parameter, ManagementFactory.getThreadMXBean(), timerDataAggregator);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Timer hook reads the parameters only with the property accessors.
+	 */
+	@Override
+	public boolean isParametersNeeded() {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Timer hook reads the return value only with the property accessors.
+	 */
+	@Override
+	public boolean isResultNeeded() {
+		return false;
 	}
 
 }
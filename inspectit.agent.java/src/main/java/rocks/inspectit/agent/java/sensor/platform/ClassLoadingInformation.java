@@ -43,19 +43,22 @@ public class ClassLoadingInformation extends AbstractPlatformSensor {
 
 		if (loadedClassCount < this.classLoadingInformationData.getMinLoadedClassCount()) {
 			this.classLoadingInformationData.setMinLoadedClassCount(loadedClassCount);
-		} else if (loadedClassCount > this.classLoadingInformationData.getMaxLoadedClassCount()) {
+		}
+		if (loadedClassCount > this.classLoadingInformationData.getMaxLoadedClassCount()) {
 			this.classLoadingInformationData.setMaxLoadedClassCount(loadedClassCount);
 		}
 
 		if (totalLoadedClassCount < this.classLoadingInformationData.getMinTotalLoadedClassCount()) {
 			this.classLoadingInformationData.setMinTotalLoadedClassCount(totalLoadedClassCount);
-		} else if (totalLoadedClassCount > this.classLoadingInformationData.getMaxTotalLoadedClassCount()) {
+		}
+		if (totalLoadedClassCount > this.classLoadingInformationData.getMaxTotalLoadedClassCount()) {
 			this.classLoadingInformationData.setMaxTotalLoadedClassCount(totalLoadedClassCount);
 		}
 
 		if (unloadedClassCount < this.classLoadingInformationData.getMinUnloadedClassCount()) {
 			this.classLoadingInformationData.setMinUnloadedClassCount(unloadedClassCount);
-		} else if (unloadedClassCount > this.classLoadingInformationData.getMaxUnloadedClassCount()) {
+		}
+		if (unloadedClassCount > this.classLoadingInformationData.getMaxUnloadedClassCount()) {
 			this.classLoadingInformationData.setMaxUnloadedClassCount(unloadedClassCount);
 		}
 	}
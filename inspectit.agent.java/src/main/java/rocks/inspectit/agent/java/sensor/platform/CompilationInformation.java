@@ -39,7 +39,8 @@ public class CompilationInformation extends AbstractPlatformSensor {
 
 		if (totalCompilationTime < this.compilationInformationData.getMinTotalCompilationTime()) {
 			this.compilationInformationData.setMinTotalCompilationTime(totalCompilationTime);
-		} else if (totalCompilationTime > this.compilationInformationData.getMaxTotalCompilationTime()) {
+		}
+		if (totalCompilationTime > this.compilationInformationData.getMaxTotalCompilationTime()) {
 			this.compilationInformationData.setMaxTotalCompilationTime(totalCompilationTime);
 		}
 	}
@@ -43,25 +43,29 @@ public class ThreadInformation extends AbstractPlatformSensor {
 
 		if (daemonThreadCount < this.threadInformationData.getMinDaemonThreadCount()) {
 			this.threadInformationData.setMinDaemonThreadCount(daemonThreadCount);
-		} else if (daemonThreadCount > this.threadInformationData.getMaxDaemonThreadCount()) {
+		}
+		if (daemonThreadCount > this.threadInformationData.getMaxDaemonThreadCount()) {
 			this.threadInformationData.setMaxDaemonThreadCount(daemonThreadCount);
 		}
 
 		if (peakThreadCount < this.threadInformationData.getMinPeakThreadCount()) {
 			this.threadInformationData.setMinPeakThreadCount(peakThreadCount);
-		} else if (peakThreadCount > this.threadInformationData.getMaxPeakThreadCount()) {
+		}
+		if (peakThreadCount > this.threadInformationData.getMaxPeakThreadCount()) {
 			this.threadInformationData.setMaxPeakThreadCount(peakThreadCount);
 		}
 
 		if (threadCount < this.threadInformationData.getMinThreadCount()) {
 			this.threadInformationData.setMinThreadCount(threadCount);
-		} else if (threadCount > this.threadInformationData.getMaxThreadCount()) {
+		}
+		if (threadCount > this.threadInformationData.getMaxThreadCount()) {
 			this.threadInformationData.setMaxThreadCount(threadCount);
 		}
 
 		if (totalStartedThreadCount < this.threadInformationData.getMinTotalStartedThreadCount()) {
 			this.threadInformationData.setMinTotalStartedThreadCount(totalStartedThreadCount);
-		} else if (totalStartedThreadCount > this.threadInformationData.getMaxTotalStartedThreadCount()) {
+		}
+		if (totalStartedThreadCount > this.threadInformationData.getMaxTotalStartedThreadCount()) {
 			this.threadInformationData.setMaxTotalStartedThreadCount(totalStartedThreadCount);
 		}
 	}
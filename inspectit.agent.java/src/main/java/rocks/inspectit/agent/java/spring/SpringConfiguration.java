@@ -1,9 +1,12 @@
 package rocks.inspectit.agent.java.spring;
 
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +20,7 @@ import org.springframework.beans.factory.support.GenericBeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.Scope;
 import org.springframework.core.io.ClassPathResource;
 
@@ -24,12 +28,19 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import rocks.inspectit.agent.java.IThreadTransformHelper;
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.config.StorageException;
 import rocks.inspectit.agent.java.connection.impl.AgentAwareClient;
 import rocks.inspectit.agent.java.sdk.opentracing.Reporter;
+import rocks.inspectit.agent.java.sdk.opentracing.Sampler;
 import rocks.inspectit.agent.java.sdk.opentracing.internal.impl.TracerImpl;
+import rocks.inspectit.agent.java.sdk.opentracing.util.ConstantSampler;
+import rocks.inspectit.agent.java.sdk.opentracing.util.ProbabilisticSampler;
+import rocks.inspectit.agent.java.sdk.opentracing.util.RateLimitingSampler;
 import rocks.inspectit.agent.java.sdk.opentracing.util.SystemTimer;
+import rocks.inspectit.agent.java.tracing.core.TailSamplingBuffer;
 import rocks.inspectit.agent.java.util.AgentAwareThread;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AbstractSensorTypeConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.AgentTracingConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.JmxSensorTypeConfig;
 import rocks.inspectit.shared.all.kryonet.Client;
 import rocks.inspectit.shared.all.kryonet.ExtendedSerializationImpl;
@@ -45,6 +56,11 @@ import rocks.inspectit.shared.all.kryonet.IExtendedSerialization;
 @ComponentScan("rocks.inspectit")
 public class SpringConfiguration implements BeanDefinitionRegistryPostProcessor {
 
+	/**
+	 * Amount of send tasks that can wait in the data sender executor queue.
+	 */
+	private static final int DATA_SENDER_QUEUE_CAPACITY = 4;
+
 	/**
 	 * Registry to add bean definitions to.
 	 */
@@ -125,6 +141,54 @@ public class SpringConfiguration implements BeanDefinitionRegistryPostProcessor
 		return Executors.newScheduledThreadPool(3, threadFactory);
 	}
 
+	/**
+	 * Single threaded executor used for sending the types to be analyzed to the CMR in batches. The
+	 * calls to the CMR block, so they are not executed with the core service executor. Scheduled,
+	 * as the types not awaited by any thread are sent with a delay.
+	 *
+	 * @param threadTransformHelper
+	 *            {@link IThreadTransformHelper}
+	 * @return Returns analyzeExecutorService
+	 */
+	@Bean(name = "analyzeExecutorService")
+	@Scope(BeanDefinition.SCOPE_SINGLETON)
+	@Autowired
+	public ScheduledExecutorService getAnalyzeExecutorService(final IThreadTransformHelper threadTransformHelper) {
+		ThreadFactory inspectitThreadFactory = new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				return new AgentAwareThread(r, threadTransformHelper);
+			}
+		};
+
+		ThreadFactory threadFactory = new ThreadFactoryBuilder().setThreadFactory(inspectitThreadFactory).setNameFormat("inspectit-analyze-executor-service-thread-%d").setDaemon(true).build();
+		return Executors.newSingleThreadScheduledExecutor(threadFactory);
+	}
+
+	/**
+	 * Single threaded executor used for sending the data to the CMR when the pipelined sending is
+	 * active. The queue is bounded, so that the disruptor consumer is informed with the
+	 * {@link java.util.concurrent.RejectedExecutionException} when sending can not keep up.
+	 *
+	 * @param threadTransformHelper
+	 *            {@link IThreadTransformHelper}
+	 * @return Returns dataSenderExecutorService
+	 */
+	@Bean(name = "dataSenderExecutorService")
+	@Scope(BeanDefinition.SCOPE_SINGLETON)
+	@Autowired
+	public ExecutorService getDataSenderExecutorService(final IThreadTransformHelper threadTransformHelper) {
+		ThreadFactory inspectitThreadFactory = new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				return new AgentAwareThread(r, threadTransformHelper);
+			}
+		};
+
+		ThreadFactory threadFactory = new ThreadFactoryBuilder().setThreadFactory(inspectitThreadFactory).setNameFormat("inspectit-data-sender-executor-service-thread-%d").setDaemon(true).build();
+		return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(DATA_SENDER_QUEUE_CAPACITY), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+	}
+
 	/**
 	 * Creates the client bean.
 	 *
@@ -147,16 +211,53 @@ public class SpringConfiguration implements BeanDefinitionRegistryPostProcessor
 	 *
 	 * @param reporter
 	 *            Reporter to use. Autowired.
+	 * @param tailSamplingBuffer
+	 *            Tail sampling buffer, if active the not sampled spans are reported as well.
+	 *            Autowired.
+	 * @param configurationStorage
+	 *            {@link IConfigurationStorage} holding the tracing configuration. Autowired.
 	 * @return Created bean
+	 * @throws StorageException
+	 *             If agent configuration is not set.
 	 */
 	@Bean
 	@Scope(BeanDefinition.SCOPE_SINGLETON)
+	@DependsOn("platformManager")
 	@Autowired
-	public TracerImpl getTracer(Reporter reporter) {
+	public TracerImpl getTracer(Reporter reporter, TailSamplingBuffer tailSamplingBuffer, IConfigurationStorage configurationStorage) throws StorageException {
 		TracerImpl tracer = new TracerImpl(new SystemTimer(), reporter, true);
+		tracer.setSampler(createSampler(configurationStorage.getTracingConfig()));
+		tracer.setReportNotSampled(tailSamplingBuffer.isEnabled());
 		return tracer;
 	}
 
+	/**
+	 * Creates the sampler for the new traces. Rate limiting sampler is created if a positive rate
+	 * is given, otherwise the probabilistic one if the probability is lower than one. If no
+	 * configuration is given or the values are invalid all traces are sampled.
+	 *
+	 * @param tracingConfig
+	 *            Tracing configuration, can be <code>null</code>.
+	 * @return {@link Sampler}, never <code>null</code>.
+	 */
+	static Sampler createSampler(AgentTracingConfig tracingConfig) {
+		if (null == tracingConfig) {
+			return new ConstantSampler(true);
+		}
+
+		try {
+			if (tracingConfig.getSamplingRate() > 0) {
+				return new RateLimitingSampler(tracingConfig.getSamplingRate());
+			}
+			if (tracingConfig.getSamplingProbability() < 1) {
+				return new ProbabilisticSampler(tracingConfig.getSamplingProbability());
+			}
+		} catch (IllegalArgumentException e) { // NOPMD
+			// invalid configuration, sample all
+		}
+		return new ConstantSampler(true);
+	}
+
 	/**
 	 * Registers components needed by the configuration to the Spring container.
 	 *
@@ -2,6 +2,7 @@ package rocks.inspectit.agent.java.stats;
 
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.apache.commons.lang.ArrayUtils;
 import org.slf4j.Logger;
@@ -13,7 +14,10 @@ import rocks.inspectit.shared.all.spring.logger.Log;
  * Very basic component for statistics logging. Other components can use methods provided to denote
  * different events, while the logger decides when will something be printed.
  * <P>
- * For now only can log the number of data dropped.
+ * Logs the number of data dropped, keeps the counters of the data spilled to disk, of the sampled
+ * JMX attribute values and the histograms of the size and latency of the batches sent to the CMR. Histograms use the power of two buckets, where the bucket <code>i</code> holds
+ * the values from <code>2^(i-1)</code> to <code>2^i - 1</code> and the bucket <code>0</code> holds
+ * zero.
  *
  * @author Ivan Senic
  *
@@ -31,6 +35,21 @@ public class AgentStatisticsLogger {
 	 */
 	private static final BoundariesLogStrategy THROWN_BUSINESS_EXCEPTION_LOG_STRATEGY = new BoundariesLogStrategy(1, Long.MAX_VALUE);
 
+	/**
+	 * Log strategy for the {@link #sentBatchCount}.
+	 */
+	private static final BoundariesLogStrategy SENT_BATCH_LOG_STRATEGY = new BoundariesLogStrategy(1000);
+
+	/**
+	 * Log strategy for the {@link #sampledJmxValues}.
+	 */
+	private static final BoundariesLogStrategy SAMPLED_JMX_VALUES_LOG_STRATEGY = new BoundariesLogStrategy(10000);
+
+	/**
+	 * Amount of buckets in the histograms.
+	 */
+	static final int HISTOGRAM_BUCKETS = 32;
+
 	/**
 	 * The logger of the class.
 	 */
@@ -47,6 +66,52 @@ public class AgentStatisticsLogger {
 	 */
 	private AtomicLong thrownBusinessExceptionCount = new AtomicLong(0);
 
+	/**
+	 * Current size of the spilled data in bytes.
+	 */
+	private AtomicLong spillSize = new AtomicLong(0);
+
+	/**
+	 * Total bytes spilled to disk.
+	 */
+	private AtomicLong spilledBytes = new AtomicLong(0);
+
+	/**
+	 * Total bytes replayed from disk.
+	 */
+	private AtomicLong replayedBytes = new AtomicLong(0);
+
+	/**
+	 * Total bytes evicted from the spill file due to capacity.
+	 */
+	private AtomicLong evictedSpillBytes = new AtomicLong(0);
+
+	/**
+	 * Count of the sampled JMX attribute values.
+	 */
+	private AtomicLong sampledJmxValues = new AtomicLong(0);
+
+	/**
+	 * Count of the sampled JMX attribute values not sent as they did not change.
+	 */
+	private AtomicLong suppressedJmxValues = new AtomicLong(0);
+
+	/**
+	 * Count of batches sent.
+	 */
+	private AtomicLong sentBatchCount = new AtomicLong(0);
+
+	/**
+	 * Histogram of the amount of objects in the sent batches.
+	 */
+	private AtomicLongArray batchSizeHistogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+
+	/**
+	 * Histogram of the batch latency in milliseconds, from the moment first object was added to
+	 * the batch until the batch was sent.
+	 */
+	private AtomicLongArray batchLatencyHistogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+
 	/**
 	 * Signals data drop.
 	 *
@@ -78,6 +143,228 @@ public class AgentStatisticsLogger {
 		}
 	}
 
+	/**
+	 * Signals that data has been spilled to disk.
+	 *
+	 * @param bytes
+	 *            Amount of bytes spilled.
+	 * @param currentSpillSize
+	 *            Size of the spilled data after spilling.
+	 */
+	public void dataSpilled(long bytes, long currentSpillSize) {
+		spilledBytes.addAndGet(bytes);
+		long previous = spillSize.getAndSet(currentSpillSize);
+
+		if ((0 == previous) && log.isInfoEnabled()) {
+			log.info("Monitoring data can not be sent to the CMR and is spilled to disk.");
+		}
+	}
+
+	/**
+	 * Signals that spilled data has been replayed to the CMR.
+	 *
+	 * @param bytes
+	 *            Amount of bytes replayed.
+	 * @param currentSpillSize
+	 *            Size of the spilled data after replaying.
+	 */
+	public void dataReplayed(long bytes, long currentSpillSize) {
+		replayedBytes.addAndGet(bytes);
+		spillSize.set(currentSpillSize);
+	}
+
+	/**
+	 * Signals that the spilled data has been evicted due to the spill capacity. Evicted objects
+	 * are reported as dropped.
+	 *
+	 * @param objectCount
+	 *            Amount of objects evicted.
+	 * @param bytes
+	 *            Amount of bytes evicted.
+	 */
+	public void spillEvicted(int objectCount, long bytes) {
+		evictedSpillBytes.addAndGet(bytes);
+		if (objectCount > 0) {
+			dataDropped(objectCount);
+		}
+	}
+
+	/**
+	 * Signals that all spilled data has been replayed.
+	 *
+	 * @param bytes
+	 *            Amount of bytes replayed since the spill was not empty.
+	 * @param duration
+	 *            Duration of replaying in milliseconds.
+	 */
+	public void spillDrained(long bytes, long duration) {
+		if (log.isInfoEnabled()) {
+			long rate = (duration > 0) ? (bytes * 1000) / (duration * 1024) : bytes / 1024;
+			log.info("Replayed " + bytes + " bytes of spilled monitoring data to the CMR in " + duration + " ms (" + rate + " KB/s).");
+		}
+	}
+
+	/**
+	 * Returns the current size of the spilled data in bytes.
+	 *
+	 * @return Returns the current size of the spilled data in bytes.
+	 */
+	public long getSpillSize() {
+		return spillSize.get();
+	}
+
+	/**
+	 * Returns the total amount of bytes spilled to disk.
+	 *
+	 * @return Returns the total amount of bytes spilled to disk.
+	 */
+	public long getSpilledBytes() {
+		return spilledBytes.get();
+	}
+
+	/**
+	 * Returns the total amount of bytes replayed from disk.
+	 *
+	 * @return Returns the total amount of bytes replayed from disk.
+	 */
+	public long getReplayedBytes() {
+		return replayedBytes.get();
+	}
+
+	/**
+	 * Returns the total amount of bytes evicted from the spill file.
+	 *
+	 * @return Returns the total amount of bytes evicted from the spill file.
+	 */
+	public long getEvictedSpillBytes() {
+		return evictedSpillBytes.get();
+	}
+
+	/**
+	 * Signals that JMX attribute values have been sampled.
+	 *
+	 * @param sampledCount
+	 *            Amount of sampled values.
+	 * @param suppressedCount
+	 *            Amount of sampled values that were not sent as they did not change.
+	 */
+	public void jmxValuesSampled(int sampledCount, int suppressedCount) {
+		long suppressed = suppressedJmxValues.addAndGet(suppressedCount);
+		long sampled = sampledJmxValues.addAndGet(sampledCount);
+
+		if (log.isDebugEnabled() && SAMPLED_JMX_VALUES_LOG_STRATEGY.shouldLog(sampled - sampledCount, sampled)) {
+			log.debug("Sampled " + sampled + " JMX attribute values, " + suppressed + " of them were not sent as they did not change.");
+		}
+	}
+
+	/**
+	 * Returns the count of the sampled JMX attribute values.
+	 *
+	 * @return Returns the count of the sampled JMX attribute values.
+	 */
+	public long getSampledJmxValues() {
+		return sampledJmxValues.get();
+	}
+
+	/**
+	 * Returns the count of the sampled JMX attribute values not sent as they did not change.
+	 *
+	 * @return Returns the count of the sampled JMX attribute values not sent as they did not
+	 *         change.
+	 */
+	public long getSuppressedJmxValues() {
+		return suppressedJmxValues.get();
+	}
+
+	/**
+	 * Signals that a batch of data has been sent to the CMR.
+	 *
+	 * @param objectCount
+	 *            Amount of objects in the batch.
+	 * @param latency
+	 *            Time in milliseconds from the moment first object was added to the batch until
+	 *            the batch was sent.
+	 */
+	public void batchSent(int objectCount, long latency) {
+		batchSizeHistogram.incrementAndGet(getBucket(objectCount));
+		batchLatencyHistogram.incrementAndGet(getBucket(latency));
+
+		long sent = sentBatchCount.incrementAndGet();
+		if (log.isDebugEnabled() && SENT_BATCH_LOG_STRATEGY.shouldLog(sent - 1, sent)) {
+			log.debug("Sent " + sent + " batches to the CMR. Batch size histogram: " + toString(batchSizeHistogram) + ". Batch latency (ms) histogram: " + toString(batchLatencyHistogram) + ".");
+		}
+	}
+
+	/**
+	 * Returns the snapshot of the batch size histogram.
+	 *
+	 * @return Returns the snapshot of the batch size histogram.
+	 */
+	public long[] getBatchSizeHistogram() {
+		return snapshot(batchSizeHistogram);
+	}
+
+	/**
+	 * Returns the snapshot of the batch latency histogram.
+	 *
+	 * @return Returns the snapshot of the batch latency histogram.
+	 */
+	public long[] getBatchLatencyHistogram() {
+		return snapshot(batchLatencyHistogram);
+	}
+
+	/**
+	 * Returns the histogram bucket for the value.
+	 *
+	 * @param value
+	 *            Value
+	 * @return Bucket index.
+	 */
+	static int getBucket(long value) {
+		if (value <= 0) {
+			return 0;
+		}
+		return Math.min(64 - Long.numberOfLeadingZeros(value), HISTOGRAM_BUCKETS - 1);
+	}
+
+	/**
+	 * Creates the snapshot of the histogram.
+	 *
+	 * @param histogram
+	 *            Histogram
+	 * @return Copy of the histogram counts.
+	 */
+	private static long[] snapshot(AtomicLongArray histogram) {
+		long[] result = new long[histogram.length()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = histogram.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Prints the non-empty buckets of the histogram.
+	 *
+	 * @param histogram
+	 *            Histogram
+	 * @return String representation.
+	 */
+	private static String toString(AtomicLongArray histogram) {
+		StringBuilder stringBuilder = new StringBuilder("[");
+		for (int i = 0; i < histogram.length(); i++) {
+			long count = histogram.get(i);
+			if (count > 0) {
+				if (stringBuilder.length() > 1) {
+					stringBuilder.append(", ");
+				}
+				long from = (i == 0) ? 0 : 1L << (i - 1);
+				long to = (i == 0) ? 0 : (1L << i) - 1;
+				stringBuilder.append(from).append('-').append(to).append('=').append(count);
+			}
+		}
+		return stringBuilder.append(']').toString();
+	}
+
 	/**
 	 * Small utility for log based on the boundaries.
 	 *
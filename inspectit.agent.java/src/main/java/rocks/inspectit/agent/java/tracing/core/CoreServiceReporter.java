@@ -13,7 +13,9 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 import rocks.inspectit.shared.all.tracing.data.AbstractSpan;
 
 /**
- * Tracing reporter that sends spans to the {@link ICoreService}.
+ * Tracing reporter that sends spans to the {@link ICoreService}. Spans of the traces not sampled
+ * by the head sampling are passed to the {@link TailSamplingBuffer} if the tail sampling is
+ * active, otherwise they are dropped.
  *
  * @author Ivan Senic
  *
@@ -39,14 +41,29 @@ public class CoreServiceReporter implements Reporter {
 	@Autowired
 	private IPlatformManager platformManager;
 
+	/**
+	 * {@link TailSamplingBuffer}.
+	 */
+	@Autowired
+	private TailSamplingBuffer tailSamplingBuffer;
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public void report(SpanImpl span) {
+		boolean sampled = span.context().isSampled();
+		if (!sampled && !tailSamplingBuffer.isEnabled()) {
+			return;
+		}
+
 		AbstractSpan transformed = SpanTransformer.transformSpan(span);
 		transformed.setPlatformIdent(platformManager.getPlatformId());
-		coreService.addDefaultData(transformed);
+		if (sampled) {
+			coreService.addDefaultData(transformed);
+		} else {
+			tailSamplingBuffer.add(transformed);
+		}
 	}
 
 }
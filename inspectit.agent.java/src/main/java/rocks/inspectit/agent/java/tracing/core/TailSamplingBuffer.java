@@ -0,0 +1,392 @@
+package rocks.inspectit.agent.java.tracing.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.cliffc.high_scale_lib.NonBlockingHashMapLong;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import io.opentracing.tag.Tags;
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.shared.all.cmr.cache.AbstractObjectSizes;
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.instrumentation.config.impl.AgentTracingConfig;
+import rocks.inspectit.shared.all.spring.logger.Log;
+import rocks.inspectit.shared.all.tracing.data.AbstractSpan;
+
+/**
+ * Local tail-sampling buffer for the spans of the traces that were not sampled by the head
+ * sampling. The spans are buffered per trace and the complete trace is passed to the
+ * {@link ICoreService} as soon as one of its spans is slow or erroneous. All later spans of such a
+ * trace are passed directly. Traces that receive no span for the {@link #maxAge} are dropped by
+ * the flushing task executed by the <code>coreServiceExecutorService</code>.
+ * <p>
+ * The buffer is bounded by the approximate size of the buffered spans. Not interesting spans that
+ * would exceed the {@link #maxBytes} are dropped. The tail sampling is activated and configured with
+ * the tracing configuration of the environment.
+ *
+ * @author Ivan Senic
+ *
+ */
+// we must depend on PlatformManager to make sure that the configuration is available
+@Component
+@DependsOn("platformManager")
+public class TailSamplingBuffer implements InitializingBean {
+
+	/**
+	 * The logger of the class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * Core service to pass the kept spans to.
+	 */
+	@Autowired
+	private ICoreService coreService;
+
+	/**
+	 * {@link IConfigurationStorage} holding the tracing configuration.
+	 */
+	@Autowired
+	private IConfigurationStorage configurationStorage;
+
+	/**
+	 * Core-service executor service.
+	 */
+	@Autowired
+	@Qualifier("coreServiceExecutorService")
+	private ScheduledExecutorService executorService;
+
+	/**
+	 * Object sizes for estimating the buffer size.
+	 */
+	private final IObjectSizes objectSizes = AbstractObjectSizes.forUnderlyingSystem();
+
+	/**
+	 * Buffered traces by trace id.
+	 */
+	private final NonBlockingHashMapLong<BufferedTrace> traces = new NonBlockingHashMapLong<BufferedTrace>();
+
+	/**
+	 * Current amount of the buffered bytes.
+	 */
+	private final AtomicLong bufferedBytes = new AtomicLong();
+
+	/**
+	 * Amount of dropped spans because the buffer was full.
+	 */
+	private final AtomicLong droppedSpans = new AtomicLong();
+
+	/**
+	 * If tail sampling is active.
+	 */
+	private boolean enabled;
+
+	/**
+	 * Duration threshold in milliseconds.
+	 */
+	private long threshold;
+
+	/**
+	 * Max amount of bytes buffered.
+	 */
+	private long maxBytes;
+
+	/**
+	 * Max time in milliseconds a trace is kept after its last span.
+	 */
+	private long maxAge;
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Applies the tail sampling settings of the tracing configuration and starts the flushing task
+	 * if the tail sampling is active.
+	 */
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		AgentTracingConfig tracingConfig = configurationStorage.getTracingConfig();
+		if (null != tracingConfig) {
+			enabled = tracingConfig.isTailSamplingEnabled();
+			threshold = tracingConfig.getTailSamplingThreshold();
+			maxBytes = tracingConfig.getTailSamplingMaxBytes();
+			maxAge = tracingConfig.getTailSamplingMaxAge();
+		}
+		start();
+	}
+
+	/**
+	 * Starts the flushing task if the tail sampling is active.
+	 */
+	void start() {
+		if (enabled) {
+			long period = Math.max(maxAge / 2, 1L);
+			executorService.scheduleAtFixedRate(new Flusher(), period, period, TimeUnit.MILLISECONDS);
+
+			if (log.isInfoEnabled()) {
+				log.info("Tail sampling of traces active with threshold of " + threshold + " ms, max buffer size of " + maxBytes + " bytes and max trace age of " + maxAge + " ms.");
+			}
+		}
+	}
+
+	/**
+	 * Adds a span of the not sampled trace to the buffer.
+	 *
+	 * @param span
+	 *            Span to add.
+	 */
+	public void add(AbstractSpan span) {
+		long traceId = span.getSpanIdent().getTraceId();
+		boolean interesting = isInteresting(span);
+		while (true) {
+			BufferedTrace trace = traces.get(traceId);
+			if (null == trace) {
+				BufferedTrace newTrace = new BufferedTrace();
+				trace = traces.putIfAbsent(traceId, newTrace);
+				if (null == trace) {
+					trace = newTrace;
+				}
+			}
+
+			// adding can only fail if the trace is being evicted at the moment, then repeat
+			List<AbstractSpan> toSend = trace.add(span, interesting);
+			if (null != toSend) {
+				for (AbstractSpan keptSpan : toSend) {
+					coreService.addDefaultData(keptSpan);
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Evicts all traces that have not received a span for the {@link #maxAge}.
+	 *
+	 * @param currentTime
+	 *            Current time in milliseconds.
+	 */
+	void evict(long currentTime) {
+		for (Entry<Long, BufferedTrace> entry : traces.entrySet()) {
+			BufferedTrace trace = entry.getValue();
+			if (trace.evictIfOlder(currentTime - maxAge)) {
+				traces.remove(entry.getKey(), trace);
+			}
+		}
+	}
+
+	/**
+	 * Checks if the span keeps its trace.
+	 *
+	 * @param span
+	 *            Span to check.
+	 * @return <code>true</code> if the span is slow or erroneous.
+	 */
+	private boolean isInteresting(AbstractSpan span) {
+		if (span.getDuration() >= threshold) {
+			return true;
+		}
+		Map<String, String> tags = span.getTags();
+		return (null != tags) && Boolean.parseBoolean(tags.get(Tags.ERROR.getKey()));
+	}
+
+	/**
+	 * Returns if the tail sampling is active.
+	 *
+	 * @return If the tail sampling is active.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets {@link #enabled}.
+	 *
+	 * @param enabled
+	 *            New value for {@link #enabled}
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Sets {@link #threshold}.
+	 *
+	 * @param threshold
+	 *            New value for {@link #threshold}
+	 */
+	public void setThreshold(long threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Sets {@link #maxBytes}.
+	 *
+	 * @param maxBytes
+	 *            New value for {@link #maxBytes}
+	 */
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Sets {@link #maxAge}.
+	 *
+	 * @param maxAge
+	 *            New value for {@link #maxAge}
+	 */
+	public void setMaxAge(long maxAge) {
+		this.maxAge = maxAge;
+	}
+
+	/**
+	 * Gets the current amount of the buffered bytes.
+	 *
+	 * @return Current amount of the buffered bytes.
+	 */
+	public long getBufferedBytes() {
+		return bufferedBytes.get();
+	}
+
+	/**
+	 * Gets the amount of spans dropped because the buffer was full.
+	 *
+	 * @return Amount of spans dropped because the buffer was full.
+	 */
+	public long getDroppedSpans() {
+		return droppedSpans.get();
+	}
+
+	/**
+	 * Spans of one trace. All operations are synchronized on the trace.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private class BufferedTrace {
+
+		/**
+		 * Buffered spans.
+		 */
+		private List<AbstractSpan> spans = new ArrayList<AbstractSpan>(4);
+
+		/**
+		 * Bytes of the buffered spans.
+		 */
+		private long bytes;
+
+		/**
+		 * If the trace is kept, then the spans are not buffered any more.
+		 */
+		private boolean kept;
+
+		/**
+		 * If the trace has been evicted.
+		 */
+		private boolean evicted;
+
+		/**
+		 * Time of the last added span.
+		 */
+		private long lastUpdate = System.currentTimeMillis();
+
+		/**
+		 * Adds the span to the trace.
+		 *
+		 * @param span
+		 *            Span to add.
+		 * @param interesting
+		 *            If the span keeps the trace.
+		 * @return Spans that should be passed to the core service or <code>null</code> if the
+		 *         trace has been evicted and the span was not added.
+		 */
+		synchronized List<AbstractSpan> add(AbstractSpan span, boolean interesting) {
+			if (evicted) {
+				return null;
+			}
+
+			lastUpdate = System.currentTimeMillis();
+			if (kept) {
+				return Collections.singletonList(span);
+			}
+
+			if (interesting) {
+				kept = true;
+				List<AbstractSpan> result = spans;
+				result.add(span);
+				spans = Collections.emptyList();
+				release();
+				return result;
+			}
+
+			long size = objectSizes.getSizeOf(span);
+			if ((bufferedBytes.get() + size) > maxBytes) {
+				droppedSpans.incrementAndGet();
+			} else {
+				bufferedBytes.addAndGet(size);
+				bytes += size;
+				spans.add(span);
+			}
+			return Collections.emptyList();
+		}
+
+		/**
+		 * Evicts the trace if the last span was added before the given time.
+		 *
+		 * @param time
+		 *            Time in milliseconds.
+		 * @return If trace has been evicted.
+		 */
+		synchronized boolean evictIfOlder(long time) {
+			if (lastUpdate > time) {
+				return false;
+			}
+			evicted = true;
+			spans = Collections.emptyList();
+			release();
+			return true;
+		}
+
+		/**
+		 * Releases the bytes of this trace from the buffer size.
+		 */
+		private void release() {
+			bufferedBytes.addAndGet(-bytes);
+			bytes = 0;
+		}
+	}
+
+	/**
+	 * Task that evicts old traces.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private class Flusher implements Runnable {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void run() {
+			try {
+				evict(System.currentTimeMillis());
+			} catch (Throwable t) { // NOPMD NOCHK
+				// catch any exception in order not to cancel the task in the executor
+				log.error("Error occurred during eviction of the tail sampling traces.", t);
+			}
+		}
+	}
+}
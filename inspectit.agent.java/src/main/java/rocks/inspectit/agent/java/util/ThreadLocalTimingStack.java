@@ -0,0 +1,121 @@
+package rocks.inspectit.agent.java.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * The ThreadLocalTimingStack class extends {@link ThreadLocal} to hold a {@link TimingStack} that
+ * keeps wall-clock and CPU times in primitive arrays. Opposed to the {@link ThreadLocalStack} no
+ * boxing of the values is needed and nothing is allocated as long as the stack does not have to
+ * grow, thus one {@link #get()} call per hook invocation is the only overhead.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class ThreadLocalTimingStack extends ThreadLocal<ThreadLocalTimingStack.TimingStack> {
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected TimingStack initialValue() {
+		return new TimingStack();
+	}
+
+	/**
+	 * Stack of timing entries where each entry consists of the wall-clock time and the CPU time.
+	 * Not thread safe, meant to be used only by the owning thread.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	public static final class TimingStack {
+
+		/**
+		 * Initial capacity of the stack.
+		 */
+		private static final int INITIAL_CAPACITY = 16;
+
+		/**
+		 * Wall-clock times.
+		 */
+		private double[] times = new double[INITIAL_CAPACITY];
+
+		/**
+		 * CPU times.
+		 */
+		private long[] cpuTimes = new long[INITIAL_CAPACITY];
+
+		/**
+		 * Current amount of entries on the stack.
+		 */
+		private int size;
+
+		/**
+		 * Pushes the wall-clock and CPU time onto the stack.
+		 *
+		 * @param time
+		 *            Wall-clock time.
+		 * @param cpuTime
+		 *            CPU time.
+		 */
+		public void push(double time, long cpuTime) {
+			if (size == times.length) {
+				int newCapacity = size << 1;
+				times = Arrays.copyOf(times, newCapacity);
+				cpuTimes = Arrays.copyOf(cpuTimes, newCapacity);
+			}
+			times[size] = time;
+			cpuTimes[size] = cpuTime;
+			size++;
+		}
+
+		/**
+		 * Returns the wall-clock time of the last pushed entry without removing it.
+		 *
+		 * @return Wall-clock time of the last pushed entry.
+		 */
+		public double getTime() {
+			checkNotEmpty();
+			return times[size - 1];
+		}
+
+		/**
+		 * Returns the CPU time of the last pushed entry without removing it.
+		 *
+		 * @return CPU time of the last pushed entry.
+		 */
+		public long getCpuTime() {
+			checkNotEmpty();
+			return cpuTimes[size - 1];
+		}
+
+		/**
+		 * Removes the last pushed entry.
+		 */
+		public void pop() {
+			checkNotEmpty();
+			size--;
+		}
+
+		/**
+		 * Returns the number of entries on the stack.
+		 *
+		 * @return Number of entries on the stack.
+		 */
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * Throws {@link NoSuchElementException} if the stack is empty, to keep the same contract
+		 * as the {@link ThreadLocalStack}.
+		 */
+		private void checkNotEmpty() {
+			if (0 == size) {
+				throw new NoSuchElementException();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,423 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.InjectMocks;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.slf4j.Logger;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.connection.IConnection;
+import rocks.inspectit.agent.java.connection.ServerUnavailableException;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.shared.all.exception.BusinessException;
+import rocks.inspectit.shared.all.exception.enumeration.AgentManagementErrorCodeEnum;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
+import rocks.inspectit.shared.all.instrumentation.classcache.Type;
+import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * Tests the {@link AnalyzeBatcher}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class AnalyzeBatcherTest extends TestBase {
+
+	private static final long PLATFORM_ID = 10L;
+
+	private static final ClassHash HASH1 = new ClassHash(0L, 1L);
+
+	private static final ClassHash HASH2 = new ClassHash(0L, 2L);
+
+	@InjectMocks
+	AnalyzeBatcher analyzeBatcher;
+
+	@Mock
+	Logger log;
+
+	@Mock
+	IConnection connection;
+
+	@Mock
+	IPlatformManager platformManager;
+
+	@Mock
+	ClassHashHelper classHashHelper;
+
+	@Mock
+	IConfigurationStorage configurationStorage;
+
+	@Mock
+	InstrumentationCandidates instrumentationCandidates;
+
+	@Mock
+	ScheduledExecutorService executorService;
+
+	@Mock
+	Type type1;
+
+	@Mock
+	Type type2;
+
+	@Mock
+	InstrumentationDefinition instrumentationDefinition;
+
+	/**
+	 * Runnables submitted to the executor, not executed until the test does it.
+	 */
+	List<Runnable> submitted;
+
+	/**
+	 * Runnables scheduled with the executor, not executed until the test does it.
+	 */
+	List<Runnable> scheduled;
+
+	@BeforeMethod
+	public void setup() {
+		submitted = new ArrayList<Runnable>();
+		scheduled = new ArrayList<Runnable>();
+		when(platformManager.getPlatformId()).thenReturn(PLATFORM_ID);
+		doAnswer(new Answer<Future<?>>() {
+			@Override
+			public Future<?> answer(InvocationOnMock invocation) throws Throwable {
+				submitted.add((Runnable) invocation.getArguments()[0]);
+				return null;
+			}
+		}).when(executorService).submit(Matchers.<Runnable> any());
+		doAnswer(new Answer<Future<?>>() {
+			@Override
+			public Future<?> answer(InvocationOnMock invocation) throws Throwable {
+				scheduled.add((Runnable) invocation.getArguments()[0]);
+				return null;
+			}
+		}).when(executorService).schedule(Matchers.<Runnable> any(), anyLong(), Matchers.<TimeUnit> any());
+	}
+
+	/**
+	 * Runs all scheduled runnables as if the delay passed.
+	 */
+	void runScheduled() {
+		while (!scheduled.isEmpty()) {
+			scheduled.remove(0).run();
+		}
+	}
+
+	/**
+	 * Runs all submitted runnables.
+	 */
+	void runSubmitted() {
+		while (!submitted.isEmpty()) {
+			submitted.remove(0).run();
+		}
+	}
+
+	public static class Analyze extends AnalyzeBatcherTest {
+
+		@Test
+		public void oneBatch() throws Exception {
+			when(connection.analyzeBatch(PLATFORM_ID, Arrays.asList(HASH1, HASH2), Arrays.asList(type1, type2))).thenReturn(Arrays.asList(null, instrumentationDefinition));
+
+			Future<InstrumentationDefinition> future1 = analyzeBatcher.analyze("class1", HASH1, type1);
+			Future<InstrumentationDefinition> future2 = analyzeBatcher.analyze("class2", HASH2, type2);
+
+			// only one sending task
+			verify(executorService, times(1)).submit(Matchers.<Runnable> any());
+			assertThat(future1.isDone(), is(false));
+			assertThat(future2.isDone(), is(false));
+
+			runSubmitted();
+
+			assertThat(future1.get(), is(nullValue()));
+			assertThat(future2.get(), is(instrumentationDefinition));
+			verify(connection).analyzeBatch(PLATFORM_ID, Arrays.asList(HASH1, HASH2), Arrays.asList(type1, type2));
+			verify(classHashHelper).registerSent("class1", HASH1);
+			verify(classHashHelper).registerInstrumentationDefinition("class1", null);
+			verify(classHashHelper).registerSent("class2", HASH2);
+			verify(classHashHelper).registerInstrumentationDefinition("class2", instrumentationDefinition);
+			verifyNoMoreInteractions(connection, classHashHelper);
+		}
+
+		@Test
+		public void sameHashPending() throws Exception {
+			Future<InstrumentationDefinition> future1 = analyzeBatcher.analyze("class1", HASH1, type1);
+			Future<InstrumentationDefinition> future2 = analyzeBatcher.analyze("class1", HASH1, type1);
+
+			assertThat(future2, is(sameInstance(future1)));
+		}
+
+		@Test
+		public void sameHashAfterResult() throws Exception {
+			when(connection.analyzeBatch(anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any())).thenReturn(Arrays.asList(instrumentationDefinition));
+
+			Future<InstrumentationDefinition> future1 = analyzeBatcher.analyze("class1", HASH1, type1);
+			runSubmitted();
+			Future<InstrumentationDefinition> future2 = analyzeBatcher.analyze("class1", HASH1, type1);
+
+			assertThat(future2, is(not(sameInstance(future1))));
+			assertThat(future2.isDone(), is(false));
+			verify(executorService, times(2)).submit(Matchers.<Runnable> any());
+		}
+
+		@Test
+		public void nextBatchAfterSending() throws Exception {
+			when(connection.analyzeBatch(anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any())).thenReturn(Arrays.asList(instrumentationDefinition));
+
+			analyzeBatcher.analyze("class1", HASH1, type1);
+			runSubmitted();
+			Future<InstrumentationDefinition> future2 = analyzeBatcher.analyze("class2", HASH2, type2);
+			runSubmitted();
+
+			assertThat(future2.get(), is(instrumentationDefinition));
+			verify(connection).analyzeBatch(PLATFORM_ID, Arrays.asList(HASH1), Arrays.asList(type1));
+			verify(connection).analyzeBatch(PLATFORM_ID, Arrays.asList(HASH2), Arrays.asList(type2));
+		}
+
+		@Test
+		public void nullResults() throws Exception {
+			when(connection.analyzeBatch(anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any())).thenReturn(null);
+
+			Future<InstrumentationDefinition> future1 = analyzeBatcher.analyze("class1", HASH1, type1);
+			runSubmitted();
+
+			assertThat(future1.get(), is(nullValue()));
+			verify(classHashHelper).registerSent("class1", HASH1);
+			verify(classHashHelper).registerInstrumentationDefinition("class1", null);
+		}
+
+		@Test
+		public void serverUnavailable() throws Exception {
+			ServerUnavailableException exception = new ServerUnavailableException();
+			when(connection.analyzeBatch(anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any())).thenThrow(exception);
+
+			Future<InstrumentationDefinition> future1 = analyzeBatcher.analyze("class1", HASH1, type1);
+			Future<InstrumentationDefinition> future2 = analyzeBatcher.analyze("class2", HASH2, type2);
+			runSubmitted();
+
+			assertCause(future1, exception);
+			assertCause(future2, exception);
+			verifyZeroInteractions(classHashHelper);
+		}
+
+		@Test
+		public void businessException() throws Exception {
+			BusinessException exception = new BusinessException(AgentManagementErrorCodeEnum.AGENT_DOES_NOT_EXIST);
+			when(connection.analyzeBatch(anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any())).thenThrow(exception);
+
+			Future<InstrumentationDefinition> future1 = analyzeBatcher.analyze("class1", HASH1, type1);
+			runSubmitted();
+
+			assertCause(future1, exception);
+			verifyZeroInteractions(classHashHelper);
+		}
+
+		@Test
+		public void abandonedNotRegistered() throws Exception {
+			when(connection.analyzeBatch(anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any())).thenReturn(Arrays.asList(instrumentationDefinition));
+
+			Future<InstrumentationDefinition> future1 = analyzeBatcher.analyze("class1", HASH1, type1);
+			boolean abandoned = analyzeBatcher.abandon(HASH1);
+			runSubmitted();
+
+			assertThat(abandoned, is(true));
+			assertThat(future1.get(), is(instrumentationDefinition));
+			verifyZeroInteractions(classHashHelper);
+		}
+
+		@Test
+		public void abandonAfterResult() throws Exception {
+			when(connection.analyzeBatch(anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any())).thenReturn(Arrays.asList(instrumentationDefinition));
+
+			Future<InstrumentationDefinition> future1 = analyzeBatcher.analyze("class1", HASH1, type1);
+			runSubmitted();
+			boolean abandoned = analyzeBatcher.abandon(HASH1);
+
+			assertThat(abandoned, is(false));
+			assertThat(future1.get(), is(instrumentationDefinition));
+			verify(classHashHelper).registerSent("class1", HASH1);
+			verify(classHashHelper).registerInstrumentationDefinition("class1", instrumentationDefinition);
+		}
+
+		@Test
+		public void abandonedNeededAgain() throws Exception {
+			when(connection.analyzeBatch(anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any())).thenReturn(Arrays.asList(instrumentationDefinition));
+
+			Future<InstrumentationDefinition> future1 = analyzeBatcher.analyze("class1", HASH1, type1);
+			analyzeBatcher.abandon(HASH1);
+			Future<InstrumentationDefinition> future2 = analyzeBatcher.analyze("class1", HASH1, type1);
+			runSubmitted();
+
+			assertThat(future2, is(sameInstance(future1)));
+			verify(connection).analyzeBatch(PLATFORM_ID, Arrays.asList(HASH1), Arrays.asList(type1));
+			verify(classHashHelper).registerSent("class1", HASH1);
+			verify(classHashHelper).registerInstrumentationDefinition("class1", instrumentationDefinition);
+		}
+
+		@Test
+		public void slowAnalysisReducesBatchSize() throws Exception {
+			when(connection.analyzeBatch(anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any())).thenAnswer(new Answer<List<InstrumentationDefinition>>() {
+				@Override
+				public List<InstrumentationDefinition> answer(InvocationOnMock invocation) throws Throwable {
+					Thread.sleep(AnalyzeBatcher.LATENCY_TARGET_MILLIS / 10);
+					return null;
+				}
+			});
+			int initialBatchSize = analyzeBatcher.getBatchSize();
+
+			analyzeBatcher.analyze("class1", HASH1, type1);
+			runSubmitted();
+
+			assertThat(initialBatchSize, is((int) (TimeUnit.MILLISECONDS.toNanos(AnalyzeBatcher.LATENCY_TARGET_MILLIS) / AnalyzeBatcher.INITIAL_NANOS_PER_TYPE)));
+			assertThat(analyzeBatcher.getBatchSize(), is(lessThan(initialBatchSize)));
+		}
+
+		private void assertCause(Future<InstrumentationDefinition> future, Exception expected) throws InterruptedException {
+			try {
+				future.get();
+				throw new AssertionError("Execution exception expected.");
+			} catch (ExecutionException e) {
+				assertThat(e.getCause(), is(instanceOf(expected.getClass())));
+				assertThat(e.getCause(), is(sameInstance((Throwable) expected)));
+			}
+		}
+	}
+
+	public static class AnalyzeInBackground extends AnalyzeBatcherTest {
+
+		@Test
+		public void sentAfterLatencyTarget() throws Exception {
+			when(connection.analyzeBatch(anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any())).thenReturn(Arrays.asList(instrumentationDefinition));
+
+			analyzeBatcher.analyzeInBackground("class1", HASH1, type1);
+
+			verify(executorService).schedule(Matchers.<Runnable> any(), eq(AnalyzeBatcher.LATENCY_TARGET_MILLIS), eq(TimeUnit.MILLISECONDS));
+			verify(executorService, times(0)).submit(Matchers.<Runnable> any());
+
+			runScheduled();
+			runSubmitted();
+
+			verify(connection).analyzeBatch(PLATFORM_ID, Arrays.asList(HASH1), Arrays.asList(type1));
+			verify(classHashHelper).registerSent("class1", HASH1);
+			verify(classHashHelper).registerInstrumentationDefinition("class1", instrumentationDefinition);
+		}
+
+		@Test
+		public void sentWithAwaited() throws Exception {
+			when(connection.analyzeBatch(anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any())).thenReturn(Arrays.asList(null, instrumentationDefinition));
+
+			analyzeBatcher.analyzeInBackground("class1", HASH1, type1);
+			Future<InstrumentationDefinition> future2 = analyzeBatcher.analyze("class2", HASH2, type2);
+			runSubmitted();
+
+			// depending type first in the same batch, without waiting for the latency target
+			assertThat(future2.get(), is(instrumentationDefinition));
+			verify(connection).analyzeBatch(PLATFORM_ID, Arrays.asList(HASH1, HASH2), Arrays.asList(type1, type2));
+			verify(classHashHelper).registerSent("class1", HASH1);
+			verify(classHashHelper).registerSent("class2", HASH2);
+		}
+
+		@Test
+		public void scheduledOnce() throws Exception {
+			analyzeBatcher.analyzeInBackground("class1", HASH1, type1);
+			analyzeBatcher.analyzeInBackground("class2", HASH2, type2);
+
+			verify(executorService, times(1)).schedule(Matchers.<Runnable> any(), anyLong(), Matchers.<TimeUnit> any());
+		}
+	}
+
+	public static class AnalyzeDefined extends AnalyzeBatcherTest {
+
+		@Test
+		public void notInstrumented() throws Exception {
+			when(connection.analyzeBatch(anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any())).thenReturn(null);
+
+			analyzeBatcher.analyzeDefined("class1", HASH1, type1);
+			runScheduled();
+			runSubmitted();
+
+			verify(classHashHelper).registerSent("class1", HASH1);
+			verify(classHashHelper).registerInstrumentationDefinition("class1", null);
+			verifyZeroInteractions(instrumentationCandidates);
+		}
+
+		@Test
+		public void instrumented() throws Exception {
+			when(connection.analyzeBatch(anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any())).thenReturn(Arrays.asList(instrumentationDefinition));
+
+			analyzeBatcher.analyzeDefined("class1", HASH1, type1);
+			runScheduled();
+			runSubmitted();
+
+			// class is defined without the instrumentation, must not be registered
+			verify(classHashHelper, times(0)).registerSent(anyString(), Matchers.<ClassHash> any());
+			verify(instrumentationCandidates).invalidate("class1");
+		}
+
+		@Test
+		public void awaitedAfterwards() throws Exception {
+			when(connection.analyzeBatch(anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any())).thenReturn(Arrays.asList(instrumentationDefinition));
+
+			analyzeBatcher.analyzeDefined("class1", HASH1, type1);
+			Future<InstrumentationDefinition> future = analyzeBatcher.analyze("class1", HASH1, type1);
+			runSubmitted();
+
+			assertThat(future.get(), is(instrumentationDefinition));
+			verify(connection).analyzeBatch(PLATFORM_ID, Arrays.asList(HASH1), Arrays.asList(type1));
+			verify(classHashHelper).registerSent("class1", HASH1);
+			verify(classHashHelper).registerInstrumentationDefinition("class1", instrumentationDefinition);
+			verifyZeroInteractions(instrumentationCandidates);
+		}
+	}
+
+	public static class AfterPropertiesSet extends AnalyzeBatcherTest {
+
+		@Test
+		public void active() throws Exception {
+			when(configurationStorage.isBatchedClassAnalysis()).thenReturn(true);
+
+			analyzeBatcher.afterPropertiesSet();
+
+			assertThat(analyzeBatcher.isActive(), is(true));
+		}
+
+		@Test
+		public void notActive() throws Exception {
+			when(configurationStorage.isBatchedClassAnalysis()).thenReturn(false);
+
+			analyzeBatcher.afterPropertiesSet();
+
+			assertThat(analyzeBatcher.isActive(), is(false));
+		}
+	}
+
+}
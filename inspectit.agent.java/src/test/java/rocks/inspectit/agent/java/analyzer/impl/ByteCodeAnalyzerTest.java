@@ -15,6 +15,7 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -34,6 +35,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Matchers;
 import org.mockito.Mock;
@@ -49,6 +51,7 @@ import info.novatec.inspectit.org.objectweb.asm.ClassReader;
 import info.novatec.inspectit.org.objectweb.asm.ClassWriter;
 import info.novatec.inspectit.org.objectweb.asm.MethodVisitor;
 import rocks.inspectit.agent.java.analyzer.classes.AbstractSubTest;
+import rocks.inspectit.agent.java.analyzer.classes.ITest;
 import rocks.inspectit.agent.java.analyzer.classes.TestClass;
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
 import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
@@ -61,7 +64,9 @@ import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
 import rocks.inspectit.agent.java.stats.AgentStatisticsLogger;
 import rocks.inspectit.shared.all.exception.BusinessException;
 import rocks.inspectit.shared.all.exception.enumeration.AgentManagementErrorCodeEnum;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
+import rocks.inspectit.shared.all.instrumentation.classcache.Type;
 import rocks.inspectit.shared.all.instrumentation.config.IMethodInstrumentationPoint;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.instrumentation.config.impl.MethodInstrumentationConfig;
@@ -107,6 +112,12 @@ public class ByteCodeAnalyzerTest extends TestBase {
 	@Mock
 	ClassHashHelper classHashHelper;
 
+	@Mock
+	AnalyzeBatcher analyzeBatcher;
+
+	@Mock
+	InstrumentationCandidates instrumentationCandidates;
+
 	@Mock
 	InstrumenterFactory instrumenterFactory;
 
@@ -136,6 +147,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 	@BeforeMethod
 	public void setup() throws Exception {
 		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(instrumentationCandidates.isCandidate(Matchers.<Type> any())).thenReturn(true);
 		doAnswer(new Answer<Void>() {
 			@Override
 			public Void answer(InvocationOnMock invocation) throws Throwable {
@@ -187,12 +199,12 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			when(instrumenterFactory.getMethodVisitor(eq(sensorInstrumentationPoint), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean())).thenReturn(methodVisitor);
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<ClassHash> hashCaptor = ArgumentCaptor.forClass(ClassHash.class);
 			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyze(eq(platformId.longValue()), Matchers.<ClassHash> any(), classCaptor.capture())).thenReturn(instrumentationResult);
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long rscId = 13L;
 			long[] sensorIds = { 17L };
@@ -248,12 +260,12 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			when(instrumenterFactory.getMethodVisitor(eq(sensorInstrumentationPoint), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean())).thenReturn(methodVisitor);
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<ClassHash> hashCaptor = ArgumentCaptor.forClass(ClassHash.class);
 			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyze(eq(platformId.longValue()), Matchers.<ClassHash> any(), classCaptor.capture())).thenReturn(instrumentationResult);
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long rscId = 13L;
 			long[] sensorIds = { 17L };
@@ -308,12 +320,12 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			when(methodInstrumentationConfig.getSpecialInstrumentationPoint()).thenReturn(specialInstrumentationPoint);
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<ClassHash> hashCaptor = ArgumentCaptor.forClass(ClassHash.class);
 			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyze(eq(platformId.longValue()), Matchers.<ClassHash> any(), classCaptor.capture())).thenReturn(instrumentationResult);
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long sscId = 13L;
 			long sensorId = 17L;
@@ -355,7 +367,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			byte[] byteCode = getByteCode(className);
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<ClassHash> hashCaptor = ArgumentCaptor.forClass(ClassHash.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(true);
 			when(classHashHelper.getInstrumentationDefinition(fqnCaptor.capture())).thenReturn(null);
 
@@ -367,6 +379,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			verify(classHashHelper, times(1)).isSent(fqnCaptor.getValue(), hashCaptor.getValue());
 			// but we asked for the instrumentation result
 			verify(classHashHelper, times(1)).getInstrumentationDefinition(fqnCaptor.getValue());
+			verify(classHashHelper, times(1)).needsReconciliation(fqnCaptor.getValue());
 			verifyNoMoreInteractions(classHashHelper);
 			verifyZeroInteractions(platformManager, connection, hookDispatcherMapper);
 		}
@@ -387,7 +400,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			when(instrumenterFactory.getMethodVisitor(eq(sensorInstrumentationPoint), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean())).thenReturn(methodVisitor);
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<ClassHash> hashCaptor = ArgumentCaptor.forClass(ClassHash.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(true);
 			when(classHashHelper.getInstrumentationDefinition(fqnCaptor.capture())).thenReturn(instrumentationResult);
 
@@ -411,6 +424,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			verify(classHashHelper, times(1)).registerAnalyzed(fqnCaptor.getValue());
 			// but we asked for the instrumentation result and instrumented
 			verify(classHashHelper, times(1)).getInstrumentationDefinition(fqnCaptor.getValue());
+			verify(classHashHelper, times(1)).needsReconciliation(fqnCaptor.getValue());
 			ArgumentCaptor<RegisteredSensorConfig> rscCaptor = ArgumentCaptor.forClass(RegisteredSensorConfig.class);
 			verify(hookDispatcherMapper, times(1)).addMapping(eq(rscId), rscCaptor.capture());
 			assertThat(rscCaptor.getValue().getId(), is(rscId));
@@ -437,12 +451,12 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			byte[] byteCode = getByteCode(className);
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<ClassHash> hashCaptor = ArgumentCaptor.forClass(ClassHash.class);
 			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(null);
+			when(connection.analyze(eq(platformId.longValue()), Matchers.<ClassHash> any(), classCaptor.capture())).thenReturn(null);
 
 			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
 
@@ -467,7 +481,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			byte[] byteCode = getByteCode(className);
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<ClassHash> hashCaptor = ArgumentCaptor.forClass(ClassHash.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(connection.isConnected()).thenReturn(false);
 
@@ -497,12 +511,12 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			when(instrumenterFactory.getMethodVisitor(eq(sensorInstrumentationPoint), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean())).thenReturn(methodVisitor);
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<ClassHash> hashCaptor = ArgumentCaptor.forClass(ClassHash.class);
 			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyze(eq(platformId.longValue()), Matchers.<ClassHash> any(), classCaptor.capture())).thenReturn(instrumentationResult);
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long rscId = 13L;
 			when(sensorInstrumentationPoint.getId()).thenReturn(rscId);
@@ -550,11 +564,11 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			when(instrumenterFactory.getMethodVisitor(eq(sensorInstrumentationPoint), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean())).thenReturn(methodVisitor);
 
 			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
-			when(classHashHelper.isSent(anyString(), anyString())).thenReturn(false);
+			when(classHashHelper.isSent(anyString(), Matchers.<ClassHash> any())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(classHashHelper.isAnalyzed(AbstractSubTest.class.getName())).thenReturn(false);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyze(eq(platformId.longValue()), Matchers.<ClassHash> any(), classCaptor.capture())).thenReturn(instrumentationResult);
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long rscId = 13L;
 			long[] sensorIds = { 17L };
@@ -572,8 +586,8 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			assertThat(instrumentedByteCode, is(not(nullValue())));
 
 			verify(connection, times(5)).isConnected();
-			verify(connection, times(1)).analyze(eq(platformId.longValue()), anyString(), eq(classCaptor.getAllValues().get(0)));
-			verify(connection, times(1)).analyze(eq(platformId.longValue()), anyString(), eq(classCaptor.getAllValues().get(1)));
+			verify(connection, times(1)).analyze(eq(platformId.longValue()), Matchers.<ClassHash> any(), eq(classCaptor.getAllValues().get(0)));
+			verify(connection, times(1)).analyze(eq(platformId.longValue()), Matchers.<ClassHash> any(), eq(classCaptor.getAllValues().get(1)));
 			ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
 			verify(connection, times(1)).instrumentationApplied(eq(platformId), captor.capture());
 			assertThat(captor.getValue().size(), is(1));
@@ -585,12 +599,12 @@ public class ByteCodeAnalyzerTest extends TestBase {
 
 			// class hash verfications
 			verify(classHashHelper, atLeastOnce()).isAnalyzed(anyString());
-			verify(classHashHelper, times(1)).isSent(eq(TestClass.class.getName()), anyString());
-			verify(classHashHelper, times(1)).isSent(eq(AbstractSubTest.class.getName()), anyString());
+			verify(classHashHelper, times(1)).isSent(eq(TestClass.class.getName()), Matchers.<ClassHash> any());
+			verify(classHashHelper, times(1)).isSent(eq(AbstractSubTest.class.getName()), Matchers.<ClassHash> any());
 			verify(classHashHelper, times(1)).registerAnalyzed(TestClass.class.getName());
 			verify(classHashHelper, times(1)).registerAnalyzed(AbstractSubTest.class.getName());
-			verify(classHashHelper, times(1)).registerSent(eq(TestClass.class.getName()), anyString());
-			verify(classHashHelper, times(1)).registerSent(eq(AbstractSubTest.class.getName()), anyString());
+			verify(classHashHelper, times(1)).registerSent(eq(TestClass.class.getName()), Matchers.<ClassHash> any());
+			verify(classHashHelper, times(1)).registerSent(eq(AbstractSubTest.class.getName()), Matchers.<ClassHash> any());
 			verify(classHashHelper, times(1)).registerInstrumentationDefinition(TestClass.class.getName(), instrumentationResult);
 			verify(classHashHelper, times(1)).registerInstrumentationDefinition(AbstractSubTest.class.getName(), instrumentationResult);
 
@@ -615,7 +629,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			byte[] byteCode = getByteCode(className);
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<ClassHash> hashCaptor = ArgumentCaptor.forClass(ClassHash.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
@@ -647,7 +661,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			byte[] byteCode = getByteCode(className);
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<ClassHash> hashCaptor = ArgumentCaptor.forClass(ClassHash.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
@@ -690,12 +704,12 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			when(instrumenterFactory.getMethodVisitor(eq(sensorInstrumentationPoint), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean())).thenReturn(methodVisitor);
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<ClassHash> hashCaptor = ArgumentCaptor.forClass(ClassHash.class);
 			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyze(eq(platformId.longValue()), Matchers.<ClassHash> any(), classCaptor.capture())).thenReturn(instrumentationResult);
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long rscId = 13L;
 			long[] sensorIds = { 17L };
@@ -758,11 +772,11 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			when(instrumenterFactory.getMethodVisitor(eq(sensorInstrumentationPoint), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean())).thenReturn(methodVisitor);
 
 			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
-			when(classHashHelper.isSent(anyString(), anyString())).thenReturn(false);
+			when(classHashHelper.isSent(anyString(), Matchers.<ClassHash> any())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(classHashHelper.isAnalyzed(AbstractSubTest.class.getName())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyze(eq(platformId.longValue()), Matchers.<ClassHash> any(), classCaptor.capture())).thenReturn(instrumentationResult);
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long rscId = 13L;
 			long[] sensorIds = { 17L };
@@ -788,4 +802,245 @@ public class ByteCodeAnalyzerTest extends TestBase {
 		}
 
 	}
+
+	public class AnalyzeAndInstrumentBatched extends ByteCodeAnalyzerTest {
+
+		@Test
+		public void instrumentationDependingClassesNotAwaited() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			when(methodInstrumentationConfig.getTargetClassFqn()).thenReturn(className);
+			when(methodInstrumentationConfig.getTargetMethodName()).thenReturn("<init>");
+			when(methodInstrumentationConfig.getReturnType()).thenReturn("void");
+			when(methodInstrumentationConfig.getParameterTypes()).thenReturn(Collections.<String> emptyList());
+			when(methodInstrumentationConfig.getSensorInstrumentationPoint()).thenReturn(sensorInstrumentationPoint);
+			when(methodInstrumentationConfig.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sensorInstrumentationPoint));
+			when(instrumenterFactory.getMethodVisitor(eq(sensorInstrumentationPoint), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean())).thenReturn(methodVisitor);
+
+			when(classHashHelper.isSent(anyString(), Matchers.<ClassHash> any())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(classHashHelper.isAnalyzed(AbstractSubTest.class.getName())).thenReturn(false);
+			when(connection.isConnected()).thenReturn(true);
+			when(analyzeBatcher.isActive()).thenReturn(true);
+			when(analyzeBatcher.getWaitTimeoutMillis()).thenReturn(1000L);
+			Future<InstrumentationDefinition> classFuture = Mockito.mock(Future.class);
+			when(classFuture.get(anyLong(), Matchers.<TimeUnit> any())).thenReturn(instrumentationResult);
+			when(analyzeBatcher.analyze(eq(className), Matchers.<ClassHash> any(), Matchers.<ClassType> any())).thenReturn(classFuture);
+			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
+			long rscId = 13L;
+			long[] sensorIds = { 17L };
+			when(sensorInstrumentationPoint.getId()).thenReturn(rscId);
+			when(sensorInstrumentationPoint.getSensorIds()).thenReturn(sensorIds);
+			when(sensorInstrumentationPoint.getPropertyAccessorList()).thenReturn(Collections.<PropertyPathStart> emptyList());
+			when(methodSensorTypeConfig.getId()).thenReturn(sensorIds[0]);
+
+			byteCodeAnalyzer.afterPropertiesSet();
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			assertThat(instrumentedByteCode, is(not(nullValue())));
+
+			// depending type is queued first and never awaited
+			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
+			InOrder inOrder = inOrder(analyzeBatcher);
+			inOrder.verify(analyzeBatcher).analyzeInBackground(eq(AbstractSubTest.class.getName()), Matchers.<ClassHash> any(), classCaptor.capture());
+			inOrder.verify(analyzeBatcher).analyze(eq(className), Matchers.<ClassHash> any(), classCaptor.capture());
+			assertThat(classCaptor.getAllValues().get(0).getFQN(), is(AbstractSubTest.class.getName()));
+			assertThat(classCaptor.getAllValues().get(1).getFQN(), is(className));
+			verify(classFuture).get(1000L, TimeUnit.MILLISECONDS);
+			verify(connection, times(0)).analyze(anyLong(), Matchers.<ClassHash> any(), Matchers.<ClassType> any());
+
+			// batcher registers the results
+			verify(classHashHelper, times(0)).registerSent(anyString(), Matchers.<ClassHash> any());
+			verify(classHashHelper, times(0)).registerInstrumentationDefinition(anyString(), Matchers.<InstrumentationDefinition> any());
+			verify(hookDispatcherMapper, times(1)).addMapping(eq(rscId), Matchers.<RegisteredSensorConfig> any());
+		}
+
+		@Test
+		public void interfaceNotAwaited() throws Exception {
+			String className = ITest.class.getName();
+			ClassLoader classLoader = ITest.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			when(classHashHelper.isSent(anyString(), Matchers.<ClassHash> any())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(true);
+			when(analyzeBatcher.isActive()).thenReturn(true);
+
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			assertThat(instrumentedByteCode, is(nullValue()));
+			verify(analyzeBatcher).analyzeInBackground(eq(className), Matchers.<ClassHash> any(), Matchers.<Type> any());
+			verify(analyzeBatcher, times(0)).analyze(anyString(), Matchers.<ClassHash> any(), Matchers.<Type> any());
+			verifyZeroInteractions(hookDispatcherMapper);
+		}
+
+		@Test
+		public void noCandidateNotAwaited() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			when(classHashHelper.isSent(anyString(), Matchers.<ClassHash> any())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(true);
+			when(analyzeBatcher.isActive()).thenReturn(true);
+			when(instrumentationCandidates.isCandidate(Matchers.<Type> any())).thenReturn(false);
+			ArgumentCaptor<Type> typeCaptor = ArgumentCaptor.forClass(Type.class);
+
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			assertThat(instrumentedByteCode, is(nullValue()));
+			verify(instrumentationCandidates).isCandidate(typeCaptor.capture());
+			assertThat(typeCaptor.getValue().getFQN(), is(className));
+			verify(analyzeBatcher).analyzeDefined(eq(className), Matchers.<ClassHash> any(), Matchers.<Type> any());
+			verify(analyzeBatcher, times(0)).analyze(anyString(), Matchers.<ClassHash> any(), Matchers.<Type> any());
+			verifyZeroInteractions(hookDispatcherMapper);
+		}
+
+		@Test
+		public void noClassCacheAvailable() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			when(classHashHelper.isSent(anyString(), Matchers.<ClassHash> any())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(true);
+			when(analyzeBatcher.isActive()).thenReturn(true);
+			Future<InstrumentationDefinition> classFuture = Mockito.mock(Future.class);
+			ExecutionException executionException = new ExecutionException(new BusinessException(AgentManagementErrorCodeEnum.AGENT_DOES_NOT_EXIST));
+			when(classFuture.get(anyLong(), Matchers.<TimeUnit> any())).thenThrow(executionException);
+			when(analyzeBatcher.analyze(eq(className), Matchers.<ClassHash> any(), Matchers.<Type> any())).thenReturn(classFuture);
+
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			assertThat(instrumentedByteCode, is(nullValue()));
+			verify(agentStatisticsLogger, times(1)).noClassCacheAvailable();
+			verifyZeroInteractions(hookDispatcherMapper);
+		}
+
+		@Test
+		public void timeoutAbandonsRequest() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			when(classHashHelper.isSent(anyString(), Matchers.<ClassHash> any())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(true);
+			when(analyzeBatcher.isActive()).thenReturn(true);
+			Future<InstrumentationDefinition> classFuture = Mockito.mock(Future.class);
+			when(classFuture.get(anyLong(), Matchers.<TimeUnit> any())).thenThrow(new TimeoutException());
+			when(analyzeBatcher.analyze(eq(className), Matchers.<ClassHash> any(), Matchers.<Type> any())).thenReturn(classFuture);
+			when(analyzeBatcher.abandon(Matchers.<ClassHash> any())).thenReturn(true);
+
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			assertThat(instrumentedByteCode, is(nullValue()));
+			verify(analyzeBatcher).abandon(Matchers.<ClassHash> any());
+			verify(classFuture, times(0)).get();
+			verifyZeroInteractions(hookDispatcherMapper);
+		}
+
+		@Test
+		public void timeoutAfterResultRegistered() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			when(methodInstrumentationConfig.getTargetClassFqn()).thenReturn(className);
+			when(methodInstrumentationConfig.getTargetMethodName()).thenReturn("<init>");
+			when(methodInstrumentationConfig.getReturnType()).thenReturn("void");
+			when(methodInstrumentationConfig.getParameterTypes()).thenReturn(Collections.<String> emptyList());
+			when(methodInstrumentationConfig.getSensorInstrumentationPoint()).thenReturn(sensorInstrumentationPoint);
+			when(methodInstrumentationConfig.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sensorInstrumentationPoint));
+			when(instrumenterFactory.getMethodVisitor(eq(sensorInstrumentationPoint), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean())).thenReturn(methodVisitor);
+
+			when(classHashHelper.isSent(anyString(), Matchers.<ClassHash> any())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(true);
+			when(analyzeBatcher.isActive()).thenReturn(true);
+			Future<InstrumentationDefinition> classFuture = Mockito.mock(Future.class);
+			when(classFuture.get(anyLong(), Matchers.<TimeUnit> any())).thenThrow(new TimeoutException());
+			when(classFuture.get()).thenReturn(instrumentationResult);
+			when(analyzeBatcher.analyze(eq(className), Matchers.<ClassHash> any(), Matchers.<Type> any())).thenReturn(classFuture);
+			when(analyzeBatcher.abandon(Matchers.<ClassHash> any())).thenReturn(false);
+			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
+			long rscId = 13L;
+			long[] sensorIds = { 17L };
+			when(sensorInstrumentationPoint.getId()).thenReturn(rscId);
+			when(sensorInstrumentationPoint.getSensorIds()).thenReturn(sensorIds);
+			when(sensorInstrumentationPoint.getPropertyAccessorList()).thenReturn(Collections.<PropertyPathStart> emptyList());
+			when(methodSensorTypeConfig.getId()).thenReturn(sensorIds[0]);
+
+			byteCodeAnalyzer.afterPropertiesSet();
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			// result was registered as sent, so the class must be instrumented with it
+			assertThat(instrumentedByteCode, is(not(nullValue())));
+			verify(analyzeBatcher).abandon(Matchers.<ClassHash> any());
+			verify(hookDispatcherMapper, times(1)).addMapping(eq(rscId), Matchers.<RegisteredSensorConfig> any());
+		}
+	}
+
+	public class AnalyzeAndInstrumentReconciliation extends ByteCodeAnalyzerTest {
+
+		@Test
+		public void snapshotDefinitionUsedAndTypeSent() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			when(classHashHelper.isSent(anyString(), Matchers.<ClassHash> any())).thenReturn(true);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(classHashHelper.getInstrumentationDefinition(className)).thenReturn(null);
+			when(classHashHelper.needsReconciliation(className)).thenReturn(true);
+			when(classHashHelper.startReconciliation(className)).thenReturn(true);
+			when(connection.isConnected()).thenReturn(true);
+			ArgumentCaptor<Type> typeCaptor = ArgumentCaptor.forClass(Type.class);
+
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			assertThat(instrumentedByteCode, is(nullValue()));
+			verify(analyzeBatcher).analyzeInBackground(eq(className), Matchers.<ClassHash> any(), typeCaptor.capture());
+			assertThat(typeCaptor.getValue().getFQN(), is(className));
+			verify(analyzeBatcher, times(0)).isActive();
+			verify(connection, times(0)).analyze(anyLong(), Matchers.<ClassHash> any(), Matchers.<Type> any());
+		}
+
+		@Test
+		public void alreadyReconciled() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			when(classHashHelper.isSent(anyString(), Matchers.<ClassHash> any())).thenReturn(true);
+			when(classHashHelper.needsReconciliation(className)).thenReturn(false);
+			when(connection.isConnected()).thenReturn(true);
+
+			byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			verify(classHashHelper, times(0)).startReconciliation(anyString());
+			verifyZeroInteractions(analyzeBatcher, connection);
+		}
+
+		@Test
+		public void notConnected() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			when(classHashHelper.isSent(anyString(), Matchers.<ClassHash> any())).thenReturn(true);
+			when(classHashHelper.needsReconciliation(className)).thenReturn(true);
+			when(connection.isConnected()).thenReturn(false);
+
+			byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			// stays marked for the next time
+			verify(classHashHelper, times(0)).startReconciliation(anyString());
+			verifyZeroInteractions(analyzeBatcher);
+		}
+	}
 }
@@ -0,0 +1,66 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.testng.annotations.Test;
+
+import com.google.common.hash.Hashing;
+
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * Tests the {@link ClassHashAlgorithm}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class ClassHashAlgorithmTest extends TestBase {
+
+	public class Get extends ClassHashAlgorithmTest {
+
+		@Test
+		public void sha256() {
+			assertThat(ClassHashAlgorithm.get(true), is(ClassHashAlgorithm.SHA256));
+		}
+
+		@Test
+		public void murmur3() {
+			assertThat(ClassHashAlgorithm.get(false), is(ClassHashAlgorithm.MURMUR3_128));
+		}
+	}
+
+	public class Hash extends ClassHashAlgorithmTest {
+
+		@Test
+		public void sha256() {
+			byte[] byteCode = new byte[] { 1, 2, 3 };
+
+			ClassHash hash = ClassHashAlgorithm.SHA256.hash(byteCode);
+
+			assertThat(hash, is(ClassHash.fromBytes(DigestUtils.sha256(byteCode))));
+		}
+
+		@Test
+		public void sha256SameAsHex() {
+			byte[] byteCode = new byte[] { 1, 2, 3 };
+
+			ClassHash hash = ClassHashAlgorithm.SHA256.hash(byteCode);
+
+			assertThat(hash, is(ClassHash.fromHex(DigestUtils.sha256Hex(byteCode))));
+		}
+
+		@Test
+		public void murmur3() {
+			byte[] byteCode = new byte[] { 1, 2, 3 };
+
+			ClassHash hash = ClassHashAlgorithm.MURMUR3_128.hash(byteCode);
+
+			assertThat(hash.toString(), is(Hashing.murmur3_128().hashBytes(byteCode).toString()));
+		}
+	}
+
+}
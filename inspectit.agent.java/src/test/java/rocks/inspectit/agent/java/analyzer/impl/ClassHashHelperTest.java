@@ -6,6 +6,7 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -27,10 +28,13 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.io.FileResolver;
 import rocks.inspectit.agent.java.spring.PrototypesProvider;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.serializer.SerializationException;
 import rocks.inspectit.shared.all.serializer.impl.SerializationManager;
@@ -42,6 +46,14 @@ public class ClassHashHelperTest extends TestBase {
 
 	protected static final String TEST_CACHE_FILE = "test.cache";
 
+	protected static final String TEST_SNAPSHOT_FILE = "testSnapshot.cache";
+
+	protected static final long PLATFORM_ID = 7L;
+
+	protected static final String REVISION = "env@1;profile@2";
+
+	protected static final ClassHash HASH = new ClassHash(0L, 1L);
+
 	@InjectMocks
 	ClassHashHelper helper;
 
@@ -63,18 +75,25 @@ public class ClassHashHelperTest extends TestBase {
 	@Mock
 	FileResolver fileResolver;
 
+	@Mock
+	IPlatformManager platformManager;
+
 	@BeforeMethod
 	public void setup() {
 		doReturn(new File(TEST_CACHE_FILE)).when(fileResolver).getClassHashCacheFile();
+		doReturn(new File(TEST_SNAPSHOT_FILE)).when(fileResolver).getInstrumentationSnapshotFile();
+		when(platformManager.getPlatformId()).thenReturn(PLATFORM_ID);
 
 		when(prototypesProvider.createSerializer()).thenReturn(serializationManager);
 	}
 
 	@AfterMethod
 	public void delete() {
-		File file = new File(TEST_CACHE_FILE);
-		if (file.exists()) {
-			assertThat(file.delete(), is(true));
+		for (String fileName : new String[] { TEST_CACHE_FILE, TEST_SNAPSHOT_FILE }) {
+			File file = new File(fileName);
+			if (file.exists()) {
+				assertThat(file.delete(), is(true));
+			}
 		}
 	}
 
@@ -97,7 +116,7 @@ public class ClassHashHelperTest extends TestBase {
 			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
 			new File(TEST_CACHE_FILE).createNewFile();
 			Object javaRuntimeVersion = UnderlyingSystemInfo.JAVA_RUNTIME_VERSION;
-			Object hashes = Collections.singletonMap("fqn", Collections.singleton("hash"));
+			Object hashes = Collections.singletonMap("fqn", Collections.singleton(HASH));
 			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(javaRuntimeVersion).thenReturn(hashes);
 
 			helper.afterPropertiesSet();
@@ -113,7 +132,7 @@ public class ClassHashHelperTest extends TestBase {
 			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
 			new File(TEST_CACHE_FILE).createNewFile();
 			Object javaRuntimeVersion = "some_other_version";
-			Object hashes = Collections.singletonMap("java.lang.String", Collections.singleton("hash"));
+			Object hashes = Collections.singletonMap("java.lang.String", Collections.singleton(HASH));
 			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(javaRuntimeVersion).thenReturn(hashes);
 
 			helper.afterPropertiesSet();
@@ -129,7 +148,7 @@ public class ClassHashHelperTest extends TestBase {
 			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
 			new File(TEST_CACHE_FILE).createNewFile();
 			Object javaRuntimeVersion = UnderlyingSystemInfo.JAVA_RUNTIME_VERSION;
-			Object hashes = Collections.singletonMap("java.lang.String", Collections.singleton("hash"));
+			Object hashes = Collections.singletonMap("java.lang.String", Collections.singleton(HASH));
 			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(javaRuntimeVersion).thenReturn(hashes);
 
 			helper.afterPropertiesSet();
@@ -157,7 +176,7 @@ public class ClassHashHelperTest extends TestBase {
 		public void cacheFileExistsCacheOnCmrNot() throws Exception {
 			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(false);
 			new File(TEST_CACHE_FILE).createNewFile();
-			Object hashes = Collections.singleton("hash");
+			Object hashes = Collections.singleton(HASH);
 			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(hashes);
 
 			helper.afterPropertiesSet();
@@ -171,9 +190,9 @@ public class ClassHashHelperTest extends TestBase {
 		@Test
 		public void initialInstrumentationPoints() throws Exception {
 			String fqn = "fqn";
-			String hash = "hash";
+			ClassHash hash = HASH;
 			InstrumentationDefinition instrumentationResult = mock(InstrumentationDefinition.class);
-			Map<Collection<String>, InstrumentationDefinition> initInstrumentations = Collections.<Collection<String>, InstrumentationDefinition> singletonMap(Collections.singleton(hash),
+			Map<Collection<ClassHash>, InstrumentationDefinition> initInstrumentations = Collections.<Collection<ClassHash>, InstrumentationDefinition> singletonMap(Collections.singleton(hash),
 					instrumentationResult);
 			when(instrumentationResult.getClassName()).thenReturn(fqn);
 			when(configurationStorage.getInitialInstrumentationResults()).thenReturn(initInstrumentations);
@@ -187,7 +206,7 @@ public class ClassHashHelperTest extends TestBase {
 
 		@Test
 		public void noInitialInstrumentationPoints() throws Exception {
-			when(configurationStorage.getInitialInstrumentationResults()).thenReturn(Collections.<Collection<String>, InstrumentationDefinition> emptyMap());
+			when(configurationStorage.getInitialInstrumentationResults()).thenReturn(Collections.<Collection<ClassHash>, InstrumentationDefinition> emptyMap());
 
 			helper.afterPropertiesSet();
 
@@ -286,7 +305,7 @@ public class ClassHashHelperTest extends TestBase {
 		public void register() throws Exception {
 			helper.afterPropertiesSet();
 			String fqn = "fqn";
-			String hash = "hash";
+			ClassHash hash = HASH;
 
 			helper.registerSent(fqn, hash);
 
@@ -302,7 +321,7 @@ public class ClassHashHelperTest extends TestBase {
 		public void notSent() throws Exception {
 			helper.afterPropertiesSet();
 			String fqn = "fqn";
-			String hash = "hash";
+			ClassHash hash = HASH;
 
 			boolean sent = helper.isSent(fqn, hash);
 
@@ -312,7 +331,7 @@ public class ClassHashHelperTest extends TestBase {
 		@Test
 		public void load() throws Exception {
 			String fqn = "fqn";
-			String hash = "hash";
+			ClassHash hash = HASH;
 			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
 			new File(TEST_CACHE_FILE).createNewFile();
 			Object javaRuntimeVersion = UnderlyingSystemInfo.JAVA_RUNTIME_VERSION;
@@ -324,6 +343,161 @@ public class ClassHashHelperTest extends TestBase {
 
 			assertThat(sent, is(true));
 		}
+		@Test
+		public void loadHexString() throws Exception {
+			String fqn = "fqn";
+			String hex = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
+			new File(TEST_CACHE_FILE).createNewFile();
+			Object javaRuntimeVersion = UnderlyingSystemInfo.JAVA_RUNTIME_VERSION;
+			Object hashes = Collections.singletonMap(fqn, Collections.singleton(hex));
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(javaRuntimeVersion).thenReturn(hashes);
+			helper.afterPropertiesSet();
+
+			boolean sent = helper.isSent(fqn, ClassHash.fromHex(hex));
+
+			assertThat(sent, is(true));
+		}
+	}
+
+	public class Snapshot extends ClassHashHelperTest {
+
+		@Test
+		public void loaded() throws Exception {
+			String fqn = "fqn";
+			ClassHash hash = HASH;
+			InstrumentationDefinition definition = mock(InstrumentationDefinition.class);
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(false);
+			when(configurationStorage.getConfigurationRevision()).thenReturn(REVISION);
+			new File(TEST_SNAPSHOT_FILE).createNewFile();
+			Object hashes = Collections.singletonMap(fqn, Collections.singleton(hash));
+			Object definitions = Collections.singletonMap(fqn, definition);
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(1, PLATFORM_ID, REVISION, hashes, definitions);
+
+			helper.afterPropertiesSet();
+
+			verify(serializationManager, times(5)).deserialize(Matchers.<Input> any());
+			assertThat(helper.isSent(fqn, hash), is(true));
+			assertThat(helper.getInstrumentationDefinition(fqn), is(definition));
+			assertThat(helper.needsReconciliation(fqn), is(true));
+		}
+
+		@Test
+		public void otherRevision() throws Exception {
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(false);
+			when(configurationStorage.getConfigurationRevision()).thenReturn(REVISION);
+			new File(TEST_SNAPSHOT_FILE).createNewFile();
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(1, PLATFORM_ID, "env@2");
+
+			helper.afterPropertiesSet();
+
+			verify(serializationManager, times(3)).deserialize(Matchers.<Input> any());
+			assertThat(helper.isEmpty(), is(true));
+		}
+
+		@Test
+		public void otherPlatform() throws Exception {
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(false);
+			when(configurationStorage.getConfigurationRevision()).thenReturn(REVISION);
+			new File(TEST_SNAPSHOT_FILE).createNewFile();
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(1, PLATFORM_ID + 1, REVISION);
+
+			helper.afterPropertiesSet();
+
+			assertThat(helper.isEmpty(), is(true));
+		}
+
+		@Test
+		public void otherVersion() throws Exception {
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(false);
+			when(configurationStorage.getConfigurationRevision()).thenReturn(REVISION);
+			new File(TEST_SNAPSHOT_FILE).createNewFile();
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(0);
+
+			helper.afterPropertiesSet();
+
+			verify(serializationManager, times(1)).deserialize(Matchers.<Input> any());
+			assertThat(helper.isEmpty(), is(true));
+		}
+
+		@Test
+		public void noRevision() throws Exception {
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(false);
+			new File(TEST_SNAPSHOT_FILE).createNewFile();
+
+			helper.afterPropertiesSet();
+
+			verifyZeroInteractions(serializationManager);
+			assertThat(helper.isEmpty(), is(true));
+		}
+
+		@Test
+		public void notLoadedWhenCacheOnCmr() throws Exception {
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
+			when(configurationStorage.getConfigurationRevision()).thenReturn(REVISION);
+			new File(TEST_SNAPSHOT_FILE).createNewFile();
+
+			helper.afterPropertiesSet();
+
+			verifyZeroInteractions(serializationManager);
+			assertThat(helper.isEmpty(), is(true));
+		}
+
+		@Test
+		public void saved() throws Exception {
+			String fqn = "fqn";
+			InstrumentationDefinition definition = mock(InstrumentationDefinition.class);
+			when(configurationStorage.getConfigurationRevision()).thenReturn(REVISION);
+			helper.afterPropertiesSet();
+			helper.registerSent(fqn, HASH);
+			helper.registerInstrumentationDefinition(fqn, definition);
+
+			helper.destroy();
+
+			assertThat(new File(TEST_SNAPSHOT_FILE).exists(), is(true));
+			verify(serializationManager).serialize(Matchers.eq(Integer.valueOf(1)), Matchers.<Output> any());
+			verify(serializationManager).serialize(Matchers.eq(Long.valueOf(PLATFORM_ID)), Matchers.<Output> any());
+			verify(serializationManager).serialize(Matchers.eq(REVISION), Matchers.<Output> any());
+			verify(serializationManager).serialize(Matchers.eq(Collections.singletonMap(fqn, definition)), Matchers.<Output> any());
+		}
+
+		@Test
+		public void notSavedWithoutRevision() throws Exception {
+			helper.afterPropertiesSet();
+			helper.registerSent("fqn", HASH);
+
+			helper.destroy();
+
+			assertThat(new File(TEST_SNAPSHOT_FILE).exists(), is(false));
+			verify(serializationManager, never()).serialize(Matchers.eq(Integer.valueOf(1)), Matchers.<Output> any());
+		}
+	}
+
+	public class StartReconciliation extends ClassHashHelperTest {
+
+		@Test
+		public void notLoaded() throws Exception {
+			helper.afterPropertiesSet();
+			helper.registerSent("fqn", HASH);
+
+			assertThat(helper.needsReconciliation("fqn"), is(false));
+			assertThat(helper.startReconciliation("fqn"), is(false));
+		}
+
+		@Test
+		public void onlyOnce() throws Exception {
+			String fqn = "fqn";
+			when(configurationStorage.getConfigurationRevision()).thenReturn(REVISION);
+			new File(TEST_SNAPSHOT_FILE).createNewFile();
+			Object hashes = Collections.singletonMap(fqn, Collections.singleton(HASH));
+			Object definitions = Collections.emptyMap();
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(1, PLATFORM_ID, REVISION, hashes, definitions);
+			helper.afterPropertiesSet();
+
+			assertThat(helper.startReconciliation(fqn), is(true));
+			assertThat(helper.startReconciliation(fqn), is(false));
+			assertThat(helper.needsReconciliation(fqn), is(false));
+		}
 	}
 
 }
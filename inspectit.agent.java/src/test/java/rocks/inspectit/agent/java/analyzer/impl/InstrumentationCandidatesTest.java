@@ -0,0 +1,160 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.slf4j.Logger;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
+import rocks.inspectit.shared.all.instrumentation.classcache.InterfaceType;
+import rocks.inspectit.shared.all.pattern.IMatchPattern;
+import rocks.inspectit.shared.all.pattern.PatternFactory;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * Tests the {@link InstrumentationCandidates}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class InstrumentationCandidatesTest extends TestBase {
+
+	@InjectMocks
+	InstrumentationCandidates candidates;
+
+	@Mock
+	Logger log;
+
+	@Mock
+	IConfigurationStorage configurationStorage;
+
+	void initPatterns(String pattern) throws Exception {
+		when(configurationStorage.getInstrumentationCandidatePatterns()).thenReturn(Collections.<IMatchPattern> singleton(PatternFactory.getPattern(pattern)));
+		candidates.afterPropertiesSet();
+	}
+
+	public static class IsCandidate extends InstrumentationCandidatesTest {
+
+		@Test
+		public void patternsNotKnown() throws Exception {
+			when(configurationStorage.getInstrumentationCandidatePatterns()).thenReturn(null);
+			candidates.afterPropertiesSet();
+
+			boolean candidate = candidates.isCandidate(new ClassType("info.Class"));
+
+			assertThat(candidate, is(true));
+		}
+
+		@Test
+		public void nameMatches() throws Exception {
+			initPatterns("info.*");
+
+			boolean candidate = candidates.isCandidate(new ClassType("info.Class"));
+
+			assertThat(candidate, is(true));
+		}
+
+		@Test
+		public void nameDoesNotMatch() throws Exception {
+			initPatterns("info.*");
+
+			boolean candidate = candidates.isCandidate(new ClassType("rocks.Class"));
+
+			assertThat(candidate, is(false));
+		}
+
+		@Test
+		public void superClassCandidate() throws Exception {
+			initPatterns("info.*");
+			ClassType superClass = new ClassType("info.Super");
+			ClassType classType = new ClassType("rocks.Class");
+			classType.addSuperClass(superClass);
+
+			candidates.isCandidate(superClass);
+			boolean candidate = candidates.isCandidate(classType);
+
+			assertThat(candidate, is(true));
+		}
+
+		@Test
+		public void superInterfaceCandidate() throws Exception {
+			initPatterns("info.*");
+			InterfaceType superInterface = new InterfaceType("info.ISuper");
+			InterfaceType interfaceType = new InterfaceType("rocks.IInterface");
+			interfaceType.addSuperInterface(superInterface);
+			ClassType classType = new ClassType("rocks.Class");
+			classType.addInterface(interfaceType);
+
+			candidates.isCandidate(superInterface);
+			candidates.isCandidate(interfaceType);
+			boolean candidate = candidates.isCandidate(classType);
+
+			assertThat(candidate, is(true));
+		}
+
+		@Test
+		public void superTypesNoCandidates() throws Exception {
+			initPatterns("info.*");
+			ClassType superClass = new ClassType("rocks.Super");
+			InterfaceType interfaceType = new InterfaceType("rocks.IInterface");
+			ClassType classType = new ClassType("rocks.Class");
+			classType.addSuperClass(superClass);
+			classType.addInterface(interfaceType);
+
+			candidates.isCandidate(superClass);
+			candidates.isCandidate(interfaceType);
+			boolean candidate = candidates.isCandidate(classType);
+
+			assertThat(candidate, is(false));
+		}
+
+		@Test
+		public void superTypeNotAnalyzed() throws Exception {
+			initPatterns("info.*");
+			ClassType classType = new ClassType("rocks.Class");
+			classType.addSuperClass(new ClassType("rocks.Super"));
+
+			boolean candidate = candidates.isCandidate(classType);
+
+			assertThat(candidate, is(true));
+		}
+
+		@Test
+		public void candidateWinsForSameName() throws Exception {
+			initPatterns("info.*");
+			ClassType superClass = new ClassType("rocks.Super");
+			ClassType otherSuperClass = new ClassType("rocks.Super");
+			otherSuperClass.addSuperClass(new ClassType("info.Super"));
+			ClassType classType = new ClassType("rocks.Class");
+			classType.addSuperClass(new ClassType("rocks.Super"));
+
+			candidates.isCandidate(new ClassType("info.Super"));
+			candidates.isCandidate(superClass);
+			candidates.isCandidate(otherSuperClass);
+			boolean candidate = candidates.isCandidate(classType);
+
+			assertThat(candidate, is(true));
+		}
+	}
+
+	public static class Invalidate extends InstrumentationCandidatesTest {
+
+		@Test
+		public void allCandidates() throws Exception {
+			initPatterns("info.*");
+
+			candidates.invalidate("rocks.Class");
+			boolean candidate = candidates.isCandidate(new ClassType("rocks.Class"));
+
+			assertThat(candidate, is(true));
+		}
+	}
+}
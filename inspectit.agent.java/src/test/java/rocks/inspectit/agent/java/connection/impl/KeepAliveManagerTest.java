@@ -5,6 +5,7 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.net.ConnectException;
@@ -16,6 +17,7 @@ import org.testng.annotations.Test;
 
 import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.core.impl.DefaultDataHandler;
 import rocks.inspectit.shared.all.testbase.TestBase;
 
 /**
@@ -34,6 +36,9 @@ public class KeepAliveManagerTest extends TestBase {
 	@Mock
 	IPlatformManager platformManager;
 
+	@Mock
+	DefaultDataHandler defaultDataHandler;
+
 	@Mock
 	Logger log;
 
@@ -78,6 +83,18 @@ public class KeepAliveManagerTest extends TestBase {
 			verify(connection, times(2)).isConnected();
 			verify(connection).reconnect();
 			verifyNoMoreInteractions(connection);
+			verifyZeroInteractions(defaultDataHandler);
+		}
+
+		@Test
+		public void reconnectNotifiesDataHandler() throws Exception {
+			when(connection.isConnected()).thenReturn(false);
+
+			manager.sendKeepAlive();
+			manager.sendKeepAlive();
+
+			verify(connection).reconnect();
+			verify(defaultDataHandler).connectionRestored();
 		}
 
 		@Test
@@ -43,11 +43,13 @@ import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
 import rocks.inspectit.shared.all.communication.message.IAgentMessage;
 import rocks.inspectit.shared.all.exception.BusinessException;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.instrumentation.config.impl.JmxAttributeDescriptor;
 import rocks.inspectit.shared.all.kryonet.Client;
+import rocks.inspectit.shared.all.kryonet.WireCodec;
 import rocks.inspectit.shared.all.testbase.TestBase;
 
 @SuppressWarnings({ "PMD", "unchecked" })
@@ -299,6 +301,48 @@ public class KryoNetConnectionTest extends TestBase {
 
 			verify(agentService, times(1)).register(Matchers.<List<String>> any(), eq(agentName), eq(version));
 			verifyNoMoreInteractions(agentService);
+			verify(client, times(0)).switchWireMode(anyInt(), anyInt());
+		}
+
+		@Test
+		public void compressedWireMode() throws Exception {
+			AgentConfig agentConfiguration = mock(AgentConfig.class);
+			when(agentConfiguration.isCompressedWireMode()).thenReturn(true);
+			when(client.isConnected()).thenReturn(true);
+			doReturn(agentConfiguration).when(agentService).register(Matchers.<List<String>> any(), anyString(), anyString());
+
+			AgentConfig receivedAgentConfiguration = connection.register("agentName", "version");
+
+			assertThat(receivedAgentConfiguration, is(agentConfiguration));
+			verify(client).switchWireMode(eq(WireCodec.ALL), anyInt());
+		}
+
+		@Test
+		public void compressedWireModeAlreadyActive() throws Exception {
+			AgentConfig agentConfiguration = mock(AgentConfig.class);
+			when(agentConfiguration.isCompressedWireMode()).thenReturn(true);
+			when(client.isConnected()).thenReturn(true);
+			when(client.getWireMode()).thenReturn(WireCodec.ALL);
+			doReturn(agentConfiguration).when(agentService).register(Matchers.<List<String>> any(), anyString(), anyString());
+
+			connection.register("agentName", "version");
+
+			verify(client, times(0)).switchWireMode(anyInt(), anyInt());
+		}
+
+		@Test
+		public void compressedWireModeFailed() throws Exception {
+			AgentConfig agentConfiguration = mock(AgentConfig.class);
+			when(agentConfiguration.isCompressedWireMode()).thenReturn(true);
+			when(client.isConnected()).thenReturn(true);
+			doThrow(IOException.class).when(client).switchWireMode(anyInt(), anyInt());
+			doReturn(agentConfiguration).when(agentService).register(Matchers.<List<String>> any(), anyString(), anyString());
+
+			AgentConfig receivedAgentConfiguration = connection.register("agentName", "version");
+
+			assertThat(receivedAgentConfiguration, is(agentConfiguration));
+			verify(client).setWireMode(0);
+			verify(client).close();
 		}
 
 		@Test(expectedExceptions = { ServerUnavailableException.class })
@@ -456,9 +500,9 @@ public class KryoNetConnectionTest extends TestBase {
 		public void analyzeAndInstrument() throws Exception {
 			InstrumentationDefinition instrumentationResult = mock(InstrumentationDefinition.class);
 			when(client.isConnected()).thenReturn(true);
-			doReturn(instrumentationResult).when(agentService).analyze(anyLong(), anyString(), Matchers.<Type> any());
+			doReturn(instrumentationResult).when(agentService).analyze(anyLong(), Matchers.<ClassHash> any(), Matchers.<Type> any());
 			long id = 7;
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			Type type = mock(Type.class);
 
 			InstrumentationDefinition receivedResult = connection.analyze(id, hash, type);
@@ -471,9 +515,9 @@ public class KryoNetConnectionTest extends TestBase {
 		@Test(expectedExceptions = { ServerUnavailableException.class })
 		public void timeout() throws Exception {
 			when(client.isConnected()).thenReturn(true);
-			doThrow(TimeoutException.class).when(agentService).analyze(anyLong(), anyString(), Matchers.<Type> any());
+			doThrow(TimeoutException.class).when(agentService).analyze(anyLong(), Matchers.<ClassHash> any(), Matchers.<Type> any());
 			long id = 7;
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			Type type = mock(Type.class);
 
 			try {
@@ -490,9 +534,9 @@ public class KryoNetConnectionTest extends TestBase {
 		@Test(expectedExceptions = { ServerUnavailableException.class })
 		public void remoteException() throws Exception {
 			when(client.isConnected()).thenReturn(true);
-			doThrow(RuntimeException.class).when(agentService).analyze(anyLong(), anyString(), Matchers.<Type> any());
+			doThrow(RuntimeException.class).when(agentService).analyze(anyLong(), Matchers.<ClassHash> any(), Matchers.<Type> any());
 			long id = 7;
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			Type type = mock(Type.class);
 
 			try {
@@ -511,9 +555,9 @@ public class KryoNetConnectionTest extends TestBase {
 		@Test(expectedExceptions = { BusinessException.class })
 		public void businessException() throws Exception {
 			when(client.isConnected()).thenReturn(true);
-			doThrow(BusinessException.class).when(agentService).analyze(anyLong(), anyString(), Matchers.<Type> any());
+			doThrow(BusinessException.class).when(agentService).analyze(anyLong(), Matchers.<ClassHash> any(), Matchers.<Type> any());
 			long id = 7;
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			Type type = mock(Type.class);
 
 			try {
@@ -528,7 +572,7 @@ public class KryoNetConnectionTest extends TestBase {
 		public void notConnected() throws Exception {
 			when(client.isConnected()).thenReturn(false);
 			long id = 7;
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			Type type = mock(Type.class);
 
 			try {
@@ -542,6 +586,96 @@ public class KryoNetConnectionTest extends TestBase {
 		}
 	}
 
+	public static class AnalyzeBatch extends KryoNetConnectionTest {
+
+		@Test
+		public void analyzeBatch() throws Exception {
+			InstrumentationDefinition instrumentationResult = mock(InstrumentationDefinition.class);
+			List<InstrumentationDefinition> results = Arrays.asList(null, instrumentationResult);
+			when(client.isConnected()).thenReturn(true);
+			doReturn(results).when(agentService).analyzeBatch(anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any());
+			long id = 7;
+			List<ClassHash> hashes = Arrays.asList(new ClassHash(0L, 1L), new ClassHash(0L, 2L));
+			List<Type> types = Arrays.asList(mock(Type.class), mock(Type.class));
+
+			List<InstrumentationDefinition> receivedResults = connection.analyzeBatch(id, hashes, types);
+			assertThat(receivedResults, is(results));
+
+			verify(agentService, times(1)).analyzeBatch(id, hashes, types);
+			verifyNoMoreInteractions(agentService);
+		}
+
+		@Test(expectedExceptions = { ServerUnavailableException.class })
+		public void timeout() throws Exception {
+			when(client.isConnected()).thenReturn(true);
+			doThrow(TimeoutException.class).when(agentService).analyzeBatch(anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any());
+			long id = 7;
+			List<ClassHash> hashes = Collections.singletonList(new ClassHash(0L, 1L));
+			List<Type> types = Collections.singletonList(mock(Type.class));
+
+			try {
+				connection.analyzeBatch(id, hashes, types);
+			} catch (ServerUnavailableException e) {
+				assertThat(e.isServerTimeout(), is(true));
+				throw e;
+			} finally {
+				verify(agentService, times(1)).analyzeBatch(id, hashes, types);
+				verifyNoMoreInteractions(agentService);
+			}
+		}
+
+		@Test(expectedExceptions = { ServerUnavailableException.class })
+		public void remoteException() throws Exception {
+			when(client.isConnected()).thenReturn(true);
+			doThrow(RuntimeException.class).when(agentService).analyzeBatch(anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any());
+			long id = 7;
+			List<ClassHash> hashes = Collections.singletonList(new ClassHash(0L, 1L));
+			List<Type> types = Collections.singletonList(mock(Type.class));
+
+			try {
+				connection.analyzeBatch(id, hashes, types);
+			} catch (ServerUnavailableException e) {
+				assertThat(e.isServerTimeout(), is(false));
+				throw e;
+			} finally {
+				// fail fast call, only one attempt
+				verify(agentService, times(1)).analyzeBatch(id, hashes, types);
+				verifyNoMoreInteractions(agentService);
+				verify(client).close();
+			}
+		}
+
+		@Test(expectedExceptions = { BusinessException.class })
+		public void businessException() throws Exception {
+			when(client.isConnected()).thenReturn(true);
+			doThrow(BusinessException.class).when(agentService).analyzeBatch(anyLong(), Matchers.<List<ClassHash>> any(), Matchers.<List<Type>> any());
+			long id = 7;
+			List<ClassHash> hashes = Collections.singletonList(new ClassHash(0L, 1L));
+			List<Type> types = Collections.singletonList(mock(Type.class));
+
+			try {
+				connection.analyzeBatch(id, hashes, types);
+			} finally {
+				verify(agentService, times(1)).analyzeBatch(id, hashes, types);
+				verifyNoMoreInteractions(agentService);
+			}
+		}
+
+		@Test(expectedExceptions = { ServerUnavailableException.class })
+		public void notConnected() throws Exception {
+			when(client.isConnected()).thenReturn(false);
+
+			try {
+				connection.analyzeBatch(7, Collections.singletonList(new ClassHash(0L, 1L)), Collections.singletonList(mock(Type.class)));
+			} catch (ServerUnavailableException e) {
+				assertThat(e.isServerTimeout(), is(false));
+				throw e;
+			} finally {
+				verifyZeroInteractions(agentService);
+			}
+		}
+	}
+
 	public static class AnalyzeJmxAttributes extends KryoNetConnectionTest {
 
 		@Test
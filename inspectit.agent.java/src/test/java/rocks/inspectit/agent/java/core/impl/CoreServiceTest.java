@@ -7,6 +7,7 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
@@ -14,17 +15,22 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.hamcrest.internal.ArrayIterator;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
+import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
@@ -35,9 +41,13 @@ import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
 import rocks.inspectit.agent.java.config.StorageException;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.disruptor.IDisruptorStrategy;
+import rocks.inspectit.agent.java.core.disruptor.WaitStrategyType;
+import rocks.inspectit.agent.java.core.impl.CoreService.LingerFlusher;
+import rocks.inspectit.agent.java.core.impl.CoreService.JmxSensorRefresher;
 import rocks.inspectit.agent.java.core.impl.CoreService.SensorRefresher;
 import rocks.inspectit.agent.java.sensor.jmx.IJmxSensor;
 import rocks.inspectit.agent.java.sensor.platform.IPlatformSensor;
@@ -76,6 +86,9 @@ public class CoreServiceTest extends TestBase {
 	@Mock
 	AgentStatisticsLogger statsLogger;
 
+	@Mock
+	IConfigurationStorage configurationStorage;
+
 	@BeforeMethod
 	public void executorShutdown() throws InterruptedException {
 		// avoid strange log messages in test
@@ -112,6 +125,7 @@ public class CoreServiceTest extends TestBase {
 
 			// need to sleep a bit so handler is notified
 			Thread.sleep(100);
+			verify(defaultDataHandler).configure(eq(disruptorStrategy), Matchers.<Runnable> any());
 			verifyNoMoreInteractions(defaultDataHandler);
 		}
 
@@ -144,6 +158,86 @@ public class CoreServiceTest extends TestBase {
 
 	}
 
+	public static class AddAllDefaultData extends CoreServiceTest {
+
+		@Mock
+		DefaultData data;
+
+		@Mock
+		DefaultData otherData;
+
+		@Test
+		public void happyPath() throws InterruptedException, StorageException {
+			when(disruptorStrategy.getDataBufferSize()).thenReturn(8);
+			coreService.start();
+
+			coreService.addAllDefaultData(Arrays.asList(data, otherData));
+
+			// need to sleep a bit so handler is notified
+			Thread.sleep(100);
+
+			ArgumentCaptor<DefaultDataWrapper> captor = ArgumentCaptor.forClass(DefaultDataWrapper.class);
+			verify(defaultDataHandler).onEvent(captor.capture(), anyLong(), eq(false));
+			verify(defaultDataHandler).onEvent(captor.capture(), anyLong(), eq(true));
+			assertThat(captor.getAllValues().get(1).getDefaultData(), is(otherData));
+		}
+
+		@Test
+		public void moreThanBufferSize() throws InterruptedException, StorageException {
+			when(disruptorStrategy.getDataBufferSize()).thenReturn(2);
+			coreService.start();
+
+			coreService.addAllDefaultData(Arrays.asList(data, data, otherData));
+
+			// need to sleep a bit so handler is notified
+			Thread.sleep(100);
+
+			// first batch always fits, the second one only if the handler was fast enough
+			verify(defaultDataHandler, atLeast(2)).onEvent(Mockito.<DefaultDataWrapper> any(), anyLong(), anyBoolean());
+		}
+
+		@Test
+		public void noAddOnShutdown() throws InterruptedException, StorageException {
+			when(disruptorStrategy.getDataBufferSize()).thenReturn(8);
+			coreService.start();
+			coreService.stop();
+
+			coreService.addAllDefaultData(Collections.singletonList(data));
+
+			// need to sleep a bit so handler is notified
+			Thread.sleep(100);
+			verify(defaultDataHandler).configure(eq(disruptorStrategy), Matchers.<Runnable> any());
+			verifyNoMoreInteractions(defaultDataHandler);
+		}
+
+		@Test
+		public void capacityReached() throws InterruptedException, StorageException {
+			when(disruptorStrategy.getDataBufferSize()).thenReturn(2);
+			// block the handler so we get capacity error
+			final CountDownLatch latch = new CountDownLatch(1);
+			doAnswer(new Answer<Void>() {
+				@Override
+				public Void answer(InvocationOnMock invocation) throws Throwable {
+					latch.await(1, TimeUnit.SECONDS);
+					return null;
+				}
+			}).when(defaultDataHandler).onEvent(Mockito.<DefaultDataWrapper> any(), anyLong(), anyBoolean());
+			coreService.start();
+
+			coreService.addAllDefaultData(Arrays.asList(data, data));
+			coreService.addAllDefaultData(Arrays.asList(data, data, data));
+			latch.countDown();
+
+			verify(statsLogger).dataDropped(3);
+		}
+
+		@AfterMethod
+		public void stop() {
+			coreService.stop();
+		}
+
+	}
+
 	public static class Start extends CoreServiceTest {
 
 		@Test(expectedExceptions = BeanInitializationException.class)
@@ -152,6 +246,69 @@ public class CoreServiceTest extends TestBase {
 			coreService.start();
 		}
 
+		@Test
+		public void handlerConfigured() throws StorageException {
+			when(disruptorStrategy.getDataBufferSize()).thenReturn(8);
+			when(disruptorStrategy.getWaitStrategyType()).thenReturn(WaitStrategyType.SLEEPING);
+			coreService.start();
+
+			verify(defaultDataHandler).configure(eq(disruptorStrategy), Matchers.<Runnable> any());
+		}
+
+		@Test
+		public void lingerFlusherScheduled() throws StorageException {
+			when(disruptorStrategy.getDataBufferSize()).thenReturn(8);
+			when(disruptorStrategy.getMaxLingerTime()).thenReturn(100L);
+			coreService.start();
+
+			ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+			verify(executorService).scheduleWithFixedDelay(captor.capture(), eq(100L), eq(100L), eq(TimeUnit.MILLISECONDS));
+			assertThat(captor.getValue(), is(instanceOf(LingerFlusher.class)));
+		}
+
+		@Test
+		public void sensorRefresherScheduledWithSamplingInterval() throws StorageException {
+			when(disruptorStrategy.getDataBufferSize()).thenReturn(8);
+			coreService.setSensorRefreshTime(100L);
+			coreService.start();
+
+			ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+			verify(executorService).scheduleWithFixedDelay(captor.capture(), eq(100L), eq(100L), eq(TimeUnit.MILLISECONDS));
+			assertThat(captor.getValue(), is(instanceOf(SensorRefresher.class)));
+		}
+
+		@Test
+		public void sensorRefresherScheduledWithConfiguredSamplingInterval() throws StorageException {
+			when(disruptorStrategy.getDataBufferSize()).thenReturn(8);
+			when(configurationStorage.getPlatformSamplingInterval()).thenReturn(200L);
+			coreService.start();
+
+			ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+			verify(executorService).scheduleWithFixedDelay(captor.capture(), eq(200L), eq(200L), eq(TimeUnit.MILLISECONDS));
+			assertThat(captor.getValue(), is(instanceOf(SensorRefresher.class)));
+		}
+
+		@Test
+		public void jmxSensorRefresherScheduledAtFixedRate() throws StorageException {
+			when(disruptorStrategy.getDataBufferSize()).thenReturn(8);
+			coreService.setSensorRefreshTime(300L);
+			coreService.start();
+
+			ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+			verify(executorService).scheduleAtFixedRate(captor.capture(), eq(1000L), eq(1000L), eq(TimeUnit.MILLISECONDS));
+			assertThat(captor.getValue(), is(instanceOf(JmxSensorRefresher.class)));
+		}
+
+		@Test
+		public void sendingIntervalNotMultipleOfSamplingInterval() throws StorageException {
+			when(disruptorStrategy.getDataBufferSize()).thenReturn(8);
+			when(configurationStorage.getPlatformSamplingInterval()).thenReturn(300L);
+			when(configurationStorage.getPlatformSendingInterval()).thenReturn(1000L);
+			coreService.start();
+
+			verify(log).warn(Mockito.contains("900 ms"));
+		}
+
 		@Test
 		public void sensorRefresherScheduled() throws StorageException {
 			when(disruptorStrategy.getDataBufferSize()).thenReturn(8);
@@ -186,7 +343,6 @@ public class CoreServiceTest extends TestBase {
 
 		@Test
 		public void platformSensor() {
-			when(jmxSensors.isEmpty()).thenReturn(true);
 			doAnswer(new Answer<Iterator<?>>() {
 				@Override
 				public Iterator<?> answer(InvocationOnMock invocation) throws Throwable {
@@ -204,7 +360,6 @@ public class CoreServiceTest extends TestBase {
 
 		@Test
 		public void platformSensorCollect() throws InterruptedException, StorageException {
-			when(jmxSensors.isEmpty()).thenReturn(true);
 			doAnswer(new Answer<Iterator<?>>() {
 				@Override
 				public Iterator<?> answer(InvocationOnMock invocation) throws Throwable {
@@ -236,9 +391,53 @@ public class CoreServiceTest extends TestBase {
 			assertThat(captor.getValue().getDefaultData(), is((DefaultData) sid));
 		}
 
+		@Test
+		public void platformSensorSamplingInterval() {
+			coreService.setSensorRefreshTime(100L);
+			coreService.setPlatformSendingInterval(300L);
+			doAnswer(new Answer<Iterator<?>>() {
+				@Override
+				public Iterator<?> answer(InvocationOnMock invocation) throws Throwable {
+					return new ArrayIterator(new IPlatformSensor[] { platformSensor });
+				}
+			}).when(platformSensors).iterator();
+
+			Runnable sensorRefresher = coreService.new SensorRefresher();
+			for (int i = 0; i < 10; i++) {
+				sensorRefresher.run();
+			}
+
+			// reset on the first iteration and after each get
+			verify(platformSensor, times(4)).reset();
+			verify(platformSensor, times(10)).gather();
+			verify(platformSensor, times(3)).get();
+			verifyNoMoreInteractions(platformSensor);
+			verifyZeroInteractions(jmxSensors);
+		}
+
+		@Test
+		public void platformSensorSendingIntervalRounded() {
+			coreService.setSensorRefreshTime(300L);
+			coreService.setPlatformSendingInterval(1000L);
+			doAnswer(new Answer<Iterator<?>>() {
+				@Override
+				public Iterator<?> answer(InvocationOnMock invocation) throws Throwable {
+					return new ArrayIterator(new IPlatformSensor[] { platformSensor });
+				}
+			}).when(platformSensors).iterator();
+
+			Runnable sensorRefresher = coreService.new SensorRefresher();
+			for (int i = 0; i < 9; i++) {
+				sensorRefresher.run();
+			}
+
+			// 1000 / 300 is rounded to the get on every 3rd sampling
+			verify(platformSensor, times(9)).gather();
+			verify(platformSensor, times(3)).get();
+		}
+
 		@Test
 		public void platformSensorError() {
-			when(jmxSensors.isEmpty()).thenReturn(true);
 			final List<IPlatformSensor> sensors = new ArrayList<IPlatformSensor>();
 			sensors.add(platformSensor);
 			doAnswer(new Answer<Iterator<?>>() {
@@ -255,21 +454,39 @@ public class CoreServiceTest extends TestBase {
 			assertThat(sensors, is(empty()));
 		}
 
+	}
+
+	public static class JmxSensorRefresherRun extends CoreServiceTest {
+
+		@Mock
+		IJmxSensor jmxSensor;
+
+		@Test
+		public void runtimeException() {
+			RuntimeException runtimeException = new RuntimeException();
+			when(jmxSensors.isEmpty()).thenThrow(runtimeException);
+
+			Runnable jmxSensorRefresher = coreService.new JmxSensorRefresher();
+			jmxSensorRefresher.run();
+
+			// verify logged not not exceptional exit
+			verify(log).error(Mockito.anyString(), eq(runtimeException));
+		}
+
 		@Test
 		public void jmxSensor() {
-			when(platformSensors.isEmpty()).thenReturn(true);
 			doReturn(new ArrayIterator(new IJmxSensor[] { jmxSensor })).when(jmxSensors).iterator();
 
-			Runnable sensorRefresher = coreService.new SensorRefresher();
-			sensorRefresher.run();
+			Runnable jmxSensorRefresher = coreService.new JmxSensorRefresher();
+			jmxSensorRefresher.run();
 
 			verify(jmxSensor).update(coreService);
 			verifyNoMoreInteractions(jmxSensor);
+			verifyZeroInteractions(platformSensors);
 		}
 
 		@Test
 		public void jmxSensorTwice() {
-			when(platformSensors.isEmpty()).thenReturn(true);
 			doAnswer(new Answer<Iterator<?>>() {
 				@Override
 				public Iterator<?> answer(InvocationOnMock invocation) throws Throwable {
@@ -277,9 +494,9 @@ public class CoreServiceTest extends TestBase {
 				}
 			}).when(jmxSensors).iterator();
 
-			Runnable sensorRefresher = coreService.new SensorRefresher();
-			sensorRefresher.run();
-			sensorRefresher.run();
+			Runnable jmxSensorRefresher = coreService.new JmxSensorRefresher();
+			jmxSensorRefresher.run();
+			jmxSensorRefresher.run();
 
 			verify(jmxSensor, times(2)).update(coreService);
 			verifyNoMoreInteractions(jmxSensor);
@@ -298,6 +515,7 @@ public class CoreServiceTest extends TestBase {
 			coreService.stop();
 
 			verify(executorService).scheduleWithFixedDelay(Mockito.<Runnable> any(), anyLong(), anyLong(), Mockito.<TimeUnit> any());
+			verify(executorService).scheduleAtFixedRate(Mockito.<Runnable> any(), anyLong(), anyLong(), Mockito.<TimeUnit> any());
 			verify(executorService).shutdown();
 			verify(executorService).awaitTermination(anyLong(), Mockito.<TimeUnit> any());
 			verifyNoMoreInteractions(executorService);
@@ -313,6 +531,7 @@ public class CoreServiceTest extends TestBase {
 			coreService.stop();
 
 			verify(executorService).scheduleWithFixedDelay(Mockito.<Runnable> any(), anyLong(), anyLong(), Mockito.<TimeUnit> any());
+			verify(executorService).scheduleAtFixedRate(Mockito.<Runnable> any(), anyLong(), anyLong(), Mockito.<TimeUnit> any());
 			verify(executorService).shutdown();
 			verify(executorService).awaitTermination(anyLong(), Mockito.<TimeUnit> any());
 			verifyNoMoreInteractions(executorService);
@@ -0,0 +1,70 @@
+package rocks.inspectit.agent.java.core.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.mockito.Mock;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.communication.Sizeable;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class DataSizeEstimatesTest extends TestBase {
+
+	@Mock
+	IObjectSizes objectSizes;
+
+	DataSizeEstimates estimates;
+
+	@BeforeMethod
+	public void init() {
+		estimates = new DataSizeEstimates(objectSizes);
+	}
+
+	public static class GetSizeOf extends DataSizeEstimatesTest {
+
+		@Test
+		public void initialSamplesMeasured() {
+			TimerData timerData = new TimerData();
+			when(objectSizes.getSizeOf(timerData)).thenReturn(100L, 200L);
+
+			assertThat(estimates.getSizeOf(timerData), is(100L));
+			assertThat(estimates.getSizeOf(timerData), is(150L));
+		}
+
+		@Test
+		public void sampledAfterInitial() {
+			TimerData timerData = new TimerData();
+			when(objectSizes.getSizeOf(timerData)).thenReturn(100L);
+
+			for (int i = 0; i < (DataSizeEstimates.SAMPLE_INTERVAL * 2); i++) {
+				assertThat(estimates.getSizeOf(timerData), is(100L));
+			}
+
+			verify(objectSizes, times(DataSizeEstimates.INITIAL_SAMPLES + 1)).getSizeOf((Sizeable) timerData);
+		}
+
+		@Test
+		public void estimatedPerType() {
+			TimerData timerData = new TimerData();
+			SqlStatementData sqlData = new SqlStatementData();
+			when(objectSizes.getSizeOf(timerData)).thenReturn(100L);
+			when(objectSizes.getSizeOf(sqlData)).thenReturn(300L);
+
+			assertThat(estimates.getSizeOf(timerData), is(100L));
+			assertThat(estimates.getSizeOf(sqlData), is(300L));
+		}
+	}
+}
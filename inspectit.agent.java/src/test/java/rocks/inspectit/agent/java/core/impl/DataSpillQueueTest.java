@@ -0,0 +1,298 @@
+package rocks.inspectit.agent.java.core.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.springframework.core.io.ClassPathResource;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.io.FileResolver;
+import rocks.inspectit.agent.java.spring.PrototypesProvider;
+import rocks.inspectit.agent.java.stats.AgentStatisticsLogger;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.serializer.impl.SerializationManager;
+import rocks.inspectit.shared.all.serializer.schema.ClassSchemaManager;
+import rocks.inspectit.shared.all.testbase.TestBase;
+import rocks.inspectit.shared.all.util.KryoNetNetwork;
+
+/**
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class DataSpillQueueTest extends TestBase {
+
+	@InjectMocks
+	DataSpillQueue queue;
+
+	@Mock
+	Logger log;
+
+	@Mock
+	FileResolver fileResolver;
+
+	@Mock
+	PrototypesProvider prototypesProvider;
+
+	@Mock
+	AgentStatisticsLogger statsLogger;
+
+	@Mock
+	IPlatformManager platformManager;
+
+	File file;
+
+	@BeforeMethod
+	public void init() throws IOException {
+		file = File.createTempFile("spill", ".queue");
+		file.delete();
+		when(fileResolver.getDataSpillFile()).thenReturn(file);
+
+		ClassSchemaManager schemaManager = new ClassSchemaManager();
+		schemaManager.setLog(Mockito.mock(Logger.class));
+		schemaManager.setSchemaListFile(new ClassPathResource(ClassSchemaManager.SCHEMA_DIR + "/" + ClassSchemaManager.SCHEMA_LIST_FILE, schemaManager.getClass().getClassLoader()));
+		schemaManager.loadSchemasFromLocations();
+		SerializationManager serializationManager = new SerializationManager();
+		serializationManager.setSchemaManager(schemaManager);
+		serializationManager.setKryoNetNetwork(new KryoNetNetwork());
+		serializationManager.initKryo();
+		when(prototypesProvider.createSerializer()).thenReturn(serializationManager);
+	}
+
+	@AfterMethod
+	public void delete() throws Exception {
+		queue.destroy();
+		file.delete();
+	}
+
+	static List<DefaultData> data(long... methodIdents) {
+		DefaultData[] data = new DefaultData[methodIdents.length];
+		for (int i = 0; i < methodIdents.length; i++) {
+			TimerData timerData = new TimerData(new Timestamp(methodIdents[i]), 1L, 2L, methodIdents[i]);
+			timerData.setCount(1L);
+			timerData.setDuration(methodIdents[i]);
+			data[i] = timerData;
+		}
+		return Arrays.asList(data);
+	}
+
+	public static class Append extends DataSpillQueueTest {
+
+		@Test
+		public void appendPeekRemove() {
+			List<DefaultData> data = data(1L, 2L);
+			queue.setCapacity(1024 * 1024);
+
+			queue.append(data);
+
+			assertThat(queue.isEmpty(), is(false));
+			assertThat(file.exists(), is(true));
+			verify(statsLogger).dataSpilled(eq(queue.getSize()), eq(queue.getSize()));
+			assertThat(queue.peek(), is(data));
+
+			queue.remove();
+
+			assertThat(queue.isEmpty(), is(true));
+			assertThat(queue.getSize(), is(0L));
+			assertThat(queue.peek(), is(nullValue()));
+			verify(statsLogger).dataReplayed(anyLong(), eq(0L));
+			verify(statsLogger).spillDrained(anyLong(), anyLong());
+		}
+
+		@Test
+		public void order() {
+			queue.setCapacity(1024 * 1024);
+
+			queue.append(data(1L));
+			queue.append(data(2L));
+			queue.append(data(3L));
+
+			assertThat(queue.peek(), is(data(1L)));
+			queue.remove();
+			assertThat(queue.peek(), is(data(2L)));
+			queue.remove();
+			assertThat(queue.peek(), is(data(3L)));
+			queue.remove();
+			assertThat(queue.isEmpty(), is(true));
+		}
+
+		@Test
+		public void evictOldest() throws Exception {
+			queue.setCapacity(1024 * 1024);
+			queue.append(data(1L, 2L));
+			long recordSize = queue.getSize();
+			queue.destroy();
+			file.delete();
+
+			// room for two records only
+			queue.setCapacity((recordSize * 2) + 1);
+			queue.append(data(1L, 2L));
+			queue.append(data(3L, 4L));
+			queue.append(data(5L, 6L));
+
+			verify(statsLogger).spillEvicted(2, recordSize);
+			assertThat(queue.peek(), is(data(3L, 4L)));
+			queue.remove();
+			assertThat(queue.peek(), is(data(5L, 6L)));
+		}
+
+		@Test
+		public void wrapAround() throws Exception {
+			queue.setCapacity(1024 * 1024);
+			queue.append(data(1L));
+			long recordSize = queue.getSize();
+			queue.destroy();
+			file.delete();
+
+			// capacity not aligned to the record size so that records wrap
+			queue.setCapacity((recordSize * 3) - 5);
+			for (long i = 0; i < 20; i++) {
+				queue.append(data(i));
+				queue.append(data(i + 100));
+				assertThat(queue.peek(), is(data(i)));
+				queue.remove();
+				assertThat(queue.peek(), is(data(i + 100)));
+				queue.remove();
+			}
+			assertThat(queue.isEmpty(), is(true));
+		}
+
+		@Test
+		public void tooLarge() {
+			queue.setCapacity(16);
+
+			queue.append(data(1L, 2L));
+
+			verify(statsLogger).spillEvicted(eq(2), anyLong());
+			assertThat(queue.isEmpty(), is(true));
+		}
+
+		@Test
+		public void disabled() {
+			queue.setCapacity(0);
+
+			queue.append(data(1L, 2L));
+
+			verify(statsLogger).dataDropped(2);
+			assertThat(queue.isEmpty(), is(true));
+			assertThat(file.exists(), is(false));
+		}
+
+	}
+
+	public static class StaleData extends DataSpillQueueTest {
+
+		@Test
+		public void otherPlatformDropped() {
+			when(platformManager.isPlatformRegistered()).thenReturn(true);
+			when(platformManager.getPlatformId()).thenReturn(1L);
+			TimerData otherPlatform = new TimerData(new Timestamp(3L), 5L, 2L, 3L);
+			List<DefaultData> data = new ArrayList<DefaultData>(data(1L, 2L));
+			data.add(otherPlatform);
+			queue.setCapacity(1024 * 1024);
+			queue.append(data);
+
+			List<DefaultData> replayed = queue.peek();
+
+			assertThat(replayed, is(data(1L, 2L)));
+			verify(statsLogger).dataDropped(1);
+			verify(log).warn(contains("platform ident"));
+		}
+
+		@Test
+		public void notRegisteredNotChecked() {
+			queue.setCapacity(1024 * 1024);
+			queue.append(data(1L));
+
+			assertThat(queue.peek(), is(data(1L)));
+			verify(platformManager, never()).getPlatformId();
+		}
+	}
+
+	public static class Persistence extends DataSpillQueueTest {
+
+		@Test
+		public void reopened() throws Exception {
+			queue.setCapacity(1024 * 1024);
+			queue.append(data(1L));
+			queue.append(data(2L));
+			queue.destroy();
+
+			assertThat(file.exists(), is(true));
+			queue.setCapacity(1024 * 1024);
+
+			assertThat(queue.isEmpty(), is(false));
+			assertThat(queue.peek(), is(data(1L)));
+			queue.remove();
+			assertThat(queue.peek(), is(data(2L)));
+		}
+
+		@Test
+		public void capacityChanged() throws Exception {
+			queue.setCapacity(1024 * 1024);
+			queue.append(data(1L));
+			queue.destroy();
+
+			queue.setCapacity(2048 * 1024);
+
+			// file keeps its capacity until drained
+			assertThat(queue.isEmpty(), is(false));
+			assertThat(file.length(), is((long) DataSpillQueue.HEADER_SIZE + (1024 * 1024)));
+			verify(log).info(contains("keeps its capacity"));
+			assertThat(queue.peek(), is(data(1L)));
+
+			queue.remove();
+
+			// recreated with the configured capacity
+			assertThat(file.exists(), is(false));
+			queue.append(data(2L));
+			assertThat(file.length(), is((long) DataSpillQueue.HEADER_SIZE + (2048 * 1024)));
+			assertThat(queue.peek(), is(data(2L)));
+		}
+
+		@Test
+		public void emptyFileDeleted() throws Exception {
+			queue.setCapacity(1024 * 1024);
+			queue.append(data(1L));
+			queue.remove();
+
+			queue.destroy();
+
+			assertThat(file.exists(), is(false));
+		}
+
+		@Test
+		public void noFileNotOpened() {
+			queue.setCapacity(1024 * 1024);
+
+			assertThat(queue.isEmpty(), is(true));
+			assertThat(file.exists(), is(false));
+			verifyZeroInteractions(prototypesProvider);
+		}
+
+	}
+
+}
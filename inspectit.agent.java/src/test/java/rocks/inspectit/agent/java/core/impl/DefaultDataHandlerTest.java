@@ -4,8 +4,18 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -14,8 +24,12 @@ import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -27,7 +41,9 @@ import org.testng.annotations.Test;
 
 import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.connection.ServerUnavailableException;
+import rocks.inspectit.agent.java.core.disruptor.IDisruptorStrategy;
 import rocks.inspectit.agent.java.stats.AgentStatisticsLogger;
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.testbase.TestBase;
 
@@ -47,30 +63,46 @@ public class DefaultDataHandlerTest extends TestBase {
 	@Mock
 	AgentStatisticsLogger statsLogger;
 
+	@Mock
+	ExecutorService dataSenderExecutorService;
+
 	@Mock
 	Logger log;
 
-	public static class OnEvent extends DefaultDataHandlerTest {
+	@Mock
+	IDisruptorStrategy disruptorStrategy;
 
-		@Mock
-		DefaultDataWrapper wrapper;
+	@Mock
+	DataSpillQueue dataSpillQueue;
 
-		@Mock
-		DefaultData defaultData;
+	@Mock
+	SentStackTraces sentStackTraces;
 
-		List<DefaultData> sent;
+	@Mock
+	Runnable flushSignal;
 
-		@BeforeMethod
-		public void collectSent() throws ServerUnavailableException {
-			sent = new ArrayList<DefaultData>();
-			doAnswer(new Answer<Void>() {
-				@Override
-				public Void answer(InvocationOnMock invocation) throws Throwable {
-					sent.addAll((Collection<? extends DefaultData>) invocation.getArguments()[0]);
-					return null;
-				}
-			}).when(connection).sendDataObjects(Mockito.<List<DefaultData>> any());
-		}
+	@Mock
+	DefaultDataWrapper wrapper;
+
+	@Mock
+	DefaultData defaultData;
+
+	List<DefaultData> sent;
+
+	@BeforeMethod
+	public void collectSent() throws ServerUnavailableException {
+		when(dataSpillQueue.isEmpty()).thenReturn(true);
+		sent = new ArrayList<DefaultData>();
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				sent.addAll((Collection<? extends DefaultData>) invocation.getArguments()[0]);
+				return null;
+			}
+		}).when(connection).sendDataObjects(Mockito.<List<DefaultData>> any());
+	}
+
+	public static class OnEvent extends DefaultDataHandlerTest {
 
 		@Test
 		public void happyPath() throws ServerUnavailableException {
@@ -82,9 +114,12 @@ public class DefaultDataHandlerTest extends TestBase {
 			verify(connection).isConnected();
 			verify(connection).sendDataObjects(Mockito.<List<DefaultData>> any());
 			verifyNoMoreInteractions(connection);
-			verifyZeroInteractions(statsLogger);
+			verify(statsLogger).batchSent(eq(1), anyLong());
+			verifyNoMoreInteractions(statsLogger);
 			assertThat(sent, hasSize(1));
 			assertThat(sent, hasItem(defaultData));
+			verify(sentStackTraces).sent(Mockito.<List<DefaultData>> any());
+			verify(sentStackTraces, never()).clear();
 		}
 
 		@Test
@@ -107,6 +142,7 @@ public class DefaultDataHandlerTest extends TestBase {
 			verify(statsLogger).dataDropped(1);
 			verify(connection).isConnected();
 			verifyNoMoreInteractions(connection, statsLogger);
+			verify(sentStackTraces).clear();
 		}
 
 		@Test
@@ -121,7 +157,8 @@ public class DefaultDataHandlerTest extends TestBase {
 			verify(connection).isConnected();
 			verify(connection).sendDataObjects(Mockito.<List<DefaultData>> any());
 			verifyNoMoreInteractions(connection);
-			verifyZeroInteractions(statsLogger);
+			verify(statsLogger).batchSent(eq(2), anyLong());
+			verifyNoMoreInteractions(statsLogger);
 			assertThat(sent, hasSize(2));
 			assertThat(sent, hasItems(defaultData, defaultData2));
 		}
@@ -138,11 +175,392 @@ public class DefaultDataHandlerTest extends TestBase {
 			verify(connection, times(2)).isConnected();
 			verify(connection, times(2)).sendDataObjects(Mockito.<List<DefaultData>> any());
 			verifyNoMoreInteractions(connection);
-			verifyZeroInteractions(statsLogger);
+			verify(statsLogger, times(2)).batchSent(eq(1), anyLong());
+			verifyNoMoreInteractions(statsLogger);
 			assertThat(sent, hasSize(2));
 			assertThat(sent, hasItems(defaultData, defaultData2));
 		}
 
 	}
 
+	public static class Pipelined extends DefaultDataHandlerTest {
+
+		@BeforeMethod
+		public void enable() {
+			when(disruptorStrategy.isPipelinedSending()).thenReturn(true);
+			when(disruptorStrategy.getDataBufferSize()).thenReturn(2);
+			handler.configure(disruptorStrategy, flushSignal);
+		}
+
+		@Test
+		public void sentInSenderThread() throws ServerUnavailableException {
+			when(wrapper.getDefaultData()).thenReturn(defaultData);
+			when(connection.isConnected()).thenReturn(true);
+
+			handler.onEvent(wrapper, 0L, true);
+
+			ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+			verify(dataSenderExecutorService).execute(captor.capture());
+			verifyZeroInteractions(connection, statsLogger);
+
+			captor.getValue().run();
+
+			verify(connection).isConnected();
+			verify(connection).sendDataObjects(Mockito.<List<DefaultData>> any());
+			verifyNoMoreInteractions(connection);
+			verify(statsLogger).batchSent(eq(1), anyLong());
+			verifyNoMoreInteractions(statsLogger);
+			assertThat(sent, hasSize(1));
+			assertThat(sent, hasItem(defaultData));
+		}
+
+		@Test
+		public void notEndOfBatch() throws ServerUnavailableException {
+			when(wrapper.getDefaultData()).thenReturn(defaultData);
+
+			handler.onEvent(wrapper, 0L, false);
+
+			verifyZeroInteractions(dataSenderExecutorService, connection, statsLogger);
+		}
+
+		@Test
+		public void coalescedWhenRejected() throws ServerUnavailableException {
+			DefaultData defaultData2 = mock(DefaultData.class);
+			when(wrapper.getDefaultData()).thenReturn(defaultData).thenReturn(defaultData2);
+			when(connection.isConnected()).thenReturn(true);
+			doThrow(RejectedExecutionException.class).doNothing().when(dataSenderExecutorService).execute(any(Runnable.class));
+
+			handler.onEvent(wrapper, 0L, true);
+			handler.onEvent(wrapper, 1L, true);
+
+			ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+			verify(dataSenderExecutorService, times(2)).execute(captor.capture());
+			captor.getValue().run();
+
+			verify(connection).sendDataObjects(Mockito.<List<DefaultData>> any());
+			verify(statsLogger).batchSent(eq(2), anyLong());
+			verifyNoMoreInteractions(statsLogger);
+			assertThat(sent, hasSize(2));
+			assertThat(sent, hasItems(defaultData, defaultData2));
+			verifyZeroInteractions(flushSignal);
+		}
+
+		@Test
+		public void flushSignalAfterRejected() throws ServerUnavailableException {
+			DefaultData defaultData2 = mock(DefaultData.class);
+			when(wrapper.getDefaultData()).thenReturn(defaultData).thenReturn(defaultData2).thenReturn(null);
+			when(connection.isConnected()).thenReturn(true);
+			doNothing().doThrow(RejectedExecutionException.class).doNothing().when(dataSenderExecutorService).execute(any(Runnable.class));
+
+			handler.onEvent(wrapper, 0L, true);
+			handler.onEvent(wrapper, 1L, true);
+
+			// second batch is waiting, sender publishes the signal after the first one
+			ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+			verify(dataSenderExecutorService, times(2)).execute(captor.capture());
+			verifyZeroInteractions(flushSignal);
+			captor.getAllValues().get(0).run();
+			verify(flushSignal).run();
+
+			// signal passes the waiting batch to the sender
+			handler.onEvent(wrapper, 2L, true);
+			verify(dataSenderExecutorService, times(3)).execute(captor.capture());
+			captor.getValue().run();
+
+			assertThat(sent, hasSize(2));
+			assertThat(sent, hasItems(defaultData, defaultData2));
+			verify(flushSignal, times(1)).run();
+		}
+
+		@Test
+		public void flushSignalPassesRejected() throws ServerUnavailableException {
+			DefaultData defaultData2 = mock(DefaultData.class);
+			when(wrapper.getDefaultData()).thenReturn(defaultData).thenReturn(defaultData2).thenReturn(null);
+			when(connection.isConnected()).thenReturn(true);
+			final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+			doNothing().doAnswer(new Answer<Void>() {
+				@Override
+				public Void answer(InvocationOnMock invocation) throws Throwable {
+					// sender finishes the first batch and consumes the flush request before rejecting
+					captor.getAllValues().get(0).run();
+					throw new RejectedExecutionException();
+				}
+			}).doNothing().when(dataSenderExecutorService).execute(captor.capture());
+
+			handler.onEvent(wrapper, 0L, true);
+			handler.onEvent(wrapper, 1L, true);
+			verify(flushSignal).run();
+
+			// signal passes the rejected batch even if more events are following
+			handler.onEvent(wrapper, 2L, false);
+			verify(dataSenderExecutorService, times(3)).execute(any(Runnable.class));
+			captor.getValue().run();
+
+			assertThat(sent, hasSize(2));
+			assertThat(sent, hasItems(defaultData, defaultData2));
+			verify(flushSignal, times(1)).run();
+		}
+
+		@Test
+		public void droppedWhenRejectedAndFull() throws ServerUnavailableException {
+			DefaultData defaultData2 = mock(DefaultData.class);
+			when(wrapper.getDefaultData()).thenReturn(defaultData).thenReturn(defaultData2);
+			doThrow(RejectedExecutionException.class).when(dataSenderExecutorService).execute(any(Runnable.class));
+
+			handler.onEvent(wrapper, 0L, true);
+			handler.onEvent(wrapper, 1L, true);
+
+			verify(statsLogger).dataDropped(2);
+			verifyNoMoreInteractions(statsLogger);
+			verifyZeroInteractions(connection);
+		}
+
+		@Test
+		public void noFlushSignalAfterDropped() throws ServerUnavailableException {
+			DefaultData defaultData2 = mock(DefaultData.class);
+			when(wrapper.getDefaultData()).thenReturn(defaultData).thenReturn(defaultData2);
+			when(connection.isConnected()).thenReturn(true);
+			doNothing().doThrow(RejectedExecutionException.class).when(dataSenderExecutorService).execute(any(Runnable.class));
+			when(disruptorStrategy.getDataBufferSize()).thenReturn(1);
+			handler.configure(disruptorStrategy, flushSignal);
+
+			handler.onEvent(wrapper, 0L, true);
+			handler.onEvent(wrapper, 1L, true);
+
+			ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+			verify(dataSenderExecutorService, times(2)).execute(captor.capture());
+			captor.getAllValues().get(0).run();
+
+			verify(statsLogger).dataDropped(1);
+			verifyZeroInteractions(flushSignal);
+		}
+
+	}
+
+	public static class Batching extends DefaultDataHandlerTest {
+
+		@Test
+		public void maxBatchSize() throws ServerUnavailableException {
+			when(disruptorStrategy.getMaxBatchSize()).thenReturn(2);
+			handler.configure(disruptorStrategy, flushSignal);
+			when(wrapper.getDefaultData()).thenReturn(defaultData);
+			when(connection.isConnected()).thenReturn(true);
+
+			handler.onEvent(wrapper, 0L, false);
+			verifyZeroInteractions(connection);
+			handler.onEvent(wrapper, 1L, false);
+
+			verify(connection).isConnected();
+			verify(connection).sendDataObjects(Mockito.<List<DefaultData>> any());
+			verifyNoMoreInteractions(connection);
+			verify(statsLogger).batchSent(eq(2), anyLong());
+			assertThat(sent, hasSize(2));
+		}
+
+		@Test
+		public void maxBatchBytes() throws ServerUnavailableException {
+			when(disruptorStrategy.getMaxBatchBytes()).thenReturn(1000L);
+			handler.configure(disruptorStrategy, flushSignal);
+			when(defaultData.getObjectSize(Mockito.<IObjectSizes> any(), anyBoolean())).thenReturn(600L);
+			when(wrapper.getDefaultData()).thenReturn(defaultData);
+			when(connection.isConnected()).thenReturn(true);
+
+			handler.onEvent(wrapper, 0L, false);
+			verifyZeroInteractions(connection);
+			handler.onEvent(wrapper, 1L, false);
+
+			verify(connection).sendDataObjects(Mockito.<List<DefaultData>> any());
+			assertThat(sent, hasSize(2));
+		}
+
+		@Test
+		public void lingering() throws Exception {
+			when(disruptorStrategy.getMaxLingerTime()).thenReturn(50L);
+			handler.configure(disruptorStrategy, flushSignal);
+			DefaultDataWrapper flushWrapper = mock(DefaultDataWrapper.class);
+			when(wrapper.getDefaultData()).thenReturn(defaultData);
+			when(connection.isConnected()).thenReturn(true);
+
+			handler.onEvent(wrapper, 0L, true);
+			verifyZeroInteractions(connection);
+
+			Thread.sleep(60L);
+			handler.onEvent(flushWrapper, 1L, true);
+
+			verify(connection).sendDataObjects(Mockito.<List<DefaultData>> any());
+			assertThat(sent, hasSize(1));
+			assertThat(sent, hasItem(defaultData));
+		}
+
+		@Test
+		public void flushSignalWithEmptyBatch() {
+			DefaultDataWrapper flushWrapper = mock(DefaultDataWrapper.class);
+
+			handler.onEvent(flushWrapper, 0L, true);
+
+			verifyZeroInteractions(connection, statsLogger);
+		}
+
+	}
+
+	public static class Overflow extends DefaultDataHandlerTest {
+
+		@BeforeMethod
+		public void enable() {
+			when(disruptorStrategy.getOverflowBufferSize()).thenReturn(2);
+			handler.configure(disruptorStrategy, flushSignal);
+		}
+
+		@Test
+		public void sentAfterReconnect() throws ServerUnavailableException {
+			DefaultData defaultData2 = mock(DefaultData.class);
+			when(wrapper.getDefaultData()).thenReturn(defaultData).thenReturn(defaultData2);
+			when(connection.isConnected()).thenReturn(false).thenReturn(true);
+
+			handler.onEvent(wrapper, 0L, true);
+			verifyZeroInteractions(statsLogger);
+			handler.onEvent(wrapper, 1L, true);
+
+			verify(connection, times(2)).sendDataObjects(Mockito.<List<DefaultData>> any());
+			assertThat(sent, hasSize(2));
+			assertThat(sent.get(0), is(defaultData));
+			assertThat(sent.get(1), is(defaultData2));
+		}
+
+		@Test
+		public void sendingFailed() throws ServerUnavailableException {
+			DefaultData defaultData2 = mock(DefaultData.class);
+			when(wrapper.getDefaultData()).thenReturn(defaultData).thenReturn(defaultData2);
+			when(connection.isConnected()).thenReturn(true);
+			doThrow(new ServerUnavailableException()).doAnswer(new Answer<Void>() {
+				@Override
+				public Void answer(InvocationOnMock invocation) throws Throwable {
+					sent.addAll((Collection<? extends DefaultData>) invocation.getArguments()[0]);
+					return null;
+				}
+			}).when(connection).sendDataObjects(Mockito.<List<DefaultData>> any());
+
+			handler.onEvent(wrapper, 0L, true);
+			handler.onEvent(wrapper, 1L, true);
+
+			assertThat(sent, hasSize(2));
+			assertThat(sent.get(0), is(defaultData));
+			assertThat(sent.get(1), is(defaultData2));
+			verify(statsLogger, never()).dataDropped(anyInt());
+			// stack traces sent before the failure might be lost
+			verify(sentStackTraces).clear();
+		}
+
+		@Test
+		public void oldestDropped() throws ServerUnavailableException {
+			DefaultData defaultData2 = mock(DefaultData.class);
+			DefaultData defaultData3 = mock(DefaultData.class);
+			when(wrapper.getDefaultData()).thenReturn(defaultData).thenReturn(defaultData2).thenReturn(defaultData3);
+			when(connection.isConnected()).thenReturn(false);
+
+			handler.onEvent(wrapper, 0L, true);
+			handler.onEvent(wrapper, 1L, true);
+			handler.onEvent(wrapper, 2L, true);
+
+			verify(statsLogger).dataDropped(1);
+
+			when(connection.isConnected()).thenReturn(true);
+			DefaultDataWrapper flushWrapper = mock(DefaultDataWrapper.class);
+			DefaultData defaultData4 = mock(DefaultData.class);
+			when(flushWrapper.getDefaultData()).thenReturn(defaultData4);
+			handler.onEvent(flushWrapper, 3L, true);
+
+			assertThat(sent, hasSize(3));
+			assertThat(sent.get(0), is(defaultData2));
+			assertThat(sent.get(1), is(defaultData3));
+			assertThat(sent.get(2), is(defaultData4));
+		}
+
+	}
+
+	public static class Spill extends DefaultDataHandlerTest {
+
+		@BeforeMethod
+		public void enable() {
+			when(disruptorStrategy.getOverflowBufferSize()).thenReturn(1);
+			when(disruptorStrategy.getSpillFileSize()).thenReturn(1024L);
+			when(dataSpillQueue.isEnabled()).thenReturn(true);
+			handler.configure(disruptorStrategy, flushSignal);
+		}
+
+		@Test
+		public void configured() {
+			verify(dataSpillQueue).setCapacity(1024L);
+		}
+
+		@Test
+		public void spilledWhenOverflowFull() throws ServerUnavailableException {
+			DefaultData defaultData2 = mock(DefaultData.class);
+			when(wrapper.getDefaultData()).thenReturn(defaultData).thenReturn(defaultData2);
+			when(connection.isConnected()).thenReturn(false);
+
+			handler.onEvent(wrapper, 0L, true);
+			verify(dataSpillQueue, never()).append(Mockito.<List<DefaultData>> any());
+			handler.onEvent(wrapper, 1L, true);
+
+			ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+			verify(dataSpillQueue).append(captor.capture());
+			assertThat((List<DefaultData>) captor.getValue(), hasSize(1));
+			assertThat((DefaultData) captor.getValue().get(0), is(defaultData));
+			verify(statsLogger, never()).dataDropped(anyInt());
+		}
+
+		@Test
+		public void replayedFirst() throws ServerUnavailableException {
+			DefaultData spilledData = mock(DefaultData.class);
+			when(dataSpillQueue.isEmpty()).thenReturn(false, true);
+			when(dataSpillQueue.peek()).thenReturn(Collections.singletonList(spilledData));
+			when(wrapper.getDefaultData()).thenReturn(defaultData);
+			when(connection.isConnected()).thenReturn(true);
+
+			handler.onEvent(wrapper, 0L, true);
+
+			verify(dataSpillQueue).remove();
+			assertThat(sent, hasSize(2));
+			assertThat(sent.get(0), is(spilledData));
+			assertThat(sent.get(1), is(defaultData));
+		}
+
+		@Test
+		public void queuedAfterSpilled() throws ServerUnavailableException {
+			DefaultData spilledData = mock(DefaultData.class);
+			when(dataSpillQueue.isEmpty()).thenReturn(false);
+			when(dataSpillQueue.peek()).thenReturn(Collections.singletonList(spilledData));
+			when(wrapper.getDefaultData()).thenReturn(defaultData);
+			when(connection.isConnected()).thenReturn(true);
+
+			handler.onEvent(wrapper, 0L, true);
+
+			verify(dataSpillQueue, times(DefaultDataHandler.MAX_REPLAY_RECORDS)).remove();
+			assertThat(sent, hasSize(DefaultDataHandler.MAX_REPLAY_RECORDS));
+			assertThat(sent, not(hasItem(defaultData)));
+			verify(statsLogger, never()).batchSent(anyInt(), anyLong());
+		}
+
+		@Test
+		public void replayedOnConnectionRestored() throws ServerUnavailableException {
+			DefaultData spilledData = mock(DefaultData.class);
+			when(dataSpillQueue.isEmpty()).thenReturn(false, true);
+			when(dataSpillQueue.peek()).thenReturn(Collections.singletonList(spilledData));
+			when(connection.isConnected()).thenReturn(true);
+
+			handler.connectionRestored();
+
+			verify(flushSignal).run();
+
+			DefaultDataWrapper flushWrapper = mock(DefaultDataWrapper.class);
+			handler.onEvent(flushWrapper, 0L, true);
+
+			verify(dataSpillQueue).remove();
+			assertThat(sent, hasSize(1));
+			assertThat(sent.get(0), is(spilledData));
+		}
+
+	}
+
 }
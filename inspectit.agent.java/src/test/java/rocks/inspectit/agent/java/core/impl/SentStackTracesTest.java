@@ -0,0 +1,97 @@
+package rocks.inspectit.agent.java.core.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Collections;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class SentStackTracesTest extends TestBase {
+
+	SentStackTraces sentStackTraces;
+
+	long startTime;
+
+	@BeforeMethod
+	public void init() {
+		sentStackTraces = new SentStackTraces();
+		sentStackTraces.activate();
+		startTime = System.currentTimeMillis();
+	}
+
+	static ExceptionSensorData exceptionData(long fingerprint, String stackTrace) {
+		ExceptionSensorData exceptionSensorData = new ExceptionSensorData();
+		exceptionSensorData.setFingerprint(fingerprint);
+		exceptionSensorData.setStackTrace(stackTrace);
+		return exceptionSensorData;
+	}
+
+	public static class Sent extends SentStackTracesTest {
+
+		@Test
+		public void withStackTrace() {
+			sentStackTraces.sent(Collections.singletonList(exceptionData(1L, "trace")));
+
+			assertThat(sentStackTraces.isSentSince(1L, startTime), is(true));
+			assertThat(sentStackTraces.isSentSince(2L, startTime), is(false));
+		}
+
+		@Test
+		public void withoutStackTrace() {
+			sentStackTraces.sent(Collections.singletonList(exceptionData(1L, null)));
+
+			assertThat(sentStackTraces.isSentSince(1L, startTime), is(false));
+		}
+
+		@Test
+		public void sentBeforeTime() {
+			sentStackTraces.sent(Collections.singletonList(exceptionData(1L, "trace")));
+
+			assertThat(sentStackTraces.isSentSince(1L, System.currentTimeMillis() + 1), is(false));
+		}
+
+		@Test
+		public void nestedInInvocation() {
+			InvocationSequenceData child = new InvocationSequenceData();
+			child.addExceptionSensorData(exceptionData(1L, "trace"));
+			InvocationSequenceData invocation = new InvocationSequenceData();
+			invocation.getNestedSequences().add(child);
+
+			sentStackTraces.sent(Collections.singletonList(invocation));
+
+			assertThat(sentStackTraces.isSentSince(1L, startTime), is(true));
+		}
+
+		@Test
+		public void notActive() {
+			sentStackTraces = new SentStackTraces();
+
+			sentStackTraces.sent(Collections.singletonList(exceptionData(1L, "trace")));
+
+			assertThat(sentStackTraces.isSentSince(1L, startTime), is(false));
+		}
+	}
+
+	public static class Clear extends SentStackTracesTest {
+
+		@Test
+		public void clear() {
+			sentStackTraces.sent(Collections.singletonList(exceptionData(1L, "trace")));
+
+			sentStackTraces.clear();
+
+			assertThat(sentStackTraces.isSentSince(1L, startTime), is(false));
+		}
+	}
+}
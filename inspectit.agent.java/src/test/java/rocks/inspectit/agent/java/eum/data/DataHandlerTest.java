@@ -1,14 +1,22 @@
 package rocks.inspectit.agent.java.eum.data;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.List;
 
 import org.codehaus.jackson.JsonNode;
@@ -25,14 +33,17 @@ import org.slf4j.Logger;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.config.StorageException;
 import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.data.eum.Beacon;
 import rocks.inspectit.shared.all.communication.data.eum.UserSessionInfo;
+import rocks.inspectit.shared.all.instrumentation.config.impl.AgentEndUserMonitoringConfig;
 import rocks.inspectit.shared.all.testbase.TestBase;
 
-@SuppressWarnings({ "PMD" })
+@SuppressWarnings({ "PMD", "unchecked", "rawtypes" })
 public class DataHandlerTest extends TestBase {
 
 	private static final String MODULES_DEMOVALUE = "m12";
@@ -51,7 +62,10 @@ public class DataHandlerTest extends TestBase {
 	@Mock
 	ICoreService coreService;
 
-	ArgumentCaptor<DefaultData> sentElements;
+	@Mock
+	IConfigurationStorage configurationStorage;
+
+	ArgumentCaptor<List> sentElements;
 
 	@InjectMocks
 	DataHandler dataHandler;
@@ -60,8 +74,8 @@ public class DataHandlerTest extends TestBase {
 	@BeforeMethod
 	public void initMocks() {
 		when(platformManager.getPlatformId()).thenReturn(PLATFORM_ID);
-		sentElements = ArgumentCaptor.forClass(DefaultData.class);
-		doNothing().when(coreService).addDefaultData(sentElements.capture());
+		sentElements = ArgumentCaptor.forClass(List.class);
+		doNothing().when(coreService).addAllDefaultData(sentElements.capture());
 	}
 
 
@@ -85,8 +99,8 @@ public class DataHandlerTest extends TestBase {
 
 			String beaconJson = beacon.toString();
 			dataHandler.insertBeacon(beaconJson);
-			Mockito.verify(coreService, Mockito.times(1)).addDefaultData(any(DefaultData.class));
-			List<DefaultData> sent = sentElements.getAllValues();
+			Mockito.verify(coreService, Mockito.times(1)).addAllDefaultData(anyListOf(DefaultData.class));
+			List<DefaultData> sent = sentElements.getValue();
 
 			assertThat(sent.size(), equalTo(1));
 			assertThat(sent.get(0), instanceOf(UserSessionInfo.class));
@@ -110,6 +124,7 @@ public class DataHandlerTest extends TestBase {
 			String beaconJson = beacon.toString();
 			String responseJson = dataHandler.insertBeacon(beaconJson);
 			Mockito.verify(coreService, Mockito.times(0)).addDefaultData(any(DefaultData.class));
+			Mockito.verify(coreService, Mockito.times(0)).addAllDefaultData(anyListOf(DefaultData.class));
 
 			JsonNode response = (new ObjectMapper()).readTree(responseJson);
 			assertThat(response, instanceOf(ObjectNode.class));
@@ -121,6 +136,7 @@ public class DataHandlerTest extends TestBase {
 		public void testInvalidBeaconSyntax() {
 			dataHandler.insertBeacon("nope { }");
 			Mockito.verify(coreService, Mockito.times(0)).addDefaultData(any(DefaultData.class));
+			Mockito.verify(coreService, Mockito.times(0)).addAllDefaultData(anyListOf(DefaultData.class));
 
 		}
 
@@ -144,7 +160,140 @@ public class DataHandlerTest extends TestBase {
 
 			dataHandler.insertBeacon(beaconJson);
 			Mockito.verify(coreService, Mockito.times(0)).addDefaultData(any(DefaultData.class));
+			Mockito.verify(coreService, Mockito.times(0)).addAllDefaultData(anyListOf(DefaultData.class));
+
+		}
+
+		@Test
+		public void streamedFromReader() {
+			String beaconJson = "{\"data\":[{\"type\":\"metaInfo\",\"browser\":\"Firefox\"}],\"unknown\":{\"a\":[1,2]},\"sessionID\":\"" + Long.toString(SESSID_DEMOVALUE, 16)
+					+ "\",\"tabID\":\"" + Long.toString(TABID_DEMOVALUE, 16) + "\"}";
+
+			String response = dataHandler.insertBeacon(new StringReader(beaconJson));
+
+			assertThat(response, equalTo("{}"));
+			verify(coreService).addAllDefaultData(anyListOf(DefaultData.class));
+			List<DefaultData> sent = sentElements.getValue();
+			assertThat(sent.size(), equalTo(1));
+			UserSessionInfo sentInfo = (UserSessionInfo) sent.get(0);
+			assertThat(sentInfo.getBrowser(), equalTo("Firefox"));
+			// ids are assigned even if they come after the data
+			assertThat(sentInfo.getSessionId(), equalTo(SESSID_DEMOVALUE));
+			assertThat(sentInfo.getPlatformIdent(), equalTo(PLATFORM_ID));
+		}
+
+		@Test
+		public void invalidElementNothingSent() {
+			String beaconJson = "{\"sessionID\":\"" + Long.toString(SESSID_DEMOVALUE, 16) + "\",\"tabID\":\"" + Long.toString(TABID_DEMOVALUE, 16)
+					+ "\",\"data\":[{\"type\":\"metaInfo\",\"browser\":\"Firefox\"},{\"type\":\"metaInfo\",\"browser\":";
+
+			dataHandler.insertBeacon(new StringReader(beaconJson));
+
+			verify(coreService, never()).addAllDefaultData(anyListOf(DefaultData.class));
+		}
+
+		@Test
+		public void invalidId() {
+			String beaconJson = "{\"sessionID\":\"xyz\",\"data\":[{\"type\":\"metaInfo\"}]}";
+
+			String response = dataHandler.insertBeacon(new StringReader(beaconJson));
+
+			assertThat(response, equalTo("{}"));
+			verify(coreService, never()).addAllDefaultData(anyListOf(DefaultData.class));
+		}
+	}
 
+	public static class AfterPropertiesSet extends DataHandlerTest {
+
+		private static final String BEACON_TWO_ELEMENTS = "{\"sessionID\":\"" + Long.toString(SESSID_DEMOVALUE, 16) + "\",\"tabID\":\"" + Long.toString(TABID_DEMOVALUE, 16)
+				+ "\",\"data\":[{\"type\":\"metaInfo\",\"browser\":\"Firefox\"},{\"type\":\"metaInfo\",\"browser\":\"Chrome\"}]}";
+
+		@Test
+		public void configuredSessionBeaconLimit() throws Exception {
+			AgentEndUserMonitoringConfig eumConfig = new AgentEndUserMonitoringConfig();
+			eumConfig.setSessionBeaconLimit(1);
+			when(configurationStorage.getEndUserMonitoringConfig()).thenReturn(eumConfig);
+
+			dataHandler.afterPropertiesSet();
+			dataHandler.insertBeacon(BEACON_TWO_ELEMENTS);
+
+			verify(coreService).addAllDefaultData(anyListOf(DefaultData.class));
+			assertThat(sentElements.getValue().size(), equalTo(1));
+		}
+
+		@Test
+		public void noSessionBeaconLimit() throws Exception {
+			AgentEndUserMonitoringConfig eumConfig = new AgentEndUserMonitoringConfig();
+			eumConfig.setSessionBeaconLimit(0);
+			when(configurationStorage.getEndUserMonitoringConfig()).thenReturn(eumConfig);
+
+			dataHandler.afterPropertiesSet();
+			dataHandler.insertBeacon(BEACON_TWO_ELEMENTS);
+
+			verify(coreService).addAllDefaultData(anyListOf(DefaultData.class));
+			assertThat(sentElements.getValue().size(), equalTo(2));
+		}
+
+		@Test
+		public void configurationNotAvailable() throws Exception {
+			when(configurationStorage.getEndUserMonitoringConfig()).thenThrow(StorageException.class);
+
+			dataHandler.afterPropertiesSet();
+			dataHandler.insertBeacon(BEACON_TWO_ELEMENTS);
+
+			verify(coreService).addAllDefaultData(anyListOf(DefaultData.class));
+			assertThat(sentElements.getValue().size(), equalTo(2));
+		}
+
+		@Test
+		public void newSessionsLimitedByRemoteAddress() throws Exception {
+			AgentEndUserMonitoringConfig eumConfig = new AgentEndUserMonitoringConfig();
+			eumConfig.setSessionBeaconLimit(2);
+			when(configurationStorage.getEndUserMonitoringConfig()).thenReturn(eumConfig);
+			String newSessionBeacon = "{\"sessionID\":\"" + Long.toString(Beacon.REQUEST_NEW_SESSION_ID_MARKER, 16) + "\",\"data\":[]}";
+
+			dataHandler.afterPropertiesSet();
+			String first = dataHandler.insertBeacon(new StringReader(newSessionBeacon), "10.0.0.1");
+			String second = dataHandler.insertBeacon(new StringReader(newSessionBeacon), "10.0.0.1");
+			String third = dataHandler.insertBeacon(new StringReader(newSessionBeacon), "10.0.0.1");
+			String otherClient = dataHandler.insertBeacon(new StringReader(newSessionBeacon), "10.0.0.2");
+
+			assertThat(first, containsString("sessionID"));
+			assertThat(second, containsString("sessionID"));
+			assertThat(third, equalTo("{}"));
+			assertThat(otherClient, containsString("sessionID"));
+		}
+
+		@Test
+		public void limitCheckedBeforeParsing() throws Exception {
+			AgentEndUserMonitoringConfig eumConfig = new AgentEndUserMonitoringConfig();
+			eumConfig.setSessionBeaconLimit(1);
+			when(configurationStorage.getEndUserMonitoringConfig()).thenReturn(eumConfig);
+			String newSessionBeacon = "{\"sessionID\":\"" + Long.toString(Beacon.REQUEST_NEW_SESSION_ID_MARKER, 16) + "\",\"data\":[]}";
+			Reader reader = mock(Reader.class);
+
+			dataHandler.afterPropertiesSet();
+			dataHandler.insertBeacon(new StringReader(newSessionBeacon), "10.0.0.1");
+			String response = dataHandler.insertBeacon(reader, "10.0.0.1");
+
+			assertThat(response, equalTo("{}"));
+			verifyZeroInteractions(reader);
+		}
+
+		@Test
+		public void elementsOverLimitNotBound() throws Exception {
+			AgentEndUserMonitoringConfig eumConfig = new AgentEndUserMonitoringConfig();
+			eumConfig.setSessionBeaconLimit(1);
+			when(configurationStorage.getEndUserMonitoringConfig()).thenReturn(eumConfig);
+			// second element is of an unknown type, it would fail the beacon if bound
+			String beaconJson = "{\"sessionID\":\"" + Long.toString(SESSID_DEMOVALUE, 16) + "\",\"tabID\":\"" + Long.toString(TABID_DEMOVALUE, 16)
+					+ "\",\"data\":[{\"type\":\"metaInfo\",\"browser\":\"Firefox\"},{\"type\":\"unkownType\"}]}";
+
+			dataHandler.afterPropertiesSet();
+			dataHandler.insertBeacon(new StringReader(beaconJson), "10.0.0.1");
+
+			verify(coreService).addAllDefaultData(anyListOf(DefaultData.class));
+			assertThat(sentElements.getValue().size(), equalTo(1));
 		}
 	}
 
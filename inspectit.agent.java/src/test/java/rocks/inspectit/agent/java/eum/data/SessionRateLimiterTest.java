@@ -0,0 +1,129 @@
+package rocks.inspectit.agent.java.eum.data;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class SessionRateLimiterTest extends TestBase {
+
+	static final long SESSION = 7L;
+
+	public static class Acquire extends SessionRateLimiterTest {
+
+		@Test
+		public void withinLimit() {
+			SessionRateLimiter limiter = new SessionRateLimiter(10);
+
+			assertThat(limiter.acquire(SESSION, 4, 0L), is(4));
+			assertThat(limiter.acquire(SESSION, 6, 10L), is(6));
+		}
+
+		@Test
+		public void overLimit() {
+			SessionRateLimiter limiter = new SessionRateLimiter(10);
+
+			assertThat(limiter.acquire(SESSION, 8, 0L), is(8));
+			assertThat(limiter.acquire(SESSION, 8, 10L), is(2));
+			assertThat(limiter.acquire(SESSION, 1, 20L), is(0));
+		}
+
+		@Test
+		public void nextWindow() {
+			SessionRateLimiter limiter = new SessionRateLimiter(10);
+
+			limiter.acquire(SESSION, 10, 0L);
+
+			assertThat(limiter.acquire(SESSION, 5, SessionRateLimiter.WINDOW_LENGTH), is(5));
+		}
+
+		@Test
+		public void sessionsSeparated() {
+			SessionRateLimiter limiter = new SessionRateLimiter(10);
+
+			limiter.acquire(SESSION, 10, 0L);
+
+			assertThat(limiter.acquire(SESSION + 1, 10, 0L), is(10));
+		}
+
+		@Test
+		public void noLimit() {
+			SessionRateLimiter limiter = new SessionRateLimiter(0);
+
+			assertThat(limiter.acquire(SESSION, 1000, 0L), is(1000));
+			assertThat(limiter.acquire(SESSION, 1000, 0L), is(1000));
+		}
+
+		@Test
+		public void noKey() {
+			SessionRateLimiter limiter = new SessionRateLimiter(10);
+
+			assertThat(limiter.acquire(null, 1000, 0L), is(1000));
+			assertThat(limiter.getTrackedClients(), is(0));
+		}
+
+		@Test
+		public void overWindowsEvicted() {
+			SessionRateLimiter limiter = new SessionRateLimiter(10);
+
+			limiter.acquire(SESSION, 10, 0L);
+			limiter.acquire(SESSION + 1, 10, 500L);
+			limiter.acquire(SESSION + 2, 10, SessionRateLimiter.WINDOW_LENGTH);
+
+			assertThat(limiter.getTrackedClients(), is(2));
+			assertThat(limiter.available(SESSION + 1, SessionRateLimiter.WINDOW_LENGTH), is(0));
+		}
+
+		@Test
+		public void leastRecentlyUsedEvicted() {
+			SessionRateLimiter limiter = new SessionRateLimiter(10);
+
+			for (int i = 0; i < SessionRateLimiter.MAX_TRACKED_CLIENTS; i++) {
+				limiter.acquire(Long.valueOf(i), 10, 0L);
+			}
+			// touch the first one so that the second is the least recently used
+			limiter.acquire(0L, 1, 0L);
+			limiter.acquire("10.0.0.1", 10, 0L);
+
+			assertThat(limiter.getTrackedClients(), is(SessionRateLimiter.MAX_TRACKED_CLIENTS));
+			assertThat(limiter.available(0L, 0L), is(0));
+			assertThat(limiter.available(1L, 0L), is(10));
+		}
+	}
+
+	public static class Available extends SessionRateLimiterTest {
+
+		@Test
+		public void notAcquired() {
+			SessionRateLimiter limiter = new SessionRateLimiter(10);
+
+			limiter.acquire(SESSION, 4, 0L);
+
+			assertThat(limiter.available(SESSION, 10L), is(6));
+			assertThat(limiter.available(SESSION, 10L), is(6));
+			assertThat(limiter.available(SESSION, SessionRateLimiter.WINDOW_LENGTH), is(10));
+		}
+
+		@Test
+		public void notTracked() {
+			SessionRateLimiter limiter = new SessionRateLimiter(10);
+
+			assertThat(limiter.available(SESSION, 0L), is(10));
+			assertThat(limiter.getTrackedClients(), is(0));
+		}
+
+		@Test
+		public void noLimit() {
+			SessionRateLimiter limiter = new SessionRateLimiter(0);
+
+			assertThat(limiter.available(SESSION, 0L), is(Integer.MAX_VALUE));
+		}
+	}
+}
@@ -119,4 +119,90 @@ public class DecodingHtmlScriptInjectorTest extends TestBase {
 
 	}
 
+	public static class PerformBinaryInjection extends DecodingHtmlScriptInjectorTest {
+
+		@BeforeMethod
+		public void initBinary() {
+			injector = new DecodingHtmlScriptInjector(TAG_TO_INJECT, "UTF-8", true);
+		}
+
+		@Test
+		public void testUTF8() throws UnsupportedEncodingException {
+			String src = loadHtmlSource("/html/testCase-HeadInjection.html");
+			String expectedResult = getExpectedResult(src);
+
+			String result = new String(runInjector(src.getBytes("UTF-8")), "UTF-8");
+			assertThat(result, equalTo(expectedResult));
+		}
+
+		@Test
+		public void testNonAsciiCharactersBeforeInjectionPoint() throws UnsupportedEncodingException {
+			String src = "<!-- äöü --><html><head>" + INJECTION_POS_MARKER + "<title>äöü</title></head></html>";
+			String expectedResult = getExpectedResult(src);
+
+			String result = new String(runInjector(src.getBytes("UTF-8")), "UTF-8");
+			assertThat(result, equalTo(expectedResult));
+		}
+
+		@Test
+		public void testNonAsciiTag() throws UnsupportedEncodingException {
+			injector = new DecodingHtmlScriptInjector("<script>'ü'</script>", "UTF-8", true);
+			byte[] source = "<html><head></head></html>".getBytes("UTF-8");
+
+			byte[] result = injector.performInjection(source);
+
+			assertThat(new String(result, "UTF-8"), equalTo("<html><head><script>'ü'</script></head></html>"));
+		}
+
+		@Test
+		public void testISO88591() throws UnsupportedEncodingException {
+			String encoding = "ISO-8859-1";
+			injector.setCharacterEncoding(encoding);
+			String src = loadHtmlSource("/html/testCase-BodyInjection.html");
+			String expectedResult = getExpectedResult(src);
+
+			String result = new String(runInjector(src.getBytes(encoding)), encoding);
+			assertThat(result, equalTo(expectedResult));
+		}
+
+		@Test
+		public void testNotAsciiCompatibleCharsetDecoded() throws UnsupportedEncodingException {
+			String encoding = "UTF-16BE";
+			injector.setCharacterEncoding(encoding);
+			String src = "<html><head>" + INJECTION_POS_MARKER + "</head></html>";
+			String expectedResult = getExpectedResult(src);
+
+			String result = new String(runInjector(src.getBytes(encoding)), encoding);
+			assertThat(result, equalTo(expectedResult));
+		}
+
+		@Test
+		public void testSplitCharacter() throws UnsupportedEncodingException {
+			byte[] character = "ü".getBytes("UTF-8"); // "ü" is a two-byte char
+
+			assertThat(injector.performInjection("<!-- ".getBytes("UTF-8")), equalTo(null));
+			assertThat(injector.performInjection(character, 0, 1), equalTo(null));
+			assertThat(injector.performInjection(character, 1, 1), equalTo(null));
+			assertThat(injector.hasTerminated(), equalTo(false));
+
+			byte[] result = injector.performInjection(" --><html><head>".getBytes("UTF-8"));
+			assertThat(new String(result, "UTF-8"), equalTo(" --><html><head>" + TAG_TO_INJECT));
+		}
+
+		@Test
+		public void testTerminatedAfterInjection() throws UnsupportedEncodingException {
+			assertThat(injector.performInjection("<html><head>".getBytes("UTF-8")), equalTo(("<html><head>" + TAG_TO_INJECT).getBytes("UTF-8")));
+			assertThat(injector.hasTerminated(), equalTo(true));
+			assertThat(injector.performInjection("<head>".getBytes("UTF-8")), equalTo(null));
+		}
+
+		@Test
+		public void testNoDoubleInjection() throws UnsupportedEncodingException {
+			String src = "<html><head>" + TAG_TO_INJECT + "</head></html>";
+
+			assertThat(injector.performInjection(src.getBytes("UTF-8")), equalTo(null));
+			assertThat(injector.hasTerminated(), equalTo(true));
+		}
+	}
+
 }
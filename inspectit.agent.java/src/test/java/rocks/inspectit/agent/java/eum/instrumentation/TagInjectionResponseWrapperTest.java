@@ -2,16 +2,20 @@ package rocks.inspectit.agent.java.eum.instrumentation;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 
@@ -112,6 +116,8 @@ public class TagInjectionResponseWrapperTest extends TestBase {
 
 	ByteArrayOutputStream streamResult;
 
+	ServletOutputStream originalStream;
+
 	StringWriter printerResult;
 
 	@Mock
@@ -127,7 +133,7 @@ public class TagInjectionResponseWrapperTest extends TestBase {
 
 	@BeforeMethod
 	public void initMocks() throws IOException {
-		ServletOutputStream stream = new ServletOutputStream() {
+		originalStream = new ServletOutputStream() {
 			@Override
 			public void write(int b) throws IOException {
 				streamResult.write(b);
@@ -143,7 +149,7 @@ public class TagInjectionResponseWrapperTest extends TestBase {
 
 		when(dummyResponse.getCharacterEncoding()).thenReturn(CHARACTER_ENCODING);
 		when(dummyResponse.getWriter()).thenReturn(pw);
-		when(dummyResponse.getOutputStream()).thenReturn(stream);
+		when(dummyResponse.getOutputStream()).thenReturn(originalStream);
 
 	}
 
@@ -287,6 +293,55 @@ public class TagInjectionResponseWrapperTest extends TestBase {
 			assertThat(result, equalTo(NON_HTML_TEST_CASE_A));
 		}
 
+		@SuppressWarnings("unchecked")
+		@Test
+		public void testUpperCaseContentTypeInjection() throws IOException {
+			when(dummyResponse.getContentType()).thenReturn("TEXT/HTML; charset=UTF-8");
+			ArgumentCaptor<TagInjectionOutputStream> streamCaptor = ArgumentCaptor.forClass(TagInjectionOutputStream.class);
+			respWrapper.getOutputStream();
+			verify(linker, times(1)).createProxy(any(Class.class), streamCaptor.capture(), any(ClassLoader.class));
+
+			streamCaptor.getValue().write(HTML_TEST_CASE_A.getBytes(CHARACTER_ENCODING));
+
+			String result = new String(streamResult.toByteArray(), CHARACTER_ENCODING);
+			assertThat(result, equalTo(HTML_TEST_CASE_A_REFERENCE));
+		}
+
+		@SuppressWarnings("unchecked")
+		@Test
+		public void testNonHtmlContentTypeNotWrapped() throws IOException {
+			when(dummyResponse.getContentType()).thenReturn("application/json");
+
+			respWrapper.setContentLength(10);
+			OutputStream stream = respWrapper.getOutputStream();
+
+			assertThat(stream, is(sameInstance((OutputStream) originalStream)));
+			verify(linker, never()).createProxy(any(Class.class), any(TagInjectionOutputStream.class), any(ClassLoader.class));
+			verify(dummyResponse).setContentLength(10);
+		}
+
+		@SuppressWarnings("unchecked")
+		@Test
+		public void testContentEncodingNotWrapped() throws IOException {
+			when(dummyResponse.getContentType()).thenReturn("text/html");
+
+			respWrapper.setHeader("Content-Encoding", "gzip");
+			OutputStream stream = respWrapper.getOutputStream();
+
+			assertThat(stream, is(sameInstance((OutputStream) originalStream)));
+			verify(linker, never()).createProxy(any(Class.class), any(TagInjectionOutputStream.class), any(ClassLoader.class));
+			verify(dummyResponse).setHeader("Content-Encoding", "gzip");
+		}
+
+		@SuppressWarnings("unchecked")
+		@Test
+		public void testIdentityContentEncodingWrapped() throws IOException {
+			respWrapper.setHeader("Content-Encoding", "identity");
+			OutputStream stream = respWrapper.getOutputStream();
+
+			assertThat(stream, is(sameInstance((OutputStream) dummyStreamProxy)));
+		}
+
 		@SuppressWarnings("unchecked")
 		@Test
 		public void testInvalidMarkupNoInjection() throws IOException {
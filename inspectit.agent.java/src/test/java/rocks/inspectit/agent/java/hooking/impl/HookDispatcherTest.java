@@ -131,6 +131,83 @@ public class HookDispatcherTest extends TestBase {
 			verifyNoMoreInteractions(registeredSensorConfig, methodHook);
 		}
 
+		@Test
+		public void dispatchOneMethodHookSingleAfterBody() {
+			boolean exception = RandomUtils.nextBoolean();
+			long sensorTypeId = 7L;
+			IMethodSensor methodSensor = mock(IMethodSensor.class);
+			IMethodHook methodHook = mock(IMethodHook.class);
+			MethodSensorTypeConfig methodSensorConfig = mock(MethodSensorTypeConfig.class);
+			when(methodSensor.getHook()).thenReturn(methodHook);
+			when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorConfig);
+			when(methodSensorConfig.getId()).thenReturn(sensorTypeId);
+
+			RegisteredSensorConfig registeredSensorConfig = mock(RegisteredSensorConfig.class);
+			when(registeredSensorConfig.getMethodSensors()).thenReturn(Collections.singletonList(methodSensor));
+			when(registeredSensorConfig.getMethodSensorsReverse()).thenReturn(Collections.singletonList(methodSensor));
+
+			int methodId = 3;
+			Object object = mock(Object.class);
+
+			hookDispatcher.addMapping(methodId, registeredSensorConfig);
+
+			hookDispatcher.dispatchMethodBeforeBody(methodId, object, null);
+			hookDispatcher.dispatchMethodAfterBody(methodId, object, null, null, exception);
+
+			InOrder inOrder = inOrder(methodHook);
+			inOrder.verify(methodHook, times(1)).beforeBody(methodId, sensorTypeId, object, null, registeredSensorConfig);
+			inOrder.verify(methodHook, times(1)).firstAfterBody(methodId, sensorTypeId, object, null, null, exception, registeredSensorConfig);
+			inOrder.verify(methodHook, times(1)).secondAfterBody(coreService, methodId, sensorTypeId, object, null, null, exception, registeredSensorConfig);
+			verify(registeredSensorConfig, times(2)).isStartsInvocation();
+			verify(registeredSensorConfig, times(1)).getMethodSensorsReverse();
+			verify(registeredSensorConfig, times(2)).getMethodSensors();
+			verifyZeroInteractions(object, coreService);
+			verifyNoMoreInteractions(registeredSensorConfig, methodHook);
+		}
+
+		@Test
+		public void dispatchSingleAfterBodyWithInvocationTrace() {
+			long invocSensorTypeId = 13L;
+			MethodSensorTypeConfig invocSensorType = mock(MethodSensorTypeConfig.class);
+			InvocationSequenceHook invocHook = mock(InvocationSequenceHook.class);
+			when(invocationSequenceSensor.getSensorTypeConfig()).thenReturn(invocSensorType);
+			when(invocationSequenceSensor.getHook()).thenReturn(invocHook);
+			when(invocSensorType.getId()).thenReturn(invocSensorTypeId);
+
+			RegisteredSensorConfig registeredSensorConfig = mock(RegisteredSensorConfig.class);
+			when(registeredSensorConfig.isStartsInvocation()).thenReturn(true);
+			List<IMethodSensor> sensors = Arrays.<IMethodSensor> asList(invocationSequenceSensor);
+			when(registeredSensorConfig.getMethodSensors()).thenReturn(sensors);
+			when(registeredSensorConfig.getMethodSensorsReverse()).thenReturn(sensors);
+
+			long methodId = 3L;
+			Object object = mock(Object.class);
+			Object returnValue = mock(Object.class);
+
+			hookDispatcher.addMapping(methodId, registeredSensorConfig);
+
+			hookDispatcher.dispatchMethodBeforeBody(methodId, object, null);
+			hookDispatcher.dispatchMethodAfterBody(methodId, object, null, returnValue, false);
+
+			InOrder inOrder = inOrder(invocHook);
+			inOrder.verify(invocHook, times(1)).beforeBody(methodId, invocSensorTypeId, object, null, registeredSensorConfig);
+			inOrder.verify(invocHook, times(1)).firstAfterBody(methodId, invocSensorTypeId, object, null, returnValue, false, registeredSensorConfig);
+			inOrder.verify(invocHook, times(1)).secondAfterBody(coreService, methodId, invocSensorTypeId, object, null, returnValue, false, registeredSensorConfig);
+
+			// invocation is finished, thus second method is not passed to the invocation hook
+			long methodIdTwo = 15L;
+			RegisteredSensorConfig registeredSensorConfigTwo = mock(RegisteredSensorConfig.class);
+			when(registeredSensorConfigTwo.getMethodSensors()).thenReturn(Collections.<IMethodSensor> emptyList());
+			when(registeredSensorConfigTwo.getMethodSensorsReverse()).thenReturn(Collections.<IMethodSensor> emptyList());
+			hookDispatcher.addMapping(methodIdTwo, registeredSensorConfigTwo);
+
+			hookDispatcher.dispatchMethodBeforeBody(methodIdTwo, object, null);
+			hookDispatcher.dispatchMethodAfterBody(methodIdTwo, object, null, returnValue, false);
+
+			verifyZeroInteractions(object, coreService, returnValue);
+			verifyNoMoreInteractions(invocHook);
+		}
+
 		@Test
 		public void dispatchManyMethodHooksWithoutInvocationTrace() {
 			IMethodHook methodHookOne = mock(IMethodHook.class);
@@ -304,6 +381,233 @@ public class HookDispatcherTest extends TestBase {
 		}
 	}
 
+	public class IndexedMethodHook extends HookDispatcherTest {
+
+		@Test
+		public void dispatchIndexAssignedOnce() {
+			int indexOne = hookDispatcher.getDispatchIndex(100L);
+			int indexTwo = hookDispatcher.getDispatchIndex(5L);
+
+			assertThat(indexOne, is(0));
+			assertThat(indexTwo, is(1));
+			assertThat(hookDispatcher.getDispatchIndex(100L), is(indexOne));
+			assertThat(hookDispatcher.getDispatchIndex(5L), is(indexTwo));
+		}
+
+		@Test
+		public void dispatchOneMethodHook() {
+			boolean exception = RandomUtils.nextBoolean();
+			long methodId = 3L;
+			long sensorTypeId = 7L;
+			IMethodHook methodHook = mock(IMethodHook.class);
+			RegisteredSensorConfig rsc = createRegisteredSensorConfig(methodId, methodHook, sensorTypeId);
+			Object object = mock(Object.class);
+			Object[] parameters = new Object[0];
+			Object returnValue = mock(Object.class);
+
+			int index = hookDispatcher.getDispatchIndex(methodId);
+			hookDispatcher.addMapping(methodId, rsc);
+			hookDispatcher.dispatchIndexedMethodBeforeBody(index, object, parameters);
+			hookDispatcher.dispatchIndexedMethodAfterBody(index, object, parameters, returnValue, exception);
+
+			InOrder inOrder = inOrder(methodHook);
+			inOrder.verify(methodHook).beforeBody(methodId, sensorTypeId, object, parameters, rsc);
+			inOrder.verify(methodHook).firstAfterBody(methodId, sensorTypeId, object, parameters, returnValue, exception, rsc);
+			inOrder.verify(methodHook).secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, returnValue, exception, rsc);
+			verifyNoMoreInteractions(methodHook);
+			verifyZeroInteractions(object, coreService, returnValue);
+		}
+
+		@Test
+		public void dispatchManyMethodHooks() {
+			long methodId = 3L;
+			IMethodHook methodHookOne = mock(IMethodHook.class);
+			IMethodHook methodHookTwo = mock(IMethodHook.class);
+			RegisteredSensorConfig rsc = createRegisteredSensorConfig(methodId, methodHookOne, 1L);
+			rsc.addMethodSensor(createMethodSensor(methodHookTwo, 2L));
+			Object object = mock(Object.class);
+
+			int index = hookDispatcher.getDispatchIndex(methodId);
+			hookDispatcher.addMapping(methodId, rsc);
+			hookDispatcher.dispatchIndexedMethodBeforeBody(index, object, null);
+			hookDispatcher.dispatchIndexedMethodAfterBody(index, object, null, null, false);
+
+			// reverse order for before body, normal for after body
+			InOrder inOrder = inOrder(methodHookOne, methodHookTwo);
+			inOrder.verify(methodHookTwo).beforeBody(methodId, 2L, object, null, rsc);
+			inOrder.verify(methodHookOne).beforeBody(methodId, 1L, object, null, rsc);
+			inOrder.verify(methodHookOne).firstAfterBody(methodId, 1L, object, null, null, false, rsc);
+			inOrder.verify(methodHookTwo).firstAfterBody(methodId, 2L, object, null, null, false, rsc);
+			inOrder.verify(methodHookOne).secondAfterBody(coreService, methodId, 1L, object, null, null, false, rsc);
+			inOrder.verify(methodHookTwo).secondAfterBody(coreService, methodId, 2L, object, null, null, false, rsc);
+			verifyNoMoreInteractions(methodHookOne, methodHookTwo);
+		}
+
+		@Test
+		public void mappingAddedBeforeIndex() {
+			long methodId = 3L;
+			long sensorTypeId = 7L;
+			IMethodHook methodHook = mock(IMethodHook.class);
+			RegisteredSensorConfig rsc = createRegisteredSensorConfig(methodId, methodHook, sensorTypeId);
+			Object object = mock(Object.class);
+
+			hookDispatcher.addMapping(methodId, rsc);
+			int index = hookDispatcher.getDispatchIndex(methodId);
+			hookDispatcher.dispatchIndexedMethodBeforeBody(index, object, null);
+
+			verify(methodHook).beforeBody(methodId, sensorTypeId, object, null, rsc);
+			verifyNoMoreInteractions(methodHook);
+		}
+
+		@Test
+		public void mappingReplaced() {
+			long methodId = 3L;
+			IMethodHook methodHook = mock(IMethodHook.class);
+			IMethodHook methodHookNew = mock(IMethodHook.class);
+			RegisteredSensorConfig rsc = createRegisteredSensorConfig(methodId, methodHook, 1L);
+			RegisteredSensorConfig rscNew = createRegisteredSensorConfig(methodId, methodHookNew, 1L);
+			Object object = mock(Object.class);
+
+			int index = hookDispatcher.getDispatchIndex(methodId);
+			hookDispatcher.addMapping(methodId, rsc);
+			hookDispatcher.addMapping(methodId, rscNew);
+			hookDispatcher.dispatchIndexedMethodBeforeBody(index, object, null);
+
+			verify(methodHookNew).beforeBody(methodId, 1L, object, null, rscNew);
+			verifyZeroInteractions(methodHook);
+		}
+
+		@Test
+		public void manyMappings() {
+			int count = 5000;
+			IMethodHook methodHook = mock(IMethodHook.class);
+			int[] indexes = new int[count];
+			RegisteredSensorConfig[] configs = new RegisteredSensorConfig[count];
+			for (int i = 0; i < count; i++) {
+				long methodId = i * 1000L;
+				indexes[i] = hookDispatcher.getDispatchIndex(methodId);
+				configs[i] = createRegisteredSensorConfig(methodId, methodHook, 1L);
+				hookDispatcher.addMapping(methodId, configs[i]);
+			}
+
+			for (int i = 0; i < count; i++) {
+				hookDispatcher.dispatchIndexedMethodBeforeBody(indexes[i], null, null);
+				verify(methodHook).beforeBody(i * 1000L, 1L, null, null, configs[i]);
+			}
+		}
+
+		@Test
+		public void noMapping() {
+			int index = hookDispatcher.getDispatchIndex(3L);
+			Object object = mock(Object.class);
+
+			hookDispatcher.dispatchIndexedMethodBeforeBody(index, object, null);
+			hookDispatcher.dispatchIndexedMethodAfterBody(index, object, null, null, false);
+			hookDispatcher.dispatchIndexedMethodBeforeBody(Integer.MAX_VALUE, object, null);
+			hookDispatcher.dispatchIndexedMethodAfterBody(Integer.MAX_VALUE, object, null, null, false);
+
+			verifyZeroInteractions(object, coreService, log);
+		}
+
+		@Test
+		public void dispatchWithInvocationTrace() {
+			long invocSensorTypeId = 13L;
+			MethodSensorTypeConfig invocSensorType = mock(MethodSensorTypeConfig.class);
+			InvocationSequenceHook invocHook = mock(InvocationSequenceHook.class);
+			when(invocationSequenceSensor.getSensorTypeConfig()).thenReturn(invocSensorType);
+			when(invocationSequenceSensor.getHook()).thenReturn(invocHook);
+			when(invocSensorType.getId()).thenReturn(invocSensorTypeId);
+
+			long methodId = 3L;
+			long methodSensorTypeId = 7L;
+			IMethodHook methodHook = mock(IMethodHook.class);
+			RegisteredSensorConfig rsc = createRegisteredSensorConfig(methodId, methodHook, methodSensorTypeId);
+			rsc.addMethodSensor(invocationSequenceSensor);
+			rsc.setStartsInvocation(true);
+
+			long methodIdTwo = 15L;
+			RegisteredSensorConfig rscTwo = createRegisteredSensorConfig(methodIdTwo, methodHook, methodSensorTypeId);
+
+			Object object = mock(Object.class);
+			Object returnValue = mock(Object.class);
+
+			int index = hookDispatcher.getDispatchIndex(methodId);
+			int indexTwo = hookDispatcher.getDispatchIndex(methodIdTwo);
+			hookDispatcher.addMapping(methodId, rsc);
+			hookDispatcher.addMapping(methodIdTwo, rscTwo);
+
+			hookDispatcher.dispatchIndexedMethodBeforeBody(index, object, null);
+			hookDispatcher.dispatchIndexedMethodBeforeBody(indexTwo, object, null);
+			hookDispatcher.dispatchIndexedMethodAfterBody(indexTwo, object, null, returnValue, false);
+			hookDispatcher.dispatchIndexedMethodAfterBody(index, object, null, returnValue, false);
+
+			verify(invocHook).beforeBody(methodId, invocSensorTypeId, object, null, rsc);
+			verify(invocHook).beforeBody(methodIdTwo, -1, object, null, rscTwo);
+			verify(invocHook).secondAfterBody(coreService, methodIdTwo, -1, object, null, returnValue, false, rscTwo);
+			verify(invocHook).firstAfterBody(methodId, invocSensorTypeId, object, null, returnValue, false, rsc);
+			verify(invocHook).secondAfterBody(coreService, methodId, invocSensorTypeId, object, null, returnValue, false, rsc);
+			verify(methodHook).secondAfterBody(invocHook, methodIdTwo, methodSensorTypeId, object, null, returnValue, false, rscTwo);
+			verify(methodHook).secondAfterBody(invocHook, methodId, methodSensorTypeId, object, null, returnValue, false, rsc);
+			verifyNoMoreInteractions(invocHook);
+
+			// invocation is finished, thus method is not passed to the invocation hook any more
+			hookDispatcher.dispatchIndexedMethodBeforeBody(indexTwo, object, null);
+			hookDispatcher.dispatchIndexedMethodAfterBody(indexTwo, object, null, returnValue, false);
+
+			verify(methodHook).secondAfterBody(coreService, methodIdTwo, methodSensorTypeId, object, null, returnValue, false, rscTwo);
+			verifyNoMoreInteractions(invocHook);
+			verifyZeroInteractions(object, coreService, returnValue);
+		}
+
+		@Test
+		public void invocationSharedWithIdDispatching() {
+			long invocSensorTypeId = 13L;
+			MethodSensorTypeConfig invocSensorType = mock(MethodSensorTypeConfig.class);
+			InvocationSequenceHook invocHook = mock(InvocationSequenceHook.class);
+			when(invocationSequenceSensor.getSensorTypeConfig()).thenReturn(invocSensorType);
+			when(invocationSequenceSensor.getHook()).thenReturn(invocHook);
+			when(invocSensorType.getId()).thenReturn(invocSensorTypeId);
+
+			long methodId = 3L;
+			RegisteredSensorConfig rsc = new RegisteredSensorConfig();
+			rsc.setId(methodId);
+			rsc.addMethodSensor(invocationSequenceSensor);
+			rsc.setStartsInvocation(true);
+
+			long methodIdTwo = 15L;
+			RegisteredSensorConfig rscTwo = new RegisteredSensorConfig();
+			rscTwo.setId(methodIdTwo);
+
+			int index = hookDispatcher.getDispatchIndex(methodId);
+			hookDispatcher.addMapping(methodId, rsc);
+			hookDispatcher.addMapping(methodIdTwo, rscTwo);
+
+			hookDispatcher.dispatchIndexedMethodBeforeBody(index, null, null);
+			hookDispatcher.dispatchMethodBeforeBody(methodIdTwo, null, null);
+			hookDispatcher.dispatchMethodAfterBody(methodIdTwo, null, null, null, false);
+			hookDispatcher.dispatchIndexedMethodAfterBody(index, null, null, null, false);
+
+			verify(invocHook).beforeBody(methodIdTwo, -1, null, null, rscTwo);
+			verify(invocHook).secondAfterBody(coreService, methodIdTwo, -1, null, null, null, false, rscTwo);
+		}
+
+		private RegisteredSensorConfig createRegisteredSensorConfig(long methodId, IMethodHook methodHook, long sensorTypeId) {
+			RegisteredSensorConfig rsc = new RegisteredSensorConfig();
+			rsc.setId(methodId);
+			rsc.addMethodSensor(createMethodSensor(methodHook, sensorTypeId));
+			return rsc;
+		}
+
+		private IMethodSensor createMethodSensor(IMethodHook methodHook, long sensorTypeId) {
+			IMethodSensor methodSensor = mock(IMethodSensor.class);
+			MethodSensorTypeConfig methodSensorConfig = mock(MethodSensorTypeConfig.class);
+			when(methodSensor.getHook()).thenReturn(methodHook);
+			when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorConfig);
+			when(methodSensorConfig.getId()).thenReturn(sensorTypeId);
+			return methodSensor;
+		}
+	}
+
 	public class ConstructorHook extends HookDispatcherTest {
 
 		@Test
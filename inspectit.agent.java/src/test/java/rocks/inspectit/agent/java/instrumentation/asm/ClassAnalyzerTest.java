@@ -20,6 +20,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import rocks.inspectit.shared.all.instrumentation.classcache.AnnotationType;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableType;
 import rocks.inspectit.shared.all.instrumentation.classcache.InterfaceType;
@@ -38,7 +39,7 @@ public class ClassAnalyzerTest {
 	/**
 	 * Hash to be used for testing purposes.
 	 */
-	protected static final String HASH = "MyHash";
+	protected static final ClassHash HASH = new ClassHash(0L, 1L);
 
 	/**
 	 * Class being tested.
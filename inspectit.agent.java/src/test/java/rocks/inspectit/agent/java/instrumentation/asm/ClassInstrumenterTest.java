@@ -66,6 +66,29 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 		}
 	};
 
+	protected static final Answer<MethodVisitor> LEAN_METHOD_INSTRUMENTER_ANSWER = new Answer<MethodVisitor>() {
+
+		@Override
+		public MethodVisitor answer(InvocationOnMock invocation) throws Throwable {
+			Object[] arguments = invocation.getArguments();
+			SensorInstrumentationPoint sip = (SensorInstrumentationPoint) arguments[0];
+			return getMethodInstrumenter((MethodVisitor) arguments[1], (Integer) arguments[2], (String) arguments[3], (String) arguments[4], sip.getId(), (Boolean) arguments[5], false, false);
+		}
+	};
+
+	protected static final int DISPATCH_INDEX = 13;
+
+	protected static final Answer<MethodVisitor> INDEXED_METHOD_INSTRUMENTER_ANSWER = new Answer<MethodVisitor>() {
+
+		@Override
+		public MethodVisitor answer(InvocationOnMock invocation) throws Throwable {
+			Object[] arguments = invocation.getArguments();
+			SensorInstrumentationPoint sip = (SensorInstrumentationPoint) arguments[0];
+			return getMethodInstrumenter((MethodVisitor) arguments[1], (Integer) arguments[2], (String) arguments[3], (String) arguments[4], sip.getId(), (Boolean) arguments[5], true, true,
+					DISPATCH_INDEX);
+		}
+	};
+
 	protected static final Answer<MethodVisitor> CONSTRUCTOR_INSTRUMENTER_ANSWER = new Answer<MethodVisitor>() {
 
 		@Override
@@ -167,8 +190,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], "stringNullParameter", false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], "stringNullParameter", false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, new Object[0], "stringNullParameter", false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -195,8 +217,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, null, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, null, new Object[0], null, false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, null, new Object[0], null, false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, new Object[0], null, false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -221,8 +242,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], "stringNullParameter", false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], "stringNullParameter", false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, new Object[0], "stringNullParameter", false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -247,8 +267,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], 3, false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], 3, false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, new Object[0], 3, false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -273,8 +292,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], 5.3D, false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], 5.3D, false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, new Object[0], 5.3D, false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -299,8 +317,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], Float.MAX_VALUE, false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], Float.MAX_VALUE, false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, new Object[0], Float.MAX_VALUE, false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -325,8 +342,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], (byte) 127, false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], (byte) 127, false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, new Object[0], (byte) 127, false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -351,8 +367,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], (short) 16345, false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], (short) 16345, false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, new Object[0], (short) 16345, false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -377,8 +392,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], false, false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], false, false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, new Object[0], false, false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -403,8 +417,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], '\u1234', false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], '\u1234', false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, new Object[0], '\u1234', false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -429,8 +442,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, null, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, null, new Object[0], null, false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, null, new Object[0], null, false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, new Object[0], null, false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -455,8 +467,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, null, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, null, new Object[0], "stringNullParameterStatic", false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, null, new Object[0], "stringNullParameterStatic", false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, new Object[0], "stringNullParameterStatic", false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -482,8 +493,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, parameters);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, parameters);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, parameters, null, false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, parameters, null, false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, parameters, null, false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -509,8 +519,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, parameters);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, parameters);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, parameters, "stringOneParameter", false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, parameters, "stringOneParameter", false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, parameters, "stringOneParameter", false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -536,8 +545,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, parameters);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, parameters);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, parameters, null, false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, parameters, null, false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, parameters, null, false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -563,8 +571,197 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, parameters);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, parameters);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, parameters, null, false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, parameters, null, false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, parameters, null, false);
+			verifyNoMoreInteractions(hookDispatcher);
+		}
+
+		// lean, parameters and result not needed
+
+		@Test
+		public void leanIntNullParameter() throws Exception {
+			String methodName = "intNullParameter";
+			long methodId = 9L;
+
+			when(sip.getId()).thenReturn(methodId);
+			prepareConfigurationMockMethod(config, InstrumentationTestClass.class, methodName);
+			doAnswer(LEAN_METHOD_INSTRUMENTER_ANSWER).when(instrumenterFactory).getMethodVisitor(eq(sip), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean());
+			when(config.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sip));
+
+			ClassReader cr = new ClassReader(TEST_CLASS_FQN);
+			prepareWriter(cr, null, false, config);
+			cr.accept(classInstrumenter, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+			assertThat(classInstrumenter.isByteCodeAdded(), is(true));
+			byte b[] = classWriter.toByteArray();
+
+			// now call this method
+			Object testClass = this.createInstance(TEST_CLASS_FQN, b);
+			Object result = this.callMethod(testClass, methodName, null);
+
+			assertThat(result, is((Object) 3));
+			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, null);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, null, null, false);
+			verifyNoMoreInteractions(hookDispatcher);
+		}
+
+		@Test
+		public void leanDoubleNullParameter() throws Exception {
+			String methodName = "doubleNullParameter";
+			long methodId = 9L;
+
+			when(sip.getId()).thenReturn(methodId);
+			prepareConfigurationMockMethod(config, InstrumentationTestClass.class, methodName);
+			doAnswer(LEAN_METHOD_INSTRUMENTER_ANSWER).when(instrumenterFactory).getMethodVisitor(eq(sip), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean());
+			when(config.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sip));
+
+			ClassReader cr = new ClassReader(TEST_CLASS_FQN);
+			prepareWriter(cr, null, false, config);
+			cr.accept(classInstrumenter, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+			assertThat(classInstrumenter.isByteCodeAdded(), is(true));
+			byte b[] = classWriter.toByteArray();
+
+			// now call this method
+			Object testClass = this.createInstance(TEST_CLASS_FQN, b);
+			Object result = this.callMethod(testClass, methodName, null);
+
+			assertThat(result, is((Object) 5.3D));
+			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, null);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, null, null, false);
+			verifyNoMoreInteractions(hookDispatcher);
+		}
+
+		@Test
+		public void leanMixedTwoParameters() throws Exception {
+			String methodName = "mixedTwoParameters";
+			Object[] parameters = { "int", "boolean" };
+			long methodId = 9L;
+
+			when(sip.getId()).thenReturn(methodId);
+			prepareConfigurationMockMethod(config, InstrumentationTestClass.class, methodName, int.class, boolean.class);
+			doAnswer(LEAN_METHOD_INSTRUMENTER_ANSWER).when(instrumenterFactory).getMethodVisitor(eq(sip), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean());
+			when(config.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sip));
+
+			ClassReader cr = new ClassReader(TEST_CLASS_FQN);
+			prepareWriter(cr, null, false, config);
+			cr.accept(classInstrumenter, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+			assertThat(classInstrumenter.isByteCodeAdded(), is(true));
+			byte b[] = classWriter.toByteArray();
+
+			// now call this method
+			Object testClass = this.createInstance(TEST_CLASS_FQN, b);
+			this.callMethod(testClass, methodName, parameters);
+
+			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, null);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, null, null, false);
+			verifyNoMoreInteractions(hookDispatcher);
+		}
+
+		@Test
+		public void leanUnexpectedExceptionTrowing() throws Exception {
+			String methodName = "unexpectedExceptionThrowing";
+			long methodId = 9L;
+
+			when(sip.getId()).thenReturn(methodId);
+			prepareConfigurationMockMethod(config, InstrumentationTestClass.class, methodName);
+			doAnswer(LEAN_METHOD_INSTRUMENTER_ANSWER).when(instrumenterFactory).getMethodVisitor(eq(sip), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean());
+			when(config.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sip));
+
+			ClassReader cr = new ClassReader(TEST_CLASS_FQN);
+			prepareWriter(cr, null, false, config);
+			cr.accept(classInstrumenter, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+			assertThat(classInstrumenter.isByteCodeAdded(), is(true));
+			byte b[] = classWriter.toByteArray();
+
+			// now call this method
+			Object testClass = this.createInstance(TEST_CLASS_FQN, b);
+			try {
+				this.callMethod(testClass, methodName, null);
+			} catch (Throwable t) {
+			}
+
+			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, null);
+			verify(hookDispatcher).dispatchMethodAfterBody(eq(methodId), eq(testClass), (Object[]) eq(null), isA(Throwable.class), eq(true));
+			verifyNoMoreInteractions(hookDispatcher);
+		}
+
+		// indexed dispatching
+
+		@Test
+		public void indexedStringOneParameter() throws Exception {
+			String methodName = "stringOneParameter";
+			Object[] parameters = { "java.lang.String" };
+			long methodId = 9L;
+
+			when(sip.getId()).thenReturn(methodId);
+			prepareConfigurationMockMethod(config, InstrumentationTestClass.class, methodName, String.class);
+			doAnswer(INDEXED_METHOD_INSTRUMENTER_ANSWER).when(instrumenterFactory).getMethodVisitor(eq(sip), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean());
+			when(config.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sip));
+
+			ClassReader cr = new ClassReader(TEST_CLASS_FQN);
+			prepareWriter(cr, null, false, config);
+			cr.accept(classInstrumenter, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+			assertThat(classInstrumenter.isByteCodeAdded(), is(true));
+			byte b[] = classWriter.toByteArray();
+
+			// now call this method
+			Object testClass = this.createInstance(TEST_CLASS_FQN, b);
+			this.callMethod(testClass, methodName, parameters);
+
+			verify(hookDispatcher).dispatchIndexedMethodBeforeBody(DISPATCH_INDEX, testClass, parameters);
+			verify(hookDispatcher).dispatchIndexedMethodAfterBody(DISPATCH_INDEX, testClass, parameters, "stringOneParameter", false);
+			verifyNoMoreInteractions(hookDispatcher);
+		}
+
+		@Test
+		public void indexedDoubleNullParameterStatic() throws Exception {
+			String methodName = "doubleNullParameter";
+			long methodId = 9L;
+
+			when(sip.getId()).thenReturn(methodId);
+			prepareConfigurationMockMethod(config, InstrumentationTestClass.class, methodName);
+			doAnswer(INDEXED_METHOD_INSTRUMENTER_ANSWER).when(instrumenterFactory).getMethodVisitor(eq(sip), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean());
+			when(config.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sip));
+
+			ClassReader cr = new ClassReader(TEST_CLASS_FQN);
+			prepareWriter(cr, null, false, config);
+			cr.accept(classInstrumenter, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+			assertThat(classInstrumenter.isByteCodeAdded(), is(true));
+			byte b[] = classWriter.toByteArray();
+
+			// now call this method
+			Object testClass = this.createInstance(TEST_CLASS_FQN, b);
+			this.callMethod(testClass, methodName, null);
+
+			verify(hookDispatcher).dispatchIndexedMethodBeforeBody(DISPATCH_INDEX, testClass, new Object[0]);
+			verify(hookDispatcher).dispatchIndexedMethodAfterBody(DISPATCH_INDEX, testClass, new Object[0], 5.3D, false);
+			verifyNoMoreInteractions(hookDispatcher);
+		}
+
+		@Test
+		public void indexedUnexpectedExceptionTrowing() throws Exception {
+			String methodName = "unexpectedExceptionThrowing";
+			long methodId = 9L;
+
+			when(sip.getId()).thenReturn(methodId);
+			prepareConfigurationMockMethod(config, InstrumentationTestClass.class, methodName);
+			doAnswer(INDEXED_METHOD_INSTRUMENTER_ANSWER).when(instrumenterFactory).getMethodVisitor(eq(sip), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean());
+			when(config.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sip));
+
+			ClassReader cr = new ClassReader(TEST_CLASS_FQN);
+			prepareWriter(cr, null, true, config);
+			cr.accept(classInstrumenter, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+			assertThat(classInstrumenter.isByteCodeAdded(), is(true));
+			byte b[] = classWriter.toByteArray();
+
+			// now call this method
+			Object testClass = this.createInstance(TEST_CLASS_FQN, b);
+			try {
+				this.callMethod(testClass, methodName, null);
+			} catch (Throwable t) {
+			}
+
+			verify(hookDispatcher).dispatchIndexedMethodBeforeBody(DISPATCH_INDEX, testClass, new Object[0]);
+			verify(hookDispatcher).dispatchOnThrowInBody(eq(methodId), eq(testClass), eq(new Object[0]), isA(Throwable.class));
+			verify(hookDispatcher).dispatchIndexedMethodAfterBody(eq(DISPATCH_INDEX), eq(testClass), eq(new Object[0]), isA(Throwable.class), eq(true));
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -589,8 +786,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], new int[] { 1, 2, 3 }, false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], new int[] { 1, 2, 3 }, false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, new Object[0], new int[] { 1, 2, 3 }, false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -615,8 +811,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], new String[] { "test123", "bla" }, false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], new String[] { "test123", "bla" }, false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, new Object[0], new String[] { "test123", "bla" }, false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -646,8 +841,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			}
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(eq(methodId), eq(testClass), eq(new Object[0]), isA(Throwable.class), eq(true));
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(eq(methodId), eq(testClass), eq(new Object[0]), isA(Throwable.class), eq(true));
+			verify(hookDispatcher).dispatchMethodAfterBody(eq(methodId), eq(testClass), eq(new Object[0]), isA(Throwable.class), eq(true));
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -676,8 +870,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			}
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, parameters);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(eq(methodId), eq(testClass), eq(parameters), isA(Throwable.class), eq(true));
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(eq(methodId), eq(testClass), eq(parameters), isA(Throwable.class), eq(true));
+			verify(hookDispatcher).dispatchMethodAfterBody(eq(methodId), eq(testClass), eq(parameters), isA(Throwable.class), eq(true));
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -702,8 +895,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], 3, false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], 3, false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, new Object[0], 3, false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -930,8 +1122,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], null, false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], null, false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, new Object[0], null, false);
 
 			ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
 			verify(hookDispatcher).dispatchBeforeCatch(eq(methodId), captor.capture());
@@ -997,13 +1188,11 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 
 			// first method
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], null, false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], null, false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, new Object[0], null, false);
 
 			// inner method
 			verify(hookDispatcher).dispatchMethodBeforeBody(innerMethodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(eq(innerMethodId), eq(testClass), eq(new Object[0]), isA(MyTestException.class), eq(true));
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(eq(innerMethodId), eq(testClass), eq(new Object[0]), isA(MyTestException.class), eq(true));
+			verify(hookDispatcher).dispatchMethodAfterBody(eq(innerMethodId), eq(testClass), eq(new Object[0]), isA(MyTestException.class), eq(true));
 
 			ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
 			verify(hookDispatcher).dispatchOnThrowInBody(eq(innerMethodId), eq(testClass), (Object[]) anyObject(), captor.capture());
@@ -1043,13 +1232,11 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 
 			// first method
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, null, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, null, new Object[0], null, false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, null, new Object[0], null, false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, new Object[0], null, false);
 
 			// inner method
 			verify(hookDispatcher).dispatchMethodBeforeBody(innerMethodId, null, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(eq(innerMethodId), eq(null), eq(new Object[0]), isA(MyTestException.class), eq(true));
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(eq(innerMethodId), eq(null), eq(new Object[0]), isA(MyTestException.class), eq(true));
+			verify(hookDispatcher).dispatchMethodAfterBody(eq(innerMethodId), eq(null), eq(new Object[0]), isA(MyTestException.class), eq(true));
 
 			ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
 			verify(hookDispatcher).dispatchOnThrowInBody(eq(innerMethodId), eq(null), (Object[]) anyObject(), captor.capture());
@@ -1100,8 +1287,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 
 			// inner method
 			verify(hookDispatcher).dispatchMethodBeforeBody(eq(innerMethodId), anyObject(), eq(new Object[0]));
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(eq(innerMethodId), anyObject(), eq(new Object[0]), isA(MyTestException.class), eq(true));
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(eq(innerMethodId), anyObject(), eq(new Object[0]), isA(MyTestException.class), eq(true));
+			verify(hookDispatcher).dispatchMethodAfterBody(eq(innerMethodId), anyObject(), eq(new Object[0]), isA(MyTestException.class), eq(true));
 
 			verify(hookDispatcher).dispatchOnThrowInBody(eq(innerMethodId), anyObject(), eq(new Object[0]), captor.capture());
 			assertThat(captor.getValue().getClass().getName(), is(equalTo(MyTestException.class.getName())));
@@ -1139,16 +1325,14 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], null, false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], null, false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, testClass, new Object[0], null, false);
 
 			ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
 			verify(hookDispatcher).dispatchBeforeCatch(eq(methodId), captor.capture());
 			assertThat(captor.getValue().getClass().getName(), is(equalTo(MyTestException.class.getName())));
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(innerMethodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(eq(innerMethodId), eq(testClass), eq(new Object[0]), isA(MyTestException.class), eq(true));
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(eq(innerMethodId), eq(testClass), eq(new Object[0]), isA(MyTestException.class), eq(true));
+			verify(hookDispatcher).dispatchMethodAfterBody(eq(innerMethodId), eq(testClass), eq(new Object[0]), isA(MyTestException.class), eq(true));
 
 			captor = ArgumentCaptor.forClass(Object.class);
 			verify(hookDispatcher).dispatchOnThrowInBody(eq(innerMethodId), eq(testClass), (Object[]) anyObject(), captor.capture());
@@ -1165,7 +1349,17 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 	}
 
 	protected static MethodInstrumenter getMethodInstrumenter(MethodVisitor superMethodVisitor, int access, String name, String desc, long id, boolean enhancedExceptionSensor) {
-		return new MethodInstrumenter(superMethodVisitor, access, name, desc, id, enhancedExceptionSensor) {
+		return getMethodInstrumenter(superMethodVisitor, access, name, desc, id, enhancedExceptionSensor, true, true);
+	}
+
+	protected static MethodInstrumenter getMethodInstrumenter(MethodVisitor superMethodVisitor, int access, String name, String desc, long id, boolean enhancedExceptionSensor, // NOCHK:8-params
+			boolean parametersNeeded, boolean resultNeeded) {
+		return getMethodInstrumenter(superMethodVisitor, access, name, desc, id, enhancedExceptionSensor, parametersNeeded, resultNeeded, -1);
+	}
+
+	protected static MethodInstrumenter getMethodInstrumenter(MethodVisitor superMethodVisitor, int access, String name, String desc, long id, boolean enhancedExceptionSensor, // NOCHK:9-params
+			boolean parametersNeeded, boolean resultNeeded, int dispatchIndex) {
+		return new MethodInstrumenter(superMethodVisitor, access, name, desc, id, enhancedExceptionSensor, parametersNeeded, resultNeeded, dispatchIndex) {
 			@Override
 			protected void loadHookDispatcher() {
 				mv.visitFieldInsn(Opcodes.GETSTATIC, Type.getInternalName(ClassInstrumenterTest.class), "dispatcher", Type.getDescriptor(IHookDispatcher.class));
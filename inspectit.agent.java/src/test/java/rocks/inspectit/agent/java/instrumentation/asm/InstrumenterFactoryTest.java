@@ -4,16 +4,24 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import info.novatec.inspectit.org.objectweb.asm.MethodVisitor;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.testng.annotations.Test;
 
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.hooking.IHookDispatcherMapper;
 import rocks.inspectit.agent.java.instrumentation.InstrumenterFactory;
+import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
 import rocks.inspectit.shared.all.instrumentation.config.IMethodInstrumentationPoint;
+import rocks.inspectit.shared.all.instrumentation.config.impl.MethodSensorTypeConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.SensorInstrumentationPoint;
 import rocks.inspectit.shared.all.instrumentation.config.impl.SpecialInstrumentationPoint;
 import rocks.inspectit.shared.all.instrumentation.config.impl.SubstitutionDescriptor;
@@ -38,6 +46,21 @@ public class InstrumenterFactoryTest extends TestBase {
 	@Mock
 	MethodVisitor superMethodVisitor;
 
+	@Mock
+	List<IMethodSensor> methodSensors;
+
+	@Mock
+	IMethodSensor methodSensor;
+
+	@Mock
+	MethodSensorTypeConfig methodSensorTypeConfig;
+
+	@Mock
+	IHookDispatcherMapper hookDispatcherMapper;
+
+	@Mock
+	IConfigurationStorage configurationStorage;
+
 	public static class GetMethodVisitor extends InstrumenterFactoryTest {
 
 		@Test
@@ -74,6 +97,140 @@ public class InstrumenterFactoryTest extends TestBase {
 			assertThat(methodInstrumenter.isEnhancedExceptionSensor(), is(enhancedExceptionSensor));
 		}
 
+		@Test
+		public void methodParametersAndResultNotNeeded() throws Exception {
+			long id = 7L;
+			long sensorId = 11L;
+			when(methodSensors.iterator()).thenReturn(Collections.singletonList(methodSensor).iterator());
+			when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorTypeConfig);
+			when(methodSensorTypeConfig.getId()).thenReturn(sensorId);
+			when(methodSensor.isParametersNeeded()).thenReturn(false);
+			when(methodSensor.isResultNeeded()).thenReturn(false);
+			when(sensorInstrumentationPoint.isConstructor()).thenReturn(false);
+			when(sensorInstrumentationPoint.getId()).thenReturn(id);
+			when(sensorInstrumentationPoint.getSensorIds()).thenReturn(new long[] { sensorId });
+			factory.afterPropertiesSet();
+
+			MethodVisitor methodVisitor = factory.getMethodVisitor(sensorInstrumentationPoint, superMethodVisitor, 0, "method", "()V", false);
+
+			assertThat(methodVisitor, is(instanceOf(MethodInstrumenter.class)));
+			MethodInstrumenter methodInstrumenter = (MethodInstrumenter) methodVisitor;
+			assertThat(methodInstrumenter.isParametersNeeded(), is(false));
+			assertThat(methodInstrumenter.isResultNeeded(), is(false));
+		}
+
+		@Test
+		public void methodParametersAndResultNeeded() throws Exception {
+			long id = 7L;
+			long sensorId = 11L;
+			when(methodSensors.iterator()).thenReturn(Collections.singletonList(methodSensor).iterator());
+			when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorTypeConfig);
+			when(methodSensorTypeConfig.getId()).thenReturn(sensorId);
+			when(methodSensor.isParametersNeeded()).thenReturn(true);
+			when(methodSensor.isResultNeeded()).thenReturn(true);
+			when(sensorInstrumentationPoint.isConstructor()).thenReturn(false);
+			when(sensorInstrumentationPoint.getId()).thenReturn(id);
+			when(sensorInstrumentationPoint.getSensorIds()).thenReturn(new long[] { sensorId });
+			factory.afterPropertiesSet();
+
+			MethodVisitor methodVisitor = factory.getMethodVisitor(sensorInstrumentationPoint, superMethodVisitor, 0, "method", "()V", false);
+
+			assertThat(methodVisitor, is(instanceOf(MethodInstrumenter.class)));
+			MethodInstrumenter methodInstrumenter = (MethodInstrumenter) methodVisitor;
+			assertThat(methodInstrumenter.isParametersNeeded(), is(true));
+			assertThat(methodInstrumenter.isResultNeeded(), is(true));
+		}
+
+		@Test
+		public void methodPropertyAccess() throws Exception {
+			long id = 7L;
+			long sensorId = 11L;
+			when(methodSensors.iterator()).thenReturn(Collections.singletonList(methodSensor).iterator());
+			when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorTypeConfig);
+			when(methodSensorTypeConfig.getId()).thenReturn(sensorId);
+			when(methodSensor.isParametersNeeded()).thenReturn(false);
+			when(methodSensor.isResultNeeded()).thenReturn(false);
+			when(sensorInstrumentationPoint.isConstructor()).thenReturn(false);
+			when(sensorInstrumentationPoint.isPropertyAccess()).thenReturn(true);
+			when(sensorInstrumentationPoint.getId()).thenReturn(id);
+			when(sensorInstrumentationPoint.getSensorIds()).thenReturn(new long[] { sensorId });
+			factory.afterPropertiesSet();
+
+			MethodVisitor methodVisitor = factory.getMethodVisitor(sensorInstrumentationPoint, superMethodVisitor, 0, "method", "()V", false);
+
+			assertThat(methodVisitor, is(instanceOf(MethodInstrumenter.class)));
+			MethodInstrumenter methodInstrumenter = (MethodInstrumenter) methodVisitor;
+			assertThat(methodInstrumenter.isParametersNeeded(), is(true));
+			assertThat(methodInstrumenter.isResultNeeded(), is(true));
+		}
+
+		@Test
+		public void methodUnknownSensor() throws Exception {
+			long id = 7L;
+			when(methodSensors.iterator()).thenReturn(Collections.<IMethodSensor> emptyList().iterator());
+			when(sensorInstrumentationPoint.isConstructor()).thenReturn(false);
+			when(sensorInstrumentationPoint.getId()).thenReturn(id);
+			when(sensorInstrumentationPoint.getSensorIds()).thenReturn(new long[] { 11L });
+			factory.afterPropertiesSet();
+
+			MethodVisitor methodVisitor = factory.getMethodVisitor(sensorInstrumentationPoint, superMethodVisitor, 0, "method", "()V", false);
+
+			assertThat(methodVisitor, is(instanceOf(MethodInstrumenter.class)));
+			MethodInstrumenter methodInstrumenter = (MethodInstrumenter) methodVisitor;
+			assertThat(methodInstrumenter.isParametersNeeded(), is(true));
+			assertThat(methodInstrumenter.isResultNeeded(), is(true));
+		}
+
+		@Test
+		public void methodNotIndexed() {
+			long id = 7L;
+			when(sensorInstrumentationPoint.isConstructor()).thenReturn(false);
+			when(sensorInstrumentationPoint.getId()).thenReturn(id);
+			factory.setIndexedDispatch(false);
+
+			MethodVisitor methodVisitor = factory.getMethodVisitor(sensorInstrumentationPoint, superMethodVisitor, 0, "method", "()V", false);
+
+			assertThat(methodVisitor, is(instanceOf(MethodInstrumenter.class)));
+			MethodInstrumenter methodInstrumenter = (MethodInstrumenter) methodVisitor;
+			assertThat(methodInstrumenter.getDispatchIndex(), is(-1));
+			verifyZeroInteractions(hookDispatcherMapper);
+		}
+
+		@Test
+		public void methodIndexed() {
+			long id = 7L;
+			int index = 3;
+			when(sensorInstrumentationPoint.isConstructor()).thenReturn(false);
+			when(sensorInstrumentationPoint.getId()).thenReturn(id);
+			when(hookDispatcherMapper.getDispatchIndex(id)).thenReturn(index);
+			factory.setIndexedDispatch(true);
+
+			MethodVisitor methodVisitor = factory.getMethodVisitor(sensorInstrumentationPoint, superMethodVisitor, 0, "method", "()V", false);
+
+			assertThat(methodVisitor, is(instanceOf(MethodInstrumenter.class)));
+			MethodInstrumenter methodInstrumenter = (MethodInstrumenter) methodVisitor;
+			assertThat(methodInstrumenter.getMethodId(), is(id));
+			assertThat(methodInstrumenter.getDispatchIndex(), is(index));
+		}
+
+		@Test
+		public void methodIndexedByConfiguration() throws Exception {
+			long id = 7L;
+			int index = 3;
+			when(methodSensors.iterator()).thenReturn(Collections.<IMethodSensor> emptyList().iterator());
+			when(configurationStorage.isIndexedDispatch()).thenReturn(true);
+			when(sensorInstrumentationPoint.isConstructor()).thenReturn(false);
+			when(sensorInstrumentationPoint.getId()).thenReturn(id);
+			when(hookDispatcherMapper.getDispatchIndex(id)).thenReturn(index);
+			factory.afterPropertiesSet();
+
+			MethodVisitor methodVisitor = factory.getMethodVisitor(sensorInstrumentationPoint, superMethodVisitor, 0, "method", "()V", false);
+
+			assertThat(methodVisitor, is(instanceOf(MethodInstrumenter.class)));
+			MethodInstrumenter methodInstrumenter = (MethodInstrumenter) methodVisitor;
+			assertThat(methodInstrumenter.getDispatchIndex(), is(index));
+		}
+
 		@Test
 		public void constructor() {
 			long id = 7L;
@@ -0,0 +1,25 @@
+package rocks.inspectit.agent.java.proxy;
+
+/**
+ * @author Ivan Senic
+ *
+ *         Accessor for the {@link InterfaceToAccess}, includes methods not existing in the
+ *         interface.
+ *
+ */
+@AccessorFor(targetType = "rocks.inspectit.agent.java.proxy.InterfaceToAccess")
+public interface CorrectAccessor {
+
+	String getName(Object target);
+
+	int add(Object target, int a, int b);
+
+	void getTime(Object target);
+
+	void fail(Object target);
+
+	Object getMissing(Object target);
+
+	double getMissingDouble(Object target, String name);
+
+}
@@ -0,0 +1,19 @@
+package rocks.inspectit.agent.java.proxy;
+
+/**
+ * @author Ivan Senic
+ *
+ *         Used to test the accessors calling the interface methods.
+ *
+ */
+public interface InterfaceToAccess {
+
+	String getName();
+
+	int add(int a, int b);
+
+	long getTime();
+
+	void fail();
+
+}
@@ -2,8 +2,15 @@ package rocks.inspectit.agent.java.proxy;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -113,5 +120,132 @@ public class RuntimeLinkerTest extends TestBase {
 
 	}
 
+	public static class CreateAccessor extends RuntimeLinkerTest {
+
+		@Test
+		public void callsTarget() {
+			CorrectAccessor accessor = linker.createAccessor(CorrectAccessor.class, AccessedClass.class);
+
+			assertThat(accessor, is(notNullValue()));
+			assertThat(accessor.getName(new AccessedClass()), is("accessed"));
+			assertThat(accessor.add(new AccessedClass(), 3, 4), is(7));
+			// return value of target is ignored
+			accessor.getTime(new AccessedClass());
+		}
+
+		@Test(expectedExceptions = IllegalStateException.class)
+		public void exceptionPassing() {
+			CorrectAccessor accessor = linker.createAccessor(CorrectAccessor.class, AccessedClass.class);
+
+			accessor.fail(new AccessedClass());
+		}
+
+		@Test
+		public void missingMethodReturnsDefault() {
+			CorrectAccessor accessor = linker.createAccessor(CorrectAccessor.class, AccessedClass.class);
+
+			assertThat(accessor.getMissing(new AccessedClass()), is(nullValue()));
+			assertThat(accessor.getMissingDouble(new AccessedClass(), "name"), is(0d));
+		}
+
+		@Test
+		public void targetTypeItself() {
+			CorrectAccessor accessor = linker.createAccessor(CorrectAccessor.class, InterfaceToAccess.class);
+
+			assertThat(accessor, is(notNullValue()));
+			assertThat(accessor.getName(new AccessedClass()), is("accessed"));
+		}
+
+		@Test
+		public void caching() throws Exception {
+			CorrectAccessor accessor1 = linker.createAccessor(CorrectAccessor.class, AccessedClass.class);
+			CorrectAccessor accessor2 = linker.createAccessor(CorrectAccessor.class, AccessedClass.class);
+
+			assertThat(accessor1, is(sameInstance(accessor2)));
+			verify(proxyBuilder, times(1)).createAccessorClass(eq(CorrectAccessor.class), eq(InterfaceToAccess.class), anyString());
+		}
+
+		@Test
+		public void sharedForTargetType() throws Exception {
+			CorrectAccessor accessor1 = linker.createAccessor(CorrectAccessor.class, AccessedClass.class);
+			CorrectAccessor accessor2 = linker.createAccessor(CorrectAccessor.class, OtherAccessedClass.class);
+
+			assertThat(accessor1, is(sameInstance(accessor2)));
+			assertThat(accessor2.getName(new OtherAccessedClass()), is("other"));
+			verify(proxyBuilder, times(1)).createAccessorClass(eq(CorrectAccessor.class), eq(InterfaceToAccess.class), anyString());
+		}
+
+		@Test
+		public void targetTypeNotImplemented() throws Exception {
+			CorrectAccessor accessor = linker.createAccessor(CorrectAccessor.class, String.class);
+
+			assertThat(accessor, is(nullValue()));
+			verify(proxyBuilder, never()).createAccessorClass(any(Class.class), any(Class.class), anyString());
+		}
+
+		@Test
+		public void nullClass() {
+			CorrectAccessor accessor = linker.createAccessor(CorrectAccessor.class, null);
+
+			assertThat(accessor, is(nullValue()));
+		}
+
+		@Test
+		public void noAnnotation() throws Exception {
+			Runnable accessor = linker.createAccessor(Runnable.class, AccessedClass.class);
+
+			assertThat(accessor, is(nullValue()));
+			verify(proxyBuilder, never()).createAccessorClass(any(Class.class), any(Class.class), anyString());
+		}
+
+		@Test
+		public void invalidAccessor() throws Exception {
+			InvalidAccessor accessor1 = linker.createAccessor(InvalidAccessor.class, AccessedClass.class);
+			InvalidAccessor accessor2 = linker.createAccessor(InvalidAccessor.class, OtherAccessedClass.class);
+
+			assertThat(accessor1, is(nullValue()));
+			assertThat(accessor2, is(nullValue()));
+			verify(proxyBuilder, times(1)).createAccessorClass(eq(InvalidAccessor.class), eq(InterfaceToAccess.class), anyString());
+		}
+
+		@AccessorFor(targetType = "rocks.inspectit.agent.java.proxy.InterfaceToAccess")
+		public interface InvalidAccessor {
+
+			Integer add(Object target, int a, int b);
+
+		}
+
+		public static class AccessedClass implements InterfaceToAccess {
+
+			@Override
+			public String getName() {
+				return "accessed";
+			}
+
+			@Override
+			public int add(int a, int b) {
+				return a + b;
+			}
+
+			@Override
+			public long getTime() {
+				return 1L;
+			}
+
+			@Override
+			public void fail() {
+				throw new IllegalStateException();
+			}
+		}
+
+		public static class OtherAccessedClass extends AccessedClass {
+
+			@Override
+			public String getName() {
+				return "other";
+			}
+		}
+
+	}
 
 }
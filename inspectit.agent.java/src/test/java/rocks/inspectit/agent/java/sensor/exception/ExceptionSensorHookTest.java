@@ -3,6 +3,9 @@ package rocks.inspectit.agent.java.sensor.exception;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -12,9 +15,13 @@ import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mock;
 import org.testng.annotations.BeforeMethod;
@@ -25,6 +32,7 @@ import rocks.inspectit.agent.java.analyzer.classes.MyTestException;
 import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
 import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.core.impl.SentStackTraces;
 import rocks.inspectit.agent.java.util.StringConstraint;
 import rocks.inspectit.shared.all.communication.ExceptionEvent;
 import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
@@ -46,12 +54,15 @@ public class ExceptionSensorHookTest extends AbstractLogSupport {
 
 	private ExceptionSensorHook exceptionHook;
 
+	private SentStackTraces sentStackTraces;
+
 	@BeforeMethod
 	public void initTestClass() {
+		sentStackTraces = new SentStackTraces();
 		stringLength = 1000;
 		parameter = new HashMap<String, Object>();
 		parameter.put("stringLength", String.valueOf(stringLength));
-		exceptionHook = new ExceptionSensorHook(platformManager, parameter);
+		exceptionHook = new ExceptionSensorHook(platformManager, parameter, sentStackTraces);
 	}
 
 	@Test
@@ -239,6 +250,92 @@ public class ExceptionSensorHookTest extends AbstractLogSupport {
 		verifyNoMoreInteractions(platformManager);
 	}
 
+	@Test
+	public void stackTraceNotNeededAfterSent() throws Exception {
+		when(platformManager.getPlatformId()).thenReturn(1L);
+		when(registeredSensorConfig.getTargetClassFqn()).thenReturn(MyTestException.class.getName());
+
+		// created at the same place, so that they have same fingerprint
+		List<MyTestException> exceptions = new ArrayList<MyTestException>();
+		for (int i = 0; i < 3; i++) {
+			exceptions.add(createException("message" + i));
+		}
+
+		exceptionHook.afterConstructor(coreService, 5L, 3L, exceptions.get(0), new Object[0], registeredSensorConfig);
+		ArgumentCaptor<ExceptionSensorData> captor = ArgumentCaptor.forClass(ExceptionSensorData.class);
+		verify(coreService).addDefaultData(captor.capture());
+		ExceptionSensorData first = captor.getValue();
+		sentStackTraces.sent(Collections.singletonList(first));
+		for (int i = 1; i < 3; i++) {
+			exceptionHook.afterConstructor(coreService, 5L, 3L, exceptions.get(i), new Object[0], registeredSensorConfig);
+		}
+
+		captor = ArgumentCaptor.forClass(ExceptionSensorData.class);
+		verify(coreService, times(3)).addDefaultData(captor.capture());
+		assertThat(first.getStackTrace(), startsWith(MyTestException.class.getName() + ": message0"));
+		assertThat(first.getFingerprint(), is(not(0L)));
+		for (ExceptionSensorData data : captor.getAllValues().subList(1, 3)) {
+			assertThat(data.getStackTrace(), is(nullValue()));
+			assertThat(data.getFingerprint(), is(first.getFingerprint()));
+		}
+		assertThat(captor.getAllValues().get(2).getErrorMessage(), is("message2"));
+	}
+
+	@Test
+	public void stackTraceNeededUntilSent() throws Exception {
+		when(platformManager.getPlatformId()).thenReturn(1L);
+		when(registeredSensorConfig.getTargetClassFqn()).thenReturn(MyTestException.class.getName());
+
+		for (int i = 0; i < 2; i++) {
+			exceptionHook.afterConstructor(coreService, 5L, 3L, createException("message" + i), new Object[0], registeredSensorConfig);
+		}
+
+		ArgumentCaptor<ExceptionSensorData> captor = ArgumentCaptor.forClass(ExceptionSensorData.class);
+		verify(coreService, times(2)).addDefaultData(captor.capture());
+		for (ExceptionSensorData data : captor.getAllValues()) {
+			assertThat(data.getStackTrace(), is(not(nullValue())));
+			assertThat(data.getFingerprint(), is(captor.getAllValues().get(0).getFingerprint()));
+		}
+	}
+
+	@Test
+	public void stackTraceSentForDifferentFingerprints() throws Exception {
+		when(platformManager.getPlatformId()).thenReturn(1L);
+		when(registeredSensorConfig.getTargetClassFqn()).thenReturn(MyTestException.class.getName());
+
+		exceptionHook.afterConstructor(coreService, 5L, 3L, createException("message"), new Object[0], registeredSensorConfig);
+		exceptionHook.afterConstructor(coreService, 5L, 3L, new MyTestException("message"), new Object[0], registeredSensorConfig);
+
+		ArgumentCaptor<ExceptionSensorData> captor = ArgumentCaptor.forClass(ExceptionSensorData.class);
+		verify(coreService, times(2)).addDefaultData(captor.capture());
+		assertThat(captor.getAllValues().get(0).getStackTrace(), is(not(nullValue())));
+		assertThat(captor.getAllValues().get(1).getStackTrace(), is(not(nullValue())));
+		assertThat(captor.getAllValues().get(0).getFingerprint(), is(not(captor.getAllValues().get(1).getFingerprint())));
+	}
+
+	@Test
+	public void stackTraceDeduplicationDisabled() throws Exception {
+		parameter.put(StackTraceDeduplicator.DEDUPLICATION_INTERVAL_PARAMETER, "0");
+		exceptionHook = new ExceptionSensorHook(platformManager, parameter, sentStackTraces);
+		when(platformManager.getPlatformId()).thenReturn(1L);
+		when(registeredSensorConfig.getTargetClassFqn()).thenReturn(MyTestException.class.getName());
+
+		for (int i = 0; i < 2; i++) {
+			exceptionHook.afterConstructor(coreService, 5L, 3L, createException("message"), new Object[0], registeredSensorConfig);
+		}
+
+		ArgumentCaptor<ExceptionSensorData> captor = ArgumentCaptor.forClass(ExceptionSensorData.class);
+		verify(coreService, times(2)).addDefaultData(captor.capture());
+		for (ExceptionSensorData data : captor.getAllValues()) {
+			assertThat(data.getStackTrace(), is(not(nullValue())));
+			assertThat(data.getFingerprint(), is(0L));
+		}
+	}
+
+	private MyTestException createException(String message) {
+		return new MyTestException(message);
+	}
+
 	private static class ExceptionSensorDataVerifier extends ArgumentMatcher<ExceptionSensorData> {
 		private final ExceptionSensorData exceptionSensorData;
 
@@ -0,0 +1,135 @@
+package rocks.inspectit.agent.java.sensor.exception;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.mockito.Mock;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.core.impl.SentStackTraces;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class StackTraceDeduplicatorTest extends TestBase {
+
+	static final long INTERVAL = 1000L;
+
+	StackTraceDeduplicator deduplicator;
+
+	@Mock
+	SentStackTraces sentStackTraces;
+
+	@BeforeMethod
+	public void init() {
+		Map<String, Object> parameter = new HashMap<String, Object>();
+		parameter.put(StackTraceDeduplicator.DEDUPLICATION_INTERVAL_PARAMETER, String.valueOf(INTERVAL));
+		parameter.put(StackTraceDeduplicator.FINGERPRINT_FRAMES_PARAMETER, "2");
+		deduplicator = new StackTraceDeduplicator(parameter, sentStackTraces);
+	}
+
+	static StackTraceElement frame(String method, int line) {
+		return new StackTraceElement("Class", method, "Class.java", line);
+	}
+
+	public static class Fingerprint extends StackTraceDeduplicatorTest {
+
+		@Test
+		public void sameFrames() {
+			long first = deduplicator.fingerprint("Type", null, new StackTraceElement[] { frame("a", 1), frame("b", 2) });
+			long second = deduplicator.fingerprint("Type", null, new StackTraceElement[] { frame("a", 1), frame("b", 2) });
+
+			assertThat(first, is(second));
+		}
+
+		@Test
+		public void onlyTopFrames() {
+			long first = deduplicator.fingerprint("Type", null, new StackTraceElement[] { frame("a", 1), frame("b", 2), frame("c", 3) });
+			long second = deduplicator.fingerprint("Type", null, new StackTraceElement[] { frame("a", 1), frame("b", 2), frame("d", 4) });
+
+			assertThat(first, is(second));
+		}
+
+		@Test
+		public void differentLine() {
+			long first = deduplicator.fingerprint("Type", null, new StackTraceElement[] { frame("a", 1) });
+			long second = deduplicator.fingerprint("Type", null, new StackTraceElement[] { frame("a", 2) });
+
+			assertThat(first, is(not(second)));
+		}
+
+		@Test
+		public void differentType() {
+			StackTraceElement[] stackTrace = new StackTraceElement[] { frame("a", 1) };
+
+			assertThat(deduplicator.fingerprint("Type", null, stackTrace), is(not(deduplicator.fingerprint("OtherType", null, stackTrace))));
+		}
+
+		@Test
+		public void differentCause() {
+			StackTraceElement[] stackTrace = new StackTraceElement[] { frame("a", 1) };
+
+			assertThat(deduplicator.fingerprint("Type", "Cause", stackTrace), is(not(deduplicator.fingerprint("Type", null, stackTrace))));
+		}
+	}
+
+	public static class IsStackTraceNeeded extends StackTraceDeduplicatorTest {
+
+		@Test
+		public void notSent() {
+			assertThat(deduplicator.isStackTraceNeeded(1L, 0L), is(true));
+			assertThat(deduplicator.isStackTraceNeeded(2L, 0L), is(true));
+		}
+
+		@Test
+		public void sentInInterval() {
+			when(sentStackTraces.isSentSince(1L, 1L)).thenReturn(true);
+
+			assertThat(deduplicator.isStackTraceNeeded(1L, INTERVAL), is(false));
+			assertThat(deduplicator.isStackTraceNeeded(2L, INTERVAL), is(true));
+		}
+
+		@Test
+		public void sentBeforeInterval() {
+			when(sentStackTraces.isSentSince(1L, 1L)).thenReturn(false);
+
+			assertThat(deduplicator.isStackTraceNeeded(1L, INTERVAL), is(true));
+		}
+
+		@Test
+		public void activatesTracking() {
+			verify(sentStackTraces).activate();
+		}
+
+		@Test
+		public void notActive() {
+			SentStackTraces notActiveSentStackTraces = mock(SentStackTraces.class);
+			deduplicator = new StackTraceDeduplicator(Collections.<String, Object> singletonMap(StackTraceDeduplicator.DEDUPLICATION_INTERVAL_PARAMETER, Long.valueOf(0L)), notActiveSentStackTraces);
+			when(notActiveSentStackTraces.isSentSince(1L, 1L)).thenReturn(true);
+
+			assertThat(deduplicator.isActive(), is(false));
+			assertThat(deduplicator.isStackTraceNeeded(1L, 0L), is(true));
+			verify(notActiveSentStackTraces, never()).activate();
+		}
+
+		@Test
+		public void defaultActive() {
+			deduplicator = new StackTraceDeduplicator(Collections.<String, Object> emptyMap(), sentStackTraces);
+
+			assertThat(deduplicator.isActive(), is(true));
+		}
+	}
+}
@@ -8,6 +8,7 @@ import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -16,9 +17,15 @@ import static org.mockito.Mockito.when;
 
 import java.lang.management.ManagementFactory;
 import java.lang.reflect.Field;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.InstanceNotFoundException;
 import javax.management.MBeanAttributeInfo;
 import javax.management.MBeanInfo;
 import javax.management.MBeanServer;
@@ -294,14 +301,14 @@ public class JmxSensorTest extends TestBase {
 					return descriptors;
 				}
 			});
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenReturn(value);
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(new AttributeList(Collections.singletonList(new Attribute(testAttributeName, value))));
 			jmxSensor.mbeanServerAdded(mBeanServer);
 
 			jmxSensor.update(coreService);
 
 			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
 			verify(mBeanServer).getMBeanInfo(objectName);
-			verify(mBeanServer).getAttribute(objectName, testAttributeName);
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
 			verify(mBeanServer).addNotificationListener(Matchers.<ObjectName> any(), Matchers.<NotificationListener> any(), Matchers.<NotificationFilter> any(), eq(null));
 			verifyNoMoreInteractions(mBeanServer);
 
@@ -343,7 +350,7 @@ public class JmxSensorTest extends TestBase {
 			when(platformManager.getPlatformId()).thenReturn(platformIdent);
 			when(connection.isConnected()).thenReturn(true);
 			when(connection.analyzeJmxAttributes(eq(platformIdent), Matchers.<Collection<JmxAttributeDescriptor>> any())).thenReturn(Collections.<JmxAttributeDescriptor> emptyList());
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenReturn(value);
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(new AttributeList(Collections.singletonList(new Attribute(testAttributeName, value))));
 			jmxSensor.mbeanServerAdded(mBeanServer);
 
 			jmxSensor.update(coreService);
@@ -387,17 +394,18 @@ public class JmxSensorTest extends TestBase {
 					return descriptors;
 				}
 			});
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(new AttributeList());
 			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenThrow(Exception.class);
 			jmxSensor.mbeanServerAdded(mBeanServer);
 
 			// update twice
 			jmxSensor.update(coreService);
-			jmxSensor.lastDataCollectionTimestamp = 0;
 			jmxSensor.update(coreService);
 
 			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
 			verify(mBeanServer).getMBeanInfo(objectName);
 			verify(mBeanServer).getAttribute(objectName, testAttributeName);
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
 			verify(mBeanServer).addNotificationListener(Matchers.<ObjectName> any(), Matchers.<NotificationListener> any(), Matchers.<NotificationFilter> any(), eq(null));
 			verifyNoMoreInteractions(mBeanServer);
 		}
@@ -434,14 +442,14 @@ public class JmxSensorTest extends TestBase {
 					return descriptors;
 				}
 			});
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenReturn(null);
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(new AttributeList(Collections.singletonList(new Attribute(testAttributeName, null))));
 			jmxSensor.mbeanServerAdded(mBeanServer);
 
 			jmxSensor.update(coreService);
 
 			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
 			verify(mBeanServer).getMBeanInfo(objectName);
-			verify(mBeanServer).getAttribute(objectName, testAttributeName);
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
 			verify(mBeanServer).addNotificationListener(Matchers.<ObjectName> any(), Matchers.<NotificationListener> any(), Matchers.<NotificationFilter> any(), eq(null));
 			verifyNoMoreInteractions(mBeanServer);
 
@@ -486,14 +494,14 @@ public class JmxSensorTest extends TestBase {
 					return descriptors;
 				}
 			});
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenReturn(new int[] { 1, 2, 3 });
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(new AttributeList(Collections.singletonList(new Attribute(testAttributeName, new int[] { 1, 2, 3 }))));
 			jmxSensor.mbeanServerAdded(mBeanServer);
 
 			jmxSensor.update(coreService);
 
 			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
 			verify(mBeanServer).getMBeanInfo(objectName);
-			verify(mBeanServer).getAttribute(objectName, testAttributeName);
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
 			verify(mBeanServer).addNotificationListener(Matchers.<ObjectName> any(), Matchers.<NotificationListener> any(), Matchers.<NotificationFilter> any(), eq(null));
 			verifyNoMoreInteractions(mBeanServer);
 
@@ -538,14 +546,14 @@ public class JmxSensorTest extends TestBase {
 					return descriptors;
 				}
 			});
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenReturn(new String[] { "1", "2", "3" });
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(new AttributeList(Collections.singletonList(new Attribute(testAttributeName, new String[] { "1", "2", "3" }))));
 			jmxSensor.mbeanServerAdded(mBeanServer);
 
 			jmxSensor.update(coreService);
 
 			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
 			verify(mBeanServer).getMBeanInfo(objectName);
-			verify(mBeanServer).getAttribute(objectName, testAttributeName);
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
 			verify(mBeanServer).addNotificationListener(Matchers.<ObjectName> any(), Matchers.<NotificationListener> any(), Matchers.<NotificationFilter> any(), eq(null));
 			verifyNoMoreInteractions(mBeanServer);
 
@@ -604,7 +612,7 @@ public class JmxSensorTest extends TestBase {
 					return descriptors;
 				}
 			});
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenReturn(value);
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(new AttributeList(Collections.singletonList(new Attribute(testAttributeName, value))));
 			MBeanServerNotification notification = new MBeanServerNotification(MBeanServerNotification.REGISTRATION_NOTIFICATION, this, 1, objectName);
 
 			notificationListener.getValue().handleNotification(notification, null);
@@ -622,7 +630,7 @@ public class JmxSensorTest extends TestBase {
 
 			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
 			verify(mBeanServer).getMBeanInfo(objectName);
-			verify(mBeanServer).getAttribute(objectName, testAttributeName);
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
 			verifyNoMoreInteractions(mBeanServer);
 
 			ArgumentCaptor<JmxSensorValueData> valueCaptor = ArgumentCaptor.forClass(JmxSensorValueData.class);
@@ -694,4 +702,171 @@ public class JmxSensorTest extends TestBase {
 		}
 	}
 
-}
\ No newline at end of file
+	public static class Sampling extends JmxSensorTest {
+
+		static final long SENSOR_TYPE = 13L;
+		static final long PLATFORM_IDENT = 11L;
+		static final String OBJECT_NAME = "Testdomain:Test=TestObjectName,name=test";
+
+		ObjectName objectName;
+
+		@BeforeMethod
+		public void init() throws Exception {
+			objectName = new ObjectName(OBJECT_NAME);
+			when(sensorTypeConfig.getId()).thenReturn(SENSOR_TYPE);
+			when(platformManager.getPlatformId()).thenReturn(PLATFORM_IDENT);
+			when(connection.isConnected()).thenReturn(true);
+			when(mBeanServer.queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null))).thenReturn(Collections.singleton(objectName));
+			when(mBeanServer.getMBeanInfo(Matchers.<ObjectName> any())).thenReturn(mBeanInfo);
+			when(connection.analyzeJmxAttributes(eq(PLATFORM_IDENT), Matchers.<Collection<JmxAttributeDescriptor>> any())).thenAnswer(new Answer<Collection<JmxAttributeDescriptor>>() {
+				@Override
+				public Collection<JmxAttributeDescriptor> answer(InvocationOnMock invocation) throws Throwable {
+					Collection<JmxAttributeDescriptor> descriptors = (Collection<JmxAttributeDescriptor>) invocation.getArguments()[1];
+					long id = 1;
+					for (JmxAttributeDescriptor d : descriptors) {
+						d.setId(id++);
+					}
+					return descriptors;
+				}
+			});
+		}
+
+		void register(Map<String, Object> parameters, String... attributeNames) {
+			when(sensorTypeConfig.getParameters()).thenReturn(parameters);
+			jmxSensor.init(sensorTypeConfig);
+			MBeanAttributeInfo[] infos = new MBeanAttributeInfo[attributeNames.length];
+			for (int i = 0; i < attributeNames.length; i++) {
+				infos[i] = new MBeanAttributeInfo(attributeNames[i], "long", "", true, false, false);
+			}
+			when(mBeanInfo.getAttributes()).thenReturn(infos);
+			jmxSensor.mbeanServerAdded(mBeanServer);
+		}
+
+		@Test
+		public void oneCallPerMBean() throws Exception {
+			register(Collections.<String, Object> emptyMap(), "a", "b");
+			when(mBeanServer.getAttributes(eq(objectName), Matchers.<String[]> any())).thenReturn(new AttributeList(Arrays.asList(new Attribute("a", 1L), new Attribute("b", Boolean.TRUE))));
+
+			jmxSensor.update(coreService);
+
+			verify(mBeanServer).getAttributes(eq(objectName), Matchers.<String[]> any());
+			verify(mBeanServer, never()).getAttribute(Matchers.<ObjectName> any(), Matchers.anyString());
+			ArgumentCaptor<JmxSensorValueData> valueCaptor = ArgumentCaptor.forClass(JmxSensorValueData.class);
+			verify(coreService, times(2)).addDefaultData(valueCaptor.capture());
+			for (JmxSensorValueData data : valueCaptor.getAllValues()) {
+				assertThat(data.getPlatformIdent(), is(PLATFORM_IDENT));
+				assertThat(data.getSensorTypeIdent(), is(SENSOR_TYPE));
+				assertThat(data.isBooleanOrNumeric(), is(true));
+				if (data.getValue().equals("1")) {
+					assertThat(data.getAverageValue(), is(1d));
+				} else {
+					assertThat(data.getValue(), is("true"));
+					assertThat(data.getAverageValue(), is(1d));
+				}
+			}
+		}
+
+		@Test
+		public void unchangedValueSuppressed() throws Exception {
+			register(Collections.<String, Object> singletonMap("samplingInterval", 0L), "a");
+			when(mBeanServer.getAttributes(objectName, new String[] { "a" })).thenReturn(new AttributeList(Collections.singletonList(new Attribute("a", 1L))));
+
+			jmxSensor.update(coreService);
+			jmxSensor.update(coreService);
+
+			verify(mBeanServer, times(2)).getAttributes(objectName, new String[] { "a" });
+			verify(coreService, times(1)).addDefaultData(Matchers.<JmxSensorValueData> any());
+			verify(agentStatisticsLogger).jmxValuesSampled(1, 0);
+			verify(agentStatisticsLogger).jmxValuesSampled(1, 1);
+		}
+
+		@Test
+		public void bigLongChangeSent() throws Exception {
+			register(Collections.<String, Object> singletonMap("samplingInterval", 0L), "a");
+			// both values have the same double representation
+			long value = (1L << 53) + 1;
+			when(mBeanServer.getAttributes(objectName, new String[] { "a" })).thenReturn(new AttributeList(Collections.singletonList(new Attribute("a", value))))
+					.thenReturn(new AttributeList(Collections.singletonList(new Attribute("a", value + 1))));
+
+			jmxSensor.update(coreService);
+			jmxSensor.update(coreService);
+
+			ArgumentCaptor<JmxSensorValueData> valueCaptor = ArgumentCaptor.forClass(JmxSensorValueData.class);
+			verify(coreService, times(2)).addDefaultData(valueCaptor.capture());
+			assertThat(valueCaptor.getAllValues().get(0).getValue(), is(String.valueOf(value)));
+			assertThat(valueCaptor.getAllValues().get(1).getValue(), is(String.valueOf(value + 1)));
+		}
+
+		@Test
+		public void integralToDoubleChangeSent() throws Exception {
+			register(Collections.<String, Object> singletonMap("samplingInterval", 0L), "a");
+			when(mBeanServer.getAttributes(objectName, new String[] { "a" })).thenReturn(new AttributeList(Collections.singletonList(new Attribute("a", 1L))))
+					.thenReturn(new AttributeList(Collections.singletonList(new Attribute("a", 1d))));
+
+			jmxSensor.update(coreService);
+			jmxSensor.update(coreService);
+
+			verify(coreService, times(2)).addDefaultData(Matchers.<JmxSensorValueData> any());
+		}
+
+		@Test
+		public void changedValueSent() throws Exception {
+			register(Collections.<String, Object> singletonMap("samplingInterval", 0L), "a");
+			when(mBeanServer.getAttributes(objectName, new String[] { "a" })).thenReturn(new AttributeList(Collections.singletonList(new Attribute("a", 1L))))
+					.thenReturn(new AttributeList(Collections.singletonList(new Attribute("a", 2L))));
+
+			jmxSensor.update(coreService);
+			jmxSensor.update(coreService);
+
+			ArgumentCaptor<JmxSensorValueData> valueCaptor = ArgumentCaptor.forClass(JmxSensorValueData.class);
+			verify(coreService, times(2)).addDefaultData(valueCaptor.capture());
+			assertThat(valueCaptor.getAllValues().get(0).getValue(), is("1"));
+			assertThat(valueCaptor.getAllValues().get(1).getValue(), is("2"));
+			assertThat(valueCaptor.getAllValues().get(1).getMaxValue(), is(2d));
+		}
+
+		@Test
+		public void heartbeat() throws Exception {
+			Map<String, Object> parameters = new HashMap<String, Object>();
+			parameters.put("samplingInterval", 0L);
+			parameters.put("heartbeatInterval", "0");
+			register(parameters, "a");
+			when(mBeanServer.getAttributes(objectName, new String[] { "a" })).thenReturn(new AttributeList(Collections.singletonList(new Attribute("a", "value"))));
+
+			jmxSensor.update(coreService);
+			jmxSensor.update(coreService);
+
+			verify(coreService, times(2)).addDefaultData(Matchers.<JmxSensorValueData> any());
+		}
+
+		@Test
+		public void samplingIntervalPerAttribute() throws Exception {
+			Map<String, Object> parameters = new HashMap<String, Object>();
+			parameters.put("samplingInterval", 0L);
+			parameters.put("samplingInterval.b", 60000L);
+			parameters.put("heartbeatInterval", 0L);
+			register(parameters, "a", "b");
+			when(mBeanServer.getAttributes(eq(objectName), Matchers.<String[]> any())).thenReturn(new AttributeList(Arrays.asList(new Attribute("a", 1L), new Attribute("b", 2L))));
+
+			jmxSensor.update(coreService);
+			jmxSensor.update(coreService);
+
+			ArgumentCaptor<String[]> namesCaptor = ArgumentCaptor.forClass(String[].class);
+			verify(mBeanServer, times(2)).getAttributes(eq(objectName), namesCaptor.capture());
+			assertThat(namesCaptor.getAllValues().get(0).length, is(2));
+			assertThat(namesCaptor.getAllValues().get(1), is(new String[] { "a" }));
+		}
+
+		@Test
+		public void mBeanFailing() throws Exception {
+			register(Collections.<String, Object> singletonMap("samplingInterval", 0L), "a");
+			when(mBeanServer.getAttributes(objectName, new String[] { "a" })).thenThrow(new InstanceNotFoundException());
+
+			jmxSensor.update(coreService);
+			jmxSensor.update(coreService);
+
+			verify(mBeanServer, times(1)).getAttributes(objectName, new String[] { "a" });
+			verifyZeroInteractions(coreService);
+		}
+	}
+}
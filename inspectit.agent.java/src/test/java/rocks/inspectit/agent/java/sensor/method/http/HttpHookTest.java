@@ -25,8 +25,11 @@ import javax.servlet.http.HttpSession;
 
 import org.apache.commons.collections.MapUtils;
 import org.mockito.ArgumentMatcher;
+import org.mockito.InjectMocks;
 import org.mockito.Matchers;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.slf4j.Logger;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -34,6 +37,8 @@ import rocks.inspectit.agent.java.AbstractLogSupport;
 import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
 import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.proxy.impl.ASMProxyBuilder;
+import rocks.inspectit.agent.java.proxy.impl.RuntimeLinker;
 import rocks.inspectit.agent.java.util.Timer;
 import rocks.inspectit.shared.all.communication.MethodSensorData;
 import rocks.inspectit.shared.all.communication.data.HttpTimerData;
@@ -66,6 +71,15 @@ public class HttpHookTest extends AbstractLogSupport {
 	@Mock
 	private HttpServlet servlet;
 
+	@Mock
+	private Logger log;
+
+	@Spy
+	private ASMProxyBuilder proxyBuilder;
+
+	@InjectMocks
+	private RuntimeLinker runtimeLinker;
+
 	@Mock
 	private HttpServletRequest httpServletRequest;
 
@@ -96,7 +110,7 @@ public class HttpHookTest extends AbstractLogSupport {
 
 		Map<String, Object> map = new HashMap<String, Object>();
 		MapUtils.putAll(map, new String[][] { { "sessioncapture", "true" }, { "attributescapture", "true" }, { "parameterscapture", "true" } });
-		httpHook = new HttpHook(timer, platformManager, map, threadMXBean);
+		httpHook = new HttpHook(timer, platformManager, runtimeLinker, map, threadMXBean);
 	}
 
 	@Test
@@ -6,6 +6,10 @@ import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
@@ -19,12 +23,17 @@ import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
 import org.apache.commons.collections.MapUtils;
+import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.slf4j.Logger;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import rocks.inspectit.agent.java.AbstractLogSupport;
+import rocks.inspectit.agent.java.proxy.impl.ASMProxyBuilder;
+import rocks.inspectit.agent.java.proxy.impl.RuntimeLinker;
 import rocks.inspectit.agent.java.util.StringConstraint;
 import rocks.inspectit.shared.all.communication.data.HttpInfo;
 
@@ -33,6 +42,15 @@ public class HttpInformationExtractorTest extends AbstractLogSupport {
 
 	private HttpInformationExtractor extractor;
 
+	@Mock
+	private Logger log;
+
+	@Spy
+	private ASMProxyBuilder proxyBuilder;
+
+	@InjectMocks
+	private RuntimeLinker runtimeLinker;
+
 	@Mock
 	private HttpServletRequest httpServletRequest;
 
@@ -41,7 +59,7 @@ public class HttpInformationExtractorTest extends AbstractLogSupport {
 
 	@BeforeMethod
 	public void initTestClass() {
-		extractor = new HttpInformationExtractor(new StringConstraint(Collections.<String, Object> singletonMap("stringLength", "20")));
+		extractor = new HttpInformationExtractor(new StringConstraint(Collections.<String, Object> singletonMap("stringLength", "20")), runtimeLinker);
 	}
 
 	@Test
@@ -315,4 +333,49 @@ public class HttpInformationExtractorTest extends AbstractLogSupport {
 
 		assertThat(responseCode, is(200));
 	}
+
+	@Test
+	public void readHttpResponseStatusFromConcreteClass() {
+		LegacyResponse response = new LegacyResponse();
+
+		int responseCode = extractor.getResponseStatus(response.getClass(), response);
+
+		assertThat(responseCode, is(404));
+	}
+
+	@Test
+	public void notHttpServletRequest() {
+		Object request = new Object();
+
+		assertThat(extractor.getRequestUri(request.getClass(), request), is(HttpInfo.UNDEFINED));
+		assertThat(extractor.getRequestMethod(request.getClass(), request), is(HttpInfo.UNDEFINED));
+		assertThat(extractor.getHeaders(request.getClass(), request), is(nullValue()));
+		assertThat(extractor.getServerPort(request.getClass(), request), is(0));
+		assertThat(extractor.getResponseStatus(request.getClass(), request), is(0));
+	}
+
+	@Test
+	public void accessorCreatedOnce() throws Exception {
+		when(httpServletRequest.getRequestURI()).thenReturn("URI");
+		when(httpServletRequest.getMethod()).thenReturn("GET");
+		when(httpServletRequest.getServerPort()).thenReturn(8080);
+
+		extractor.getRequestUri(httpServletRequest.getClass(), httpServletRequest);
+		extractor.getRequestMethod(httpServletRequest.getClass(), httpServletRequest);
+		int port = extractor.getServerPort(httpServletRequest.getClass(), httpServletRequest);
+
+		assertThat(port, is(8080));
+		verify(proxyBuilder, times(1)).createAccessorClass(eq(IHttpServletRequestAccessor.class), eq(HttpServletRequest.class), anyString());
+	}
+
+	/**
+	 * Response of a container implementing the Servlet API before 3.0, where the status is only
+	 * available in the concrete class.
+	 */
+	public static class LegacyResponse {
+
+		public int getStatus() {
+			return 404;
+		}
+	}
 }
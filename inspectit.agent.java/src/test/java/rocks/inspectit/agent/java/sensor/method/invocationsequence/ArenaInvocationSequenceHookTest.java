@@ -0,0 +1,184 @@
+package rocks.inspectit.agent.java.sensor.method.invocationsequence;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+import rocks.inspectit.agent.java.sensor.exception.ExceptionSensor;
+import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.instrumentation.config.impl.MethodSensorTypeConfig;
+
+/**
+ * Testing the {@link ArenaInvocationSequenceHook}. Runs all tests of the
+ * {@link InvocationSequenceHookTest} as the resulting invocations must be same, plus the tests
+ * specific to the arena recording.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class ArenaInvocationSequenceHookTest extends InvocationSequenceHookTest {
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	AbstractInvocationSequenceHook createHook(boolean enhancedExceptionSensor) {
+		return new ArenaInvocationSequenceHook(timer, platformManager, realCoreService, tracer, propertyAccessor, Collections.<String, Object> emptyMap(), enhancedExceptionSensor);
+	}
+
+	/**
+	 * Data of the not saved invocation must not be part of the next one.
+	 */
+	@Test
+	public void discardedDataNotInNextInvocation() {
+		long methodId1 = 3L;
+		long methodId2 = 23L;
+		long sensorTypeId = 11L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("minduration", 100L);
+		when(rsc.getSettings()).thenReturn(map);
+		when(rsc.getMethodSensors()).thenReturn(Collections.singletonList(methodSensor));
+		when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorTypeConfig);
+		when(timer.getCurrentTime()).thenReturn(1000.0d, 1010.0d, 1020.0d, 1030.0d, 2000.0d, 2500.0d);
+
+		// first discarded with the nested invocation holding sql
+		invocationSequenceHook.beforeBody(methodId1, sensorTypeId, object, parameters, rsc);
+		invocationSequenceHook.beforeBody(methodId2, sensorTypeId, object, parameters, rsc);
+		invocationSequenceHook.addDefaultData(new SqlStatementData());
+		invocationSequenceHook.firstAfterBody(methodId2, sensorTypeId, object, parameters, result, false, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId2, sensorTypeId, object, parameters, result, false, rsc);
+		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, false, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, false, rsc);
+
+		verifyZeroInteractions(coreService);
+
+		// second saved without any nested
+		invocationSequenceHook.beforeBody(methodId1, sensorTypeId, object, parameters, rsc);
+		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, false, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, false, rsc);
+
+		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
+		verify(coreService, times(1)).addDefaultData(captor.capture());
+		InvocationSequenceData invocation = captor.getValue();
+		assertThat(invocation.getMethodIdent(), is(methodId1));
+		assertThat(invocation.getDuration(), is(500.0d));
+		assertThat(invocation.getNestedSequences(), is(empty()));
+		assertThat(invocation.getChildCount(), is(0L));
+		assertThat(invocation.getSqlStatementData(), is(nullValue()));
+	}
+
+	/**
+	 * Deep invocation that needs the arena to grow.
+	 */
+	@Test
+	public void deepInvocation() {
+		int depth = InvocationSequenceArena.INITIAL_CAPACITY * 4;
+		long methodId = 3L;
+		long sensorTypeId = 11L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+
+		when(rsc.getMethodSensors()).thenReturn(Collections.singletonList(methodSensor));
+		when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorTypeConfig);
+
+		invocationSequenceHook.beforeBody(methodId, sensorTypeId, object, parameters, rsc);
+		for (int i = 1; i <= depth; i++) {
+			invocationSequenceHook.beforeBody(methodId + i, sensorTypeId, object, parameters, rsc);
+			invocationSequenceHook.addDefaultData(new TimerData());
+		}
+		for (int i = depth; i >= 1; i--) {
+			invocationSequenceHook.firstAfterBody(methodId + i, sensorTypeId, object, parameters, result, false, rsc);
+			invocationSequenceHook.secondAfterBody(coreService, methodId + i, sensorTypeId, object, parameters, result, false, rsc);
+		}
+		invocationSequenceHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, false, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, false, rsc);
+
+		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
+		verify(coreService, times(1)).addDefaultData(captor.capture());
+		InvocationSequenceData invocation = captor.getValue();
+		assertThat(invocation.getChildCount(), is((long) depth));
+		for (int i = 1; i <= depth; i++) {
+			assertThat(invocation.getNestedSequences(), hasSize(1));
+			InvocationSequenceData child = invocation.getNestedSequences().get(0);
+			assertThat(child.getMethodIdent(), is(methodId + i));
+			assertThat(child.getParentSequence(), is(invocation));
+			assertThat(child.getChildCount(), is((long) (depth - i)));
+			assertThat(child.getTimerData(), is(instanceOf(TimerData.class)));
+			invocation = child;
+		}
+		assertThat(invocation.getNestedSequences(), is(empty()));
+	}
+
+	/**
+	 * Child of two removed levels is connected to the first not removed parent.
+	 */
+	@Test
+	public void twoRemovedLevels() {
+		long methodId1 = 3L;
+		long methodId2 = 23L;
+		long methodId3 = 31L;
+		long methodId4 = 47L;
+		long sensorTypeId = 11L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+
+		RegisteredSensorConfig removingRsc = mock(RegisteredSensorConfig.class);
+		MethodSensorTypeConfig exceptionSensorConfig = mock(MethodSensorTypeConfig.class);
+		when(exceptionSensorConfig.getClassName()).thenReturn(ExceptionSensor.class.getName());
+		when(rsc.getMethodSensors()).thenReturn(Collections.<IMethodSensor> emptyList());
+		when(removingRsc.getMethodSensors()).thenReturn(Collections.singletonList(methodSensor));
+		when(methodSensor.getSensorTypeConfig()).thenReturn(exceptionSensorConfig);
+		TimerData timerData = new TimerData();
+
+		invocationSequenceHook.beforeBody(methodId1, sensorTypeId, object, parameters, rsc);
+		invocationSequenceHook.beforeBody(methodId2, sensorTypeId, object, parameters, removingRsc);
+		invocationSequenceHook.beforeBody(methodId3, sensorTypeId, object, parameters, removingRsc);
+		invocationSequenceHook.beforeBody(methodId4, sensorTypeId, object, parameters, rsc);
+		invocationSequenceHook.addDefaultData(timerData);
+		invocationSequenceHook.firstAfterBody(methodId4, sensorTypeId, object, parameters, result, false, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId4, sensorTypeId, object, parameters, result, false, rsc);
+		invocationSequenceHook.firstAfterBody(methodId3, sensorTypeId, object, parameters, result, false, removingRsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId3, sensorTypeId, object, parameters, result, false, removingRsc);
+		invocationSequenceHook.firstAfterBody(methodId2, sensorTypeId, object, parameters, result, false, removingRsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId2, sensorTypeId, object, parameters, result, false, removingRsc);
+		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, false, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, false, rsc);
+
+		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
+		verify(coreService, times(1)).addDefaultData(captor.capture());
+		InvocationSequenceData invocation = captor.getValue();
+		assertThat(invocation.getNestedSequences(), hasSize(1));
+		assertThat(invocation.getChildCount(), is(1L));
+		InvocationSequenceData child = invocation.getNestedSequences().get(0);
+		assertThat(child.getMethodIdent(), is(methodId4));
+		assertThat(child.getParentSequence(), is(invocation));
+		assertThat(child.getTimerData(), is(timerData));
+	}
+
+}
@@ -0,0 +1,62 @@
+package rocks.inspectit.agent.java.sensor.method.invocationsequence;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * Tests the {@link InvocationSequenceArena}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class InvocationSequenceArenaTest extends TestBase {
+
+	InvocationSequenceArena arena;
+
+	@BeforeMethod
+	public void init() {
+		arena = new InvocationSequenceArena();
+	}
+
+	public class Reset extends InvocationSequenceArenaTest {
+
+		@Test
+		public void capacityRetained() {
+			fill(InvocationSequenceArena.INITIAL_CAPACITY * 2);
+			int capacity = arena.getCapacity();
+
+			arena.reset();
+
+			assertThat(arena.isStarted(), is(false));
+			assertThat(arena.getSize(), is(0));
+			assertThat(arena.getCapacity(), is(capacity));
+		}
+
+		@Test
+		public void capacityShrunk() {
+			fill(InvocationSequenceArena.MAX_RETAINED_CAPACITY + 1);
+
+			arena.reset();
+
+			assertThat(arena.isStarted(), is(false));
+			assertThat(arena.getCapacity(), is(InvocationSequenceArena.INITIAL_CAPACITY));
+		}
+
+		private void fill(int nodes) {
+			arena.start(1L, 2L, 3L, 0L, 0.0d);
+			for (int i = 1; i < nodes; i++) {
+				arena.enter(3L + i, 0L, 0.0d);
+				arena.addData(new TimerData(), false);
+			}
+			assertThat(arena.getSize(), is(nodes));
+		}
+	}
+
+}
@@ -63,41 +63,52 @@ public class InvocationSequenceHookTest extends TestBase {
 	/**
 	 * Class under test.
 	 */
-	private InvocationSequenceHook invocationSequenceHook;
+	AbstractInvocationSequenceHook invocationSequenceHook;
 
 	@Mock
-	private Timer timer;
+	Timer timer;
 
 	@Mock
-	private IPlatformManager platformManager;
+	IPlatformManager platformManager;
 
 	@Mock
-	private ICoreService realCoreService;
+	ICoreService realCoreService;
 
 	@Mock
-	private TracerImpl tracer;
+	TracerImpl tracer;
 
 	@Mock
-	private IPropertyAccessor propertyAccessor;
+	IPropertyAccessor propertyAccessor;
 
 	@Mock
-	private RegisteredSensorConfig rsc;
+	RegisteredSensorConfig rsc;
 
 	@Mock
-	private ICoreService coreService;
+	ICoreService coreService;
 
 	@Mock
-	private IConfigurationStorage configurationStorage;
+	IConfigurationStorage configurationStorage;
 
 	@Mock
-	private MethodSensorTypeConfig methodSensorTypeConfig;
+	MethodSensorTypeConfig methodSensorTypeConfig;
 
 	@Mock
-	private IMethodSensor methodSensor;
+	IMethodSensor methodSensor;
 
 	@BeforeMethod
 	public void init() {
-		invocationSequenceHook = new InvocationSequenceHook(timer, platformManager, realCoreService, tracer, propertyAccessor, Collections.<String, Object> emptyMap(), false);
+		invocationSequenceHook = createHook(false);
+	}
+
+	/**
+	 * Creates the hook to test.
+	 *
+	 * @param enhancedExceptionSensor
+	 *            If enhanced exception sensor is ON.
+	 * @return Hook to test.
+	 */
+	AbstractInvocationSequenceHook createHook(boolean enhancedExceptionSensor) {
+		return new InvocationSequenceHook(timer, platformManager, realCoreService, tracer, propertyAccessor, Collections.<String, Object> emptyMap(), enhancedExceptionSensor);
 	}
 
 	/**
@@ -984,7 +995,7 @@ public class InvocationSequenceHookTest extends TestBase {
 	 */
 	@Test(dataProvider = "skippingSensors")
 	public void skipSensorWithEnchancedExceptionSensor(Class<? extends ISensor> sensorClass) {
-		invocationSequenceHook = new InvocationSequenceHook(timer, platformManager, realCoreService, tracer, propertyAccessor, Collections.<String, Object> emptyMap(), true);
+		invocationSequenceHook = createHook(true);
 
 		long methodId = 3L;
 		long sensorTypeId = 11L;
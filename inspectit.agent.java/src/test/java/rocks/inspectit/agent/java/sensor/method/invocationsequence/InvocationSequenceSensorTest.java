@@ -0,0 +1,64 @@
+package rocks.inspectit.agent.java.sensor.method.invocationsequence;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.AbstractLogSupport;
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.config.IPropertyAccessor;
+import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.sdk.opentracing.internal.impl.TracerImpl;
+import rocks.inspectit.agent.java.util.Timer;
+
+@SuppressWarnings("PMD")
+public class InvocationSequenceSensorTest extends AbstractLogSupport {
+
+	@InjectMocks
+	InvocationSequenceSensor invocationSequenceSensor;
+
+	@Mock
+	Timer timer;
+
+	@Mock
+	IPlatformManager platformManager;
+
+	@Mock
+	ICoreService coreService;
+
+	@Mock
+	TracerImpl tracer;
+
+	@Mock
+	IPropertyAccessor propertyAccessor;
+
+	@Mock
+	IConfigurationStorage configurationStorage;
+
+	@Test
+	public void defaultHook() {
+		Map<String, Object> map = new HashMap<String, Object>();
+
+		invocationSequenceSensor.initHook(map);
+
+		assertThat(invocationSequenceSensor.getHook(), instanceOf(InvocationSequenceHook.class));
+	}
+
+	@Test
+	public void arenaHook() {
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("arenarecording", "true");
+
+		invocationSequenceSensor.initHook(map);
+
+		assertThat(invocationSequenceSensor.getHook(), instanceOf(ArenaInvocationSequenceHook.class));
+	}
+
+}
@@ -9,9 +9,11 @@ import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 
 import java.util.List;
 
+import org.apache.commons.lang.StringUtils;
 import org.testng.annotations.Test;
 
 import rocks.inspectit.agent.java.AbstractLogSupport;
@@ -101,4 +103,85 @@ public class StatementStorageTest extends AbstractLogSupport {
 		assertThat(result, is(not(equalTo(null))));
 		assertThat(result, contains(equalTo("null")));
 	}
+
+	@Test
+	public void addSQLWithParameterAndAddDate() {
+		// Setup
+		StatementStorage storage = new StatementStorage();
+		storage.addSql("SELECT * FROM CARS WHERE CAR_ID = ? AND BUILT = ?");
+		Object marker = "I am the prepared Statement";
+		storage.addPreparedStatement(marker);
+
+		storage.addParameter(marker, 0, Integer.valueOf(1));
+		storage.addParameter(marker, 1, new java.sql.Date(0L));
+
+		List<String> result = storage.getParameters(marker);
+
+		assertThat(result, contains(equalTo("1"), equalTo("'" + new java.sql.Date(0L).toString() + "'")));
+	}
+
+	@Test
+	public void parameterConvertedWhenBound() {
+		// Setup
+		StatementStorage storage = new StatementStorage();
+		storage.addSql("SELECT * FROM CARS WHERE CAR_ID = ?");
+		Object marker = "I am the prepared Statement";
+		storage.addPreparedStatement(marker);
+		StringBuilder value = new StringBuilder("val");
+
+		storage.addParameter(marker, 0, value);
+		value.append("ue");
+
+		List<String> result = storage.getParameters(marker);
+
+		assertThat(result, contains(equalTo("val")));
+	}
+
+	@Test
+	public void longParameterCropped() {
+		// Setup
+		StatementStorage storage = new StatementStorage();
+		storage.addSql("SELECT * FROM CARS WHERE CAR_ID = ?");
+		Object marker = "I am the prepared Statement";
+		storage.addPreparedStatement(marker);
+		String value = StringUtils.repeat("a", 2000);
+
+		storage.addParameter(marker, 0, value);
+
+		List<String> result = storage.getParameters(marker);
+
+		assertThat(result, contains(equalTo("'" + StringUtils.repeat("a", 1000) + "...'")));
+	}
+
+	@Test
+	public void clearParameters() {
+		// Setup
+		StatementStorage storage = new StatementStorage();
+		storage.addSql("SELECT * FROM CARS WHERE CAR_ID = ?");
+		Object marker = "I am the prepared Statement";
+		storage.addPreparedStatement(marker);
+
+		storage.addParameter(marker, 0, "1");
+		storage.clearParameters(marker);
+
+		List<String> result = storage.getParameters(marker);
+
+		assertThat(result, contains(equalTo(null)));
+	}
+
+	@Test
+	public void statementsComparedByIdentity() {
+		// Setup
+		StatementStorage storage = new StatementStorage();
+		storage.addSql("SELECT * FROM CARS WHERE CAR_ID = ?");
+		Object marker = new String("I am the prepared Statement");
+		Object equalMarker = new String("I am the prepared Statement");
+		storage.addPreparedStatement(marker);
+
+		storage.addParameter(equalMarker, 0, "1");
+
+		assertThat(storage.getPreparedStatement(equalMarker), is(nullValue()));
+		assertThat(storage.getParameters(equalMarker), is(nullValue()));
+		assertThat(storage.getParameters(marker), is(nullValue()));
+	}
 }
@@ -137,12 +137,14 @@ public class EUMInstrumentationHookTest extends TestBase {
 			hook = new EUMInstrumentationHook(linker, tracer, dataHandler, config, agentBuilder);
 			String beaconUrl = eumConfig.getScriptBaseUrl() + JSAgentModule.BEACON_SUB_PATH;
 			when(dummyRequest.getRequestURI()).thenReturn(beaconUrl);
-			when(dummyRequest.getReader()).thenReturn(new BufferedReader(new StringReader(FAKE_BEACON)));
+			BufferedReader reader = new BufferedReader(new StringReader(FAKE_BEACON));
+			when(dummyRequest.getReader()).thenReturn(reader);
+			when(dummyRequest.getRemoteAddr()).thenReturn("10.0.0.1");
 
 			boolean intercepted = null != hook.beforeBody(METHOD_ID, dummyServlet, new Object[] { dummyRequest, dummyResponse }, ssc);
 
 			assertThat(intercepted, equalTo(true));
-			verify(this.dataHandler).insertBeacon(FAKE_BEACON);
+			verify(this.dataHandler).insertBeacon(reader, "10.0.0.1");
 		}
 
 		@Test
@@ -0,0 +1,212 @@
+package rocks.inspectit.agent.java.sensor.method.timer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.slf4j.Logger;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.shared.all.communication.data.ParameterContentData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class TimerDataAggregatorTest extends TestBase {
+
+	static final long PLATFORM_ID = 1L;
+	static final long METHOD_ID = 3L;
+	static final long SENSOR_ID = 11L;
+	static final long INTERVAL = 5000L;
+
+	@InjectMocks
+	TimerDataAggregator aggregator;
+
+	@Mock
+	ICoreService coreService;
+
+	@Mock
+	IPlatformManager platformManager;
+
+	@Mock
+	ScheduledExecutorService executorService;
+
+	@Mock
+	Logger log;
+
+	public static class Aggregate extends TimerDataAggregatorTest {
+
+		@Test
+		public void aggregated() {
+			when(platformManager.getPlatformId()).thenReturn(PLATFORM_ID);
+
+			boolean first = aggregator.aggregate(coreService, INTERVAL, METHOD_ID, SENSOR_ID, null, true, 10d, 2d);
+			boolean second = aggregator.aggregate(coreService, INTERVAL, METHOD_ID, SENSOR_ID, null, true, 30d, -1d);
+
+			assertThat(first, is(true));
+			assertThat(second, is(true));
+			ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+			verify(executorService).scheduleAtFixedRate(runnableCaptor.capture(), eq(INTERVAL), eq(INTERVAL), eq(TimeUnit.MILLISECONDS));
+			verifyZeroInteractions(coreService);
+
+			runnableCaptor.getValue().run();
+
+			ArgumentCaptor<TimerData> captor = ArgumentCaptor.forClass(TimerData.class);
+			verify(coreService).addDefaultData(captor.capture());
+			TimerData timerData = captor.getValue();
+			assertThat(timerData.getPlatformIdent(), is(PLATFORM_ID));
+			assertThat(timerData.getMethodIdent(), is(METHOD_ID));
+			assertThat(timerData.getSensorTypeIdent(), is(SENSOR_ID));
+			assertThat(timerData.getTimeStamp(), is(not(nullValue())));
+			assertThat(timerData.getCount(), is(2L));
+			assertThat(timerData.getDuration(), is(40d));
+			assertThat(timerData.getMin(), is(10d));
+			assertThat(timerData.getMax(), is(30d));
+			assertThat(timerData.getCpuDuration(), is(2d));
+			assertThat(timerData.getCpuMin(), is(2d));
+			assertThat(timerData.getCpuMax(), is(2d));
+			assertThat(timerData.isCharting(), is(true));
+
+			// nothing more to flush
+			runnableCaptor.getValue().run();
+			verifyNoMoreInteractions(coreService, executorService);
+		}
+
+		@Test
+		public void differentParameters() {
+			ParameterContentData parameterContentData = new ParameterContentData();
+			parameterContentData.setContent("content");
+			List<ParameterContentData> parameters = Collections.singletonList(parameterContentData);
+
+			aggregator.aggregate(coreService, INTERVAL, METHOD_ID, SENSOR_ID, null, false, 10d, -1d);
+			aggregator.aggregate(coreService, INTERVAL, METHOD_ID, SENSOR_ID, parameters, false, 20d, -1d);
+
+			ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+			verify(executorService).scheduleAtFixedRate(runnableCaptor.capture(), eq(INTERVAL), eq(INTERVAL), eq(TimeUnit.MILLISECONDS));
+			runnableCaptor.getValue().run();
+
+			ArgumentCaptor<TimerData> captor = ArgumentCaptor.forClass(TimerData.class);
+			verify(coreService, times(2)).addDefaultData(captor.capture());
+			assertThat(captor.getAllValues(), hasSize(2));
+			for (TimerData timerData : captor.getAllValues()) {
+				assertThat(timerData.getCount(), is(1L));
+				assertThat(timerData.getCpuDuration(), is(0d));
+			}
+		}
+
+		@Test
+		public void differentIntervals() {
+			aggregator.aggregate(coreService, INTERVAL, METHOD_ID, SENSOR_ID, null, false, 10d, -1d);
+			aggregator.aggregate(coreService, INTERVAL * 2, METHOD_ID, SENSOR_ID, null, false, 10d, -1d);
+
+			verify(executorService).scheduleAtFixedRate(any(Runnable.class), eq(INTERVAL), eq(INTERVAL), eq(TimeUnit.MILLISECONDS));
+			verify(executorService).scheduleAtFixedRate(any(Runnable.class), eq(INTERVAL * 2), eq(INTERVAL * 2), eq(TimeUnit.MILLISECONDS));
+			verifyNoMoreInteractions(executorService);
+		}
+
+		@Test
+		public void limitReached() {
+			for (int i = 0; i < TimerDataAggregator.MAX_AGGREGATIONS_PER_INTERVAL; i++) {
+				boolean aggregated = aggregator.aggregate(coreService, INTERVAL, i, SENSOR_ID, null, false, 10d, -1d);
+				assertThat(aggregated, is(true));
+			}
+
+			boolean newKey = aggregator.aggregate(coreService, INTERVAL, -1L, SENSOR_ID, null, false, 10d, -1d);
+			boolean otherNewKey = aggregator.aggregate(coreService, INTERVAL, -2L, SENSOR_ID, null, false, 10d, -1d);
+			boolean existingKey = aggregator.aggregate(coreService, INTERVAL, 0L, SENSOR_ID, null, false, 10d, -1d);
+
+			assertThat(newKey, is(false));
+			assertThat(otherNewKey, is(false));
+			assertThat(existingKey, is(true));
+			ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+			// early flush submitted only once
+			verify(executorService).execute(runnableCaptor.capture());
+			verifyZeroInteractions(coreService);
+
+			runnableCaptor.getValue().run();
+
+			verify(coreService, times(TimerDataAggregator.MAX_AGGREGATIONS_PER_INTERVAL)).addDefaultData(any(TimerData.class));
+			assertThat(aggregator.aggregate(coreService, INTERVAL, -1L, SENSOR_ID, null, false, 10d, -1d), is(true));
+		}
+
+		@Test
+		public void otherCoreService() {
+			ICoreService otherCoreService = mock(ICoreService.class);
+
+			boolean aggregated = aggregator.aggregate(otherCoreService, INTERVAL, METHOD_ID, SENSOR_ID, null, false, 10d, -1d);
+
+			assertThat(aggregated, is(false));
+			verifyZeroInteractions(coreService, executorService, otherCoreService);
+		}
+
+		@Test
+		public void noInterval() {
+			boolean aggregated = aggregator.aggregate(coreService, 0L, METHOD_ID, SENSOR_ID, null, false, 10d, -1d);
+
+			assertThat(aggregated, is(false));
+			verifyZeroInteractions(coreService, executorService);
+		}
+
+	}
+
+	public static class Destroy extends TimerDataAggregatorTest {
+
+		@Test
+		public void flushed() throws Exception {
+			aggregator.aggregate(coreService, INTERVAL, METHOD_ID, SENSOR_ID, null, false, 10d, -1d);
+
+			aggregator.destroy();
+
+			ArgumentCaptor<TimerData> captor = ArgumentCaptor.forClass(TimerData.class);
+			verify(coreService).addDefaultData(captor.capture());
+			assertThat(captor.getValue().getCount(), is(1L));
+		}
+
+		@Test
+		public void periodicFlushCanceled() throws Exception {
+			ScheduledFuture<?> future = mock(ScheduledFuture.class);
+			doReturn(future).when(executorService).scheduleAtFixedRate(any(Runnable.class), eq(INTERVAL), eq(INTERVAL), eq(TimeUnit.MILLISECONDS));
+			aggregator.aggregate(coreService, INTERVAL, METHOD_ID, SENSOR_ID, null, false, 10d, -1d);
+
+			aggregator.destroy();
+
+			verify(future).cancel(false);
+			verify(coreService).addDefaultData(any(TimerData.class));
+		}
+
+		@Test
+		public void nothingToFlush() throws Exception {
+			aggregator.destroy();
+
+			verifyZeroInteractions(coreService);
+		}
+
+	}
+
+}
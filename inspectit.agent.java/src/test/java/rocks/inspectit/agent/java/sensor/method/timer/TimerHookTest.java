@@ -54,6 +54,9 @@ public class TimerHookTest extends AbstractLogSupport {
 	@Mock
 	private ThreadMXBean threadMXBean;
 
+	@Mock
+	private TimerDataAggregator timerDataAggregator;
+
 	private TimerHook timerHook;
 
 	@BeforeMethod
@@ -61,7 +64,7 @@ public class TimerHookTest extends AbstractLogSupport {
 		Map<String, Object> settings = new HashMap<String, Object>();
 		when(threadMXBean.isThreadCpuTimeEnabled()).thenReturn(true);
 		when(threadMXBean.isThreadCpuTimeSupported()).thenReturn(true);
-		timerHook = new TimerHook(timer, platformManager, propertyAccessor, settings, threadMXBean);
+		timerHook = new TimerHook(timer, platformManager, propertyAccessor, settings, threadMXBean, timerDataAggregator);
 	}
 
 	@Test
@@ -277,6 +280,55 @@ public class TimerHookTest extends AbstractLogSupport {
 		verifyZeroInteractions(propertyAccessor, object, result);
 	}
 
+	@Test
+	public void aggregated() {
+		long methodId = 3L;
+		long sensorTypeId = 11L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+
+		Double firstTimerValue = 1000.453d;
+		Double secondTimerValue = 1323.675d;
+
+		Map<String, Object> settings = new HashMap<String, Object>();
+		settings.put("aggregationinterval", Long.valueOf(5000L));
+		settings.put("charting", Boolean.TRUE);
+
+		when(timer.getCurrentTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
+		when(threadMXBean.getCurrentThreadCpuTime()).thenReturn(0L);
+		when(registeredSensorConfig.getSettings()).thenReturn(settings);
+		when(timerDataAggregator.aggregate(coreService, 5000L, methodId, sensorTypeId, null, true, secondTimerValue - firstTimerValue, 0d)).thenReturn(true);
+
+		timerHook.beforeBody(methodId, sensorTypeId, object, parameters, registeredSensorConfig);
+		timerHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, false, registeredSensorConfig);
+		timerHook.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, false, registeredSensorConfig);
+
+		verify(timerDataAggregator).aggregate(coreService, 5000L, methodId, sensorTypeId, null, true, secondTimerValue - firstTimerValue, 0d);
+		verifyZeroInteractions(coreService, platformManager, propertyAccessor, object, result);
+	}
+
+	@Test
+	public void aggregationNotPossible() {
+		long methodId = 3L;
+		long sensorTypeId = 11L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+
+		when(timer.getCurrentTime()).thenReturn(1000d).thenReturn(2000d);
+		when(registeredSensorConfig.getSettings()).thenReturn(Collections.<String, Object> singletonMap("aggregationinterval", Long.valueOf(5000L)));
+
+		timerHook.beforeBody(methodId, sensorTypeId, object, parameters, registeredSensorConfig);
+		timerHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, false, registeredSensorConfig);
+		timerHook.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, false, registeredSensorConfig);
+
+		ArgumentCaptor<TimerData> captor = ArgumentCaptor.forClass(TimerData.class);
+		verify(coreService).addDefaultData(captor.capture());
+		assertThat(captor.getValue().getCount(), is(1L));
+		assertThat(captor.getValue().getDuration(), is(1000d));
+	}
+
 	@Test
 	public void twoRecordsWithCpuTime() {
 		long platformId = 1L;
@@ -344,4 +396,75 @@ public class TimerHookTest extends AbstractLogSupport {
 		assertThat(timerData.isCharting(), is(false));
 	}
 
+	@Test
+	public void twoRecordsWithCpuTimePrimitiveTimingStack() {
+		Map<String, Object> settings = new HashMap<String, Object>();
+		settings.put("primitivetimingstack", "true");
+		timerHook = new TimerHook(timer, platformManager, propertyAccessor, settings, threadMXBean, timerDataAggregator);
+
+		long platformId = 1L;
+		long methodIdOne = 3L;
+		long methodIdTwo = 9L;
+		long sensorTypeId = 11L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+
+		Double firstTimerValue = 1000.453d;
+		Double secondTimerValue = 1323.675d;
+		Double thirdTimerValue = 1578.92d;
+		Double fourthTimerValue = 2319.712d;
+
+		Long firstCpuTimerValue = 5000L;
+		Long secondCpuTimerValue = 6872L;
+		Long thirdCpuTimerValue = 8412L;
+		Long fourthCpuTimerValue = 15932L;
+
+		when(timer.getCurrentTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue).thenReturn(thirdTimerValue).thenReturn(fourthTimerValue);
+		when(threadMXBean.getCurrentThreadCpuTime()).thenReturn(firstCpuTimerValue).thenReturn(secondCpuTimerValue).thenReturn(thirdCpuTimerValue).thenReturn(fourthCpuTimerValue);
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+
+		timerHook.beforeBody(methodIdOne, sensorTypeId, object, parameters, registeredSensorConfig);
+		timerHook.beforeBody(methodIdTwo, sensorTypeId, object, parameters, registeredSensorConfig);
+
+		timerHook.firstAfterBody(methodIdTwo, sensorTypeId, object, parameters, result, false, registeredSensorConfig);
+		timerHook.secondAfterBody(coreService, methodIdTwo, sensorTypeId, object, parameters, result, false, registeredSensorConfig);
+
+		ArgumentCaptor<TimerData> captor = ArgumentCaptor.forClass(TimerData.class);
+		verify(coreService).addDefaultData(captor.capture());
+
+		TimerData timerData = captor.getValue();
+		assertThat(timerData.getPlatformIdent(), is(platformId));
+		assertThat(timerData.getMethodIdent(), is(methodIdTwo));
+		assertThat(timerData.getSensorTypeIdent(), is(sensorTypeId));
+		assertThat(timerData.getTimeStamp(), is(not(nullValue())));
+		assertThat(timerData.getCount(), is(1L));
+		assertThat(timerData.getDuration(), is(thirdTimerValue - secondTimerValue));
+		assertThat(timerData.getMin(), is(thirdTimerValue - secondTimerValue));
+		assertThat(timerData.getMax(), is(thirdTimerValue - secondTimerValue));
+		assertThat(timerData.getCpuDuration(), is((thirdCpuTimerValue - secondCpuTimerValue) / 1000000.0d));
+		assertThat(timerData.getCpuMin(), is((thirdCpuTimerValue - secondCpuTimerValue) / 1000000.0d));
+		assertThat(timerData.getCpuMax(), is((thirdCpuTimerValue - secondCpuTimerValue) / 1000000.0d));
+		assertThat(timerData.isCharting(), is(false));
+
+		timerHook.firstAfterBody(methodIdOne, sensorTypeId, object, parameters, result, false, registeredSensorConfig);
+		timerHook.secondAfterBody(coreService, methodIdOne, sensorTypeId, object, parameters, result, false, registeredSensorConfig);
+
+		verify(coreService, times(2)).addDefaultData(captor.capture());
+
+		timerData = captor.getValue();
+		assertThat(timerData.getPlatformIdent(), is(platformId));
+		assertThat(timerData.getMethodIdent(), is(methodIdOne));
+		assertThat(timerData.getSensorTypeIdent(), is(sensorTypeId));
+		assertThat(timerData.getTimeStamp(), is(not(nullValue())));
+		assertThat(timerData.getCount(), is(1L));
+		assertThat(timerData.getDuration(), is(fourthTimerValue - firstTimerValue));
+		assertThat(timerData.getMin(), is(fourthTimerValue - firstTimerValue));
+		assertThat(timerData.getMax(), is(fourthTimerValue - firstTimerValue));
+		assertThat(timerData.getCpuDuration(), is((fourthCpuTimerValue - firstCpuTimerValue) / 1000000.0d));
+		assertThat(timerData.getCpuMin(), is((fourthCpuTimerValue - firstCpuTimerValue) / 1000000.0d));
+		assertThat(timerData.getCpuMax(), is((fourthCpuTimerValue - firstCpuTimerValue) / 1000000.0d));
+		assertThat(timerData.isCharting(), is(false));
+	}
+
 }
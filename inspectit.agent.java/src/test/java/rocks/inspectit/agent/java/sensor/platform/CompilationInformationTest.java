@@ -53,6 +53,19 @@ public class CompilationInformationTest extends TestBase {
 			assertThat(collector.getTotalTotalCompilationTime(), is(40L));
 		}
 
+		@Test
+		void singleSampleIsMinAndMax() {
+			when(this.runtimeBean.getTotalCompilationTime()).thenReturn(10L);
+
+			this.cut.reset();
+			this.cut.gather();
+
+			CompilationInformationData collector = (CompilationInformationData) this.cut.get();
+
+			assertThat(collector.getMinTotalCompilationTime(), is(10L));
+			assertThat(collector.getMaxTotalCompilationTime(), is(10L));
+		}
+
 		@Test
 		void countIsIncremented() {
 			this.cut.gather();
@@ -1,5 +1,7 @@
 package rocks.inspectit.agent.java.stats;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -119,4 +121,68 @@ public class AgentStatisticsLoggerTest extends TestBase {
 			verifyNoMoreInteractions(log);
 		}
 	}
+
+	public static class BatchSent extends AgentStatisticsLoggerTest {
+
+		@Test
+		public void histograms() {
+			statsLogger.batchSent(1, 0L);
+			statsLogger.batchSent(3, 5L);
+			statsLogger.batchSent(100, 5L);
+
+			long[] sizes = statsLogger.getBatchSizeHistogram();
+			assertThat(sizes.length, is(AgentStatisticsLogger.HISTOGRAM_BUCKETS));
+			assertThat(sizes[1], is(1L));
+			assertThat(sizes[2], is(1L));
+			assertThat(sizes[7], is(1L));
+			long[] latencies = statsLogger.getBatchLatencyHistogram();
+			assertThat(latencies[0], is(1L));
+			assertThat(latencies[3], is(2L));
+		}
+
+		@Test
+		public void logEveryThousand() {
+			when(log.isDebugEnabled()).thenReturn(true);
+
+			for (int i = 0; i < 2000; i++) {
+				statsLogger.batchSent(1, 1L);
+			}
+
+			verify(log, times(2)).debug(anyString());
+		}
+
+		@Test
+		public void bucket() {
+			assertThat(AgentStatisticsLogger.getBucket(-1L), is(0));
+			assertThat(AgentStatisticsLogger.getBucket(0L), is(0));
+			assertThat(AgentStatisticsLogger.getBucket(1L), is(1));
+			assertThat(AgentStatisticsLogger.getBucket(2L), is(2));
+			assertThat(AgentStatisticsLogger.getBucket(3L), is(2));
+			assertThat(AgentStatisticsLogger.getBucket(4L), is(3));
+			assertThat(AgentStatisticsLogger.getBucket(Long.MAX_VALUE), is(AgentStatisticsLogger.HISTOGRAM_BUCKETS - 1));
+		}
+	}
+
+	public static class JmxValuesSampled extends AgentStatisticsLoggerTest {
+
+		@Test
+		public void counted() {
+			statsLogger.jmxValuesSampled(3, 1);
+			statsLogger.jmxValuesSampled(2, 2);
+
+			assertThat(statsLogger.getSampledJmxValues(), is(5L));
+			assertThat(statsLogger.getSuppressedJmxValues(), is(3L));
+		}
+
+		@Test
+		public void logEveryTenThousand() {
+			when(log.isDebugEnabled()).thenReturn(true);
+
+			for (int i = 0; i < 2000; i++) {
+				statsLogger.jmxValuesSampled(10, 5);
+			}
+
+			verify(log, times(2)).debug(anyString());
+		}
+	}
 }
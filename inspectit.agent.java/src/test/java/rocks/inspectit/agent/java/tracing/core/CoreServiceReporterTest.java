@@ -4,6 +4,8 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import org.mockito.ArgumentCaptor;
@@ -34,6 +36,9 @@ public class CoreServiceReporterTest extends TestBase {
 	@Mock
 	ICoreService coreService;
 
+	@Mock
+	TailSamplingBuffer tailSamplingBuffer;
+
 	public static class Report extends CoreServiceReporterTest {
 
 		@Test
@@ -43,6 +48,7 @@ public class CoreServiceReporterTest extends TestBase {
 			SpanImpl span = mock(SpanImpl.class);
 			SpanContextImpl context = mock(SpanContextImpl.class);
 			when(context.getId()).thenReturn(spanId);
+			when(context.isSampled()).thenReturn(true);
 			when(span.context()).thenReturn(context);
 			when(platformManager.getPlatformId()).thenReturn(platformId);
 
@@ -53,6 +59,40 @@ public class CoreServiceReporterTest extends TestBase {
 			assertThat(captor.getValue().getPlatformIdent(), is(platformId));
 			assertThat(captor.getValue().getSensorTypeIdent(), is(0L));
 			assertThat(captor.getValue().getMethodIdent(), is(0L));
+			verifyZeroInteractions(tailSamplingBuffer);
+		}
+
+		@Test
+		public void notSampled() throws Exception {
+			long platformId = 17L;
+			SpanImpl span = mock(SpanImpl.class);
+			SpanContextImpl context = mock(SpanContextImpl.class);
+			when(context.isSampled()).thenReturn(false);
+			when(span.context()).thenReturn(context);
+			when(platformManager.getPlatformId()).thenReturn(platformId);
+			when(tailSamplingBuffer.isEnabled()).thenReturn(true);
+
+			reporter.report(span);
+
+			ArgumentCaptor<AbstractSpan> captor = ArgumentCaptor.forClass(AbstractSpan.class);
+			verify(tailSamplingBuffer).add(captor.capture());
+			assertThat(captor.getValue().getPlatformIdent(), is(platformId));
+			verifyZeroInteractions(coreService);
+		}
+
+		@Test
+		public void notSampledTailSamplingInactive() throws Exception {
+			SpanImpl span = mock(SpanImpl.class);
+			SpanContextImpl context = mock(SpanContextImpl.class);
+			when(context.isSampled()).thenReturn(false);
+			when(span.context()).thenReturn(context);
+			when(tailSamplingBuffer.isEnabled()).thenReturn(false);
+
+			reporter.report(span);
+
+			verify(tailSamplingBuffer).isEnabled();
+			verifyNoMoreInteractions(tailSamplingBuffer);
+			verifyZeroInteractions(coreService);
 		}
 	}
 }
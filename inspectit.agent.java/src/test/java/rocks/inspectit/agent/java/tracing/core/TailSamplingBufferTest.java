@@ -0,0 +1,247 @@
+package rocks.inspectit.agent.java.tracing.core;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.slf4j.Logger;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import io.opentracing.tag.Tags;
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.shared.all.instrumentation.config.impl.AgentTracingConfig;
+import rocks.inspectit.shared.all.testbase.TestBase;
+import rocks.inspectit.shared.all.tracing.data.AbstractSpan;
+import rocks.inspectit.shared.all.tracing.data.ClientSpan;
+import rocks.inspectit.shared.all.tracing.data.SpanIdent;
+
+/**
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class TailSamplingBufferTest extends TestBase {
+
+	static final long TRACE_ID = 7L;
+
+	static final long THRESHOLD = 100L;
+
+	@InjectMocks
+	TailSamplingBuffer buffer;
+
+	@Mock
+	ICoreService coreService;
+
+	@Mock
+	ScheduledExecutorService executorService;
+
+	@Mock
+	IConfigurationStorage configurationStorage;
+
+	@Mock
+	Logger log;
+
+	@BeforeMethod
+	public void init() {
+		buffer.setEnabled(true);
+		buffer.setThreshold(THRESHOLD);
+		buffer.setMaxBytes(Long.MAX_VALUE);
+		buffer.setMaxAge(1000L);
+	}
+
+	static AbstractSpan span(long id, long traceId, double duration) {
+		ClientSpan span = new ClientSpan();
+		span.setSpanIdent(new SpanIdent(id, traceId));
+		span.setDuration(duration);
+		return span;
+	}
+
+	public static class Start extends TailSamplingBufferTest {
+
+		@Test
+		public void scheduled() {
+			buffer.start();
+
+			verify(executorService).scheduleAtFixedRate(any(Runnable.class), eq(500L), eq(500L), eq(TimeUnit.MILLISECONDS));
+		}
+
+		@Test
+		public void notEnabled() {
+			buffer.setEnabled(false);
+
+			buffer.start();
+
+			verifyZeroInteractions(executorService);
+		}
+	}
+
+	public static class AfterPropertiesSet extends TailSamplingBufferTest {
+
+		@Test
+		public void configured() throws Exception {
+			AgentTracingConfig tracingConfig = new AgentTracingConfig();
+			tracingConfig.setTailSamplingEnabled(true);
+			tracingConfig.setTailSamplingThreshold(50L);
+			tracingConfig.setTailSamplingMaxAge(2000L);
+			when(configurationStorage.getTracingConfig()).thenReturn(tracingConfig);
+
+			buffer.afterPropertiesSet();
+
+			assertThat(buffer.isEnabled(), is(true));
+			verify(executorService).scheduleAtFixedRate(any(Runnable.class), eq(1000L), eq(1000L), eq(TimeUnit.MILLISECONDS));
+			buffer.add(span(1L, TRACE_ID, 50d));
+			verify(coreService).addDefaultData(any(AbstractSpan.class));
+		}
+
+		@Test
+		public void notEnabled() throws Exception {
+			when(configurationStorage.getTracingConfig()).thenReturn(new AgentTracingConfig());
+
+			buffer.afterPropertiesSet();
+
+			assertThat(buffer.isEnabled(), is(false));
+			verifyZeroInteractions(executorService);
+		}
+	}
+
+	public static class Add extends TailSamplingBufferTest {
+
+		@Test
+		public void buffered() {
+			buffer.add(span(1L, TRACE_ID, 10d));
+
+			verifyZeroInteractions(coreService);
+			assertThat(buffer.getBufferedBytes(), is(greaterThan(0L)));
+		}
+
+		@Test
+		public void slowSpanKeepsTrace() {
+			AbstractSpan first = span(1L, TRACE_ID, 10d);
+			AbstractSpan second = span(2L, TRACE_ID, THRESHOLD);
+
+			buffer.add(first);
+			buffer.add(second);
+
+			ArgumentCaptor<AbstractSpan> captor = ArgumentCaptor.forClass(AbstractSpan.class);
+			verify(coreService, times(2)).addDefaultData(captor.capture());
+			assertThat(captor.getAllValues(), contains(first, second));
+			assertThat(buffer.getBufferedBytes(), is(0L));
+		}
+
+		@Test
+		public void erroneousSpanKeepsTrace() {
+			AbstractSpan first = span(1L, TRACE_ID, 10d);
+			AbstractSpan second = span(2L, TRACE_ID, 10d);
+			second.addTag(Tags.ERROR.getKey(), "true");
+
+			buffer.add(first);
+			buffer.add(second);
+
+			ArgumentCaptor<AbstractSpan> captor = ArgumentCaptor.forClass(AbstractSpan.class);
+			verify(coreService, times(2)).addDefaultData(captor.capture());
+			assertThat(captor.getAllValues(), contains(first, second));
+		}
+
+		@Test
+		public void keptTraceSpansPassedDirectly() {
+			AbstractSpan first = span(1L, TRACE_ID, THRESHOLD);
+			AbstractSpan second = span(2L, TRACE_ID, 10d);
+
+			buffer.add(first);
+			buffer.add(second);
+
+			ArgumentCaptor<AbstractSpan> captor = ArgumentCaptor.forClass(AbstractSpan.class);
+			verify(coreService, times(2)).addDefaultData(captor.capture());
+			assertThat(captor.getAllValues(), contains(first, second));
+			assertThat(buffer.getBufferedBytes(), is(0L));
+		}
+
+		@Test
+		public void otherTraceNotKept() {
+			AbstractSpan first = span(1L, TRACE_ID, 10d);
+			AbstractSpan second = span(2L, TRACE_ID + 1, THRESHOLD);
+
+			buffer.add(first);
+			buffer.add(second);
+
+			verify(coreService).addDefaultData(second);
+			verifyNoMoreInteractions(coreService);
+		}
+
+		@Test
+		public void bufferFull() {
+			buffer.setMaxBytes(0L);
+			AbstractSpan first = span(1L, TRACE_ID, 10d);
+			AbstractSpan second = span(2L, TRACE_ID, THRESHOLD);
+
+			buffer.add(first);
+			buffer.add(second);
+
+			verify(coreService).addDefaultData(second);
+			verifyNoMoreInteractions(coreService);
+			assertThat(buffer.getDroppedSpans(), is(1L));
+			assertThat(buffer.getBufferedBytes(), is(0L));
+		}
+	}
+
+	public static class Evict extends TailSamplingBufferTest {
+
+		@Test
+		public void oldTraceDropped() {
+			buffer.add(span(1L, TRACE_ID, 10d));
+
+			buffer.evict(System.currentTimeMillis() + 2000L);
+
+			assertThat(buffer.getBufferedBytes(), is(0L));
+
+			// trace is started again after eviction
+			AbstractSpan slow = span(2L, TRACE_ID, THRESHOLD);
+			buffer.add(slow);
+			verify(coreService).addDefaultData(slow);
+			verifyNoMoreInteractions(coreService);
+		}
+
+		@Test
+		public void youngTraceNotDropped() {
+			AbstractSpan first = span(1L, TRACE_ID, 10d);
+			buffer.add(first);
+
+			buffer.evict(System.currentTimeMillis());
+
+			AbstractSpan slow = span(2L, TRACE_ID, THRESHOLD);
+			buffer.add(slow);
+			verify(coreService).addDefaultData(first);
+			verify(coreService).addDefaultData(slow);
+		}
+
+		@Test
+		public void flusherRuns() {
+			buffer.setMaxAge(0L);
+			buffer.start();
+			buffer.add(span(1L, TRACE_ID, 10d));
+			ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+			verify(executorService).scheduleAtFixedRate(captor.capture(), anyLong(), anyLong(), eq(TimeUnit.MILLISECONDS));
+
+			captor.getValue().run();
+
+			assertThat(buffer.getBufferedBytes(), is(0L));
+		}
+	}
+}
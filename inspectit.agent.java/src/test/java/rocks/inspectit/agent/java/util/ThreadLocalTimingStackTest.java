@@ -0,0 +1,78 @@
+package rocks.inspectit.agent.java.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.NoSuchElementException;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.util.ThreadLocalTimingStack.TimingStack;
+
+@SuppressWarnings("PMD")
+public class ThreadLocalTimingStackTest {
+
+	private ThreadLocalTimingStack threadLocalTimingStack;
+
+	@BeforeMethod
+	public void initTestClass() {
+		threadLocalTimingStack = new ThreadLocalTimingStack();
+	}
+
+	@Test
+	public void emptyStack() {
+		TimingStack stack = threadLocalTimingStack.get();
+
+		assertThat(stack, is(notNullValue()));
+		assertThat(stack.size(), is(0));
+		assertThat(threadLocalTimingStack.get(), is(sameInstance(stack)));
+	}
+
+	@Test(expectedExceptions = { NoSuchElementException.class })
+	public void noSuchElementPop() {
+		threadLocalTimingStack.get().pop();
+	}
+
+	@Test(expectedExceptions = { NoSuchElementException.class })
+	public void noSuchElementTime() {
+		threadLocalTimingStack.get().getTime();
+	}
+
+	@Test(invocationCount = 10, threadPoolSize = 10)
+	public void stackTest() {
+		TimingStack stack = threadLocalTimingStack.get();
+
+		stack.push(1.0d, 10L);
+		stack.push(2.0d, 20L);
+
+		assertThat(stack.size(), is(2));
+		assertThat(stack.getTime(), is(2.0d));
+		assertThat(stack.getCpuTime(), is(20L));
+		stack.pop();
+		assertThat(stack.getTime(), is(1.0d));
+		assertThat(stack.getCpuTime(), is(10L));
+		stack.pop();
+		assertThat(stack.size(), is(0));
+	}
+
+	@Test
+	public void grow() {
+		TimingStack stack = threadLocalTimingStack.get();
+
+		for (int i = 0; i < 100; i++) {
+			stack.push(i, i);
+		}
+
+		assertThat(stack.size(), is(100));
+		for (int i = 99; i >= 0; i--) {
+			assertThat(stack.getTime(), is((double) i));
+			assertThat(stack.getCpuTime(), is((long) i));
+			stack.pop();
+		}
+		assertThat(stack.size(), is(0));
+	}
+
+}
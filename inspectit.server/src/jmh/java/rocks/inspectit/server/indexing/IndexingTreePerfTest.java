@@ -23,6 +23,7 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 
+import rocks.inspectit.server.cache.impl.BufferRollups;
 import rocks.inspectit.server.indexing.impl.RootBranchFactory;
 import rocks.inspectit.server.indexing.impl.RootBranchFactory.RootBranch;
 import rocks.inspectit.server.processor.AbstractCmrDataProcessor;
@@ -92,6 +93,12 @@ public class IndexingTreePerfTest {
 	@Param({ "3600000" })
 	private int timestampSpread;
 
+	/**
+	 * If the indexing tree should have the secondary indexes.
+	 */
+	@Param({ "false", "true" })
+	private boolean secondaryIndexes;
+
 	/**
 	 * Aggregated timer data query.
 	 */
@@ -131,12 +138,14 @@ public class IndexingTreePerfTest {
 		forkJoinPool = new ForkJoinPool(numberOfProcessors);
 
 		RootBranchFactory rootBranchFactory = new RootBranchFactory();
+		rootBranchFactory.setSecondaryIndexes(secondaryIndexes);
 		indexingTree = rootBranchFactory.getObject();
 
 		CacheIdGeneratorCmrProcessor idProcessor = new CacheIdGeneratorCmrProcessor();
 		idProcessor.setCacheIdGenerator(new CacheIdGenerator());
 		IndexerCmrProcessor indexerProcessor = new IndexerCmrProcessor();
 		indexerProcessor.setIndexingTree(indexingTree);
+		indexerProcessor.setBufferRollups(new BufferRollups());
 		List<AbstractCmrDataProcessor> chained = new ArrayList<>(2);
 		chained.add(idProcessor);
 		chained.add(indexerProcessor);
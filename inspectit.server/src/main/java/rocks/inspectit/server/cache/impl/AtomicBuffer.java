@@ -62,6 +62,12 @@ public class AtomicBuffer<E extends DefaultData> implements IBuffer<E> {
 	@Autowired
 	IBufferTreeComponent<E> indexingTree;
 
+	/**
+	 * Rollups maintained for the indexed elements.
+	 */
+	@Autowired
+	BufferRollups bufferRollups;
+
 	/**
 	 * Atomic reference to the first object.
 	 */
@@ -319,9 +325,11 @@ public class AtomicBuffer<E extends DefaultData> implements IBuffer<E> {
 				int elementsInFragment = 0;
 
 				// iterate until size of the eviction fragment is reached
+				long rollupsSize = 0;
 				while (fragmentSize < evictionFragmentMaxSize) {
 					fragmentSize += newLastElement.getBufferElementSize();
 					newLastElement.setBufferElementState(BufferElementState.EVICTED);
+					rollupsSize += bufferRollups.evicted(newLastElement.getObject());
 					elementsInFragment++;
 					newLastElement = newLastElement.getNextElement();
 
@@ -331,6 +339,11 @@ public class AtomicBuffer<E extends DefaultData> implements IBuffer<E> {
 					}
 				}
 
+				// rollup buckets are dropped even if the compare and set fails
+				if (rollupsSize > 0) {
+					substractFromCurrentSize(rollupsSize);
+				}
+
 				// change the last element to the right one
 				// only thread that execute compare and set successfully can perform changes
 				if (last.compareAndSet(currentLastElement, newLastElement)) {
@@ -508,6 +521,7 @@ public class AtomicBuffer<E extends DefaultData> implements IBuffer<E> {
 			elementsIndexed.set(0);
 			elementsEvicted.set(0);
 			indexingTree.clearAll();
+			bufferRollups.clearAll();
 			indexingTreeSize.set(0);
 			dataAddedInBytes.set(0);
 			dataRemovedInBytes.set(0);
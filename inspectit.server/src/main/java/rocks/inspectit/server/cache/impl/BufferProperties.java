@@ -107,6 +107,13 @@ public class BufferProperties {
 	@Value(value = "${buffer.indexingWaitTime}")
 	long indexingWaitTime;
 
+	/**
+	 * Length in milliseconds of the time buckets the rollup aggregates are maintained for. Zero
+	 * deactivates the rollups.
+	 */
+	@Value(value = "${buffer.rollupBucketLength}")
+	long rollupBucketLength;
+
 	/**
 	 * Size of old space occupancy till which min occupancy will be active.
 	 */
@@ -237,6 +244,13 @@ public class BufferProperties {
 		return indexingWaitTime;
 	}
 
+	/**
+	 * @return the rollupBucketLength
+	 */
+	public long getRollupBucketLength() {
+		return rollupBucketLength;
+	}
+
 	/**
 	 * @return the minOldSpaceOccupancyActiveTillOldGenSize
 	 */
@@ -459,6 +473,7 @@ public class BufferProperties {
 			log.info("||-Eviction fragment size percentage: " + NumberFormat.getInstance().format(evictionFragmentSizePercentage * 100) + "%");
 			log.info("||-Indexing tree cleaning threads: " + NumberFormat.getInstance().format(indexingTreeCleaningThreads));
 			log.info("||-Indexing waiting time: " + NumberFormat.getInstance().format(indexingWaitTime) + " ms");
+			log.info("||-Rollup bucket length: " + NumberFormat.getInstance().format(rollupBucketLength) + " ms");
 			log.info("||-Min old generation occupancy percentage active till: " + NumberFormat.getInstance().format(minOldSpaceOccupancyActiveTillOldGenSize) + " bytes");
 			log.info("||-Max old generation occupancy percentage active from: " + NumberFormat.getInstance().format(maxOldSpaceOccupancyActiveFromOldGenSize) + " bytes");
 			log.info("||-Min old generation occupancy percentage: " + NumberFormat.getInstance().format(minOldSpaceOccupancy * 100) + "%");
@@ -519,6 +534,10 @@ public class BufferProperties {
 			throw new BeanInitializationException(
 					"Buffer properties initialization error: The indexing wait time can not be less or equal than zero. Initialization value is: " + this.indexingWaitTime);
 		}
+		if (this.rollupBucketLength < 0) {
+			throw new BeanInitializationException(
+					"Buffer properties initialization error: The rollup bucket length can not be less than zero. Initialization value is: " + this.rollupBucketLength);
+		}
 
 		// old space settings
 		if (this.minOldSpaceOccupancyActiveTillOldGenSize <= 0) {
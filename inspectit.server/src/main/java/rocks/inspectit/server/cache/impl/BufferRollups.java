@@ -0,0 +1,1032 @@
+package rocks.inspectit.server.cache.impl;
+
+import java.sql.Timestamp;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.IAggregatedData;
+import rocks.inspectit.shared.all.communication.IIdsAwareAggregatedData;
+import rocks.inspectit.shared.all.communication.MethodSensorData;
+import rocks.inspectit.shared.all.communication.data.AggregatedExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.AggregatedHttpTimerData;
+import rocks.inspectit.shared.all.communication.data.AggregatedSqlStatementData;
+import rocks.inspectit.shared.all.communication.data.AggregatedTimerData;
+import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.HttpTimerData;
+import rocks.inspectit.shared.all.communication.data.InvocationAwareData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.all.indexing.restriction.IIndexQueryRestriction;
+import rocks.inspectit.shared.all.spring.logger.Log;
+import rocks.inspectit.shared.cs.indexing.aggregation.Aggregators;
+import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.HttpTimerDataAggregator;
+import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
+
+/**
+ * Rollup aggregates of the buffer data. For the aggregators of the overviews the aggregates are
+ * maintained per time bucket while the data is indexed. An aggregated query over an arbitrary time
+ * window is answered by merging the aggregates of the buckets that lie completely in the window,
+ * only the parts of the window that are not covered by the buckets are aggregated from the
+ * indexing tree.
+ * <p>
+ * The aggregates can not be decremented, thus when an element is evicted from the buffer the
+ * complete bucket it belongs to is dropped. The data of the dropped buckets is aggregated from the
+ * indexing tree again. The invocation children that are indexed directly are added with
+ * {@link #addInvocationChild(DefaultData)} and their buckets are dropped when the invocation they
+ * belong to is evicted.
+ * <p>
+ * The aggregates in the buckets do not keep the IDs of the aggregated elements, thus the memory
+ * used by the rollups grows only with the amount of buckets and distinct aggregation keys. The
+ * aggregates answered by the rollups include the IDs of the elements aggregated from the indexing
+ * tree only.
+ *
+ * @author Ivan Senic
+ *
+ */
+@Component
+public class BufferRollups {
+
+	/**
+	 * Max amount of buckets kept per rollup. When there are more buckets the oldest ones are
+	 * dropped.
+	 */
+	static final int MAX_BUCKETS = 10000;
+
+	/**
+	 * The logger of this class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * Buffer properties.
+	 */
+	@Autowired
+	BufferProperties bufferProperties;
+
+	/**
+	 * Correct interface for calculating object sizes.
+	 */
+	@Autowired
+	IObjectSizes objectSizes;
+
+	/**
+	 * Length of the buckets in milliseconds.
+	 */
+	long bucketLength;
+
+	/**
+	 * Maintained rollups.
+	 */
+	private final List<Rollup<?>> rollups = new ArrayList<>();
+
+	/**
+	 * Amount of bytes the rollups grew because of the added invocation children that is not yet
+	 * added to the buffer size.
+	 */
+	private final AtomicLong invocationChildrenSize = new AtomicLong();
+
+	/**
+	 * Adds the element to all rollups it belongs to.
+	 *
+	 * @param element
+	 *            Indexed element.
+	 * @return Amount of bytes the rollups grew.
+	 */
+	public long add(DefaultData element) {
+		long size = 0;
+		for (Rollup<?> rollup : rollups) {
+			if (rollup.accepts(element)) {
+				size += rollup.add(element);
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Adds the invocation child that is indexed directly and not through the buffer to all rollups
+	 * it belongs to. The buckets of the child are dropped when the invocation it belongs to is
+	 * evicted.
+	 *
+	 * @param element
+	 *            Invocation child that was indexed.
+	 * @see #takeInvocationChildrenSize()
+	 */
+	public void addInvocationChild(DefaultData element) {
+		long size = add(element);
+		if (size > 0) {
+			invocationChildrenSize.addAndGet(size);
+		}
+	}
+
+	/**
+	 * Returns the amount of bytes the rollups grew because of the added invocation children since
+	 * the last call of this method. The buffer adds the returned size to its own size.
+	 *
+	 * @return Amount of bytes.
+	 */
+	public long takeInvocationChildrenSize() {
+		return invocationChildrenSize.getAndSet(0);
+	}
+
+	/**
+	 * Drops the buckets the evicted element belongs to. If the element is an invocation the buckets
+	 * of all children that were added with {@link #addInvocationChild(DefaultData)} are dropped as
+	 * well.
+	 *
+	 * @param element
+	 *            Evicted element.
+	 * @return Amount of bytes released by the rollups.
+	 */
+	public long evicted(DefaultData element) {
+		if (rollups.isEmpty()) {
+			return 0;
+		}
+
+		long size = drop(element);
+		if (element instanceof InvocationSequenceData) {
+			size += evictedInvocationChildren((InvocationSequenceData) element);
+		}
+		return size;
+	}
+
+	/**
+	 * Drops the buckets of the element.
+	 *
+	 * @param element
+	 *            Element.
+	 * @return Amount of bytes released by the rollups.
+	 */
+	private long drop(DefaultData element) {
+		long size = 0;
+		for (Rollup<?> rollup : rollups) {
+			if (rollup.accepts(element)) {
+				size += rollup.drop(element);
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Drops the buckets of the invocation children that are only found in invocations, as only
+	 * those are indexed directly.
+	 *
+	 * @param invocation
+	 *            Evicted invocation or one of its nested sequences.
+	 * @return Amount of bytes released by the rollups.
+	 */
+	private long evictedInvocationChildren(InvocationSequenceData invocation) {
+		long size = 0;
+		size += evictedInvocationChild(invocation.getTimerData());
+		size += evictedInvocationChild(invocation.getSqlStatementData());
+		if (CollectionUtils.isNotEmpty(invocation.getExceptionSensorDataObjects())) {
+			for (ExceptionSensorData exceptionData : invocation.getExceptionSensorDataObjects()) {
+				size += evictedInvocationChild(exceptionData);
+			}
+		}
+		if (CollectionUtils.isNotEmpty(invocation.getNestedSequences())) {
+			for (InvocationSequenceData child : invocation.getNestedSequences()) {
+				size += evictedInvocationChildren(child);
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Drops the buckets of the invocation child if it is only found in invocations.
+	 *
+	 * @param child
+	 *            Invocation child, can be <code>null</code>.
+	 * @return Amount of bytes released by the rollups.
+	 */
+	private long evictedInvocationChild(InvocationAwareData child) {
+		if ((null != child) && child.isOnlyFoundInInvocations()) {
+			return drop(child);
+		}
+		return 0;
+	}
+
+	/**
+	 * Clears all rollups.
+	 */
+	public void clearAll() {
+		for (Rollup<?> rollup : rollups) {
+			rollup.clear();
+		}
+		invocationChildrenSize.set(0);
+	}
+
+	/**
+	 * Aggregates the data for the query with help of the rollup that is maintained for the given
+	 * aggregator. Returns <code>null</code> if the query can not be answered by the rollups.
+	 *
+	 * @param <E>
+	 *            Type of the data.
+	 * @param query
+	 *            Query.
+	 * @param aggregator
+	 *            Aggregator.
+	 * @param indexingTree
+	 *            Indexing tree to aggregate the data not covered by the rollup from.
+	 * @return Aggregated data or <code>null</code> if the query can not be answered by the
+	 *         rollups.
+	 */
+	@SuppressWarnings("unchecked")
+	public <E extends DefaultData> List<E> aggregate(IIndexQuery query, IAggregator<E> aggregator, IBufferTreeComponent<E> indexingTree) {
+		if ((query.getMinId() != 0) || CollectionUtils.isNotEmpty(query.getIndexingRestrictionList()) || (null == query.getObjectClasses())) {
+			return null;
+		}
+		// with from date not before to date the query does not restrict the time
+		if (((null != query.getFromDate()) || (null != query.getToDate())) && !query.isIntervalSet()) {
+			return null;
+		}
+
+		for (Rollup<?> rollup : rollups) {
+			if (rollup.aggregator.equals(aggregator) && rollup.classes.equals(new HashSet<>(query.getObjectClasses()))) {
+				return ((Rollup<E>) rollup).aggregate(query, indexingTree);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the start of the bucket the given time belongs to.
+	 *
+	 * @param time
+	 *            Time in milliseconds.
+	 * @return Bucket start.
+	 */
+	long getBucketStart(long time) {
+		return Math.floorDiv(time, bucketLength) * bucketLength;
+	}
+
+	/**
+	 * Registers the rollup.
+	 *
+	 * @param <E>
+	 *            Type of the data.
+	 * @param aggregator
+	 *            Aggregator of the rollup.
+	 * @param classes
+	 *            Classes that are aggregated, must be same as the classes of the queries answered
+	 *            by the rollup.
+	 */
+	private <E extends DefaultData> void register(IAggregator<E> aggregator, Class<?>... classes) {
+		rollups.add(new Rollup<>(aggregator, new HashSet<>(Arrays.asList(classes))));
+	}
+
+	/**
+	 * Creates the rollups.
+	 */
+	@PostConstruct
+	public void postConstruct() {
+		bucketLength = bufferProperties.getRollupBucketLength();
+
+		if (bucketLength > 0) {
+			register(Aggregators.TIMER_DATA_AGGREGATOR, TimerData.class, AggregatedTimerData.class);
+			register(Aggregators.SQL_STATEMENT_DATA_AGGREGATOR, SqlStatementData.class, AggregatedSqlStatementData.class);
+			register(Aggregators.GROUP_EXCEPTION_OVERVIEW_AGGREGATOR, ExceptionSensorData.class, AggregatedExceptionSensorData.class);
+			register(new HttpTimerDataAggregator(true, false), HttpTimerData.class, AggregatedHttpTimerData.class);
+			register(new HttpTimerDataAggregator(true, true), HttpTimerData.class, AggregatedHttpTimerData.class);
+		}
+
+		if (log.isInfoEnabled()) {
+			if (bucketLength > 0) {
+				log.info("|-Maintaining " + rollups.size() + " buffer rollups with bucket length of " + NumberFormat.getInstance().format(bucketLength) + " ms...");
+			} else {
+				log.info("|-Buffer rollups not active...");
+			}
+		}
+	}
+
+	/**
+	 * Rollup of one aggregator.
+	 *
+	 * @param <E>
+	 *            Type of the data.
+	 */
+	private class Rollup<E extends DefaultData> {
+
+		/**
+		 * Aggregator of the rollup.
+		 */
+		private final IAggregator<E> aggregator;
+
+		/**
+		 * Classes that are aggregated.
+		 */
+		private final Set<Class<?>> classes;
+
+		/**
+		 * Buckets by their start time.
+		 */
+		private final ConcurrentSkipListMap<Long, Bucket<E>> buckets = new ConcurrentSkipListMap<>();
+
+		/**
+		 * Amount of buckets in the map, as size of the skip list map is not constant-time
+		 * operation.
+		 */
+		private final AtomicInteger bucketCount = new AtomicInteger();
+
+		/**
+		 * Bucket for the elements without the time stamp.
+		 */
+		private volatile Bucket<E> noTimestampBucket = new Bucket<>();
+
+		/**
+		 * Buckets that start before this time are not available any more.
+		 */
+		private volatile long validFrom = Long.MIN_VALUE;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param aggregator
+		 *            Aggregator of the rollup.
+		 * @param classes
+		 *            Classes that are aggregated.
+		 */
+		Rollup(IAggregator<E> aggregator, Set<Class<?>> classes) {
+			this.aggregator = aggregator;
+			this.classes = classes;
+		}
+
+		/**
+		 * If the element belongs to this rollup.
+		 *
+		 * @param element
+		 *            Element.
+		 * @return If the element belongs to this rollup.
+		 */
+		boolean accepts(DefaultData element) {
+			return classes.contains(element.getClass());
+		}
+
+		/**
+		 * Adds the element to its bucket.
+		 *
+		 * @param element
+		 *            Element.
+		 * @return Amount of bytes the rollup grew.
+		 */
+		@SuppressWarnings("unchecked")
+		long add(DefaultData element) {
+			Bucket<E> bucket;
+			if (null == element.getTimeStamp()) {
+				bucket = noTimestampBucket;
+			} else {
+				long bucketStart = getBucketStart(element.getTimeStamp().getTime());
+				if (bucketStart < validFrom) {
+					return 0;
+				}
+				bucket = getOrCreateBucket(bucketStart);
+			}
+
+			long size = bucket.add((E) element, aggregator);
+			if (bucketCount.get() > MAX_BUCKETS) {
+				size -= trim();
+			}
+			return size;
+		}
+
+		/**
+		 * Drops the bucket of the element. If the bucket does not exist yet it is created as
+		 * dropped, so that the elements of the bucket indexed later are not added to it.
+		 *
+		 * @param element
+		 *            Element.
+		 * @return Amount of bytes released.
+		 */
+		long drop(DefaultData element) {
+			if (null == element.getTimeStamp()) {
+				return noTimestampBucket.drop();
+			}
+
+			long bucketStart = getBucketStart(element.getTimeStamp().getTime());
+			if (bucketStart < validFrom) {
+				return 0;
+			}
+			return getOrCreateBucket(bucketStart).drop();
+		}
+
+		/**
+		 * Clears the rollup.
+		 */
+		void clear() {
+			buckets.clear();
+			bucketCount.set(0);
+			noTimestampBucket = new Bucket<>();
+			validFrom = Long.MIN_VALUE;
+		}
+
+		/**
+		 * Returns the bucket with given start, creating it if it does not exist.
+		 *
+		 * @param bucketStart
+		 *            Start of the bucket.
+		 * @return Bucket.
+		 */
+		private Bucket<E> getOrCreateBucket(long bucketStart) {
+			Bucket<E> bucket = buckets.get(bucketStart);
+			if (null == bucket) {
+				Bucket<E> newBucket = new Bucket<>();
+				bucket = buckets.putIfAbsent(bucketStart, newBucket);
+				if (null == bucket) {
+					bucket = newBucket;
+					bucketCount.incrementAndGet();
+				}
+			}
+			return bucket;
+		}
+
+		/**
+		 * Removes the oldest buckets until there are not more than {@link #MAX_BUCKETS} buckets.
+		 *
+		 * @return Amount of bytes released.
+		 */
+		private synchronized long trim() {
+			long size = 0;
+			while (bucketCount.get() > MAX_BUCKETS) {
+				Entry<Long, Bucket<E>> entry = buckets.pollFirstEntry();
+				if (null == entry) {
+					break;
+				}
+				bucketCount.decrementAndGet();
+				size += entry.getValue().drop();
+				validFrom = Math.max(validFrom, entry.getKey().longValue() + bucketLength);
+			}
+			return size;
+		}
+
+		/**
+		 * Aggregates the data for the query. The buckets that lie completely in the time window of
+		 * the query are merged, the rest of the time window is aggregated from the indexing tree.
+		 *
+		 * @param query
+		 *            Query.
+		 * @param indexingTree
+		 *            Indexing tree.
+		 * @return Aggregated data or <code>null</code> if no bucket lies in the time window or the
+		 *         elements without the time stamp are not available in the rollup any more.
+		 */
+		List<E> aggregate(IIndexQuery query, IBufferTreeComponent<E> indexingTree) {
+			Timestamp fromDate = query.getFromDate();
+			Timestamp toDate = query.getToDate();
+
+			// buckets in [firstBucket, endBucket) are completely in the window, elements in the
+			// bucket containing the to date can be after it (in the same millisecond)
+			long firstBucket = Long.MIN_VALUE;
+			if (null != fromDate) {
+				long from = fromDate.getTime();
+				if ((fromDate.getNanos() % 1000000) != 0) {
+					from++;
+				}
+				firstBucket = getBucketStart(from);
+				if (firstBucket < from) {
+					firstBucket += bucketLength;
+				}
+			}
+			long endBucket = Long.MAX_VALUE;
+			if (null != toDate) {
+				endBucket = getBucketStart(toDate.getTime());
+			}
+			if (firstBucket >= endBucket) {
+				return null;
+			}
+
+			AggregationPerformer<E> aggregationPerformer = new AggregationPerformer<>(aggregator);
+			List<long[]> treeIntervals = new ArrayList<>();
+
+			if (null != fromDate) {
+				addInterval(treeIntervals, fromDate.getTime(), firstBucket);
+			} else if (!query.isIntervalSet() && !noTimestampBucket.mergeTo(query, aggregationPerformer)) {
+				// elements without time stamp can only be read with the complete tree
+				return null;
+			}
+
+			long validFromSnapshot = validFrom;
+			if (firstBucket < validFromSnapshot) {
+				addInterval(treeIntervals, firstBucket, Math.min(validFromSnapshot, endBucket));
+			}
+			if (validFromSnapshot < endBucket) {
+				for (Entry<Long, Bucket<E>> entry : buckets.subMap(Math.max(firstBucket, validFromSnapshot), endBucket).entrySet()) {
+					if (!entry.getValue().mergeTo(query, aggregationPerformer)) {
+						long bucketStart = entry.getKey().longValue();
+						addInterval(treeIntervals, bucketStart, bucketStart + bucketLength);
+					}
+				}
+			}
+
+			if (null != toDate) {
+				addInterval(treeIntervals, endBucket, Long.MAX_VALUE);
+			}
+
+			// aggregate the rest from the tree with the interval view of the query, the query
+			// itself is not changed as it can be used by other threads
+			for (long[] interval : treeIntervals) {
+				Timestamp intervalFrom = getFromDate(interval[0], fromDate);
+				Timestamp intervalTo = getToDate(interval[1], toDate);
+				if ((null != intervalFrom) && (null != intervalTo) && !intervalFrom.before(intervalTo)) {
+					// to date of the query is the start of a bucket, the query would not
+					// restrict the time with from date same as to date
+					intervalFrom = new Timestamp(intervalTo.getTime() - 1);
+					intervalFrom.setNanos(intervalFrom.getNanos() + 999999);
+				}
+				indexingTree.aggregate(new IntervalQuery(query, intervalFrom, intervalTo), aggregationPerformer);
+			}
+
+			return aggregationPerformer.getResultList();
+		}
+
+		/**
+		 * Adds the interval to the list of the intervals, joining it with the last interval if
+		 * they are adjacent.
+		 *
+		 * @param intervals
+		 *            Intervals as arrays of start (inclusive) and end (exclusive).
+		 * @param start
+		 *            Start of the interval (inclusive).
+		 * @param end
+		 *            End of the interval (exclusive).
+		 */
+		private void addInterval(List<long[]> intervals, long start, long end) {
+			if (start >= end) {
+				return;
+			}
+			if (!intervals.isEmpty()) {
+				long[] last = intervals.get(intervals.size() - 1);
+				if (last[1] == start) {
+					last[1] = end;
+					return;
+				}
+			}
+			intervals.add(new long[] { start, end });
+		}
+
+		/**
+		 * Returns the from date for the interval start, not before the from date of the query. An
+		 * unbounded start is not representable as time stamp, thus the from date of the query is
+		 * returned for it.
+		 *
+		 * @param start
+		 *            Interval start (inclusive).
+		 * @param fromDate
+		 *            From date of the query.
+		 * @return From date.
+		 */
+		private Timestamp getFromDate(long start, Timestamp fromDate) {
+			if ((Long.MIN_VALUE == start) || ((null != fromDate) && (start <= fromDate.getTime()))) {
+				return fromDate;
+			}
+			return new Timestamp(start);
+		}
+
+		/**
+		 * Returns the to date for the interval end, not after the to date of the query.
+		 *
+		 * @param end
+		 *            Interval end (exclusive).
+		 * @param toDate
+		 *            To date of the query.
+		 * @return To date.
+		 */
+		private Timestamp getToDate(long end, Timestamp toDate) {
+			if ((Long.MAX_VALUE == end) || ((null != toDate) && (end > toDate.getTime()))) {
+				return toDate;
+			}
+			// last nanosecond of the previous millisecond
+			Timestamp timestamp = new Timestamp(end - 1);
+			timestamp.setNanos(timestamp.getNanos() + 999999);
+			return timestamp;
+		}
+	}
+
+	/**
+	 * Aggregates of one time bucket.
+	 *
+	 * @param <E>
+	 *            Type of the data.
+	 */
+	private class Bucket<E extends DefaultData> {
+
+		/**
+		 * Aggregates in the bucket.
+		 */
+		private Map<RollupKey, IAggregatedData<E>> aggregates = new HashMap<>();
+
+		/**
+		 * Estimated size of the aggregates in bytes.
+		 */
+		private long size;
+
+		/**
+		 * If the bucket was dropped.
+		 */
+		private boolean dropped;
+
+		/**
+		 * Adds the element to the aggregates of the bucket. The IDs of the aggregated elements are
+		 * not kept.
+		 *
+		 * @param element
+		 *            Element.
+		 * @param aggregator
+		 *            Aggregator.
+		 * @return Amount of bytes the bucket grew.
+		 */
+		synchronized long add(E element, IAggregator<E> aggregator) {
+			if (dropped) {
+				return 0;
+			}
+
+			long added = 0;
+			RollupKey key = new RollupKey(element, aggregator.getAggregationKey(element));
+			IAggregatedData<E> aggregatedData = aggregates.get(key);
+			if (null == aggregatedData) {
+				aggregatedData = aggregator.getClone(element);
+				aggregates.put(key, aggregatedData);
+				added = element.getObjectSize(objectSizes);
+			}
+			aggregator.aggregate(aggregatedData, element);
+			if (aggregatedData instanceof IIdsAwareAggregatedData) {
+				((IIdsAwareAggregatedData<?>) aggregatedData).clearAggregatedIds();
+			}
+			size += added;
+			return added;
+		}
+
+		/**
+		 * Drops the bucket.
+		 *
+		 * @return Amount of bytes released.
+		 */
+		synchronized long drop() {
+			if (dropped) {
+				return 0;
+			}
+			dropped = true;
+			aggregates = null;
+			long released = size;
+			size = 0;
+			return released;
+		}
+
+		/**
+		 * Passes the aggregates of the bucket that satisfy the query to the aggregation performer.
+		 *
+		 * @param query
+		 *            Query.
+		 * @param aggregationPerformer
+		 *            Aggregation performer.
+		 * @return <code>false</code> if the bucket was dropped, <code>true</code> otherwise.
+		 */
+		synchronized boolean mergeTo(IIndexQuery query, AggregationPerformer<E> aggregationPerformer) {
+			if (dropped) {
+				return false;
+			}
+			for (Entry<RollupKey, IAggregatedData<E>> entry : aggregates.entrySet()) {
+				if (entry.getKey().isQueryComplied(query)) {
+					aggregationPerformer.processElement(entry.getValue().getData());
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Key of the aggregate in the bucket. Next to the aggregation key it holds the idents the
+	 * queries can be restricted to.
+	 */
+	private static class RollupKey {
+
+		/**
+		 * Platform ident.
+		 */
+		private final long platformIdent;
+
+		/**
+		 * Sensor type ident.
+		 */
+		private final long sensorTypeIdent;
+
+		/**
+		 * Method ident.
+		 */
+		private final long methodIdent;
+
+		/**
+		 * Aggregation key.
+		 */
+		private final Object aggregationKey;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param element
+		 *            Element to take the idents from.
+		 * @param aggregationKey
+		 *            Aggregation key.
+		 */
+		RollupKey(DefaultData element, Object aggregationKey) {
+			this.platformIdent = element.getPlatformIdent();
+			this.sensorTypeIdent = element.getSensorTypeIdent();
+			if (element instanceof MethodSensorData) {
+				this.methodIdent = ((MethodSensorData) element).getMethodIdent();
+			} else {
+				this.methodIdent = 0;
+			}
+			this.aggregationKey = aggregationKey;
+		}
+
+		/**
+		 * If the elements of this key satisfy the ident restrictions of the query.
+		 *
+		 * @param query
+		 *            Query.
+		 * @return If the elements of this key satisfy the ident restrictions of the query.
+		 */
+		boolean isQueryComplied(IIndexQuery query) {
+			if ((query.getPlatformIdent() != 0) && (query.getPlatformIdent() != platformIdent)) {
+				return false;
+			}
+			if ((query.getSensorTypeIdent() != 0) && (query.getSensorTypeIdent() != sensorTypeIdent)) {
+				return false;
+			}
+			if ((query.getMethodIdent() != 0) && (query.getMethodIdent() != methodIdent)) {
+				return false;
+			}
+			return true;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = (prime * result) + (int) (platformIdent ^ (platformIdent >>> 32));
+			result = (prime * result) + (int) (sensorTypeIdent ^ (sensorTypeIdent >>> 32));
+			result = (prime * result) + (int) (methodIdent ^ (methodIdent >>> 32));
+			result = (prime * result) + ((aggregationKey == null) ? 0 : aggregationKey.hashCode());
+			return result;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null) {
+				return false;
+			}
+			if (getClass() != obj.getClass()) {
+				return false;
+			}
+			RollupKey other = (RollupKey) obj;
+			if (platformIdent != other.platformIdent) {
+				return false;
+			}
+			if (sensorTypeIdent != other.sensorTypeIdent) {
+				return false;
+			}
+			if (methodIdent != other.methodIdent) {
+				return false;
+			}
+			if (aggregationKey == null) {
+				if (other.aggregationKey != null) {
+					return false;
+				}
+			} else if (!aggregationKey.equals(other.aggregationKey)) {
+				return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Read-only view of the query with a different time interval. Used to aggregate the parts of
+	 * the query time window not covered by the buckets from the indexing tree without changing the
+	 * query of the caller.
+	 */
+	private static class IntervalQuery implements IIndexQuery {
+
+		/**
+		 * Query all but the time interval is taken from.
+		 */
+		private final IIndexQuery query;
+
+		/**
+		 * From date of the interval.
+		 */
+		private final Timestamp fromDate;
+
+		/**
+		 * To date of the interval.
+		 */
+		private final Timestamp toDate;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param query
+		 *            Query all but the time interval is taken from.
+		 * @param fromDate
+		 *            From date of the interval, can be <code>null</code>.
+		 * @param toDate
+		 *            To date of the interval, can be <code>null</code>.
+		 */
+		IntervalQuery(IIndexQuery query, Timestamp fromDate, Timestamp toDate) {
+			this.query = query;
+			this.fromDate = fromDate;
+			this.toDate = toDate;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public long getMinId() {
+			return query.getMinId();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void setMinId(long minId) {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public long getPlatformIdent() {
+			return query.getPlatformIdent();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void setPlatformIdent(long platformIdent) {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public long getSensorTypeIdent() {
+			return query.getSensorTypeIdent();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void setSensorTypeIdent(long sensorTypeIdent) {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public long getMethodIdent() {
+			return query.getMethodIdent();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void setMethodIdent(long methodIdent) {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public List<Class<?>> getObjectClasses() {
+			return query.getObjectClasses();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void setObjectClasses(List<Class<?>> objectClasses) {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Timestamp getFromDate() {
+			return fromDate;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void setFromDate(Timestamp fromDate) {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Timestamp getToDate() {
+			return toDate;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void setToDate(Timestamp toDate) {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void addIndexingRestriction(IIndexQueryRestriction indexingRestriction) {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public List<IIndexQueryRestriction> getIndexingRestrictionList() {
+			return query.getIndexingRestrictionList();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isIntervalSet() {
+			if (null != fromDate) {
+				return (null == toDate) || fromDate.before(toDate);
+			}
+			return null != toDate;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isInInterval(Timestamp timestamp) {
+			if (!isIntervalSet()) {
+				return true;
+			}
+			if (null == timestamp) {
+				return false;
+			}
+			return ((null == fromDate) || (fromDate.compareTo(timestamp) <= 0)) && ((null == toDate) || (toDate.compareTo(timestamp) >= 0));
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean areAllRestrictionsFulfilled(DefaultData defaultData) {
+			return query.areAllRestrictionsFulfilled(defaultData);
+		}
+	}
+}
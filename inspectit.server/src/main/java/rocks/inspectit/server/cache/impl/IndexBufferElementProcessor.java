@@ -11,8 +11,8 @@ import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.cs.indexing.impl.IndexingException;
 
 /**
- * Index processor. Performs indexing of the elements, update of indexing tree size and cleaning the
- * indexing tree.
+ * Index processor. Performs indexing of the elements, update of the buffer rollups, update of
+ * indexing tree size and cleaning the indexing tree.
  *
  * @param <E>
  *            Type of data to process.
@@ -102,6 +102,14 @@ class IndexBufferElementProcessor<E extends DefaultData> extends AbstractBufferE
 				atomicBuffer.indexingTree.put(elementToProcess.getObject());
 				elementToProcess.setBufferElementState(BufferElementState.INDEXED);
 
+				// maintain the rollups of the element, including the growth caused by the
+				// invocation children indexed directly
+				long rollupsSize = atomicBuffer.bufferRollups.add(elementToProcess.getObject());
+				rollupsSize += atomicBuffer.bufferRollups.takeInvocationChildrenSize();
+				if (rollupsSize > 0) {
+					atomicBuffer.addToCurrentSize(rollupsSize, false);
+				}
+
 				// increase number of indexed elements, and perform calculation of the
 				// indexing tree size if enough elements have been indexed
 				atomicBuffer.elementsIndexed.incrementAndGet();
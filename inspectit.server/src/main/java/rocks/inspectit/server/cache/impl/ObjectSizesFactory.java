@@ -3,8 +3,8 @@ package rocks.inspectit.server.cache.impl;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.stereotype.Component;
 
+import rocks.inspectit.shared.all.cmr.cache.AbstractObjectSizes;
 import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
-import rocks.inspectit.shared.all.util.UnderlyingSystemInfo;
 
 /**
  * Factory for returning the correct instance of {@link IObjectSizes} for Spring initialization. The
@@ -24,12 +24,7 @@ public class ObjectSizesFactory implements FactoryBean<IObjectSizes> {
 	 */
 	@Override
 	public IObjectSizes getObject() throws Exception {
-		boolean compressedOops = UnderlyingSystemInfo.IS_COMPRESSED_OOPS;
-		if (!compressedOops) {
-			return new ObjectSizes64Bits();
-		} else {
-			return new ObjectSizes64BitsCompressedOops();
-		}
+		return AbstractObjectSizes.forUnderlyingSystem();
 	}
 
 	/**
@@ -9,6 +9,7 @@ import java.util.concurrent.ForkJoinPool;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 
+import rocks.inspectit.server.cache.impl.BufferRollups;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.indexing.IIndexQuery;
 import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
@@ -32,6 +33,12 @@ public abstract class AbstractBufferDataDao<E extends DefaultData> {
 	@Autowired
 	private IBufferTreeComponent<E> indexingTree;
 
+	/**
+	 * Rollups of the buffer data.
+	 */
+	@Autowired
+	private BufferRollups bufferRollups;
+
 	/**
 	 * ForkJoinPool to manage the forks.
 	 */
@@ -158,6 +165,11 @@ public abstract class AbstractBufferDataDao<E extends DefaultData> {
 	 * Executes the query on the indexing tree. If the {@link IAggregator} is not <code>null</code>
 	 * then the results will be aggregated based on the given {@link IAggregator}. Results can be
 	 * sorted by comparator. Furthermore the result list can be limited.
+	 * <p>
+	 * The aggregation is answered by the {@link BufferRollups} when possible, otherwise it is
+	 * performed in the indexing tree. When fork-join is used each leaf
+	 * aggregates its elements and the partial results are merged, thus the aggregator must be able
+	 * to aggregate its own aggregation results.
 	 *
 	 * @param indexQuery
 	 *            Index query to execute.
@@ -174,16 +186,24 @@ public abstract class AbstractBufferDataDao<E extends DefaultData> {
 	protected List<E> executeQuery(IIndexQuery indexQuery, IAggregator<E> aggregator, Comparator<? super E> comparator, int limit, boolean useForkJoin) {
 		List<E> data;
 
-		if (useForkJoin) {
+		if (null != aggregator) {
+			// try the rollups first, otherwise aggregate in the tree so that the list of all
+			// matching elements is never created
+			data = bufferRollups.aggregate(indexQuery, aggregator, indexingTree);
+			if (null == data) {
+				if (useForkJoin) {
+					data = indexingTree.aggregate(indexQuery, aggregator, forkJoinPool);
+				} else {
+					AggregationPerformer<E> aggregationPerformer = new AggregationPerformer<>(aggregator);
+					indexingTree.aggregate(indexQuery, aggregationPerformer);
+					data = aggregationPerformer.getResultList();
+				}
+			}
+		} else if (useForkJoin) {
 			data = indexingTree.query(indexQuery, forkJoinPool);
 		} else {
 			data = indexingTree.query(indexQuery);
 		}
-		if (null != aggregator) {
-			AggregationPerformer<E> aggregationPerformer = new AggregationPerformer<>(aggregator);
-			aggregationPerformer.processCollection(data);
-			data = aggregationPerformer.getResultList();
-		}
 
 		if (null != comparator) {
 			Collections.sort(data, comparator);
@@ -4,22 +4,32 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
 import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import rocks.inspectit.server.indexing.impl.RootBranchFactory.RootBranch;
 import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferBranchIndexer;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
 import rocks.inspectit.shared.cs.indexing.buffer.impl.Branch;
 import rocks.inspectit.shared.cs.indexing.buffer.impl.BufferBranchIndexer;
 import rocks.inspectit.shared.cs.indexing.impl.IndexingException;
+import rocks.inspectit.shared.cs.indexing.indexer.impl.MethodIdentIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.ObjectTypeIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.PlatformIdentIndexer;
+import rocks.inspectit.shared.cs.indexing.indexer.impl.SqlStringIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.TimestampIndexer;
 
 /**
  * Factory that creates the root branch for indexing tree. This root branch will be injected in
  * Spring as a bean.
+ * <p>
+ * If activated, the leafs of the timer, SQL, exception and invocation data get the secondary index
+ * on the method ident, the leafs of the SQL data additionally on the SQL string.
  *
  * @author Ivan Senic
  *
@@ -27,12 +37,26 @@ import rocks.inspectit.shared.cs.indexing.indexer.impl.TimestampIndexer;
 @Component
 public class RootBranchFactory implements FactoryBean<RootBranch<DefaultData>> {
 
+	/**
+	 * If the leafs should have the secondary indexes.
+	 */
+	@Value("${buffer.secondaryIndexes}")
+	private boolean secondaryIndexes;
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public RootBranch<DefaultData> getObject() throws Exception {
 		BufferBranchIndexer<DefaultData> timestampIndexer = new BufferBranchIndexer<>(new TimestampIndexer<>());
+		if (secondaryIndexes) {
+			MethodIdentIndexer<DefaultData> methodIdentIndexer = new MethodIdentIndexer<>();
+			timestampIndexer.addSecondaryIndexer(TimerData.class, methodIdentIndexer);
+			timestampIndexer.addSecondaryIndexer(SqlStatementData.class, methodIdentIndexer);
+			timestampIndexer.addSecondaryIndexer(SqlStatementData.class, new SqlStringIndexer<>());
+			timestampIndexer.addSecondaryIndexer(ExceptionSensorData.class, methodIdentIndexer);
+			timestampIndexer.addSecondaryIndexer(InvocationSequenceData.class, methodIdentIndexer);
+		}
 		BufferBranchIndexer<DefaultData> objectTypeIndexer = new BufferBranchIndexer<>(new ObjectTypeIndexer<>(), timestampIndexer);
 		BufferBranchIndexer<DefaultData> platformIndexer = new BufferBranchIndexer<>(new PlatformIdentIndexer<>(), objectTypeIndexer);
 		return new RootBranch<>(platformIndexer);
@@ -54,6 +78,16 @@ public class RootBranchFactory implements FactoryBean<RootBranch<DefaultData>> {
 		return true;
 	}
 
+	/**
+	 * Sets {@link #secondaryIndexes}.
+	 *
+	 * @param secondaryIndexes
+	 *            New value for {@link #secondaryIndexes}
+	 */
+	public void setSecondaryIndexes(boolean secondaryIndexes) {
+		this.secondaryIndexes = secondaryIndexes;
+	}
+
 	/**
 	 * Root branch. It has additional functionality of generating IDs for the elements that need to
 	 * be put into the indexing tree.
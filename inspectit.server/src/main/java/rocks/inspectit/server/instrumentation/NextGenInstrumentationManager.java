@@ -29,6 +29,7 @@ import rocks.inspectit.server.instrumentation.config.ConfigurationResolver;
 import rocks.inspectit.server.instrumentation.config.applier.JmxMonitoringApplier;
 import rocks.inspectit.shared.all.exception.BusinessException;
 import rocks.inspectit.shared.all.exception.enumeration.AgentManagementErrorCodeEnum;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableType;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
@@ -118,7 +119,7 @@ public class NextGenInstrumentationManager implements ApplicationListener<AgentD
 		// if we have same environment and configuration return configuration
 		if (configurationHolder.isInitialized() && Objects.equals(environment, cachedEnvironment)) {
 			AgentConfig agentConfiguration = configurationHolder.getAgentConfiguration();
-			Map<Collection<String>, InstrumentationDefinition> initial = classCache.getInstrumentationService().getInstrumentationResultsWithHashes();
+			Map<Collection<ClassHash>, InstrumentationDefinition> initial = classCache.getInstrumentationService().getInstrumentationResultsWithHashes();
 			agentConfiguration.setInitialInstrumentationResults(initial);
 			agentConfiguration.setClassCacheExistsOnCmr(true);
 			return agentConfiguration;
@@ -150,7 +151,7 @@ public class NextGenInstrumentationManager implements ApplicationListener<AgentD
 	/**
 	 * {@inheritDoc}
 	 */
-	public InstrumentationDefinition analyze(long platformIdent, String hash, Type sentType) throws BusinessException {
+	public InstrumentationDefinition analyze(long platformIdent, ClassHash hash, Type sentType) throws BusinessException {
 		AgentCacheEntry agentCacheEntry = agentCacheMap.get(Long.valueOf(platformIdent));
 		if (null == agentCacheEntry) {
 			throw new BusinessException("Instrumenting class with hash '" + hash + "' for the agent with id=" + platformIdent, AgentManagementErrorCodeEnum.AGENT_DOES_NOT_EXIST);
@@ -189,6 +190,32 @@ public class NextGenInstrumentationManager implements ApplicationListener<AgentD
 		return classCache.getInstrumentationService().addAndGetInstrumentationResult(classType, configurationHolder.getAgentConfiguration(), configurationHolder.getInstrumentationAppliers());
 	}
 
+	/**
+	 * Analyzes the types in the given order with {@link #analyze(long, String, Type)}. Order is
+	 * important as the agent sends the depending types before the types depending on them.
+	 *
+	 * @param platformIdent
+	 *            Id of the agent.
+	 * @param hashes
+	 *            Class hash codes.
+	 * @param sentTypes
+	 *            Types sent by the agent, one for each hash.
+	 * @return Instrumentation definitions in the same order as the types.
+	 * @throws BusinessException
+	 *             If agent with specified id does not exist.
+	 */
+	public List<InstrumentationDefinition> analyzeBatch(long platformIdent, List<ClassHash> hashes, List<Type> sentTypes) throws BusinessException {
+		if (hashes.size() != sentTypes.size()) {
+			throw new IllegalArgumentException("Amount of hashes (" + hashes.size() + ") and types (" + sentTypes.size() + ") to analyze is not equal.");
+		}
+
+		List<InstrumentationDefinition> results = new ArrayList<>(hashes.size());
+		for (int i = 0; i < hashes.size(); i++) {
+			results.add(analyze(platformIdent, hashes.get(i), sentTypes.get(i)));
+		}
+		return results;
+	}
+
 	/**
 	 * Generates {@link RefreshInstrumentationTimestampsJob} for the given method IDs.
 	 *
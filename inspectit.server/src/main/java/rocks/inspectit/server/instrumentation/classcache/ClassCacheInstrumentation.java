@@ -18,6 +18,7 @@ import org.springframework.stereotype.Component;
 import rocks.inspectit.server.instrumentation.config.ClassCacheSearchNarrower;
 import rocks.inspectit.server.instrumentation.config.applier.IInstrumentationApplier;
 import rocks.inspectit.server.instrumentation.config.applier.RemoveAllInstrumentationApplier;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableType;
@@ -163,7 +164,7 @@ public class ClassCacheInstrumentation {
 	 * @return Map holding key-value pairs that connect set of hashes to the
 	 *         {@link InstrumentationDefinition}.
 	 */
-	public Map<Collection<String>, InstrumentationDefinition> getInstrumentationResultsWithHashes() {
+	public Map<Collection<ClassHash>, InstrumentationDefinition> getInstrumentationResultsWithHashes() {
 		return getInstrumentationResultsWithHashes(classCache.getLookupService().findAll());
 	}
 
@@ -177,16 +178,16 @@ public class ClassCacheInstrumentation {
 	 * @return Map holding key-value pairs that connect set of hashes to the
 	 *         {@link InstrumentationDefinition}.
 	 */
-	public Map<Collection<String>, InstrumentationDefinition> getInstrumentationResultsWithHashes(final Collection<? extends ImmutableType> types) {
+	public Map<Collection<ClassHash>, InstrumentationDefinition> getInstrumentationResultsWithHashes(final Collection<? extends ImmutableType> types) {
 		if (CollectionUtils.isEmpty(types)) {
 			return Collections.emptyMap();
 		}
 
 		try {
-			return classCache.executeWithReadLock(new Callable<Map<Collection<String>, InstrumentationDefinition>>() {
+			return classCache.executeWithReadLock(new Callable<Map<Collection<ClassHash>, InstrumentationDefinition>>() {
 				@Override
-				public Map<Collection<String>, InstrumentationDefinition> call() throws Exception {
-					Map<Collection<String>, InstrumentationDefinition> map = new HashMap<>();
+				public Map<Collection<ClassHash>, InstrumentationDefinition> call() throws Exception {
+					Map<Collection<ClassHash>, InstrumentationDefinition> map = new HashMap<>();
 					for (ImmutableType type : types) {
 						if (type.isInitialized() && type.isClass()) {
 							ImmutableClassType immutableClassType = type.castToClass();
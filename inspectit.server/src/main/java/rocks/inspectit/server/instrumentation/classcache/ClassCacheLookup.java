@@ -16,6 +16,7 @@ import org.springframework.stereotype.Component;
 
 import rocks.inspectit.server.instrumentation.classcache.index.FqnIndexer;
 import rocks.inspectit.server.instrumentation.classcache.index.HashIndexer;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableAnnotationType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableInterfaceType;
@@ -100,7 +101,7 @@ public class ClassCacheLookup {
 	 *            Type hash
 	 * @return Found type or <code>null</code> if one does not exists.
 	 */
-	public ImmutableType findByHash(final String hash) {
+	public ImmutableType findByHash(final ClassHash hash) {
 		try {
 			return classcache.executeWithReadLock(new Callable<ImmutableType>() {
 				@Override
@@ -19,6 +19,7 @@ import rocks.inspectit.server.instrumentation.classcache.events.ReferenceEvent;
 import rocks.inspectit.server.instrumentation.classcache.events.ReferenceEvent.ReferenceType;
 import rocks.inspectit.shared.all.instrumentation.classcache.AbstractInterfaceType;
 import rocks.inspectit.shared.all.instrumentation.classcache.AnnotationType;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableType;
 import rocks.inspectit.shared.all.instrumentation.classcache.InterfaceType;
@@ -124,7 +125,7 @@ public class ClassCacheModification {
 						// in the type), then we are done. Note that this check needs to be done
 						// after the check for the FQN otherwise we need to add this one here as
 						// well.
-						for (String hash : given.getHashes()) {
+						for (ClassHash hash : given.getHashes()) {
 							if (inStructureRaw.containsHash(hash)) {
 								return events;
 							}
@@ -395,7 +396,7 @@ public class ClassCacheModification {
 	 */
 	private void merge(Type base, Type given, Events events) {
 		// we already know that we have a new hash
-		for (String hash : given.getHashes()) {
+		for (ClassHash hash : given.getHashes()) {
 			base.addHash(hash);
 		}
 		if (!base.isInitialized()) {
@@ -13,6 +13,7 @@ import rocks.inspectit.server.instrumentation.classcache.events.NodeEvent;
 import rocks.inspectit.server.instrumentation.classcache.events.NodeEvent.NodeEventDetails;
 import rocks.inspectit.server.instrumentation.classcache.events.NodeEvent.NodeEventType;
 import rocks.inspectit.server.instrumentation.classcache.events.ReferenceEvent;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableType;
 
 /**
@@ -32,7 +33,7 @@ public class HashIndexer implements INodeChangeListener {
 	/**
 	 * Simple hash map for holding hashes.
 	 */
-	private final Map<String, ImmutableType> storage = new HashMap<>();
+	private final Map<ClassHash, ImmutableType> storage = new HashMap<>();
 
 	/**
 	 * {@inheritDoc}
@@ -42,13 +43,13 @@ public class HashIndexer implements INodeChangeListener {
 		if (NodeEventDetails.INITIALIZED.equals(event.getEventDetails())) {
 			// if it's initialized type index it cause he have hash
 			ImmutableType type = event.getType();
-			for (String hash : type.getHashes()) {
+			for (ClassHash hash : type.getHashes()) {
 				storage.put(hash, type);
 			}
 		} else if (NodeEventType.CHANGED.equals(event.getEventType()) && NodeEventDetails.HASH_ADDED.equals(event.getEventDetails())) {
 			// otherwise only index it if there is new hash available
 			ImmutableType type = event.getType();
-			for (String hash : type.getHashes()) {
+			for (ClassHash hash : type.getHashes()) {
 				if (!storage.containsKey(hash)) {
 					storage.put(hash, type);
 				}
@@ -56,7 +57,7 @@ public class HashIndexer implements INodeChangeListener {
 		} else if (NodeEventType.REMOVED.equals(event.getEventType())) {
 			// if removed kill all links
 			ImmutableType type = event.getType();
-			for (String hash : type.getHashes()) {
+			for (ClassHash hash : type.getHashes()) {
 				storage.remove(hash);
 			}
 		}
@@ -78,7 +79,7 @@ public class HashIndexer implements INodeChangeListener {
 	 *            Type hash
 	 * @return Returns type or <code>null</code> if it can not be found.
 	 */
-	public ImmutableType lookup(String hash) {
+	public ImmutableType lookup(ClassHash hash) {
 		return storage.get(hash);
 	}
 }
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Component;
 
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentEndUserMonitoringConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.AgentTracingConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.ExceptionSensorTypeConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.JmxAttributeDescriptor;
 import rocks.inspectit.shared.all.instrumentation.config.impl.JmxSensorTypeConfig;
@@ -31,6 +32,7 @@ import rocks.inspectit.shared.cs.ci.sensor.method.special.impl.ExecutorIntercept
 import rocks.inspectit.shared.cs.ci.sensor.method.special.impl.MBeanServerInterceptorSensorConfig;
 import rocks.inspectit.shared.cs.ci.sensor.platform.IPlatformSensorConfig;
 import rocks.inspectit.shared.cs.ci.strategy.IStrategyConfig;
+import rocks.inspectit.shared.cs.ci.tracing.TracingConfig;
 import rocks.inspectit.shared.cs.cmr.service.IRegistrationService;
 
 /**
@@ -103,8 +105,15 @@ public class ConfigurationCreator {
 		}
 
 		EndUserMonitoringConfig eumConf = environment.getEumConfig();
-		agentConfiguration.setEumConfig(new AgentEndUserMonitoringConfig(eumConf.isEumEnabled(), eumConf.getScriptBaseUrl(), eumConf.getActiveModules(), eumConf.getRelevancyThreshold(),
-				eumConf.isListenerInstrumentationAllowed(), eumConf.isAgentMinificationEnabled()));
+		AgentEndUserMonitoringConfig agentEumConfig = new AgentEndUserMonitoringConfig(eumConf.isEumEnabled(), eumConf.getScriptBaseUrl(), eumConf.getActiveModules(),
+				eumConf.getRelevancyThreshold(), eumConf.isListenerInstrumentationAllowed(), eumConf.isAgentMinificationEnabled());
+		agentEumConfig.setSessionBeaconLimit(eumConf.getSessionBeaconLimit());
+		agentConfiguration.setEumConfig(agentEumConfig);
+
+		TracingConfig tracingConfig = environment.getTracingConfig();
+		if (null != tracingConfig) {
+			agentConfiguration.setTracingConfig(getAgentTracingConfig(tracingConfig));
+		}
 
 		// then all special sensors
 		Collection<MethodSensorTypeConfig> specialMethodSensorTypeConfigs = new ArrayList<>(0);
@@ -130,6 +139,22 @@ public class ConfigurationCreator {
 		// retransformation strategy
 		agentConfiguration.setRetransformationStrategy(environment.getRetransformationStrategy());
 
+		// batched class analysis
+		agentConfiguration.setBatchedClassAnalysis(environment.isBatchedClassAnalysis());
+
+		// class hashes
+		agentConfiguration.setSha256ClassHashes(environment.isSha256ClassHashes());
+
+		// indexed dispatch
+		agentConfiguration.setIndexedDispatch(environment.isIndexedDispatch());
+
+		// platform sensors intervals
+		agentConfiguration.setPlatformSamplingInterval(environment.getPlatformSamplingInterval());
+		agentConfiguration.setPlatformSendingInterval(environment.getPlatformSendingInterval());
+
+		// wire mode
+		agentConfiguration.setCompressedWireMode(environment.isCompressedWireMode());
+
 		// exclude classes
 		Collection<ExcludeRule> excludeRules = configurationResolver.getAllExcludeRules(environment);
 		if (CollectionUtils.isNotEmpty(excludeRules)) {
@@ -144,6 +169,7 @@ public class ConfigurationCreator {
 
 		// set configuration info
 		agentConfiguration.setConfigurationInfo(configurationResolver.getConfigurationInfo(environment));
+		agentConfiguration.setConfigurationRevision(configurationResolver.getConfigurationRevision(environment));
 
 		return agentConfiguration;
 	}
@@ -232,4 +258,22 @@ public class ConfigurationCreator {
 		return jmxSensorTypeConfig;
 	}
 
+	/**
+	 * Creates the {@link AgentTracingConfig} from the tracing configuration of the environment.
+	 *
+	 * @param tracingConfig
+	 *            {@link TracingConfig} defined in the {@link Environment}.
+	 * @return {@link AgentTracingConfig}.
+	 */
+	private AgentTracingConfig getAgentTracingConfig(TracingConfig tracingConfig) {
+		AgentTracingConfig agentTracingConfig = new AgentTracingConfig();
+		agentTracingConfig.setSamplingRate(tracingConfig.getSamplingRate());
+		agentTracingConfig.setSamplingProbability(tracingConfig.getSamplingProbability());
+		agentTracingConfig.setTailSamplingEnabled(tracingConfig.isTailSamplingEnabled());
+		agentTracingConfig.setTailSamplingThreshold(tracingConfig.getTailSamplingThreshold());
+		agentTracingConfig.setTailSamplingMaxBytes(tracingConfig.getTailSamplingMaxBytes());
+		agentTracingConfig.setTailSamplingMaxAge(tracingConfig.getTailSamplingMaxAge());
+		return agentTracingConfig;
+	}
+
 }
@@ -1,7 +1,10 @@
 package rocks.inspectit.server.instrumentation.config;
 
+import java.util.ArrayList;
 import java.util.Collection;
 
+import org.apache.commons.lang.StringUtils;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Lazy;
@@ -11,7 +14,10 @@ import org.springframework.stereotype.Component;
 import rocks.inspectit.server.instrumentation.config.applier.IInstrumentationApplier;
 import rocks.inspectit.server.instrumentation.config.applier.JmxMonitoringApplier;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
+import rocks.inspectit.shared.all.pattern.IMatchPattern;
+import rocks.inspectit.shared.all.pattern.PatternFactory;
 import rocks.inspectit.shared.cs.ci.Environment;
+import rocks.inspectit.shared.cs.ci.assignment.AbstractClassSensorAssignment;
 
 /**
  * Configuration holder joins together all relative information needed for the instrumentation of
@@ -75,7 +81,9 @@ public class ConfigurationHolder {
 	 * Updates the defined configuration in the holder with following tasks:<br>
 	 * 1. Creates the new {@link #agentConfiguration} for given environment and platform id<br>
 	 * 2. Resolves all {@link #instrumentationAppliers} for given environment<br>
-	 * 3. sets the passes environment to the holder.
+	 * 3. Passes the class name patterns of the appliers to the agent configuration, so that the
+	 * agent knows which types can be instrumented at all<br>
+	 * 4. sets the passes environment to the holder.
 	 * <p>
 	 * If <code>null</code> is passed then everything saved in the holder will be reset to
 	 * <code>null</code> as well.
@@ -91,6 +99,7 @@ public class ConfigurationHolder {
 			this.agentConfiguration = configurationCreator.environmentToConfiguration(environment, platformId);
 			this.instrumentationAppliers = configurationResolver.getInstrumentationAppliers(environment);
 			this.jmxMonitoringAppliers = configurationResolver.getJmxMonitoringAppliers(environment);
+			this.agentConfiguration.setInstrumentationCandidatePatterns(getInstrumentationCandidatePatterns(instrumentationAppliers));
 		} else {
 			this.environment = null; // NOPMD
 			this.agentConfiguration = null; // NOPMD
@@ -99,6 +108,33 @@ public class ConfigurationHolder {
 		}
 	}
 
+	/**
+	 * Returns the class name patterns of all sensor assignments of the given appliers. A class can
+	 * only be instrumented if it or one of its super-classes or interfaces matches one of these
+	 * patterns, as the annotations and the method settings of an assignment only narrow the
+	 * matching classes.
+	 *
+	 * @param appliers
+	 *            Instrumentation appliers.
+	 * @return Class name patterns or <code>null</code> if any applier is not bound to a class name
+	 *         and thus any class can be instrumented.
+	 */
+	private Collection<IMatchPattern> getInstrumentationCandidatePatterns(Collection<IInstrumentationApplier> appliers) {
+		if (null == appliers) {
+			return null;
+		}
+
+		Collection<IMatchPattern> patterns = new ArrayList<>(appliers.size());
+		for (IInstrumentationApplier applier : appliers) {
+			AbstractClassSensorAssignment<?> assignment = applier.getSensorAssignment();
+			if ((null == assignment) || StringUtils.isEmpty(assignment.getClassName())) {
+				return null;
+			}
+			patterns.add(PatternFactory.getPattern(assignment.getClassName()));
+		}
+		return patterns;
+	}
+
 	/**
 	 * Gets {@link #environment}.
 	 *
@@ -44,6 +44,7 @@ import rocks.inspectit.shared.cs.ci.profile.data.AbstractProfileData;
 import rocks.inspectit.shared.cs.ci.profile.data.ExcludeRulesProfileData;
 import rocks.inspectit.shared.cs.ci.profile.data.JmxDefinitionProfileData;
 import rocks.inspectit.shared.cs.ci.profile.data.SensorAssignmentProfileData;
+import rocks.inspectit.shared.cs.ci.tracing.TracingConfig;
 import rocks.inspectit.shared.cs.cmr.service.IRegistrationService;
 
 /**
@@ -280,6 +281,12 @@ public class ConfigurationResolver {
 		// some options
 		stringBuilder.append("Options:\n"); // NOPMD
 		stringBuilder.append("|-class loading delegation: " + environment.isClassLoadingDelegation() + "\n"); // NOPMD
+		stringBuilder.append("|-batched class analysis: " + environment.isBatchedClassAnalysis() + "\n"); // NOPMD
+		stringBuilder.append("|-SHA-256 class hashes: " + environment.isSha256ClassHashes() + "\n"); // NOPMD
+		stringBuilder.append("|-indexed dispatch: " + environment.isIndexedDispatch() + "\n"); // NOPMD
+		stringBuilder.append("|-platform sensors sampling interval: " + environment.getPlatformSamplingInterval() + " milliseconds\n"); // NOPMD
+		stringBuilder.append("|-platform sensors sending interval: " + environment.getPlatformSendingInterval() + " milliseconds\n"); // NOPMD
+		stringBuilder.append("|-compressed wire mode: " + environment.isCompressedWireMode() + "\n"); // NOPMD
 		stringBuilder.append("|-enhanced exception sensor: " + environment.getExceptionSensorConfig().isEnhanced() + "\n"); // NOPMD
 		stringBuilder.append("|-retransformation strategy: " + environment.getRetransformationStrategy().toString() + "\n"); // NOPMD
 
@@ -290,6 +297,7 @@ public class ConfigurationResolver {
 			stringBuilder.append("\n||-EUM JS agent URL: " + eumConfig.getScriptBaseUrl() + JSAgentModule.JAVASCRIPT_URL_PREFIX + JSAgentModule.JS_AGENT_REVISION + "_" + eumConfig.getActiveModules() + ".js"); // NOPMD
 
 			stringBuilder.append("\n||-Relevancy Threshold: " + eumConfig.getRelevancyThreshold() + " milliseconds"); // NOPMD
+			stringBuilder.append("\n||-Session Beacon Limit: " + eumConfig.getSessionBeaconLimit() + " elements per second"); // NOPMD
 			if (eumConfig.isListenerInstrumentationAllowed()) {
 				stringBuilder.append("\n||-Listener Instrumentation: enabled");
 			} else {
@@ -302,6 +310,61 @@ public class ConfigurationResolver {
 			}
 		}
 
+		TracingConfig tracingConfig = environment.getTracingConfig();
+		if (null != tracingConfig) {
+			if (tracingConfig.getSamplingRate() > 0) {
+				stringBuilder.append("\n|-trace sampling rate: " + tracingConfig.getSamplingRate() + " traces per second"); // NOPMD
+			} else {
+				stringBuilder.append("\n|-trace sampling probability: " + tracingConfig.getSamplingProbability()); // NOPMD
+			}
+			stringBuilder.append("\n|-tail sampling: " + tracingConfig.isTailSamplingEnabled()); // NOPMD
+			if (tracingConfig.isTailSamplingEnabled()) {
+				stringBuilder.append("\n||-Threshold: " + tracingConfig.getTailSamplingThreshold() + " milliseconds"); // NOPMD
+				stringBuilder.append("\n||-Max buffer size: " + tracingConfig.getTailSamplingMaxBytes() + " bytes"); // NOPMD
+				stringBuilder.append("\n||-Max trace age: " + tracingConfig.getTailSamplingMaxAge() + " milliseconds"); // NOPMD
+			}
+		}
+
+		return stringBuilder.toString();
+	}
+
+	/**
+	 * Returns the configuration revision based on the given {@link Environment}. The revision
+	 * consists of the id and revision of the environment and each active profile, thus it changes
+	 * with every change of the configuration that can influence the instrumentation of the agent.
+	 * Profiles are included sorted by their ids, so the revision does not depend on the iteration
+	 * order of the environment's profile id set.
+	 *
+	 * @param environment
+	 *            {@link Environment}.
+	 * @return Configuration revision or <code>null</code> if environment is <code>null</code>.
+	 */
+	public String getConfigurationRevision(Environment environment) {
+		if (null == environment) {
+			return null;
+		}
+
+		StringBuilder stringBuilder = new StringBuilder();
+		stringBuilder.append(environment.getId()).append('@').append(environment.getRevision());
+
+		List<String> profileIds = new ArrayList<>(environment.getProfileIds());
+		Collections.sort(profileIds);
+		for (String profileId : profileIds) {
+			try {
+				Profile profile = configurationInterfaceManager.getProfile(profileId);
+				// don't include inactive profiles
+				if (!profile.isActive()) {
+					continue;
+				}
+
+				stringBuilder.append(';').append(profile.getId()).append('@').append(profile.getRevision());
+			} catch (Exception e) {
+				if (log.isDebugEnabled()) {
+					log.debug("Profile with id " + profileId + " ignored during configuration revision creation due to the exception.", e);
+				}
+				continue;
+			}
+		}
 		return stringBuilder.toString();
 	}
 
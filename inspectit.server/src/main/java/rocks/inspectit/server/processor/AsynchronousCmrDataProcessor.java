@@ -0,0 +1,459 @@
+package rocks.inspectit.server.processor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.spring.logger.Log;
+
+/**
+ * Processing stage that passes the data to the delegate processor asynchronously. The data that
+ * can be processed by the delegate is put in a bounded queue and the processing threads of the
+ * stage pass it to the delegate. Thus the thread receiving the agent data does not wait for the
+ * delegate. The delegate must be thread safe if the stage has more than one processing thread.
+ * <p>
+ * Only processors that are the end consumers of the data can be wrapped, as the processing happens
+ * after all synchronous processors have run and outside of the transaction. When the data is
+ * processed in a transaction, it is handed off to the queue only after the transaction was
+ * committed, thus the stage never processes the data of a rolled back transaction. The delegate is
+ * always called without the {@link EntityManager}.
+ * <p>
+ * When the queue is full the caller waits for the stage to catch up at most
+ * {@link #OFFER_TIMEOUT} milliseconds per handed off collection, not per element. The elements
+ * that don't fit after the time is up are dropped for this stage without waiting. The dropped
+ * elements are counted and reported with a warning at most once per
+ * {@link #DROP_WARNING_INTERVAL} milliseconds. Stages that must not lose data (like the recording)
+ * can be set to {@link #setBlocking(boolean) blocking}, then the caller waits until there is free
+ * place in the queue and thus slows down the data reception instead of dropping.
+ * <p>
+ * The queue capacity is the amount of elements, not their size. The queued elements are mostly
+ * still referenced by the buffer, but when a stage falls behind and the buffer evicts them, a full
+ * queue of large invocation sequences can hold a considerable part of the heap. The capacity should
+ * be lowered on CMRs with a small heap and big invocation sequences.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class AsynchronousCmrDataProcessor extends AbstractCmrDataProcessor {
+
+	/**
+	 * Max time in milliseconds the caller waits for a free place in the queue.
+	 */
+	static final long OFFER_TIMEOUT = 500L;
+
+	/**
+	 * Min time in milliseconds between two warnings about the dropped elements.
+	 */
+	static final long DROP_WARNING_INTERVAL = 60000L;
+
+	/**
+	 * Max amount of elements taken from the queue at once.
+	 */
+	private static final int DRAIN_SIZE = 1000;
+
+	/**
+	 * Logger of the class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * Capacity of the queue.
+	 */
+	@Value("${cmr.asyncProcessingQueueCapacity}")
+	int queueCapacity;
+
+	/**
+	 * Amount of processing threads.
+	 */
+	@Value("${cmr.asyncProcessingThreads}")
+	int threads = 1;
+
+	/**
+	 * If the caller should wait for the free place in the queue instead of dropping the data.
+	 */
+	private boolean blocking;
+
+	/**
+	 * Name of the stage.
+	 */
+	private final String stageName;
+
+	/**
+	 * Processor the data is passed to.
+	 */
+	private final AbstractCmrDataProcessor delegate;
+
+	/**
+	 * Queue of the data waiting to be processed.
+	 */
+	private BlockingQueue<DefaultData> queue;
+
+	/**
+	 * Executor running the processing thread.
+	 */
+	private ExecutorService executorService;
+
+	/**
+	 * Amount of processed elements.
+	 */
+	private final AtomicLong processedCount = new AtomicLong();
+
+	/**
+	 * Amount of elements dropped because the queue was full.
+	 */
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	/**
+	 * Amount of elements dropped since the last warning.
+	 */
+	private final AtomicLong droppedSinceWarning = new AtomicLong();
+
+	/**
+	 * Time in milliseconds of the last warning about the dropped elements.
+	 */
+	private final AtomicLong lastDropWarning = new AtomicLong();
+
+	/**
+	 * Amount of elements which processing failed.
+	 */
+	private final AtomicLong failedCount = new AtomicLong();
+
+	/**
+	 * Total processing time of the delegate in nanoseconds.
+	 */
+	private final AtomicLong processingTime = new AtomicLong();
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param stageName
+	 *            Name of the stage, used for the thread name and statistics.
+	 * @param delegate
+	 *            Processor the data is passed to.
+	 */
+	public AsynchronousCmrDataProcessor(String stageName, AbstractCmrDataProcessor delegate) {
+		this.stageName = stageName;
+		this.delegate = delegate;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Hands off the data that can be processed to the queue.
+	 */
+	@Override
+	public void process(Collection<? extends DefaultData> defaultDatas, EntityManager entityManager) {
+		List<DefaultData> processable = new ArrayList<>(defaultDatas.size());
+		for (DefaultData defaultData : defaultDatas) {
+			if (canBeProcessed(defaultData)) {
+				processable.add(defaultData);
+			}
+		}
+		handOff(processable);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Hands off the data to the queue.
+	 */
+	@Override
+	protected void processData(DefaultData defaultData, EntityManager entityManager) {
+		handOff(Collections.singletonList(defaultData));
+	}
+
+	/**
+	 * Hands off the data to the queue. If there is an active transaction the data is collected and
+	 * put in the queue after the transaction is committed, otherwise it is put in the queue
+	 * immediately.
+	 *
+	 * @param defaultDatas
+	 *            Data to hand off.
+	 */
+	private void handOff(List<DefaultData> defaultDatas) {
+		if (defaultDatas.isEmpty()) {
+			return;
+		}
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			getTransactionData().addAll(defaultDatas);
+		} else {
+			offer(defaultDatas);
+		}
+	}
+
+	/**
+	 * Returns the list of the data handed off in the current transaction. When called first in the
+	 * transaction the list is bound to it and the synchronization that puts the data in the queue
+	 * after the commit is registered.
+	 *
+	 * @return List of the data handed off in the current transaction.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<DefaultData> getTransactionData() {
+		List<DefaultData> transactionData = (List<DefaultData>) TransactionSynchronizationManager.getResource(this);
+		if (null == transactionData) {
+			final List<DefaultData> newTransactionData = new ArrayList<>();
+			TransactionSynchronizationManager.bindResource(this, newTransactionData);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					offer(newTransactionData);
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResource(AsynchronousCmrDataProcessor.this);
+					if (TransactionSynchronization.STATUS_COMMITTED != status) {
+						dropped(newTransactionData.size());
+					}
+				}
+			});
+			transactionData = newTransactionData;
+		}
+		return transactionData;
+	}
+
+	/**
+	 * Puts the data in the queue. A blocking stage waits until there is free place for all
+	 * elements, otherwise the wait for all elements together is at most {@link #OFFER_TIMEOUT}
+	 * milliseconds, after the time is up the data is put only if there is free place.
+	 *
+	 * @param defaultDatas
+	 *            Data to put in the queue.
+	 */
+	private void offer(List<DefaultData> defaultDatas) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(OFFER_TIMEOUT);
+		int notQueued = 0;
+		for (DefaultData defaultData : defaultDatas) {
+			if (!offer(defaultData, deadline)) {
+				notQueued++;
+			}
+		}
+		if (notQueued > 0) {
+			dropped(notQueued);
+		}
+	}
+
+	/**
+	 * Puts the data in the queue. A blocking stage waits for the free place until interrupted,
+	 * otherwise the wait is until the deadline.
+	 *
+	 * @param defaultData
+	 *            Data to put in the queue.
+	 * @param deadline
+	 *            Deadline in nanoseconds as given by {@link System#nanoTime()}.
+	 * @return If the data was put in the queue.
+	 */
+	private boolean offer(DefaultData defaultData, long deadline) {
+		if (Thread.currentThread().isInterrupted()) {
+			return queue.offer(defaultData);
+		}
+
+		try {
+			if (blocking) {
+				queue.put(defaultData);
+				return true;
+			}
+
+			long remaining = deadline - System.nanoTime();
+			if (remaining > 0) {
+				return queue.offer(defaultData, remaining, TimeUnit.NANOSECONDS);
+			} else {
+				return queue.offer(defaultData);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Counts the dropped elements and logs the warning if the last warning was logged more than
+	 * {@link #DROP_WARNING_INTERVAL} milliseconds ago.
+	 *
+	 * @param count
+	 *            Amount of dropped elements.
+	 */
+	private void dropped(int count) {
+		droppedCount.addAndGet(count);
+		droppedSinceWarning.addAndGet(count);
+
+		long now = System.currentTimeMillis();
+		long lastWarning = lastDropWarning.get();
+		if (((now - lastWarning) >= DROP_WARNING_INTERVAL) && lastDropWarning.compareAndSet(lastWarning, now)) {
+			log.warn("Processing stage " + stageName + " could not keep up, " + droppedSinceWarning.getAndSet(0) + " elements were dropped since the last warning (" + droppedCount.get()
+					+ " in total). Consider increasing the asynchronous processing queue capacity or threads.");
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean canBeProcessed(DefaultData defaultData) {
+		return delegate.canBeProcessed(defaultData);
+	}
+
+	/**
+	 * Returns the statistics of the stage.
+	 *
+	 * @return Statistics of the stage.
+	 */
+	public String getStatistics() {
+		long processed = processedCount.get();
+		double averageTime = 0d;
+		if (processed > 0) {
+			averageTime = (processingTime.get() / 1000000d) / processed;
+		}
+		StringBuilder sb = new StringBuilder("Processing stage ");
+		sb.append(stageName);
+		sb.append(" (queued: ");
+		sb.append(queue.size());
+		sb.append('/');
+		sb.append(queueCapacity);
+		sb.append(", processed: ");
+		sb.append(processed);
+		sb.append(", failed: ");
+		sb.append(failedCount.get());
+		sb.append(", dropped: ");
+		sb.append(droppedCount.get());
+		sb.append(", average processing time: ");
+		sb.append(String.format("%.3f", averageTime));
+		sb.append(" ms)");
+		return sb.toString();
+	}
+
+	/**
+	 * Sets {@link #blocking}.
+	 *
+	 * @param blocking
+	 *            New value for {@link #blocking}
+	 */
+	public void setBlocking(boolean blocking) {
+		this.blocking = blocking;
+	}
+
+	/**
+	 * Gets {@link #stageName}.
+	 *
+	 * @return {@link #stageName}
+	 */
+	public String getStageName() {
+		return stageName;
+	}
+
+	/**
+	 * Gets the amount of elements waiting for processing.
+	 *
+	 * @return Amount of elements waiting for processing.
+	 */
+	public int getQueueSize() {
+		return queue.size();
+	}
+
+	/**
+	 * Gets the amount of processed elements.
+	 *
+	 * @return Amount of processed elements.
+	 */
+	public long getProcessedCount() {
+		return processedCount.get();
+	}
+
+	/**
+	 * Gets the amount of elements dropped because the queue was full.
+	 *
+	 * @return Amount of dropped elements.
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * Creates the queue and starts the processing threads.
+	 */
+	@PostConstruct
+	public void start() {
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		executorService = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("cmr-processing-stage-" + stageName + "-%d").setDaemon(true).build());
+		for (int i = 0; i < threads; i++) {
+			executorService.execute(new Runnable() {
+				@Override
+				public void run() {
+					processQueue();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Stops the processing threads.
+	 */
+	@PreDestroy
+	public void stop() {
+		if (null != executorService) {
+			executorService.shutdownNow();
+		}
+	}
+
+	/**
+	 * Processing loop, passes the data from the queue to the delegate until interrupted.
+	 */
+	void processQueue() {
+		List<DefaultData> batch = new ArrayList<>(DRAIN_SIZE);
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				batch.add(queue.take());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			queue.drainTo(batch, DRAIN_SIZE - 1);
+			processBatch(batch);
+			batch.clear();
+		}
+	}
+
+	/**
+	 * Passes the data to the delegate.
+	 *
+	 * @param batch
+	 *            Data to process.
+	 */
+	void processBatch(List<DefaultData> batch) {
+		for (DefaultData defaultData : batch) {
+			long start = System.nanoTime();
+			try {
+				delegate.process(defaultData, null);
+			} catch (Exception e) {
+				failedCount.incrementAndGet();
+				log.error("Error occurred in the processing stage " + stageName + " processing the data " + defaultData + ".", e);
+			}
+			processingTime.addAndGet(System.nanoTime() - start);
+			processedCount.incrementAndGet();
+		}
+	}
+
+}
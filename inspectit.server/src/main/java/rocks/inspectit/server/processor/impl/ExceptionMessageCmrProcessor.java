@@ -1,25 +1,75 @@
 package rocks.inspectit.server.processor.impl;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import javax.persistence.EntityManager;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import rocks.inspectit.server.processor.AbstractCmrDataProcessor;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.util.Pair;
 
 /**
- * Processor that connects error messages in the {@link ExceptionSensorData}.
+ * Processor that connects error messages in the {@link ExceptionSensorData} and restores the stack
+ * traces of the exception data the agent sent without the stack trace. The agent sends the stack
+ * trace only until it reached the CMR once per fingerprint in the deduplication interval, thus the
+ * processor remembers the last stack trace for every platform and fingerprint.
+ * <p>
+ * Data without a stack trace that can not be restored (for example after the CMR restart) is
+ * incomplete. It is remembered and gets the stack trace as soon as the agent sends the stack trace
+ * with the same fingerprint again.
  *
  * @author Ivan Senic
  *
  */
 public class ExceptionMessageCmrProcessor extends AbstractCmrDataProcessor {
 
+	/**
+	 * Max amount of stack traces remembered.
+	 */
+	private static final long MAX_STACK_TRACES = 10000L;
+
+	/**
+	 * Time in minutes a stack trace is remembered after the last access. Must be longer than the
+	 * deduplication interval of the agents.
+	 */
+	private static final long STACK_TRACE_EXPIRE_MINUTES = 30L;
+
+	/**
+	 * Max amount of fingerprints with incomplete data remembered.
+	 */
+	private static final long MAX_INCOMPLETE_FINGERPRINTS = 1000L;
+
+	/**
+	 * Max amount of incomplete data remembered per fingerprint.
+	 */
+	static final int MAX_INCOMPLETE_PER_FINGERPRINT = 100;
+
+	/**
+	 * Last stack traces by the platform ident and fingerprint.
+	 */
+	private final Cache<Pair<Long, Long>, String> stackTraceCache = CacheBuilder.newBuilder().maximumSize(MAX_STACK_TRACES).expireAfterAccess(STACK_TRACE_EXPIRE_MINUTES, TimeUnit.MINUTES)
+			.build();
+
+	/**
+	 * Data without stack trace that could not be restored by the platform ident and fingerprint.
+	 */
+	private final Cache<Pair<Long, Long>, List<ExceptionSensorData>> incompleteCache = CacheBuilder.newBuilder().maximumSize(MAX_INCOMPLETE_FINGERPRINTS)
+			.expireAfterWrite(STACK_TRACE_EXPIRE_MINUTES, TimeUnit.MINUTES).build();
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	protected void processData(DefaultData defaultData, EntityManager entityManager) {
-		connectErrorMessagesInExceptionData((ExceptionSensorData) defaultData);
+		ExceptionSensorData exceptionSensorData = (ExceptionSensorData) defaultData;
+		restoreStackTrace(exceptionSensorData);
+		connectErrorMessagesInExceptionData(exceptionSensorData);
 	}
 
 	/**
@@ -30,6 +80,97 @@ public class ExceptionMessageCmrProcessor extends AbstractCmrDataProcessor {
 		return defaultData instanceof ExceptionSensorData;
 	}
 
+	/**
+	 * Remembers the stack trace of the exception data with fingerprint or restores it if the agent
+	 * did not send it. If the stack trace can not be restored the data is remembered as incomplete
+	 * and completed with the next stack trace of the fingerprint.
+	 *
+	 * @param exceptionSensorData
+	 *            Exception data.
+	 */
+	private void restoreStackTrace(ExceptionSensorData exceptionSensorData) {
+		if (0 == exceptionSensorData.getFingerprint()) {
+			return;
+		}
+
+		Pair<Long, Long> key = new Pair<>(exceptionSensorData.getPlatformIdent(), exceptionSensorData.getFingerprint());
+		String stackTrace = exceptionSensorData.getStackTrace();
+		if (null != stackTrace) {
+			stackTraceCache.put(key, stackTrace);
+			completeIncomplete(key, stackTrace);
+			return;
+		}
+
+		String knownStackTrace = stackTraceCache.getIfPresent(key);
+		if (null != knownStackTrace) {
+			setStackTrace(exceptionSensorData, knownStackTrace);
+		} else {
+			addIncomplete(key, exceptionSensorData);
+		}
+	}
+
+	/**
+	 * Remembers the exception data which stack trace could not be restored.
+	 *
+	 * @param key
+	 *            Platform ident and fingerprint.
+	 * @param exceptionSensorData
+	 *            Incomplete exception data.
+	 */
+	private void addIncomplete(Pair<Long, Long> key, ExceptionSensorData exceptionSensorData) {
+		List<ExceptionSensorData> incomplete = incompleteCache.asMap().get(key);
+		if (null == incomplete) {
+			List<ExceptionSensorData> newIncomplete = new ArrayList<>();
+			incomplete = incompleteCache.asMap().putIfAbsent(key, newIncomplete);
+			if (null == incomplete) {
+				incomplete = newIncomplete;
+			}
+		}
+
+		synchronized (incomplete) {
+			if (incomplete.size() < MAX_INCOMPLETE_PER_FINGERPRINT) {
+				incomplete.add(exceptionSensorData);
+			}
+		}
+	}
+
+	/**
+	 * Sets the stack trace to all incomplete exception data of the key.
+	 *
+	 * @param key
+	 *            Platform ident and fingerprint.
+	 * @param stackTrace
+	 *            Stack trace sent by the agent.
+	 */
+	private void completeIncomplete(Pair<Long, Long> key, String stackTrace) {
+		List<ExceptionSensorData> incomplete = incompleteCache.asMap().remove(key);
+		if (null != incomplete) {
+			synchronized (incomplete) {
+				for (ExceptionSensorData exceptionSensorData : incomplete) {
+					setStackTrace(exceptionSensorData, stackTrace);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets the stack trace known for the fingerprint to the exception data. The first line of the
+	 * stack trace is created from the throwable type and error message of the given data, as only
+	 * the frames are shared between the data with the same fingerprint.
+	 *
+	 * @param exceptionSensorData
+	 *            Exception data without stack trace.
+	 * @param knownStackTrace
+	 *            Stack trace known for the fingerprint.
+	 */
+	private void setStackTrace(ExceptionSensorData exceptionSensorData, String knownStackTrace) {
+		int index = knownStackTrace.indexOf('\n');
+		String frames = (index >= 0) ? knownStackTrace.substring(index) : "";
+		String message = exceptionSensorData.getErrorMessage();
+		String firstLine = (null != message) ? exceptionSensorData.getThrowableType() + ": " + message : exceptionSensorData.getThrowableType();
+		exceptionSensorData.setStackTrace(firstLine + frames);
+	}
+
 	/**
 	 * Connects exception message between linked exception data.
 	 *
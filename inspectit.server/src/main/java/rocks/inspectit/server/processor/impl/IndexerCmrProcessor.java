@@ -5,6 +5,7 @@ import javax.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import rocks.inspectit.server.cache.impl.BufferRollups;
 import rocks.inspectit.server.processor.AbstractCmrDataProcessor;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.data.InvocationAwareData;
@@ -32,6 +33,12 @@ public class IndexerCmrProcessor extends AbstractCmrDataProcessor {
 	@Autowired
 	IBufferTreeComponent<DefaultData> indexingTree;
 
+	/**
+	 * Rollups of the buffer, the directly indexed data must be included in them.
+	 */
+	@Autowired
+	BufferRollups bufferRollups;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -39,6 +46,7 @@ public class IndexerCmrProcessor extends AbstractCmrDataProcessor {
 	protected void processData(DefaultData defaultData, EntityManager entityManager) {
 		try {
 			indexingTree.put(defaultData);
+			bufferRollups.addInvocationChild(defaultData);
 		} catch (IndexingException e) {
 			// should never happen
 			log.error(e.getMessage(), e);
@@ -67,4 +75,14 @@ public class IndexerCmrProcessor extends AbstractCmrDataProcessor {
 		this.indexingTree = indexingTree;
 	}
 
+	/**
+	 * Sets {@link #bufferRollups}.
+	 *
+	 * @param bufferRollups
+	 *            New value for {@link #bufferRollups}
+	 */
+	public void setBufferRollups(BufferRollups bufferRollups) {
+		this.bufferRollups = bufferRollups;
+	}
+
 }
@@ -16,6 +16,7 @@ import rocks.inspectit.server.spring.aop.MethodLog;
 import rocks.inspectit.shared.all.cmr.service.IAgentService;
 import rocks.inspectit.shared.all.communication.message.IAgentMessage;
 import rocks.inspectit.shared.all.exception.BusinessException;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
@@ -72,10 +73,19 @@ public class AgentService implements IAgentService {
 	 */
 	@Override
 	@MethodLog
-	public InstrumentationDefinition analyze(long platformIdent, String hash, Type sentType) throws BusinessException {
+	public InstrumentationDefinition analyze(long platformIdent, ClassHash hash, Type sentType) throws BusinessException {
 		return nextGenInstrumentationManager.analyze(platformIdent, hash, sentType);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@MethodLog
+	public List<InstrumentationDefinition> analyzeBatch(long platformIdent, List<ClassHash> hashes, List<Type> sentTypes) throws BusinessException {
+		return nextGenInstrumentationManager.analyzeBatch(platformIdent, hashes, sentTypes);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
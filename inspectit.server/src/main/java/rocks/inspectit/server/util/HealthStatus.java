@@ -6,6 +6,7 @@ import java.lang.management.MemoryUsage;
 import java.lang.management.OperatingSystemMXBean;
 import java.lang.management.RuntimeMXBean;
 import java.lang.management.ThreadMXBean;
+import java.util.List;
 import java.util.Map;
 
 import javax.annotation.PostConstruct;
@@ -16,6 +17,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import rocks.inspectit.server.cache.IBuffer;
+import rocks.inspectit.server.processor.AsynchronousCmrDataProcessor;
 import rocks.inspectit.server.storage.CmrStorageManager;
 import rocks.inspectit.shared.all.spring.logger.Log;
 import rocks.inspectit.shared.all.storage.nio.ByteBufferProvider;
@@ -102,6 +104,12 @@ public class HealthStatus {
 	@Autowired
 	private ByteBufferProvider byteBufferProvider;
 
+	/**
+	 * Asynchronous processing stages for the processing status.
+	 */
+	@Autowired(required = false)
+	private List<AsynchronousCmrDataProcessor> asynchronousProcessors;
+
 	/**
 	 * Log all the statistics.
 	 */
@@ -118,6 +126,7 @@ public class HealthStatus {
 		}
 		if (log.isInfoEnabled()) {
 			logBufferStatistics();
+			logProcessingStatistics();
 			logStorageStatistics();
 		}
 	}
@@ -359,6 +368,17 @@ public class HealthStatus {
 		logGraphicalBufferOccupancy(buffer.getOccupancyPercentage());
 	}
 
+	/**
+	 * Log the statistics of the asynchronous processing stages.
+	 */
+	private void logProcessingStatistics() {
+		if (null != asynchronousProcessors) {
+			for (AsynchronousCmrDataProcessor processor : asynchronousProcessors) {
+				log.info(processor.getStatistics());
+			}
+		}
+	}
+
 	/**
 	 * Log a graphical version of buffer occupancy.
 	 *
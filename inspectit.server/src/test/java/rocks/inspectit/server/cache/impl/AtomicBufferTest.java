@@ -49,6 +49,9 @@ public class AtomicBufferTest extends AbstractTestNGLogSupport {
 	@Mock
 	private IBufferTreeComponent<DefaultData> indexingTree;
 
+	@Mock
+	private BufferRollups bufferRollups;
+
 	/**
 	 * Init.
 	 *
@@ -61,6 +64,7 @@ public class AtomicBufferTest extends AbstractTestNGLogSupport {
 		buffer.bufferProperties = bufferProperties;
 		buffer.objectSizes = objectSizes;
 		buffer.indexingTree = indexingTree;
+		buffer.bufferRollups = bufferRollups;
 		buffer.log = LoggerFactory.getLogger(AtomicBuffer.class);
 		when(bufferProperties.getIndexingTreeCleaningThreads()).thenReturn(1);
 		buffer.postConstruct();
@@ -0,0 +1,459 @@
+package rocks.inspectit.server.cache.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.slf4j.Logger;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.server.processor.AbstractCmrDataProcessor;
+import rocks.inspectit.server.processor.impl.IndexerCmrProcessor;
+import rocks.inspectit.server.processor.impl.InvocationModifierCmrProcessor;
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.AggregatedTimerData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.all.testbase.TestBase;
+import rocks.inspectit.shared.cs.indexing.aggregation.Aggregators;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
+import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
+import rocks.inspectit.shared.cs.indexing.buffer.impl.Branch;
+import rocks.inspectit.shared.cs.indexing.buffer.impl.BufferBranchIndexer;
+import rocks.inspectit.shared.cs.indexing.impl.IndexQuery;
+import rocks.inspectit.shared.cs.indexing.impl.IndexingException;
+import rocks.inspectit.shared.cs.indexing.indexer.impl.TimestampIndexer;
+import rocks.inspectit.shared.cs.indexing.restriction.IIndexQueryRestrictionProcessor;
+import rocks.inspectit.shared.cs.indexing.restriction.impl.IndexQueryRestrictionFactory;
+
+/**
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class BufferRollupsTest extends TestBase {
+
+	static final long BUCKET_LENGTH = 1000L;
+
+	static final long PLATFORM_IDENT = 10L;
+
+	BufferRollups rollups;
+
+	IBufferTreeComponent<TimerData> indexingTree;
+
+	/**
+	 * Tree leafs hold weak references, buffer holds the elements in the real environment.
+	 */
+	List<TimerData> elements;
+
+	@Mock
+	BufferProperties bufferProperties;
+
+	@Mock
+	IObjectSizes objectSizes;
+
+	@Mock
+	IIndexQueryRestrictionProcessor restrictionProcessor;
+
+	@Mock
+	Logger log;
+
+	@BeforeMethod
+	public void init() {
+		when(bufferProperties.getRollupBucketLength()).thenReturn(BUCKET_LENGTH);
+		when(objectSizes.getSizeOfLongObject()).thenReturn(16L);
+		when(objectSizes.getSizeOfObjectHeader()).thenReturn(16L);
+		when(objectSizes.alignTo8Bytes(anyLong())).thenAnswer(new Answer<Long>() {
+			@Override
+			public Long answer(InvocationOnMock invocation) throws Throwable {
+				return (Long) invocation.getArguments()[0];
+			}
+		});
+		when(restrictionProcessor.areAllRestrictionsFulfilled(anyObject(), anyList())).thenReturn(true);
+		rollups = new BufferRollups();
+		rollups.bufferProperties = bufferProperties;
+		rollups.objectSizes = objectSizes;
+		rollups.log = log;
+		rollups.postConstruct();
+		indexingTree = new Branch<>(new BufferBranchIndexer<>(new TimestampIndexer<TimerData>()));
+		elements = new ArrayList<>();
+	}
+
+	TimerData put(long id, long methodIdent, long time, double duration) throws IndexingException {
+		TimerData timerData = new TimerData(new Timestamp(time), PLATFORM_IDENT, 1L, methodIdent);
+		timerData.setId(id);
+		timerData.increaseCount();
+		timerData.addDuration(duration);
+		timerData.calculateMin(duration);
+		timerData.calculateMax(duration);
+		elements.add(timerData);
+		indexingTree.put(timerData);
+		rollups.add(timerData);
+		return timerData;
+	}
+
+	IIndexQuery query(Long from, Long to) {
+		IndexQuery query = new IndexQuery();
+		query.setRestrictionProcessor(restrictionProcessor);
+		query.setPlatformIdent(PLATFORM_IDENT);
+		List<Class<?>> classes = new ArrayList<>();
+		classes.add(TimerData.class);
+		classes.add(AggregatedTimerData.class);
+		query.setObjectClasses(classes);
+		if (null != from) {
+			query.setFromDate(new Timestamp(from.longValue()));
+		}
+		if (null != to) {
+			query.setToDate(new Timestamp(to.longValue()));
+		}
+		return query;
+	}
+
+	List<TimerData> fromTree(IIndexQuery query) {
+		AggregationPerformer<TimerData> aggregationPerformer = new AggregationPerformer<>(Aggregators.TIMER_DATA_AGGREGATOR);
+		indexingTree.aggregate(query, aggregationPerformer);
+		return aggregationPerformer.getResultList();
+	}
+
+	static TimerData forMethod(List<TimerData> results, long methodIdent) {
+		for (TimerData timerData : results) {
+			if (timerData.getMethodIdent() == methodIdent) {
+				return timerData;
+			}
+		}
+		return null;
+	}
+
+	public static class Aggregate extends BufferRollupsTest {
+
+		@Test
+		@SuppressWarnings("unchecked")
+		public void noInterval() throws Exception {
+			put(1L, 1L, 500L, 10d);
+			put(2L, 1L, 1500L, 20d);
+			put(3L, 2L, 2500L, 30d);
+			IBufferTreeComponent<TimerData> tree = mock(IBufferTreeComponent.class);
+
+			List<TimerData> results = rollups.aggregate(query(null, null), Aggregators.TIMER_DATA_AGGREGATOR, tree);
+
+			assertThat(results, hasSize(2));
+			assertThat(forMethod(results, 1L).getCount(), is(2L));
+			assertThat(forMethod(results, 1L).getDuration(), is(30d));
+			assertThat(forMethod(results, 1L).getMax(), is(20d));
+			assertThat(forMethod(results, 1L), is(instanceOf(AggregatedTimerData.class)));
+			// ids are not kept in the buckets
+			assertThat(((AggregatedTimerData) forMethod(results, 1L)).getAggregatedIds(), is(empty()));
+			assertThat(forMethod(results, 2L).getCount(), is(1L));
+			// everything answered by the buckets
+			verify(tree, never()).aggregate(any(IIndexQuery.class), any(AggregationPerformer.class));
+		}
+
+		@Test
+		public void partialBuckets() throws Exception {
+			put(1L, 1L, 500L, 10d);
+			put(2L, 1L, 1500L, 20d);
+			put(3L, 1L, 2500L, 30d);
+			put(4L, 1L, 3500L, 40d);
+
+			IIndexQuery query = query(600L, 2600L);
+			List<TimerData> results = rollups.aggregate(query, Aggregators.TIMER_DATA_AGGREGATOR, indexingTree);
+
+			assertThat(results, hasSize(1));
+			assertThat(forMethod(results, 1L).getCount(), is(2L));
+			assertThat(forMethod(results, 1L).getDuration(), is(50d));
+			assertThat(forMethod(results, 1L).getDuration(), is(fromTree(query).get(0).getDuration()));
+			// only ids of the elements aggregated from the tree
+			assertThat(((AggregatedTimerData) forMethod(results, 1L)).getAggregatedIds(), contains(3L));
+			// query is not changed
+			assertThat(query.getFromDate().getTime(), is(600L));
+			assertThat(query.getToDate().getTime(), is(2600L));
+		}
+
+		@Test
+		public void queryNotModified() throws Exception {
+			put(1L, 1L, 500L, 10d);
+			put(2L, 1L, 1500L, 20d);
+			put(3L, 1L, 2500L, 30d);
+			IIndexQuery query = spy(query(600L, 2600L));
+
+			List<TimerData> results = rollups.aggregate(query, Aggregators.TIMER_DATA_AGGREGATOR, indexingTree);
+
+			assertThat(forMethod(results, 1L).getCount(), is(2L));
+			verify(query, never()).setFromDate(any(Timestamp.class));
+			verify(query, never()).setToDate(any(Timestamp.class));
+		}
+
+		@Test
+		public void toDateOnBucketStart() throws Exception {
+			put(1L, 1L, 1500L, 20d);
+			put(2L, 1L, 2000L, 30d);
+			put(3L, 1L, 2500L, 40d);
+
+			List<TimerData> results = rollups.aggregate(query(1000L, 2000L), Aggregators.TIMER_DATA_AGGREGATOR, indexingTree);
+
+			assertThat(results, hasSize(1));
+			assertThat(forMethod(results, 1L).getCount(), is(2L));
+			assertThat(forMethod(results, 1L).getDuration(), is(50d));
+		}
+
+		@Test
+		public void noCompleteBucket() throws Exception {
+			put(1L, 1L, 1500L, 20d);
+
+			List<TimerData> results = rollups.aggregate(query(1100L, 1900L), Aggregators.TIMER_DATA_AGGREGATOR, indexingTree);
+
+			assertThat(results, is(nullValue()));
+		}
+
+		@Test
+		public void methodRestriction() throws Exception {
+			put(1L, 1L, 500L, 10d);
+			put(2L, 2L, 500L, 20d);
+			IIndexQuery query = query(null, null);
+			query.setMethodIdent(2L);
+
+			List<TimerData> results = rollups.aggregate(query, Aggregators.TIMER_DATA_AGGREGATOR, indexingTree);
+
+			assertThat(results, hasSize(1));
+			assertThat(results.get(0).getMethodIdent(), is(2L));
+		}
+
+		@Test
+		public void otherPlatform() throws Exception {
+			put(1L, 1L, 500L, 10d);
+			IIndexQuery query = query(null, null);
+			query.setPlatformIdent(PLATFORM_IDENT + 1);
+
+			List<TimerData> results = rollups.aggregate(query, Aggregators.TIMER_DATA_AGGREGATOR, indexingTree);
+
+			assertThat(results, is(empty()));
+		}
+
+		@Test
+		public void notAnsweredWithRestrictions() throws Exception {
+			put(1L, 1L, 500L, 10d);
+			IIndexQuery query = query(null, null);
+			query.addIndexingRestriction(IndexQueryRestrictionFactory.isNotNull("methodIdent"));
+
+			List<TimerData> results = rollups.aggregate(query, Aggregators.TIMER_DATA_AGGREGATOR, indexingTree);
+
+			assertThat(results, is(nullValue()));
+		}
+
+		@Test
+		public void notAnsweredWithMinId() throws Exception {
+			put(1L, 1L, 500L, 10d);
+			IIndexQuery query = query(null, null);
+			query.setMinId(1L);
+
+			List<TimerData> results = rollups.aggregate(query, Aggregators.TIMER_DATA_AGGREGATOR, indexingTree);
+
+			assertThat(results, is(nullValue()));
+		}
+
+		@Test
+		public void notAnsweredForOtherClasses() throws Exception {
+			put(1L, 1L, 500L, 10d);
+			IIndexQuery query = query(null, null);
+			List<Class<?>> classes = new ArrayList<>();
+			classes.add(TimerData.class);
+			query.setObjectClasses(classes);
+
+			List<TimerData> results = rollups.aggregate(query, Aggregators.TIMER_DATA_AGGREGATOR, indexingTree);
+
+			assertThat(results, is(nullValue()));
+		}
+
+		@Test
+		public void notActive() throws Exception {
+			when(bufferProperties.getRollupBucketLength()).thenReturn(0L);
+			rollups = new BufferRollups();
+			rollups.bufferProperties = bufferProperties;
+			rollups.objectSizes = objectSizes;
+			rollups.log = log;
+			rollups.postConstruct();
+			put(1L, 1L, 500L, 10d);
+
+			List<TimerData> results = rollups.aggregate(query(null, null), Aggregators.TIMER_DATA_AGGREGATOR, indexingTree);
+
+			assertThat(results, is(nullValue()));
+		}
+	}
+
+	public static class Evicted extends BufferRollupsTest {
+
+		@Test
+		public void bucketDropped() throws Exception {
+			TimerData evicted = put(1L, 1L, 500L, 10d);
+			put(2L, 1L, 600L, 20d);
+			put(3L, 1L, 1500L, 30d);
+
+			rollups.evicted(evicted);
+			indexingTree.getAndRemove(evicted);
+			List<TimerData> results = rollups.aggregate(query(null, null), Aggregators.TIMER_DATA_AGGREGATOR, indexingTree);
+
+			assertThat(results, hasSize(1));
+			assertThat(forMethod(results, 1L).getCount(), is(2L));
+			assertThat(forMethod(results, 1L).getDuration(), is(50d));
+		}
+
+		@Test
+		public void evictedBeforeIndexed() throws Exception {
+			TimerData evicted = new TimerData(new Timestamp(500L), PLATFORM_IDENT, 1L, 1L);
+			evicted.setId(1L);
+
+			rollups.evicted(evicted);
+			put(2L, 1L, 600L, 20d);
+			List<TimerData> results = rollups.aggregate(query(null, null), Aggregators.TIMER_DATA_AGGREGATOR, indexingTree);
+
+			assertThat(results, hasSize(1));
+			assertThat(forMethod(results, 1L).getCount(), is(1L));
+		}
+
+		@Test
+		public void sizeReleased() throws Exception {
+			TimerData timerData1 = new TimerData(new Timestamp(500L), PLATFORM_IDENT, 1L, 1L);
+			TimerData timerData2 = new TimerData(new Timestamp(600L), PLATFORM_IDENT, 1L, 1L);
+
+			long added = rollups.add(timerData1) + rollups.add(timerData2);
+
+			assertThat(added, is(greaterThan(0L)));
+			assertThat(rollups.add(new TimerData(new Timestamp(700L), PLATFORM_IDENT, 1L, 1L)), is(0L));
+			assertThat(rollups.evicted(timerData1), is(added));
+			assertThat(rollups.evicted(timerData2), is(0L));
+		}
+	}
+
+	public static class Trim extends BufferRollupsTest {
+
+		@Test
+		public void oldestBucketsFromTree() throws Exception {
+			for (int i = 0; i <= BufferRollups.MAX_BUCKETS; i++) {
+				put(i + 1, 1L, i * BUCKET_LENGTH, 1d);
+			}
+
+			List<TimerData> results = rollups.aggregate(query(null, null), Aggregators.TIMER_DATA_AGGREGATOR, indexingTree);
+
+			assertThat(results, hasSize(1));
+			assertThat(forMethod(results, 1L).getCount(), is(BufferRollups.MAX_BUCKETS + 1L));
+		}
+	}
+
+	public static class InvocationChildren extends BufferRollupsTest {
+
+		IBufferTreeComponent<DefaultData> invocationTree;
+
+		InvocationModifierCmrProcessor invocationProcessor;
+
+		/**
+		 * Invocations hold the children indexed in the tree.
+		 */
+		List<InvocationSequenceData> invocations;
+
+		@BeforeMethod
+		public void initProcessors() {
+			invocationTree = new Branch<>(new BufferBranchIndexer<>(new TimestampIndexer<DefaultData>()));
+			IndexerCmrProcessor indexerProcessor = new IndexerCmrProcessor();
+			indexerProcessor.setIndexingTree(invocationTree);
+			indexerProcessor.setBufferRollups(rollups);
+			invocationProcessor = new InvocationModifierCmrProcessor(Collections.<AbstractCmrDataProcessor> singletonList(indexerProcessor));
+			invocations = new ArrayList<>();
+		}
+
+		InvocationSequenceData invocation(long id, long time, double duration) {
+			TimerData timerData = new TimerData(new Timestamp(time), PLATFORM_IDENT, 1L, 1L);
+			timerData.setId(id + 1);
+			timerData.increaseCount();
+			timerData.addDuration(duration);
+			timerData.calculateMin(duration);
+			timerData.calculateMax(duration);
+			InvocationSequenceData child = new InvocationSequenceData(new Timestamp(time), PLATFORM_IDENT, 1L, 1L);
+			child.setId(id + 2);
+			child.setTimerData(timerData);
+			InvocationSequenceData invocation = new InvocationSequenceData(new Timestamp(time), PLATFORM_IDENT, 1L, 2L);
+			invocation.setId(id);
+			invocation.getNestedSequences().add(child);
+			invocations.add(invocation);
+			invocationProcessor.process(invocation, null);
+			return invocation;
+		}
+
+		@Test
+		@SuppressWarnings("unchecked")
+		public void childrenAggregated() throws Exception {
+			invocation(10L, 500L, 10d);
+			invocation(20L, 1500L, 20d);
+			IBufferTreeComponent<TimerData> tree = mock(IBufferTreeComponent.class);
+
+			List<TimerData> results = rollups.aggregate(query(null, null), Aggregators.TIMER_DATA_AGGREGATOR, tree);
+
+			assertThat(results, hasSize(1));
+			assertThat(forMethod(results, 1L).getCount(), is(2L));
+			assertThat(forMethod(results, 1L).getDuration(), is(30d));
+			verify(tree, never()).aggregate(any(IIndexQuery.class), any(AggregationPerformer.class));
+			assertThat(rollups.takeInvocationChildrenSize(), is(greaterThan(0L)));
+			assertThat(rollups.takeInvocationChildrenSize(), is(0L));
+		}
+
+		@Test
+		@SuppressWarnings("unchecked")
+		public void childrenDroppedWithInvocation() throws Exception {
+			InvocationSequenceData evicted = invocation(10L, 500L, 10d);
+			invocation(20L, 1500L, 20d);
+			IBufferTreeComponent<TimerData> tree = mock(IBufferTreeComponent.class);
+
+			long released = rollups.evicted(evicted);
+			List<TimerData> results = rollups.aggregate(query(null, null), Aggregators.TIMER_DATA_AGGREGATOR, tree);
+
+			assertThat(released, is(greaterThan(0L)));
+			assertThat(results, hasSize(1));
+			assertThat(forMethod(results, 1L).getCount(), is(1L));
+			assertThat(forMethod(results, 1L).getDuration(), is(20d));
+			// dropped bucket is read from the tree
+			verify(tree, atLeastOnce()).aggregate(any(IIndexQuery.class), any(AggregationPerformer.class));
+		}
+	}
+
+	public static class NoTimestamp extends BufferRollupsTest {
+
+		@Test
+		public void droppedBucketNotAnswered() throws Exception {
+			TimerData timerData = new TimerData();
+			timerData.setPlatformIdent(PLATFORM_IDENT);
+			timerData.setMethodIdent(1L);
+			rollups.add(timerData);
+			put(1L, 1L, 500L, 10d);
+
+			rollups.evicted(timerData);
+			List<TimerData> results = rollups.aggregate(query(null, null), Aggregators.TIMER_DATA_AGGREGATOR, indexingTree);
+
+			assertThat(results, is(nullValue()));
+		}
+	}
+}
@@ -16,6 +16,7 @@ import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -45,6 +46,7 @@ import rocks.inspectit.server.instrumentation.config.ConfigurationResolver;
 import rocks.inspectit.server.instrumentation.config.applier.IInstrumentationApplier;
 import rocks.inspectit.server.instrumentation.config.applier.JmxMonitoringApplier;
 import rocks.inspectit.shared.all.exception.BusinessException;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableType;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
@@ -62,6 +64,10 @@ import rocks.inspectit.shared.cs.cmr.service.IRegistrationService;
 @SuppressWarnings({ "PMD", "unchecked" })
 public class NextGenInstrumentationManagerTest extends TestBase {
 
+	private static final ClassHash HASH = new ClassHash(0L, 1L);
+
+	private static final ClassHash OTHER_HASH = new ClassHash(0L, 2L);
+
 	@InjectMocks
 	NextGenInstrumentationManager manager;
 
@@ -179,7 +185,7 @@ public class NextGenInstrumentationManagerTest extends TestBase {
 			when(configurationHolder.isInitialized()).thenReturn(true);
 			when(configurationHolder.getEnvironment()).thenReturn(environment);
 			when(configurationHolder.getAgentConfiguration()).thenReturn(configuration);
-			Map<Collection<String>, InstrumentationDefinition> initialInstrumentations = mock(Map.class);
+			Map<Collection<ClassHash>, InstrumentationDefinition> initialInstrumentations = mock(Map.class);
 			when(instrumentationService.getInstrumentationResultsWithHashes()).thenReturn(initialInstrumentations);
 
 			AgentConfig result = manager.register(definedIPs, agentName, version);
@@ -285,8 +291,6 @@ public class NextGenInstrumentationManagerTest extends TestBase {
 		@Mock
 		private Type type;
 
-		private final static String HASH = "hash";
-
 		private final static long ID = 10;
 
 		@Test(expectedExceptions = BusinessException.class)
@@ -394,6 +398,61 @@ public class NextGenInstrumentationManagerTest extends TestBase {
 		}
 	}
 
+	public class AnalyzeBatch extends NextGenInstrumentationManagerTest {
+
+		@Mock
+		private Type type;
+
+		@Mock
+		private Type otherType;
+
+		private final static long ID = 10;
+
+		@Test(expectedExceptions = BusinessException.class)
+		public void agentNotRegistered() throws BusinessException {
+			manager.analyzeBatch(ID, Collections.singletonList(HASH), Collections.singletonList(type));
+		}
+
+		@Test(expectedExceptions = IllegalArgumentException.class)
+		public void sizeMismatch() throws BusinessException {
+			manager.analyzeBatch(ID, Collections.singletonList(HASH), Collections.<Type> emptyList());
+		}
+
+		@Test
+		public void resultsInOrder() throws BusinessException, ClassCacheModificationException {
+			List<String> definedIPs = mock(List.class);
+			String agentName = "agentName";
+			String version = "v1";
+			when(registrationService.registerPlatformIdent(definedIPs, agentName, version)).thenReturn(ID);
+
+			manager.register(definedIPs, agentName, version);
+
+			ImmutableType interfaceType = mock(ImmutableType.class);
+			when(interfaceType.isClass()).thenReturn(false);
+			when(lookupService.findByHash(HASH)).thenReturn(null, interfaceType);
+			ClassType classType = mock(ClassType.class);
+			when(classType.isClass()).thenReturn(true);
+			when(classType.castToClass()).thenReturn(classType);
+			when(lookupService.findByHash(OTHER_HASH)).thenReturn(classType);
+			when(configurationHolder.isInitialized()).thenReturn(true);
+			AgentConfig configuration = mock(AgentConfig.class);
+			Collection<IInstrumentationApplier> appliers = mock(Collection.class);
+			InstrumentationDefinition instrumentationResult = mock(InstrumentationDefinition.class);
+			when(configurationHolder.getAgentConfiguration()).thenReturn(configuration);
+			when(configurationHolder.getInstrumentationAppliers()).thenReturn(appliers);
+			when(instrumentationService.addAndGetInstrumentationResult(classType, configuration, appliers)).thenReturn(instrumentationResult);
+
+			List<InstrumentationDefinition> results = manager.analyzeBatch(ID, Arrays.asList(HASH, OTHER_HASH), Arrays.asList(type, otherType));
+
+			assertThat(results, hasSize(2));
+			assertThat(results.get(0), is(nullValue()));
+			assertThat(results.get(1), is(instrumentationResult));
+			verify(modificationService).merge(type);
+			verify(instrumentationService).addAndGetInstrumentationResult(classType, configuration, appliers);
+			verifyNoMoreInteractions(modificationService, instrumentationService);
+		}
+	}
+
 	public class AnalyzeJmxAttributes extends NextGenInstrumentationManagerTest {
 
 		private final static long ID = 10;
@@ -37,6 +37,7 @@ import org.testng.annotations.Test;
 import rocks.inspectit.server.instrumentation.config.ClassCacheSearchNarrower;
 import rocks.inspectit.server.instrumentation.config.applier.IInstrumentationApplier;
 import rocks.inspectit.shared.all.instrumentation.classcache.AnnotationType;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.InterfaceType;
@@ -467,7 +468,7 @@ public class ClassCacheInstrumentationTest extends TestBase {
 		@Test
 		public void collect() throws Exception {
 			Collection<MethodInstrumentationConfig> configs = mock(Collection.class);
-			Set<String> hashes = mock(Set.class);
+			Set<ClassHash> hashes = mock(Set.class);
 			when(classType.isClass()).thenReturn(true);
 			when(classType.castToClass()).thenReturn(classType);
 			when(classType.isInitialized()).thenReturn(true);
@@ -477,12 +478,12 @@ public class ClassCacheInstrumentationTest extends TestBase {
 			when(classType.getHashes()).thenReturn(hashes);
 			doReturn(Collections.singleton(classType)).when(lookup).findAll();
 
-			Map<Collection<String>, InstrumentationDefinition> result = instrumentation.getInstrumentationResultsWithHashes();
+			Map<Collection<ClassHash>, InstrumentationDefinition> result = instrumentation.getInstrumentationResultsWithHashes();
 
 			// assert result
 			assertThat(result.size(), is(1));
-			Entry<Collection<String>, InstrumentationDefinition> entry = result.entrySet().iterator().next();
-			assertThat((Set<String>) entry.getKey(), is(hashes));
+			Entry<Collection<ClassHash>, InstrumentationDefinition> entry = result.entrySet().iterator().next();
+			assertThat((Set<ClassHash>) entry.getKey(), is(hashes));
 			assertThat(entry.getValue().getClassName(), is(FQN));
 			assertThat(entry.getValue().getMethodInstrumentationConfigs(), is(configs));
 
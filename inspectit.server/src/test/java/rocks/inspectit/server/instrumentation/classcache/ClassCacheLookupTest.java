@@ -30,6 +30,7 @@ import org.testng.annotations.Test;
 
 import rocks.inspectit.server.instrumentation.classcache.index.FqnIndexer;
 import rocks.inspectit.server.instrumentation.classcache.index.HashIndexer;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableAnnotationType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableInterfaceType;
@@ -122,7 +123,7 @@ public class ClassCacheLookupTest extends TestBase {
 
 		@Test
 		public void find() throws Exception {
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			when(hashIndexer.lookup(hash)).thenReturn(type);
 
 			ImmutableType type = lookup.findByHash(hash);
@@ -40,6 +40,7 @@ import rocks.inspectit.server.instrumentation.classcache.events.NodeEvent.NodeEv
 import rocks.inspectit.server.instrumentation.classcache.events.ReferenceEvent;
 import rocks.inspectit.server.instrumentation.classcache.events.ReferenceEvent.ReferenceType;
 import rocks.inspectit.shared.all.instrumentation.classcache.AnnotationType;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableType;
 import rocks.inspectit.shared.all.instrumentation.classcache.InterfaceType;
@@ -118,7 +119,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "types", expectedExceptions = { ClassCacheModificationException.class })
 		public void ensureThatFQNIsNotNull(Class<? extends Type> type) throws Exception {
 			String fqn = null;
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			Type theClass = construct(type, fqn, hash, modifiers);
 
@@ -170,7 +171,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "types")
 		public void addNewInitializedTypeThatWasNotKnown(Class<? extends Type> type) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			when(lookup.findByFQN(fqn)).thenReturn(null);
 			service.lookup = lookup;
@@ -202,7 +203,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "types")
 		public void addNewInitializedTypeThatIsKnownUninitialized(Class<? extends Type> type) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			Type notInitialized = construct(type, fqn);
 
@@ -221,8 +222,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "types")
 		public void addNewInitializedTypeThatIsKnownInitializedWithDifferentHash(Class<? extends Type> type) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			Type storedClass = construct(type, fqn, hashStored, modifiers);
 
@@ -241,7 +242,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "types")
 		public void addNewInitializedTypeThatIsKnownInitializedWithSameHash(Class<? extends Type> type) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			Type storedClass = construct(type, fqn, hash, modifiers);
 			when(lookup.findByFQN(fqn)).thenReturn(storedClass);
@@ -256,11 +257,11 @@ public class ClassCacheModificationTest extends TestBase {
 		public void mergeModifiers(Class<? extends Type> type) throws Exception {
 			String fqn = "fqn";
 			int m = Modifiers.getModifiers(Modifier.PUBLIC);
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			Type given = construct(type, fqn, hash, m);
 			assertThat(Modifiers.isPublic(given.getModifiers()), is(true));
 
-			String hashStored = "stored";
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modStored = Modifiers.getModifiers(Modifier.PRIVATE);
 			Type stored = construct(type, fqn, hashStored, modStored);
 
@@ -391,8 +392,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void mergeWithInitializedNewSuperclassReferenceReferredTypeThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 
@@ -429,8 +430,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void mergeWithInitializedNewSuperclassReferenceReferredTypeNotThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 
@@ -468,8 +469,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void mergeWithInitializedExistingSuperclassReferenceReferredTypeThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 
@@ -500,7 +501,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void mergeWithNotInitializedNewSuperclassReferenceReferredTypeThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 
@@ -531,7 +532,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void mergeWithNotInitializedNewSuperclassReferenceReferredTypeNotThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 
@@ -563,7 +564,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void addNewSuperclassReferenceReferredTypeThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 
@@ -592,7 +593,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void addNewSuperclassReferenceReferredTypeNotThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 
@@ -626,8 +627,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void mergeWithInitializedNewSuperInterfaceReferredTypeThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			InterfaceType c = new InterfaceType(fqn, hash, modifiers);
 
@@ -664,8 +665,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void mergeWithInitializedNewSuperInterfaceReferredTypeNotThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			InterfaceType c = new InterfaceType(fqn, hash, modifiers);
 
@@ -703,8 +704,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void mergeWithInitializedExistingSuperInterfaceReferredTypeThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			InterfaceType c = new InterfaceType(fqn, hash, modifiers);
 
@@ -741,7 +742,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void mergeWithNotInitializedNewSuperInterfaceReferredTypeThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			InterfaceType c = new InterfaceType(fqn, hash, modifiers);
 
@@ -772,7 +773,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void mergeWithNotInitializedNewSuperInterfaceReferredTypeNotThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			InterfaceType c = new InterfaceType(fqn, hash, modifiers);
 
@@ -804,7 +805,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void addNewSuperInterfaceReferredTypeThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			InterfaceType c = new InterfaceType(fqn, hash, modifiers);
 
@@ -832,7 +833,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void addNewSuperInterfaceReferredTypeNotThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			InterfaceType c = new InterfaceType(fqn, hash, modifiers);
 
@@ -864,8 +865,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "types")
 		public void mergeWithInitializedNewAnnotationReferredTypeThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			TypeWithAnnotations c = construct(clazz, fqn, hash, modifiers);
 
@@ -902,8 +903,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "types")
 		public void mergeWithInitializedNewAnnotationReferredTypeNotThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			TypeWithAnnotations c = construct(clazz, fqn, hash, modifiers);
 
@@ -941,8 +942,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "types")
 		public void mergeWithInitializedExistingAnnotationReferredTypeThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			TypeWithAnnotations c = construct(clazz, fqn, hash, modifiers);
 
@@ -979,7 +980,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "types")
 		public void mergeWithNotInitializedNewAnnotationReferredTypeThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			TypeWithAnnotations c = construct(clazz, fqn, hash, modifiers);
 
@@ -1011,7 +1012,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "types")
 		public void mergeWithNotInitializedNewAnnotationReferredTypeNotThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			TypeWithAnnotations c = construct(clazz, fqn, hash, modifiers);
 
@@ -1044,7 +1045,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "types")
 		public void addNewAnnotationReferredTypeThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			TypeWithAnnotations c = construct(clazz, fqn, hash, modifiers);
 
@@ -1074,7 +1075,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "types")
 		public void addNewAnnotationReferredTypeNotThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			TypeWithAnnotations c = construct(clazz, fqn, hash, modifiers);
 
@@ -1109,8 +1110,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void mergeWithInitializedNewRealizedInterfaceReferredTypeThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 
@@ -1148,8 +1149,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void mergeWithInitializedNewRealizedInterfaceReferredTypeNotThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 
@@ -1188,8 +1189,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void mergeWithInitializedExistingRealizedInterfaceReferredTypeThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 
@@ -1227,7 +1228,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void mergeWithNotInitializedNewRealizedInterfaceReferredTypeThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 
@@ -1260,7 +1261,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void mergeWithNotInitializedNewRealizedInterfaceReferredTypeNotThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 
@@ -1294,7 +1295,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void addNewRealizedInterfaceReferredTypeThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 
@@ -1325,7 +1326,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void addNewRealizedInterfaceReferredTypeNotThere() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 
@@ -1359,7 +1360,7 @@ public class ClassCacheModificationTest extends TestBase {
 			// that is a class, that has a superclass, that has a superclass
 			String[] fqns = new String[] { "1", "2", "3" };
 			int[] modifiers = new int[] { 0, 1, 2 };
-			String[] hashes = new String[] { "a", "b", "c" };
+			ClassHash[] hashes = new ClassHash[] { new ClassHash(0L, 1L), new ClassHash(0L, 2L), new ClassHash(0L, 3L) };
 
 			ClassType base = new ClassType(fqns[0], hashes[0], modifiers[0]);
 			ClassType firstSuper = new ClassType(fqns[1], hashes[1], modifiers[1]);
@@ -1392,7 +1393,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "types")
 		public void annotationReplacedWithInitialized(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			TypeWithAnnotations t = construct(clazz, fqn, hash, modifiers);
 			AnnotationType a = new AnnotationType("annotation");
@@ -1414,7 +1415,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void superClassReplacedWithInitialized() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 			ClassType s = new ClassType("superClass");
@@ -1436,7 +1437,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void realizedInterfacesReplacedWithInitialized() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 			InterfaceType i = new InterfaceType("interface");
@@ -1458,7 +1459,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void superInterfacesReplacedWithInitialized() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			InterfaceType i = new InterfaceType(fqn, hash, modifiers);
 			InterfaceType s = new InterfaceType("interface");
@@ -1480,7 +1481,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void methodAnnotatedReplacedWithWithInitialized(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			TypeWithMethods t = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 			AnnotationType a = new AnnotationType("annotation");
@@ -1502,7 +1503,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void methodExceptionReplacedWithWithInitialized(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			TypeWithMethods t = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 			ClassType e = new ClassType("exception");
@@ -1528,7 +1529,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void handleGivenSubclassIsNotSupported() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 			ClassType sub = new ClassType("something");
@@ -1544,8 +1545,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void handleGivenSubclassIsNotSupportedForInitialized() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 			ClassType sub = new ClassType("something");
@@ -1565,7 +1566,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void handleGivenSubInterfaceIsNotSupported() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			InterfaceType i = new InterfaceType(fqn, hash, modifiers);
 			InterfaceType sub = new InterfaceType("somthing");
@@ -1581,8 +1582,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void handleGivenSubInterfaceIsNotSupportedForInitialized() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			InterfaceType i = new InterfaceType(fqn, hash, modifiers);
 			InterfaceType sub = new InterfaceType("somthing");
@@ -1603,7 +1604,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "types")
 		public void handleGivenAnnotatedTypeIsNotSupported(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			AnnotationType a = new AnnotationType(fqn, hash, modifiers);
 			TypeWithAnnotations t = construct(clazz, "some");
@@ -1619,8 +1620,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "types")
 		public void handleGivenAnnotatedTypeIsNotSupportedForInitialized(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			AnnotationType a = new AnnotationType(fqn, hash, modifiers);
 			TypeWithAnnotations t = construct(clazz, "some");
@@ -1640,7 +1641,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void handleGivenReferredClassIsNotSupported() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			InterfaceType i = new InterfaceType(fqn, hash, modifiers);
 			ClassType c = new ClassType("something");
@@ -1657,8 +1658,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void handleGivenReferredClassIsNotSupportedForInitialized() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			InterfaceType i = new InterfaceType(fqn, hash, modifiers);
 			ClassType c = new ClassType("something");
@@ -1675,7 +1676,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void handleGivenMethodThrowingThisExceptionIsNotSupported() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 			MethodType m = build("aa", modifiers, null, null, null, null);
@@ -1690,8 +1691,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void handleGivenMethodThrowingThisExceptionIsNotSupportedForInitialized() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			ClassType c = new ClassType(fqn, hash, modifiers);
 			MethodType m = build("aa", modifiers, null, null, null, null);
@@ -1710,7 +1711,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void addTypeThatChangedTheOriginalClassType() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			ClassType classType = new ClassType(fqn, hash, modifiers);
 			when(lookup.findByFQN(fqn)).thenReturn(classType);
@@ -1724,7 +1725,7 @@ public class ClassCacheModificationTest extends TestBase {
 			classType.addMethodThrowingException(methodType);
 			classType.addAnnotation(annotationType);
 
-			String hash2 = "hash2";
+			ClassHash hash2 = new ClassHash(0L, 3L);
 			InterfaceType newType = new InterfaceType(fqn, hash2, modifiers);
 
 			Events events = service.merge(newType);
@@ -1746,7 +1747,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void addTypeThatChangedTheOriginalInterfaceType() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			InterfaceType interfaceType = new InterfaceType(fqn, hash, modifiers);
 			when(lookup.findByFQN(fqn)).thenReturn(interfaceType);
@@ -1758,7 +1759,7 @@ public class ClassCacheModificationTest extends TestBase {
 			interfaceType.addRealizingClass(classType);
 			interfaceType.addAnnotation(annotationType);
 
-			String hash2 = "hash2";
+			ClassHash hash2 = new ClassHash(0L, 3L);
 			ClassType newType = new ClassType(fqn, hash2, modifiers);
 
 			Events events = service.merge(newType);
@@ -1779,7 +1780,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test
 		public void addTypeThatChangedTheOriginalAnnotationType() throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			AnnotationType annotation = new AnnotationType(fqn, hash, modifiers);
 			when(lookup.findByFQN(fqn)).thenReturn(annotation);
@@ -1791,7 +1792,7 @@ public class ClassCacheModificationTest extends TestBase {
 			annotation.addAnnotatedType(interfaceType);
 			annotation.addAnnotation(annotationType);
 
-			String hash2 = "hash2";
+			ClassHash hash2 = new ClassHash(0L, 3L);
 			ClassType newType = new ClassType(fqn, hash2, modifiers);
 
 			Events events = service.merge(newType);
@@ -1852,8 +1853,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void mergeWithInitializedNewMethodReturnType(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			TypeWithMethods c = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -1887,8 +1888,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void mergeWithInitializedExistingMethodReturnType(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			TypeWithMethods c = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -1921,7 +1922,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void mergeWithNotInitializedNewMethodReturnType(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			TypeWithMethods c = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -1956,8 +1957,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void mergeWithInitializedNewMethodModifier(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			TypeWithMethods c = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -1992,8 +1993,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void mergeWithInitializedExistingMethodModifier(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			TypeWithMethods c = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -2025,8 +2026,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void mergeWithInitializedNoMethodModifier(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			TypeWithMethods c = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -2058,7 +2059,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void mergeWithNotInitializedNewMethodModifier(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			TypeWithMethods c = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -2091,8 +2092,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void mergeWithInitializedNewMethodExceptionThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			TypeWithMethods given = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -2127,8 +2128,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void mergeWithInitializedNewMethodExceptionNotThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			TypeWithMethods given = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -2166,8 +2167,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void mergeWithInitializedExistingMethodExceptionThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			TypeWithMethods given = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -2204,7 +2205,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void mergeWithNotInitializedNewMethodExceptionThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			TypeWithMethods given = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -2240,7 +2241,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void mergeWithNotInitializedNewMethodExceptionNotThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			TypeWithMethods given = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -2277,7 +2278,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void addNewMethodExceptionThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			TypeWithMethods given = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -2310,7 +2311,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void addNewMethodExceptionNotThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			TypeWithMethods given = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -2348,8 +2349,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void mergeWithInitializedNewMethodAnnotationThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			TypeWithMethods c = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -2383,8 +2384,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void mergeWithInitializedNewMethodAnnotationNotThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			TypeWithMethods c = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -2420,8 +2421,8 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void mergeWithInitializedExistingMethodAnnotationThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
-			String hashStored = "hashStored";
+			ClassHash hash = new ClassHash(0L, 1L);
+			ClassHash hashStored = new ClassHash(0L, 2L);
 			int modifiers = 0;
 			TypeWithMethods c = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -2455,7 +2456,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void mergeWithNotInitializedNewMethodAnnotationThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			TypeWithMethods c = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -2488,7 +2489,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void mergeWithNotInitializedNewMethodAnnotationNotThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			TypeWithMethods c = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -2522,7 +2523,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void addNewMethodAnnotationThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			TypeWithMethods c = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -2552,7 +2553,7 @@ public class ClassCacheModificationTest extends TestBase {
 		@Test(dataProvider = "typesWithMethods")
 		public void addNewMethodAnnotationNotThere(Class<? extends Type> clazz) throws Exception {
 			String fqn = "class";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			int modifiers = 0;
 			TypeWithMethods c = (TypeWithMethods) construct(clazz, fqn, hash, modifiers);
 
@@ -2586,9 +2587,9 @@ public class ClassCacheModificationTest extends TestBase {
 			return c.newInstance(fqn);
 		}
 
-		private Type construct(Class<? extends Type> type, String fqn, String hash, int modifiers)
+		private Type construct(Class<? extends Type> type, String fqn, ClassHash hash, int modifiers)
 				throws NoSuchMethodException, SecurityException, InstantiationException, IllegalAccessException, IllegalArgumentException, InvocationTargetException {
-			Constructor<? extends Type> c = type.getConstructor(String.class, String.class, int.class);
+			Constructor<? extends Type> c = type.getConstructor(String.class, ClassHash.class, int.class);
 			return c.newInstance(fqn, hash, modifiers);
 		}
 
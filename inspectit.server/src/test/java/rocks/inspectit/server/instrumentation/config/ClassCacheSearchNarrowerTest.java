@@ -24,6 +24,7 @@ import org.testng.annotations.Test;
 import rocks.inspectit.server.instrumentation.classcache.ClassCache;
 import rocks.inspectit.server.instrumentation.classcache.ClassCacheLookup;
 import rocks.inspectit.shared.all.instrumentation.classcache.AnnotationType;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.InterfaceType;
@@ -35,6 +36,10 @@ import rocks.inspectit.shared.cs.ci.assignment.impl.MethodSensorAssignment;
 @SuppressWarnings({ "PMD", "unchecked" })
 public class ClassCacheSearchNarrowerTest extends TestBase {
 
+	private static final ClassHash HASH = new ClassHash(0L, 1L);
+
+	private static final ClassHash SUPER_HASH = new ClassHash(0L, 2L);
+
 	@InjectMocks
 	ClassCacheSearchNarrower narrower;
 
@@ -63,7 +68,7 @@ public class ClassCacheSearchNarrowerTest extends TestBase {
 			when(methodSensorAssignment.getClassName()).thenReturn(className);
 			when(methodSensorAssignment.isInterf()).thenReturn(false);
 			when(methodSensorAssignment.isSuperclass()).thenReturn(false);
-			ClassType classType = new ClassType(className, "hash", 0);
+			ClassType classType = new ClassType(className, HASH, 0);
 			doReturn(Collections.singleton(classType)).when(lookup).findClassTypesByPattern(eq(className), anyBoolean());
 
 			Collection<? extends ImmutableClassType> result = narrower.narrowByClassSensorAssignment(classCache, methodSensorAssignment);
@@ -82,7 +87,7 @@ public class ClassCacheSearchNarrowerTest extends TestBase {
 			when(methodSensorAssignment.isInterf()).thenReturn(true);
 			when(methodSensorAssignment.isSuperclass()).thenReturn(false);
 			InterfaceType interfaceType = new InterfaceType(interfaceName);
-			ClassType classType = new ClassType("initialized", "hash", 0);
+			ClassType classType = new ClassType("initialized", HASH, 0);
 			classType.addInterface(interfaceType);
 			doReturn(Collections.singleton(interfaceType)).when(lookup).findInterfaceTypesByPattern(eq(interfaceName), anyBoolean());
 
@@ -123,7 +128,7 @@ public class ClassCacheSearchNarrowerTest extends TestBase {
 			InterfaceType interfaceType = new InterfaceType(interfaceName);
 			InterfaceType indirectInterfaceType = new InterfaceType("indirectInterfaceType");
 			indirectInterfaceType.addSuperInterface(interfaceType);
-			ClassType classType = new ClassType("initialized", "hash", 0);
+			ClassType classType = new ClassType("initialized", HASH, 0);
 			classType.addInterface(indirectInterfaceType);
 			doReturn(Collections.singleton(interfaceType)).when(lookup).findInterfaceTypesByPattern(eq(interfaceName), anyBoolean());
 
@@ -164,8 +169,8 @@ public class ClassCacheSearchNarrowerTest extends TestBase {
 			when(methodSensorAssignment.isInterf()).thenReturn(true);
 			when(methodSensorAssignment.isSuperclass()).thenReturn(false);
 			InterfaceType interfaceType = new InterfaceType(interfaceName);
-			ClassType superClassType = new ClassType("superclass", "superhash", 0);
-			ClassType classType = new ClassType("initialized", "hash", 0);
+			ClassType superClassType = new ClassType("superclass", SUPER_HASH, 0);
+			ClassType classType = new ClassType("initialized", HASH, 0);
 			classType.addSuperClass(superClassType);
 			superClassType.addInterface(interfaceType);
 			doReturn(Collections.singleton(interfaceType)).when(lookup).findInterfaceTypesByPattern(eq(interfaceName), anyBoolean());
@@ -189,8 +194,8 @@ public class ClassCacheSearchNarrowerTest extends TestBase {
 			InterfaceType interfaceType = new InterfaceType(interfaceName);
 			InterfaceType indirectInterfaceType = new InterfaceType("indirectInterfaceType");
 			indirectInterfaceType.addSuperInterface(interfaceType);
-			ClassType superClassType = new ClassType("superclass", "superhash", 0);
-			ClassType classType = new ClassType("initialized", "hash", 0);
+			ClassType superClassType = new ClassType("superclass", SUPER_HASH, 0);
+			ClassType classType = new ClassType("initialized", HASH, 0);
 			classType.addSuperClass(superClassType);
 			superClassType.addInterface(interfaceType);
 			doReturn(Collections.singleton(interfaceType)).when(lookup).findInterfaceTypesByPattern(eq(interfaceName), anyBoolean());
@@ -214,8 +219,8 @@ public class ClassCacheSearchNarrowerTest extends TestBase {
 			InterfaceType interfaceType = new InterfaceType(interfaceName);
 			InterfaceType indirectInterfaceType = new InterfaceType("indirectInterfaceType");
 			indirectInterfaceType.addSuperInterface(interfaceType);
-			ClassType superClassType = new ClassType("superclass", "superhash", 0);
-			ClassType classType = new ClassType("initialized", "hash", 0);
+			ClassType superClassType = new ClassType("superclass", SUPER_HASH, 0);
+			ClassType classType = new ClassType("initialized", HASH, 0);
 			classType.addSuperClass(superClassType);
 			classType.addInterface(indirectInterfaceType);
 			superClassType.addInterface(interfaceType);
@@ -238,7 +243,7 @@ public class ClassCacheSearchNarrowerTest extends TestBase {
 			when(methodSensorAssignment.isInterf()).thenReturn(false);
 			when(methodSensorAssignment.isSuperclass()).thenReturn(true);
 			ClassType superClassType = new ClassType(superClassName);
-			ClassType classType = new ClassType("initialized", "hash", 0);
+			ClassType classType = new ClassType("initialized", HASH, 0);
 			classType.addSuperClass(superClassType);
 			doReturn(Collections.singleton(superClassType)).when(lookup).findClassTypesByPattern(eq(superClassName), anyBoolean());
 
@@ -279,7 +284,7 @@ public class ClassCacheSearchNarrowerTest extends TestBase {
 			ClassType superClassType = new ClassType(superClassName);
 			ClassType indirectSuperClassType = new ClassType("indirectSuperClassType");
 			indirectSuperClassType.addSuperClass(superClassType);
-			ClassType classType = new ClassType("initialized", "hash", 0);
+			ClassType classType = new ClassType("initialized", HASH, 0);
 			classType.addSuperClass(indirectSuperClassType);
 			doReturn(Collections.singleton(superClassType)).when(lookup).findClassTypesByPattern(eq(superClassName), anyBoolean());
 
@@ -299,9 +304,9 @@ public class ClassCacheSearchNarrowerTest extends TestBase {
 			when(methodSensorAssignment.isInterf()).thenReturn(false);
 			when(methodSensorAssignment.isSuperclass()).thenReturn(true);
 			ClassType superClassType = new ClassType(superClassName);
-			ClassType indirectSuperClassType = new ClassType("indirectSuperClassType", "hash", 0);
+			ClassType indirectSuperClassType = new ClassType("indirectSuperClassType", HASH, 0);
 			indirectSuperClassType.addSuperClass(superClassType);
-			ClassType classType = new ClassType("initialized", "hash", 0);
+			ClassType classType = new ClassType("initialized", HASH, 0);
 			classType.addSuperClass(indirectSuperClassType);
 			doReturn(Collections.singleton(superClassType)).when(lookup).findClassTypesByPattern(eq(superClassName), anyBoolean());
 
@@ -345,7 +350,7 @@ public class ClassCacheSearchNarrowerTest extends TestBase {
 			when(methodSensorAssignment.isSuperclass()).thenReturn(false);
 			when(methodSensorAssignment.getAnnotation()).thenReturn(annotationName);
 			AnnotationType annotationType = new AnnotationType(annotationName);
-			ClassType classType = new ClassType("initialized", "hash", 0);
+			ClassType classType = new ClassType("initialized", HASH, 0);
 			classType.addAnnotation(annotationType);
 			doReturn(Collections.singleton(annotationType)).when(lookup).findAnnotationTypesByPattern(eq(annotationName), anyBoolean());
 
@@ -390,7 +395,7 @@ public class ClassCacheSearchNarrowerTest extends TestBase {
 			AnnotationType annotationType = new AnnotationType(annotationName);
 			ClassType superClassType = new ClassType("superClass");
 			superClassType.addAnnotation(annotationType);
-			ClassType classType = new ClassType("initialized", "hash", 0);
+			ClassType classType = new ClassType("initialized", HASH, 0);
 			classType.addSuperClass(superClassType);
 			doReturn(Collections.singleton(annotationType)).when(lookup).findAnnotationTypesByPattern(eq(annotationName), anyBoolean());
 
@@ -437,7 +442,7 @@ public class ClassCacheSearchNarrowerTest extends TestBase {
 			AnnotationType annotationType = new AnnotationType(annotationName);
 			InterfaceType interfaceType = new InterfaceType("interface");
 			interfaceType.addAnnotation(annotationType);
-			ClassType classType = new ClassType("initialized", "hash", 0);
+			ClassType classType = new ClassType("initialized", HASH, 0);
 			classType.addInterface(interfaceType);
 			doReturn(Collections.singleton(annotationType)).when(lookup).findAnnotationTypesByPattern(eq(annotationName), anyBoolean());
 
@@ -484,7 +489,7 @@ public class ClassCacheSearchNarrowerTest extends TestBase {
 			AnnotationType annotationType = new AnnotationType(annotationName);
 			MethodType methodType = new MethodType();
 			methodType.addAnnotation(annotationType);
-			ClassType classType = new ClassType("initialized", "hash", 0);
+			ClassType classType = new ClassType("initialized", HASH, 0);
 			classType.addMethod(methodType);
 			doReturn(Collections.singleton(annotationType)).when(lookup).findAnnotationTypesByPattern(eq(annotationName), anyBoolean());
 
@@ -32,6 +32,7 @@ import com.google.common.collect.Iterators;
 import rocks.inspectit.shared.all.instrumentation.config.PriorityEnum;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentEndUserMonitoringConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.AgentTracingConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.ExceptionSensorTypeConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.JmxSensorTypeConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.MethodSensorTypeConfig;
@@ -54,6 +55,7 @@ import rocks.inspectit.shared.cs.ci.sensor.method.special.impl.ExecutorIntercept
 import rocks.inspectit.shared.cs.ci.sensor.method.special.impl.MBeanServerInterceptorSensorConfig;
 import rocks.inspectit.shared.cs.ci.sensor.platform.IPlatformSensorConfig;
 import rocks.inspectit.shared.cs.ci.strategy.IStrategyConfig;
+import rocks.inspectit.shared.cs.ci.tracing.TracingConfig;
 import rocks.inspectit.shared.cs.cmr.service.IRegistrationService;
 
 @SuppressWarnings("PMD")
@@ -270,6 +272,91 @@ public class ConfigurationCreatorTest extends TestBase {
 			assertThat(agentConfiguration.getRetransformationStrategy(), is(retransformationStrategy));
 		}
 
+		@Test
+		public void batchedClassAnalysis() throws Exception {
+			when(environment.isBatchedClassAnalysis()).thenReturn(false);
+
+			AgentConfig agentConfiguration = creator.environmentToConfiguration(environment, 0);
+
+			assertThat(agentConfiguration.isBatchedClassAnalysis(), is(false));
+		}
+
+		@Test
+		public void sha256ClassHashes() throws Exception {
+			when(environment.isSha256ClassHashes()).thenReturn(true);
+
+			AgentConfig agentConfiguration = creator.environmentToConfiguration(environment, 0);
+
+			assertThat(agentConfiguration.isSha256ClassHashes(), is(true));
+		}
+
+		@Test
+		public void indexedDispatch() throws Exception {
+			when(environment.isIndexedDispatch()).thenReturn(true);
+
+			AgentConfig agentConfiguration = creator.environmentToConfiguration(environment, 0);
+
+			assertThat(agentConfiguration.isIndexedDispatch(), is(true));
+		}
+
+		@Test
+		public void platformSensorIntervals() throws Exception {
+			when(environment.getPlatformSamplingInterval()).thenReturn(100L);
+			when(environment.getPlatformSendingInterval()).thenReturn(2000L);
+
+			AgentConfig agentConfiguration = creator.environmentToConfiguration(environment, 0);
+
+			assertThat(agentConfiguration.getPlatformSamplingInterval(), is(100L));
+			assertThat(agentConfiguration.getPlatformSendingInterval(), is(2000L));
+		}
+
+		@Test
+		public void tracingConfig() throws Exception {
+			TracingConfig tracingConfig = new TracingConfig();
+			tracingConfig.setSamplingRate(10d);
+			tracingConfig.setSamplingProbability(0.5d);
+			tracingConfig.setTailSamplingEnabled(true);
+			tracingConfig.setTailSamplingThreshold(100L);
+			tracingConfig.setTailSamplingMaxBytes(1024L);
+			tracingConfig.setTailSamplingMaxAge(5000L);
+			when(environment.getTracingConfig()).thenReturn(tracingConfig);
+
+			AgentConfig agentConfiguration = creator.environmentToConfiguration(environment, 0);
+
+			AgentTracingConfig agentTracingConfig = agentConfiguration.getTracingConfig();
+			assertThat(agentTracingConfig.getSamplingRate(), is(10d));
+			assertThat(agentTracingConfig.getSamplingProbability(), is(0.5d));
+			assertThat(agentTracingConfig.isTailSamplingEnabled(), is(true));
+			assertThat(agentTracingConfig.getTailSamplingThreshold(), is(100L));
+			assertThat(agentTracingConfig.getTailSamplingMaxBytes(), is(1024L));
+			assertThat(agentTracingConfig.getTailSamplingMaxAge(), is(5000L));
+		}
+
+		@Test
+		public void noTracingConfig() throws Exception {
+			AgentConfig agentConfiguration = creator.environmentToConfiguration(environment, 0);
+
+			assertThat(agentConfiguration.getTracingConfig(), is(nullValue()));
+		}
+
+		@Test
+		public void compressedWireMode() throws Exception {
+			when(environment.isCompressedWireMode()).thenReturn(true);
+
+			AgentConfig agentConfiguration = creator.environmentToConfiguration(environment, 0);
+
+			assertThat(agentConfiguration.isCompressedWireMode(), is(true));
+		}
+
+		@Test
+		public void configurationRevision() throws Exception {
+			when(configurationResolver.getConfigurationRevision(environment)).thenReturn("env@2;profile@3");
+
+			AgentConfig agentConfiguration = creator.environmentToConfiguration(environment, 0);
+
+			assertThat(agentConfiguration.getConfigurationRevision(), is("env@2;profile@3"));
+		}
+
 		// special method sensor
 
 		@Test
@@ -338,6 +425,7 @@ public class ConfigurationCreatorTest extends TestBase {
 			when(config.getActiveModules()).thenReturn(modules);
 			when(config.isListenerInstrumentationAllowed()).thenReturn(false);
 			when(config.isAgentMinificationEnabled()).thenReturn(false);
+			when(config.getSessionBeaconLimit()).thenReturn(100);
 
 			when(environment.getEumConfig()).thenReturn(config);
 
@@ -349,6 +437,7 @@ public class ConfigurationCreatorTest extends TestBase {
 			assertThat(eumConfig.getScriptBaseUrl(), is(url));
 			assertThat(eumConfig.isListenerInstrumentationAllowed(), is(false));
 			assertThat(eumConfig.isAgentMinificationEnabled(), is(false));
+			assertThat(eumConfig.getSessionBeaconLimit(), is(100));
 		}
 
 		@Test
@@ -4,11 +4,14 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
 import java.util.Collections;
 
 import org.mockito.InjectMocks;
@@ -18,8 +21,10 @@ import org.testng.annotations.Test;
 import rocks.inspectit.server.instrumentation.config.applier.IInstrumentationApplier;
 import rocks.inspectit.server.instrumentation.config.applier.JmxMonitoringApplier;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
+import rocks.inspectit.shared.all.pattern.IMatchPattern;
 import rocks.inspectit.shared.all.testbase.TestBase;
 import rocks.inspectit.shared.cs.ci.Environment;
+import rocks.inspectit.shared.cs.ci.assignment.impl.MethodSensorAssignment;
 
 /**
  * @author Ivan Senic
@@ -76,6 +81,45 @@ public class ConfigurationHolderTest extends TestBase {
 			verifyNoMoreInteractions(configurationCreator, configurationResolver);
 		}
 
+		@Test
+		public void instrumentationCandidatePatterns() {
+			long platformId = 11;
+			Environment environment = mock(Environment.class);
+			AgentConfig configuration = new AgentConfig();
+			IInstrumentationApplier applier = mock(IInstrumentationApplier.class);
+			MethodSensorAssignment assignment = new MethodSensorAssignment();
+			assignment.setClassName("info.novatec.*");
+			doReturn(assignment).when(applier).getSensorAssignment();
+			when(configurationCreator.environmentToConfiguration(environment, platformId)).thenReturn(configuration);
+			when(configurationResolver.getInstrumentationAppliers(environment)).thenReturn(Collections.singleton(applier));
+
+			holder.update(environment, platformId);
+
+			assertThat(configuration.getInstrumentationCandidatePatterns(), hasSize(1));
+			IMatchPattern pattern = configuration.getInstrumentationCandidatePatterns().iterator().next();
+			assertThat(pattern.match("info.novatec.Class"), is(true));
+			assertThat(pattern.match("rocks.inspectit.Class"), is(false));
+		}
+
+		@Test
+		public void instrumentationCandidatePatternsUnknown() {
+			long platformId = 11;
+			Environment environment = mock(Environment.class);
+			AgentConfig configuration = new AgentConfig();
+			IInstrumentationApplier applier = mock(IInstrumentationApplier.class);
+			MethodSensorAssignment assignment = new MethodSensorAssignment();
+			assignment.setClassName("info.novatec.*");
+			doReturn(assignment).when(applier).getSensorAssignment();
+			IInstrumentationApplier unboundApplier = mock(IInstrumentationApplier.class);
+			when(configurationCreator.environmentToConfiguration(environment, platformId)).thenReturn(configuration);
+			when(configurationResolver.getInstrumentationAppliers(environment)).thenReturn(Arrays.asList(applier, unboundApplier));
+
+			holder.update(environment, platformId);
+
+			// any class can be instrumented by the applier without assignment
+			assertThat(configuration.getInstrumentationCandidatePatterns(), is(nullValue()));
+		}
+
 		@Test
 		public void updateReset() {
 			long platformId = 11;
@@ -6,6 +6,7 @@ import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -13,8 +14,10 @@ import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 import org.mockito.InjectMocks;
@@ -597,4 +600,86 @@ public class ConfigurationResolverTest extends TestBase {
 
 	}
 
+	public static class GetConfigurationRevision extends ConfigurationResolverTest {
+
+		@Test
+		public void nullEnvironment() {
+			String revision = configurationResolver.getConfigurationRevision(null);
+
+			assertThat(revision, is(nullValue()));
+			verifyZeroInteractions(configurationInterfaceManager);
+		}
+
+		@Test
+		public void noProfile() {
+			when(environment.getId()).thenReturn("env");
+			when(environment.getRevision()).thenReturn(2);
+			when(environment.getProfileIds()).thenReturn(Collections.<String> emptySet());
+
+			String revision = configurationResolver.getConfigurationRevision(environment);
+
+			assertThat(revision, is("env@2"));
+		}
+
+		@Test
+		public void activeProfile() throws BusinessException {
+			when(environment.getId()).thenReturn("env");
+			when(environment.getRevision()).thenReturn(2);
+			when(environment.getProfileIds()).thenReturn(Collections.singleton(PROFILE_ID));
+			when(configurationInterfaceManager.getProfile(PROFILE_ID)).thenReturn(profile);
+			when(profile.getId()).thenReturn(PROFILE_ID);
+			when(profile.getRevision()).thenReturn(5);
+			when(profile.isActive()).thenReturn(true);
+
+			String revision = configurationResolver.getConfigurationRevision(environment);
+
+			assertThat(revision, is("env@2;" + PROFILE_ID + "@5"));
+		}
+
+		@Test
+		public void profileNotActive() throws BusinessException {
+			when(environment.getId()).thenReturn("env");
+			when(environment.getRevision()).thenReturn(2);
+			when(environment.getProfileIds()).thenReturn(Collections.singleton(PROFILE_ID));
+			when(configurationInterfaceManager.getProfile(PROFILE_ID)).thenReturn(profile);
+			when(profile.isActive()).thenReturn(false);
+
+			String revision = configurationResolver.getConfigurationRevision(environment);
+
+			assertThat(revision, is("env@2"));
+		}
+
+		@Test
+		public void profileDoesNotExists() throws BusinessException {
+			when(environment.getId()).thenReturn("env");
+			when(environment.getRevision()).thenReturn(2);
+			when(environment.getProfileIds()).thenReturn(Collections.singleton(PROFILE_ID));
+			when(configurationInterfaceManager.getProfile(PROFILE_ID)).thenThrow(new BusinessException(null));
+
+			String revision = configurationResolver.getConfigurationRevision(environment);
+
+			assertThat(revision, is("env@2"));
+		}
+
+		@Test
+		public void profilesSortedById() throws BusinessException {
+			Profile otherProfile = mock(Profile.class);
+			when(environment.getId()).thenReturn("env");
+			when(environment.getRevision()).thenReturn(2);
+			when(environment.getProfileIds()).thenReturn(new LinkedHashSet<>(Arrays.asList("b", "a")));
+			when(configurationInterfaceManager.getProfile("a")).thenReturn(profile);
+			when(configurationInterfaceManager.getProfile("b")).thenReturn(otherProfile);
+			when(profile.getId()).thenReturn("a");
+			when(profile.getRevision()).thenReturn(5);
+			when(profile.isActive()).thenReturn(true);
+			when(otherProfile.getId()).thenReturn("b");
+			when(otherProfile.getRevision()).thenReturn(3);
+			when(otherProfile.isActive()).thenReturn(true);
+
+			String revision = configurationResolver.getConfigurationRevision(environment);
+
+			assertThat(revision, is("env@2;a@5;b@3"));
+		}
+	}
+
 }
@@ -0,0 +1,309 @@
+package rocks.inspectit.server.processor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.mockito.Mock;
+import org.slf4j.Logger;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class AsynchronousCmrDataProcessorTest extends TestBase {
+
+	AsynchronousCmrDataProcessor processor;
+
+	@Mock
+	AbstractCmrDataProcessor delegate;
+
+	@Mock
+	EntityManager entityManager;
+
+	@Mock
+	Logger log;
+
+	@BeforeMethod
+	public void init() {
+		processor = new AsynchronousCmrDataProcessor("test", delegate);
+		processor.log = log;
+		processor.queueCapacity = 1;
+	}
+
+	@AfterMethod
+	public void stop() {
+		processor.stop();
+	}
+
+	public static class Process extends AsynchronousCmrDataProcessorTest {
+
+		@Test
+		public void passedToDelegate() {
+			TimerData data = new TimerData();
+			when(delegate.canBeProcessed(data)).thenReturn(true);
+			processor.start();
+
+			processor.process(data, entityManager);
+
+			verify(delegate, timeout(5000)).process(data, null);
+			assertThat(processor.getDroppedCount(), is(0L));
+		}
+
+		@Test
+		public void collectionPassedToDelegate() {
+			TimerData data1 = new TimerData();
+			data1.setId(1L);
+			TimerData data2 = new TimerData();
+			data2.setId(2L);
+			when(delegate.canBeProcessed(any(DefaultData.class))).thenReturn(true);
+			processor.queueCapacity = 10;
+			processor.start();
+
+			processor.process(Arrays.asList(data1, data2), entityManager);
+
+			verify(delegate, timeout(5000)).process(data1, null);
+			verify(delegate, timeout(5000)).process(data2, null);
+		}
+
+		@Test
+		public void notProcessable() throws Exception {
+			TimerData data = new TimerData();
+			when(delegate.canBeProcessed(data)).thenReturn(false);
+			processor.start();
+
+			processor.process(data, entityManager);
+
+			Thread.sleep(100);
+			verify(delegate, never()).process(any(DefaultData.class), any(EntityManager.class));
+			assertThat(processor.getQueueSize(), is(0));
+		}
+
+		@Test
+		public void droppedWhenFull() {
+			TimerData data1 = new TimerData();
+			data1.setId(1L);
+			TimerData data2 = new TimerData();
+			data2.setId(2L);
+			when(delegate.canBeProcessed(any(DefaultData.class))).thenReturn(true);
+			processor.start();
+			// no processing thread
+			processor.stop();
+
+			processor.process(data1, entityManager);
+			processor.process(data2, entityManager);
+
+			assertThat(processor.getQueueSize(), is(1));
+			assertThat(processor.getDroppedCount(), is(1L));
+			verify(delegate, never()).process(any(DefaultData.class), any(EntityManager.class));
+		}
+
+		@Test
+		public void oneDeadlinePerCollection() {
+			List<TimerData> datas = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				TimerData data = new TimerData();
+				data.setId(i);
+				datas.add(data);
+			}
+			when(delegate.canBeProcessed(any(DefaultData.class))).thenReturn(true);
+			processor.start();
+			// no processing thread
+			processor.stop();
+
+			long start = System.currentTimeMillis();
+			processor.process(datas, entityManager);
+			long duration = System.currentTimeMillis() - start;
+
+			assertThat(duration, is(lessThan(2 * AsynchronousCmrDataProcessor.OFFER_TIMEOUT)));
+			assertThat(processor.getQueueSize(), is(1));
+			assertThat(processor.getDroppedCount(), is(3L));
+		}
+
+		@Test
+		public void dropWarningRateLimited() {
+			when(delegate.canBeProcessed(any(DefaultData.class))).thenReturn(true);
+			processor.start();
+			// no processing thread
+			processor.stop();
+
+			for (int i = 0; i < 4; i++) {
+				TimerData data = new TimerData();
+				data.setId(i);
+				processor.process(data, entityManager);
+			}
+
+			assertThat(processor.getDroppedCount(), is(3L));
+			verify(log, times(1)).warn(contains("test"));
+		}
+
+		@Test
+		public void blockingWaitsForFreePlace() throws Exception {
+			final TimerData data1 = new TimerData();
+			data1.setId(1L);
+			final TimerData data2 = new TimerData();
+			data2.setId(2L);
+			when(delegate.canBeProcessed(any(DefaultData.class))).thenReturn(true);
+			processor.setBlocking(true);
+			processor.start();
+			// no processing thread
+			processor.stop();
+			processor.process(data1, entityManager);
+
+			Thread producer = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					processor.process(data2, entityManager);
+				}
+			});
+			producer.start();
+			producer.join(2 * AsynchronousCmrDataProcessor.OFFER_TIMEOUT);
+
+			assertThat(producer.isAlive(), is(true));
+			assertThat(processor.getDroppedCount(), is(0L));
+
+			Thread consumer = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					processor.processQueue();
+				}
+			});
+			consumer.start();
+			try {
+				producer.join(5000);
+				assertThat(producer.isAlive(), is(false));
+				verify(delegate, timeout(5000)).process(data1, null);
+				verify(delegate, timeout(5000)).process(data2, null);
+				assertThat(processor.getDroppedCount(), is(0L));
+			} finally {
+				consumer.interrupt();
+			}
+		}
+
+		@Test
+		public void handedOffAfterCommit() {
+			TimerData data1 = new TimerData();
+			data1.setId(1L);
+			TimerData data2 = new TimerData();
+			data2.setId(2L);
+			when(delegate.canBeProcessed(any(DefaultData.class))).thenReturn(true);
+			processor.queueCapacity = 10;
+			processor.start();
+			// no processing thread
+			processor.stop();
+
+			TransactionSynchronizationManager.initSynchronization();
+			try {
+				processor.process(Arrays.asList(data1), entityManager);
+				processor.process(data2, entityManager);
+
+				assertThat(processor.getQueueSize(), is(0));
+				assertThat(TransactionSynchronizationManager.getSynchronizations(), hasSize(1));
+
+				for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+					synchronization.afterCommit();
+					synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+				}
+			} finally {
+				TransactionSynchronizationManager.clearSynchronization();
+			}
+
+			assertThat(processor.getQueueSize(), is(2));
+			assertThat(processor.getDroppedCount(), is(0L));
+		}
+
+		@Test
+		public void notHandedOffAfterRollback() {
+			TimerData data = new TimerData();
+			when(delegate.canBeProcessed(any(DefaultData.class))).thenReturn(true);
+			processor.start();
+			// no processing thread
+			processor.stop();
+
+			TransactionSynchronizationManager.initSynchronization();
+			try {
+				processor.process(data, entityManager);
+
+				for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+					synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+				}
+			} finally {
+				TransactionSynchronizationManager.clearSynchronization();
+			}
+
+			assertThat(processor.getQueueSize(), is(0));
+			assertThat(processor.getDroppedCount(), is(1L));
+		}
+
+		@Test
+		public void moreThreads() {
+			TimerData data1 = new TimerData();
+			data1.setId(1L);
+			TimerData data2 = new TimerData();
+			data2.setId(2L);
+			when(delegate.canBeProcessed(any(DefaultData.class))).thenReturn(true);
+			processor.queueCapacity = 10;
+			processor.threads = 2;
+			processor.start();
+
+			processor.process(Arrays.asList(data1, data2), entityManager);
+
+			verify(delegate, timeout(5000)).process(data1, null);
+			verify(delegate, timeout(5000)).process(data2, null);
+		}
+
+		@Test
+		public void failureCounted() {
+			TimerData data1 = new TimerData();
+			data1.setId(1L);
+			TimerData data2 = new TimerData();
+			data2.setId(2L);
+			doThrow(new RuntimeException()).when(delegate).process(data1, null);
+			processor.start();
+
+			processor.processBatch(Arrays.<DefaultData> asList(data1, data2));
+
+			verify(delegate).process(data2, null);
+			verify(log).error(any(String.class), any(RuntimeException.class));
+			assertThat(processor.getProcessedCount(), is(2L));
+			assertThat(processor.getStatistics(), containsString("failed: 1"));
+		}
+	}
+
+	public static class Statistics extends AsynchronousCmrDataProcessorTest {
+
+		@Test
+		public void stageName() {
+			processor.start();
+
+			assertThat(processor.getStatistics(), containsString("Processing stage test"));
+			assertThat(processor.getStatistics(), containsString("processed: 0"));
+		}
+	}
+}
@@ -33,6 +33,7 @@ import org.testng.annotations.Test;
 
 import rocks.inspectit.server.cache.IBuffer;
 import rocks.inspectit.server.cache.IBufferElement;
+import rocks.inspectit.server.cache.impl.BufferRollups;
 import rocks.inspectit.server.dao.impl.TimerDataAggregator;
 import rocks.inspectit.server.processor.AbstractCmrDataProcessor;
 import rocks.inspectit.server.storage.CmrStorageManager;
@@ -76,6 +77,9 @@ public class CmrDataProcessorsTest {
 	@Mock
 	private IBufferTreeComponent<DefaultData> indexingTree;
 
+	@Mock
+	private BufferRollups bufferRollups;
+
 	@Mock
 	private CmrStorageManager storageManager;
 
@@ -181,6 +185,64 @@ public class CmrDataProcessorsTest {
 		assertThat(child.getErrorMessage(), is("parentMsg"));
 	}
 
+	/**
+	 * Tests that the {@link ExceptionMessageCmrProcessor} restores the stack trace of the
+	 * deduplicated exception data.
+	 */
+	@Test
+	public void exceptionMessageProcessorRestoresStackTrace() {
+		ExceptionMessageCmrProcessor processor = new ExceptionMessageCmrProcessor();
+
+		ExceptionSensorData first = new ExceptionSensorData();
+		first.setPlatformIdent(1L);
+		first.setFingerprint(10L);
+		first.setThrowableType("MyException");
+		first.setErrorMessage("first");
+		first.setStackTrace("MyException: first\n\tat Class.method(Class.java:1)");
+		ExceptionSensorData second = new ExceptionSensorData();
+		second.setPlatformIdent(1L);
+		second.setFingerprint(10L);
+		second.setThrowableType("MyException");
+		second.setErrorMessage("second");
+		ExceptionSensorData otherPlatform = new ExceptionSensorData();
+		otherPlatform.setPlatformIdent(2L);
+		otherPlatform.setFingerprint(10L);
+		otherPlatform.setThrowableType("MyException");
+
+		processor.process(first, entityManager);
+		processor.process(second, entityManager);
+		processor.process(otherPlatform, entityManager);
+
+		assertThat(first.getStackTrace(), is("MyException: first\n\tat Class.method(Class.java:1)"));
+		assertThat(second.getStackTrace(), is("MyException: second\n\tat Class.method(Class.java:1)"));
+		assertThat(otherPlatform.getStackTrace(), is(nullValue()));
+	}
+
+	/**
+	 * Tests that the {@link ExceptionMessageCmrProcessor} completes the exception data which stack
+	 * trace could not be restored when the stack trace is sent again.
+	 */
+	@Test
+	public void exceptionMessageProcessorCompletesIncomplete() {
+		ExceptionMessageCmrProcessor processor = new ExceptionMessageCmrProcessor();
+		ExceptionSensorData incomplete = new ExceptionSensorData();
+		incomplete.setPlatformIdent(1L);
+		incomplete.setFingerprint(10L);
+		incomplete.setThrowableType("MyException");
+		incomplete.setErrorMessage("incomplete");
+		ExceptionSensorData withStackTrace = new ExceptionSensorData();
+		withStackTrace.setPlatformIdent(1L);
+		withStackTrace.setFingerprint(10L);
+		withStackTrace.setThrowableType("MyException");
+		withStackTrace.setStackTrace("MyException: first\n\tat Class.method(Class.java:1)");
+
+		processor.process(incomplete, entityManager);
+		assertThat(incomplete.getStackTrace(), is(nullValue()));
+		processor.process(withStackTrace, entityManager);
+
+		assertThat(incomplete.getStackTrace(), is("MyException: incomplete\n\tat Class.method(Class.java:1)"));
+	}
+
 	/**
 	 * Tests the {@link IndexerCmrProcessor}.
 	 */
@@ -190,6 +252,7 @@ public class CmrDataProcessorsTest {
 		IndexerCmrProcessor processor = new IndexerCmrProcessor();
 		processor.log = log;
 		processor.indexingTree = indexingTree;
+		processor.bufferRollups = bufferRollups;
 
 		// don't fail on null
 		processor.process((DefaultData) null, entityManager);
@@ -218,6 +281,7 @@ public class CmrDataProcessorsTest {
 		when(invocationAwareData.isOnlyFoundOutsideInvocations()).thenReturn(false);
 		processor.process(invocationAwareData, entityManager);
 		verify(indexingTree, times(1)).put(invocationAwareData);
+		verify(bufferRollups, times(1)).addInvocationChild(invocationAwareData);
 
 		// survive indexing exception
 		when(indexingTree.put(indexingTree.put(invocationAwareData))).thenThrow(IndexingException.class);
@@ -17,6 +17,7 @@ import org.testng.annotations.Test;
 
 import rocks.inspectit.server.instrumentation.NextGenInstrumentationManager;
 import rocks.inspectit.server.messaging.AgentMessageProvider;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.JmxAttributeDescriptor;
@@ -40,22 +41,42 @@ public class AgentServiceTest extends TestBase {
 	AgentMessageProvider messageProvider;
 
 	/**
-	 * Tests the {@link AgentService#analyze(long, String, Type)} method.
+	 * Tests the {@link AgentService#analyze(long, ClassHash, Type)} method.
 	 */
 	public static class Analyze extends AgentServiceTest {
 
 		@Test
 		public void successful() throws Exception {
+			ClassHash hash = new ClassHash(0L, 1L);
 			Type type = mock(Type.class);
 
-			agentService.analyze(10, "hash", type);
+			agentService.analyze(10, hash, type);
 
-			verify(instrumentationManager).analyze(10L, "hash", type);
+			verify(instrumentationManager).analyze(10L, hash, type);
 			verifyNoMoreInteractions(instrumentationManager);
 			verifyZeroInteractions(messageProvider);
 		}
 	}
 
+	/**
+	 * Tests the {@link AgentService#analyzeBatch(long, List, List)} method.
+	 */
+	public static class AnalyzeBatch extends AgentServiceTest {
+
+		@Test
+		@SuppressWarnings("unchecked")
+		public void successful() throws Exception {
+			List<ClassHash> hashes = mock(List.class);
+			List<Type> types = mock(List.class);
+
+			agentService.analyzeBatch(10L, hashes, types);
+
+			verify(instrumentationManager).analyzeBatch(10L, hashes, types);
+			verifyNoMoreInteractions(instrumentationManager);
+			verifyZeroInteractions(messageProvider, hashes, types);
+		}
+	}
+
 	/**
 	 * Tests the {@link AgentService#analyzeJmxAttributes(long, Collection)} method.
 	 */
@@ -1,4 +1,4 @@
-package rocks.inspectit.server.cache;
+package rocks.inspectit.shared.all.cmr.cache;
 
 import java.sql.Timestamp;
 import java.util.HashMap;
@@ -7,7 +7,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
-import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.cmr.cache.impl.ObjectSizes64Bits;
+import rocks.inspectit.shared.all.cmr.cache.impl.ObjectSizes64BitsCompressedOops;
 import rocks.inspectit.shared.all.communication.Sizeable;
 import rocks.inspectit.shared.all.util.UnderlyingSystemInfo;
 
@@ -52,6 +53,20 @@ public abstract class AbstractObjectSizes implements IObjectSizes {
 	 */
 	private float objectSecurityExpansionRate = 0.2f;
 
+	/**
+	 * Returns the new {@link IObjectSizes} instance that fits the VM we are running in, depending
+	 * on if the compressed oops are used.
+	 *
+	 * @return {@link IObjectSizes} for the underlying system.
+	 */
+	public static IObjectSizes forUnderlyingSystem() {
+		if (UnderlyingSystemInfo.IS_COMPRESSED_OOPS) {
+			return new ObjectSizes64BitsCompressedOops();
+		} else {
+			return new ObjectSizes64Bits();
+		}
+	}
+
 	/**
 	 * Returns the size of reference in bytes.
 	 *
@@ -91,7 +106,7 @@ public abstract class AbstractObjectSizes implements IObjectSizes {
 	 */
 	@Override
 	public long getSizeOf(String... strings) {
-		Set<Integer> identityHashCodeSet = new HashSet<>();
+		Set<Integer> identityHashCodeSet = new HashSet<Integer>();
 		long size = 0L;
 		for (String str : strings) {
 			if (null == str) {
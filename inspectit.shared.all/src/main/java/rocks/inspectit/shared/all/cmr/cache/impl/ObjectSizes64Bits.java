@@ -1,8 +1,8 @@
-package rocks.inspectit.server.cache.impl;
+package rocks.inspectit.shared.all.cmr.cache.impl;
 
 import java.util.List;
 
-import rocks.inspectit.server.cache.AbstractObjectSizes;
+import rocks.inspectit.shared.all.cmr.cache.AbstractObjectSizes;
 import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
 
 /**
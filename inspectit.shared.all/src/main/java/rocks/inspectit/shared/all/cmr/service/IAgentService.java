@@ -6,6 +6,7 @@ import java.util.Map;
 
 import rocks.inspectit.shared.all.communication.message.IAgentMessage;
 import rocks.inspectit.shared.all.exception.BusinessException;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
@@ -62,7 +63,26 @@ public interface IAgentService {
 	 * @throws BusinessException
 	 *             If agent with specified id does not exist.
 	 */
-	InstrumentationDefinition analyze(long platformIdent, String hash, Type type) throws BusinessException;
+	InstrumentationDefinition analyze(long platformIdent, ClassHash hash, Type type) throws BusinessException;
+
+	/**
+	 * Analyzes the batch of types in the given order, same as calling
+	 * {@link #analyze(long, ClassHash, Type)} for each of them. Depending types should be placed
+	 * before the types depending on them.
+	 *
+	 * @param platformIdent
+	 *            Id of the agent.
+	 * @param hashes
+	 *            Class hash codes.
+	 * @param types
+	 *            Parsed {@link Type}s representing classes being loaded on the agent, one for
+	 *            each hash.
+	 * @return List of instrumentation definitions in the same order as the types. Elements are
+	 *         <code>null</code> for types that should not be instrumented.
+	 * @throws BusinessException
+	 *             If agent with specified id does not exist.
+	 */
+	List<InstrumentationDefinition> analyzeBatch(long platformIdent, List<ClassHash> hashes, List<Type> types) throws BusinessException;
 
 	/**
 	 * Informs the CMR that the methods have been instrumented on the agent.
@@ -55,6 +55,13 @@ public class ExceptionSensorData extends InvocationAwareData {
 	 */
 	private long throwableIdentityHashCode;
 
+	/**
+	 * Fingerprint of the throwable type, cause and top stack trace frames. Data with a fingerprint
+	 * can be sent without the stack trace if the stack trace has already been sent with the same
+	 * fingerprint.
+	 */
+	private long fingerprint;
+
 	/**
 	 * Default no-args constructor.
 	 */
@@ -210,6 +217,25 @@ public class ExceptionSensorData extends InvocationAwareData {
 		this.throwableIdentityHashCode = throwableIdentityHashCode;
 	}
 
+	/**
+	 * Gets {@link #fingerprint}.
+	 *
+	 * @return {@link #fingerprint}
+	 */
+	public long getFingerprint() {
+		return fingerprint;
+	}
+
+	/**
+	 * Sets {@link #fingerprint}.
+	 *
+	 * @param fingerprint
+	 *            New value for {@link #fingerprint}
+	 */
+	public void setFingerprint(long fingerprint) {
+		this.fingerprint = fingerprint;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -224,7 +250,7 @@ public class ExceptionSensorData extends InvocationAwareData {
 	@Override
 	public long getObjectSize(IObjectSizes objectSizes, boolean doAlign) {
 		long size = super.getObjectSize(objectSizes, doAlign);
-		size += objectSizes.getPrimitiveTypesSize(6, 0, 0, 0, 1, 0);
+		size += objectSizes.getPrimitiveTypesSize(6, 0, 0, 0, 2, 0);
 		size += objectSizes.getSizeOf(errorMessage);
 		size += objectSizes.getSizeOf(cause);
 		size += objectSizes.getSizeOf(stackTrace);
@@ -248,6 +274,7 @@ public class ExceptionSensorData extends InvocationAwareData {
 		result = (prime * result) + ((cause == null) ? 0 : cause.hashCode());
 		result = (prime * result) + ((child == null) ? 0 : child.hashCode());
 		result = (prime * result) + ((exceptionEvent == null) ? 0 : exceptionEvent.hashCode());
+		result = (prime * result) + (int) (fingerprint ^ (fingerprint >>> 32));
 		result = (prime * result) + ((stackTrace == null) ? 0 : stackTrace.hashCode());
 		result = (prime * result) + (int) (throwableIdentityHashCode ^ (throwableIdentityHashCode >>> 32));
 		result = (prime * result) + ((throwableType == null) ? 0 : throwableType.hashCode());
@@ -290,6 +317,9 @@ public class ExceptionSensorData extends InvocationAwareData {
 		} else if (!exceptionEvent.equals(other.exceptionEvent)) {
 			return false;
 		}
+		if (fingerprint != other.fingerprint) {
+			return false;
+		}
 		if (stackTrace == null) {
 			if (other.stackTrace != null) {
 				return false;
@@ -96,6 +96,37 @@ public class JmxSensorValueData extends SystemSensorData implements IAggregatedD
 		super.setId(jmxDefinitionDataIdentId);
 	}
 
+	/**
+	 * Constructor for the boolean or numeric values. The numeric value is used directly for
+	 * initializing the aggregation values, thus the given string value is not parsed.
+	 *
+	 * @param jmxDefinitionDataIdentId
+	 *            the id of the related {@link JmxDefinitionDataIdent} of this
+	 *            {@link JmxSensorValueData}
+	 * @param value
+	 *            the value, must represent a boolean or a number
+	 * @param numericValue
+	 *            the value as double, <code>1</code> or <code>0</code> for boolean values
+	 * @param timestamp
+	 *            the timestamp when this value was captured
+	 * @param platformIdent
+	 *            the id of the related {@link PlatformIdent}
+	 * @param sensorTypeIdent
+	 *            the id of the related {@link SensorTypeIdent}
+	 */
+	public JmxSensorValueData(long jmxDefinitionDataIdentId, String value, double numericValue, Timestamp timestamp, long platformIdent, long sensorTypeIdent) {
+		this.value = value;
+		this.aggregationCount = 1;
+		this.minValue = numericValue;
+		this.maxValue = numericValue;
+		this.totalValue = numericValue;
+		setJmxSensorDefinitionDataIdentId(jmxDefinitionDataIdentId);
+		super.setTimeStamp(timestamp);
+		super.setPlatformIdent(platformIdent);
+		super.setSensorTypeIdent(sensorTypeIdent);
+		super.setId(jmxDefinitionDataIdentId);
+	}
+
 	/**
 	 * Copy constructor. Copies all values (except the aggregation values) of the given
 	 * {@link JmxSensorValueData} object into the newly created.
@@ -132,6 +132,13 @@ public interface IIndexQuery {
 	 */
 	void addIndexingRestriction(IIndexQueryRestriction indexingRestriction);
 
+	/**
+	 * Returns the indexing restrictions of the query.
+	 *
+	 * @return Returns the indexing restrictions of the query.
+	 */
+	List<IIndexQueryRestriction> getIndexingRestrictionList();
+
 	/**
 	 * Returns if the searching interval is set for current {@link IIndexQuery} object. The method
 	 * will return true only when both {@link #getFromDate} and {@link #getToDate} time stamps are
@@ -39,7 +39,7 @@ public abstract class AbstractInterfaceType extends Type implements ImmutableAbs
 	 * @param modifiers
 	 *            the modifiers of the class.
 	 */
-	public AbstractInterfaceType(String fqn, String hash, int modifiers) {
+	public AbstractInterfaceType(String fqn, ClassHash hash, int modifiers) {
 		super(fqn, hash, modifiers);
 	}
 
@@ -49,7 +49,7 @@ public final class AnnotationType extends AbstractInterfaceType implements Immut
 	 * @param modifiers
 	 *            the modifiers of the annotation.
 	 */
-	public AnnotationType(String fqn, String hash, int modifiers) {
+	public AnnotationType(String fqn, ClassHash hash, int modifiers) {
 		super(fqn, hash, modifiers);
 	}
 
@@ -0,0 +1,173 @@
+package rocks.inspectit.shared.all.instrumentation.classcache;
+
+/**
+ * Hash of the byte code of a class, identifying one version of the class on the agent and on the
+ * CMR. The hash is kept as two <code>long</code> values of 128 bits, so that no hexadecimal string
+ * has to be created for every loaded class.
+ * <p>
+ * The string representation is the 32 characters long hexadecimal string of the high bits followed
+ * by the low bits. Longer hexadecimal strings, like the SHA-256 hashes created by older agents, are
+ * truncated to the first 128 bits when parsed with {@link #fromHex(String)}.
+ *
+ * @author Ivan Senic
+ *
+ */
+public final class ClassHash {
+
+	/**
+	 * Amount of hexadecimal characters of the hash.
+	 */
+	public static final int HEX_LENGTH = 32;
+
+	/**
+	 * Hexadecimal characters.
+	 */
+	private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+
+	/**
+	 * First 64 bits of the hash.
+	 */
+	private final long high;
+
+	/**
+	 * Last 64 bits of the hash.
+	 */
+	private final long low;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param high
+	 *            First 64 bits of the hash.
+	 * @param low
+	 *            Last 64 bits of the hash.
+	 */
+	public ClassHash(long high, long low) {
+		this.high = high;
+		this.low = low;
+	}
+
+	/**
+	 * Creates the hash from the first 16 bytes of the given byte array in the big-endian order.
+	 *
+	 * @param bytes
+	 *            Bytes of the hash, must have at least 16 bytes.
+	 * @return {@link ClassHash}
+	 */
+	public static ClassHash fromBytes(byte[] bytes) {
+		if (bytes.length < 16) {
+			throw new IllegalArgumentException("At least 16 bytes are needed for the class hash, given " + bytes.length + ".");
+		}
+		return new ClassHash(toLong(bytes, 0), toLong(bytes, 8));
+	}
+
+	/**
+	 * Parses the hash from the hexadecimal string. Only the first {@value #HEX_LENGTH} characters
+	 * are used, thus a SHA-256 hash in hexadecimal form results in the same hash as
+	 * {@link #fromBytes(byte[])} with the digest bytes.
+	 *
+	 * @param hex
+	 *            Hexadecimal string with at least {@value #HEX_LENGTH} characters.
+	 * @return {@link ClassHash}
+	 */
+	public static ClassHash fromHex(String hex) {
+		if (hex.length() < HEX_LENGTH) {
+			throw new IllegalArgumentException("At least " + HEX_LENGTH + " hexadecimal characters are needed for the class hash, given " + hex + ".");
+		}
+		return new ClassHash(parseLong(hex, 0), parseLong(hex, HEX_LENGTH / 2));
+	}
+
+	/**
+	 * Reads a big-endian long from the bytes.
+	 *
+	 * @param bytes
+	 *            Bytes.
+	 * @param offset
+	 *            Offset of the first byte.
+	 * @return Long value.
+	 */
+	private static long toLong(byte[] bytes, int offset) {
+		long value = 0;
+		for (int i = offset; i < (offset + 8); i++) {
+			value = (value << 8) | (bytes[i] & 0xffL);
+		}
+		return value;
+	}
+
+	/**
+	 * Parses 16 hexadecimal characters to a long.
+	 *
+	 * @param hex
+	 *            Hexadecimal string.
+	 * @param offset
+	 *            Offset of the first character.
+	 * @return Long value.
+	 */
+	private static long parseLong(String hex, int offset) {
+		long value = 0;
+		for (int i = offset; i < (offset + 16); i++) {
+			int digit = Character.digit(hex.charAt(i), 16);
+			if (digit < 0) {
+				throw new IllegalArgumentException("The class hash " + hex + " is not a hexadecimal string.");
+			}
+			value = (value << 4) | digit;
+		}
+		return value;
+	}
+
+	/**
+	 * Gets {@link #high}.
+	 *
+	 * @return {@link #high}
+	 */
+	public long getHigh() {
+		return high;
+	}
+
+	/**
+	 * Gets {@link #low}.
+	 *
+	 * @return {@link #low}
+	 */
+	public long getLow() {
+		return low;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		// the bits are already well distributed
+		return (int) low;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ClassHash)) {
+			return false;
+		}
+		ClassHash other = (ClassHash) obj;
+		return (high == other.high) && (low == other.low);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		char[] chars = new char[HEX_LENGTH];
+		for (int i = 0; i < 16; i++) {
+			chars[15 - i] = HEX_CHARS[(int) (high >>> (i * 4)) & 0xf];
+			chars[31 - i] = HEX_CHARS[(int) (low >>> (i * 4)) & 0xf];
+		}
+		return new String(chars);
+	}
+
+}
@@ -80,7 +80,7 @@ public class ClassType extends Type implements TypeWithMethods, ImmutableClassTy
 	 * @param modifiers
 	 *            the modifiers of the annotation.
 	 */
-	public ClassType(String fqn, String hash, int modifiers) {
+	public ClassType(String fqn, ClassHash hash, int modifiers) {
 		super(fqn, hash, modifiers);
 	}
 
@@ -87,12 +87,12 @@ public interface ImmutableType extends ImmutableTypeWithAnnotations {
 	 *            the given hash code.
 	 * @return if this type has this hash code.
 	 */
-	boolean containsHash(String hash);
+	boolean containsHash(ClassHash hash);
 
 	/**
 	 * Returns all registered hashes for the given type.
 	 *
 	 * @return Returns all registered hashes for the given type.
 	 */
-	Set<String> getHashes();
+	Set<ClassHash> getHashes();
 }
@@ -63,7 +63,7 @@ public class InterfaceType extends AbstractInterfaceType implements TypeWithMeth
 	 * @param modifiers
 	 *            the modifiers of the annotation.
 	 */
-	public InterfaceType(String fqn, String hash, int modifiers) {
+	public InterfaceType(String fqn, ClassHash hash, int modifiers) {
 		super(fqn, hash, modifiers);
 	}
 
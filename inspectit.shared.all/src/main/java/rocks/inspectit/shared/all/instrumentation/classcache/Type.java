@@ -29,7 +29,7 @@ public abstract class Type implements ImmutableType, TypeWithAnnotations, TypeWi
 	 * The hash of the byte code of this class. As we can have multiple version, we can keep a list
 	 * of hashes.
 	 */
-	protected Set<String> hashes;
+	protected Set<ClassHash> hashes;
 
 	/**
 	 * The modifiers of the type.
@@ -63,7 +63,7 @@ public abstract class Type implements ImmutableType, TypeWithAnnotations, TypeWi
 	 * @param modifiers
 	 *            the modifiers of the class.
 	 */
-	public Type(String fqn, String hash, int modifiers) {
+	public Type(String fqn, ClassHash hash, int modifiers) {
 		this.fqn = fqn;
 		this.modifiers = modifiers;
 		addHash(hash);
@@ -121,9 +121,9 @@ public abstract class Type implements ImmutableType, TypeWithAnnotations, TypeWi
 	 * @param hash
 	 *            the byte code hash.
 	 */
-	public final void addHash(String hash) {
+	public final void addHash(ClassHash hash) {
 		if (null == hashes) {
-			hashes = new ArraySet<String>(1);
+			hashes = new ArraySet<ClassHash>(1);
 		}
 		hashes.add(hash);
 		checkInitialized();
@@ -133,7 +133,7 @@ public abstract class Type implements ImmutableType, TypeWithAnnotations, TypeWi
 	 * {@inheritDoc}
 	 */
 	@Override
-	public boolean containsHash(String hash) {
+	public boolean containsHash(ClassHash hash) {
 		if (null == hashes) {
 			return false;
 		}
@@ -144,7 +144,7 @@ public abstract class Type implements ImmutableType, TypeWithAnnotations, TypeWi
 	 * {@inheritDoc}
 	 */
 	@Override
-	public Set<String> getHashes() {
+	public Set<ClassHash> getHashes() {
 		if (null == hashes) {
 			return Collections.emptySet();
 		}
@@ -5,6 +5,7 @@ import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
 
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.pattern.IMatchPattern;
 
 /**
@@ -63,22 +64,66 @@ public class AgentConfig {
 	 */
 	private AgentEndUserMonitoringConfig eumConfig;
 
+	/**
+	 * Tracing config.
+	 */
+	private AgentTracingConfig tracingConfig;
+
 	/**
 	 * Collection of the exclude classes patterns.
 	 */
 	private Collection<IMatchPattern> excludeClassesPatterns;
 
+	/**
+	 * Patterns of the class names the instrumentation can be bound to, including the super-classes
+	 * and interfaces the classes are bound by. Types that don't match any pattern and that don't
+	 * extend or realize any type matching a pattern can be defined without waiting for the CMR
+	 * analysis. Can be <code>null</code> if the patterns are not known, then all types must be
+	 * analyzed by the CMR.
+	 */
+	private Collection<IMatchPattern> instrumentationCandidatePatterns;
+
 	/**
 	 * Retransformation strategy.
 	 */
 	private RetransformationStrategy retransformationStrategy;
 
+	/**
+	 * If the types are sent to the CMR for the analysis in batches.
+	 */
+	private boolean batchedClassAnalysis = true;
+
+	/**
+	 * If the classes are identified with the SHA-256 hashes instead of the 128-bit MurmurHash3.
+	 */
+	private boolean sha256ClassHashes;
+
+	/**
+	 * If the instrumented methods are dispatched by the index instead of the method id.
+	 */
+	private boolean indexedDispatch;
+
+	/**
+	 * Sampling interval of the platform sensors in milliseconds.
+	 */
+	private long platformSamplingInterval;
+
+	/**
+	 * Sending interval of the platform sensors data in milliseconds.
+	 */
+	private long platformSendingInterval;
+
+	/**
+	 * If the agent uses the compressed wire mode for the connection to the CMR.
+	 */
+	private boolean compressedWireMode;
+
 	/**
 	 * Set of known {@link InstrumentationDefinition} for the agent that can be used by the Agent
 	 * right away. Each {@link InstrumentationDefinition} is mapped to the collection of the class
 	 * hashes it relates to.
 	 */
-	private Map<Collection<String>, InstrumentationDefinition> initialInstrumentationResults;
+	private Map<Collection<ClassHash>, InstrumentationDefinition> initialInstrumentationResults;
 
 	/**
 	 * Configuration info that can be printed out on the Agent side to help understanding which
@@ -86,6 +131,12 @@ public class AgentConfig {
 	 */
 	private String configurationInfo;
 
+	/**
+	 * Revision of the environment and profiles this configuration was created from. Changes with
+	 * every configuration change that can influence the instrumentation.
+	 */
+	private String configurationRevision;
+
 	/**
 	 * Gets {@link #platformId}.
 	 *
@@ -297,12 +348,31 @@ public class AgentConfig {
 		this.excludeClassesPatterns = excludeClassesPatterns;
 	}
 
+	/**
+	 * Gets {@link #instrumentationCandidatePatterns}.
+	 *
+	 * @return {@link #instrumentationCandidatePatterns}
+	 */
+	public Collection<IMatchPattern> getInstrumentationCandidatePatterns() {
+		return this.instrumentationCandidatePatterns;
+	}
+
+	/**
+	 * Sets {@link #instrumentationCandidatePatterns}.
+	 *
+	 * @param instrumentationCandidatePatterns
+	 *            New value for {@link #instrumentationCandidatePatterns}
+	 */
+	public void setInstrumentationCandidatePatterns(Collection<IMatchPattern> instrumentationCandidatePatterns) {
+		this.instrumentationCandidatePatterns = instrumentationCandidatePatterns;
+	}
+
 	/**
 	 * Gets {@link #initialInstrumentationResults}.
 	 *
 	 * @return {@link #initialInstrumentationResults}
 	 */
-	public Map<Collection<String>, InstrumentationDefinition> getInitialInstrumentationResults() {
+	public Map<Collection<ClassHash>, InstrumentationDefinition> getInitialInstrumentationResults() {
 		return initialInstrumentationResults;
 	}
 
@@ -312,7 +382,7 @@ public class AgentConfig {
 	 * @param initialInstrumentationResults
 	 *            New value for {@link #initialInstrumentationResults}
 	 */
-	public void setInitialInstrumentationResults(Map<Collection<String>, InstrumentationDefinition> initialInstrumentationResults) {
+	public void setInitialInstrumentationResults(Map<Collection<ClassHash>, InstrumentationDefinition> initialInstrumentationResults) {
 		this.initialInstrumentationResults = initialInstrumentationResults;
 	}
 
@@ -335,6 +405,25 @@ public class AgentConfig {
 		this.configurationInfo = configurationInfo;
 	}
 
+	/**
+	 * Gets {@link #configurationRevision}.
+	 *
+	 * @return {@link #configurationRevision}
+	 */
+	public String getConfigurationRevision() {
+		return configurationRevision;
+	}
+
+	/**
+	 * Sets {@link #configurationRevision}.
+	 *
+	 * @param configurationRevision
+	 *            New value for {@link #configurationRevision}
+	 */
+	public void setConfigurationRevision(String configurationRevision) {
+		this.configurationRevision = configurationRevision;
+	}
+
 	/**
 	 * Gets {@link #eumConfig}.
 	 *
@@ -354,6 +443,25 @@ public class AgentConfig {
 		this.eumConfig = eumConfig;
 	}
 
+	/**
+	 * Gets {@link #tracingConfig}.
+	 *
+	 * @return {@link #tracingConfig}
+	 */
+	public AgentTracingConfig getTracingConfig() {
+		return this.tracingConfig;
+	}
+
+	/**
+	 * Sets {@link #tracingConfig}.
+	 *
+	 * @param tracingConfig
+	 *            New value for {@link #tracingConfig}
+	 */
+	public void setTracingConfig(AgentTracingConfig tracingConfig) {
+		this.tracingConfig = tracingConfig;
+	}
+
 	/**
 	 * Gets {@link #retransformationStrategy}.
 	 *
@@ -373,6 +481,120 @@ public class AgentConfig {
 		this.retransformationStrategy = retransformationStrategy;
 	}
 
+	/**
+	 * Gets {@link #batchedClassAnalysis}.
+	 *
+	 * @return {@link #batchedClassAnalysis}
+	 */
+	public boolean isBatchedClassAnalysis() {
+		return this.batchedClassAnalysis;
+	}
+
+	/**
+	 * Sets {@link #batchedClassAnalysis}.
+	 *
+	 * @param batchedClassAnalysis
+	 *            New value for {@link #batchedClassAnalysis}
+	 */
+	public void setBatchedClassAnalysis(boolean batchedClassAnalysis) {
+		this.batchedClassAnalysis = batchedClassAnalysis;
+	}
+
+	/**
+	 * Gets {@link #sha256ClassHashes}.
+	 *
+	 * @return {@link #sha256ClassHashes}
+	 */
+	public boolean isSha256ClassHashes() {
+		return this.sha256ClassHashes;
+	}
+
+	/**
+	 * Sets {@link #sha256ClassHashes}.
+	 *
+	 * @param sha256ClassHashes
+	 *            New value for {@link #sha256ClassHashes}
+	 */
+	public void setSha256ClassHashes(boolean sha256ClassHashes) {
+		this.sha256ClassHashes = sha256ClassHashes;
+	}
+
+	/**
+	 * Gets {@link #indexedDispatch}.
+	 *
+	 * @return {@link #indexedDispatch}
+	 */
+	public boolean isIndexedDispatch() {
+		return this.indexedDispatch;
+	}
+
+	/**
+	 * Sets {@link #indexedDispatch}.
+	 *
+	 * @param indexedDispatch
+	 *            New value for {@link #indexedDispatch}
+	 */
+	public void setIndexedDispatch(boolean indexedDispatch) {
+		this.indexedDispatch = indexedDispatch;
+	}
+
+	/**
+	 * Gets {@link #platformSamplingInterval}.
+	 *
+	 * @return {@link #platformSamplingInterval}
+	 */
+	public long getPlatformSamplingInterval() {
+		return this.platformSamplingInterval;
+	}
+
+	/**
+	 * Sets {@link #platformSamplingInterval}.
+	 *
+	 * @param platformSamplingInterval
+	 *            New value for {@link #platformSamplingInterval}
+	 */
+	public void setPlatformSamplingInterval(long platformSamplingInterval) {
+		this.platformSamplingInterval = platformSamplingInterval;
+	}
+
+	/**
+	 * Gets {@link #platformSendingInterval}.
+	 *
+	 * @return {@link #platformSendingInterval}
+	 */
+	public long getPlatformSendingInterval() {
+		return this.platformSendingInterval;
+	}
+
+	/**
+	 * Sets {@link #platformSendingInterval}.
+	 *
+	 * @param platformSendingInterval
+	 *            New value for {@link #platformSendingInterval}
+	 */
+	public void setPlatformSendingInterval(long platformSendingInterval) {
+		this.platformSendingInterval = platformSendingInterval;
+	}
+
+	/**
+	 * Gets {@link #compressedWireMode}.
+	 *
+	 * @return {@link #compressedWireMode}
+	 */
+	public boolean isCompressedWireMode() {
+		return this.compressedWireMode;
+	}
+
+	/**
+	 * Sets {@link #compressedWireMode}.
+	 *
+	 * @param compressedWireMode
+	 *            New value for {@link #compressedWireMode}
+	 */
+	public void setCompressedWireMode(boolean compressedWireMode) {
+		this.compressedWireMode = compressedWireMode;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -380,19 +602,28 @@ public class AgentConfig {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
+		result = (prime * result) + (this.batchedClassAnalysis ? 1231 : 1237);
 		result = (prime * result) + (this.classCacheExistsOnCmr ? 1231 : 1237);
 		result = (prime * result) + ((this.configurationInfo == null) ? 0 : this.configurationInfo.hashCode());
+		result = (prime * result) + ((this.configurationRevision == null) ? 0 : this.configurationRevision.hashCode());
 		result = (prime * result) + ((this.disruptorStrategyConfig == null) ? 0 : this.disruptorStrategyConfig.hashCode());
 		result = (prime * result) + ((this.eumConfig == null) ? 0 : this.eumConfig.hashCode());
 		result = (prime * result) + ((this.exceptionSensorTypeConfig == null) ? 0 : this.exceptionSensorTypeConfig.hashCode());
 		result = (prime * result) + ((this.excludeClassesPatterns == null) ? 0 : this.excludeClassesPatterns.hashCode());
+		result = (prime * result) + (this.indexedDispatch ? 1231 : 1237);
 		result = (prime * result) + ((this.initialInstrumentationResults == null) ? 0 : this.initialInstrumentationResults.hashCode());
+		result = (prime * result) + ((this.instrumentationCandidatePatterns == null) ? 0 : this.instrumentationCandidatePatterns.hashCode());
 		result = (prime * result) + ((this.jmxSensorTypeConfig == null) ? 0 : this.jmxSensorTypeConfig.hashCode());
 		result = (prime * result) + ((this.methodSensorTypeConfigs == null) ? 0 : this.methodSensorTypeConfigs.hashCode());
 		result = (prime * result) + (int) (this.platformId ^ (this.platformId >>> 32));
+		result = (prime * result) + (int) (this.platformSamplingInterval ^ (this.platformSamplingInterval >>> 32));
+		result = (prime * result) + (int) (this.platformSendingInterval ^ (this.platformSendingInterval >>> 32));
+		result = (prime * result) + (this.compressedWireMode ? 1231 : 1237);
 		result = (prime * result) + ((this.platformSensorTypeConfigs == null) ? 0 : this.platformSensorTypeConfigs.hashCode());
 		result = (prime * result) + ((this.retransformationStrategy == null) ? 0 : this.retransformationStrategy.hashCode());
+		result = (prime * result) + (this.sha256ClassHashes ? 1231 : 1237);
 		result = (prime * result) + ((this.specialMethodSensorTypeConfigs == null) ? 0 : this.specialMethodSensorTypeConfigs.hashCode());
+		result = (prime * result) + ((this.tracingConfig == null) ? 0 : this.tracingConfig.hashCode());
 		return result;
 	}
 
@@ -411,6 +642,9 @@ public class AgentConfig {
 			return false;
 		}
 		AgentConfig other = (AgentConfig) obj;
+		if (this.batchedClassAnalysis != other.batchedClassAnalysis) {
+			return false;
+		}
 		if (this.classCacheExistsOnCmr != other.classCacheExistsOnCmr) {
 			return false;
 		}
@@ -421,6 +655,13 @@ public class AgentConfig {
 		} else if (!this.configurationInfo.equals(other.configurationInfo)) {
 			return false;
 		}
+		if (this.configurationRevision == null) {
+			if (other.configurationRevision != null) {
+				return false;
+			}
+		} else if (!this.configurationRevision.equals(other.configurationRevision)) {
+			return false;
+		}
 		if (this.disruptorStrategyConfig == null) {
 			if (other.disruptorStrategyConfig != null) {
 				return false;
@@ -456,6 +697,16 @@ public class AgentConfig {
 		} else if (!this.initialInstrumentationResults.equals(other.initialInstrumentationResults)) {
 			return false;
 		}
+		if (this.instrumentationCandidatePatterns == null) {
+			if (other.instrumentationCandidatePatterns != null) {
+				return false;
+			}
+		} else if (!this.instrumentationCandidatePatterns.equals(other.instrumentationCandidatePatterns)) {
+			return false;
+		}
+		if (this.indexedDispatch != other.indexedDispatch) {
+			return false;
+		}
 		if (this.jmxSensorTypeConfig == null) {
 			if (other.jmxSensorTypeConfig != null) {
 				return false;
@@ -473,6 +724,15 @@ public class AgentConfig {
 		if (this.platformId != other.platformId) {
 			return false;
 		}
+		if (this.platformSamplingInterval != other.platformSamplingInterval) {
+			return false;
+		}
+		if (this.platformSendingInterval != other.platformSendingInterval) {
+			return false;
+		}
+		if (this.compressedWireMode != other.compressedWireMode) {
+			return false;
+		}
 		if (this.platformSensorTypeConfigs == null) {
 			if (other.platformSensorTypeConfigs != null) {
 				return false;
@@ -483,6 +743,9 @@ public class AgentConfig {
 		if (this.retransformationStrategy != other.retransformationStrategy) {
 			return false;
 		}
+		if (this.sha256ClassHashes != other.sha256ClassHashes) {
+			return false;
+		}
 		if (this.specialMethodSensorTypeConfigs == null) {
 			if (other.specialMethodSensorTypeConfigs != null) {
 				return false;
@@ -490,6 +753,13 @@ public class AgentConfig {
 		} else if (!this.specialMethodSensorTypeConfigs.equals(other.specialMethodSensorTypeConfigs)) {
 			return false;
 		}
+		if (this.tracingConfig == null) {
+			if (other.tracingConfig != null) {
+				return false;
+			}
+		} else if (!this.tracingConfig.equals(other.tracingConfig)) {
+			return false;
+		}
 		return true;
 	}
 }
@@ -44,6 +44,12 @@ public class AgentEndUserMonitoringConfig {
 	 */
 	private boolean agentMinificationEnabled;
 
+	/**
+	 * Max amount of beacon elements accepted per session and second. Zero or negative value
+	 * deactivates the limit.
+	 */
+	private int sessionBeaconLimit;
+
 	/**
 	 * Default constructor.
 	 */
@@ -190,6 +196,25 @@ public class AgentEndUserMonitoringConfig {
 		this.agentMinificationEnabled = agentMinificationEnabled;
 	}
 
+	/**
+	 * Gets {@link #sessionBeaconLimit}.
+	 *
+	 * @return {@link #sessionBeaconLimit}
+	 */
+	public int getSessionBeaconLimit() {
+		return this.sessionBeaconLimit;
+	}
+
+	/**
+	 * Sets {@link #sessionBeaconLimit}.
+	 *
+	 * @param sessionBeaconLimit
+	 *            New value for {@link #sessionBeaconLimit}
+	 */
+	public void setSessionBeaconLimit(int sessionBeaconLimit) {
+		this.sessionBeaconLimit = sessionBeaconLimit;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -203,6 +228,7 @@ public class AgentEndUserMonitoringConfig {
 		result = (prime * result) + (this.listenerInstrumentationAllowed ? 1231 : 1237);
 		result = (prime * result) + this.relevancyThreshold;
 		result = (prime * result) + ((this.scriptBaseUrl == null) ? 0 : this.scriptBaseUrl.hashCode());
+		result = (prime * result) + this.sessionBeaconLimit;
 		return result;
 	}
 
@@ -247,6 +273,9 @@ public class AgentEndUserMonitoringConfig {
 		} else if (!this.scriptBaseUrl.equals(other.scriptBaseUrl)) {
 			return false;
 		}
+		if (this.sessionBeaconLimit != other.sessionBeaconLimit) {
+			return false;
+		}
 		return true;
 	}
 
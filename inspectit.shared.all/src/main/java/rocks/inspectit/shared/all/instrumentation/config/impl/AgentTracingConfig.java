@@ -0,0 +1,212 @@
+package rocks.inspectit.shared.all.instrumentation.config.impl;
+
+/**
+ * Tracing configuration of the agent, defines how the new traces are sampled.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class AgentTracingConfig {
+
+	/**
+	 * Max amount of new traces sampled per second. Has precedence over the
+	 * {@link #samplingProbability} if set to a positive value.
+	 */
+	private double samplingRate = 0.0d;
+
+	/**
+	 * Probability of sampling a new trace, used when no {@link #samplingRate} is set.
+	 */
+	private double samplingProbability = 1.0d;
+
+	/**
+	 * If the spans of the not sampled traces are buffered and kept when one of them is slow or
+	 * erroneous.
+	 */
+	private boolean tailSamplingEnabled = false;
+
+	/**
+	 * Duration threshold in milliseconds, spans with greater or equal duration keep their trace.
+	 */
+	private long tailSamplingThreshold = 1000L;
+
+	/**
+	 * Max amount of bytes buffered by the tail sampling.
+	 */
+	private long tailSamplingMaxBytes = 8L * 1024 * 1024;
+
+	/**
+	 * Max time in milliseconds a trace is kept in the tail sampling buffer after its last span.
+	 */
+	private long tailSamplingMaxAge = 30000L;
+
+	/**
+	 * Gets {@link #samplingRate}.
+	 *
+	 * @return {@link #samplingRate}
+	 */
+	public double getSamplingRate() {
+		return this.samplingRate;
+	}
+
+	/**
+	 * Sets {@link #samplingRate}.
+	 *
+	 * @param samplingRate
+	 *            New value for {@link #samplingRate}
+	 */
+	public void setSamplingRate(double samplingRate) {
+		this.samplingRate = samplingRate;
+	}
+
+	/**
+	 * Gets {@link #samplingProbability}.
+	 *
+	 * @return {@link #samplingProbability}
+	 */
+	public double getSamplingProbability() {
+		return this.samplingProbability;
+	}
+
+	/**
+	 * Sets {@link #samplingProbability}.
+	 *
+	 * @param samplingProbability
+	 *            New value for {@link #samplingProbability}
+	 */
+	public void setSamplingProbability(double samplingProbability) {
+		this.samplingProbability = samplingProbability;
+	}
+
+	/**
+	 * Gets {@link #tailSamplingEnabled}.
+	 *
+	 * @return {@link #tailSamplingEnabled}
+	 */
+	public boolean isTailSamplingEnabled() {
+		return this.tailSamplingEnabled;
+	}
+
+	/**
+	 * Sets {@link #tailSamplingEnabled}.
+	 *
+	 * @param tailSamplingEnabled
+	 *            New value for {@link #tailSamplingEnabled}
+	 */
+	public void setTailSamplingEnabled(boolean tailSamplingEnabled) {
+		this.tailSamplingEnabled = tailSamplingEnabled;
+	}
+
+	/**
+	 * Gets {@link #tailSamplingThreshold}.
+	 *
+	 * @return {@link #tailSamplingThreshold}
+	 */
+	public long getTailSamplingThreshold() {
+		return this.tailSamplingThreshold;
+	}
+
+	/**
+	 * Sets {@link #tailSamplingThreshold}.
+	 *
+	 * @param tailSamplingThreshold
+	 *            New value for {@link #tailSamplingThreshold}
+	 */
+	public void setTailSamplingThreshold(long tailSamplingThreshold) {
+		this.tailSamplingThreshold = tailSamplingThreshold;
+	}
+
+	/**
+	 * Gets {@link #tailSamplingMaxBytes}.
+	 *
+	 * @return {@link #tailSamplingMaxBytes}
+	 */
+	public long getTailSamplingMaxBytes() {
+		return this.tailSamplingMaxBytes;
+	}
+
+	/**
+	 * Sets {@link #tailSamplingMaxBytes}.
+	 *
+	 * @param tailSamplingMaxBytes
+	 *            New value for {@link #tailSamplingMaxBytes}
+	 */
+	public void setTailSamplingMaxBytes(long tailSamplingMaxBytes) {
+		this.tailSamplingMaxBytes = tailSamplingMaxBytes;
+	}
+
+	/**
+	 * Gets {@link #tailSamplingMaxAge}.
+	 *
+	 * @return {@link #tailSamplingMaxAge}
+	 */
+	public long getTailSamplingMaxAge() {
+		return this.tailSamplingMaxAge;
+	}
+
+	/**
+	 * Sets {@link #tailSamplingMaxAge}.
+	 *
+	 * @param tailSamplingMaxAge
+	 *            New value for {@link #tailSamplingMaxAge}
+	 */
+	public void setTailSamplingMaxAge(long tailSamplingMaxAge) {
+		this.tailSamplingMaxAge = tailSamplingMaxAge;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		long temp;
+		temp = Double.doubleToLongBits(this.samplingProbability);
+		result = (prime * result) + (int) (temp ^ (temp >>> 32));
+		temp = Double.doubleToLongBits(this.samplingRate);
+		result = (prime * result) + (int) (temp ^ (temp >>> 32));
+		result = (prime * result) + (this.tailSamplingEnabled ? 1231 : 1237);
+		result = (prime * result) + (int) (this.tailSamplingMaxAge ^ (this.tailSamplingMaxAge >>> 32));
+		result = (prime * result) + (int) (this.tailSamplingMaxBytes ^ (this.tailSamplingMaxBytes >>> 32));
+		result = (prime * result) + (int) (this.tailSamplingThreshold ^ (this.tailSamplingThreshold >>> 32));
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		AgentTracingConfig other = (AgentTracingConfig) obj;
+		if (Double.doubleToLongBits(this.samplingProbability) != Double.doubleToLongBits(other.samplingProbability)) {
+			return false;
+		}
+		if (Double.doubleToLongBits(this.samplingRate) != Double.doubleToLongBits(other.samplingRate)) {
+			return false;
+		}
+		if (this.tailSamplingEnabled != other.tailSamplingEnabled) {
+			return false;
+		}
+		if (this.tailSamplingMaxAge != other.tailSamplingMaxAge) {
+			return false;
+		}
+		if (this.tailSamplingMaxBytes != other.tailSamplingMaxBytes) {
+			return false;
+		}
+		if (this.tailSamplingThreshold != other.tailSamplingThreshold) {
+			return false;
+		}
+		return true;
+	}
+
+}
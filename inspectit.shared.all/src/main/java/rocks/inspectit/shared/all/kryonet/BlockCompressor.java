@@ -0,0 +1,332 @@
+package rocks.inspectit.shared.all.kryonet;
+
+import java.util.Arrays;
+
+/**
+ * Pure Java block compressor using the LZ4 block format (token, literals, 2-byte offset, match
+ * length). The compressor uses a single-probe hash table and favors speed over ratio, which is what
+ * we need for the frames sent between the agent and the CMR.
+ * <p>
+ * Instance is not thread-safe as it keeps the hash table for reuse, the
+ * {@link #decompress(byte[], int, int, byte[], int, int)} is static and can be used from any
+ * thread.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class BlockCompressor {
+
+	/**
+	 * Minimum match length.
+	 */
+	private static final int MIN_MATCH = 4;
+
+	/**
+	 * Amount of bytes at the end of the block that are always written as literals.
+	 */
+	private static final int LAST_LITERALS = 5;
+
+	/**
+	 * No match can start in the last bytes of the block.
+	 */
+	private static final int MF_LIMIT = 12;
+
+	/**
+	 * Maximum offset of the match.
+	 */
+	private static final int MAX_DISTANCE = 0xFFFF;
+
+	/**
+	 * Log of the hash table size.
+	 */
+	private static final int HASH_LOG = 12;
+
+	/**
+	 * Run mask for the token.
+	 */
+	private static final int RUN_MASK = 0x0F;
+
+	/**
+	 * Hash table holding the last position of the 4-byte sequence.
+	 */
+	private final int[] hashTable = new int[1 << HASH_LOG];
+
+	/**
+	 * Returns the maximum length of the compressed data for the given input length.
+	 *
+	 * @param length
+	 *            Input length.
+	 * @return Maximum compressed length.
+	 */
+	public static int maxCompressedLength(int length) {
+		return length + (length / 255) + 16;
+	}
+
+	/**
+	 * Compresses the source bytes to the destination array. Destination must have at least
+	 * {@link #maxCompressedLength(int)} bytes available from the destination offset.
+	 *
+	 * @param src
+	 *            Source array.
+	 * @param srcOff
+	 *            Source offset.
+	 * @param srcLen
+	 *            Amount of bytes to compress.
+	 * @param dest
+	 *            Destination array.
+	 * @param destOff
+	 *            Destination offset.
+	 * @return Amount of bytes written to the destination.
+	 */
+	public int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff) {
+		int srcEnd = srcOff + srcLen;
+		int anchor = srcOff;
+		int d = destOff;
+
+		if (srcLen > MF_LIMIT) {
+			Arrays.fill(hashTable, -1);
+			int matchLimit = srcEnd - LAST_LITERALS;
+			int mfLimit = srcEnd - MF_LIMIT;
+
+			int s = srcOff;
+			while (s < mfLimit) {
+				int sequence = readInt(src, s);
+				int h = hash(sequence);
+				int ref = hashTable[h];
+				hashTable[h] = s;
+
+				if ((ref < 0) || ((s - ref) > MAX_DISTANCE) || (readInt(src, ref) != sequence)) {
+					// skip faster over the incompressible data
+					s += 1 + ((s - anchor) >>> 6);
+					continue;
+				}
+
+				// extend backwards
+				while ((s > anchor) && (ref > srcOff) && (src[s - 1] == src[ref - 1])) {
+					s--;
+					ref--;
+				}
+
+				// extend forward
+				int matchLength = MIN_MATCH;
+				while (((s + matchLength) < matchLimit) && (src[s + matchLength] == src[ref + matchLength])) {
+					matchLength++;
+				}
+
+				d = writeSequence(src, anchor, s - anchor, s - ref, matchLength - MIN_MATCH, dest, d);
+
+				s += matchLength;
+				anchor = s;
+				if (s < mfLimit) {
+					hashTable[hash(readInt(src, s - 2))] = s - 2;
+				}
+			}
+		}
+
+		return writeLastLiterals(src, anchor, srcEnd - anchor, dest, d) - destOff;
+	}
+
+	/**
+	 * Decompresses the data compressed with {@link #compress(byte[], int, int, byte[], int)}.
+	 *
+	 * @param src
+	 *            Source array holding compressed data.
+	 * @param srcOff
+	 *            Source offset.
+	 * @param srcLen
+	 *            Length of the compressed data.
+	 * @param dest
+	 *            Destination array.
+	 * @param destOff
+	 *            Destination offset.
+	 * @param destLen
+	 *            Exact length of the decompressed data.
+	 * @throws IllegalArgumentException
+	 *             If compressed data is malformed.
+	 */
+	public static void decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int destLen) throws IllegalArgumentException {
+		int s = srcOff;
+		int srcEnd = srcOff + srcLen;
+		int d = destOff;
+		int destEnd = destOff + destLen;
+
+		try {
+			while (s < srcEnd) {
+				int token = src[s++] & 0xFF;
+
+				// literals
+				int literalLength = token >>> 4;
+				if (RUN_MASK == literalLength) {
+					int b;
+					do {
+						b = src[s++] & 0xFF;
+						literalLength += b;
+					} while (0xFF == b);
+				}
+				if (((d + literalLength) > destEnd) || ((s + literalLength) > srcEnd)) {
+					throw new IllegalArgumentException("Malformed compressed block, literals exceed the block size.");
+				}
+				System.arraycopy(src, s, dest, d, literalLength);
+				s += literalLength;
+				d += literalLength;
+
+				if (s == srcEnd) {
+					// last literals
+					break;
+				}
+
+				// match
+				int offset = (src[s++] & 0xFF) | ((src[s++] & 0xFF) << 8);
+				int matchLength = token & RUN_MASK;
+				if (RUN_MASK == matchLength) {
+					int b;
+					do {
+						b = src[s++] & 0xFF;
+						matchLength += b;
+					} while (0xFF == b);
+				}
+				matchLength += MIN_MATCH;
+
+				int ref = d - offset;
+				if ((0 == offset) || (ref < destOff) || ((d + matchLength) > destEnd)) {
+					throw new IllegalArgumentException("Malformed compressed block, invalid match at offset " + offset + ".");
+				}
+				if (offset >= matchLength) {
+					System.arraycopy(dest, ref, dest, d, matchLength);
+					d += matchLength;
+				} else {
+					// overlapping copy
+					for (int i = 0; i < matchLength; i++) {
+						dest[d++] = dest[ref++];
+					}
+				}
+			}
+		} catch (ArrayIndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("Malformed compressed block, unexpected end of data.", e);
+		}
+
+		if (d != destEnd) {
+			throw new IllegalArgumentException("Malformed compressed block, decompressed " + (d - destOff) + " bytes instead of " + destLen + ".");
+		}
+	}
+
+	/**
+	 * Writes one sequence of literals and match.
+	 *
+	 * @param src
+	 *            Source array.
+	 * @param literalOff
+	 *            Offset of the literals.
+	 * @param literalLength
+	 *            Length of the literals.
+	 * @param offset
+	 *            Match offset.
+	 * @param matchLength
+	 *            Match length without the {@link #MIN_MATCH}.
+	 * @param dest
+	 *            Destination array.
+	 * @param destOff
+	 *            Destination offset.
+	 * @return New destination offset.
+	 */
+	private static int writeSequence(byte[] src, int literalOff, int literalLength, int offset, int matchLength, byte[] dest, int destOff) {
+		int tokenOff = destOff;
+		int d = destOff + 1;
+		int token;
+
+		if (literalLength >= RUN_MASK) {
+			token = RUN_MASK << 4;
+			d = writeLength(literalLength - RUN_MASK, dest, d);
+		} else {
+			token = literalLength << 4;
+		}
+		System.arraycopy(src, literalOff, dest, d, literalLength);
+		d += literalLength;
+
+		dest[d++] = (byte) offset;
+		dest[d++] = (byte) (offset >>> 8);
+
+		if (matchLength >= RUN_MASK) {
+			token |= RUN_MASK;
+			d = writeLength(matchLength - RUN_MASK, dest, d);
+		} else {
+			token |= matchLength;
+		}
+		dest[tokenOff] = (byte) token;
+		return d;
+	}
+
+	/**
+	 * Writes the last literals of the block.
+	 *
+	 * @param src
+	 *            Source array.
+	 * @param literalOff
+	 *            Offset of the literals.
+	 * @param literalLength
+	 *            Length of the literals.
+	 * @param dest
+	 *            Destination array.
+	 * @param destOff
+	 *            Destination offset.
+	 * @return New destination offset.
+	 */
+	private static int writeLastLiterals(byte[] src, int literalOff, int literalLength, byte[] dest, int destOff) {
+		int d = destOff;
+		if (literalLength >= RUN_MASK) {
+			dest[d++] = (byte) (RUN_MASK << 4);
+			d = writeLength(literalLength - RUN_MASK, dest, d);
+		} else {
+			dest[d++] = (byte) (literalLength << 4);
+		}
+		System.arraycopy(src, literalOff, dest, d, literalLength);
+		return d + literalLength;
+	}
+
+	/**
+	 * Writes the additional length bytes.
+	 *
+	 * @param length
+	 *            Length to write.
+	 * @param dest
+	 *            Destination array.
+	 * @param destOff
+	 *            Destination offset.
+	 * @return New destination offset.
+	 */
+	private static int writeLength(int length, byte[] dest, int destOff) {
+		int d = destOff;
+		int remaining = length;
+		while (remaining >= 0xFF) {
+			dest[d++] = (byte) 0xFF;
+			remaining -= 0xFF;
+		}
+		dest[d++] = (byte) remaining;
+		return d;
+	}
+
+	/**
+	 * Reads the little-endian int from the array.
+	 *
+	 * @param bytes
+	 *            Array.
+	 * @param off
+	 *            Offset.
+	 * @return Int value.
+	 */
+	private static int readInt(byte[] bytes, int off) {
+		return (bytes[off] & 0xFF) | ((bytes[off + 1] & 0xFF) << 8) | ((bytes[off + 2] & 0xFF) << 16) | ((bytes[off + 3] & 0xFF) << 24);
+	}
+
+	/**
+	 * Hash of the 4-byte sequence.
+	 *
+	 * @param sequence
+	 *            Sequence.
+	 * @return Index in the hash table.
+	 */
+	private static int hash(int sequence) {
+		return (sequence * -1640531535) >>> ((MIN_MATCH * 8) - HASH_LOG);
+	}
+
+}
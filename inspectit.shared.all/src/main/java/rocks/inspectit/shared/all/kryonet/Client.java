@@ -74,6 +74,24 @@ public class Client extends Connection implements EndPoint {
 	private int connectUdpPort;
 	private boolean isClosed;
 
+	/**
+	 * Wire mode flags to request when connecting, see {@link WireCodec}.
+	 */
+	// Added by ISE
+	private int wireMode;
+
+	/**
+	 * If the wire mode has been confirmed by the server.
+	 */
+	// Added by ISE
+	private volatile boolean wireModeNegotiated;
+
+	/**
+	 * Lock for waiting on the wire mode confirmation.
+	 */
+	// Added by ISE
+	private final Object wireModeLock = new Object();
+
 	// ISE: Removed no-arg and 2-args constructors (not needed)
 
 	// Added by ISE
@@ -217,12 +235,94 @@ public class Client extends Connection implements EndPoint {
 					}
 				}
 			}
+
+			// Added by ISE
+			if (0 != wireMode) {
+				negotiateWireMode(endTime);
+			}
 		} catch (IOException ex) {
 			close();
 			throw ex;
 		}
 	}
 
+	/**
+	 * Requests the wire mode from the server and waits for the confirmation. All objects sent
+	 * after the request are written in the requested mode.
+	 *
+	 * @param endTime
+	 *            Time until the confirmation must arrive.
+	 * @throws IOException
+	 *             If sending fails or confirmation does not arrive in time.
+	 */
+	// Added by ISE
+	private void negotiateWireMode(long endTime) throws IOException {
+		synchronized (wireModeLock) {
+			wireModeNegotiated = false;
+		}
+		tcp.sendAndSwitchWriteMode(this, new WireModeMessage(wireMode), wireMode);
+		synchronized (wireModeLock) {
+			while (!wireModeNegotiated && (System.currentTimeMillis() < endTime)) {
+				try {
+					wireModeLock.wait(100);
+				} catch (InterruptedException ignored) {
+				}
+			}
+			if (!wireModeNegotiated) {
+				throw new SocketTimeoutException("Connected, but timed out during wire mode negotiation.\n" + "Note: the server might not support the requested wire mode.");
+			}
+		}
+		if (DEBUG) {
+			debug("kryonet", this + " switched to wire mode: " + wireMode);
+		}
+	}
+
+	/**
+	 * Sets the wire mode to request from the server on the next connect. Use <code>0</code> for
+	 * the plain mode, otherwise combination of {@link WireCodec#COMPRESSION} and
+	 * {@link WireCodec#STRING_INTERNING}.
+	 *
+	 * @param wireMode
+	 *            Wire mode flags.
+	 */
+	// Added by ISE
+	public void setWireMode(int wireMode) {
+		if (0 != (wireMode & ~WireCodec.ALL)) {
+			throw new IllegalArgumentException("Unsupported wire mode: " + wireMode);
+		}
+		this.wireMode = wireMode;
+	}
+
+	/**
+	 * Sets the wire mode and, if the client is connected, negotiates it with the server on the
+	 * current connection. Must not be called from the update thread, as it waits for the
+	 * confirmation of the server.
+	 *
+	 * @param wireMode
+	 *            Wire mode flags.
+	 * @param timeout
+	 *            Time in milliseconds to wait for the confirmation.
+	 * @throws IOException
+	 *             If sending fails or confirmation does not arrive in time.
+	 */
+	// Added by ISE
+	public void switchWireMode(int wireMode, int timeout) throws IOException {
+		setWireMode(wireMode);
+		if (isConnected) {
+			negotiateWireMode(System.currentTimeMillis() + timeout);
+		}
+	}
+
+	/**
+	 * Gets {@link #wireMode}.
+	 *
+	 * @return {@link #wireMode}
+	 */
+	// Added by ISE
+	public int getWireMode() {
+		return this.wireMode;
+	}
+
 	/**
 	 * Calls {@link #connect(int, InetAddress, int) connect} with the values last passed to connect.
 	 *
@@ -342,6 +442,15 @@ public class Client extends Connection implements EndPoint {
 										}
 										continue;
 									}
+									// Added by ISE
+									if (object instanceof WireModeMessage) {
+										tcp.switchReadMode(((WireModeMessage) object).flags);
+										synchronized (wireModeLock) {
+											wireModeNegotiated = true;
+											wireModeLock.notifyAll();
+										}
+										continue;
+									}
 									if (!isConnected) {
 										continue;
 									}
@@ -423,6 +423,48 @@ public class Connection {
 		tcp.idleThreshold = idleThreshold;
 	}
 
+	/**
+	 * Switches the connection to the wire mode requested by the remote end and answers with the
+	 * same mode. The remote end is already writing in the requested mode after the request.
+	 *
+	 * @param request
+	 *            Received request.
+	 * @throws IOException
+	 *             If sending the answer fails.
+	 */
+	// Added by ISE
+	void acceptWireMode(WireModeMessage request) throws IOException {
+		int flags = request.flags & WireCodec.ALL;
+		if (flags != request.flags) {
+			throw new KryoNetException("Unsupported wire mode requested: " + request.flags);
+		}
+		tcp.switchReadMode(flags);
+		tcp.sendAndSwitchWriteMode(this, new WireModeMessage(flags), flags);
+		if (DEBUG) {
+			debug("kryonet", this + " switched to wire mode: " + flags);
+		}
+	}
+
+	/**
+	 * Returns the codec to use for writing or <code>null</code> if the plain mode is used.
+	 *
+	 * @return Returns the codec to use for writing or <code>null</code> if the plain mode is used.
+	 */
+	// Added by ISE
+	WireCodec getWriteCodec() {
+		return (null != tcp) ? tcp.getWriteCodec() : null;
+	}
+
+	/**
+	 * Returns the codec to use for reading or <code>null</code> if the plain mode is used.
+	 *
+	 * @return Returns the codec to use for reading or <code>null</code> if the plain mode is used.
+	 */
+	// Added by ISE
+	WireCodec getReadCodec() {
+		return (null != tcp) ? tcp.getReadCodec() : null;
+	}
+
 	@Override
 	public String toString() {
 		if (name != null) {
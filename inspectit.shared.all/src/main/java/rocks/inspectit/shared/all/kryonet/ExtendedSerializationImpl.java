@@ -120,11 +120,13 @@ public class ExtendedSerializationImpl implements IExtendedSerialization {
 
 	/**
 	 * {@inheritDoc}
+	 * <p>
+	 * If the connection has negotiated the wire mode, the {@link WireCodec} of the connection is
+	 * used to write the frame.
 	 */
 	@Override
 	@SuppressWarnings("unchecked")
 	public void write(Connection connection, OutputStream outputStream, Object object) {
-		Output output = new Output(outputStream);
 		IKryoProvider kryoProvider = serializerQueue.poll();
 
 		// if nothing is available in queue don't wait, create new one
@@ -133,10 +135,16 @@ public class ExtendedSerializationImpl implements IExtendedSerialization {
 		}
 
 		try {
-			Kryo kryo = kryoProvider.getKryo();
+			WireCodec codec = (null != connection) ? connection.getWriteCodec() : null;
+			Kryo kryo = getKryo(kryoProvider, codec);
 			kryo.getContext().put("connection", connection);
-			kryo.writeClassAndObject(output, object);
-			output.flush();
+			if (null != codec) {
+				codec.write(kryo, outputStream, object);
+			} else {
+				Output output = new Output(outputStream);
+				kryo.writeClassAndObject(output, object);
+				output.flush();
+			}
 		} finally {
 			serializerQueue.offer(kryoProvider);
 		}
@@ -145,11 +153,13 @@ public class ExtendedSerializationImpl implements IExtendedSerialization {
 	/**
 	 *
 	 * {@inheritDoc}
+	 * <p>
+	 * If the connection has negotiated the wire mode, the {@link WireCodec} of the connection is
+	 * used to read the frame.
 	 */
 	@Override
 	@SuppressWarnings("unchecked")
 	public Object read(Connection connection, InputStream inputStream) {
-		Input input = new Input(inputStream);
 		IKryoProvider kryoProvider = serializerQueue.poll();
 
 		// if nothing is available in queue don't wait, create new one
@@ -158,14 +168,38 @@ public class ExtendedSerializationImpl implements IExtendedSerialization {
 		}
 
 		try {
-			Kryo kryo = kryoProvider.getKryo();
+			WireCodec codec = (null != connection) ? connection.getReadCodec() : null;
+			Kryo kryo = getKryo(kryoProvider, codec);
 			kryo.getContext().put("connection", connection);
-			return kryo.readClassAndObject(input);
+			if (null != codec) {
+				return codec.read(kryo, inputStream);
+			} else {
+				Input input = new Input(inputStream);
+				return kryo.readClassAndObject(input);
+			}
 		} finally {
 			serializerQueue.offer(kryoProvider);
 		}
 	}
 
+	/**
+	 * Returns the {@link Kryo} to use with the given codec. Only the codecs interning the strings
+	 * get the {@link Kryo} with the interning string serializer.
+	 *
+	 * @param kryoProvider
+	 *            {@link IKryoProvider}
+	 * @param codec
+	 *            Codec of the connection, can be <code>null</code> for the plain mode.
+	 * @return {@link Kryo} to use.
+	 */
+	private Kryo getKryo(IKryoProvider kryoProvider, WireCodec codec) {
+		if ((null != codec) && codec.isStringInterning()) {
+			return kryoProvider.getInterningKryo();
+		} else {
+			return kryoProvider.getKryo();
+		}
+	}
+
 	/**
 	 * Creates new {@link IKryoProvider}.
 	 * <p>
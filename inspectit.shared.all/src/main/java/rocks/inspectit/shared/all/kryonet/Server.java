@@ -257,6 +257,11 @@ public class Server implements EndPoint {
 										if (object == null) {
 											break;
 										}
+										// Added by ISE
+										if (object instanceof WireModeMessage) {
+											fromConnection.acceptWireMode((WireModeMessage) object);
+											continue;
+										}
 										if (DEBUG) {
 											String objectString = object == null ? "null" : object.getClass().getSimpleName();
 											if (!(object instanceof FrameworkMessage)) {
@@ -72,6 +72,18 @@ class TcpConnection {
 	// Added by ISE
 	private SocketExtendedByteBufferInputStream socketInputStream;
 
+	/**
+	 * Codec for writing in the negotiated wire mode, <code>null</code> for the plain mode.
+	 */
+	// Added by ISE
+	private volatile WireCodec writeCodec;
+
+	/**
+	 * Codec for reading in the negotiated wire mode, <code>null</code> for the plain mode.
+	 */
+	// Added by ISE
+	private volatile WireCodec readCodec;
+
 	SocketChannel socketChannel;
 	int keepAliveMillis = 8000;
 	final ByteBuffer readBuffer, writeBuffer;
@@ -107,6 +119,8 @@ class TcpConnection {
 		readBuffer.clear();
 		readBuffer.flip();
 		currentObjectLength = 0;
+		writeCodec = null; // Added by ISE
+		readCodec = null; // Added by ISE
 		try {
 			this.socketChannel = socketChannel;
 			socketChannel.configureBlocking(false);
@@ -137,6 +151,8 @@ class TcpConnection {
 		readBuffer.clear();
 		readBuffer.flip();
 		currentObjectLength = 0;
+		writeCodec = null; // Added by ISE
+		readCodec = null; // Added by ISE
 		try {
 			SocketChannel socketChannel = selector.provider().openSocketChannel();
 			Socket socket = socketChannel.socket();
@@ -343,6 +359,58 @@ class TcpConnection {
 		}
 	}
 
+	/**
+	 * Sends the message and switches the writing to the given wire mode. All objects sent after
+	 * the message are written in the new mode.
+	 *
+	 * @param connection
+	 *            Connection.
+	 * @param message
+	 *            Message to send in the current mode.
+	 * @param flags
+	 *            Wire mode flags, <code>0</code> for the plain mode.
+	 * @throws IOException
+	 *             If sending fails.
+	 */
+	// Added by ISE
+	void sendAndSwitchWriteMode(Connection connection, Object message, int flags) throws IOException {
+		writeReentrantLock.lock();
+		try {
+			send(connection, message);
+			writeCodec = (0 == flags) ? null : new WireCodec(flags);
+		} finally {
+			writeReentrantLock.unlock();
+		}
+	}
+
+	/**
+	 * Switches the reading to the given wire mode. Must be called by the update thread right after
+	 * the message announcing the mode has been read.
+	 *
+	 * @param flags
+	 *            Wire mode flags, <code>0</code> for the plain mode.
+	 */
+	// Added by ISE
+	void switchReadMode(int flags) {
+		readCodec = (0 == flags) ? null : new WireCodec(flags);
+	}
+
+	/**
+	 * @return Returns codec for writing or <code>null</code> if plain mode is used.
+	 */
+	// Added by ISE
+	WireCodec getWriteCodec() {
+		return writeCodec;
+	}
+
+	/**
+	 * @return Returns codec for reading or <code>null</code> if plain mode is used.
+	 */
+	// Added by ISE
+	WireCodec getReadCodec() {
+		return readCodec;
+	}
+
 	/**
 	 * @return Returns if any data is queued for writing.
 	 */
@@ -0,0 +1,305 @@
+package rocks.inspectit.shared.all.kryonet;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.ObjectMap;
+
+import rocks.inspectit.shared.all.serializer.impl.StringDictionary;
+
+/**
+ * Codec for one direction of the connection that is in the negotiated wire mode. Depending on the
+ * flags the codec interns the strings with the {@link StringDictionary} that lives as long as the
+ * connection and compresses the frames with the {@link BlockCompressor}.
+ * <p>
+ * The frame is written as <i>[type][length]</i> followed by the raw bytes, or
+ * <i>[type][length][compressed length]</i> followed by the compressed bytes. Frames smaller than
+ * {@value #MIN_COMPRESSION_SIZE} bytes or the ones that would not get smaller are never
+ * compressed.
+ * <p>
+ * The codec is not thread-safe. The writing codec is always used under the write lock of the
+ * connection and the reading codec only by the update thread.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class WireCodec {
+
+	/**
+	 * Flag for the frame compression.
+	 */
+	public static final int COMPRESSION = 1;
+
+	/**
+	 * Flag for the string interning.
+	 */
+	public static final int STRING_INTERNING = 1 << 1;
+
+	/**
+	 * All supported flags.
+	 */
+	public static final int ALL = COMPRESSION | STRING_INTERNING;
+
+	/**
+	 * Frames smaller than this are not compressed.
+	 */
+	static final int MIN_COMPRESSION_SIZE = 256;
+
+	/**
+	 * Buffers bigger than this are released after the frame is processed.
+	 */
+	private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+	/**
+	 * Initial size of the serialization buffer.
+	 */
+	private static final int INITIAL_BUFFER_SIZE = 4096;
+
+	/**
+	 * Frame type for raw frames.
+	 */
+	private static final byte FRAME_RAW = 0;
+
+	/**
+	 * Frame type for compressed frames.
+	 */
+	private static final byte FRAME_COMPRESSED = 1;
+
+	/**
+	 * Flags of this codec.
+	 */
+	private final int flags;
+
+	/**
+	 * String dictionary, <code>null</code> if interning is not active.
+	 */
+	private final StringDictionary stringDictionary;
+
+	/**
+	 * Compressor, <code>null</code> if compression is not active.
+	 */
+	private final BlockCompressor compressor;
+
+	/**
+	 * Output to serialize to.
+	 */
+	private Output output;
+
+	/**
+	 * Buffer for the compressed bytes.
+	 */
+	private byte[] compressedBuffer = new byte[0];
+
+	/**
+	 * Buffer for the decompressed frame.
+	 */
+	private byte[] frameBuffer = new byte[0];
+
+	/**
+	 * Output for writing frames to the stream.
+	 */
+	private final Output streamOutput = new Output(INITIAL_BUFFER_SIZE);
+
+	/**
+	 * Input for reading frames from the stream.
+	 */
+	private final Input streamInput = new Input(INITIAL_BUFFER_SIZE);
+
+	/**
+	 * Input for deserializing frames.
+	 */
+	private final Input frameInput = new Input();
+
+	/**
+	 * Total amount of serialized bytes.
+	 */
+	private long rawBytes;
+
+	/**
+	 * Total amount of bytes written or read from the stream.
+	 */
+	private long wireBytes;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param flags
+	 *            Combination of {@link #COMPRESSION} and {@link #STRING_INTERNING}.
+	 */
+	public WireCodec(int flags) {
+		this.flags = flags;
+		this.stringDictionary = (0 != (flags & STRING_INTERNING)) ? new StringDictionary() : null;
+		this.compressor = (0 != (flags & COMPRESSION)) ? new BlockCompressor() : null;
+		this.output = new Output(INITIAL_BUFFER_SIZE, -1);
+	}
+
+	/**
+	 * Serializes the object and writes the frame to the output stream.
+	 *
+	 * @param kryo
+	 *            Kryo to serialize with.
+	 * @param outputStream
+	 *            Stream to write to.
+	 * @param object
+	 *            Object to write.
+	 */
+	@SuppressWarnings("unchecked")
+	public void write(Kryo kryo, OutputStream outputStream, Object object) {
+		output.clear();
+		ObjectMap context = kryo.getContext();
+		if (null != stringDictionary) {
+			stringDictionary.mark();
+			context.put(StringDictionary.CONTEXT_KEY, stringDictionary);
+		}
+		try {
+			kryo.writeClassAndObject(output, object);
+		} catch (RuntimeException e) {
+			// frame will never be sent, forget the strings it interned
+			if (null != stringDictionary) {
+				stringDictionary.rollback();
+			}
+			throw e;
+		} finally {
+			context.remove(StringDictionary.CONTEXT_KEY);
+		}
+
+		byte[] bytes = output.getBuffer();
+		int length = output.position();
+		rawBytes += length;
+
+		streamOutput.setOutputStream(outputStream);
+		if ((null != compressor) && (length >= MIN_COMPRESSION_SIZE)) {
+			int maxLength = BlockCompressor.maxCompressedLength(length);
+			if (compressedBuffer.length < maxLength) {
+				compressedBuffer = new byte[maxLength];
+			}
+			int compressedLength = compressor.compress(bytes, 0, length, compressedBuffer, 0);
+			if (compressedLength < length) {
+				streamOutput.writeByte(FRAME_COMPRESSED);
+				streamOutput.writeInt(length, true);
+				streamOutput.writeInt(compressedLength, true);
+				streamOutput.writeBytes(compressedBuffer, 0, compressedLength);
+				finishWrite();
+				return;
+			}
+		}
+
+		streamOutput.writeByte(FRAME_RAW);
+		streamOutput.writeInt(length, true);
+		streamOutput.writeBytes(bytes, 0, length);
+		finishWrite();
+	}
+
+	/**
+	 * Reads the frame from the input stream and deserializes the object.
+	 *
+	 * @param kryo
+	 *            Kryo to deserialize with.
+	 * @param inputStream
+	 *            Stream to read from.
+	 * @return Deserialized object.
+	 */
+	@SuppressWarnings("unchecked")
+	public Object read(Kryo kryo, InputStream inputStream) {
+		streamInput.setInputStream(inputStream);
+		byte type = streamInput.readByte();
+		int length = streamInput.readInt(true);
+		if (frameBuffer.length < length) {
+			frameBuffer = new byte[length];
+		}
+
+		if (FRAME_COMPRESSED == type) {
+			int compressedLength = streamInput.readInt(true);
+			if (compressedBuffer.length < compressedLength) {
+				compressedBuffer = new byte[compressedLength];
+			}
+			streamInput.readBytes(compressedBuffer, 0, compressedLength);
+			try {
+				BlockCompressor.decompress(compressedBuffer, 0, compressedLength, frameBuffer, 0, length);
+			} catch (IllegalArgumentException e) {
+				throw new KryoException(e);
+			}
+		} else if (FRAME_RAW == type) {
+			streamInput.readBytes(frameBuffer, 0, length);
+		} else {
+			throw new KryoException("Unknown frame type " + type + ".");
+		}
+		rawBytes += length;
+		wireBytes += streamInput.total();
+
+		frameInput.setBuffer(frameBuffer, 0, length);
+		ObjectMap context = kryo.getContext();
+		if (null != stringDictionary) {
+			context.put(StringDictionary.CONTEXT_KEY, stringDictionary);
+		}
+		try {
+			return kryo.readClassAndObject(frameInput);
+		} finally {
+			context.remove(StringDictionary.CONTEXT_KEY);
+			if (frameBuffer.length > MAX_RETAINED_BUFFER_SIZE) {
+				frameBuffer = new byte[0];
+			}
+			if (compressedBuffer.length > MAX_RETAINED_BUFFER_SIZE) {
+				compressedBuffer = new byte[0];
+			}
+		}
+	}
+
+	/**
+	 * Flushes the stream output and releases too big buffers.
+	 */
+	private void finishWrite() {
+		streamOutput.flush();
+		wireBytes += streamOutput.total();
+		streamOutput.setOutputStream(null);
+		if (output.getBuffer().length > MAX_RETAINED_BUFFER_SIZE) {
+			output = new Output(INITIAL_BUFFER_SIZE, -1);
+		}
+		if (compressedBuffer.length > MAX_RETAINED_BUFFER_SIZE) {
+			compressedBuffer = new byte[0];
+		}
+	}
+
+	/**
+	 * Gets {@link #flags}.
+	 *
+	 * @return {@link #flags}
+	 */
+	public int getFlags() {
+		return this.flags;
+	}
+
+	/**
+	 * Returns if this codec interns the strings. Such codec must be used with the {@link Kryo}
+	 * that serializes the strings with the
+	 * {@link rocks.inspectit.shared.all.serializer.impl.InterningStringSerializer}.
+	 *
+	 * @return Returns if this codec interns the strings.
+	 */
+	public boolean isStringInterning() {
+		return null != stringDictionary;
+	}
+
+	/**
+	 * Returns the total amount of serialized bytes processed by this codec.
+	 *
+	 * @return Returns the total amount of serialized bytes processed by this codec.
+	 */
+	public long getRawBytes() {
+		return this.rawBytes;
+	}
+
+	/**
+	 * Returns the total amount of bytes this codec has written to or read from the wire.
+	 *
+	 * @return Returns the total amount of bytes this codec has written to or read from the wire.
+	 */
+	public long getWireBytes() {
+		return this.wireBytes;
+	}
+
+}
@@ -0,0 +1,38 @@
+package rocks.inspectit.shared.all.kryonet;
+
+import com.esotericsoftware.kryonet.FrameworkMessage;
+
+/**
+ * Message used to negotiate the wire mode of the connection. The client sends the message with the
+ * modes it will use for all frames following the message, the server answers with the modes it
+ * will use for the frames it sends after the answer.
+ *
+ * @author Ivan Senic
+ *
+ * @see WireCodec
+ */
+public class WireModeMessage implements FrameworkMessage {
+
+	/**
+	 * Wire mode flags, combination of {@link WireCodec#COMPRESSION} and
+	 * {@link WireCodec#STRING_INTERNING}.
+	 */
+	public int flags;
+
+	/**
+	 * No-arg constructor for serialization.
+	 */
+	public WireModeMessage() {
+	}
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param flags
+	 *            Wire mode flags.
+	 */
+	public WireModeMessage(int flags) {
+		this.flags = flags;
+	}
+
+}
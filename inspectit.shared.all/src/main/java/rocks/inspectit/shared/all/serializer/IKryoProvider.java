@@ -16,4 +16,14 @@ public interface IKryoProvider {
 	 * @return Returns {@link Kryo} instance.
 	 */
 	Kryo getKryo();
+
+	/**
+	 * Returns {@link Kryo} instance that serializes the strings with the
+	 * {@link rocks.inspectit.shared.all.serializer.impl.InterningStringSerializer}. Only the
+	 * connections in the wire mode with string interning use it, all other users keep the Kryo
+	 * default string serializer.
+	 *
+	 * @return Returns {@link Kryo} instance that interns the strings.
+	 */
+	Kryo getInterningKryo();
 }
@@ -0,0 +1,43 @@
+package rocks.inspectit.shared.all.serializer.impl;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
+
+/**
+ * Serializes instances of {@link ClassHash} as two fixed length longs.
+ *
+ * @author Ivan Senic
+ */
+public class ClassHashSerializer extends Serializer<ClassHash> {
+
+	/**
+	 * Default constructor. Class hashes are immutable.
+	 */
+	public ClassHashSerializer() {
+		setImmutable(true);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write(Kryo kryo, Output output, ClassHash object) {
+		output.writeLong(object.getHigh());
+		output.writeLong(object.getLow());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ClassHash read(Kryo kryo, Input input, Class<ClassHash> type) {
+		long high = input.readLong();
+		long low = input.readLong();
+		return new ClassHash(high, low);
+	}
+
+}
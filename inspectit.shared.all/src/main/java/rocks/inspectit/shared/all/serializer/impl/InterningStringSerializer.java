@@ -0,0 +1,81 @@
+package rocks.inspectit.shared.all.serializer.impl;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * String serializer that uses the {@link StringDictionary} placed in the Kryo context under
+ * {@link StringDictionary#CONTEXT_KEY}. If there is no dictionary in the context the strings are
+ * written exactly as with the Kryo default string serializer, so the storage format is not
+ * affected.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class InterningStringSerializer extends Serializer<String> {
+
+	/**
+	 * Default constructor.
+	 */
+	public InterningStringSerializer() {
+		setImmutable(true);
+		setAcceptsNull(true);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write(Kryo kryo, Output output, String object) {
+		writeString(kryo, output, object);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String read(Kryo kryo, Input input, Class<String> type) {
+		return readString(kryo, input);
+	}
+
+	/**
+	 * Writes the string using the dictionary in the Kryo context if one exists. Can be used by
+	 * other serializers that write strings directly to the output.
+	 *
+	 * @param kryo
+	 *            Kryo instance.
+	 * @param output
+	 *            Output to write to.
+	 * @param value
+	 *            String to write, can be <code>null</code>.
+	 */
+	public static void writeString(Kryo kryo, Output output, String value) {
+		StringDictionary dictionary = (StringDictionary) kryo.getContext().get(StringDictionary.CONTEXT_KEY);
+		if (null == dictionary) {
+			output.writeString(value);
+		} else {
+			dictionary.write(output, value);
+		}
+	}
+
+	/**
+	 * Reads the string using the dictionary in the Kryo context if one exists.
+	 *
+	 * @param kryo
+	 *            Kryo instance.
+	 * @param input
+	 *            Input to read from.
+	 * @return Read string.
+	 */
+	public static String readString(Kryo kryo, Input input) {
+		StringDictionary dictionary = (StringDictionary) kryo.getContext().get(StringDictionary.CONTEXT_KEY);
+		if (null == dictionary) {
+			return input.readString();
+		} else {
+			return dictionary.read(input);
+		}
+	}
+
+}
@@ -102,6 +102,7 @@ import rocks.inspectit.shared.all.exception.enumeration.BusinessContextErrorCode
 import rocks.inspectit.shared.all.exception.enumeration.ConfigurationInterfaceErrorCodeEnum;
 import rocks.inspectit.shared.all.exception.enumeration.StorageErrorCodeEnum;
 import rocks.inspectit.shared.all.instrumentation.classcache.AnnotationType;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.InterfaceType;
 import rocks.inspectit.shared.all.instrumentation.classcache.MethodType;
@@ -114,6 +115,7 @@ import rocks.inspectit.shared.all.instrumentation.config.PriorityEnum;
 import rocks.inspectit.shared.all.instrumentation.config.SpecialInstrumentationType;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentEndUserMonitoringConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.AgentTracingConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.ExceptionSensorTypeConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.instrumentation.config.impl.JmxAttributeDescriptor;
@@ -127,6 +129,7 @@ import rocks.inspectit.shared.all.instrumentation.config.impl.SensorInstrumentat
 import rocks.inspectit.shared.all.instrumentation.config.impl.SpecialInstrumentationPoint;
 import rocks.inspectit.shared.all.instrumentation.config.impl.StrategyConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.SubstitutionDescriptor;
+import rocks.inspectit.shared.all.kryonet.WireModeMessage;
 import rocks.inspectit.shared.all.pattern.EqualsMatchPattern;
 import rocks.inspectit.shared.all.pattern.WildcardMatchPattern;
 import rocks.inspectit.shared.all.serializer.HibernateAwareClassResolver;
@@ -168,6 +171,11 @@ public class SerializationManager implements ISerializer, IKryoProvider, Initial
 	 */
 	private Kryo kryo;
 
+	/**
+	 * {@link Kryo} instance that interns the strings, created on the first request.
+	 */
+	private Kryo interningKryo;
+
 	/**
 	 * {@link KryoNetNetwork} for registering needed classes for communication.
 	 */
@@ -190,6 +198,18 @@ public class SerializationManager implements ISerializer, IKryoProvider, Initial
 	 * Initialize {@link Kryo} properties.
 	 */
 	public void initKryo() {
+		kryo = createKryo(false);
+		interningKryo = null; // NOPMD
+	}
+
+	/**
+	 * Creates a new {@link Kryo} instance with all classes registered.
+	 *
+	 * @param stringInterning
+	 *            If the {@link InterningStringSerializer} should be used for the strings.
+	 * @return Created {@link Kryo}.
+	 */
+	private Kryo createKryo(boolean stringInterning) {
 		// if hibernateUtil is provided, we create special kind of class resolver
 		ClassResolver classResolver;
 		if (null != hibernateUtil) {
@@ -211,9 +231,10 @@ public class SerializationManager implements ISerializer, IKryoProvider, Initial
 				}
 			}
 		};
-		kryo = new Kryo(classResolver, referenceResolver);
+		Kryo kryo = new Kryo(classResolver, referenceResolver);
 		kryo.setRegistrationRequired(false);
-		registerClasses(kryo);
+		registerClasses(kryo, stringInterning);
+		return kryo;
 	}
 
 	/**
@@ -239,9 +260,16 @@ public class SerializationManager implements ISerializer, IKryoProvider, Initial
 	 *
 	 * @param kryo
 	 *            Kryo that needs to be prepared.
+	 * @param stringInterning
+	 *            If the {@link InterningStringSerializer} should be used for the strings.
 	 */
-	private void registerClasses(Kryo kryo) {
+	private void registerClasses(Kryo kryo, boolean stringInterning) {
 		/** Java native classes */
+		// String is registered by default, the serializer is only replaced for the connections
+		// interning the strings on the wire, this must come before any field serializer is created
+		if (stringInterning) {
+			kryo.register(String.class, new InterningStringSerializer());
+		}
 		kryo.register(Class.class, new ClassSerializer());
 		kryo.register(ArrayList.class, new HibernateAwareCollectionSerializer(hibernateUtil)); // NOPMD
 		kryo.register(CopyOnWriteArrayList.class, new CollectionSerializer());
@@ -429,6 +457,15 @@ public class SerializationManager implements ISerializer, IKryoProvider, Initial
 		kryo.register(JSEventListenerExecution.class, new FieldSerializer<JSEventListenerExecution>(kryo, JSEventListenerExecution.class), nextRegistrationId++);
 		kryo.register(JSDomEventListenerExecution.class, new FieldSerializer<JSDomEventListenerExecution>(kryo, JSDomEventListenerExecution.class), nextRegistrationId++);
 		kryo.register(UserSessionInfo.class, new FieldSerializer<UserSessionInfo>(kryo, UserSessionInfo.class), nextRegistrationId++);
+
+		// wire mode negotiation for KryoNet
+		kryo.register(WireModeMessage.class, new FieldSerializer<WireModeMessage>(kryo, WireModeMessage.class), nextRegistrationId++);
+
+		// tracing configuration of the agent
+		kryo.register(AgentTracingConfig.class, new FieldSerializer<AgentTracingConfig>(kryo, AgentTracingConfig.class), nextRegistrationId++);
+
+		// class hashes as two longs
+		kryo.register(ClassHash.class, new ClassHashSerializer(), nextRegistrationId++);
 	}
 
 	/**
@@ -520,6 +557,21 @@ public class SerializationManager implements ISerializer, IKryoProvider, Initial
 		return kryo;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The instance is created on the first call, so that only the connections using the wire mode
+	 * with string interning pay for it. Classes registered to the {@link #getKryo()} after the
+	 * initialization are not registered to this instance.
+	 */
+	@Override
+	public Kryo getInterningKryo() {
+		if (null == interningKryo) {
+			interningKryo = createKryo(true);
+		}
+		return interningKryo;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -37,9 +37,9 @@ public class StackTraceElementSerializer extends Serializer<StackTraceElement> {
 	 */
 	@Override
 	public StackTraceElement read(Kryo kryo, Input input, Class<StackTraceElement> type) {
-		String className = input.readString();
-		String methodName = input.readString();
-		String fileName = input.readString();
+		String className = InterningStringSerializer.readString(kryo, input);
+		String methodName = InterningStringSerializer.readString(kryo, input);
+		String fileName = InterningStringSerializer.readString(kryo, input);
 		int lineNumber = input.readInt(true);
 		try {
 			return constructor.newInstance(className, methodName, fileName, lineNumber);
@@ -53,9 +53,9 @@ public class StackTraceElementSerializer extends Serializer<StackTraceElement> {
 	 */
 	@Override
 	public void write(Kryo kryo, Output output, StackTraceElement stackTrace) {
-		output.writeString(stackTrace.getClassName());
-		output.writeString(stackTrace.getMethodName());
-		output.writeString(stackTrace.getFileName());
+		InterningStringSerializer.writeString(kryo, output, stackTrace.getClassName());
+		InterningStringSerializer.writeString(kryo, output, stackTrace.getMethodName());
+		InterningStringSerializer.writeString(kryo, output, stackTrace.getFileName());
 		output.writeInt(stackTrace.getLineNumber(), true);
 	}
 }
@@ -0,0 +1,217 @@
+package rocks.inspectit.shared.all.serializer.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Dictionary of strings for one direction of the connection. The writing side assigns the ids to
+ * the strings it writes for the first time and later writes only the id. The reading side assigns
+ * the same ids in the same order, thus both sides stay in sync as long as the frames are read in
+ * the order they were written.
+ * <p>
+ * Only the writing side decides what is interned, the reading side follows the tags in the stream.
+ * The dictionary is bounded by the amount of entries and total amount of chars, when the bound is
+ * reached new strings are simply written in full.
+ * <p>
+ * The dictionary is not thread-safe, one instance must be used by one writer or one reader.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class StringDictionary {
+
+	/**
+	 * Key in the Kryo context where the dictionary to use is placed.
+	 */
+	public static final String CONTEXT_KEY = "stringDictionary";
+
+	/**
+	 * Tag for the <code>null</code> string.
+	 */
+	private static final int TAG_NULL = 0;
+
+	/**
+	 * Tag for the string that is written in full and not interned.
+	 */
+	private static final int TAG_LITERAL = 1;
+
+	/**
+	 * Tag for the string that is written in full and interned with the next id.
+	 */
+	private static final int TAG_INTERNED = 2;
+
+	/**
+	 * Offset of the ids in the tags.
+	 */
+	private static final int TAG_REFERENCE_OFFSET = 3;
+
+	/**
+	 * Default maximum amount of entries.
+	 */
+	private static final int DEFAULT_MAX_ENTRIES = 4096;
+
+	/**
+	 * Default maximum amount of chars of all entries.
+	 */
+	private static final int DEFAULT_MAX_CHARS = 256 * 1024;
+
+	/**
+	 * Strings shorter than this are never interned as the id would not save anything.
+	 */
+	private static final int MIN_LENGTH = 4;
+
+	/**
+	 * Maximum amount of entries.
+	 */
+	private final int maxEntries;
+
+	/**
+	 * Maximum amount of chars of all entries.
+	 */
+	private final int maxChars;
+
+	/**
+	 * Strings by id.
+	 */
+	private final List<String> strings = new ArrayList<String>();
+
+	/**
+	 * Ids by string, only on the writing side.
+	 */
+	private final Map<String, Integer> ids = new HashMap<String, Integer>();
+
+	/**
+	 * Current amount of chars.
+	 */
+	private int chars;
+
+	/**
+	 * Amount of entries at the last mark.
+	 */
+	private int markedEntries;
+
+	/**
+	 * Amount of chars at the last mark.
+	 */
+	private int markedChars;
+
+	/**
+	 * Creates dictionary with default bounds.
+	 */
+	public StringDictionary() {
+		this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_CHARS);
+	}
+
+	/**
+	 * Creates dictionary with given bounds.
+	 *
+	 * @param maxEntries
+	 *            Maximum amount of entries.
+	 * @param maxChars
+	 *            Maximum amount of chars of all entries.
+	 */
+	public StringDictionary(int maxEntries, int maxChars) {
+		this.maxEntries = maxEntries;
+		this.maxChars = maxChars;
+	}
+
+	/**
+	 * Writes the string to the output.
+	 *
+	 * @param output
+	 *            Output to write to.
+	 * @param value
+	 *            String, can be <code>null</code>.
+	 */
+	public void write(Output output, String value) {
+		if (null == value) {
+			output.writeInt(TAG_NULL, true);
+			return;
+		}
+
+		Integer id = ids.get(value);
+		if (null != id) {
+			output.writeInt(id.intValue() + TAG_REFERENCE_OFFSET, true);
+			return;
+		}
+
+		int length = value.length();
+		if ((length >= MIN_LENGTH) && (strings.size() < maxEntries) && ((chars + length) <= maxChars)) {
+			ids.put(value, Integer.valueOf(strings.size()));
+			strings.add(value);
+			chars += length;
+			output.writeInt(TAG_INTERNED, true);
+		} else {
+			output.writeInt(TAG_LITERAL, true);
+		}
+		output.writeString(value);
+	}
+
+	/**
+	 * Reads the string from the input.
+	 *
+	 * @param input
+	 *            Input to read from.
+	 * @return Read string.
+	 * @throws KryoException
+	 *             If the stream references unknown id or the dictionary bounds are exceeded.
+	 */
+	public String read(Input input) throws KryoException {
+		int tag = input.readInt(true);
+		switch (tag) {
+		case TAG_NULL:
+			return null;
+		case TAG_LITERAL:
+			return input.readString();
+		case TAG_INTERNED:
+			String value = input.readString();
+			if ((strings.size() >= maxEntries) || ((chars + value.length()) > maxChars)) {
+				throw new KryoException("String dictionary bounds exceeded, reader and writer are out of sync.");
+			}
+			strings.add(value);
+			chars += value.length();
+			return value;
+		default:
+			int id = tag - TAG_REFERENCE_OFFSET;
+			if (id >= strings.size()) {
+				throw new KryoException("Unknown string id " + id + ", reader and writer are out of sync.");
+			}
+			return strings.get(id);
+		}
+	}
+
+	/**
+	 * Marks the current state of the dictionary, so that it can be rolled back with
+	 * {@link #rollback()} if the frame being written is never sent.
+	 */
+	public void mark() {
+		markedEntries = strings.size();
+		markedChars = chars;
+	}
+
+	/**
+	 * Removes all entries added after the last {@link #mark()}.
+	 */
+	public void rollback() {
+		for (int i = strings.size() - 1; i >= markedEntries; i--) {
+			ids.remove(strings.remove(i));
+		}
+		chars = markedChars;
+	}
+
+	/**
+	 * Returns the amount of entries.
+	 *
+	 * @return Returns the amount of entries.
+	 */
+	public int size() {
+		return strings.size();
+	}
+
+}
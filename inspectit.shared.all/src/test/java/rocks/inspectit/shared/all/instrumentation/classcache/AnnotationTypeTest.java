@@ -25,7 +25,7 @@ public class AnnotationTypeTest {
 		@Test
 		public void addHashToNotInitialized() {
 			String fqn1 = "fqn1";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			test = new AnnotationType(fqn1);
 
 			test.addHash(hash);
@@ -37,8 +37,8 @@ public class AnnotationTypeTest {
 		@Test
 		public void addHashToInitialized() {
 			String fqn1 = "fqn1";
-			String storedHash = "shash";
-			String hash = "hash";
+			ClassHash storedHash = new ClassHash(0L, 2L);
+			ClassHash hash = new ClassHash(0L, 1L);
 			test = new AnnotationType(fqn1, storedHash, 0);
 
 			test.addHash(hash);
@@ -54,7 +54,7 @@ public class AnnotationTypeTest {
 		@Test
 		public void setModifier() {
 			String fqn1 = "fqn1";
-			String storedHash = "shash";
+			ClassHash storedHash = new ClassHash(0L, 2L);
 			int m = 0;
 			test = new AnnotationType(fqn1, storedHash, m);
 			int m2 = 2;
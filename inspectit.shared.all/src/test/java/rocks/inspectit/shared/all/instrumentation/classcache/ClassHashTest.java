@@ -0,0 +1,105 @@
+package rocks.inspectit.shared.all.instrumentation.classcache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests the {@link ClassHash}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class ClassHashTest {
+
+	public static class FromBytes extends ClassHashTest {
+
+		@Test
+		public void bigEndian() {
+			byte[] bytes = new byte[] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15 };
+
+			ClassHash hash = ClassHash.fromBytes(bytes);
+
+			assertThat(hash.getHigh(), is(0x0001020304050607L));
+			assertThat(hash.getLow(), is(0x08090a0b0c0d0e0fL));
+		}
+
+		@Test
+		public void truncated() {
+			byte[] bytes = new byte[32];
+			bytes[15] = (byte) 0xff;
+			bytes[16] = (byte) 0xff;
+
+			ClassHash hash = ClassHash.fromBytes(bytes);
+
+			assertThat(hash, is(new ClassHash(0L, 0xffL)));
+		}
+
+		@Test(expectedExceptions = IllegalArgumentException.class)
+		public void tooShort() {
+			ClassHash.fromBytes(new byte[8]);
+		}
+	}
+
+	public static class FromHex extends ClassHashTest {
+
+		@Test
+		public void parsed() {
+			ClassHash hash = ClassHash.fromHex("0001020304050607f8f9fafbfcfdfeff");
+
+			assertThat(hash.getHigh(), is(0x0001020304050607L));
+			assertThat(hash.getLow(), is(0xf8f9fafbfcfdfeffL));
+		}
+
+		@Test
+		public void sha256Truncated() {
+			ClassHash hash = ClassHash.fromHex("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855");
+
+			assertThat(hash, is(new ClassHash(0xe3b0c44298fc1c14L, 0x9afbf4c8996fb924L)));
+		}
+
+		@Test
+		public void toStringParsed() {
+			ClassHash hash = new ClassHash(-1L, 42L);
+
+			assertThat(ClassHash.fromHex(hash.toString()), is(hash));
+		}
+
+		@Test(expectedExceptions = IllegalArgumentException.class)
+		public void tooShort() {
+			ClassHash.fromHex("0001020304050607");
+		}
+
+		@Test(expectedExceptions = IllegalArgumentException.class)
+		public void notHex() {
+			ClassHash.fromHex("0001020304050607x8f9fafbfcfdfeff");
+		}
+	}
+
+	public static class ToString extends ClassHashTest {
+
+		@Test
+		public void hex() {
+			ClassHash hash = new ClassHash(0x0001020304050607L, 0xf8f9fafbfcfdfeffL);
+
+			assertThat(hash.toString(), is("0001020304050607f8f9fafbfcfdfeff"));
+		}
+	}
+
+	public static class Equals extends ClassHashTest {
+
+		@Test
+		public void same() {
+			assertThat(new ClassHash(1L, 2L), is(new ClassHash(1L, 2L)));
+			assertThat(new ClassHash(1L, 2L).hashCode(), is(new ClassHash(1L, 2L).hashCode()));
+		}
+
+		@Test
+		public void different() {
+			assertThat(new ClassHash(1L, 2L), is(not(new ClassHash(2L, 1L))));
+		}
+	}
+}
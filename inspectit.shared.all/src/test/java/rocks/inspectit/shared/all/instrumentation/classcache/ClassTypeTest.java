@@ -31,7 +31,7 @@ public class ClassTypeTest {
 		@Test
 		public void addHashToNotInitialized() {
 			String fqn1 = "fqn1";
-			String hash = "hash";
+			ClassHash hash = new ClassHash(0L, 1L);
 			test = new ClassType(fqn1);
 
 			test.addHash(hash);
@@ -43,8 +43,8 @@ public class ClassTypeTest {
 		@Test
 		public void addHashToInitialized() {
 			String fqn1 = "fqn1";
-			String storedHash = "shash";
-			String hash = "hash";
+			ClassHash storedHash = new ClassHash(0L, 2L);
+			ClassHash hash = new ClassHash(0L, 1L);
 			test = new ClassType(fqn1, storedHash, 0);
 
 			test.addHash(hash);
@@ -60,7 +60,7 @@ public class ClassTypeTest {
 		@Test
 		public void setModifier() {
 			String fqn1 = "fqn1";
-			String storedHash = "shash";
+			ClassHash storedHash = new ClassHash(0L, 2L);
 			int m = 0;
 			test = new ClassType(fqn1, storedHash, m);
 			int m2 = 2;
@@ -0,0 +1,129 @@
+package rocks.inspectit.shared.all.kryonet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class BlockCompressorTest extends TestBase {
+
+	BlockCompressor compressor = new BlockCompressor();
+
+	Random random = new Random(7L);
+
+	byte[] roundTrip(byte[] data) {
+		byte[] compressed = new byte[BlockCompressor.maxCompressedLength(data.length) + 3];
+		int compressedLength = compressor.compress(data, 0, data.length, compressed, 3);
+		assertThat(compressedLength, is(lessThanOrEqualTo(BlockCompressor.maxCompressedLength(data.length))));
+
+		byte[] decompressed = new byte[data.length + 2];
+		BlockCompressor.decompress(compressed, 3, compressedLength, decompressed, 2, data.length);
+		assertThat(Arrays.copyOfRange(decompressed, 2, decompressed.length), is(data));
+		return Arrays.copyOfRange(compressed, 3, 3 + compressedLength);
+	}
+
+	public static class Compress extends BlockCompressorTest {
+
+		@Test
+		public void empty() {
+			roundTrip(new byte[0]);
+		}
+
+		@Test
+		public void small() {
+			roundTrip("abc".getBytes());
+		}
+
+		@Test
+		public void repetitive() {
+			StringBuilder stringBuilder = new StringBuilder();
+			for (int i = 0; i < 200; i++) {
+				stringBuilder.append("SELECT * FROM ORDERS WHERE ID = ").append(i % 10).append('\n');
+			}
+			byte[] data = stringBuilder.toString().getBytes();
+
+			byte[] compressed = roundTrip(data);
+
+			assertThat(compressed.length, is(lessThan(data.length / 4)));
+		}
+
+		@Test
+		public void longRuns() {
+			byte[] data = new byte[100000];
+			Arrays.fill(data, 0, 50000, (byte) 1);
+
+			byte[] compressed = roundTrip(data);
+
+			assertThat(compressed.length, is(lessThan(1000)));
+		}
+
+		@Test
+		public void incompressible() {
+			byte[] data = new byte[70000];
+			random.nextBytes(data);
+
+			roundTrip(data);
+		}
+
+		@Test
+		public void mixed() {
+			for (int size : new int[] { 13, 17, 100, 1024, 65536, 200000 }) {
+				byte[] data = new byte[size];
+				for (int i = 0; i < size; i++) {
+					data[i] = (byte) (random.nextInt(4) == 0 ? random.nextInt() : i % 7);
+				}
+				roundTrip(data);
+			}
+		}
+
+		@Test
+		public void instanceReused() {
+			byte[] data = "instanceReusedinstanceReusedinstanceReused".getBytes();
+			roundTrip(data);
+			roundTrip(new byte[500]);
+			roundTrip(data);
+		}
+	}
+
+	public static class Decompress extends BlockCompressorTest {
+
+		@Test(expectedExceptions = IllegalArgumentException.class)
+		public void wrongLength() {
+			byte[] data = "some data some data some data".getBytes();
+			byte[] compressed = new byte[BlockCompressor.maxCompressedLength(data.length)];
+			int compressedLength = compressor.compress(data, 0, data.length, compressed, 0);
+
+			BlockCompressor.decompress(compressed, 0, compressedLength, new byte[data.length + 1], 0, data.length + 1);
+		}
+
+		@Test(expectedExceptions = IllegalArgumentException.class)
+		public void truncated() {
+			byte[] data = new byte[1000];
+			byte[] compressed = new byte[BlockCompressor.maxCompressedLength(data.length)];
+			int compressedLength = compressor.compress(data, 0, data.length, compressed, 0);
+
+			BlockCompressor.decompress(compressed, 0, compressedLength - 3, new byte[data.length], 0, data.length);
+		}
+
+		@Test(expectedExceptions = IllegalArgumentException.class)
+		public void invalidOffset() {
+			// token with no literals and match, offset pointing before the start
+			byte[] compressed = new byte[] { 0x00, 0x05, 0x00, 0x00 };
+
+			BlockCompressor.decompress(compressed, 0, compressed.length, new byte[10], 0, 10);
+		}
+	}
+
+}
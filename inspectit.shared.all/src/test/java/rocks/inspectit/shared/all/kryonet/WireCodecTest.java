@@ -0,0 +1,190 @@
+package rocks.inspectit.shared.all.kryonet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.springframework.core.io.ClassPathResource;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.serializers.DefaultSerializers.StringSerializer;
+
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.serializer.impl.InterningStringSerializer;
+import rocks.inspectit.shared.all.serializer.impl.SerializationManager;
+import rocks.inspectit.shared.all.serializer.schema.ClassSchemaManager;
+import rocks.inspectit.shared.all.testbase.TestBase;
+import rocks.inspectit.shared.all.util.KryoNetNetwork;
+
+/**
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class WireCodecTest extends TestBase {
+
+	static final String SQL = "SELECT ID, NAME, PRICE FROM PRODUCTS WHERE CATEGORY = ? AND PRICE > ?";
+
+	Kryo kryo;
+
+	Kryo interningKryo;
+
+	@BeforeMethod
+	public void init() throws Exception {
+		ClassSchemaManager schemaManager = new ClassSchemaManager();
+		schemaManager.setLog(Mockito.mock(Logger.class));
+		schemaManager.setSchemaListFile(new ClassPathResource(ClassSchemaManager.SCHEMA_DIR + "/" + ClassSchemaManager.SCHEMA_LIST_FILE, schemaManager.getClass().getClassLoader()));
+		schemaManager.loadSchemasFromLocations();
+		SerializationManager serializationManager = new SerializationManager();
+		serializationManager.setSchemaManager(schemaManager);
+		serializationManager.setKryoNetNetwork(new KryoNetNetwork());
+		serializationManager.initKryo();
+		kryo = serializationManager.getKryo();
+		interningKryo = serializationManager.getInterningKryo();
+	}
+
+	static SqlStatementData sql(long id) {
+		SqlStatementData sqlStatementData = new SqlStatementData(new Timestamp(id), 1L, 2L, 3L);
+		sqlStatementData.setId(id);
+		sqlStatementData.setSql(SQL);
+		sqlStatementData.setParameterValues(Arrays.asList("books", String.valueOf(id)));
+		sqlStatementData.setDuration(id);
+		return sqlStatementData;
+	}
+
+	static List<SqlStatementData> batch(int size) {
+		List<SqlStatementData> batch = new ArrayList<SqlStatementData>(size);
+		for (int i = 0; i < size; i++) {
+			batch.add(sql(i));
+		}
+		return batch;
+	}
+
+	byte[] write(WireCodec codec, Object object) {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		codec.write(codec.isStringInterning() ? interningKryo : kryo, outputStream, object);
+		return outputStream.toByteArray();
+	}
+
+	Object read(WireCodec codec, byte[] frame) {
+		return codec.read(codec.isStringInterning() ? interningKryo : kryo, new ByteArrayInputStream(frame));
+	}
+
+	public static class RoundTrip extends WireCodecTest {
+
+		@Test
+		public void plain() {
+			WireCodec writer = new WireCodec(0);
+			WireCodec reader = new WireCodec(0);
+
+			Object read = read(reader, write(writer, batch(10)));
+
+			assertThat(read, is((Object) batch(10)));
+		}
+
+		@Test
+		public void all() {
+			WireCodec writer = new WireCodec(WireCodec.ALL);
+			WireCodec reader = new WireCodec(WireCodec.ALL);
+
+			for (int i = 0; i < 5; i++) {
+				Object read = read(reader, write(writer, batch(50)));
+				assertThat(read, is((Object) batch(50)));
+			}
+			assertThat(read(reader, write(writer, "small")), is((Object) "small"));
+			assertThat(reader.getWireBytes(), is(writer.getWireBytes()));
+			assertThat(reader.getRawBytes(), is(writer.getRawBytes()));
+		}
+
+		@Test
+		public void stringsInterned() {
+			WireCodec writer = new WireCodec(WireCodec.STRING_INTERNING);
+			WireCodec reader = new WireCodec(WireCodec.STRING_INTERNING);
+
+			byte[] first = write(writer, sql(1L));
+			byte[] second = write(writer, sql(1L));
+
+			assertThat(second.length, is(lessThan(first.length - SQL.length())));
+			assertThat(read(reader, first), is((Object) sql(1L)));
+			assertThat(read(reader, second), is((Object) sql(1L)));
+		}
+
+		@Test
+		public void compressed() {
+			WireCodec writer = new WireCodec(WireCodec.COMPRESSION);
+			WireCodec reader = new WireCodec(WireCodec.COMPRESSION);
+
+			byte[] frame = write(writer, batch(100));
+
+			assertThat(writer.getWireBytes(), is(lessThan(writer.getRawBytes() / 2)));
+			assertThat(read(reader, frame), is((Object) batch(100)));
+		}
+
+		@Test
+		public void failedWriteRolledBack() {
+			interningKryo.register(Failing.class, new Serializer<Failing>() {
+				@Override
+				public void write(Kryo kryo, Output output, Failing object) {
+					throw new KryoException("failing");
+				}
+
+				@Override
+				public Failing read(Kryo kryo, Input input, Class<Failing> type) {
+					return null;
+				}
+			});
+			WireCodec writer = new WireCodec(WireCodec.STRING_INTERNING);
+			WireCodec reader = new WireCodec(WireCodec.STRING_INTERNING);
+
+			try {
+				write(writer, Arrays.asList(sql(1L), new Failing()));
+			} catch (KryoException e) {
+				// expected
+			}
+			Object read = read(reader, write(writer, sql(2L)));
+
+			assertThat(read, is((Object) sql(2L)));
+		}
+	}
+
+	public static class Format extends WireCodecTest {
+
+		@Test
+		public void plainStringsNotChanged() {
+			Output output = new Output(1024);
+			kryo.writeObject(output, SQL);
+
+			// Kryo with the default string serializer
+			Output expected = new Output(1024);
+			new Kryo().writeObject(expected, SQL);
+
+			assertThat(output.toBytes(), is(expected.toBytes()));
+		}
+
+		@Test
+		public void interningOnlyForInterningKryo() {
+			assertThat(kryo.getSerializer(String.class), is(instanceOf(StringSerializer.class)));
+			assertThat(interningKryo.getSerializer(String.class), is(instanceOf(InterningStringSerializer.class)));
+		}
+	}
+
+	static class Failing {
+	}
+
+}
@@ -33,6 +33,7 @@ import rocks.inspectit.shared.cs.ci.sensor.platform.AbstractPlatformSensorConfig
 import rocks.inspectit.shared.cs.ci.sensor.platform.IPlatformSensorConfig;
 import rocks.inspectit.shared.cs.ci.strategy.IStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.DisruptorStrategyConfig;
+import rocks.inspectit.shared.cs.ci.tracing.TracingConfig;
 
 /**
  * Environment definition. Defines sending & buffer strategies, sensors and their options. Also has
@@ -46,12 +47,28 @@ import rocks.inspectit.shared.cs.ci.strategy.impl.DisruptorStrategyConfig;
 @XmlRootElement(name = "environment")
 public class Environment extends AbstractCiData {
 
+	/**
+	 * Default sampling interval of the platform sensors in milliseconds.
+	 */
+	public static final long DEFAULT_PLATFORM_SAMPLING_INTERVAL = 1000L;
+
+	/**
+	 * Default sending interval of the platform sensors data in milliseconds.
+	 */
+	public static final long DEFAULT_PLATFORM_SENDING_INTERVAL = 5000L;
+
 	/**
 	 * End User Monitoring config. We have only one.
 	 */
 	@XmlElementRef(type = EndUserMonitoringConfig.class, required = false)
 	private EndUserMonitoringConfig eumConfig = ConfigurationDefaultsFactory.getDefaultEndUserMonitoringConfig();
 
+	/**
+	 * Configuration of the trace sampling.
+	 */
+	@XmlElementRef(type = TracingConfig.class, required = false)
+	private TracingConfig tracingConfig = ConfigurationDefaultsFactory.getDefaultTracingConfig();
+
 	/**
 	 * List of the platform sensors configurations.
 	 */
@@ -94,6 +111,45 @@ public class Environment extends AbstractCiData {
 	@XmlElement(name = "classLoadingDelegation")
 	private boolean classLoadingDelegation = true;
 
+	/**
+	 * If the agent sends the types for the analysis in batches.
+	 */
+	@XmlElement(name = "batchedClassAnalysis")
+	private boolean batchedClassAnalysis = true;
+
+	/**
+	 * If the agent identifies the classes with the SHA-256 hashes instead of the faster 128-bit
+	 * MurmurHash3. Only needed for keeping the class hashes known from the agents running with
+	 * SHA-256 before.
+	 */
+	@XmlElement(name = "sha256ClassHashes")
+	private boolean sha256ClassHashes;
+
+	/**
+	 * If the agent dispatches the instrumented methods by the index instead of the method id.
+	 */
+	@XmlElement(name = "indexedDispatch")
+	private boolean indexedDispatch;
+
+	/**
+	 * Sampling interval of the platform sensors in milliseconds.
+	 */
+	@XmlElement(name = "platformSamplingInterval")
+	private long platformSamplingInterval = DEFAULT_PLATFORM_SAMPLING_INTERVAL;
+
+	/**
+	 * Sending interval of the platform sensors data in milliseconds. Should be a multiple of the
+	 * {@link #platformSamplingInterval}, otherwise the agent rounds it to the closest multiple.
+	 */
+	@XmlElement(name = "platformSendingInterval")
+	private long platformSendingInterval = DEFAULT_PLATFORM_SENDING_INTERVAL;
+
+	/**
+	 * If the agent uses the compressed wire mode for the connection to the CMR.
+	 */
+	@XmlElement(name = "compressedWireMode")
+	private boolean compressedWireMode;
+
 	/**
 	 * The retransformation strategy.
 	 */
@@ -218,6 +274,120 @@ public class Environment extends AbstractCiData {
 		this.classLoadingDelegation = classLoadingDelegation;
 	}
 
+	/**
+	 * Gets {@link #batchedClassAnalysis}.
+	 *
+	 * @return {@link #batchedClassAnalysis}
+	 */
+	public boolean isBatchedClassAnalysis() {
+		return this.batchedClassAnalysis;
+	}
+
+	/**
+	 * Sets {@link #batchedClassAnalysis}.
+	 *
+	 * @param batchedClassAnalysis
+	 *            New value for {@link #batchedClassAnalysis}
+	 */
+	public void setBatchedClassAnalysis(boolean batchedClassAnalysis) {
+		this.batchedClassAnalysis = batchedClassAnalysis;
+	}
+
+	/**
+	 * Gets {@link #sha256ClassHashes}.
+	 *
+	 * @return {@link #sha256ClassHashes}
+	 */
+	public boolean isSha256ClassHashes() {
+		return this.sha256ClassHashes;
+	}
+
+	/**
+	 * Sets {@link #sha256ClassHashes}.
+	 *
+	 * @param sha256ClassHashes
+	 *            New value for {@link #sha256ClassHashes}
+	 */
+	public void setSha256ClassHashes(boolean sha256ClassHashes) {
+		this.sha256ClassHashes = sha256ClassHashes;
+	}
+
+	/**
+	 * Gets {@link #indexedDispatch}.
+	 *
+	 * @return {@link #indexedDispatch}
+	 */
+	public boolean isIndexedDispatch() {
+		return this.indexedDispatch;
+	}
+
+	/**
+	 * Sets {@link #indexedDispatch}.
+	 *
+	 * @param indexedDispatch
+	 *            New value for {@link #indexedDispatch}
+	 */
+	public void setIndexedDispatch(boolean indexedDispatch) {
+		this.indexedDispatch = indexedDispatch;
+	}
+
+	/**
+	 * Gets {@link #platformSamplingInterval}.
+	 *
+	 * @return {@link #platformSamplingInterval}
+	 */
+	public long getPlatformSamplingInterval() {
+		return this.platformSamplingInterval;
+	}
+
+	/**
+	 * Sets {@link #platformSamplingInterval}.
+	 *
+	 * @param platformSamplingInterval
+	 *            New value for {@link #platformSamplingInterval}
+	 */
+	public void setPlatformSamplingInterval(long platformSamplingInterval) {
+		this.platformSamplingInterval = platformSamplingInterval;
+	}
+
+	/**
+	 * Gets {@link #platformSendingInterval}.
+	 *
+	 * @return {@link #platformSendingInterval}
+	 */
+	public long getPlatformSendingInterval() {
+		return this.platformSendingInterval;
+	}
+
+	/**
+	 * Sets {@link #platformSendingInterval}.
+	 *
+	 * @param platformSendingInterval
+	 *            New value for {@link #platformSendingInterval}
+	 */
+	public void setPlatformSendingInterval(long platformSendingInterval) {
+		this.platformSendingInterval = platformSendingInterval;
+	}
+
+	/**
+	 * Gets {@link #compressedWireMode}.
+	 *
+	 * @return {@link #compressedWireMode}
+	 */
+	public boolean isCompressedWireMode() {
+		return this.compressedWireMode;
+	}
+
+	/**
+	 * Sets {@link #compressedWireMode}.
+	 *
+	 * @param compressedWireMode
+	 *            New value for {@link #compressedWireMode}
+	 */
+	public void setCompressedWireMode(boolean compressedWireMode) {
+		this.compressedWireMode = compressedWireMode;
+	}
+
 	/**
 	 * Gets {@link #disruptorStrategyConfig}.
 	 *
@@ -256,6 +426,25 @@ public class Environment extends AbstractCiData {
 		this.eumConfig = eumConfig;
 	}
 
+	/**
+	 * Gets {@link #tracingConfig}.
+	 *
+	 * @return {@link #tracingConfig}
+	 */
+	public TracingConfig getTracingConfig() {
+		return this.tracingConfig;
+	}
+
+	/**
+	 * Sets {@link #tracingConfig}.
+	 *
+	 * @param tracingConfig
+	 *            New value for {@link #tracingConfig}
+	 */
+	public void setTracingConfig(TracingConfig tracingConfig) {
+		this.tracingConfig = tracingConfig;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -263,15 +452,22 @@ public class Environment extends AbstractCiData {
 	public int hashCode() {
 		final int prime = 31;
 		int result = super.hashCode();
+		result = (prime * result) + (this.batchedClassAnalysis ? 1231 : 1237);
 		result = (prime * result) + (this.classLoadingDelegation ? 1231 : 1237);
 		result = (prime * result) + ((this.disruptorStrategyConfig == null) ? 0 : this.disruptorStrategyConfig.hashCode());
 		result = (prime * result) + ((this.eumConfig == null) ? 0 : this.eumConfig.hashCode());
 		result = (prime * result) + ((this.exceptionSensorConfig == null) ? 0 : this.exceptionSensorConfig.hashCode());
+		result = (prime * result) + (this.indexedDispatch ? 1231 : 1237);
+		result = (prime * result) + (int) (this.platformSamplingInterval ^ (this.platformSamplingInterval >>> 32));
+		result = (prime * result) + (int) (this.platformSendingInterval ^ (this.platformSendingInterval >>> 32));
+		result = (prime * result) + (this.compressedWireMode ? 1231 : 1237);
 		result = (prime * result) + ((this.jmxSensorConfig == null) ? 0 : this.jmxSensorConfig.hashCode());
 		result = (prime * result) + ((this.methodSensorConfigs == null) ? 0 : this.methodSensorConfigs.hashCode());
 		result = (prime * result) + ((this.platformSensorConfigs == null) ? 0 : this.platformSensorConfigs.hashCode());
 		result = (prime * result) + ((this.profileIds == null) ? 0 : this.profileIds.hashCode());
 		result = (prime * result) + ((this.retransformationStrategy == null) ? 0 : this.retransformationStrategy.hashCode());
+		result = (prime * result) + (this.sha256ClassHashes ? 1231 : 1237);
+		result = (prime * result) + ((this.tracingConfig == null) ? 0 : this.tracingConfig.hashCode());
 		return result;
 	}
 
@@ -290,6 +486,9 @@ public class Environment extends AbstractCiData {
 			return false;
 		}
 		Environment other = (Environment) obj;
+		if (this.batchedClassAnalysis != other.batchedClassAnalysis) {
+			return false;
+		}
 		if (this.classLoadingDelegation != other.classLoadingDelegation) {
 			return false;
 		}
@@ -314,6 +513,18 @@ public class Environment extends AbstractCiData {
 		} else if (!this.exceptionSensorConfig.equals(other.exceptionSensorConfig)) {
 			return false;
 		}
+		if (this.indexedDispatch != other.indexedDispatch) {
+			return false;
+		}
+		if (this.platformSamplingInterval != other.platformSamplingInterval) {
+			return false;
+		}
+		if (this.platformSendingInterval != other.platformSendingInterval) {
+			return false;
+		}
+		if (this.compressedWireMode != other.compressedWireMode) {
+			return false;
+		}
 		if (this.jmxSensorConfig == null) {
 			if (other.jmxSensorConfig != null) {
 				return false;
@@ -345,6 +556,16 @@ public class Environment extends AbstractCiData {
 		if (this.retransformationStrategy != other.retransformationStrategy) {
 			return false;
 		}
+		if (this.sha256ClassHashes != other.sha256ClassHashes) {
+			return false;
+		}
+		if (this.tracingConfig == null) {
+			if (other.tracingConfig != null) {
+				return false;
+			}
+		} else if (!this.tracingConfig.equals(other.tracingConfig)) {
+			return false;
+		}
 		return true;
 	}
 
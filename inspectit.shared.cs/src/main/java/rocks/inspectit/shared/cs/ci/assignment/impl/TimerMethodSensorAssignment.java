@@ -1,9 +1,11 @@
 package rocks.inspectit.shared.cs.ci.assignment.impl;
 
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElementRef;
 import javax.xml.bind.annotation.XmlElementRefs;
 import javax.xml.bind.annotation.XmlElementWrapper;
@@ -32,6 +34,13 @@ public class TimerMethodSensorAssignment extends ChartingMethodSensorAssignment
 	@XmlElementRefs({ @XmlElementRef(type = ReturnContextCapture.class), @XmlElementRef(type = ParameterContextCapture.class), @XmlElementRef(type = FieldContextCapture.class) })
 	private List<AbstractContextCapture> contextCaptures;
 
+	/**
+	 * Interval in milliseconds in which the agent aggregates the timer data before sending. If
+	 * <code>null</code> or not positive, every invocation is sent separately.
+	 */
+	@XmlAttribute(name = "aggregationInterval")
+	private Long aggregationInterval;
+
 	/**
 	 * No-args constructor.
 	 */
@@ -39,6 +48,21 @@ public class TimerMethodSensorAssignment extends ChartingMethodSensorAssignment
 		super(TimerSensorConfig.class);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, Object> getSettings() {
+		Map<String, Object> settings = super.getSettings();
+
+		// aggregation
+		if ((null != aggregationInterval) && (aggregationInterval.longValue() > 0)) {
+			settings.put("aggregationinterval", aggregationInterval);
+		}
+
+		return settings;
+	}
+
 	/**
 	 * Gets {@link #contextCaptures}.
 	 *
@@ -58,6 +82,25 @@ public class TimerMethodSensorAssignment extends ChartingMethodSensorAssignment
 		this.contextCaptures = contextCaptures;
 	}
 
+	/**
+	 * Gets {@link #aggregationInterval}.
+	 *
+	 * @return {@link #aggregationInterval}
+	 */
+	public Long getAggregationInterval() {
+		return this.aggregationInterval;
+	}
+
+	/**
+	 * Sets {@link #aggregationInterval}.
+	 *
+	 * @param aggregationInterval
+	 *            New value for {@link #aggregationInterval}
+	 */
+	public void setAggregationInterval(Long aggregationInterval) {
+		this.aggregationInterval = aggregationInterval;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -66,6 +109,7 @@ public class TimerMethodSensorAssignment extends ChartingMethodSensorAssignment
 		final int prime = 31;
 		int result = super.hashCode();
 		result = (prime * result) + ((this.contextCaptures == null) ? 0 : this.contextCaptures.hashCode());
+		result = (prime * result) + ((this.aggregationInterval == null) ? 0 : this.aggregationInterval.hashCode());
 		return result;
 	}
 
@@ -91,6 +135,13 @@ public class TimerMethodSensorAssignment extends ChartingMethodSensorAssignment
 		} else if (!this.contextCaptures.equals(other.contextCaptures)) {
 			return false;
 		}
+		if (this.aggregationInterval == null) {
+			if (other.aggregationInterval != null) {
+				return false;
+			}
+		} else if (!this.aggregationInterval.equals(other.aggregationInterval)) {
+			return false;
+		}
 		return true;
 	}
 
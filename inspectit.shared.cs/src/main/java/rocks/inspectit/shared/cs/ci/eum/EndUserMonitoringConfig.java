@@ -60,6 +60,13 @@ public class EndUserMonitoringConfig {
 	@XmlAttribute(name = "agentMinificationEnabled", required = true)
 	private boolean agentMinificationEnabled = true;
 
+	/**
+	 * Max amount of beacon elements the agent accepts per session and second. Zero or negative
+	 * value deactivates the limit.
+	 */
+	@XmlAttribute(name = "sessionBeaconLimit")
+	private int sessionBeaconLimit = 500;
+
 	/**
 	 * Gets {@link #eumEnabled}.
 	 *
@@ -174,6 +181,25 @@ public class EndUserMonitoringConfig {
 		this.agentMinificationEnabled = agentMinificationEnabled;
 	}
 
+	/**
+	 * Gets {@link #sessionBeaconLimit}.
+	 *
+	 * @return {@link #sessionBeaconLimit}
+	 */
+	public int getSessionBeaconLimit() {
+		return this.sessionBeaconLimit;
+	}
+
+	/**
+	 * Sets {@link #sessionBeaconLimit}.
+	 *
+	 * @param sessionBeaconLimit
+	 *            New value for {@link #sessionBeaconLimit}
+	 */
+	public void setSessionBeaconLimit(int sessionBeaconLimit) {
+		this.sessionBeaconLimit = sessionBeaconLimit;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -187,6 +213,7 @@ public class EndUserMonitoringConfig {
 		result = (prime * result) + (this.listenerInstrumentationAllowed ? 1231 : 1237);
 		result = (prime * result) + this.relevancyThreshold;
 		result = (prime * result) + ((this.scriptBaseUrl == null) ? 0 : this.scriptBaseUrl.hashCode());
+		result = (prime * result) + this.sessionBeaconLimit;
 		return result;
 	}
 
@@ -231,6 +258,9 @@ public class EndUserMonitoringConfig {
 		} else if (!this.scriptBaseUrl.equals(other.scriptBaseUrl)) {
 			return false;
 		}
+		if (this.sessionBeaconLimit != other.sessionBeaconLimit) {
+			return false;
+		}
 		return true;
 	}
 
@@ -41,6 +41,7 @@ import rocks.inspectit.shared.cs.ci.sensor.platform.impl.SystemSensorConfig;
 import rocks.inspectit.shared.cs.ci.sensor.platform.impl.ThreadSensorConfig;
 import rocks.inspectit.shared.cs.ci.strategy.IStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.DisruptorStrategyConfig;
+import rocks.inspectit.shared.cs.ci.tracing.TracingConfig;
 
 /**
  * Defaults factory defines what is default for our configuration.
@@ -121,6 +122,15 @@ public final class ConfigurationDefaultsFactory {
 		return new EndUserMonitoringConfig();
 	}
 
+	/**
+	 * Returns default tracing configuration.
+	 *
+	 * @return Returns default tracing configuration.
+	 */
+	public static TracingConfig getDefaultTracingConfig() {
+		return new TracingConfig();
+	}
+
 	/**
 	 * Returns default {@link JmxAttributeDescriptor}.
 	 *
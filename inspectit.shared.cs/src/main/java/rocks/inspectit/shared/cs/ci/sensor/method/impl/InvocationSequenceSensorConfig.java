@@ -1,5 +1,8 @@
 package rocks.inspectit.shared.cs.ci.sensor.method.impl;
 
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlRootElement;
 
 import rocks.inspectit.shared.all.instrumentation.config.PriorityEnum;
@@ -25,6 +28,13 @@ public class InvocationSequenceSensorConfig extends StringConstraintSensorConfig
 	 */
 	public static final String CLASS_NAME = "rocks.inspectit.agent.java.sensor.method.invocationsequence.InvocationSequenceSensor";
 
+	/**
+	 * If the invocation sequences should be recorded in the per thread arena of the agent, thus
+	 * creating the sequence objects only for the sequences that are sent.
+	 */
+	@XmlAttribute(name = "arenaRecording")
+	private Boolean arenaRecording = Boolean.FALSE;
+
 	/**
 	 * No-args constructor.
 	 */
@@ -64,4 +74,37 @@ public class InvocationSequenceSensorConfig extends StringConstraintSensorConfig
 		return true;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, Object> getParameters() {
+		Map<String, Object> parameters = super.getParameters();
+
+		if (arenaRecording) {
+			parameters.put("arenarecording", "true");
+		}
+
+		return parameters;
+	}
+
+	/**
+	 * Gets {@link #arenaRecording}.
+	 *
+	 * @return {@link #arenaRecording}
+	 */
+	public boolean isArenaRecording() {
+		return arenaRecording.booleanValue();
+	}
+
+	/**
+	 * Sets {@link #arenaRecording}.
+	 *
+	 * @param arenaRecording
+	 *            New value for {@link #arenaRecording}
+	 */
+	public void setArenaRecording(boolean arenaRecording) {
+		this.arenaRecording = Boolean.valueOf(arenaRecording);
+	}
+
 }
@@ -1,5 +1,8 @@
 package rocks.inspectit.shared.cs.ci.sensor.method.impl;
 
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlRootElement;
 
 import rocks.inspectit.shared.all.instrumentation.config.PriorityEnum;
@@ -25,6 +28,13 @@ public class TimerSensorConfig extends StringConstraintSensorConfig implements I
 	 */
 	public static final String CLASS_NAME = "rocks.inspectit.agent.java.sensor.method.timer.TimerSensor";
 
+	/**
+	 * If the timer hook should keep the measured times in primitive thread local stacks, thus
+	 * avoiding the creation of wrapper objects per invocation.
+	 */
+	@XmlAttribute(name = "primitiveTimingStack")
+	private Boolean primitiveTimingStack = Boolean.FALSE;
+
 	/**
 	 * No-args constructor.
 	 */
@@ -64,4 +74,37 @@ public class TimerSensorConfig extends StringConstraintSensorConfig implements I
 		return false;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, Object> getParameters() {
+		Map<String, Object> parameters = super.getParameters();
+
+		if (primitiveTimingStack) {
+			parameters.put("primitivetimingstack", "true");
+		}
+
+		return parameters;
+	}
+
+	/**
+	 * Gets {@link #primitiveTimingStack}.
+	 *
+	 * @return {@link #primitiveTimingStack}
+	 */
+	public boolean isPrimitiveTimingStack() {
+		return primitiveTimingStack.booleanValue();
+	}
+
+	/**
+	 * Sets {@link #primitiveTimingStack}.
+	 *
+	 * @param primitiveTimingStack
+	 *            New value for {@link #primitiveTimingStack}
+	 */
+	public void setPrimitiveTimingStack(boolean primitiveTimingStack) {
+		this.primitiveTimingStack = Boolean.valueOf(primitiveTimingStack);
+	}
+
 }
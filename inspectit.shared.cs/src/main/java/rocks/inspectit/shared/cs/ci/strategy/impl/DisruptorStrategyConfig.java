@@ -1,6 +1,6 @@
 package rocks.inspectit.shared.cs.ci.strategy.impl;
 
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 import javax.xml.bind.annotation.XmlAccessType;
@@ -38,6 +38,58 @@ public class DisruptorStrategyConfig implements IStrategyConfig {
 	@XmlAttribute(name = "buffer-size", required = true)
 	private int bufferSize = DEFAULT_BUFFER_SIZE;
 
+	/**
+	 * Wait strategy of the disruptor consumer.
+	 * <p>
+	 * Default is {@link WaitStrategy#BLOCKING}.
+	 */
+	@XmlAttribute(name = "wait-strategy")
+	private WaitStrategy waitStrategy = WaitStrategy.BLOCKING;
+
+	/**
+	 * If sending of the data should be done in the separate thread, so that the disruptor consumer
+	 * is not blocked by the network.
+	 */
+	@XmlAttribute(name = "pipelined-sending")
+	private boolean pipelinedSending;
+
+	/**
+	 * Maximum amount of objects sent in one batch. Default is <code>0</code>, meaning no limit as
+	 * before the batching was introduced.
+	 */
+	@XmlAttribute(name = "max-batch-size")
+	private int maxBatchSize;
+
+	/**
+	 * Maximum estimated size in bytes of one batch. Default is <code>0</code>, meaning no limit as
+	 * before the batching was introduced.
+	 */
+	@XmlAttribute(name = "max-batch-bytes")
+	private long maxBatchBytes;
+
+	/**
+	 * Maximum time in milliseconds the data can wait for the batch to be filled. Default is
+	 * <code>0</code>, meaning data is sent as soon as no more data is available.
+	 */
+	@XmlAttribute(name = "max-linger-time")
+	private long maxLingerTime;
+
+	/**
+	 * Amount of objects kept in the agent when the CMR is not reachable. Default is
+	 * <code>0</code>, meaning that data is dropped immediately as before the overflow buffer was
+	 * introduced.
+	 */
+	@XmlAttribute(name = "overflow-buffer-size")
+	private int overflowBufferSize;
+
+	/**
+	 * Size in bytes of the memory mapped file in the agent directory where the data is spilled
+	 * when the CMR is not reachable and the overflow buffer is full. Default is <code>0</code>,
+	 * meaning spilling is disabled.
+	 */
+	@XmlAttribute(name = "spill-file-size")
+	private long spillFileSize;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -51,7 +103,18 @@ public class DisruptorStrategyConfig implements IStrategyConfig {
 	 */
 	@Override
 	public Map<String, String> getSettings() {
-		return Collections.singletonMap("bufferSize", String.valueOf(bufferSize));
+		Map<String, String> settings = new HashMap<>(16);
+		settings.put("bufferSize", String.valueOf(bufferSize));
+		if (null != waitStrategy) {
+			settings.put("waitStrategy", waitStrategy.name());
+		}
+		settings.put("pipelinedSending", String.valueOf(pipelinedSending));
+		settings.put("maxBatchSize", String.valueOf(maxBatchSize));
+		settings.put("maxBatchBytes", String.valueOf(maxBatchBytes));
+		settings.put("maxLingerTime", String.valueOf(maxLingerTime));
+		settings.put("overflowBufferSize", String.valueOf(overflowBufferSize));
+		settings.put("spillFileSize", String.valueOf(spillFileSize));
+		return settings;
 	}
 
 	/**
@@ -94,6 +157,139 @@ public class DisruptorStrategyConfig implements IStrategyConfig {
 		this.bufferSize = checkPowerOfTwo(bufferSize, DEFAULT_BUFFER_SIZE);
 	}
 
+	/**
+	 * Gets {@link #waitStrategy}.
+	 *
+	 * @return {@link #waitStrategy}
+	 */
+	public WaitStrategy getWaitStrategy() {
+		return this.waitStrategy;
+	}
+
+	/**
+	 * Sets {@link #waitStrategy}.
+	 *
+	 * @param waitStrategy
+	 *            New value for {@link #waitStrategy}
+	 */
+	public void setWaitStrategy(WaitStrategy waitStrategy) {
+		this.waitStrategy = waitStrategy;
+	}
+
+	/**
+	 * Gets {@link #pipelinedSending}.
+	 *
+	 * @return {@link #pipelinedSending}
+	 */
+	public boolean isPipelinedSending() {
+		return this.pipelinedSending;
+	}
+
+	/**
+	 * Sets {@link #pipelinedSending}.
+	 *
+	 * @param pipelinedSending
+	 *            New value for {@link #pipelinedSending}
+	 */
+	public void setPipelinedSending(boolean pipelinedSending) {
+		this.pipelinedSending = pipelinedSending;
+	}
+
+	/**
+	 * Gets {@link #maxBatchSize}.
+	 *
+	 * @return {@link #maxBatchSize}
+	 */
+	public int getMaxBatchSize() {
+		return this.maxBatchSize;
+	}
+
+	/**
+	 * Sets {@link #maxBatchSize}.
+	 *
+	 * @param maxBatchSize
+	 *            New value for {@link #maxBatchSize}
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Gets {@link #maxBatchBytes}.
+	 *
+	 * @return {@link #maxBatchBytes}
+	 */
+	public long getMaxBatchBytes() {
+		return this.maxBatchBytes;
+	}
+
+	/**
+	 * Sets {@link #maxBatchBytes}.
+	 *
+	 * @param maxBatchBytes
+	 *            New value for {@link #maxBatchBytes}
+	 */
+	public void setMaxBatchBytes(long maxBatchBytes) {
+		this.maxBatchBytes = maxBatchBytes;
+	}
+
+	/**
+	 * Gets {@link #maxLingerTime}.
+	 *
+	 * @return {@link #maxLingerTime}
+	 */
+	public long getMaxLingerTime() {
+		return this.maxLingerTime;
+	}
+
+	/**
+	 * Sets {@link #maxLingerTime}.
+	 *
+	 * @param maxLingerTime
+	 *            New value for {@link #maxLingerTime}
+	 */
+	public void setMaxLingerTime(long maxLingerTime) {
+		this.maxLingerTime = maxLingerTime;
+	}
+
+	/**
+	 * Gets {@link #overflowBufferSize}.
+	 *
+	 * @return {@link #overflowBufferSize}
+	 */
+	public int getOverflowBufferSize() {
+		return this.overflowBufferSize;
+	}
+
+	/**
+	 * Sets {@link #overflowBufferSize}.
+	 *
+	 * @param overflowBufferSize
+	 *            New value for {@link #overflowBufferSize}
+	 */
+	public void setOverflowBufferSize(int overflowBufferSize) {
+		this.overflowBufferSize = overflowBufferSize;
+	}
+
+	/**
+	 * Gets {@link #spillFileSize}.
+	 *
+	 * @return {@link #spillFileSize}
+	 */
+	public long getSpillFileSize() {
+		return this.spillFileSize;
+	}
+
+	/**
+	 * Sets {@link #spillFileSize}.
+	 *
+	 * @param spillFileSize
+	 *            New value for {@link #spillFileSize}
+	 */
+	public void setSpillFileSize(long spillFileSize) {
+		this.spillFileSize = spillFileSize;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -102,6 +298,13 @@ public class DisruptorStrategyConfig implements IStrategyConfig {
 		final int prime = 31;
 		int result = 1;
 		result = (prime * result) + this.bufferSize;
+		result = (prime * result) + ((this.waitStrategy == null) ? 0 : this.waitStrategy.hashCode());
+		result = (prime * result) + (this.pipelinedSending ? 1231 : 1237);
+		result = (prime * result) + this.maxBatchSize;
+		result = (prime * result) + (int) (this.maxBatchBytes ^ (this.maxBatchBytes >>> 32));
+		result = (prime * result) + (int) (this.maxLingerTime ^ (this.maxLingerTime >>> 32));
+		result = (prime * result) + this.overflowBufferSize;
+		result = (prime * result) + (int) (this.spillFileSize ^ (this.spillFileSize >>> 32));
 		return result;
 	}
 
@@ -123,6 +326,27 @@ public class DisruptorStrategyConfig implements IStrategyConfig {
 		if (this.bufferSize != other.bufferSize) {
 			return false;
 		}
+		if (this.waitStrategy != other.waitStrategy) {
+			return false;
+		}
+		if (this.pipelinedSending != other.pipelinedSending) {
+			return false;
+		}
+		if (this.maxBatchSize != other.maxBatchSize) {
+			return false;
+		}
+		if (this.maxBatchBytes != other.maxBatchBytes) {
+			return false;
+		}
+		if (this.maxLingerTime != other.maxLingerTime) {
+			return false;
+		}
+		if (this.overflowBufferSize != other.overflowBufferSize) {
+			return false;
+		}
+		if (this.spillFileSize != other.spillFileSize) {
+			return false;
+		}
 		return true;
 	}
 
@@ -131,7 +355,39 @@ public class DisruptorStrategyConfig implements IStrategyConfig {
 	 */
 	@Override
 	public String toString() {
-		return "DisruptorStrategyConfig [bufferSize=" + this.bufferSize + "]";
+		return "DisruptorStrategyConfig [bufferSize=" + this.bufferSize + ", waitStrategy=" + this.waitStrategy + ", pipelinedSending=" + this.pipelinedSending + ", maxBatchSize=" + this.maxBatchSize
+				+ ", maxBatchBytes=" + this.maxBatchBytes + ", maxLingerTime=" + this.maxLingerTime + ", overflowBufferSize=" + this.overflowBufferSize
+				+ ", spillFileSize=" + this.spillFileSize + "]";
+	}
+
+	/**
+	 * Wait strategies of the disruptor consumer. Names must match the wait strategy types defined
+	 * in the agent.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	public enum WaitStrategy {
+
+		/**
+		 * Lock based, lowest CPU usage.
+		 */
+		BLOCKING,
+
+		/**
+		 * Spins, yields and then parks, low CPU usage when idle.
+		 */
+		SLEEPING,
+
+		/**
+		 * Spins and yields, low latency.
+		 */
+		YIELDING,
+
+		/**
+		 * Busy spinning, lowest latency but occupies one core.
+		 */
+		BUSY_SPIN;
 	}
 
 }
@@ -89,6 +89,7 @@ public class ExceptionDataAggregator implements IAggregator<ExceptionSensorData>
 		}
 		if (exceptionAggregationType == ExceptionAggregationType.DISTINCT_STACK_TRACES) {
 			clone.setStackTrace(getCorrectStackTrace(exceptionData.getStackTrace()));
+			clone.setFingerprint(exceptionData.getFingerprint());
 		}
 		return clone;
 	}
@@ -111,14 +112,23 @@ public class ExceptionDataAggregator implements IAggregator<ExceptionSensorData>
 		} else if (exceptionAggregationType == ExceptionAggregationType.DISTINCT_STACK_TRACES) {
 			int result = 0;
 			result = (prime * result) + ((exceptionSensorData.getErrorMessage() == null) ? 0 : exceptionSensorData.getErrorMessage().hashCode());
-			result = (prime * result) + ((exceptionSensorData.getStackTrace() == null) ? 0 : getCorrectStackTrace(exceptionSensorData.getStackTrace()).hashCode());
+			if (null != exceptionSensorData.getStackTrace()) {
+				result = (prime * result) + getCorrectStackTrace(exceptionSensorData.getStackTrace()).hashCode();
+			} else {
+				// stack trace could not be restored for the deduplicated data, so at least keep the
+				// data with different fingerprints apart
+				long fingerprint = exceptionSensorData.getFingerprint();
+				result = (prime * result) + (int) (fingerprint ^ (fingerprint >>> 32));
+			}
 			return result;
 		}
 		return 0;
 	}
 
 	/**
-	 * Returns the stack trace starting at the first line where the method trace starts.
+	 * Returns the stack trace starting at the first line where the method trace starts. The stack
+	 * trace that already starts with the method trace is returned as it is, as the aggregated data
+	 * is aggregated again when the results of the tree components are merged.
 	 *
 	 * @param stackTrace
 	 *            Original stack trace.
@@ -127,6 +137,8 @@ public class ExceptionDataAggregator implements IAggregator<ExceptionSensorData>
 	private String getCorrectStackTrace(String stackTrace) {
 		if (null == stackTrace) {
 			return null;
+		} else if (stackTrace.startsWith("\tat")) {
+			return stackTrace;
 		} else {
 			int index = stackTrace.indexOf("\n\tat");
 			if (index >= 0) {
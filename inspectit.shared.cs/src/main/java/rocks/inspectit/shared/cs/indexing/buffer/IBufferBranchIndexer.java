@@ -1,5 +1,6 @@
 package rocks.inspectit.shared.cs.indexing.buffer;
 
+import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.cs.indexing.indexer.IBranchIndexer;
 
 /**
@@ -10,14 +11,16 @@ import rocks.inspectit.shared.cs.indexing.indexer.IBranchIndexer;
  * @param <E>
  *            Type of the elements indexed.
  */
-public interface IBufferBranchIndexer<E> extends IBranchIndexer<E> {
+public interface IBufferBranchIndexer<E extends DefaultData> extends IBranchIndexer<E> {
 
 	/**
 	 * Returns the correct {@link IBufferTreeComponent} for the next level.
 	 *
+	 * @param element
+	 *            Element that will be the first one put into the component.
 	 * @return Next tree component.
 	 */
-	IBufferTreeComponent<E> getNextTreeComponent();
+	IBufferTreeComponent<E> getNextTreeComponent(E element);
 
 	/**
 	 * Returns the child indexer.
@@ -1,8 +1,15 @@
 package rocks.inspectit.shared.cs.indexing.buffer;
 
+import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
 import rocks.inspectit.shared.cs.indexing.ITreeComponent;
+import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
 
 /**
@@ -13,7 +20,7 @@ import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
  * @param <E>
  *            Type of the elements indexed.
  */
-public interface IBufferTreeComponent<E> extends ITreeComponent<E, E> {
+public interface IBufferTreeComponent<E extends DefaultData> extends ITreeComponent<E, E> {
 
 	/**
 	 * Cleans the indexing tree by submitting the {@link Runnable} to the provided
@@ -54,4 +61,44 @@ public interface IBufferTreeComponent<E> extends ITreeComponent<E, E> {
 	 */
 	long getNumberOfElements();
 
+	/**
+	 * Passes all elements that satisfy the query to the given {@link AggregationPerformer}. The
+	 * elements are aggregated directly, without creating the list of elements first.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param aggregationPerformer
+	 *            {@link AggregationPerformer} to process the elements with.
+	 */
+	void aggregate(IIndexQuery query, AggregationPerformer<E> aggregationPerformer);
+
+	/**
+	 * Returns the aggregated elements that satisfy the query. Uses Join&Fork, each leaf aggregates
+	 * its elements and the partial results are merged up the tree.
+	 * <p>
+	 * The partial results are aggregated again with the given aggregator, thus the aggregator must
+	 * be able to aggregate its own aggregation results (like the aggregators of the
+	 * {@link rocks.inspectit.shared.all.communication.IIdsAwareAggregatedData} types do).
+	 *
+	 * @param query
+	 *            Query.
+	 * @param aggregator
+	 *            {@link IAggregator} to use.
+	 * @param forkJoinPool
+	 *            The Pool which starts and manages the forks
+	 * @return List of aggregated elements, or empty list if nothing is found.
+	 */
+	List<E> aggregate(IIndexQuery query, IAggregator<E> aggregator, ForkJoinPool forkJoinPool);
+
+	/**
+	 * Creates a fitting task that aggregates the elements satisfying the query.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param aggregator
+	 *            {@link IAggregator} to use.
+	 * @return Task.
+	 */
+	RecursiveTask<List<E>> getTaskForForkJoinAggregation(IIndexQuery query, IAggregator<E> aggregator);
+
 }
@@ -0,0 +1,66 @@
+package rocks.inspectit.shared.cs.indexing.buffer.impl;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.cs.indexing.LeafTask;
+import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
+import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
+
+/**
+ * Aggregating version of the {@link LeafTask}. Returns the aggregated objects of the commited leaf.
+ *
+ * @author Ivan Senic
+ *
+ * @param <E>
+ *            Type of the element that can be indexed by the leaf.
+ */
+@SuppressWarnings("serial")
+public class AggregatingLeafTask<E extends DefaultData> extends RecursiveTask<List<E>> {
+
+	/**
+	 * The given leaf.
+	 */
+	private IBufferTreeComponent<E> leaf;
+
+	/**
+	 * The given query.
+	 */
+	private IIndexQuery query;
+
+	/**
+	 * Aggregator to use.
+	 */
+	private IAggregator<E> aggregator;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param leaf
+	 *            leaf
+	 * @param query
+	 *            query
+	 * @param aggregator
+	 *            aggregator
+	 */
+	public AggregatingLeafTask(IBufferTreeComponent<E> leaf, IIndexQuery query, IAggregator<E> aggregator) {
+		this.leaf = leaf;
+		this.query = query;
+		this.aggregator = aggregator;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Aggregates the elements of the leaf.
+	 */
+	@Override
+	protected List<E> compute() {
+		AggregationPerformer<E> aggregationPerformer = new AggregationPerformer<>(aggregator);
+		leaf.aggregate(query, aggregationPerformer);
+		return aggregationPerformer.getResultList();
+	}
+}
@@ -0,0 +1,84 @@
+package rocks.inspectit.shared.cs.indexing.buffer.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.cs.indexing.QueryTask;
+import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
+import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
+
+/**
+ * Aggregating version of the {@link QueryTask}. Creates new aggregating tasks for each branch and
+ * merges the partial aggregation results of the branches as they are joined, so that the list of
+ * all the matching elements is never created.
+ *
+ * @author Ivan Senic
+ *
+ * @param <E>
+ *            Type of the element that can be indexed by the branch.
+ */
+@SuppressWarnings("serial")
+public class AggregatingQueryTask<E extends DefaultData> extends RecursiveTask<List<E>> {
+
+	/**
+	 * The given query.
+	 */
+	private IIndexQuery query;
+
+	/**
+	 * Aggregator to use.
+	 */
+	private IAggregator<E> aggregator;
+
+	/**
+	 * The branches, which have to be queried.
+	 */
+	private Collection<? extends IBufferTreeComponent<E>> branchesToQuery;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param branchesToQuery
+	 *            The branches, which have to be queried.
+	 * @param query
+	 *            the given query
+	 * @param aggregator
+	 *            aggregator
+	 */
+	public AggregatingQueryTask(Collection<? extends IBufferTreeComponent<E>> branchesToQuery, IIndexQuery query, IAggregator<E> aggregator) {
+		this.query = query;
+		this.aggregator = aggregator;
+		this.branchesToQuery = branchesToQuery;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Forks all subbranches and merges their aggregation results.
+	 */
+	@Override
+	protected List<E> compute() {
+		List<RecursiveTask<List<E>>> forks = new ArrayList<>();
+		for (IBufferTreeComponent<E> component : branchesToQuery) {
+			RecursiveTask<List<E>> task = component.getTaskForForkJoinAggregation(query, aggregator);
+			forks.add(task);
+			task.fork();
+		}
+
+		// single branch result does not have to be merged
+		if (forks.size() == 1) {
+			return forks.get(0).join();
+		}
+
+		AggregationPerformer<E> aggregationPerformer = new AggregationPerformer<>(aggregator);
+		for (RecursiveTask<List<E>> fork : forks) {
+			aggregationPerformer.processCollection(fork.join());
+		}
+		return aggregationPerformer.getResultList();
+	}
+}
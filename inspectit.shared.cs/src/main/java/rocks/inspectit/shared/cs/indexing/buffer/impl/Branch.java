@@ -1,12 +1,18 @@
 package rocks.inspectit.shared.cs.indexing.buffer.impl;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
 import rocks.inspectit.shared.cs.indexing.AbstractBranch;
 import rocks.inspectit.shared.cs.indexing.ITreeComponent;
+import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferBranchIndexer;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
 
@@ -42,7 +48,7 @@ public class Branch<E extends DefaultData> extends AbstractBranch<E, E> implemen
 	 */
 	@Override
 	protected ITreeComponent<E, E> getNextTreeComponent(E element) {
-		return bufferBranchIndexer.getNextTreeComponent();
+		return bufferBranchIndexer.getNextTreeComponent(element);
 	}
 
 	/**
@@ -119,6 +125,49 @@ public class Branch<E extends DefaultData> extends AbstractBranch<E, E> implemen
 		return sum;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void aggregate(IIndexQuery query, AggregationPerformer<E> aggregationPerformer) {
+		for (IBufferTreeComponent<E> treeComponent : getBufferComponentsToQuery(query)) {
+			treeComponent.aggregate(query, aggregationPerformer);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<E> aggregate(IIndexQuery query, IAggregator<E> aggregator, ForkJoinPool forkJoinPool) {
+		return forkJoinPool.invoke(getTaskForForkJoinAggregation(query, aggregator));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RecursiveTask<List<E>> getTaskForForkJoinAggregation(IIndexQuery query, IAggregator<E> aggregator) {
+		return new AggregatingQueryTask<>(getBufferComponentsToQuery(query), query, aggregator);
+	}
+
+	/**
+	 * Returns the {@link IBufferTreeComponent}s that need to be queried for the given query.
+	 *
+	 * @param query
+	 *            Query.
+	 * @return {@link IBufferTreeComponent}s to query.
+	 */
+	private List<IBufferTreeComponent<E>> getBufferComponentsToQuery(IIndexQuery query) {
+		List<IBufferTreeComponent<E>> components = new ArrayList<>();
+		for (ITreeComponent<E, E> treeComponent : getBranchesToQuery(query)) {
+			if (treeComponent instanceof IBufferTreeComponent) {
+				components.add((IBufferTreeComponent<E>) treeComponent);
+			}
+		}
+		return components;
+	}
+
 	/**
 	 * @return the bufferBranchIndexer
 	 */
@@ -1,5 +1,10 @@
 package rocks.inspectit.shared.cs.indexing.buffer.impl;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.apache.commons.lang.builder.ToStringBuilder;
 
 import rocks.inspectit.shared.all.communication.DefaultData;
@@ -11,6 +16,11 @@ import rocks.inspectit.shared.cs.indexing.indexer.IBranchIndexer;
 /**
  * Implementation of branch indexer for the {@link IBufferTreeComponent}. This indexer is delegating
  * generation of the indexing keys to the {@link IBranchIndexer}.
+ * <p>
+ * When the indexer has no child indexer it creates the {@link Leaf}s. For each type of the elements
+ * the secondary indexers can be defined with {@link #addSecondaryIndexer(Class, IBranchIndexer)},
+ * the leafs created for the elements of the type will have the secondary indexes with the keys of
+ * these indexers.
  *
  * @author Ivan Senic
  *
@@ -29,6 +39,11 @@ public class BufferBranchIndexer<E extends DefaultData> implements IBufferBranch
 	 */
 	private BufferBranchIndexer<E> childBufferIndexer;
 
+	/**
+	 * Secondary indexers of the leafs by the type of the elements.
+	 */
+	private Map<Class<?>, List<IBranchIndexer<E>>> secondaryIndexers = new HashMap<>();
+
 	/**
 	 * Default constructor.
 	 *
@@ -91,6 +106,7 @@ public class BufferBranchIndexer<E extends DefaultData> implements IBufferBranch
 	public IBufferBranchIndexer<E> getNewInstance() {
 		if (!sharedInstance()) {
 			BufferBranchIndexer<E> bufferBranchIndexer = new BufferBranchIndexer<>(delegateIndexer.getNewInstance(), childBufferIndexer);
+			bufferBranchIndexer.secondaryIndexers = secondaryIndexers;
 			return bufferBranchIndexer;
 		} else {
 			throw new UnsupportedOperationException("Method getNewInstance() called on the Indexer that has a shared instance.");
@@ -101,7 +117,7 @@ public class BufferBranchIndexer<E extends DefaultData> implements IBufferBranch
 	 * {@inheritDoc}
 	 */
 	@Override
-	public IBufferTreeComponent<E> getNextTreeComponent() {
+	public IBufferTreeComponent<E> getNextTreeComponent(E element) {
 		if (null != childBufferIndexer) {
 			if (childBufferIndexer.sharedInstance()) {
 				return new Branch<>(childBufferIndexer);
@@ -109,8 +125,39 @@ public class BufferBranchIndexer<E extends DefaultData> implements IBufferBranch
 				return new Branch<>(childBufferIndexer.getNewInstance());
 			}
 		} else {
-			return new Leaf<>();
+			List<IBranchIndexer<E>> indexers = secondaryIndexers.get(element.getClass());
+			if (null == indexers) {
+				return new Leaf<>();
+			}
+
+			List<IBranchIndexer<E>> leafIndexers = new ArrayList<>(indexers.size());
+			for (IBranchIndexer<E> indexer : indexers) {
+				if (indexer.sharedInstance()) {
+					leafIndexers.add(indexer);
+				} else {
+					leafIndexers.add(indexer.getNewInstance());
+				}
+			}
+			return new Leaf<>(leafIndexers);
+		}
+	}
+
+	/**
+	 * Adds the secondary indexer for the leafs holding the elements of the given type. Has effect
+	 * only if this indexer has no child indexer, thus creates the leafs.
+	 *
+	 * @param elementClass
+	 *            Type of the elements. Only the elements of exactly this class are indexed.
+	 * @param secondaryIndexer
+	 *            Indexer creating the keys of the secondary index.
+	 */
+	public void addSecondaryIndexer(Class<?> elementClass, IBranchIndexer<E> secondaryIndexer) {
+		List<IBranchIndexer<E>> indexers = secondaryIndexers.get(elementClass);
+		if (null == indexers) {
+			indexers = new ArrayList<>();
+			secondaryIndexers.put(elementClass, indexers);
 		}
+		indexers.add(secondaryIndexer);
 	}
 
 	/**
@@ -129,6 +176,7 @@ public class BufferBranchIndexer<E extends DefaultData> implements IBufferBranch
 	public String toString() {
 		ToStringBuilder toStringBuilder = new ToStringBuilder(this);
 		toStringBuilder.append("delegateIndexer", delegateIndexer);
+		toStringBuilder.append("secondaryIndexers", secondaryIndexers);
 		return toStringBuilder.toString();
 	}
 
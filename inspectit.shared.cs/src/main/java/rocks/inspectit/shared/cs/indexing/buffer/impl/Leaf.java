@@ -3,13 +3,17 @@ package rocks.inspectit.shared.cs.indexing.buffer.impl;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.RecursiveTask;
 
+import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.cliffc.high_scale_lib.NonBlockingHashMapLong;
 
@@ -17,10 +21,17 @@ import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.indexing.IIndexQuery;
 import rocks.inspectit.shared.cs.indexing.LeafTask;
+import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
+import rocks.inspectit.shared.cs.indexing.indexer.IBranchIndexer;
 
 /**
  * Leaf class is the one that holds the weak references to objects, thus last in tree structure.
+ * <p>
+ * The leaf can have {@link SecondaryIndex}es. When querying, the index that selects the least
+ * elements for the query is used, if none of the indexes can be used for the query all elements of
+ * the leaf are checked.
  *
  * @author Ivan Senic
  *
@@ -39,6 +50,11 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	 */
 	private ReferenceQueue<E> referenceQueue;
 
+	/**
+	 * Secondary indexes of the leaf.
+	 */
+	private List<SecondaryIndex<E>> secondaryIndexes;
+
 	/**
 	 * Clear runnable for this Leaf.
 	 */
@@ -58,8 +74,22 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	 * Default constructor.
 	 */
 	public Leaf() {
+		this(Collections.<IBranchIndexer<E>> emptyList());
+	}
+
+	/**
+	 * Constructor that creates the leaf with the secondary indexes.
+	 *
+	 * @param secondaryIndexers
+	 *            Indexers creating the keys of the secondary indexes.
+	 */
+	public Leaf(List<IBranchIndexer<E>> secondaryIndexers) {
 		map = new NonBlockingHashMapLong<>();
 		referenceQueue = new ReferenceQueue<>();
+		secondaryIndexes = new ArrayList<>(secondaryIndexers.size());
+		for (IBranchIndexer<E> secondaryIndexer : secondaryIndexers) {
+			secondaryIndexes.add(new SecondaryIndex<>(secondaryIndexer));
+		}
 	}
 
 	/**
@@ -68,6 +98,13 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	@Override
 	public E put(E element) {
 		CustomWeakReference<E> weakReference = new CustomWeakReference<>(element, referenceQueue);
+		if (!secondaryIndexes.isEmpty()) {
+			Object[] secondaryKeys = new Object[secondaryIndexes.size()];
+			for (int i = 0; i < secondaryKeys.length; i++) {
+				secondaryKeys[i] = secondaryIndexes.get(i).put(element, element.getId());
+			}
+			weakReference.setSecondaryKeys(secondaryKeys);
+		}
 		map.put(element.getId(), weakReference);
 		return element;
 	}
@@ -81,7 +118,7 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 		WeakReference<E> weakReference = map.get(id);
 		if (null != weakReference) {
 			if (null == weakReference.get()) {
-				map.remove(id);
+				removeFromSecondaryIndexes(map.remove(id));
 				return null;
 			}
 			return weakReference.get();
@@ -99,11 +136,11 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 		WeakReference<E> weakReference = map.get(id);
 		if (null != weakReference) {
 			if (null == weakReference.get()) {
-				map.remove(id);
+				removeFromSecondaryIndexes(map.remove(id));
 				return null;
 			} else {
 				E result = weakReference.get();
-				map.remove(id);
+				removeFromSecondaryIndexes(map.remove(id));
 				return result;
 			}
 		} else {
@@ -117,7 +154,7 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	@Override
 	public List<E> query(IIndexQuery query) {
 		List<E> results = new ArrayList<>();
-		Iterator<CustomWeakReference<E>> iterator = map.values().iterator();
+		Iterator<CustomWeakReference<E>> iterator = getReferencesToQuery(query).iterator();
 		while (iterator.hasNext()) {
 			WeakReference<E> weakReference = iterator.next();
 			if (null != weakReference) {
@@ -138,6 +175,29 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 		return forkJoinPool.invoke(getTaskForForkJoinQuery(query));
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void aggregate(IIndexQuery query, AggregationPerformer<E> aggregationPerformer) {
+		for (WeakReference<E> weakReference : getReferencesToQuery(query)) {
+			if (null != weakReference) {
+				E element = weakReference.get();
+				if ((null != element) && element.isQueryComplied(query)) {
+					aggregationPerformer.processElement(element);
+				}
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<E> aggregate(IIndexQuery query, IAggregator<E> aggregator, ForkJoinPool forkJoinPool) {
+		return forkJoinPool.invoke(getTaskForForkJoinAggregation(query, aggregator));
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -153,6 +213,15 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 		// for each CustomWeakReference in a map
 		size += map.size() * objectSizes.getSizeOfCustomWeakReference();
 
+		if (!secondaryIndexes.isEmpty()) {
+			size += objectSizes.getSizeOf(secondaryIndexes);
+			// keys array in each CustomWeakReference
+			size += mapSize * objectSizes.getSizeOfArray(secondaryIndexes.size());
+			for (SecondaryIndex<E> secondaryIndex : secondaryIndexes) {
+				size += secondaryIndex.getSize(objectSizes);
+			}
+		}
+
 		return size;
 		// the size of the reference queue, runnable and future and not included, because they are
 		// simply to small and its size is constant and does not depend on the number of elements in
@@ -165,14 +234,15 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	@Override
 	@SuppressWarnings("unchecked")
 	public boolean clean() {
-		List<Long> toClean = new ArrayList<>();
+		List<CustomWeakReference<E>> toClean = new ArrayList<>();
 		CustomWeakReference<E> customWeakReference = (CustomWeakReference<E>) referenceQueue.poll();
 		while (customWeakReference != null) {
-			toClean.add(customWeakReference.getReferentId());
+			toClean.add(customWeakReference);
 			customWeakReference = (CustomWeakReference<E>) referenceQueue.poll();
 		}
-		for (Object key : toClean) {
-			map.remove(key);
+		for (CustomWeakReference<E> reference : toClean) {
+			map.remove(reference.getReferentId());
+			removeFromSecondaryIndexes(reference);
 		}
 		if (map.isEmpty()) {
 			return true;
@@ -194,6 +264,9 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	@Override
 	public void clearAll() {
 		map.clear();
+		for (SecondaryIndex<E> secondaryIndex : secondaryIndexes) {
+			secondaryIndex.clear();
+		}
 	}
 
 	/**
@@ -214,6 +287,68 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 		return map.isEmpty();
 	}
 
+	/**
+	 * Returns the references that need to be checked for the query. If any of the secondary
+	 * indexes can be used for the query, the references of the index that selects the least
+	 * elements are returned. Otherwise all references in the leaf are returned.
+	 *
+	 * @param query
+	 *            Query.
+	 * @return References to check.
+	 */
+	private Collection<CustomWeakReference<E>> getReferencesToQuery(IIndexQuery query) {
+		SecondaryIndex<E> selectedIndex = null;
+		Object[] selectedKeys = null;
+		long selectedCount = map.size();
+		for (SecondaryIndex<E> secondaryIndex : secondaryIndexes) {
+			Object[] keys = secondaryIndex.getKeys(query);
+			if (ArrayUtils.isNotEmpty(keys)) {
+				long count = secondaryIndex.getNumberOfElements(keys);
+				if (count < selectedCount) {
+					selectedIndex = secondaryIndex;
+					selectedKeys = keys;
+					selectedCount = count;
+				}
+			}
+		}
+
+		if (null == selectedIndex) {
+			return map.values();
+		}
+
+		List<CustomWeakReference<E>> references = new ArrayList<>((int) selectedCount);
+		for (Object key : selectedKeys) {
+			Set<Long> ids = selectedIndex.getIds(key);
+			if (null != ids) {
+				for (Long id : ids) {
+					CustomWeakReference<E> reference = map.get(id.longValue());
+					if (null != reference) {
+						references.add(reference);
+					}
+				}
+			}
+		}
+		return references;
+	}
+
+	/**
+	 * Removes the element of the reference from the secondary indexes.
+	 *
+	 * @param reference
+	 *            Reference removed from the leaf, can be <code>null</code>.
+	 */
+	private void removeFromSecondaryIndexes(CustomWeakReference<E> reference) {
+		if ((null == reference) || (null == reference.getSecondaryKeys())) {
+			return;
+		}
+		Object[] secondaryKeys = reference.getSecondaryKeys();
+		for (int i = 0; i < secondaryKeys.length; i++) {
+			if (null != secondaryKeys[i]) {
+				secondaryIndexes.get(i).remove(secondaryKeys[i], reference.getReferentId());
+			}
+		}
+	}
+
 	/**
 	 * Custom extension of {@link WeakReference} that will additionally hold the id of the referent
 	 * {@link DefaultData} object.
@@ -229,6 +364,12 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 		 */
 		private long referentId;
 
+		/**
+		 * Keys of the referent in the secondary indexes of the leaf, <code>null</code> if leaf has
+		 * no secondary indexes.
+		 */
+		private Object[] secondaryKeys;
+
 		/**
 		 * Default constructor.
 		 *
@@ -250,6 +391,25 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 			return referentId;
 		}
 
+		/**
+		 * Gets {@link #secondaryKeys}.
+		 *
+		 * @return {@link #secondaryKeys}
+		 */
+		public Object[] getSecondaryKeys() {
+			return secondaryKeys;
+		}
+
+		/**
+		 * Sets {@link #secondaryKeys}.
+		 *
+		 * @param secondaryKeys
+		 *            New value for {@link #secondaryKeys}
+		 */
+		public void setSecondaryKeys(Object[] secondaryKeys) {
+			this.secondaryKeys = secondaryKeys;
+		}
+
 	}
 
 	/**
@@ -259,6 +419,7 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	public String toString() {
 		ToStringBuilder toStringBuilder = new ToStringBuilder(this);
 		toStringBuilder.append("elementsMap", map);
+		toStringBuilder.append("secondaryIndexes", secondaryIndexes);
 		return toStringBuilder.toString();
 	}
 
@@ -269,4 +430,12 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	public RecursiveTask<List<E>> getTaskForForkJoinQuery(IIndexQuery query) {
 		return new LeafTask<>(this, query);
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RecursiveTask<List<E>> getTaskForForkJoinAggregation(IIndexQuery query, IAggregator<E> aggregator) {
+		return new AggregatingLeafTask<>(this, query, aggregator);
+	}
 }
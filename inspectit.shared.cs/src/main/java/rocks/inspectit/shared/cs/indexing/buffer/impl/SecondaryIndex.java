@@ -0,0 +1,204 @@
+package rocks.inspectit.shared.cs.indexing.buffer.impl;
+
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.cs.indexing.indexer.IBranchIndexer;
+
+/**
+ * Secondary index of the {@link Leaf}. Maps the keys created by the {@link IBranchIndexer} to the
+ * IDs of the elements in the leaf, so that the leaf can answer the queries the indexer creates the
+ * keys for without iterating all of its elements.
+ * <p>
+ * When the last element of a key is removed from the index (for example when the element is evicted
+ * from the buffer), the key is removed as well, thus the amount of keys is limited by the distinct
+ * values of the indexed property of the elements currently in the leaf.
+ *
+ * @author Ivan Senic
+ *
+ * @param <E>
+ *            Type of the elements indexed.
+ */
+class SecondaryIndex<E> {
+
+	/**
+	 * Indexer creating the keys.
+	 */
+	private final IBranchIndexer<E> indexer;
+
+	/**
+	 * IDs of the elements by the key.
+	 */
+	private final ConcurrentHashMap<Object, Set<Long>> map = new ConcurrentHashMap<>();
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param indexer
+	 *            Indexer creating the keys.
+	 */
+	SecondaryIndex(IBranchIndexer<E> indexer) {
+		this.indexer = indexer;
+	}
+
+	/**
+	 * Adds the element to the index.
+	 *
+	 * @param element
+	 *            Element.
+	 * @param id
+	 *            ID of the element.
+	 * @return Key the element was indexed with or <code>null</code> if indexer can not create the
+	 *         key for the element.
+	 */
+	Object put(E element, long id) {
+		Object key = indexer.getKey(element);
+		if (null == key) {
+			return null;
+		}
+
+		while (true) {
+			Set<Long> ids = map.get(key);
+			if (null == ids) {
+				Set<Long> newIds = ConcurrentHashMap.newKeySet();
+				ids = map.putIfAbsent(key, newIds);
+				if (null == ids) {
+					ids = newIds;
+				}
+			}
+			ids.add(id);
+			// the set could have been removed as empty in the meantime, in this case repeat
+			if (map.get(key) == ids) {
+				return key;
+			}
+		}
+	}
+
+	/**
+	 * Removes the element ID from the index. If no more IDs are indexed with the key, the key is
+	 * removed from the index.
+	 *
+	 * @param key
+	 *            Key the element was indexed with.
+	 * @param id
+	 *            ID of the element.
+	 */
+	void remove(Object key, long id) {
+		Set<Long> ids = map.get(key);
+		if ((null != ids) && ids.remove(id) && ids.isEmpty()) {
+			map.remove(key, ids);
+		}
+	}
+
+	/**
+	 * Returns the keys of the index for the query.
+	 *
+	 * @param query
+	 *            Query.
+	 * @return Keys or empty array if the index can not be used for the query.
+	 */
+	Object[] getKeys(IIndexQuery query) {
+		return indexer.getKeys(query);
+	}
+
+	/**
+	 * Returns the amount of the elements indexed with the given keys.
+	 *
+	 * @param keys
+	 *            Keys.
+	 * @return Amount of elements.
+	 */
+	long getNumberOfElements(Object... keys) {
+		long count = 0;
+		for (Object key : keys) {
+			Set<Long> ids = map.get(key);
+			if (null != ids) {
+				count += ids.size();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the IDs of the elements indexed with the given key.
+	 *
+	 * @param key
+	 *            Key.
+	 * @return IDs or <code>null</code> if nothing was indexed with the key.
+	 */
+	Set<Long> getIds(Object key) {
+		return map.get(key);
+	}
+
+	/**
+	 * Clears the index.
+	 */
+	void clear() {
+		map.clear();
+	}
+
+	/**
+	 * Returns the approximate size of the index in bytes.
+	 *
+	 * @param objectSizes
+	 *            {@link IObjectSizes} to use.
+	 * @return Size in bytes.
+	 */
+	long getSize(IObjectSizes objectSizes) {
+		long size = objectSizes.getSizeOfObjectHeader();
+		size += objectSizes.getPrimitiveTypesSize(2, 0, 0, 0, 0, 0);
+		size = objectSizes.alignTo8Bytes(size);
+
+		size += objectSizes.getSizeOfConcurrentHashMap(map.size());
+		for (Map.Entry<Object, Set<Long>> entry : map.entrySet()) {
+			int idsSize = entry.getValue().size();
+			// key object and the key set view backed by the concurrent hash map
+			size += getSizeOfKey(entry.getKey(), objectSizes);
+			size += objectSizes.alignTo8Bytes(objectSizes.getSizeOfObjectHeader() + objectSizes.getPrimitiveTypesSize(2, 0, 0, 0, 0, 0));
+			size += objectSizes.getSizeOfConcurrentHashMap(idsSize);
+			size += idsSize * objectSizes.getSizeOfLongObject();
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the approximate size of the key object based on the type of the key.
+	 *
+	 * @param key
+	 *            Key.
+	 * @param objectSizes
+	 *            {@link IObjectSizes} to use.
+	 * @return Size in bytes.
+	 */
+	private long getSizeOfKey(Object key, IObjectSizes objectSizes) {
+		if (key instanceof Long) {
+			return objectSizes.getSizeOfLongObject();
+		} else if (key instanceof Integer) {
+			return objectSizes.getSizeOfIntegerObject();
+		} else if (key instanceof String) {
+			return objectSizes.getSizeOf((String) key);
+		} else if (key instanceof Timestamp) {
+			return objectSizes.getSizeOf((Timestamp) key);
+		} else {
+			return objectSizes.getSizeOfObjectObject();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		ToStringBuilder toStringBuilder = new ToStringBuilder(this);
+		toStringBuilder.append("indexer", indexer);
+		toStringBuilder.append("keys", map.size());
+		return toStringBuilder.toString();
+	}
+
+}
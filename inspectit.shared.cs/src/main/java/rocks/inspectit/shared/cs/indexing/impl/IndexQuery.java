@@ -197,9 +197,10 @@ public class IndexQuery implements IIndexQuery {
 	}
 
 	/**
-	 * @return the indexingRestrictionList
+	 * {@inheritDoc}
 	 */
-	protected List<IIndexQueryRestriction> getIndexingRestrictionList() {
+	@Override
+	public List<IIndexQueryRestriction> getIndexingRestrictionList() {
 		return indexingRestrictionList;
 	}
 
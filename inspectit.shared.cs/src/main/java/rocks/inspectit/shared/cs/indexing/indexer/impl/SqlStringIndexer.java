@@ -5,6 +5,7 @@ import rocks.inspectit.shared.all.communication.data.SqlStatementData;
 import rocks.inspectit.shared.all.indexing.IIndexQuery;
 import rocks.inspectit.shared.cs.indexing.indexer.AbstractSharedInstanceBranchIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.IBranchIndexer;
+import rocks.inspectit.shared.cs.indexing.restriction.impl.IndexQueryRestrictionFactory;
 import rocks.inspectit.shared.cs.indexing.storage.impl.StorageIndexQuery;
 
 /**
@@ -68,6 +69,13 @@ public class SqlStringIndexer<E extends DefaultData> extends AbstractSharedInsta
 				return keys;
 			}
 		}
+		// queries restricting the SQL string with the equals restriction
+		Object sql = IndexQueryRestrictionFactory.getEqualRestrictionValue(query.getIndexingRestrictionList(), "sql");
+		if (sql instanceof String) {
+			Object[] keys = new Object[1];
+			keys[0] = getInternalHash(sql.hashCode());
+			return keys;
+		}
 		return new Object[0];
 	}
 
@@ -1,10 +1,16 @@
 package rocks.inspectit.shared.cs.indexing.restriction.impl;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
+import org.apache.commons.lang.ClassUtils;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 
@@ -13,9 +19,10 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 import rocks.inspectit.shared.cs.indexing.restriction.IIndexQueryRestrictionProcessor;
 
 /**
- * This restriction processor caches the methods of each class that needs to be invoke. It also
- * marks in the cache all method that do not exist for specific class and an attempt to find them
- * was made.
+ * This restriction processor caches the getters of each class that needs to be invoked. The getter
+ * methods are compiled to {@link Function}s with the {@link LambdaMetafactory} once per class and
+ * method name, thus checking the restriction does not use the reflection. It also marks in the
+ * cache all methods that do not exist for specific class and an attempt to find them was made.
  *
  * @author Ivan Senic
  *
@@ -24,33 +31,30 @@ import rocks.inspectit.shared.cs.indexing.restriction.IIndexQueryRestrictionProc
 public class CachingIndexQueryRestrictionProcessor implements IIndexQueryRestrictionProcessor {
 
 	/**
-	 * The logger.
+	 * Marker getter for the methods that do not exist.
 	 */
-	@Log
-	Logger log;
-
-	/**
-	 * Map for caching methods.
-	 */
-	private final ConcurrentHashMap<Integer, Method> cacheMap;
+	private static final Function<Object, Object> NO_GETTER = new Function<Object, Object>() {
+		@Override
+		public Object apply(Object object) {
+			return null;
+		}
+	};
 
 	/**
-	 * Marker method.
+	 * The logger.
 	 */
-	private Method markerMethod;
+	@Log
+	Logger log;
 
 	/**
-	 * Default constructor. Sets {@link #markerMethod} to refer to {@link Object#toString()}.
+	 * Compiled getters by the class and the method name.
 	 */
-	public CachingIndexQueryRestrictionProcessor() {
-		cacheMap = new ConcurrentHashMap<>();
-		try {
-			// setting marker method to point to Object.toString()
-			markerMethod = Object.class.getMethod("toString", new Class[0]);
-		} catch (Exception e) {
-			throw new IllegalStateException("Method toString() can not be found", e);
+	private final ClassValue<ConcurrentHashMap<String, Function<Object, Object>>> getters = new ClassValue<ConcurrentHashMap<String, Function<Object, Object>>>() {
+		@Override
+		protected ConcurrentHashMap<String, Function<Object, Object>> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
 		}
-	}
+	};
 
 	/**
 	 * {@inheritDoc}
@@ -81,71 +85,152 @@ public class CachingIndexQueryRestrictionProcessor implements IIndexQueryRestric
 		try {
 			Object executeOn = object;
 			for (String methodName : methodNames) {
-				Method method = getMethod(executeOn, methodName);
-				if (null == method) {
+				if (null == executeOn) {
+					// navigation not possible
 					return false;
 				}
-				executeOn = method.invoke(executeOn, new Object[0]);
+				Function<Object, Object> getter = getGetter(executeOn.getClass(), methodName);
+				if (null == getter) {
+					return false;
+				}
+				executeOn = getter.apply(executeOn);
 			}
 
 			return indexingRestriction.isFulfilled(executeOn);
-		} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+		} catch (RuntimeException e) {
 			log.error("Error in find object to execute indexing restricton check.", e);
 			return false;
 		}
 	}
 
 	/**
-	 * Returns the {@link Method} for the given {@link Object} with the given method name.
+	 * Returns the compiled getter for the given class with the given method name.
 	 *
-	 * @param object
-	 *            Object to find method on.
+	 * @param clazz
+	 *            Class to find method in.
 	 * @param methodName
 	 *            Name of the method.
-	 * @return Method if one can be found.
+	 * @return Getter if the method can be found.
 	 */
-	private Method getMethod(Object object, String methodName) {
-		int cacheKey = getMethodCacheKey(object.getClass(), methodName);
-		Method method = cacheMap.get(cacheKey);
-
-		if (method == null) { // method is not yet in cache
-			try {
-				Method methodFromClass = object.getClass().getMethod(methodName, new Class<?>[0]);
-				Method existing = cacheMap.putIfAbsent(cacheKey, methodFromClass);
-				if (null != existing) {
-					methodFromClass = existing;
-				}
-				return methodFromClass;
-			} catch (NoSuchMethodException e) {
-				// not found, put marker method at this place in map
-				cacheMap.putIfAbsent(cacheKey, markerMethod);
-				return null;
-			} catch (SecurityException | IllegalArgumentException e) {
-				log.error("Error retrieve the method " + methodName + " for the object of class " + object.getClass(), e);
-				return null;
+	private Function<Object, Object> getGetter(Class<?> clazz, String methodName) {
+		ConcurrentHashMap<String, Function<Object, Object>> classGetters = getters.get(clazz);
+		Function<Object, Object> getter = classGetters.get(methodName);
+
+		if (null == getter) { // getter is not yet in cache
+			getter = compileGetter(clazz, methodName);
+			Function<Object, Object> existing = classGetters.putIfAbsent(methodName, getter);
+			if (null != existing) {
+				getter = existing;
 			}
-		} else if (markerMethod.equals(method)) {
+		}
+
+		if (NO_GETTER == getter) {
 			return null;
-		} else {
-			return method;
 		}
+		return getter;
 	}
 
 	/**
-	 * Returns key for the hash map based on the supplied class and method name.
+	 * Compiles the getter for the method with the given name in the class.
 	 *
 	 * @param clazz
-	 *            class
+	 *            Class to find method in.
 	 * @param methodName
-	 *            method name
-	 * @return int key
+	 *            Name of the method.
+	 * @return Compiled getter or {@link #NO_GETTER} if the method can not be found.
 	 */
-	private int getMethodCacheKey(Class<?> clazz, String methodName) {
-		final int prime = 31;
-		int result = 0;
-		result = (prime * result) + ((clazz == null) ? 0 : clazz.hashCode());
-		result = (prime * result) + ((methodName == null) ? 0 : methodName.hashCode());
-		return result;
+	private Function<Object, Object> compileGetter(Class<?> clazz, String methodName) {
+		Method method;
+		MethodHandle methodHandle;
+		try {
+			method = clazz.getMethod(methodName, new Class<?>[0]);
+			methodHandle = MethodHandles.publicLookup().unreflect(method);
+		} catch (NoSuchMethodException e) {
+			// not found, put marker getter at this place in map
+			return NO_GETTER;
+		} catch (SecurityException | IllegalAccessException e) {
+			log.error("Error retrieve the method " + methodName + " for the object of class " + clazz, e);
+			return NO_GETTER;
+		}
+
+		if (Void.TYPE.equals(method.getReturnType())) {
+			return NO_GETTER;
+		}
+
+		if (!isVisible(method.getDeclaringClass())) {
+			return new MethodHandleGetter(methodHandle.asType(MethodType.methodType(Object.class, Object.class)));
+		}
+
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			Class<?> returnType = method.getReturnType().isPrimitive() ? ClassUtils.primitiveToWrapper(method.getReturnType()) : Object.class;
+			MethodType instantiatedType = MethodType.methodType(returnType, method.getDeclaringClass());
+			CallSite callSite = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class), MethodType.methodType(Object.class, Object.class), methodHandle,
+					instantiatedType);
+			@SuppressWarnings("unchecked")
+			Function<Object, Object> getter = (Function<Object, Object>) callSite.getTarget().invokeExact();
+			return getter;
+		} catch (Throwable t) { // NOPMD
+			// the declaring class is not accessible for the generated function, use method handle
+			if (log.isDebugEnabled()) {
+				log.debug("Getter " + methodName + " of the class " + clazz + " can not be compiled, method handle will be used.", t);
+			}
+			return new MethodHandleGetter(methodHandle.asType(MethodType.methodType(Object.class, Object.class)));
+		}
+	}
+
+	/**
+	 * Checks if the class is visible for the class loader of this class, as the compiled getters are
+	 * defined in it.
+	 *
+	 * @param clazz
+	 *            Class to check.
+	 * @return If the class is visible.
+	 */
+	private boolean isVisible(Class<?> clazz) {
+		try {
+			return clazz == Class.forName(clazz.getName(), false, CachingIndexQueryRestrictionProcessor.class.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Getter invoking the method handle, used when the getter can not be compiled.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static class MethodHandleGetter implements Function<Object, Object> {
+
+		/**
+		 * Method handle of type (Object)Object.
+		 */
+		private final MethodHandle methodHandle;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param methodHandle
+		 *            Method handle of type (Object)Object.
+		 */
+		MethodHandleGetter(MethodHandle methodHandle) {
+			this.methodHandle = methodHandle;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Object apply(Object object) {
+			try {
+				return methodHandle.invokeExact(object);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable t) {
+				throw new IllegalStateException(t);
+			}
+		}
 	}
 
 }
@@ -1,6 +1,7 @@
 package rocks.inspectit.shared.cs.indexing.restriction.impl;
 
 import java.util.Collection;
+import java.util.List;
 
 import rocks.inspectit.shared.all.indexing.restriction.IIndexQueryRestriction;
 import rocks.inspectit.shared.cs.indexing.restriction.AbstractIndexQueryRestriction;
@@ -35,6 +36,35 @@ public final class IndexQueryRestrictionFactory {
 		return new EqualsIndexingRestriction(fieldName, restrictionValue);
 	}
 
+	/**
+	 * Returns the restriction value of the equals restriction bounded to the given field. Only the
+	 * restrictions created with {@link #equal(String, Object)} are considered.
+	 *
+	 * @param restrictions
+	 *            Restrictions to search, can be <code>null</code>.
+	 * @param fieldName
+	 *            Name of the field.
+	 * @return Restriction value or <code>null</code> if there is no equals restriction bounded to
+	 *         the given field.
+	 */
+	public static Object getEqualRestrictionValue(Collection<IIndexQueryRestriction> restrictions, String fieldName) {
+		if (null == restrictions) {
+			return null;
+		}
+		List<String> qualifiedMethodNames = null;
+		for (IIndexQueryRestriction restriction : restrictions) {
+			if (restriction instanceof EqualsIndexingRestriction) {
+				if (null == qualifiedMethodNames) {
+					qualifiedMethodNames = new EqualsIndexingRestriction(fieldName, null).getQualifiedMethodNames();
+				}
+				if (qualifiedMethodNames.equals(restriction.getQualifiedMethodNames())) {
+					return ((EqualsIndexingRestriction) restriction).getRestrictionValue();
+				}
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Returns not equals restriction. This restriction will check if the object supplied via
 	 * {@link IIndexQueryRestriction#isFulfilled(Object)} is not equal to the restriction value.
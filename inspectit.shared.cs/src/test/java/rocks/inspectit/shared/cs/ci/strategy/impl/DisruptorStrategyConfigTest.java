@@ -1,12 +1,16 @@
 package rocks.inspectit.shared.cs.ci.strategy.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.is;
 
+import java.util.Map;
+
 import org.mockito.InjectMocks;
 import org.testng.annotations.Test;
 
 import rocks.inspectit.shared.all.testbase.TestBase;
+import rocks.inspectit.shared.cs.ci.strategy.impl.DisruptorStrategyConfig.WaitStrategy;
 
 /**
  * @author Ivan Senic
@@ -47,4 +51,50 @@ public class DisruptorStrategyConfigTest extends TestBase {
 		}
 
 	}
+
+	public static class GetSettings extends DisruptorStrategyConfigTest {
+
+		@Test
+		public void defaults() {
+			Map<String, String> settings = config.getSettings();
+
+			assertThat(settings, hasEntry("bufferSize", String.valueOf(DisruptorStrategyConfig.DEFAULT_BUFFER_SIZE)));
+			assertThat(settings, hasEntry("waitStrategy", "BLOCKING"));
+			assertThat(settings, hasEntry("pipelinedSending", "false"));
+			assertThat(settings, hasEntry("maxBatchSize", "0"));
+			assertThat(settings, hasEntry("maxBatchBytes", "0"));
+			assertThat(settings, hasEntry("maxLingerTime", "0"));
+			assertThat(settings, hasEntry("overflowBufferSize", "0"));
+			assertThat(settings, hasEntry("spillFileSize", "0"));
+		}
+
+		@Test
+		public void batching() {
+			config.setMaxBatchSize(10);
+			config.setMaxBatchBytes(2048L);
+			config.setMaxLingerTime(50L);
+			config.setOverflowBufferSize(4096);
+			config.setSpillFileSize(1024L);
+
+			Map<String, String> settings = config.getSettings();
+
+			assertThat(settings, hasEntry("maxBatchSize", "10"));
+			assertThat(settings, hasEntry("maxBatchBytes", "2048"));
+			assertThat(settings, hasEntry("maxLingerTime", "50"));
+			assertThat(settings, hasEntry("overflowBufferSize", "4096"));
+			assertThat(settings, hasEntry("spillFileSize", "1024"));
+		}
+
+		@Test
+		public void waitStrategyAndPipelined() {
+			config.setWaitStrategy(WaitStrategy.YIELDING);
+			config.setPipelinedSending(true);
+
+			Map<String, String> settings = config.getSettings();
+
+			assertThat(settings, hasEntry("waitStrategy", "YIELDING"));
+			assertThat(settings, hasEntry("pipelinedSending", "true"));
+		}
+
+	}
 }
@@ -4,7 +4,9 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -15,6 +17,8 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferBranchIndexer;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
 import rocks.inspectit.shared.cs.indexing.indexer.IBranchIndexer;
@@ -54,27 +58,53 @@ public class BufferBranchIndexerTest {
 	@SuppressWarnings("unchecked")
 	@Test
 	public void nextTreeComponent() {
+		DefaultData element = new TimerData();
 		// when there is child indexer create branch
 		bufferBranchIndexer = new BufferBranchIndexer<>(delegateIndexer, childBufferIndexer);
 
 		when(childBufferIndexer.sharedInstance()).thenReturn(true);
-		IBufferTreeComponent<DefaultData> component = bufferBranchIndexer.getNextTreeComponent();
+		IBufferTreeComponent<DefaultData> component = bufferBranchIndexer.getNextTreeComponent(element);
 		assertThat(component, is(instanceOf(Branch.class)));
 		assertThat(((Branch<DefaultData>) component).getBufferBranchIndexer(), is((IBufferBranchIndexer<DefaultData>) childBufferIndexer));
 
 		when(childBufferIndexer.sharedInstance()).thenReturn(false);
 		IBufferBranchIndexer<DefaultData> createdChildInstance = mock(IBufferBranchIndexer.class);
 		when(childBufferIndexer.getNewInstance()).thenReturn(createdChildInstance);
-		component = bufferBranchIndexer.getNextTreeComponent();
+		component = bufferBranchIndexer.getNextTreeComponent(element);
 		assertThat(component, is(instanceOf(Branch.class)));
 		assertThat(((Branch<DefaultData>) component).getBufferBranchIndexer(), is(createdChildInstance));
 
 		// when there is not child indexer create leaf
 		bufferBranchIndexer = new BufferBranchIndexer<>(delegateIndexer, null);
-		component = bufferBranchIndexer.getNextTreeComponent();
+		component = bufferBranchIndexer.getNextTreeComponent(element);
 		assertThat(component, is(instanceOf(Leaf.class)));
 	}
 
+	/**
+	 * Tests that the secondary indexers are only used for the defined element type.
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void nextTreeComponentSecondaryIndexer() throws Exception {
+		IBranchIndexer<DefaultData> secondaryIndexer = mock(IBranchIndexer.class);
+		when(secondaryIndexer.sharedInstance()).thenReturn(true);
+		when(secondaryIndexer.getKey(any(DefaultData.class))).thenReturn(1L);
+		bufferBranchIndexer = new BufferBranchIndexer<>(delegateIndexer, null);
+		bufferBranchIndexer.addSecondaryIndexer(TimerData.class, secondaryIndexer);
+
+		IBufferTreeComponent<DefaultData> component = bufferBranchIndexer.getNextTreeComponent(new SqlStatementData());
+		assertThat(component, is(instanceOf(Leaf.class)));
+		SqlStatementData sqlStatementData = new SqlStatementData();
+		component.put(sqlStatementData);
+		verify(secondaryIndexer, never()).getKey(any(DefaultData.class));
+
+		component = bufferBranchIndexer.getNextTreeComponent(new TimerData());
+		assertThat(component, is(instanceOf(Leaf.class)));
+		TimerData timerData = new TimerData();
+		component.put(timerData);
+		verify(secondaryIndexer).getKey(timerData);
+	}
+
 	/**
 	 * Test creation of new instance.
 	 */
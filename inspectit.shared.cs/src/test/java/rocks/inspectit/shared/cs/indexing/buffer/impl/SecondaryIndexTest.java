@@ -0,0 +1,92 @@
+package rocks.inspectit.shared.cs.indexing.buffer.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.cs.indexing.indexer.impl.MethodIdentIndexer;
+import rocks.inspectit.shared.cs.indexing.indexer.impl.SqlStringIndexer;
+
+/**
+ * Test for the {@link SecondaryIndex} class.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class SecondaryIndexTest {
+
+	/**
+	 * Tests that the key is removed when the last ID of the key is removed.
+	 */
+	@Test
+	public void keyRemovedWithLastId() {
+		SecondaryIndex<TimerData> secondaryIndex = new SecondaryIndex<>(new MethodIdentIndexer<TimerData>());
+		TimerData timerData = new TimerData();
+		timerData.setMethodIdent(5L);
+
+		Object key = secondaryIndex.put(timerData, 1L);
+		secondaryIndex.put(timerData, 2L);
+		secondaryIndex.remove(key, 1L);
+
+		assertThat(secondaryIndex.getNumberOfElements(key), is(1L));
+
+		secondaryIndex.remove(key, 2L);
+
+		assertThat(secondaryIndex.getIds(key), is(nullValue()));
+		assertThat(secondaryIndex.getNumberOfElements(key), is(0L));
+	}
+
+	/**
+	 * Tests that the key can be used again after it was removed.
+	 */
+	@Test
+	public void keyAddedAfterRemoval() {
+		SecondaryIndex<TimerData> secondaryIndex = new SecondaryIndex<>(new MethodIdentIndexer<TimerData>());
+		TimerData timerData = new TimerData();
+		timerData.setMethodIdent(5L);
+
+		Object key = secondaryIndex.put(timerData, 1L);
+		secondaryIndex.remove(key, 1L);
+		secondaryIndex.put(timerData, 2L);
+
+		assertThat(secondaryIndex.getNumberOfElements(key), is(1L));
+		assertThat(secondaryIndex.getIds(key).contains(2L), is(true));
+	}
+
+	/**
+	 * Tests that the size of the keys is calculated based on the key type.
+	 */
+	@Test
+	public void sizeBasedOnKeyType() {
+		IObjectSizes objectSizes = mock(IObjectSizes.class);
+		when(objectSizes.getSizeOfConcurrentHashMap(anyInt())).thenReturn(64L);
+		when(objectSizes.getSizeOfLongObject()).thenReturn(24L);
+		when(objectSizes.getSizeOfIntegerObject()).thenReturn(16L);
+
+		SecondaryIndex<SqlStatementData> secondaryIndex = new SecondaryIndex<>(new SqlStringIndexer<SqlStatementData>());
+		SqlStatementData sqlStatementData = new SqlStatementData();
+		sqlStatementData.setSql("select 1");
+		secondaryIndex.put(sqlStatementData, 1L);
+		long size = secondaryIndex.getSize(objectSizes);
+
+		SecondaryIndex<SqlStatementData> emptyIndex = new SecondaryIndex<>(new SqlStringIndexer<SqlStatementData>());
+		long emptySize = emptyIndex.getSize(objectSizes);
+
+		// key size, ids set view, ids map, one long id
+		assertThat(size - emptySize, is(16L + 64L + 24L));
+		verify(objectSizes, never()).getSizeOf(anyString());
+	}
+
+}
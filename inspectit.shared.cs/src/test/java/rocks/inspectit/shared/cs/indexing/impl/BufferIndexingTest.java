@@ -2,11 +2,13 @@ package rocks.inspectit.shared.cs.indexing.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyList;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.mock;
@@ -15,17 +17,26 @@ import static org.mockito.Mockito.when;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ForkJoinPool;
 
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
 import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.ExceptionEvent;
 import rocks.inspectit.shared.all.communication.MethodSensorData;
+import rocks.inspectit.shared.all.communication.data.AggregatedExceptionSensorData;
 import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.AggregatedTimerData;
+import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.cs.indexing.aggregation.Aggregators;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
 import rocks.inspectit.shared.cs.indexing.buffer.impl.Branch;
 import rocks.inspectit.shared.cs.indexing.buffer.impl.BufferBranchIndexer;
@@ -33,8 +44,10 @@ import rocks.inspectit.shared.cs.indexing.indexer.impl.MethodIdentIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.ObjectTypeIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.PlatformIdentIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.SensorTypeIdentIndexer;
+import rocks.inspectit.shared.cs.indexing.indexer.impl.SqlStringIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.TimestampIndexer;
 import rocks.inspectit.shared.cs.indexing.restriction.IIndexQueryRestrictionProcessor;
+import rocks.inspectit.shared.cs.indexing.restriction.impl.IndexQueryRestrictionFactory;
 
 /**
  * Test class for testing functionality of {@link IBufferTreeComponent}.
@@ -443,4 +456,261 @@ public class BufferIndexingTest {
 		assertThat(rootBranch.get(defaultData), is(nullValue()));
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Tests that the aggregation in the tree gives the same result with and without fork join when
+	 * the same method is indexed in different leafs.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void aggregateDifferentLeafs() throws IndexingException {
+		BufferBranchIndexer<TimerData> sensorTypeIndexer = new BufferBranchIndexer<>(new SensorTypeIdentIndexer<TimerData>());
+		BufferBranchIndexer<TimerData> platformTypeIndexer = new BufferBranchIndexer<>(new PlatformIdentIndexer<TimerData>(), sensorTypeIndexer);
+		IBufferTreeComponent<TimerData> rootBranch = new Branch<>(platformTypeIndexer);
+
+		rootBranch.put(createTimerData(1L, 10L, 1L, 1L, 10d));
+		rootBranch.put(createTimerData(2L, 10L, 2L, 1L, 20d));
+		rootBranch.put(createTimerData(3L, 20L, 1L, 1L, 30d));
+		rootBranch.put(createTimerData(4L, 10L, 1L, 2L, 5d));
+
+		AggregationPerformer<TimerData> aggregationPerformer = new AggregationPerformer<>(Aggregators.TIMER_DATA_AGGREGATOR);
+		rootBranch.aggregate(indexQuery, aggregationPerformer);
+		List<TimerData> results = aggregationPerformer.getResultList();
+		List<TimerData> resultsForkJoin = rootBranch.aggregate(indexQuery, Aggregators.TIMER_DATA_AGGREGATOR, forkJoinPool);
+
+		for (List<TimerData> list : new List[] { results, resultsForkJoin }) {
+			assertThat(list.size(), is(equalTo(2)));
+			Map<Long, TimerData> byMethod = new HashMap<>();
+			for (TimerData timerData : list) {
+				assertThat(timerData, is(instanceOf(AggregatedTimerData.class)));
+				byMethod.put(timerData.getMethodIdent(), timerData);
+			}
+			assertThat(byMethod.get(1L).getCount(), is(3L));
+			assertThat(byMethod.get(1L).getDuration(), is(60d));
+			assertThat(byMethod.get(1L).getMin(), is(10d));
+			assertThat(byMethod.get(1L).getMax(), is(30d));
+			assertThat(((AggregatedTimerData) byMethod.get(1L)).getAggregatedIds().size(), is(3));
+			assertThat(byMethod.get(2L).getCount(), is(1L));
+			assertThat(byMethod.get(2L).getDuration(), is(5d));
+		}
+	}
+
+	/**
+	 * Tests that the distinct stack traces aggregation in the tree gives the same result with and
+	 * without fork join when the exceptions are indexed in different leafs.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void aggregateExceptionsDifferentLeafs() throws IndexingException {
+		IBufferTreeComponent<ExceptionSensorData> rootBranch = new Branch<>(new BufferBranchIndexer<>(new PlatformIdentIndexer<ExceptionSensorData>()));
+		String firstFrames = "\n\tat First.method(First.java:1)\n\tat Common.method(Common.java:1)";
+		String secondFrames = "\n\tat Second.method(Second.java:1)\n\tat Common.method(Common.java:1)";
+		// leafs hold weak references
+		List<ExceptionSensorData> elements = new ArrayList<>();
+		elements.add(createExceptionData(1L, 10L, "MyException: message" + firstFrames));
+		elements.add(createExceptionData(2L, 10L, "MyException: message" + secondFrames));
+		elements.add(createExceptionData(3L, 20L, "MyException: message" + firstFrames));
+		elements.add(createExceptionData(4L, 20L, "MyException: message" + secondFrames));
+		elements.add(createExceptionData(5L, 30L, "MyException: message" + firstFrames));
+		for (ExceptionSensorData element : elements) {
+			rootBranch.put(element);
+		}
+
+		AggregationPerformer<ExceptionSensorData> aggregationPerformer = new AggregationPerformer<>(Aggregators.DISTINCT_STACK_TRACES_AGGREGATOR);
+		rootBranch.aggregate(indexQuery, aggregationPerformer);
+		List<ExceptionSensorData> results = aggregationPerformer.getResultList();
+		List<ExceptionSensorData> resultsForkJoin = rootBranch.aggregate(indexQuery, Aggregators.DISTINCT_STACK_TRACES_AGGREGATOR, forkJoinPool);
+
+		for (List<ExceptionSensorData> list : new List[] { results, resultsForkJoin }) {
+			assertThat(list.size(), is(equalTo(2)));
+			Map<String, AggregatedExceptionSensorData> byStackTrace = new HashMap<>();
+			for (ExceptionSensorData exceptionData : list) {
+				byStackTrace.put(exceptionData.getStackTrace(), (AggregatedExceptionSensorData) exceptionData);
+			}
+			assertThat(byStackTrace.get(firstFrames.substring(1)).getCreated(), is(3L));
+			assertThat(byStackTrace.get(secondFrames.substring(1)).getCreated(), is(2L));
+		}
+	}
+
+	/**
+	 * Tests that aggregation in the tree respects the query.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void aggregateWithQuery() throws IndexingException {
+		BufferBranchIndexer<TimerData> sensorTypeIndexer = new BufferBranchIndexer<>(new SensorTypeIdentIndexer<TimerData>());
+		BufferBranchIndexer<TimerData> platformTypeIndexer = new BufferBranchIndexer<>(new PlatformIdentIndexer<TimerData>(), sensorTypeIndexer);
+		IBufferTreeComponent<TimerData> rootBranch = new Branch<>(platformTypeIndexer);
+
+		rootBranch.put(createTimerData(1L, 10L, 1L, 1L, 10d));
+		rootBranch.put(createTimerData(2L, 10L, 2L, 1L, 20d));
+		rootBranch.put(createTimerData(3L, 20L, 1L, 1L, 30d));
+
+		indexQuery.setPlatformIdent(10L);
+
+		List<TimerData> results = rootBranch.aggregate(indexQuery, Aggregators.TIMER_DATA_AGGREGATOR, forkJoinPool);
+
+		assertThat(results.size(), is(equalTo(1)));
+		assertThat(results.get(0).getCount(), is(2L));
+		assertThat(results.get(0).getDuration(), is(30d));
+
+		indexQuery.setPlatformIdent(30L);
+
+		results = rootBranch.aggregate(indexQuery, Aggregators.TIMER_DATA_AGGREGATOR, forkJoinPool);
+
+		assertThat(results.size(), is(equalTo(0)));
+	}
+
+	/**
+	 * Tests that the query for the method returns the same results with and without the secondary
+	 * index and that removed elements are not returned by the index.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void secondaryIndexMethodIdent() throws IndexingException {
+		BufferBranchIndexer<TimerData> indexedPlatformIndexer = new BufferBranchIndexer<>(new PlatformIdentIndexer<TimerData>());
+		indexedPlatformIndexer.addSecondaryIndexer(TimerData.class, new MethodIdentIndexer<TimerData>());
+		IBufferTreeComponent<TimerData> indexedBranch = new Branch<>(indexedPlatformIndexer);
+		IBufferTreeComponent<TimerData> rootBranch = new Branch<>(new BufferBranchIndexer<>(new PlatformIdentIndexer<TimerData>()));
+
+		List<TimerData> elements = new ArrayList<>();
+		for (int i = 1; i <= 30; i++) {
+			TimerData timerData = createTimerData(i, 10L, 1L, i % 3, i);
+			elements.add(timerData);
+			indexedBranch.put(timerData);
+			rootBranch.put(timerData);
+		}
+
+		indexQuery.setMethodIdent(1L);
+		List<TimerData> results = indexedBranch.query(indexQuery);
+		assertThat(results.size(), is(equalTo(10)));
+		assertThat(indexedBranch.query(indexQuery, forkJoinPool).size(), is(equalTo(10)));
+		assertThat(results.size(), is(equalTo(rootBranch.query(indexQuery).size())));
+		for (TimerData timerData : results) {
+			assertThat(timerData.getMethodIdent(), is(1L));
+		}
+
+		AggregationPerformer<TimerData> aggregationPerformer = new AggregationPerformer<>(Aggregators.TIMER_DATA_AGGREGATOR);
+		indexedBranch.aggregate(indexQuery, aggregationPerformer);
+		assertThat(aggregationPerformer.getResultList().size(), is(equalTo(1)));
+		assertThat(aggregationPerformer.getResultList().get(0).getCount(), is(10L));
+
+		indexedBranch.getAndRemove(elements.get(0));
+		assertThat(indexedBranch.query(indexQuery).size(), is(equalTo(9)));
+
+		indexedBranch.clearAll();
+		assertThat(indexedBranch.query(indexQuery).size(), is(equalTo(0)));
+	}
+
+	/**
+	 * Tests that the SQL string index is used for the query with the equals restriction on the
+	 * SQL. Restriction processor in the test fulfills all restrictions, thus only the index selects
+	 * the elements.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void secondaryIndexSqlString() throws IndexingException {
+		BufferBranchIndexer<SqlStatementData> platformIndexer = new BufferBranchIndexer<>(new PlatformIdentIndexer<SqlStatementData>());
+		platformIndexer.addSecondaryIndexer(SqlStatementData.class, new MethodIdentIndexer<SqlStatementData>());
+		platformIndexer.addSecondaryIndexer(SqlStatementData.class, new SqlStringIndexer<SqlStatementData>());
+		IBufferTreeComponent<SqlStatementData> rootBranch = new Branch<>(platformIndexer);
+
+		for (int i = 1; i <= 20; i++) {
+			SqlStatementData sqlStatementData = new SqlStatementData(new Timestamp(System.currentTimeMillis()), 10L, 1L, 1L);
+			sqlStatementData.setId(i);
+			sqlStatementData.setSql("select " + (i % 4));
+			rootBranch.put(sqlStatementData);
+		}
+
+		indexQuery.setMethodIdent(1L);
+		indexQuery.addIndexingRestriction(IndexQueryRestrictionFactory.equal("sql", "select 2"));
+		List<SqlStatementData> results = rootBranch.query(indexQuery);
+
+		// more selective SQL index used
+		assertThat(results.size(), is(equalTo(5)));
+		for (SqlStatementData sqlStatementData : results) {
+			assertThat(sqlStatementData.getSql(), is("select 2"));
+		}
+	}
+
+	/**
+	 * Tests that the size of the secondary indexes is included in the component size.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void secondaryIndexSize() throws IndexingException {
+		BufferBranchIndexer<TimerData> indexedPlatformIndexer = new BufferBranchIndexer<>(new PlatformIdentIndexer<TimerData>());
+		indexedPlatformIndexer.addSecondaryIndexer(TimerData.class, new MethodIdentIndexer<TimerData>());
+		IBufferTreeComponent<TimerData> indexedBranch = new Branch<>(indexedPlatformIndexer);
+		IBufferTreeComponent<TimerData> rootBranch = new Branch<>(new BufferBranchIndexer<>(new PlatformIdentIndexer<TimerData>()));
+
+		for (int i = 1; i <= 10; i++) {
+			TimerData timerData = createTimerData(i, 10L, 1L, i, i);
+			indexedBranch.put(timerData);
+			rootBranch.put(timerData);
+		}
+
+		IObjectSizes objectSizes = mock(IObjectSizes.class);
+		when(objectSizes.getSizeOfConcurrentHashMap(anyInt())).thenReturn(64L);
+		when(objectSizes.getSizeOfLongObject()).thenReturn(16L);
+		assertThat(indexedBranch.getComponentSize(objectSizes), is(greaterThan(rootBranch.getComponentSize(objectSizes))));
+	}
+
+	/**
+	 * Creates the exception data with the created event.
+	 *
+	 * @param id
+	 *            Id.
+	 * @param platformIdent
+	 *            Platform ident.
+	 * @param stackTrace
+	 *            Stack trace.
+	 * @return {@link ExceptionSensorData}
+	 */
+	private ExceptionSensorData createExceptionData(long id, long platformIdent, String stackTrace) {
+		ExceptionSensorData exceptionData = new ExceptionSensorData(new Timestamp(new Date().getTime()), platformIdent, 1L, 1L);
+		exceptionData.setId(id);
+		exceptionData.setExceptionEvent(ExceptionEvent.CREATED);
+		exceptionData.setThrowableType("MyException");
+		exceptionData.setErrorMessage("message");
+		exceptionData.setStackTrace(stackTrace);
+		return exceptionData;
+	}
+
+	/**
+	 * Creates the timer data with one measurement.
+	 *
+	 * @param id
+	 *            Id.
+	 * @param platformIdent
+	 *            Platform ident.
+	 * @param sensorTypeIdent
+	 *            Sensor type ident.
+	 * @param methodIdent
+	 *            Method ident.
+	 * @param duration
+	 *            Duration.
+	 * @return Timer data.
+	 */
+	private TimerData createTimerData(long id, long platformIdent, long sensorTypeIdent, long methodIdent, double duration) {
+		TimerData timerData = new TimerData(new Timestamp(System.currentTimeMillis()), platformIdent, sensorTypeIdent, methodIdent);
+		timerData.setId(id);
+		timerData.increaseCount();
+		timerData.addDuration(duration);
+		timerData.calculateMin(duration);
+		timerData.calculateMax(duration);
+		return timerData;
+	}
+
+}
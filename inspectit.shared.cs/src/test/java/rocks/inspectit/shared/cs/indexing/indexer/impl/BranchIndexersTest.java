@@ -24,6 +24,7 @@ import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
 import rocks.inspectit.shared.all.communication.data.SqlStatementData;
 import rocks.inspectit.shared.all.indexing.IIndexQuery;
 import rocks.inspectit.shared.cs.indexing.impl.IndexQuery;
+import rocks.inspectit.shared.cs.indexing.restriction.impl.IndexQueryRestrictionFactory;
 import rocks.inspectit.shared.cs.indexing.storage.impl.StorageIndexQuery;
 
 /**
@@ -218,6 +219,29 @@ public class BranchIndexersTest {
 		assertThat(keys[0], is(notNullValue()));
 	}
 
+	/**
+	 * Tests that the {@link SqlStringIndexer} creates the key for the query with the equals
+	 * restriction on the SQL string.
+	 */
+	@Test
+	public void sqlStringIndexerRestriction() {
+		SqlStatementData data = new SqlStatementData();
+		data.setSql("select * from table");
+		SqlStringIndexer<DefaultData> indexer = new SqlStringIndexer<>();
+
+		IndexQuery query = new IndexQuery();
+		query.addIndexingRestriction(IndexQueryRestrictionFactory.notEqual("sql", "select * from table"));
+		assertThat(indexer.getKeys(query), is(emptyArray()));
+
+		query.addIndexingRestriction(IndexQueryRestrictionFactory.equal("databaseUrl", "select * from table"));
+		assertThat(indexer.getKeys(query), is(emptyArray()));
+
+		query.addIndexingRestriction(IndexQueryRestrictionFactory.equal("sql", "select * from table"));
+		Object[] keys = indexer.getKeys(query);
+		assertThat(keys, is(arrayWithSize(1)));
+		assertThat(keys[0], is(indexer.getKey(data)));
+	}
+
 	/**
 	 * Tests the {@link TimestampIndexer}.
 	 */
@@ -2,7 +2,11 @@ package rocks.inspectit.shared.cs.indexing.restriction;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.verify;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -12,6 +16,7 @@ import org.slf4j.Logger;
 import org.testng.annotations.Test;
 
 import rocks.inspectit.shared.all.communication.data.HttpTimerData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
 import rocks.inspectit.shared.all.indexing.restriction.IIndexQueryRestriction;
 import rocks.inspectit.shared.all.testbase.TestBase;
@@ -640,6 +645,73 @@ public class IndexQueryRestrictionProcessorTest extends TestBase {
 
 			assertThat(result, is(false));
 		}
+
+		/**
+		 * Tests the getter returning primitive value.
+		 */
+		@Test
+		public void primitiveGetter() {
+			TimerData timerData = new TimerData();
+			timerData.setPlatformIdent(10L);
+			timerData.setDuration(1.5d);
+			List<IIndexQueryRestriction> restrictions = Arrays.asList(IndexQueryRestrictionFactory.equal("platformIdent", 10L), IndexQueryRestrictionFactory.greaterThan("duration", 1d));
+
+			boolean result = processor.areAllRestrictionsFulfilled(timerData, restrictions);
+
+			assertThat(result, is(true));
+		}
+
+		/**
+		 * Tests the same field on the different classes.
+		 */
+		@Test
+		public void sameFieldDifferentClasses() {
+			TimerData timerData = new TimerData();
+			timerData.setId(1L);
+			SqlStatementData sqlStatementData = new SqlStatementData();
+			sqlStatementData.setId(2L);
+			List<IIndexQueryRestriction> restrictions = Collections.singletonList(IndexQueryRestrictionFactory.equal("id", 1L));
+
+			assertThat(processor.areAllRestrictionsFulfilled(timerData, restrictions), is(true));
+			assertThat(processor.areAllRestrictionsFulfilled(sqlStatementData, restrictions), is(false));
+		}
+
+		/**
+		 * Tests that the navigation over the null value is not fulfilled.
+		 */
+		@Test
+		public void nullNavigation() {
+			HttpTimerData httpTimerData = new HttpTimerData();
+			httpTimerData.setHttpInfo(null);
+			List<IIndexQueryRestriction> restrictions = Collections.singletonList(IndexQueryRestrictionFactory.isNull("httpInfo.uri"));
+
+			boolean result = processor.areAllRestrictionsFulfilled(httpTimerData, restrictions);
+
+			assertThat(result, is(false));
+		}
+
+		/**
+		 * Tests that the exception in the getter is logged.
+		 */
+		@Test
+		public void getterException() {
+			List<IIndexQueryRestriction> restrictions = Collections.singletonList(IndexQueryRestrictionFactory.isNotNull("value"));
+
+			boolean result = processor.areAllRestrictionsFulfilled(new ThrowingGetter(), restrictions);
+
+			assertThat(result, is(false));
+			verify(log).error(anyString(), any(IllegalStateException.class));
+		}
+	}
+
+	/**
+	 * Class with the getter throwing the exception.
+	 */
+	public static class ThrowingGetter {
+
+		public Object getValue() {
+			throw new IllegalStateException();
+		}
 	}
 
 }
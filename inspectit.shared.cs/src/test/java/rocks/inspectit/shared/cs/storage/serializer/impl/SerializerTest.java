@@ -63,6 +63,7 @@ import rocks.inspectit.shared.all.communication.data.cmr.CmrStatusData;
 import rocks.inspectit.shared.all.exception.BusinessException;
 import rocks.inspectit.shared.all.exception.RemoteException;
 import rocks.inspectit.shared.all.exception.enumeration.StorageErrorCodeEnum;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassHash;
 import rocks.inspectit.shared.all.serializer.ISerializer;
 import rocks.inspectit.shared.all.serializer.SerializationException;
 import rocks.inspectit.shared.all.serializer.impl.SerializationManager;
@@ -404,6 +405,17 @@ public class SerializerTest extends TestBase {
 		}
 	}
 
+	/**
+	 * Tests serialization of the class hash.
+	 */
+	@Test
+	public void classHash() throws SerializationException {
+		ClassHash classHash = new ClassHash(Long.MIN_VALUE, -1L);
+		ClassHash deserialized = serializeBackAndForth(classHash);
+
+		assertThat(deserialized, is(equalTo(classHash)));
+	}
+
 	private void throwIOException() throws IOException {
 		throw new IOException("Just for testing");
 	}
@@ -78,6 +78,11 @@ public class EUMSettingsPart extends SectionPart implements IPropertyListener {
 	 */
 	private Text relevancyThresholdMS;
 
+	/**
+	 * Max amount of beacon elements accepted per session and second.
+	 */
+	private Text sessionBeaconLimit;
+
 	/**
 	 * Switch to disable or enable minification.
 	 */
@@ -157,6 +162,13 @@ public class EUMSettingsPart extends SectionPart implements IPropertyListener {
 						+ "A function execution will only be captured if its executation took at least as long as configured by this threshold.\n"
 						+ "Setting the threshold to zero will cause everything to be sent to the CMR.");
 
+		toolkit.createLabel(mainComposite, "Session Beacon Limit (elements/s):").setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false));
+		sessionBeaconLimit = toolkit.createText(mainComposite, String.valueOf(environment.getEumConfig().getSessionBeaconLimit()), SWT.BORDER | SWT.LEFT);
+		sessionBeaconLimit.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+		createInfoLabel(mainComposite, toolkit,
+				"Max amount of beacon elements the agent accepts per user session and second, elements above the limit are dropped.\n"
+						+ "Protects the monitored application against sessions flooding the beacon endpoint. Setting the limit to zero deactivates it.");
+
 		toolkit.createLabel(mainComposite, "Allow JS Listener Instrumentation:").setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false));
 		listenerInstrumentationAllowedButton = toolkit.createButton(mainComposite, "", SWT.CHECK);
 		listenerInstrumentationAllowedButton.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
@@ -195,6 +207,21 @@ public class EUMSettingsPart extends SectionPart implements IPropertyListener {
 		relevancyThresholdValidation.setDescriptionText("The relevancy threshold must be a duration in milliseconds.");
 		relevancyThresholdValidation.registerListener(SWT.Modify);
 
+		ValidationControlDecoration<Text> sessionBeaconLimitValidation = new ValidationControlDecoration<Text>(sessionBeaconLimit, formPage.getManagedForm().getMessageManager()) {
+			@Override
+			protected boolean validate(Text control) {
+				try {
+					int value = Integer.parseInt(control.getText());
+					return value >= 0;
+				} catch (NumberFormatException e) {
+					return false;
+				}
+			}
+
+		};
+		sessionBeaconLimitValidation.setDescriptionText("The session beacon limit must be a positive number or zero.");
+		sessionBeaconLimitValidation.registerListener(SWT.Modify);
+
 		modulesTable = toolkit.createTable(mainComposite, SWT.MULTI | SWT.FULL_SELECTION | SWT.BORDER | SWT.V_SCROLL | SWT.H_SCROLL | SWT.CHECK);
 		GridData tableLayout = new GridData(SWT.FILL, SWT.FILL, true, false);
 		tableLayout.horizontalSpan = 2;
@@ -235,6 +262,7 @@ public class EUMSettingsPart extends SectionPart implements IPropertyListener {
 		listenerInstrumentationAllowedButton.addListener(SWT.Selection, dirtyListener);
 		minificationEnabledButton.addListener(SWT.Selection, dirtyListener);
 		relevancyThresholdMS.addListener(SWT.Modify, dirtyListener);
+		sessionBeaconLimit.addListener(SWT.Modify, dirtyListener);
 
 		updateEnabledState();
 	}
@@ -249,6 +277,7 @@ public class EUMSettingsPart extends SectionPart implements IPropertyListener {
 		listenerInstrumentationAllowedButton.setEnabled(en);
 		minificationEnabledButton.setEnabled(en);
 		relevancyThresholdMS.setEnabled(en);
+		sessionBeaconLimit.setEnabled(en);
 	}
 
 	/**
@@ -318,6 +347,7 @@ public class EUMSettingsPart extends SectionPart implements IPropertyListener {
 			environment.getEumConfig().setAgentMinificationEnabled(minificationEnabledButton.getSelection());
 			environment.getEumConfig().setScriptBaseUrl(scriptBaseUrl.getText());
 			environment.getEumConfig().setRelevancyThreshold(Integer.parseInt(relevancyThresholdMS.getText()));
+			environment.getEumConfig().setSessionBeaconLimit(Integer.parseInt(sessionBeaconLimit.getText()));
 			StringBuilder moduleString = new StringBuilder();
 			for (TableItem item : modulesTableViewer.getTable().getItems()) {
 				JSAgentModule moduleInfo = (JSAgentModule) item.getData();
@@ -66,6 +66,26 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 	 */
 	private Button classDelegationButton;
 
+	/**
+	 * Button for batched class analysis.
+	 */
+	private Button batchedClassAnalysisButton;
+
+	/**
+	 * Button for SHA-256 class hashes.
+	 */
+	private Button sha256ClassHashesButton;
+
+	/**
+	 * Button for indexed dispatch.
+	 */
+	private Button indexedDispatchButton;
+
+	/**
+	 * Button for compressed wire mode.
+	 */
+	private Button compressedWireModeButton;
+
 	/**
 	 * Default constructor.
 	 *
@@ -135,6 +155,38 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 		createInfoLabel(mainComposite, toolkit,
 				"If activated all sub-classes of java.lang.ClassLoader will be instrumented so that loading of the inspectIT classes is delegated to the inspectIT class loader. Should only be changed to false in rare cases and is expert user level option.");
 
+		// batched class analysis
+		toolkit.createLabel(mainComposite, "Batched class analysis:").setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false));
+		batchedClassAnalysisButton = toolkit.createButton(mainComposite, "Active", SWT.CHECK);
+		batchedClassAnalysisButton.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+		batchedClassAnalysisButton.setSelection(environment.isBatchedClassAnalysis());
+		createInfoLabel(mainComposite, toolkit,
+				"If activated agents send the loaded classes to the CMR for the analysis in batches, instead of making one call per class. Reduces the start-up time of the monitored application.");
+
+		// SHA-256 class hashes
+		toolkit.createLabel(mainComposite, "SHA-256 class hashes:").setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false));
+		sha256ClassHashesButton = toolkit.createButton(mainComposite, "Active", SWT.CHECK);
+		sha256ClassHashesButton.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+		sha256ClassHashesButton.setSelection(environment.isSha256ClassHashes());
+		createInfoLabel(mainComposite, toolkit,
+				"If activated agents identify the loaded classes with the SHA-256 hash of the byte code instead of the much faster MurmurHash3. Should only be activated to keep the class hashes known from agents using SHA-256, otherwise every class is sent to the CMR once more.");
+
+		// indexed dispatch
+		toolkit.createLabel(mainComposite, "Indexed dispatch:").setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false));
+		indexedDispatchButton = toolkit.createButton(mainComposite, "Active", SWT.CHECK);
+		indexedDispatchButton.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+		indexedDispatchButton.setSelection(environment.isIndexedDispatch());
+		createInfoLabel(mainComposite, toolkit,
+				"If activated the instrumented methods find their sensors by an index instead of the method id lookup. Changes the instrumentation, thus is applied only to the classes loaded after the agent started with the setting.");
+
+		// compressed wire mode
+		toolkit.createLabel(mainComposite, "Compressed wire mode:").setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false));
+		compressedWireModeButton = toolkit.createButton(mainComposite, "Active", SWT.CHECK);
+		compressedWireModeButton.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+		compressedWireModeButton.setSelection(environment.isCompressedWireMode());
+		createInfoLabel(mainComposite, toolkit,
+				"If activated agents compress the data sent to the CMR and intern the repeating strings. Reduces the network traffic at the cost of some CPU time on the agent and the CMR.");
+
 		// fill the boxes and values
 		IStrategyConfig disruptorStrategyConfig = environment.getDisruptorStrategyConfig();
 		if (disruptorStrategyConfig instanceof DisruptorStrategyConfig) {
@@ -167,6 +219,10 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 		retransformationCombo.addListener(SWT.Selection, dirtyListener);
 		bufferSizeValue.addListener(SWT.Modify, dirtyListener);
 		classDelegationButton.addListener(SWT.Selection, dirtyListener);
+		batchedClassAnalysisButton.addListener(SWT.Selection, dirtyListener);
+		sha256ClassHashesButton.addListener(SWT.Selection, dirtyListener);
+		indexedDispatchButton.addListener(SWT.Selection, dirtyListener);
+		compressedWireModeButton.addListener(SWT.Selection, dirtyListener);
 	}
 
 	/**
@@ -180,6 +236,10 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 			validateUpdateBufferSize(true);
 			environment.setRetransformationStrategy((RetransformationStrategy) retransformationCombo.getData(retransformationCombo.getItem(retransformationCombo.getSelectionIndex())));
 			environment.setClassLoadingDelegation(classDelegationButton.getSelection());
+			environment.setBatchedClassAnalysis(batchedClassAnalysisButton.getSelection());
+			environment.setSha256ClassHashes(sha256ClassHashesButton.getSelection());
+			environment.setIndexedDispatch(indexedDispatchButton.getSelection());
+			environment.setCompressedWireMode(compressedWireModeButton.getSelection());
 			getManagedForm().dirtyStateChanged();
 		}
 	}